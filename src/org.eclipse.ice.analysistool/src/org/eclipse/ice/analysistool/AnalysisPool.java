@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.analysistool;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * AnalysisPool holds the single fork/join pool that is shared by the analysis
+ * tools and the Items that drive them. Using one pool keeps the number of
+ * worker threads close to the number of processors when, for example, a
+ * ReactorAnalyzer processes several documents at once and each of them runs
+ * parallel matrix operations.
+ * </p>
+ * <p>
+ * forEachRange() runs a RangeKernel over the range [0, count), splitting it
+ * in half until the pieces are no larger than a given size. Small ranges are
+ * handled on the calling thread. It may be called from a task that is already
+ * running in the pool.
+ * </p>
+ *
+ * @author agent
+ */
+public final class AnalysisPool {
+
+	/**
+	 * The shared pool. It is created when it is first needed.
+	 */
+	private static ForkJoinPool pool;
+
+	/**
+	 * The constructor is private because this class only has static
+	 * operations.
+	 */
+	private AnalysisPool() {
+	}
+
+	/**
+	 * This operation returns the shared fork/join pool, creating it if
+	 * needed.
+	 *
+	 * @return the pool
+	 */
+	public static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * This operation runs a kernel over the range [0, count). If the range is
+	 * no more than twice as large as rangeSize it is run directly on the
+	 * calling thread. Otherwise it is split into pieces of at most rangeSize
+	 * that are run in the shared pool, and this operation returns when all of
+	 * them are done.
+	 *
+	 * @param kernel
+	 *            the kernel
+	 * @param count
+	 *            the number of elements in the range
+	 * @param rangeSize
+	 *            the largest number of elements that are handed to the kernel
+	 *            at once when the range is split. Values less than one are
+	 *            treated as one.
+	 */
+	public static void forEachRange(RangeKernel kernel, int count,
+			int rangeSize) {
+
+		// Local Declarations
+		int size = Math.max(1, rangeSize);
+
+		// Run small problems directly, otherwise use the pool
+		if (count <= 2 * size) {
+			if (count > 0) {
+				kernel.compute(0, count);
+			}
+		} else {
+			getPool().invoke(new RangeTask(kernel, 0, count, size));
+		}
+
+		return;
+	}
+
+	/**
+	 * This interface is implemented by the operations that work on a range of
+	 * elements, such as the rows of a matrix or the assemblies of a reactor.
+	 *
+	 * @author agent
+	 */
+	public interface RangeKernel {
+
+		/**
+		 * This operation works on a range of elements. It may be called at
+		 * the same time for other, disjoint ranges.
+		 *
+		 * @param first
+		 *            the first element in the range
+		 * @param last
+		 *            the element after the last element in the range
+		 */
+		public void compute(int first, int last);
+	}
+
+	/**
+	 * This class runs a RangeKernel over a range of elements, splitting the
+	 * range in half until it is small enough to run directly.
+	 *
+	 * @author agent
+	 */
+	private static class RangeTask extends RecursiveAction {
+
+		/**
+		 * The serial version ID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The kernel.
+		 */
+		private final RangeKernel kernel;
+
+		/**
+		 * The first element in the range.
+		 */
+		private final int start;
+
+		/**
+		 * The element after the last element in the range.
+		 */
+		private final int end;
+
+		/**
+		 * The largest number of elements that are run directly.
+		 */
+		private final int rangeSize;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param kernel
+		 *            the kernel
+		 * @param start
+		 *            the first element in the range
+		 * @param end
+		 *            the element after the last element in the range
+		 * @param rangeSize
+		 *            the largest number of elements that are run directly
+		 */
+		public RangeTask(RangeKernel kernel, int start, int end, int rangeSize) {
+			this.kernel = kernel;
+			this.start = start;
+			this.end = end;
+			this.rangeSize = rangeSize;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+
+			// Split the range if it is too large
+			if (end - start > rangeSize) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new RangeTask(kernel, start, middle, rangeSize),
+						new RangeTask(kernel, middle, end, rangeSize));
+				return;
+			}
+
+			// Run the elements
+			kernel.compute(start, end);
+
+			return;
+		}
+	}
+}
@@ -26,7 +26,7 @@ import org.eclipse.jface.viewers.CellLabelProvider;
 import org.eclipse.jface.viewers.ColumnViewerToolTipSupport;
 import org.eclipse.jface.viewers.ComboBoxViewerCellEditor;
 import org.eclipse.jface.viewers.ICellModifier;
-import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
@@ -103,8 +103,10 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 
 	/**
 	 * <p>
-	 * Class used to pass information for the rows in TableComponent to
-	 * TableViewer
+	 * Class used to pass information for the rows in the MatrixComponent to
+	 * the TableViewer. It only holds the index of the row and reads the values
+	 * from the MatrixComponent when a cell is shown, so the values of rows
+	 * that are not visible are never copied.
 	 * </p>
 	 * 
 	 */
@@ -112,14 +114,7 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 
 		/**
 		 * <p>
-		 * Holds an ArrayList of Entries in the TableComponent for TableViewer.
-		 * </p>
-		 * 
-		 */
-		private List<Double> list;
-
-		/**
-		 * <p>
+		 * The index of the row in the MatrixComponent.
 		 * </p>
 		 * 
 		 */
@@ -127,59 +122,37 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 
 		/**
 		 * <p>
-		 * The Constructor, injects the ArrayList of Entries at this row.
+		 * The Constructor, injects the index of this row.
 		 * </p>
 		 * 
-		 * @param list
+		 * @param index
 		 *            <p>
-		 *            The list of Entries that make up this RowWrapper.
+		 *            The index of the row in the MatrixComponent.
 		 *            </p>
 		 * 
 		 */
-		public RowWrapper(ArrayList<Double> row, int index) {
-			this.list = row;
+		public RowWrapper(int index) {
 			rowIndex = index;
 		}
 
 		/**
 		 * <p>
-		 * Return the ArrayList of Entries for this row.
+		 * Return the value in the given column of this row, or null if the
+		 * row or column is no longer in the MatrixComponent.
 		 * </p>
 		 * 
 		 */
-		public List<Double> getRowWrapper() {
-			return list;
-		}
-
-		/**
-		 * <p>
-		 * </p>
-		 * 
-		 */
-		public void add() {
-			list.add(0.0);
-		}
-
-		/**
-		 * <p>
-		 * </p>
-		 * 
-		 */
-		public void add(Double value) {
-			list.add(value);
-		}
-
-		/**
-		 * <p>
-		 * </p>
-		 * 
-		 */
-		public void remove() {
-			list.remove(list.size() - 1);
+		public Double getValue(int column) {
+			if (rowIndex < matrixComponent.numberOfRows()
+					&& column < matrixComponent.numberOfColumns()) {
+				return matrixComponent.getElementValue(rowIndex, column);
+			}
+			return null;
 		}
 
 		/**
 		 * <p>
+		 * Return the index of this row in the MatrixComponent.
 		 * </p>
 		 * 
 		 */
@@ -242,8 +215,9 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 		 */
 		@Override
 		public void update(ViewerCell cell) {
-			cell.setText(((RowWrapper) cell.getElement()).getRowWrapper()
-					.get(tableColumn).toString());
+			Double value = ((RowWrapper) cell.getElement())
+					.getValue(tableColumn);
+			cell.setText((value != null) ? value.toString() : "");
 		}
 
 		/**
@@ -346,8 +320,7 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 				}
 			}
 			// Return value of entry given the column (counter)
-			return ((RowWrapper) element).getRowWrapper().get(counter)
-					.toString();
+			return String.valueOf(((RowWrapper) element).getValue(counter));
 		}
 
 		/**
@@ -395,17 +368,10 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 
 				// FIXME FUTURE GREG WORK, ADD ERRORS AND FONT CHANGE...
 
+				// Set the Cell's text and refresh its row
+				item.setText(counter, String.valueOf(row.getValue(counter)));
+				matrixViewer.update(row, null);
 			}
-
-			// Set the value on the RowWrapper instance
-			row.getRowWrapper()
-					.set(counter,
-							matrixComponent.getElementValue(row.getRowIndex(),
-									counter));
-
-			// Set the Cell's text and refresh the TableViewer
-			item.setText(row.getRowWrapper().get(counter).toString());
-			matrixViewer.refresh();
 		}
 	}
 
@@ -453,9 +419,10 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 			return;
 		}
 		// Instantiate a new JFace TableViewer with the sectionClient as its
-		// parent
+		// parent. The table is virtual so that only the visible rows are
+		// created.
 		matrixViewer = new TableViewer(sectionClient, SWT.BORDER | SWT.H_SCROLL
-				| SWT.V_SCROLL | SWT.FULL_SELECTION);
+				| SWT.V_SCROLL | SWT.FULL_SELECTION | SWT.VIRTUAL);
 
 		// Enable tooltip support for the individual ColumnViewers
 		// Original version, commented out for RAP testing. ~JJB 20120827
@@ -524,13 +491,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 
 		// JFace Viewer Model requires an input Model.
 		// Set it up here
-		RowWrapper[] rows = new RowWrapper[matrixComponent.numberOfRows()];
-		for (int i = 0; i < matrixComponent.numberOfRows(); i++) {
-			rows[i] = new RowWrapper(matrixComponent.getRow(i), i);
-		}
-
-		// Set that input
-		matrixViewer.setInput(rows);
+		matrixViewer.setInput(createRows());
+		matrixViewer.setItemCount(matrixComponent.numberOfRows());
 
 		// Tell the TableViewer to show the column headers and the
 		// Grid lines
@@ -646,11 +608,13 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 			return;
 		}
 		// Set the ContentProvider as a realization of the
-		// IStructuredContentProvider
-		// Interface. This provides input to the JFace Viewer individual Arrays
-		// representing
-		// rows in a table, or items in a list or tree.
-		matrixViewer.setContentProvider(new IStructuredContentProvider() {
+		// ILazyContentProvider Interface. This provides the rows of the
+		// virtual table to the JFace Viewer only when they are shown.
+		matrixViewer.setContentProvider(new ILazyContentProvider() {
+
+			// The current rows
+			private RowWrapper[] rows = new RowWrapper[0];
+
 			@Override
 			public void dispose() {
 			}
@@ -658,15 +622,67 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 			@Override
 			public void inputChanged(Viewer viewer, Object oldInput,
 					Object newInput) {
+				rows = (newInput != null) ? (RowWrapper[]) newInput
+						: new RowWrapper[0];
 			}
 
 			@Override
-			public Object[] getElements(Object inputElement) {
-				return (RowWrapper[]) inputElement;
+			public void updateElement(int index) {
+				if (index < rows.length) {
+					matrixViewer.replace(rows[index], index);
+				}
 			}
 		});
 	}
 
+	/**
+	 * <p>
+	 * This operation creates the input for the TableViewer with one
+	 * RowWrapper for each row of the MatrixComponent.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The rows.
+	 *         </p>
+	 */
+	private RowWrapper[] createRows() {
+		RowWrapper[] rows = new RowWrapper[matrixComponent.numberOfRows()];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = new RowWrapper(i);
+		}
+		return rows;
+	}
+
+	/**
+	 * <p>
+	 * This operation resets the input of the TableViewer to the current rows
+	 * of the MatrixComponent, resizes the columns and refreshes the visible
+	 * rows.
+	 * </p>
+	 * 
+	 */
+	private void refreshRows() {
+
+		// Set the new input if the number of rows changed
+		if (((RowWrapper[]) matrixViewer.getInput()).length != matrixComponent
+				.numberOfRows()) {
+			matrixViewer.setInput(createRows());
+			matrixViewer.setItemCount(matrixComponent.numberOfRows());
+		}
+
+		// Resize the column widths
+		int columnWidth = matrixViewer.getTable().getSize().x
+				/ matrixViewer.getTable().getColumnCount();
+		for (TableColumn col : matrixViewer.getTable().getColumns()) {
+			col.setWidth(columnWidth);
+		}
+
+		// Refresh the Viewer
+		matrixViewer.refresh();
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation attaches the CellModifiers to the TableViewer so that
@@ -699,10 +715,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 					getSection().setDescription(
 							matrixComponent.getDescription());
 
-					// Get the old input
-					RowWrapper[] rows = (RowWrapper[]) matrixViewer.getInput();
-					RowWrapper[] newRows = rows;
-					int nCols = rows[0].getRowWrapper().size();
+					// Get the number of columns in the table
+					int nCols = matrixViewer.getTable().getColumnCount();
 
 					// Check if we need to add or remove more columns
 					if (nCols != matrixComponent.numberOfColumns()) {
@@ -790,50 +804,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 						}
 					}
 
-					// Set a new input if need be. This is for when we need to
-					// add or remove Rows
-					if (rows.length != matrixComponent.numberOfRows()
-							|| rows[0].getRowWrapper().size() != matrixComponent
-									.numberOfColumns()) {
-						System.out.println("Altering Rows: "
-								+ matrixComponent.numberOfRows() + " "
-								+ matrixComponent.numberOfColumns());
-						newRows = new RowWrapper[matrixComponent.numberOfRows()];
-						for (int i = 0; i < matrixComponent.numberOfRows(); i++) {
-							System.out.println("Row: ");
-							for (int j = 0; j < matrixComponent
-									.numberOfColumns(); j++) {
-								System.out.print(matrixComponent.getRow(i).get(
-										j)
-										+ " ");
-							}
-							System.out.println("");
-							newRows[i] = new RowWrapper(matrixComponent
-									.getRow(i), i);
-						}
-
-					}
-
-					// Resize the column widths
-					int columnWidth = matrixViewer.getTable().getSize().x
-							/ matrixViewer.getTable().getColumnCount();
-					for (TableColumn col : matrixViewer.getTable().getColumns()) {
-						col.setWidth(columnWidth);
-					}
-
-					// Make sure the individual matrix elements are correct
-					for (int i = 0; i < newRows.length; i++) {
-						for (int j = 0; j < matrixComponent.numberOfColumns(); j++) {
-							newRows[i].getRowWrapper().set(j,
-									matrixComponent.getElementValue(i, j));
-						}
-					}
-
-					// Set the new input
-					matrixViewer.setInput(newRows);
-
-					// Refresh the Viewer
-					matrixViewer.refresh();
+					// Update the rows and refresh the Viewer
+					refreshRows();
 
 				}
 			}
@@ -942,44 +914,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 							column.setLabelProvider(new ICECellLabelProvider(
 									matrixComponent.numberOfColumns() - 1));
 
-							// Create a new Input to set in the JFace Viewer
-							// model that is taken from the old input
-							RowWrapper[] rows = (RowWrapper[]) matrixViewer
-									.getInput();
-							RowWrapper[] newRows = new RowWrapper[rows.length + 1];
-
-							// Set the new Input
-							for (int i = 0; i < matrixComponent.numberOfRows(); i++) {
-								if (i == (matrixComponent.numberOfRows() - 1)) {
-									// If this is the last iteration, add a new
-									// RowWrapper
-									newRows[i] = new RowWrapper(matrixComponent
-											.getRow(i), i);
-								} else {
-									// Otherwise, add a column entry to each row
-									if (matrixComponent.getAllowedValueType() == AllowedValueType.Discrete) {
-										rows[i].add(matrixComponent
-												.getAllowedValues().get(0));
-									} else {
-										rows[i].add();
-									}
-									newRows[i] = rows[i];
-								}
-							}
-
-							// Set the new Input
-							matrixViewer.setInput(newRows);
-
-							// Resize the column widths
-							int columnWidth = matrixViewer.getTable().getSize().x
-									/ matrixViewer.getTable().getColumnCount();
-							for (TableColumn col : matrixViewer.getTable()
-									.getColumns()) {
-								col.setWidth(columnWidth);
-							}
-
-							// Refresh the Table
-							matrixViewer.refresh();
+							// Update the rows and refresh the Viewer
+							refreshRows();
 						}
 					}
 				});
@@ -1080,30 +1016,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 													.getColumnCount() - 1)
 									.dispose();
 
-							// Set up a new Input for the JFace Viewer Model
-							RowWrapper[] rows = (RowWrapper[]) matrixViewer
-									.getInput();
-							RowWrapper[] newRows = new RowWrapper[rows.length - 1];
-
-							for (int i = 0; i < matrixComponent.numberOfRows(); i++) {
-								// Remove a column entry from the row wrappers
-								rows[i].remove();
-								newRows[i] = rows[i];
-							}
-
-							// Set the Input
-							matrixViewer.setInput(newRows);
-
-							// Resize the column widths
-							int columnWidth = matrixViewer.getTable().getSize().x
-									/ matrixViewer.getTable().getColumnCount();
-							for (TableColumn col : matrixViewer.getTable()
-									.getColumns()) {
-								col.setWidth(columnWidth);
-							}
-
-							// Refresh the Viewer
-							matrixViewer.refresh();
+							// Update the rows and refresh the Viewer
+							refreshRows();
 
 						}
 					}
@@ -1138,35 +1052,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 							// MatrixComponent
 							matrixComponent.addRow();
 
-							// Create a new input from the old input
-							RowWrapper[] rows = (RowWrapper[]) matrixViewer
-									.getInput();
-							RowWrapper[] newRows = new RowWrapper[rows.length + 1];
-
-							// Add the old rows to the new input, but
-							// add a new row at the end
-							for (int i = 0; i < matrixComponent.numberOfRows(); i++) {
-								if (i == (matrixComponent.numberOfRows() - 1)) {
-									newRows[i] = new RowWrapper(matrixComponent
-											.getRow(i), i);
-								} else {
-									newRows[i] = rows[i];
-								}
-							}
-
-							// Set that Input
-							matrixViewer.setInput(newRows);
-
-							// Resize the column widths
-							int columnWidth = matrixViewer.getTable().getSize().x
-									/ matrixViewer.getTable().getColumnCount();
-							for (TableColumn col : matrixViewer.getTable()
-									.getColumns()) {
-								col.setWidth(columnWidth);
-							}
-
-							// Refresh the Viewer
-							matrixViewer.refresh();
+							// Update the rows and refresh the Viewer
+							refreshRows();
 						}
 					}
 				});
@@ -1198,31 +1085,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 									// Delete a Row from the Matrix
 									matrixComponent.deleteRow();
 
-									// Create a new input from the old input
-									RowWrapper[] rows = (RowWrapper[]) matrixViewer
-											.getInput();
-									RowWrapper[] newRows = new RowWrapper[rows.length - 1];
-
-									for (int i = 0; i < matrixComponent
-											.numberOfRows(); i++) {
-										newRows[i] = rows[i];
-									}
-
-									// Set that new Input
-									matrixViewer.setInput(newRows);
-
-									// Resize the column widths
-									int columnWidth = matrixViewer.getTable()
-											.getSize().x
-											/ matrixViewer.getTable()
-													.getColumnCount();
-									for (TableColumn col : matrixViewer
-											.getTable().getColumns()) {
-										col.setWidth(columnWidth);
-									}
-
-									// Refresh the Viewer
-									matrixViewer.refresh();
+									// Update the rows and refresh the Viewer
+									refreshRows();
 								}
 							}
 						});
@@ -1317,29 +1181,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 													.getColumnCount() - 1)
 									.dispose();
 
-							// Create a new Input from the old Input
-							RowWrapper[] rows = (RowWrapper[]) matrixViewer
-									.getInput();
-							RowWrapper[] newRows = new RowWrapper[rows.length];
-
-							for (int i = 0; i < matrixComponent.numberOfRows(); i++) {
-								rows[i].remove();
-								newRows[i] = rows[i];
-							}
-
-							// Set the new Input
-							matrixViewer.setInput(newRows);
-
-							// Resize the column widths
-							int columnWidth = matrixViewer.getTable().getSize().x
-									/ matrixViewer.getTable().getColumnCount();
-							for (TableColumn col : matrixViewer.getTable()
-									.getColumns()) {
-								col.setWidth(columnWidth);
-							}
-
-							// Refresh the Viewer
-							matrixViewer.refresh();
+							// Update the rows and refresh the Viewer
+							refreshRows();
 						}
 					}
 				});
@@ -1366,7 +1209,6 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 					@Override
 					public void widgetSelected(SelectionEvent e) {
 						if (matrixComponent != null && matrixViewer != null) {
-							System.out.println("Adding a new Column");
 							matrixComponent.addColumn();
 
 							// We need to get the old set of CellEditors and add
@@ -1437,34 +1279,8 @@ public class ICEMatrixComponentSectionPart extends SectionPart implements
 							column.setLabelProvider(new ICECellLabelProvider(
 									matrixComponent.numberOfColumns() - 1));
 
-							// Create a new Input
-							RowWrapper[] rows = (RowWrapper[]) matrixViewer
-									.getInput();
-							RowWrapper[] newRows = new RowWrapper[rows.length];
-
-							for (int i = 0; i < matrixComponent.numberOfRows(); i++) {
-								if (matrixComponent.getAllowedValueType() == AllowedValueType.Discrete) {
-									rows[i].add(matrixComponent
-											.getAllowedValues().get(0));
-								} else {
-									rows[i].add();
-								}
-								newRows[i] = rows[i];
-							}
-
-							// Set the newly created input
-							matrixViewer.setInput(newRows);
-
-							// Resize the column widths
-							int columnWidth = matrixViewer.getTable().getSize().x
-									/ matrixViewer.getTable().getColumnCount();
-							for (TableColumn col : matrixViewer.getTable()
-									.getColumns()) {
-								col.setWidth(columnWidth);
-							}
-
-							// Viewer refresh
-							matrixViewer.refresh();
+							// Update the rows and refresh the Viewer
+							refreshRows();
 
 						}
 
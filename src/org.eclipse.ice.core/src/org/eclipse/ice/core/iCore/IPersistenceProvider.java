@@ -15,6 +15,7 @@ package org.eclipse.ice.core.iCore;
 import java.util.ArrayList;
 
 import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemHeader;
 
 /**
  * <p>
@@ -97,4 +98,19 @@ public interface IPersistenceProvider {
 	 *         </p>
 	 */
 	public ArrayList<Item> loadItems();
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * Returns the headers of all the Items in the persistence piece without
+	 * loading their Forms. Providers that can read headers faster than full
+	 * Items should implement this so that the Items can be listed at start up
+	 * and loaded later with loadItem(). Providers that cannot should return
+	 * null, in which case loadItems() is used instead.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The list of headers or null if headers are not supported.
+	 *         </p>
+	 */
+	public ArrayList<ItemHeader> loadItemHeaders();
+}
@@ -13,8 +13,16 @@
 package org.eclipse.ice.core.internal.itemmanager;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 
 import org.eclipse.ice.datastructures.form.FormStatus;
 
@@ -30,6 +38,7 @@ import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.ItemBuilder;
+import org.eclipse.ice.item.ItemHeader;
 import org.eclipse.ice.item.ItemListener;
 import org.eclipse.ice.item.ItemType;
 import org.eclipse.ice.item.messaging.Message;
@@ -51,6 +60,14 @@ import org.eclipse.ice.item.messaging.Message;
  * persists all currently active Items by calling persistItems().
  * </p>
  * <p>
+ * If the IPersistenceProvider can provide ItemHeaders, loadItems() only reads
+ * the headers and returns immediately. The Items themselves are loaded in
+ * parallel in the background and any request for an Item that has not been
+ * loaded yet loads it on the calling thread. Setting the system property
+ * "org.eclipse.ice.core.lazyItemLoading" to "false" loads all Items before
+ * loadItems() returns, as was done before.
+ * </p>
+ * <p>
  * The process output file of an Item can be retrieved by calling
  * getOutputFile() and passing the id of the Item as an argument. Retrieving an
  * output file and retrieving a Form are separated because they are treated as
@@ -67,7 +84,32 @@ public class ItemManager implements ItemListener {
 	 * </p>
 	 * 
 	 */
-	private HashMap<Integer, Item> itemList;
+	private Map<Integer, Item> itemList;
+
+	/**
+	 * <p>
+	 * The Items that have been found by the persistence provider but not yet
+	 * loaded. The keys are the Item ids and the values are the tasks that load
+	 * them. A task is removed from this map after its Item is added to the
+	 * itemList.
+	 * </p>
+	 */
+	private Map<Integer, FutureTask<Item>> pendingItems;
+
+	/**
+	 * <p>
+	 * The headers of the Items in pendingItems, used to list the Items and
+	 * report their status before they are loaded.
+	 * </p>
+	 */
+	private Map<Integer, ItemHeader> pendingHeaders;
+
+	/**
+	 * <p>
+	 * The pool of threads that loads pending Items in the background.
+	 * </p>
+	 */
+	private ExecutorService itemLoader;
 
 	/**
 	 * <p>
@@ -75,7 +117,18 @@ public class ItemManager implements ItemListener {
 	 * the names of the builders and the values are the builders.
 	 * </p>
 	 */
-	private HashMap<String, ItemBuilder> itemBuilderList;
+	private Map<String, ItemBuilder> itemBuilderList;
+
+	/**
+	 * <p>
+	 * The lock that is held while builders are registered or unregistered and
+	 * while loaded Items are added to the itemList. Items are loaded in the
+	 * background while OSGi registers builders on other threads, so without it
+	 * an Item could be disabled after its builder's orphan check had already
+	 * passed it, or be rebuilt by both threads.
+	 * </p>
+	 */
+	private final Object builderLock = new Object();
 
 	/**
 	 * <p>
@@ -135,9 +188,11 @@ public class ItemManager implements ItemListener {
 		reusableIds = new ArrayList<Integer>();
 
 		// Setup the lists
-		itemBuilderList = new HashMap<String, ItemBuilder>();
+		itemBuilderList = new ConcurrentHashMap<String, ItemBuilder>();
 		compositeBuilders = new ArrayList<ICompositeItemBuilder>();
-		itemList = new HashMap<Integer, Item>();
+		itemList = new ConcurrentHashMap<Integer, Item>();
+		pendingItems = new ConcurrentHashMap<Integer, FutureTask<Item>>();
+		pendingHeaders = new ConcurrentHashMap<Integer, ItemHeader>();
 
 	}
 
@@ -270,7 +325,7 @@ public class ItemManager implements ItemListener {
 			// Try to load the item if it was created
 			if (itemId > 0) {
 				// Get the Item from the table
-				Item item = itemList.get(itemId);
+				Item item = getItem(itemId);
 				// Load it up
 				item.loadInput(filename);
 			}
@@ -308,8 +363,8 @@ public class ItemManager implements ItemListener {
 
 		// Retrieve the Form if and only if the Item id is greater than zero and
 		// is also in the list of Items.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
-			form = this.itemList.get(itemID).getForm();
+		if (itemID > 0 && hasItem(itemID)) {
+			form = getItem(itemID).getForm();
 		}
 
 		return form;
@@ -330,31 +385,36 @@ public class ItemManager implements ItemListener {
 	 */
 	public void registerBuilder(ItemBuilder builder) {
 
-		// Make sure the builder is not null and add it to the list, if it's not
-		// there already.
-		if (builder != null
-				&& !this.itemBuilderList.containsKey(builder.getItemName())) {
-			this.itemBuilderList.put(builder.getItemName(), builder);
-			// Notify the composite Items of the updated builder list
-			for (ICompositeItemBuilder compositeBuilder : compositeBuilders) {
-				compositeBuilder.addBuilders(new ArrayList<ItemBuilder>(
-						itemBuilderList.values()));
-			}
-			// Get the list of Items and see if any disabled ones can be
-			// re-enabled because this builder is their parent.
-			for (int i = 0; i < itemList.values().size(); i++) {
-				Item item = (Item) itemList.values().toArray()[i];
-				if (!item.isEnabled()
-						&& item.getItemBuilderName().equals(
-								builder.getItemName())) {
-					rebuildItem(builder, item, loadedProject);
-					item.disable(false);
-					System.out.println("ItemManager Message: "
-							+ "Enabling orphaned Item " + item.getName() + " "
-							+ item.getId() + " with builder "
-							+ builder.getItemName() + ".");
+		// Add the builder and re-enable its orphans atomically with respect to
+		// Items that are loaded in the background.
+		synchronized (builderLock) {
+			// Make sure the builder is not null and add it to the list, if it's
+			// not there already.
+			if (builder != null
+					&& !this.itemBuilderList.containsKey(builder
+							.getItemName())) {
+				this.itemBuilderList.put(builder.getItemName(), builder);
+				// Notify the composite Items of the updated builder list
+				for (ICompositeItemBuilder compositeBuilder : compositeBuilders) {
+					compositeBuilder.addBuilders(new ArrayList<ItemBuilder>(
+							itemBuilderList.values()));
 				}
+				// Get the list of Items and see if any disabled ones can be
+				// re-enabled because this builder is their parent.
+				for (int i = 0; i < itemList.values().size(); i++) {
+					Item item = (Item) itemList.values().toArray()[i];
+					if (!item.isEnabled()
+							&& item.getItemBuilderName().equals(
+									builder.getItemName())) {
+						rebuildItem(builder, item, loadedProject);
+						item.disable(false);
+						System.out.println("ItemManager Message: "
+								+ "Enabling orphaned Item " + item.getName()
+								+ " " + item.getId() + " with builder "
+								+ builder.getItemName() + ".");
+					}
 
+				}
 			}
 		}
 
@@ -401,9 +461,12 @@ public class ItemManager implements ItemListener {
 	 */
 	public void unregisterBuilder(ItemBuilder builder) {
 
-		if (builder != null
-				&& this.itemBuilderList.containsKey(builder.getItemName())) {
-			this.itemBuilderList.remove(builder.getItemName());
+		synchronized (builderLock) {
+			if (builder != null
+					&& this.itemBuilderList.containsKey(builder
+							.getItemName())) {
+				this.itemBuilderList.remove(builder.getItemName());
+			}
 		}
 
 		return;
@@ -498,6 +561,9 @@ public class ItemManager implements ItemListener {
 			if (item != null) {
 				// Set the status if the Item is actually in the map
 				status = item.getStatus();
+			} else if (pendingHeaders.containsKey(itemId)) {
+				// Use the persisted status if the Item is not loaded yet
+				status = pendingHeaders.get(itemId).getStatus();
 			}
 		}
 
@@ -577,34 +643,25 @@ public class ItemManager implements ItemListener {
 		// Make sure the persistence provider is available before requesting
 		// information from it.
 		if (provider != null) {
-			// Get all of the Items
-			ArrayList<Item> oldItems = provider.loadItems();
-			// Put all of the Items in to the list if the provider was able to
-			// load anything.
-			if (oldItems != null && !(oldItems.isEmpty())) {
-				// Loop over each Item and load it up
-				for (Item item : oldItems) {
-					// Reconstruct the Item to use the proper subclass by
-					// searching the builders for the builder with the
-					// appropriate name.
-					if (itemBuilderList.containsKey(item.getItemBuilderName())) {
-						ItemBuilder builder = itemBuilderList.get(item
-								.getItemBuilderName());
-						rebuildItem(builder, item, projectSpace);
-					} else {
-						System.out.println("ItemManager Message: "
-								+ "Builder not found for " + item.getName()
-								+ " " + item.getId() + " with builder "
-								+ item.getItemBuilderName()
-								+ ". It will be disabled.");
-						// Otherwise just put the Item in the list, but disable
-						// it. It can still be read, just not processed.
-						item.disable(true);
-						itemList.put(item.getId(), item);
-					}
-				}
+			// Save the project space
+			loadedProject = projectSpace;
+			// Get the headers if the provider supports them and lazy loading
+			// is enabled. Otherwise get all of the Items.
+			ArrayList<ItemHeader> headers = null;
+			if (!"false".equals(System
+					.getProperty("org.eclipse.ice.core.lazyItemLoading"))) {
+				headers = provider.loadItemHeaders();
+			}
+			if (headers != null) {
+				loadItemsLazily(headers, projectSpace);
+			} else {
+				loadItemsEagerly(projectSpace);
+			}
+			// Compute the available ids if anything was loaded
+			if (!itemList.isEmpty() || !pendingItems.isEmpty()) {
 				// Get the keys from the map and sort them
 				TreeSet<Integer> keys = new TreeSet<Integer>(itemList.keySet());
+				keys.addAll(pendingItems.keySet());
 				// Set the next sequential id such that it is equal to one plus
 				// the last id in the set of Items from the provider. This will
 				// keep any new items from possibly colliding with old ones in
@@ -624,13 +681,178 @@ public class ItemManager implements ItemListener {
 				System.out.println("Unable to load items in bulk from "
 						+ "the IPersistenceProvider.");
 			}
-			// Save the project space
-			loadedProject = projectSpace;
+		}
+
+		return;
+
+	}
+
+	/**
+	 * This operation loads all of the Items from the persistence provider
+	 * before returning.
+	 * 
+	 * @param projectSpace
+	 *            The project space that the Items should use for their work.
+	 */
+	private void loadItemsEagerly(IProject projectSpace) {
+
+		// Get all of the Items
+		ArrayList<Item> oldItems = provider.loadItems();
+		// Put all of the Items in to the list if the provider was able to
+		// load anything.
+		if (oldItems != null) {
+			// Loop over each Item and load it up
+			for (Item item : oldItems) {
+				if (item != null) {
+					addLoadedItem(item, projectSpace);
+				}
+			}
+		}
+
+		return;
+	}
 
+	/**
+	 * This operation registers the headers of the persisted Items and starts
+	 * loading the Items themselves in the background.
+	 * 
+	 * @param headers
+	 *            The headers of the persisted Items
+	 * @param projectSpace
+	 *            The project space that the Items should use for their work.
+	 */
+	private void loadItemsLazily(ArrayList<ItemHeader> headers,
+			final IProject projectSpace) {
+
+		// Create the pool the first time it is needed. Its threads are daemons
+		// so that they never keep the platform from shutting down.
+		if (itemLoader == null) {
+			itemLoader = Executors.newFixedThreadPool(Math.max(1, Runtime
+					.getRuntime().availableProcessors()), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "ICE Item Loader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		// Register all of the headers before any loading starts
+		ArrayList<FutureTask<Item>> loads = new ArrayList<FutureTask<Item>>();
+		for (ItemHeader header : headers) {
+			final int id = header.getId();
+			FutureTask<Item> load = new FutureTask<Item>(new Callable<Item>() {
+				@Override
+				public Item call() {
+					// Load the Item and add it to the list
+					Item item = provider.loadItem(id);
+					if (item != null) {
+						addLoadedItem(item, projectSpace);
+					} else {
+						System.out.println("ItemManager Message: "
+								+ "Unable to load Item " + id + ".");
+					}
+					// Only remove it from the pending list once it is
+					// available in the Item list.
+					pendingItems.remove(id);
+					pendingHeaders.remove(id);
+					return itemList.get(id);
+				}
+			});
+			pendingHeaders.put(id, header);
+			pendingItems.put(id, load);
+			loads.add(load);
+		}
+
+		// Load them all in the background
+		for (FutureTask<Item> load : loads) {
+			itemLoader.execute(load);
 		}
 
 		return;
+	}
 
+	/**
+	 * This operation adds an Item from the persistence provider to the list of
+	 * Items, rebuilding it with its builder if possible.
+	 * 
+	 * @param item
+	 *            The Item from the persistence provider
+	 * @param projectSpace
+	 *            The project space that the Item should use for its work.
+	 */
+	private void addLoadedItem(Item item, IProject projectSpace) {
+
+		// Hold the builder lock so that registerBuilder() either sees this
+		// Item in the list or has already added the builder it needs.
+		synchronized (builderLock) {
+			// Reconstruct the Item to use the proper subclass by searching the
+			// builders for the builder with the appropriate name.
+			if (item.getItemBuilderName() != null
+					&& itemBuilderList.containsKey(item.getItemBuilderName())) {
+				ItemBuilder builder = itemBuilderList.get(item
+						.getItemBuilderName());
+				rebuildItem(builder, item, projectSpace);
+			} else {
+				System.out.println("ItemManager Message: "
+						+ "Builder not found for " + item.getName() + " "
+						+ item.getId() + " with builder "
+						+ item.getItemBuilderName()
+						+ ". It will be disabled.");
+				// Otherwise just put the Item in the list, but disable it. It
+				// can still be read, just not processed.
+				item.disable(true);
+				itemList.put(item.getId(), item);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns true if the ItemManager has an Item with the id,
+	 * whether or not it has been loaded.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @return True if the Item exists, false otherwise.
+	 */
+	private boolean hasItem(int itemId) {
+		return itemList.containsKey(itemId) || pendingItems.containsKey(itemId);
+	}
+
+	/**
+	 * This operation returns the Item with the id. If the Item is still
+	 * waiting to be loaded, it is loaded on the calling thread. If it is
+	 * being loaded in the background, this operation waits for it.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @return The Item or null if there is no Item with the id or it could not
+	 *         be loaded.
+	 */
+	private Item getItem(int itemId) {
+
+		// Local Declarations
+		Item item = itemList.get(itemId);
+
+		// Load the Item if it is pending
+		if (item == null) {
+			FutureTask<Item> load = pendingItems.get(itemId);
+			if (load != null) {
+				// This does nothing if the load already started elsewhere
+				load.run();
+				try {
+					item = load.get();
+				} catch (InterruptedException | ExecutionException e) {
+					// Complain
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return item;
 	}
 
 	/**
@@ -694,8 +916,8 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		File outputFile = null;
 
-		if (itemList.containsKey(id)) {
-			outputFile = itemList.get(id).getOutputFile();
+		if (hasItem(id)) {
+			outputFile = getItem(id).getOutputFile();
 		}
 
 		return outputFile;
@@ -726,8 +948,8 @@ public class ItemManager implements ItemListener {
 		FormStatus status = FormStatus.InfoError;
 
 		// Find the item if the id is valid
-		if (itemList.keySet().contains(itemId)) {
-			Item item = itemList.get(itemId);
+		if (hasItem(itemId)) {
+			Item item = getItem(itemId);
 			// Try to cancel the task. This kills all processes regardless of
 			// name for now.
 			status = item.cancelProcess();
@@ -776,9 +998,9 @@ public class ItemManager implements ItemListener {
 		int itemId = msg.getItemId();
 
 		// Push the message if possible
-		if (itemList.containsKey(itemId)) {
+		if (hasItem(itemId)) {
 			// Grab the Item
-			Item messagedItem = itemList.get(itemId);
+			Item messagedItem = getItem(itemId);
 			// Post the message
 			retVal = messagedItem.update(msg);
 		}
@@ -819,14 +1041,20 @@ public class ItemManager implements ItemListener {
 	public ArrayList<Identifiable> retrieveItemList() {
 
 		// Local Declarations
-		ArrayList<Identifiable> items = new ArrayList<Identifiable>();
+		TreeMap<Integer, Identifiable> items = new TreeMap<Integer, Identifiable>();
 
+		// Retrieve the headers of the Items that are still loading first.
+		// Items are added to the itemList before they are removed from the
+		// pending list, so reading them in this order never misses one.
+		for (ItemHeader header : pendingHeaders.values()) {
+			items.put(header.getId(), header);
+		}
 		// Retrieve the list
 		for (Identifiable i : this.itemList.values()) {
-			items.add(i);
+			items.put(i.getId(), i);
 		}
 
-		return items;
+		return new ArrayList<Identifiable>(items.values());
 	}
 
 	/**
@@ -862,8 +1090,8 @@ public class ItemManager implements ItemListener {
 		id = form.getItemID();
 
 		// Make sure the Id is valid and then find its parent
-		if (itemList.containsKey(id)) {
-			currentItem = itemList.get(id);
+		if (hasItem(id)) {
+			currentItem = getItem(id);
 			status = currentItem.submitForm(form);
 		}
 
@@ -922,7 +1150,7 @@ public class ItemManager implements ItemListener {
 		// Check the Item id and actionName for validity
 		if (itemId > 0 && actionName != null) {
 			// Retrieve the Item from the map if it exists
-			tmpItem = itemList.get(itemId);
+			tmpItem = getItem(itemId);
 			if (tmpItem != null) {
 				status = tmpItem.process(actionName);
 			}
@@ -955,14 +1183,15 @@ public class ItemManager implements ItemListener {
 
 		// Try to delete the Item if and only if the Item's id is greater than
 		// zero and it is in the list of Items and set the return value.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
+		if (itemID > 0 && hasItem(itemID)) {
+			// Make sure the Item is loaded before deleting it
+			Item item = getItem(itemID);
 			// If the provider exists, delete the Item from the provider
-			if (this.provider != null) {
-				Item item = itemList.get(itemID);
+			if (this.provider != null && item != null) {
 				System.out.println("ItemManager Message: Deleting Item "
 						+ item.getName() + " " + item.getId()
 						+ " from provider");
-				provider.deleteItem(itemList.get(itemID));
+				provider.deleteItem(item);
 			}
 			// Remove the Item from the list
 			retVal = (this.itemList.remove(itemID) != null || false);
@@ -20,12 +20,11 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 
 import javax.xml.bind.JAXBContext;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 
 /**
  * This class is responsible for reading and writing JAXB-annotated classes into
- * and out of ICE.
+ * and out of ICE. The JAXBContexts and (un)marshallers that it uses are shared
+ * through the JAXBContextCache.
  * 
  * @author Jay Jay Billings
  */
@@ -50,7 +49,6 @@ public class ICEJAXBHandler {
 
 		// Initialize local variables
 		JAXBContext context;
-		Class[] clazzArray = {};
 
 		// If the input args are null, throw an exception
 		if (classList == null) {
@@ -62,11 +60,11 @@ public class ICEJAXBHandler {
 					+ "inputStream argument can not be null");
 		}
 
-		// Create new instance of object from file and then return it.
-		context = JAXBContext.newInstance(classList.toArray(clazzArray));
-		Unmarshaller unmarshaller = context.createUnmarshaller();
+		// Create new instance of object from file and then return it. The
+		// context and unmarshaller are shared through the cache.
+		context = JAXBContextCache.getContext(classList);
 		// New object created
-		Object dataFromFile = unmarshaller.unmarshal(inputStream);
+		Object dataFromFile = JAXBContextCache.unmarshal(context, inputStream);
 
 		// Return object
 		return dataFromFile;
@@ -94,7 +92,6 @@ public class ICEJAXBHandler {
 			JAXBException, IOException {
 
 		JAXBContext jaxbContext = null;
-		Class[] classArray = {};
 
 		// Throw exceptions if input args are null
 		if (dataObject == null) {
@@ -127,13 +124,9 @@ public class ICEJAXBHandler {
 
 		// Create the context and marshal the data if classes were determined
 		if (classList.size() > 0) {
-			jaxbContext = JAXBContext
-					.newInstance(classList.toArray(classArray));
-			Marshaller marshaller = jaxbContext.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-					Boolean.TRUE);
+			jaxbContext = JAXBContextCache.getContext(classList);
 			// Write to file
-			marshaller.marshal(dataObject, outputStream);
+			JAXBContextCache.marshal(jaxbContext, dataObject, outputStream);
 		}
 
 		return;
@@ -94,6 +94,21 @@ public class ICEObject implements IUpdateable {
 	@XmlTransient
 	protected ArrayList<IUpdateableListener> listeners;
 
+	/**
+	 * The lock that guards the batch update state.
+	 */
+	private final Object batchLock = new Object();
+
+	/**
+	 * The number of nested batch updates that are in progress.
+	 */
+	private int batchDepth = 0;
+
+	/**
+	 * True if notifyListeners() was called during a batch update.
+	 */
+	private boolean batchPending = false;
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -209,28 +224,73 @@ public class ICEObject implements IUpdateable {
 	/**
 	 * <p>
 	 * This protected operation notifies the listeners of the ICEObject that its
-	 * state has changed.
+	 * state has changed. The notifications are delivered asynchronously by the
+	 * shared ListenerDispatcher. If an update is in progress (see
+	 * beginUpdate()), the notification is deferred until the update ends.
 	 * </p>
 	 * 
 	 */
 	protected void notifyListeners() {
 
+		// Defer the notification if a batch update is in progress
+		synchronized (batchLock) {
+			if (batchDepth > 0) {
+				batchPending = true;
+				return;
+			}
+		}
+
 		// Only process the update if there are listeners
 		if (listeners != null && !listeners.isEmpty()) {
-			// Create a thread on which to notify the listeners.
-			Thread notifierThread = new Thread() {
-				@Override
-				public void run() {
-					// Loop over all listeners and update them
-					for (int i = 0; i < listeners.size(); i++) {
-						listeners.get(i).update(ICEObject.this);
-					}
-					return;
+			ListenerDispatcher.getInstance().dispatch(this, listeners);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation starts a batch update of the ICEObject. Until the
+	 * matching call to endUpdate(), calls to notifyListeners() are recorded
+	 * but the listeners are not notified. Calls may be nested.
+	 * </p>
+	 * 
+	 */
+	public void beginUpdate() {
+
+		synchronized (batchLock) {
+			batchDepth++;
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation ends a batch update that was started with beginUpdate().
+	 * When the outermost batch ends, the listeners are notified once if the
+	 * ICEObject changed during the batch.
+	 * </p>
+	 * 
+	 */
+	public void endUpdate() {
+
+		// Local Declarations
+		boolean notify = false;
+
+		synchronized (batchLock) {
+			if (batchDepth > 0) {
+				batchDepth--;
+				if (batchDepth == 0 && batchPending) {
+					batchPending = false;
+					notify = true;
 				}
-			};
+			}
+		}
 
-			// Launch the thread and do the notifications
-			notifierThread.start();
+		// Send out the single, deferred notification
+		if (notify) {
+			notifyListeners();
 		}
 
 		return;
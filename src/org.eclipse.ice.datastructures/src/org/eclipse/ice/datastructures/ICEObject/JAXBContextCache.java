@@ -0,0 +1,390 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.SynchronousBundleListener;
+
+/**
+ * <p>
+ * This class is a process-wide cache of JAXBContexts. Creating a JAXBContext
+ * requires JAXB to reflect over every class that it can reach from the
+ * classes it is given, which is very expensive, but a context is thread-safe
+ * once it has been created. This cache creates one context for each distinct
+ * set of classes (the order of the classes does not matter) and hands the same
+ * context to every caller that asks for that set.
+ * </p>
+ * <p>
+ * Marshallers and Unmarshallers are not thread-safe, so they are pooled per
+ * context instead. Clients should use marshal() and unmarshal(), which borrow
+ * an instance from the pool and return it when they are done. All Marshallers
+ * created by the cache write formatted output, which is what ICE has always
+ * written.
+ * </p>
+ * <p>
+ * A context holds on to its classes and so to the class loaders of the
+ * bundles that provide them. When the cache runs in OSGi, it listens for
+ * bundles that are stopped, updated or uninstalled and drops every context
+ * that was created with one of their classes, so that their old class loaders
+ * can be collected.
+ * </p>
+ *
+ * @author agent
+ */
+public class JAXBContextCache {
+
+	/**
+	 * The maximum number of idle Marshallers or Unmarshallers kept for each
+	 * context.
+	 */
+	private static final int maxPoolSize = 8;
+
+	/**
+	 * The cached contexts, keyed by the set of classes used to create them.
+	 * The values are Futures so that a context is only ever created once even
+	 * if many threads ask for it at the same time.
+	 */
+	private static final ConcurrentHashMap<Set<Class<?>>, Future<JAXBContext>> contexts = new ConcurrentHashMap<Set<Class<?>>, Future<JAXBContext>>();
+
+	/**
+	 * The pools of idle Marshallers for each context.
+	 */
+	private static final ConcurrentHashMap<JAXBContext, ConcurrentLinkedQueue<Marshaller>> marshallers = new ConcurrentHashMap<JAXBContext, ConcurrentLinkedQueue<Marshaller>>();
+
+	/**
+	 * The pools of idle Unmarshallers for each context.
+	 */
+	private static final ConcurrentHashMap<JAXBContext, ConcurrentLinkedQueue<Unmarshaller>> unmarshallers = new ConcurrentHashMap<JAXBContext, ConcurrentLinkedQueue<Unmarshaller>>();
+
+	/**
+	 * True if the cache no longer needs to register its bundle listener,
+	 * either because it has done so or because it is not running in OSGi.
+	 */
+	private static volatile boolean listening = false;
+
+	/**
+	 * This class only has static operations.
+	 */
+	private JAXBContextCache() {
+	}
+
+	/**
+	 * This operation returns the JAXBContext for the set of classes, creating
+	 * it if it has not been requested before.
+	 *
+	 * @param classes
+	 *            The classes from which JAXB annotations should be read.
+	 * @return The shared JAXBContext for the classes
+	 * @throws JAXBException
+	 *             An exception indicating that the context could not be
+	 *             created.
+	 */
+	public static JAXBContext getContext(Class<?>... classes)
+			throws JAXBException {
+		return getContext(Arrays.asList(classes));
+	}
+
+	/**
+	 * This operation returns the JAXBContext for the set of classes, creating
+	 * it if it has not been requested before.
+	 *
+	 * @param classes
+	 *            The classes from which JAXB annotations should be read.
+	 *            Duplicates are ignored.
+	 * @return The shared JAXBContext for the classes
+	 * @throws JAXBException
+	 *             An exception indicating that the context could not be
+	 *             created.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static JAXBContext getContext(Collection<? extends Class> classes)
+			throws JAXBException {
+
+		// Throw an exception if the classes are null
+		if (classes == null) {
+			throw new NullPointerException("NullPointerException: "
+					+ "classes argument can not be null");
+		}
+
+		// Create the key from the classes. The key must not be modified after
+		// it has been put in the map.
+		final Set<Class<?>> key = Collections
+				.unmodifiableSet(new HashSet<Class<?>>(
+						(Collection<Class<?>>) classes));
+
+		// Make sure that contexts are dropped when their bundles stop
+		listenForBundles();
+
+		// Get the context or create it if this is the first request for it
+		Future<JAXBContext> future = contexts.get(key);
+		if (future == null) {
+			FutureTask<JAXBContext> task = new FutureTask<JAXBContext>(
+					new Callable<JAXBContext>() {
+						@Override
+						public JAXBContext call() throws JAXBException {
+							return JAXBContext.newInstance(key
+									.toArray(new Class[key.size()]));
+						}
+					});
+			future = contexts.putIfAbsent(key, task);
+			if (future == null) {
+				future = task;
+				task.run();
+			}
+		}
+
+		// Unwrap the context
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			// Do not cache failures so that the caller can try again
+			contexts.remove(key, future);
+			if (e.getCause() instanceof JAXBException) {
+				throw (JAXBException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new JAXBException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JAXBException(e);
+		}
+	}
+
+	/**
+	 * This operation unmarshals an Object from the stream using a pooled
+	 * Unmarshaller for the context.
+	 *
+	 * @param context
+	 *            The context that should be used
+	 * @param inputStream
+	 *            The stream from which the XML should be read
+	 * @return The unmarshalled Object
+	 * @throws JAXBException
+	 *             An exception indicating that the Object could not be read
+	 */
+	public static Object unmarshal(JAXBContext context, InputStream inputStream)
+			throws JAXBException {
+
+		// Borrow an Unmarshaller from the pool or create one
+		ConcurrentLinkedQueue<Unmarshaller> pool = getPool(unmarshallers,
+				context);
+		Unmarshaller unmarshaller = pool.poll();
+		if (unmarshaller == null) {
+			unmarshaller = context.createUnmarshaller();
+		}
+
+		// Read the Object and return the Unmarshaller to the pool
+		Object object = unmarshaller.unmarshal(inputStream);
+		if (pool.size() < maxPoolSize) {
+			pool.offer(unmarshaller);
+		}
+
+		return object;
+	}
+
+	/**
+	 * This operation marshals an Object to the stream as formatted XML using a
+	 * pooled Marshaller for the context.
+	 *
+	 * @param context
+	 *            The context that should be used
+	 * @param object
+	 *            The Object to write
+	 * @param outputStream
+	 *            The stream to which the XML should be written
+	 * @throws JAXBException
+	 *             An exception indicating that the Object could not be written
+	 */
+	public static void marshal(JAXBContext context, Object object,
+			OutputStream outputStream) throws JAXBException {
+
+		// Borrow a Marshaller from the pool or create one
+		ConcurrentLinkedQueue<Marshaller> pool = getPool(marshallers, context);
+		Marshaller marshaller = pool.poll();
+		if (marshaller == null) {
+			marshaller = context.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+					Boolean.TRUE);
+		}
+
+		// Write the Object and return the Marshaller to the pool
+		marshaller.marshal(object, outputStream);
+		if (pool.size() < maxPoolSize) {
+			pool.offer(marshaller);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation removes all of the cached contexts and pooled
+	 * (un)marshallers. It should be called when the set of available classes
+	 * changes outside of OSGi. In OSGi, the contexts of bundles that stop are
+	 * removed automatically.
+	 */
+	public static void clear() {
+		contexts.clear();
+		marshallers.clear();
+		unmarshallers.clear();
+	}
+
+	/**
+	 * This operation removes the cached contexts, and their pooled
+	 * (un)marshallers, that were created with at least one class loaded by
+	 * the class loader.
+	 *
+	 * @param classLoader
+	 *            The class loader whose classes should no longer be
+	 *            referenced by the cache
+	 */
+	public static void clear(ClassLoader classLoader) {
+		if (classLoader != null) {
+			removeContexts(classLoader, null);
+		}
+	}
+
+	/**
+	 * This operation removes the cached contexts that were created with at
+	 * least one class from the class loader or from the bundle. Either may be
+	 * null.
+	 *
+	 * @param classLoader
+	 *            The class loader
+	 * @param bundle
+	 *            The bundle
+	 */
+	private static void removeContexts(ClassLoader classLoader, Bundle bundle) {
+
+		for (Map.Entry<Set<Class<?>>, Future<JAXBContext>> entry : contexts
+				.entrySet()) {
+			for (Class<?> keyClass : entry.getKey()) {
+				if ((classLoader != null && keyClass.getClassLoader() == classLoader)
+						|| (bundle != null && bundle.equals(FrameworkUtil
+								.getBundle(keyClass)))) {
+					// Remove the context and its pools
+					Future<JAXBContext> future = entry.getValue();
+					contexts.remove(entry.getKey(), future);
+					if (future.isDone()) {
+						try {
+							JAXBContext context = future.get();
+							marshallers.remove(context);
+							unmarshallers.remove(context);
+						} catch (ExecutionException e) {
+							// Failed contexts do not have pools
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+					break;
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation registers a listener that removes the contexts of
+	 * bundles that are stopped, updated or uninstalled. It only does so once,
+	 * and only if the cache is running in an active OSGi bundle.
+	 */
+	private static void listenForBundles() {
+
+		// Check the flag without locking first since this is called for
+		// every request
+		if (listening) {
+			return;
+		}
+
+		synchronized (JAXBContextCache.class) {
+			if (!listening) {
+				Bundle bundle = FrameworkUtil.getBundle(JAXBContextCache.class);
+				if (bundle == null) {
+					// Not running in OSGi, so there is nothing to listen to
+					listening = true;
+				} else {
+					// The context is only available once the bundle starts
+					BundleContext bundleContext = bundle.getBundleContext();
+					if (bundleContext != null) {
+						bundleContext
+								.addBundleListener(new SynchronousBundleListener() {
+									@Override
+									public void bundleChanged(BundleEvent event) {
+										int type = event.getType();
+										if (type == BundleEvent.STOPPED
+												|| type == BundleEvent.UPDATED
+												|| type == BundleEvent.UNINSTALLED) {
+											removeContexts(null,
+													event.getBundle());
+										}
+									}
+								});
+						listening = true;
+					}
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the pool for the context from the map, creating
+	 * it if needed.
+	 *
+	 * @param pools
+	 *            The map of pools
+	 * @param context
+	 *            The context
+	 * @return The pool for the context
+	 */
+	private static <T> ConcurrentLinkedQueue<T> getPool(
+			ConcurrentHashMap<JAXBContext, ConcurrentLinkedQueue<T>> pools,
+			JAXBContext context) {
+
+		ConcurrentLinkedQueue<T> pool = pools.get(context);
+		if (pool == null) {
+			ConcurrentLinkedQueue<T> newPool = new ConcurrentLinkedQueue<T>();
+			pool = pools.putIfAbsent(context, newPool);
+			if (pool == null) {
+				pool = newPool;
+			}
+		}
+
+		return pool;
+	}
+}
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * The ListenerDispatcher is the shared notification engine used by ICEObjects
+ * and other IUpdateables to deliver updates to their IUpdateableListeners.
+ * Instead of starting a new Thread for every notification, updates are handed
+ * to a small, bounded pool of daemon threads.
+ * </p>
+ * <p>
+ * Each listener has its own queue of pending sources and at most one pool
+ * thread drains that queue at any time, so a listener always receives its
+ * updates in the order in which they were posted and is never called
+ * concurrently by the dispatcher. If a source posts an update to a listener
+ * that is still waiting for a previous update from the same source, the two
+ * are coalesced into a single call to IUpdateableListener.update().
+ * </p>
+ * <p>
+ * Listeners are identified by reference, not by equals(), because many
+ * listeners in ICE are themselves Components whose equality depends on their
+ * (mutable) state.
+ * </p>
+ *
+ * @author agent
+ */
+public class ListenerDispatcher {
+
+	/**
+	 * The shared instance of the dispatcher.
+	 */
+	private static final ListenerDispatcher instance = new ListenerDispatcher();
+
+	/**
+	 * The bounded pool of threads on which listeners are notified.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The maximum number of threads in the pool.
+	 */
+	private final int poolSize;
+
+	/**
+	 * The map of listeners to their queues of pending notifications. A
+	 * listener only has an entry in this map while it has notifications that
+	 * have not been delivered. All access is synchronized on the map.
+	 */
+	private final IdentityHashMap<IUpdateableListener, ListenerQueue> queues;
+
+	/**
+	 * The number of (source, listener) notifications that have been posted.
+	 */
+	private final AtomicLong postedCount = new AtomicLong();
+
+	/**
+	 * The number of posted notifications that were merged into a notification
+	 * that was already pending.
+	 */
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * The number of calls that have been made to IUpdateableListener.update().
+	 */
+	private final AtomicLong deliveredCount = new AtomicLong();
+
+	/**
+	 * The constructor. The pool is sized by the number of available processors
+	 * but never exceeds eight threads.
+	 */
+	private ListenerDispatcher() {
+
+		// Size the pool. At least two threads are needed so that one slow
+		// listener does not stall all of the others.
+		int processors = Runtime.getRuntime().availableProcessors();
+		poolSize = Math.max(2, Math.min(8, processors));
+
+		// Create the pool of daemon threads. Idle threads time out so that an
+		// idle workbench does not hold on to them.
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize,
+				30L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger threadCount = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable,
+								"ICE Listener Dispatcher "
+										+ threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		pool.allowCoreThreadTimeOut(true);
+		executor = pool;
+
+		queues = new IdentityHashMap<IUpdateableListener, ListenerQueue>();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the shared instance of the dispatcher.
+	 *
+	 * @return The dispatcher
+	 */
+	public static ListenerDispatcher getInstance() {
+		return instance;
+	}
+
+	/**
+	 * This operation posts an update from the source to each of the
+	 * listeners. It does not block: the listeners are notified on the
+	 * dispatcher's threads. The list of listeners is copied before this
+	 * operation returns, so callers may safely modify it afterwards.
+	 *
+	 * @param source
+	 *            The IUpdateable that has changed
+	 * @param listeners
+	 *            The listeners that should be notified. Null listeners are
+	 *            ignored.
+	 */
+	public void dispatch(IUpdateable source,
+			List<? extends IUpdateableListener> listeners) {
+
+		// Only process the update if there are listeners
+		if (source == null || listeners == null || listeners.isEmpty()) {
+			return;
+		}
+
+		// Take a snapshot of the listeners so that the caller's list is not
+		// read from the pool threads.
+		List<IUpdateableListener> snapshot = new ArrayList<IUpdateableListener>(
+				listeners);
+
+		synchronized (queues) {
+			for (IUpdateableListener listener : snapshot) {
+				if (listener != null) {
+					post(source, listener);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation posts an update from the source to a single listener. It
+	 * must only be called while holding the lock on the queue map.
+	 *
+	 * @param source
+	 *            The IUpdateable that has changed
+	 * @param listener
+	 *            The listener to notify
+	 */
+	private void post(IUpdateable source, IUpdateableListener listener) {
+
+		postedCount.incrementAndGet();
+
+		// Get the queue for the listener or create it if needed. A new queue
+		// means that no thread is draining it, so schedule a drain.
+		ListenerQueue queue = queues.get(listener);
+		if (queue == null) {
+			queue = new ListenerQueue(listener);
+			queues.put(listener, queue);
+			queue.add(source);
+			executor.execute(queue);
+		} else if (!queue.add(source)) {
+			// The source was already pending for this listener
+			coalescedCount.incrementAndGet();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of notifications that have been posted
+	 * to the dispatcher, counting each listener separately.
+	 *
+	 * @return The number of posted notifications
+	 */
+	public long getPostedCount() {
+		return postedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of posted notifications that were
+	 * coalesced into a notification that was already pending.
+	 *
+	 * @return The number of coalesced notifications
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of times a listener has been updated
+	 * by the dispatcher.
+	 *
+	 * @return The number of delivered notifications
+	 */
+	public long getDeliveredCount() {
+		return deliveredCount.get();
+	}
+
+	/**
+	 * This operation returns the maximum number of threads that the
+	 * dispatcher will use to notify listeners.
+	 *
+	 * @return The size of the thread pool
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * This operation returns true if there are notifications that have not yet
+	 * been delivered.
+	 *
+	 * @return True if notifications are pending, false otherwise.
+	 */
+	public boolean isBusy() {
+		synchronized (queues) {
+			return !queues.isEmpty();
+		}
+	}
+
+	/**
+	 * This class holds the pending sources for a single listener. It is also
+	 * the task that drains them, so at most one pool thread calls the listener
+	 * at a time.
+	 *
+	 * @author agent
+	 */
+	private class ListenerQueue implements Runnable {
+
+		/**
+		 * The listener that is updated by this queue.
+		 */
+		private final IUpdateableListener listener;
+
+		/**
+		 * The sources that have pending updates, in the order that they were
+		 * first posted.
+		 */
+		private final ArrayDeque<IUpdateable> sources;
+
+		/**
+		 * The set of sources in the queue, used to coalesce duplicates.
+		 */
+		private final IdentityHashMap<IUpdateable, Boolean> pending;
+
+		/**
+		 * The constructor
+		 *
+		 * @param listener
+		 *            The listener that is updated by this queue.
+		 */
+		public ListenerQueue(IUpdateableListener listener) {
+			this.listener = listener;
+			sources = new ArrayDeque<IUpdateable>();
+			pending = new IdentityHashMap<IUpdateable, Boolean>();
+		}
+
+		/**
+		 * This operation adds a source to the queue unless it is already
+		 * pending. It must only be called while holding the lock on the queue
+		 * map.
+		 *
+		 * @param source
+		 *            The source to add
+		 * @return True if the source was added, false if it was already
+		 *         pending.
+		 */
+		public boolean add(IUpdateable source) {
+			if (pending.put(source, Boolean.TRUE) == null) {
+				sources.add(source);
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * This operation delivers the pending updates to the listener until
+		 * the queue is empty and then retires the queue.
+		 */
+		@Override
+		public void run() {
+
+			IUpdateable source;
+
+			while (true) {
+				// Pull the next source off of the queue. Retire the queue if it
+				// is empty so that the next post schedules a new drain.
+				synchronized (queues) {
+					source = sources.poll();
+					if (source == null) {
+						queues.remove(listener);
+						return;
+					}
+					pending.remove(source);
+				}
+
+				// Notify the listener. A failing listener must not stop the
+				// remaining notifications.
+				try {
+					listener.update(source);
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+				deliveredCount.incrementAndGet();
+			}
+		}
+	}
+
+}
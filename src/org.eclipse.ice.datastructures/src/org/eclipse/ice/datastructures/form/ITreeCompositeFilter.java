@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.form;
+
+/**
+ * <p>
+ * The ITreeCompositeFilter interface specifies the operation that must be
+ * realized by classes that select TreeComposites for
+ * TreeComposite.findAll().
+ * </p>
+ * 
+ * @author agent
+ */
+public interface ITreeCompositeFilter {
+
+	/**
+	 * <p>
+	 * This operation determines whether or not a TreeComposite should be
+	 * selected.
+	 * </p>
+	 * 
+	 * @param tree
+	 *            The TreeComposite
+	 * @return True if the TreeComposite should be selected, false otherwise.
+	 */
+	public boolean accept(TreeComposite tree);
+}
@@ -13,6 +13,7 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -39,6 +40,13 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
  * an element of a desired set of elements, or the matrix elements must exist
  * within a given range of values.
  * </p>
+ * <p>
+ * The elements are stored in row-major order in a primitive array that grows
+ * geometrically, so adding rows and columns does not rebuild the storage and
+ * large matrices do not box their values. The setRow(), setColumn() and
+ * setAll() operations change many elements at once and notify the listeners
+ * only once.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -56,13 +64,23 @@ public class MatrixComponent extends ICEObject implements Component {
 
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix. The first n*m values of this
+	 * array are the elements of a matrix of size nxm in row-major order. The
+	 * rest of the array is spare capacity.
 	 * </p>
 	 * 
 	 */
-	@XmlElement
-	private ArrayList<Double> elements;
+	@XmlTransient
+	private double[] elements;
+
+	/**
+	 * <p>
+	 * The number of elements in the elements array that are used.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private int size;
 	/**
 	 * <p>
 	 * Reference to the current number of rows in this matrix.
@@ -99,6 +117,16 @@ public class MatrixComponent extends ICEObject implements Component {
 	 */
 	@XmlElement
 	private ArrayList<Double> allowedValues;
+
+	/**
+	 * <p>
+	 * The allowed values in ascending order for fast checks of Discrete
+	 * values. It is created when it is first needed.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private double[] sortedAllowedValues;
 	/**
 	 * <p>
 	 * An attribute that sets if the matrix can be resized.
@@ -185,10 +213,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = allowedValueType;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
-		this.nCols = 1;
-		this.nRows = 1;
+		resetElements(0.0);
 
 		this.listeners = new ArrayList<IUpdateableListener>();
 	}
@@ -228,21 +253,17 @@ public class MatrixComponent extends ICEObject implements Component {
 
 		// If there is only 1 element in the list and its not default, delete
 		// the whole entity and reset
-		if (elements.size() == 1 && elements.get(0) != defaultValue) {
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (size == 1 && elements[0] != defaultValue) {
+			resetElements(defaultValue);
 			return true; // Return
-		} else if (elements.size() == 1 && elements.get(0) == defaultValue) {
+		} else if (size == 1 && elements[0] == defaultValue) {
 			return false; // Nothing to delete, return
 		}
 
 		// If there is only one row, delete whole row, reset to 1x1 matrix, and
 		// return true
-		if (elements.size() == this.nCols) {
-			this.nCols = 1;
-			this.nRows = 1;
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (size == this.nCols) {
+			resetElements(defaultValue);
 			return true; // Return
 		}
 
@@ -318,13 +339,14 @@ public class MatrixComponent extends ICEObject implements Component {
 						.get(i));
 			}
 		}
+		this.sortedAllowedValues = null;
 		if (otherMatrixComponent.elements == null) {
-			this.elements = otherMatrixComponent.elements;
+			this.elements = null;
+			this.size = 0;
 		} else {
-			this.elements = new ArrayList<Double>();
-			for (int i = 0; i < otherMatrixComponent.elements.size(); i++) {
-				this.elements.add(otherMatrixComponent.elements.get(i));
-			}
+			this.elements = Arrays.copyOf(otherMatrixComponent.elements,
+					otherMatrixComponent.size);
+			this.size = otherMatrixComponent.size;
 		}
 
 		// get other attributes
@@ -394,8 +416,10 @@ public class MatrixComponent extends ICEObject implements Component {
 
 		retVal = (this.isSquare == castedComponent.isSquare)
 				&& (this.resizable == castedComponent.resizable)
-				&& (this.allowedValues.equals(castedComponent.allowedValues))
-				&& (this.elements.equals(castedComponent.elements))
+				&& ((this.allowedValues != null) ? this.allowedValues
+						.equals(castedComponent.allowedValues)
+						: castedComponent.allowedValues == null)
+				&& elementsEqual(castedComponent)
 				&& (this.nCols == castedComponent.nCols)
 				&& (this.nRows == castedComponent.nRows)
 				&& (this.valueType == castedComponent.valueType);
@@ -432,9 +456,15 @@ public class MatrixComponent extends ICEObject implements Component {
 			hash = 31 * hash + this.allowedValues.hashCode();
 		}
 
-		// if elements are not null
+		// if elements are not null. This is the same hash as that of a List
+		// of the elements.
 		if (this.elements != null) {
-			hash = 31 * hash + this.elements.hashCode();
+			int elementsHash = 1;
+			for (int i = 0; i < size; i++) {
+				long bits = Double.doubleToLongBits(elements[i]);
+				elementsHash = 31 * elementsHash + (int) (bits ^ (bits >>> 32));
+			}
+			hash = 31 * hash + elementsHash;
 		}
 
 		// Value type
@@ -528,21 +558,17 @@ public class MatrixComponent extends ICEObject implements Component {
 
 		// If there is only 1 element in the list and its not default, delete
 		// the whole entity and reset
-		if (elements.size() == 1 && elements.get(0) != defaultValue) {
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (size == 1 && elements[0] != defaultValue) {
+			resetElements(defaultValue);
 			return true; // Return
-		} else if (elements.size() == 1 && elements.get(0) == defaultValue) {
+		} else if (size == 1 && elements[0] == defaultValue) {
 			return false; // Nothing to delete, return
 		}
 
 		// If there is only one col, delete whole col, reset to 1x1 matrix, and
 		// return true
-		if (elements.size() == this.nRows) {
-			this.nCols = 1;
-			this.nRows = 1;
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (size == this.nRows) {
+			resetElements(defaultValue);
 			return true; // Return
 		}
 
@@ -608,17 +634,11 @@ public class MatrixComponent extends ICEObject implements Component {
 		}
 
 		// check value to see if valid
-		if (this.valueType == AllowedValueType.Continuous) {
-			if (value < this.allowedValues.get(0)
-					|| value > this.allowedValues.get(1)) {
-				return false;
-			}
-		} else if (this.valueType == AllowedValueType.Discrete
-				&& !this.allowedValues.contains(value)) {
+		if (!isAllowed(value)) {
 			return false;
 		}
 
-		elements.set(nCols * rowIndex + colIndex, value);
+		elements[nCols * rowIndex + colIndex] = value;
 
 		// notify listeners
 		this.notifyListeners();
@@ -663,7 +683,7 @@ public class MatrixComponent extends ICEObject implements Component {
 			return null;
 		}
 
-		return this.elements.get(nCols * rowIndex + colIndex);
+		return this.elements[nCols * rowIndex + colIndex];
 
 	}
 
@@ -704,13 +724,14 @@ public class MatrixComponent extends ICEObject implements Component {
 		// This should not happen, but this is a safety feature. Values can only
 		// be set IFF there is
 		// only a fresh matrix
-		if (this.elements.size() > 1 || this.elements.isEmpty()) {
+		if (size != 1) {
 			return;
 		}
 
-		elements.set(0, values.get(0));
+		elements[0] = values.get(0);
 
 		// Set values - Do a copy
+		this.sortedAllowedValues = null;
 		this.allowedValues = new ArrayList<Double>();
 		for (int i = 0; i < values.size(); i++) {
 			allowedValues.add(values.get(i));
@@ -732,10 +753,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = AllowedValueType.Undefined;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
-		this.nCols = 1;
-		this.nRows = 1;
+		resetElements(0.0);
 
 		this.listeners = new ArrayList<IUpdateableListener>();
 	}
@@ -756,10 +774,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = AllowedValueType.Undefined;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
-		this.nCols = 1;
-		this.nRows = 1;
+		resetElements(0.0);
 
 		this.listeners = new ArrayList<IUpdateableListener>();
 	}
@@ -787,14 +802,14 @@ public class MatrixComponent extends ICEObject implements Component {
 		}
 
 		// create a new double array
-		rowArray = new ArrayList<Double>();
+		rowArray = new ArrayList<Double>(this.nCols);
 
 		// Figure out where in the elements list the item is
 		placeInElements = this.nCols * index;
 
 		// copy contents of row
 		for (int i = placeInElements; i < this.nCols * (index + 1); i++) {
-			rowArray.add(this.elements.get(i));
+			rowArray.add(this.elements[i]);
 		}
 
 		// return array
@@ -825,14 +840,15 @@ public class MatrixComponent extends ICEObject implements Component {
 		}
 
 		// create a new double array
-		colArray = new ArrayList<Double>();
+		colArray = new ArrayList<Double>(this.nRows);
 
-		// Figure out where in the elements list the item is
-		placeInElements = this.nRows * index;
+		// The elements are stored by row, so the column starts at its index
+		// and each of its elements is a row away from the last one.
+		placeInElements = index;
 
-		// copy contents of row
-		for (int i = placeInElements; i < this.nRows * (index + 1); i++) {
-			colArray.add(this.elements.get(i));
+		// copy contents of column
+		for (int i = placeInElements; i < size; i += this.nCols) {
+			colArray.add(this.elements[i]);
 		}
 
 		// return array
@@ -854,7 +870,6 @@ public class MatrixComponent extends ICEObject implements Component {
 	private void resizeRow(boolean addOrRemove) {
 
 		// Local Declaration
-		int i, j;
 		double defaultValue = 0.0;
 
 		// Get the defaultValue
@@ -863,20 +878,18 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If true, add to the arraylist
+		// If true, add to the array
 		if (addOrRemove) {
 
 			// Add for the number of columns
-			for (i = 0; i < this.nCols; i++) {
-				this.elements.add(defaultValue);
-			}
+			ensureCapacity(size + this.nCols);
+			Arrays.fill(this.elements, size, size + this.nCols, defaultValue);
+			size += this.nCols;
 			// Add to the row
 			this.nRows += 1;
 		} else {
 			// Remove for the number of columns
-			for (i = 0; i < this.nCols; i++) {
-				this.elements.remove(this.elements.size() - 1);
-			}
+			size -= this.nCols;
 			// Remove a row
 			this.nRows -= 1;
 		}
@@ -897,7 +910,7 @@ public class MatrixComponent extends ICEObject implements Component {
 	 */
 	private void resizeColumn(boolean addOrRemove) {
 		// Local Declaration
-		int i, j;
+		int i;
 		double defaultValue = 0.0;
 
 		// Get the defaultValue
@@ -906,20 +919,29 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If true, add to the arraylist
+		// If true, add to the array
 		if (addOrRemove) {
 
-			// Add for the number of rows
-			for (i = 0; i < this.nRows; i++) {
-				this.elements.add(((i + 1) * this.nCols) + i, defaultValue);
+			// Move the rows to their new positions, starting with the last
+			// one so that no row is overwritten before it is moved, and put
+			// the new value at the end of each row.
+			ensureCapacity(size + this.nRows);
+			for (i = this.nRows - 1; i >= 0; i--) {
+				System.arraycopy(this.elements, i * this.nCols, this.elements,
+						i * (this.nCols + 1), this.nCols);
+				this.elements[i * (this.nCols + 1) + this.nCols] = defaultValue;
 			}
+			size += this.nRows;
 			// Add to the cols
 			this.nCols += 1;
 		} else {
-			// Remove for the number of rows
-			for (i = 0; i < this.nRows; i++) {
-				this.elements.remove(((i + 1) * this.nCols) - i - 1);
+			// Move the rows to their new positions without their last
+			// elements, starting with the first one.
+			for (i = 1; i < this.nRows; i++) {
+				System.arraycopy(this.elements, i * this.nCols, this.elements,
+						i * (this.nCols - 1), this.nCols - 1);
 			}
+			size -= this.nRows;
 			// Remove a Column
 			this.nCols -= 1;
 		}
@@ -1026,6 +1048,297 @@ public class MatrixComponent extends ICEObject implements Component {
 		return tempDoubles;
 	}
 
+	/**
+	 * <p>
+	 * Sets all of the values of a row at once. The listeners are notified once
+	 * after the whole row is set.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values of the row. There must be one value for each
+	 *            column.
+	 *            </p>
+	 * @return <p>
+	 *         True if the row was set, false if the index or the number of
+	 *         values is wrong or if any of the values are not allowed. The
+	 *         matrix is not changed if the values are not set.
+	 *         </p>
+	 */
+	public boolean setRow(int index, double[] values) {
+
+		// Check the row and the values
+		if (index < 0 || index >= this.nRows || values == null
+				|| values.length != this.nCols || !areAllowed(values)) {
+			return false;
+		}
+
+		// Copy the row into place
+		System.arraycopy(values, 0, this.elements, index * this.nCols,
+				this.nCols);
+
+		// notify listeners
+		this.notifyListeners();
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Sets all of the values of a column at once. The listeners are notified
+	 * once after the whole column is set.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values of the column. There must be one value for each
+	 *            row.
+	 *            </p>
+	 * @return <p>
+	 *         True if the column was set, false if the index or the number of
+	 *         values is wrong or if any of the values are not allowed. The
+	 *         matrix is not changed if the values are not set.
+	 *         </p>
+	 */
+	public boolean setColumn(int index, double[] values) {
+
+		// Check the column and the values
+		if (index < 0 || index >= this.nCols || values == null
+				|| values.length != this.nRows || !areAllowed(values)) {
+			return false;
+		}
+
+		// Set the column. Each element is a row away from the last one.
+		for (int i = 0; i < this.nRows; i++) {
+			this.elements[i * this.nCols + index] = values[i];
+		}
+
+		// notify listeners
+		this.notifyListeners();
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Sets all of the values of the matrix at once. The listeners are notified
+	 * once after the whole matrix is set.
+	 * </p>
+	 * 
+	 * @param values
+	 *            <p>
+	 *            The values of the matrix in row-major order. There must be
+	 *            one value for each element of the matrix.
+	 *            </p>
+	 * @return <p>
+	 *         True if the matrix was set, false if the number of values is
+	 *         wrong or if any of the values are not allowed. The matrix is not
+	 *         changed if the values are not set.
+	 *         </p>
+	 */
+	public boolean setAll(double[] values) {
+
+		// Check the values
+		if (values == null || values.length != size || !areAllowed(values)) {
+			return false;
+		}
+
+		// Copy them into place
+		System.arraycopy(values, 0, this.elements, 0, size);
+
+		// notify listeners
+		this.notifyListeners();
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Returns a copy of all of the values of the matrix.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The values of the matrix in row-major order.
+	 *         </p>
+	 */
+	@XmlTransient
+	public double[] getAll() {
+		return Arrays.copyOf(this.elements, size);
+	}
+
+	/**
+	 * <p>
+	 * Returns the elements for persistence. JAXB writes them as one element
+	 * per value, the same as it did for a list of Doubles.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The values of the matrix in row-major order.
+	 *         </p>
+	 */
+	@XmlElement(name = "elements")
+	private double[] getElements() {
+		return (this.elements != null) ? Arrays.copyOf(this.elements, size)
+				: null;
+	}
+
+	/**
+	 * <p>
+	 * Sets the elements when the matrix is read by JAXB.
+	 * </p>
+	 * 
+	 * @param values
+	 *            <p>
+	 *            The values of the matrix in row-major order.
+	 *            </p>
+	 */
+	private void setElements(double[] values) {
+		this.elements = values;
+		this.size = (values != null) ? values.length : 0;
+	}
+
+	/**
+	 * <p>
+	 * Resets the matrix to a 1x1 matrix with the given value.
+	 * </p>
+	 * 
+	 * @param value
+	 *            <p>
+	 *            The value of the only element.
+	 *            </p>
+	 */
+	private void resetElements(double value) {
+		this.elements = new double[] { value };
+		this.size = 1;
+		this.nRows = 1;
+		this.nCols = 1;
+	}
+
+	/**
+	 * <p>
+	 * Makes sure that the elements array can hold at least the given number
+	 * of elements. The array is doubled in size when it grows so that adding
+	 * rows and columns one at a time takes constant time on average.
+	 * </p>
+	 * 
+	 * @param capacity
+	 *            <p>
+	 *            The required number of elements.
+	 *            </p>
+	 */
+	private void ensureCapacity(int capacity) {
+		if (this.elements == null) {
+			this.elements = new double[capacity];
+		} else if (capacity > this.elements.length) {
+			this.elements = Arrays.copyOf(this.elements,
+					Math.max(capacity, 2 * this.elements.length));
+		}
+	}
+
+	/**
+	 * <p>
+	 * Checks a value against the allowed values of the matrix. Discrete values
+	 * are found with a binary search of the sorted allowed values.
+	 * </p>
+	 * 
+	 * @param value
+	 *            <p>
+	 *            The value to check.
+	 *            </p>
+	 * @return <p>
+	 *         True if the value is allowed, false otherwise.
+	 *         </p>
+	 */
+	private boolean isAllowed(double value) {
+
+		// Check the range
+		if (this.valueType == AllowedValueType.Continuous) {
+			return value >= this.allowedValues.get(0)
+					&& value <= this.allowedValues.get(1);
+		} else if (this.valueType == AllowedValueType.Discrete) {
+			// Sort the allowed values the first time they are needed
+			if (sortedAllowedValues == null) {
+				double[] sortedValues = new double[allowedValues.size()];
+				for (int i = 0; i < sortedValues.length; i++) {
+					sortedValues[i] = allowedValues.get(i);
+				}
+				Arrays.sort(sortedValues);
+				sortedAllowedValues = sortedValues;
+			}
+			return Arrays.binarySearch(sortedAllowedValues, value) >= 0;
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Checks an array of values against the allowed values of the matrix.
+	 * </p>
+	 * 
+	 * @param values
+	 *            <p>
+	 *            The values to check.
+	 *            </p>
+	 * @return <p>
+	 *         True if all of the values are allowed, false otherwise.
+	 *         </p>
+	 */
+	private boolean areAllowed(double[] values) {
+		if (this.valueType == AllowedValueType.Continuous
+				|| this.valueType == AllowedValueType.Discrete) {
+			for (double value : values) {
+				if (!isAllowed(value)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Compares the elements of this matrix with those of another matrix in
+	 * the same way that two lists of Doubles would be compared.
+	 * </p>
+	 * 
+	 * @param otherMatrixComponent
+	 *            <p>
+	 *            The other matrix.
+	 *            </p>
+	 * @return <p>
+	 *         True if the elements are equal, false otherwise.
+	 *         </p>
+	 */
+	private boolean elementsEqual(MatrixComponent otherMatrixComponent) {
+
+		// Check for missing elements
+		if (this.elements == null || otherMatrixComponent.elements == null) {
+			return this.elements == otherMatrixComponent.elements;
+		}
+
+		// Compare the values
+		if (this.size != otherMatrixComponent.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (Double.doubleToLongBits(this.elements[i]) != Double
+					.doubleToLongBits(otherMatrixComponent.elements[i])) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	/*
 	 * Overrides a super class method.
 	 */
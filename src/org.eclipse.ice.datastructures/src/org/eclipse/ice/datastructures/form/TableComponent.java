@@ -13,12 +13,17 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
@@ -44,6 +49,16 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
  * if a row is deleted it will result in the entire table being re-ordered to
  * keep the row numbers sequential.
  * </p>
+ * <p>
+ * The values of the table are stored by column. Each column keeps one code
+ * per row and a dictionary of the distinct values in the column, so large
+ * tables with repeated values need very little memory. The Entries of a row
+ * are only created when the row is retrieved with getRow(), after which they
+ * are kept and are the values of the row. The getValue() and setValue()
+ * operations read and write single cells without creating Entries, and
+ * addRows() and deleteRows() change many rows with a single notification.
+ * The rows are written to and read from XML in the same form as before.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -51,15 +66,6 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 @XmlAccessorType(XmlAccessType.FIELD)
 public class TableComponent extends ICEObject implements Component {
 
-	/**
-	 * <p>
-	 * The java.util.HashTable that contains the rows. The key of the hashtable
-	 * is an integer that represents the row index in the table. The value is a
-	 * java.util.ArrayList that contains the set of Entries for that row. The
-	 * value for key = 0 is the Row Template.
-	 * </p>
-	 */
-	private Hashtable<Integer, ArrayList<Entry>> rowTable;
 	/**
 	 * <p>
 	 * A list containing the names of the columns.
@@ -71,9 +77,10 @@ public class TableComponent extends ICEObject implements Component {
 
 	/**
 	 * <p >
-	 * The set of DataComponents that represents the rows of the table. The
-	 * index of the set represents the row index in the table. The DataComponent
-	 * at i = 0 is the Row Template.
+	 * The set of DataComponents that represents the rows of the table when it
+	 * is written to or read from XML. The index of the set represents the row
+	 * index in the table. The DataComponent at i = 0 is the Row Template. It
+	 * is null at all other times.
 	 * </p>
 	 * 
 	 */
@@ -87,6 +94,124 @@ public class TableComponent extends ICEObject implements Component {
 	@XmlElement(name = "SelectedRow")
 	private ArrayList<Integer> selectedRows;
 
+	/**
+	 * <p>
+	 * The DataComponent that holds the Row Template or null if it has not
+	 * been set.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private DataComponent rowTemplate;
+
+	/**
+	 * <p>
+	 * The values of the table, one Column for each Entry in the Row Template.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private Column[] columns;
+
+	/**
+	 * <p>
+	 * The rows whose Entries have been created, indexed by row. Rows whose
+	 * Entries have not been created are null. The length of the array is the
+	 * capacity of the table.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private DataComponent[] rows;
+
+	/**
+	 * <p>
+	 * The number of rows in the table.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private int numRows;
+
+	/**
+	 * <p>
+	 * Copies of the Entries of the Row Template that are used to check values
+	 * set with setValue(), indexed by column. They are created when they are
+	 * first needed.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private Entry[] validators;
+
+	/**
+	 * <p>
+	 * A column of the table. Each row has a code that is either -1, if the
+	 * cell has the value of the Row Template, or the index of its value in the
+	 * list of distinct values of the column.
+	 * </p>
+	 * 
+	 */
+	private static class Column {
+
+		/**
+		 * The distinct values of the column.
+		 */
+		private final ArrayList<String> values;
+
+		/**
+		 * The codes of the distinct values of the column.
+		 */
+		private final HashMap<String, Integer> codes;
+
+		/**
+		 * The code of each row.
+		 */
+		private int[] rowCodes;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param capacity
+		 *            The number of rows for which there is room
+		 */
+		public Column(int capacity) {
+			values = new ArrayList<String>();
+			codes = new HashMap<String, Integer>();
+			rowCodes = new int[capacity];
+		}
+
+		/**
+		 * The copy constructor.
+		 * 
+		 * @param otherColumn
+		 *            The Column to copy
+		 */
+		public Column(Column otherColumn) {
+			values = new ArrayList<String>(otherColumn.values);
+			codes = new HashMap<String, Integer>(otherColumn.codes);
+			rowCodes = otherColumn.rowCodes.clone();
+		}
+
+		/**
+		 * This operation returns the code of a value, adding it to the
+		 * distinct values if it is new.
+		 * 
+		 * @param value
+		 *            The value
+		 * @return The code of the value
+		 */
+		public int encode(String value) {
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = values.size();
+				values.add(value);
+				codes.put(value, code);
+			}
+			return code;
+		}
+	}
+
 	/**
 	 * <p>
 	 * The constructor
@@ -95,9 +220,11 @@ public class TableComponent extends ICEObject implements Component {
 	 */
 	public TableComponent() {
 		columnNames = new ArrayList<String>();
-		rowComponents = new ArrayList<DataComponent>();
 		listeners = new ArrayList<IUpdateableListener>();
 		selectedRows = new ArrayList<Integer>();
+		columns = new Column[0];
+		rows = new DataComponent[0];
+		numRows = 0;
 	}
 
 	/**
@@ -110,15 +237,7 @@ public class TableComponent extends ICEObject implements Component {
 	 *         </p>
 	 */
 	public int numberOfRows() {
-
-		// exclude columns row
-		if (rowComponents.size() <= 1) {
-			return 0;
-		} else {
-			// Index shift -> index 0 of rowComponents are the column tags and
-			// are not considered rows.
-			return this.rowComponents.size() - 1;
-		}
+		return numRows;
 	}
 
 	/**
@@ -142,7 +261,8 @@ public class TableComponent extends ICEObject implements Component {
 	 * returned as a collection of Entries that represent each element in the
 	 * row. The collection is a new collection, but the Entries are references
 	 * of the values currently stored in the TableComponent. (This prevents the
-	 * rows from being re-ordered.)
+	 * rows from being re-ordered.) The Entries are created the first time that
+	 * the row is retrieved.
 	 * </p>
 	 * 
 	 * @param index
@@ -155,29 +275,110 @@ public class TableComponent extends ICEObject implements Component {
 	 */
 	public ArrayList<Entry> getRow(int index) {
 
-		// return null if index does not exist
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		// Also do not return a row if the index is negative
-		// Boolean operation
-		if (!(!rowComponents.isEmpty() & index < rowComponents.size() - 1 & index >= 0)) {
+		// return null if index does not exist. Also do not return a row if the
+		// index is negative
+		if (index < 0 || index >= numRows) {
 			return null;
 		}
 
-		// create a new arraylist
-		ArrayList<Entry> rowArray = new ArrayList<Entry>();
+		// Create the Entries of the row if needed
+		if (rows[index] == null) {
+			rows[index] = createRow(index);
+		}
+
+		// Copy the entries into a new list
+		return new ArrayList<Entry>(rows[index].retrieveAllEntries());
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the value of a single cell in the table without
+	 * creating the Entries of its row.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @return <p>
+	 *         The value of the cell or null if the row or column does not
+	 *         exist.
+	 *         </p>
+	 */
+	public String getValue(int row, int column) {
 
-		// copy entries into rowArray
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		// Add one to index to compensate.
-		for (int i = 0; i < rowComponents.get(index + 1).retrieveAllEntries()
-				.size(); i++) {
-			rowArray.add(rowComponents.get(index + 1).retrieveAllEntries()
-					.get(i));
+		// Check the indices
+		if (row < 0 || row >= numRows || column < 0
+				|| column >= columns.length) {
+			return null;
 		}
 
-		return rowArray;
+		// Use the Entry if the row has them
+		if (rows[row] != null) {
+			return rows[row].retrieveAllEntries().get(column).getValue();
+		}
+
+		return getStoredValue(row, column);
+	}
+
+	/**
+	 * <p>
+	 * This operation sets the value of a single cell in the table without
+	 * creating the Entries of its row. The value is checked in the same way
+	 * that the Entry in the Row Template would check it.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @param value
+	 *            <p>
+	 *            The new value of the cell.
+	 *            </p>
+	 * @return <p>
+	 *         True if the value was set, false if the cell does not exist or
+	 *         the value is not allowed.
+	 *         </p>
+	 */
+	public boolean setValue(int row, int column, String value) {
+
+		// Check the indices
+		if (row < 0 || row >= numRows || column < 0
+				|| column >= columns.length) {
+			return false;
+		}
+
+		// Use the Entry if the row has them
+		if (rows[row] != null) {
+			if (!rows[row].retrieveAllEntries().get(column).setValue(value)) {
+				return false;
+			}
+		} else {
+			// Like the Entry, do not change anything if the value is the same
+			int code = columns[column].rowCodes[row];
+			String currentValue = (code >= 0) ? columns[column].values
+					.get(code) : getTemplateEntry(column).value;
+			if (currentValue != null && currentValue.equals(value)) {
+				return true;
+			}
+			// Check the value and store it
+			if (!storeValue(row, column, value)) {
+				return false;
+			}
+		}
+
+		notifyListeners();
+
+		return true;
 	}
 
 	/**
@@ -195,39 +396,106 @@ public class TableComponent extends ICEObject implements Component {
 	 *         </p>
 	 */
 	public int addRow() {
-		// create a clone of template
 
 		// Return -1 if the template has not been set
-		// Notice how rowComponents has to have the rowTemplate created before
-		// it will allow
-		// a row addition
-		if (rowComponents.isEmpty()) {
+		if (rowTemplate == null) {
 			return -1;
 		}
 
-		// create a datacomponent. Set dataComponent id to rowSize and set name
-		// and description
-		DataComponent dataComponent = new DataComponent();
+		// Add the row
+		appendRows(1);
+		notifyListeners();
 
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		// decrement one
-		dataComponent.setId(rowComponents.size() - 1);
-		dataComponent.setName("Row");
-		dataComponent.setDescription("This is a row");
+		return numRows - 1;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds several rows with the default values of the Row
+	 * Template to the table and notifies the listeners once. Unlike addRow(),
+	 * it does not create the Entries of the new rows.
+	 * </p>
+	 * 
+	 * @param count
+	 *            <p>
+	 *            The number of rows to add.
+	 *            </p>
+	 * @return <p>
+	 *         The index of the first new row or -1 if the Row Template has not
+	 *         been set or the count is less than one.
+	 *         </p>
+	 */
+	public int addRows(int count) {
+
+		// Return -1 if the template has not been set
+		if (rowTemplate == null || count < 1) {
+			return -1;
+		}
+
+		// Add the rows
+		int firstRow = numRows;
+		appendRows(count);
+		notifyListeners();
+
+		return firstRow;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds several rows with the given values to the table and
+	 * notifies the listeners once. Unlike addRow(), it does not create the
+	 * Entries of the new rows. Values that are missing are left at their
+	 * defaults. If any of the values is not allowed by the Row Template, no
+	 * rows are added.
+	 * </p>
+	 * 
+	 * @param values
+	 *            <p>
+	 *            The values of each new row, one for each column.
+	 *            </p>
+	 * @return <p>
+	 *         The index of the first new row or -1 if the Row Template has not
+	 *         been set, there are no rows or a value is not allowed.
+	 *         </p>
+	 */
+	public int addRows(List<String[]> values) {
 
-		// copy contents of template into new row
-		for (int i = 0; i < rowComponents.get(0).retrieveAllEntries().size(); i++) {
-			dataComponent.addEntry((Entry) rowComponents.get(0)
-					.retrieveAllEntries().get(i).clone());
+		// Return -1 if the template has not been set
+		if (rowTemplate == null || values == null || values.isEmpty()) {
+			return -1;
+		}
+
+		// Check all of the values before any rows are added
+		for (String[] rowValues : values) {
+			if (rowValues != null) {
+				int length = Math.min(rowValues.length, columns.length);
+				for (int j = 0; j < length; j++) {
+					if (!getValidator(j).setValue(rowValues[j])) {
+						return -1;
+					}
+				}
+			}
+		}
+
+		// Add the rows
+		int firstRow = numRows;
+		appendRows(values.size());
+
+		// Store the values
+		for (int i = 0; i < values.size(); i++) {
+			String[] rowValues = values.get(i);
+			if (rowValues != null) {
+				int length = Math.min(rowValues.length, columns.length);
+				for (int j = 0; j < length; j++) {
+					columns[j].rowCodes[firstRow + i] = columns[j]
+							.encode(rowValues[j]);
+				}
+			}
 		}
 
-		rowComponents.add(dataComponent);
 		notifyListeners();
 
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		return rowComponents.size() - 2;
+		return firstRow;
 	}
 
 	/**
@@ -248,28 +516,14 @@ public class TableComponent extends ICEObject implements Component {
 	 */
 	public boolean deleteRow(int index) {
 
-		// Return if the index is deleting a row that does not exist
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		// decrement by one from index
-		// Also do not delete row if index is negative
-		// Optimized for boolean operation
-		if (!(!rowComponents.isEmpty() & index < rowComponents.size() - 1 & index >= 0)) {
+		// Return if the index is deleting a row that does not exist. Also do
+		// not delete row if index is negative
+		if (index < 0 || index >= numRows) {
 			return false;
 		}
 
 		// delete row
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		rowComponents.remove(index + 1);
-
-		// set indexes up
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		// Add one to make adjustments into rowComponents index
-		for (int i = index + 1; i < rowComponents.size(); i++) {
-			rowComponents.get(i).setId(i);
-		}
+		removeRows(index, 1);
 
 		notifyListeners();
 		// return true
@@ -277,6 +531,39 @@ public class TableComponent extends ICEObject implements Component {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation deletes several consecutive rows from the table and
+	 * notifies the listeners once.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the first row that should be deleted.
+	 *            </p>
+	 * @param count
+	 *            <p>
+	 *            The number of rows that should be deleted.
+	 *            </p>
+	 * @return <p>
+	 *         True if the rows were deleted and false if some of the rows do
+	 *         not exist, in which case nothing is deleted.
+	 *         </p>
+	 */
+	public boolean deleteRows(int index, int count) {
+
+		// Check the rows
+		if (index < 0 || count < 1 || index + count > numRows) {
+			return false;
+		}
+
+		// Delete them
+		removeRows(index, count);
+		notifyListeners();
+
+		return true;
+	}
+
 	/**
 	 * <p>
 	 * This operation sets the collection of Entries which should be used as the
@@ -297,17 +584,18 @@ public class TableComponent extends ICEObject implements Component {
 		// Local Declarations
 		int i = 0;
 
-		// create a new dataComponent - set name id, and description
-		DataComponent dataComponent = new DataComponent();
-		dataComponent.setName(".xRowTemplatex.");
-		dataComponent.setId(0);
-		dataComponent.setDescription("This is a row template");
 		// if template is null, return
 		// Also if the columnNames are set, then a rowTemplate can not be set
 		if (!(template != null & (this.columnNames.isEmpty()))) {
 			return;
 		}
 
+		// create a new dataComponent - set name id, and description
+		DataComponent dataComponent = new DataComponent();
+		dataComponent.setName(".xRowTemplatex.");
+		dataComponent.setId(0);
+		dataComponent.setDescription("This is a row template");
+
 		// Set Column Names
 		for (i = 0; i < template.size(); i++) {
 			this.columnNames.add(template.get(i).getName());
@@ -318,8 +606,8 @@ public class TableComponent extends ICEObject implements Component {
 			dataComponent.addEntry(template.get(i));
 		}
 
-		// add dataComponent to rowComponents
-		rowComponents.add(dataComponent);
+		// Set the template and create the columns
+		setTemplate(dataComponent);
 
 		this.notifyListeners();
 	}
@@ -335,8 +623,6 @@ public class TableComponent extends ICEObject implements Component {
 	 *         </p>
 	 */
 	public ArrayList<Entry> getRowTemplate() {
-		// Local Declarations
-		int i = 0;
 
 		// Return null if the rowTemplate has not been set
 		if (this.columnNames.isEmpty()) {
@@ -344,13 +630,7 @@ public class TableComponent extends ICEObject implements Component {
 		}
 
 		// Create a new ArrayList and return it.
-		ArrayList<Entry> rowTemplate = new ArrayList<Entry>();
-
-		for (i = 0; i < rowComponents.get(0).retrieveAllEntries().size(); i++) {
-			rowTemplate.add(rowComponents.get(0).retrieveAllEntries().get(i));
-		}
-
-		return rowTemplate;
+		return new ArrayList<Entry>(rowTemplate.retrieveAllEntries());
 	}
 
 	/**
@@ -365,18 +645,11 @@ public class TableComponent extends ICEObject implements Component {
 	 */
 	public ArrayList<Integer> getRowIds() {
 		// create a new arraylist
-		ArrayList<Integer> rowIds = new ArrayList<Integer>();
+		ArrayList<Integer> rowIds = new ArrayList<Integer>(numRows);
 
-		// add rowIds from hashTable
-		// Index shift -> index 0 of rowComponents are the column tags and are
-		// not considered rows.
-		// Only return rows and not the rowTemplate
-		for (int i = 1; i < rowComponents.size(); i++) {
-			// Return the rowIds in each rowComponent (better than returning a
-			// new arraylist of integers
-			// because this allows for better verification of Id setting on data
-			// component
-			rowIds.add(rowComponents.get(i).getId());
+		// The id of each row is its index
+		for (int i = 0; i < numRows; i++) {
+			rowIds.add(i);
 		}
 
 		return rowIds;
@@ -431,12 +704,23 @@ public class TableComponent extends ICEObject implements Component {
 			this.columnNames.add(otherTableComponent.columnNames.get(i));
 		}
 
-		// Deep copy row components
-		this.rowComponents.clear();
-		for (int i = 0; i < otherTableComponent.rowComponents.size(); i++) {
-			this.rowComponents
-					.add((DataComponent) otherTableComponent.rowComponents.get(
-							i).clone());
+		// Deep copy the row template and the columns
+		this.rowTemplate = (otherTableComponent.rowTemplate != null) ? (DataComponent) otherTableComponent.rowTemplate
+				.clone() : null;
+		this.columns = new Column[otherTableComponent.columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			this.columns[i] = new Column(otherTableComponent.columns[i]);
+		}
+		this.validators = null;
+
+		// Deep copy the rows that have Entries
+		this.numRows = otherTableComponent.numRows;
+		this.rows = new DataComponent[otherTableComponent.rows.length];
+		for (int i = 0; i < numRows; i++) {
+			if (otherTableComponent.rows[i] != null) {
+				this.rows[i] = (DataComponent) otherTableComponent.rows[i]
+						.clone();
+			}
 		}
 
 		// Copy the selected rows
@@ -472,7 +756,8 @@ public class TableComponent extends ICEObject implements Component {
 	 * <p>
 	 * This operation is used to check equality between the TableComponent and
 	 * another TableComponent. It returns true if the TableComponents are equal
-	 * and false if they are not.
+	 * and false if they are not. The values of the cells are compared along
+	 * with the Entries.
 	 * </p>
 	 * 
 	 * @param otherTableComponent
@@ -504,11 +789,32 @@ public class TableComponent extends ICEObject implements Component {
 		// At this point, other object must be a TableComponent, so cast it
 		TableComponent castedComponent = (TableComponent) otherTableComponent;
 
-		// Loop through columnNames and rowComponentfor equality.
-
+		// Check the column names, selected rows and the row template
 		retVal = (this.columnNames.equals(castedComponent.columnNames))
-				&& (this.rowComponents.equals(castedComponent.rowComponents))
-				&& (this.selectedRows.equals(castedComponent.selectedRows));
+				&& (this.selectedRows.equals(castedComponent.selectedRows))
+				&& (this.numRows == castedComponent.numRows)
+				&& ((this.rowTemplate != null) ? rowsEqual(this.rowTemplate,
+						castedComponent.rowTemplate)
+						: castedComponent.rowTemplate == null);
+
+		// Check the rows
+		for (int i = 0; retVal && i < numRows; i++) {
+			if (this.rows[i] == null && castedComponent.rows[i] == null) {
+				// Compare the stored values if neither row has Entries
+				for (int j = 0; retVal && j < columns.length; j++) {
+					int code = this.columns[j].rowCodes[i];
+					int otherCode = castedComponent.columns[j].rowCodes[i];
+					retVal = (code < 0) ? otherCode < 0 : otherCode >= 0
+							&& valuesEqual(this.columns[j].values.get(code),
+									castedComponent.columns[j].values
+											.get(otherCode));
+				}
+			} else {
+				// Otherwise compare the Entries
+				retVal = rowsEqual(getRowComponent(i),
+						castedComponent.getRowComponent(i));
+			}
+		}
 
 		return retVal;
 	}
@@ -527,10 +833,17 @@ public class TableComponent extends ICEObject implements Component {
 		// Local Declaration
 		int hash = 9;
 
-		// Compute hash code from TableComponent using rowComponents data
+		// Compute hash code from TableComponent using the template and the
+		// values of the cells
 		hash = 31 * hash + super.hashCode();
-		for (int i = 0; i < rowComponents.size(); i++) {
-			hash += 31 * rowComponents.get(i).hashCode();
+		if (rowTemplate != null) {
+			hash += 31 * rowTemplate.hashCode();
+		}
+		for (int i = 0; i < numRows; i++) {
+			for (int j = 0; j < columns.length; j++) {
+				String value = getValue(i, j);
+				hash = 31 * hash + ((value != null) ? value.hashCode() : 0);
+			}
 		}
 		// Add the hash for the selected rows
 		hash *= selectedRows.hashCode();
@@ -597,4 +910,429 @@ public class TableComponent extends ICEObject implements Component {
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>
+	 * This operation sets the Row Template and creates an empty Column for
+	 * each of its Entries.
+	 * </p>
+	 * 
+	 * @param template
+	 *            <p>
+	 *            The DataComponent that holds the Row Template.
+	 *            </p>
+	 */
+	private void setTemplate(DataComponent template) {
+		rowTemplate = template;
+		columns = new Column[template.retrieveAllEntries().size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = new Column(rows.length);
+			Arrays.fill(columns[i].rowCodes, -1);
+		}
+		validators = null;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the Entry of the Row Template for a column.
+	 * </p>
+	 * 
+	 * @param column
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @return <p>
+	 *         The Entry.
+	 *         </p>
+	 */
+	private Entry getTemplateEntry(int column) {
+		return rowTemplate.retrieveAllEntries().get(column);
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the stored value of a cell in a row that does
+	 * not have Entries. It is the value that the Entry of the cell would
+	 * return.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @return <p>
+	 *         The value.
+	 *         </p>
+	 */
+	private String getStoredValue(int row, int column) {
+		int code = columns[column].rowCodes[row];
+		String value = (code >= 0) ? columns[column].values.get(code) : null;
+		if (code < 0) {
+			value = getTemplateEntry(column).getValue();
+		} else if (value == null) {
+			value = getTemplateEntry(column).getDefaultValue();
+		}
+		return value;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks a value against the Row Template and, if it is
+	 * allowed, stores it in a row that does not have Entries. Listeners are
+	 * not notified.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @param value
+	 *            <p>
+	 *            The value.
+	 *            </p>
+	 * @return <p>
+	 *         True if the value was stored, false if it is not allowed.
+	 *         </p>
+	 */
+	private boolean storeValue(int row, int column, String value) {
+
+		// Check the value and store it
+		if (!getValidator(column).setValue(value)) {
+			return false;
+		}
+		columns[column].rowCodes[row] = columns[column].encode(value);
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the Entry that checks the values of a column,
+	 * creating it if needed. The validators are copies of the template so that
+	 * they check values in exactly the same way as the Entries of the rows.
+	 * </p>
+	 * 
+	 * @param column
+	 *            <p>
+	 *            The index of the column.
+	 *            </p>
+	 * @return <p>
+	 *         The validator.
+	 *         </p>
+	 */
+	private Entry getValidator(int column) {
+
+		// Create the validators if needed
+		if (validators == null) {
+			validators = new Entry[columns.length];
+		}
+		if (validators[column] == null) {
+			validators[column] = (Entry) getTemplateEntry(column).clone();
+		}
+
+		return validators[column];
+	}
+
+	/**
+	 * <p>
+	 * This operation creates the DataComponent and Entries for a row from the
+	 * Row Template and the stored values. The Entries look exactly as they
+	 * would if their values had been set after the row was added.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @return <p>
+	 *         The row.
+	 *         </p>
+	 */
+	private DataComponent createRow(int index) {
+
+		// create a datacomponent. Set dataComponent id to the index and set
+		// name and description
+		DataComponent dataComponent = new DataComponent();
+		dataComponent.setId(index);
+		dataComponent.setName("Row");
+		dataComponent.setDescription("This is a row");
+
+		// copy contents of template into new row and set the stored values
+		for (int i = 0; i < columns.length; i++) {
+			Entry entry = (Entry) getTemplateEntry(i).clone();
+			int code = columns[i].rowCodes[index];
+			if (code >= 0) {
+				entry.value = columns[i].values.get(code);
+				entry.changeState = true;
+				entry.errorMessage = null;
+			}
+			dataComponent.addEntry(entry);
+		}
+
+		return dataComponent;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the DataComponent of a row, creating a temporary
+	 * one if the row does not have Entries.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the row.
+	 *            </p>
+	 * @return <p>
+	 *         The row.
+	 *         </p>
+	 */
+	private DataComponent getRowComponent(int index) {
+		return (rows[index] != null) ? rows[index] : createRow(index);
+	}
+
+	/**
+	 * <p>
+	 * This operation makes sure that there is room for the given number of
+	 * rows. The capacity is doubled when it grows so that adding rows one at a
+	 * time takes constant time on average.
+	 * </p>
+	 * 
+	 * @param capacity
+	 *            <p>
+	 *            The required number of rows.
+	 *            </p>
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > rows.length) {
+			int newCapacity = Math.max(capacity, 2 * rows.length);
+			rows = Arrays.copyOf(rows, newCapacity);
+			for (Column column : columns) {
+				column.rowCodes = Arrays.copyOf(column.rowCodes, newCapacity);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation adds rows with the default values to the end of the
+	 * table. Listeners are not notified.
+	 * </p>
+	 * 
+	 * @param count
+	 *            <p>
+	 *            The number of rows.
+	 *            </p>
+	 */
+	private void appendRows(int count) {
+		ensureCapacity(numRows + count);
+		for (Column column : columns) {
+			Arrays.fill(column.rowCodes, numRows, numRows + count, -1);
+		}
+		numRows += count;
+	}
+
+	/**
+	 * <p>
+	 * This operation removes consecutive rows from the table and updates the
+	 * ids of the rows after them. Listeners are not notified.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the first row.
+	 *            </p>
+	 * @param count
+	 *            <p>
+	 *            The number of rows.
+	 *            </p>
+	 */
+	private void removeRows(int index, int count) {
+
+		// Move the rows after the deleted rows up
+		int numMoved = numRows - index - count;
+		for (Column column : columns) {
+			System.arraycopy(column.rowCodes, index + count, column.rowCodes,
+					index, numMoved);
+		}
+		System.arraycopy(rows, index + count, rows, index, numMoved);
+		Arrays.fill(rows, numRows - count, numRows, null);
+		numRows -= count;
+
+		// set indexes up
+		for (int i = index; i < numRows; i++) {
+			if (rows[i] != null) {
+				rows[i].setId(i);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation checks two rows for equality, including the values of
+	 * their Entries, which Entry.equals() does not compare.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The first row.
+	 *            </p>
+	 * @param otherRow
+	 *            <p>
+	 *            The second row.
+	 *            </p>
+	 * @return <p>
+	 *         True if the rows are equal, false otherwise.
+	 *         </p>
+	 */
+	private static boolean rowsEqual(DataComponent row, DataComponent otherRow) {
+
+		// Compare the DataComponents
+		if (otherRow == null || !row.equals(otherRow)) {
+			return false;
+		}
+
+		// Compare the values
+		ArrayList<Entry> entries = row.retrieveAllEntries();
+		ArrayList<Entry> otherEntries = otherRow.retrieveAllEntries();
+		if (entries.size() != otherEntries.size()) {
+			return false;
+		}
+		for (int i = 0; i < entries.size(); i++) {
+			if (!valuesEqual(entries.get(i).getValue(), otherEntries.get(i)
+					.getValue())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks two values, either of which may be null, for
+	 * equality.
+	 * </p>
+	 * 
+	 * @param value
+	 *            <p>
+	 *            The first value.
+	 *            </p>
+	 * @param otherValue
+	 *            <p>
+	 *            The second value.
+	 *            </p>
+	 * @return <p>
+	 *         True if the values are equal, false otherwise.
+	 *         </p>
+	 */
+	private static boolean valuesEqual(String value, String otherValue) {
+		return (value != null) ? value.equals(otherValue) : otherValue == null;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB before the table is written to XML. It
+	 * creates the list of rows that is written, with temporary DataComponents
+	 * for the rows that do not have Entries.
+	 * </p>
+	 * 
+	 * @param marshaller
+	 *            <p>
+	 *            The Marshaller.
+	 *            </p>
+	 */
+	private void beforeMarshal(Marshaller marshaller) {
+		rowComponents = new ArrayList<DataComponent>(numRows + 1);
+		if (rowTemplate != null) {
+			rowComponents.add(rowTemplate);
+			for (int i = 0; i < numRows; i++) {
+				rowComponents.add(getRowComponent(i));
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB after the table is written to XML. It
+	 * releases the list of rows.
+	 * </p>
+	 * 
+	 * @param marshaller
+	 *            <p>
+	 *            The Marshaller.
+	 *            </p>
+	 */
+	private void afterMarshal(Marshaller marshaller) {
+		rowComponents = null;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB after the table is read from XML. It
+	 * stores the values of the rows that were read in the columns. Rows that
+	 * differ from the Row Template in more than their values keep their
+	 * Entries.
+	 * </p>
+	 * 
+	 * @param unmarshaller
+	 *            <p>
+	 *            The Unmarshaller.
+	 *            </p>
+	 * @param parent
+	 *            <p>
+	 *            The parent of the table in the XML.
+	 *            </p>
+	 */
+	private void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+
+		// Nothing to do if no rows were read
+		if (rowComponents == null || rowComponents.isEmpty()) {
+			rowComponents = null;
+			return;
+		}
+
+		// Set the template and add the rows
+		rows = new DataComponent[0];
+		numRows = 0;
+		setTemplate(rowComponents.get(0));
+		appendRows(rowComponents.size() - 1);
+
+		// Store the values of each row
+		ArrayList<Entry> template = rowTemplate.retrieveAllEntries();
+		for (int i = 0; i < numRows; i++) {
+			DataComponent row = rowComponents.get(i + 1);
+			ArrayList<Entry> entries = row.retrieveAllEntries();
+			boolean stored = (entries.size() == columns.length);
+			for (int j = 0; stored && j < columns.length; j++) {
+				Entry entry = entries.get(j);
+				Entry templateEntry = template.get(j);
+				if (entry.changeState != templateEntry.changeState
+						|| !valuesEqual(entry.value, templateEntry.value)) {
+					// Values that were set are stored. Otherwise the row
+					// keeps its Entries.
+					stored = entry.changeState;
+					columns[j].rowCodes[i] = columns[j].encode(entry.value);
+				}
+			}
+			// Keep the Entries if anything else is different
+			if (!stored || !rowsEqual(createRow(i), row)) {
+				for (Column column : columns) {
+					column.rowCodes[i] = -1;
+				}
+				rows[i] = row;
+			}
+		}
+
+		// The rows are no longer needed
+		rowComponents = null;
+
+		return;
+	}
+}
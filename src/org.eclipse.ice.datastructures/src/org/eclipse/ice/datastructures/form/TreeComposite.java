@@ -15,7 +15,10 @@ package org.eclipse.ice.datastructures.form;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -42,6 +45,7 @@ import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 import org.eclipse.ice.datastructures.form.emf.EMFComponent;
 import org.eclipse.ice.datastructures.form.geometry.GeometryComponent;
 import org.eclipse.ice.datastructures.form.geometry.IShape;
+import org.eclipse.ice.datastructures.form.iterator.PreOrderTreeCompositeIterator;
 import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
 
 /**
@@ -131,6 +135,16 @@ import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
  * the list returned by getChildExemplars() is submitted. Special care should be
  * taken that children from this list are added to the TreeComposite *before*
  * they themselves are modified.
+ * </p>
+ * <p>
+ * Exemplars can be large trees, so copy() and clone() share the exemplars of
+ * the original TreeComposite with the copy instead of copying them. The list
+ * of exemplars is never modified in place, only replaced, so neither tree can
+ * change the exemplars of the other by adding or setting exemplars, and
+ * copying never changes the original. The exemplars themselves are shared
+ * read-only templates. Clone an exemplar before changing it and replace it
+ * with addChildExemplar() if the change should apply to this tree only.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -245,6 +259,42 @@ public class TreeComposite extends ICEObject implements Composite,
 	@XmlAttribute
 	private boolean active = false;
 
+	/**
+	 * <p>
+	 * The index of the children of this TreeComposite, keyed on their names.
+	 * Each list holds the children with that name in the order that they were
+	 * added. It is built when it is first needed and kept up to date as
+	 * children are added, removed or renamed. It is null if it has not been
+	 * built.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private HashMap<String, ArrayList<TreeComposite>> childNameIndex = null;
+
+	/**
+	 * <p>
+	 * The index of all of the descendants of this TreeComposite, keyed on
+	 * their paths relative to this TreeComposite (i.e. - "child/grandchild").
+	 * It is built when it is first needed and discarded whenever the structure
+	 * or the names in the subtree change. It is null if it has not been built.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private Map<String, TreeComposite> pathIndex = null;
+
+	/**
+	 * <p>
+	 * The number of TreeComposites in the subtree rooted at this TreeComposite,
+	 * including this one, or -1 if it has not been computed since the subtree
+	 * last changed.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private int subtreeSize = -1;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -412,6 +462,11 @@ public class TreeComposite extends ICEObject implements Composite,
 			children.add(cNode);
 			// Set the parent reference for the child
 			cNode.parent = this;
+			// Update the indices
+			if (childNameIndex != null) {
+				addToChildNameIndex(cNode);
+			}
+			updateIndices(cNode.subtreeSize, cNode.subtreeSize >= 0);
 			// Register the listeners with this child
 			for (IUpdateableListener listener : listeners) {
 				cNode.register(listener);
@@ -480,9 +535,15 @@ public class TreeComposite extends ICEObject implements Composite,
 			// that the iterator index can be fixed
 			int i = children.indexOf(cNode);
 			// Remove the child and break out of the loop
-			children.remove(cNode);
+			TreeComposite removedChild = children.remove(i);
 			// Remove the parent link of the child
 			cNode.parent = null;
+			// Update the indices
+			if (childNameIndex != null) {
+				removeFromChildNameIndex(removedChild, removedChild.getName());
+			}
+			updateIndices(-removedChild.subtreeSize,
+					removedChild.subtreeSize >= 0);
 			// Fix the currentChildIndex iterator if needed
 			if (currentChildIndex > i) {
 				currentChildIndex--;
@@ -577,6 +638,317 @@ public class TreeComposite extends ICEObject implements Composite,
 		return previousSibling;
 	}
 
+	/**
+	 * <p>
+	 * This operation overrides ICEObject.setName() to keep the name index of
+	 * the parent and the path indices of the ancestors up to date.
+	 * </p>
+	 * 
+	 * @param name
+	 *            <p>
+	 *            The new name.
+	 *            </p>
+	 */
+	@Override
+	public void setName(String name) {
+
+		// Local Declarations
+		String oldName = getName();
+
+		super.setName(name);
+
+		// Update the indices of the parent if the name changed. The name index
+		// is rebuilt so that the children stay in order.
+		if (name != null && !name.equals(oldName) && parent != null) {
+			parent.childNameIndex = null;
+			parent.updateIndices(0, true);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the children of this TreeComposite with the
+	 * given name in the order that they were added. It uses an index of the
+	 * children, so it does not need to search the set of children and it does
+	 * not change the position of the child iterator.
+	 * </p>
+	 * 
+	 * @param name
+	 *            <p>
+	 *            The name of the children.
+	 *            </p>
+	 * @return <p>
+	 *         The children with the name. The list is empty if there are no
+	 *         such children.
+	 *         </p>
+	 */
+	public ArrayList<TreeComposite> getChildrenByName(String name) {
+
+		// Build the index if needed
+		if (childNameIndex == null) {
+			childNameIndex = new HashMap<String, ArrayList<TreeComposite>>();
+			for (TreeComposite child : children) {
+				addToChildNameIndex(child);
+			}
+		}
+
+		ArrayList<TreeComposite> namedChildren = childNameIndex.get(name);
+
+		return (namedChildren != null) ? new ArrayList<TreeComposite>(
+				namedChildren) : new ArrayList<TreeComposite>();
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the index of all of the descendants of this
+	 * TreeComposite keyed on their paths. A path is the list of the names of
+	 * the TreeComposites on the way down from this TreeComposite, separated by
+	 * "/". For example, the path of a grandchild named "bar" of a child named
+	 * "foo" is "foo/bar". If more than one descendant has the same path, the
+	 * first one in a pre-order traversal of the tree is indexed.
+	 * </p>
+	 * <p>
+	 * The index is built the first time that it is requested and it is reused
+	 * until a TreeComposite is added to, removed from or renamed in the
+	 * subtree.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         An unmodifiable map of the descendants keyed on their paths.
+	 *         </p>
+	 */
+	public Map<String, TreeComposite> getPathIndex() {
+
+		// Build the index if needed
+		if (pathIndex == null) {
+			HashMap<String, TreeComposite> index = new HashMap<String, TreeComposite>(
+					Math.max(16, getSubtreeSize() * 4 / 3 + 1));
+			for (TreeComposite child : children) {
+				addToPathIndex(child.getName(), child, index);
+			}
+			pathIndex = Collections.unmodifiableMap(index);
+		}
+
+		return pathIndex;
+	}
+
+	/**
+	 * <p>
+	 * This is a utility operation that adds a TreeComposite and all of its
+	 * descendants to a path index in pre-order.
+	 * </p>
+	 * 
+	 * @param path
+	 *            <p>
+	 *            The path of the TreeComposite.
+	 *            </p>
+	 * @param tree
+	 *            <p>
+	 *            The TreeComposite.
+	 *            </p>
+	 * @param index
+	 *            <p>
+	 *            The index.
+	 *            </p>
+	 */
+	private static void addToPathIndex(String path, TreeComposite tree,
+			Map<String, TreeComposite> index) {
+
+		// Keep the first TreeComposite with this path
+		if (!index.containsKey(path)) {
+			index.put(path, tree);
+		}
+
+		// Add the children
+		for (TreeComposite child : tree.children) {
+			addToPathIndex(path + "/" + child.getName(), child, index);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation finds a descendant of this TreeComposite by its path as
+	 * described in getPathIndex(). A leading "/" is ignored and an empty path
+	 * refers to this TreeComposite.
+	 * </p>
+	 * 
+	 * @param path
+	 *            <p>
+	 *            The path of the descendant.
+	 *            </p>
+	 * @return <p>
+	 *         The descendant or null if there is no descendant with that path.
+	 *         </p>
+	 */
+	public TreeComposite findByPath(String path) {
+
+		// Local Declarations
+		TreeComposite tree = null;
+
+		if (path != null) {
+			// Remove the leading separator
+			String relativePath = path.startsWith("/") ? path.substring(1)
+					: path;
+			tree = relativePath.isEmpty() ? this : getPathIndex().get(
+					relativePath);
+		}
+
+		return tree;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns all of the TreeComposites in the subtree rooted at
+	 * this TreeComposite, including this one, that are accepted by the filter.
+	 * They are returned in the order of a pre-order traversal of the tree.
+	 * </p>
+	 * 
+	 * @param filter
+	 *            <p>
+	 *            The filter that selects the TreeComposites.
+	 *            </p>
+	 * @return <p>
+	 *         The TreeComposites accepted by the filter.
+	 *         </p>
+	 */
+	public ArrayList<TreeComposite> findAll(ITreeCompositeFilter filter) {
+
+		// Local Declarations
+		ArrayList<TreeComposite> matches = new ArrayList<TreeComposite>();
+
+		if (filter != null) {
+			PreOrderTreeCompositeIterator iterator = new PreOrderTreeCompositeIterator(
+					this);
+			while (iterator.hasNext()) {
+				TreeComposite tree = iterator.next();
+				if (filter.accept(tree)) {
+					matches.add(tree);
+				}
+			}
+		}
+
+		return matches;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the number of TreeComposites in the subtree rooted
+	 * at this TreeComposite, including this one. The size is cached and it is
+	 * updated as children are added and removed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The size of the subtree.
+	 *         </p>
+	 */
+	public int getSubtreeSize() {
+
+		// Compute the size if needed
+		if (subtreeSize < 0) {
+			int size = 1;
+			for (TreeComposite child : children) {
+				size += child.getSubtreeSize();
+			}
+			subtreeSize = size;
+		}
+
+		return subtreeSize;
+	}
+
+	/**
+	 * <p>
+	 * This is a utility operation that adds a child to the end of the list of
+	 * children with its name in the name index.
+	 * </p>
+	 * 
+	 * @param child
+	 *            <p>
+	 *            The child.
+	 *            </p>
+	 */
+	private void addToChildNameIndex(TreeComposite child) {
+
+		ArrayList<TreeComposite> namedChildren = childNameIndex.get(child
+				.getName());
+		if (namedChildren == null) {
+			namedChildren = new ArrayList<TreeComposite>(1);
+			childNameIndex.put(child.getName(), namedChildren);
+		}
+
+		namedChildren.add(child);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This is a utility operation that removes a child from the name index.
+	 * </p>
+	 * 
+	 * @param child
+	 *            <p>
+	 *            The child.
+	 *            </p>
+	 * @param name
+	 *            <p>
+	 *            The name under which the child was indexed.
+	 *            </p>
+	 */
+	private void removeFromChildNameIndex(TreeComposite child, String name) {
+
+		ArrayList<TreeComposite> namedChildren = childNameIndex.get(name);
+		if (namedChildren != null) {
+			// Remove this reference, not an equal child
+			for (int i = 0; i < namedChildren.size(); i++) {
+				if (namedChildren.get(i) == child) {
+					namedChildren.remove(i);
+					break;
+				}
+			}
+			if (namedChildren.isEmpty()) {
+				childNameIndex.remove(name);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This is a utility operation that updates the cached subtree sizes and
+	 * discards the path indices of this TreeComposite and its ancestors after
+	 * the subtree has changed.
+	 * </p>
+	 * 
+	 * @param sizeChange
+	 *            <p>
+	 *            The change in the number of TreeComposites in the subtree.
+	 *            </p>
+	 * @param sizeKnown
+	 *            <p>
+	 *            True if the change in size is known, false if the sizes
+	 *            should be recomputed when they are next requested.
+	 *            </p>
+	 */
+	private void updateIndices(int sizeChange, boolean sizeKnown) {
+
+		TreeComposite tree = this;
+		while (tree != null) {
+			tree.pathIndex = null;
+			if (tree.subtreeSize >= 0) {
+				tree.subtreeSize = sizeKnown ? tree.subtreeSize + sizeChange
+						: -1;
+			}
+			tree = tree.parent;
+		}
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation returns the set of data nodes managed by the TreeComposite
@@ -855,6 +1227,14 @@ public class TreeComposite extends ICEObject implements Composite,
 			this.children.get(j).previousSibling = this.children.get(j - 1);
 		}
 
+		// The children and possibly the name were replaced, so the indices of
+		// this tree, its parent and its ancestors are out of date.
+		childNameIndex = null;
+		if (parent != null) {
+			parent.childNameIndex = null;
+		}
+		updateIndices(0, false);
+
 		// This is numerical and acceptable
 		this.currentChildIndex = otherTreeComposite.currentChildIndex;
 
@@ -878,13 +1258,9 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Copy activity marker
 		this.active = otherTreeComposite.active;
 
-		// Copy the exemplars
-		this.childExemplars.clear();
-		for (int i = 0; i < otherTreeComposite.childExemplars.size(); i++) {
-			this.childExemplars
-					.add((TreeComposite) otherTreeComposite.childExemplars.get(
-							i).clone());
-		}
+		// Share the exemplars. The list is only ever replaced, not changed,
+		// so this does not change the other tree.
+		this.childExemplars = otherTreeComposite.childExemplars;
 
 		// Re-register with all of the listeners.
 		for (IUpdateableListener listener : listenersCopy) {
@@ -957,6 +1333,10 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Check the input Tree is valid
 		if (exemplar != null) {
 
+			// The list may be shared with copies of this tree, so change a
+			// new list instead of the current one
+			childExemplars = new ArrayList<TreeComposite>(childExemplars);
+
 			// Check if there already is a child exemplar of the same name
 			for (int i = 0; i < childExemplars.size(); i++) {
 				currExemplar = childExemplars.get(i);
@@ -983,6 +1363,11 @@ public class TreeComposite extends ICEObject implements Composite,
 	 * be copied (via clone(), for example) and submitted to setNextChild() or
 	 * addComponent().
 	 * </p>
+	 * <p>
+	 * The returned list belongs to the caller, but the exemplars in it may be
+	 * shared with copies of this TreeComposite and must be treated as
+	 * read-only.
+	 * </p>
 	 * 
 	 * @return <p>
 	 *         The set of exemplar child types ("set of exemplars").
@@ -348,27 +348,8 @@ public class GeometryComponent extends ICEObject implements Component,
 	 */
 	protected void notifyListeners() {
 
-		final GeometryComponent geometryComponent = this;
-
-		// If the listeners are empty, return
-		if (this.listeners == null || this.listeners.isEmpty()) {
-			return;
-		}
-		// Create a thread object that notifies all listeners
-
-		Thread notifyThread = new Thread() {
-
-			@Override
-			public void run() {
-				// Loop over all listeners and update them
-				for (int i = 0; i < listeners.size(); i++) {
-					listeners.get(i).update(geometryComponent);
-				}
-			}
-		};
-
-		// Start the thread
-		notifyThread.start();
+		// Let the base class hand the update to the shared dispatcher
+		super.notifyListeners();
 
 	}
 
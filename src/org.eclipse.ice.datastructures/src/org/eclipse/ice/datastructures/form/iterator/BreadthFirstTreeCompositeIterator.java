@@ -1,6 +1,6 @@
 package org.eclipse.ice.datastructures.form.iterator;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 
 import org.eclipse.ice.datastructures.form.TreeComposite;
@@ -51,7 +51,7 @@ public class BreadthFirstTreeCompositeIterator extends
 		super((root != null ? root : new TreeComposite()));
 
 		// Create a new, empty queue.
-		queue = new LinkedList<TreeComposite>();
+		queue = new ArrayDeque<TreeComposite>();
 
 		// If the root TreeComposite is not null, it is the first element to
 		// iterate over.
@@ -1,6 +1,7 @@
 package org.eclipse.ice.datastructures.form.iterator;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.eclipse.ice.datastructures.form.TreeComposite;
 
@@ -33,7 +34,7 @@ public class PostOrderTreeCompositeIterator extends
 	 * A stack used to maintain state information about the position of the
 	 * iterator. If empty, there is no remaining TreeComposite to visit.
 	 */
-	private final Stack<TreeComposite> stack;
+	private final Deque<TreeComposite> stack;
 
 	/**
 	 * A reference to the last node returned by {@link #next()}. This is null
@@ -56,7 +57,7 @@ public class PostOrderTreeCompositeIterator extends
 		super((root != null ? root : new TreeComposite()));
 
 		// Create a new, empty stack.
-		stack = new Stack<TreeComposite>();
+		stack = new ArrayDeque<TreeComposite>();
 		// Initialize the last visited node.
 		lastNodeVisited = null;
 
@@ -1,6 +1,7 @@
 package org.eclipse.ice.datastructures.form.iterator;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.eclipse.ice.datastructures.form.TreeComposite;
 
@@ -33,7 +34,7 @@ public class PreOrderTreeCompositeIterator extends
 	 * A stack used to maintain state information about the position of the
 	 * iterator. If empty, there is no remaining TreeComposite to visit.
 	 */
-	private final Stack<TreeComposite> stack;
+	private final Deque<TreeComposite> stack;
 
 	/**
 	 * The default constructor.
@@ -50,7 +51,7 @@ public class PreOrderTreeCompositeIterator extends
 		super((root != null ? root : new TreeComposite()));
 
 		// Create a new, empty stack.
-		stack = new Stack<TreeComposite>();
+		stack = new ArrayDeque<TreeComposite>();
 
 		// If the root TreeComposite is not null, it is the first element to
 		// iterate over.
@@ -1025,6 +1025,34 @@ public class Item implements IComponentVisitor, Identifiable,
 		return status;
 	}
 
+	/**
+	 * This operation registers a listener that is called once the Action that
+	 * the Item is currently running completes. If the Item is not running an
+	 * Action, the listener is called immediately on the calling thread. This
+	 * allows clients, such as schedulers, to be notified when processing is
+	 * complete without polling getStatus().
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void addActionCompletionListener(Runnable listener) {
+
+		// Local Declarations
+		Action currentAction = action;
+		FormStatus currentStatus = getStatus();
+
+		// Only wait on the Action if it is still running
+		if (currentAction != null
+				&& (currentStatus.equals(FormStatus.Processing) || currentStatus
+						.equals(FormStatus.NeedsInfo))) {
+			currentAction.addCompletionListener(listener);
+		} else if (listener != null) {
+			listener.run();
+		}
+
+		return;
+	}
+
 	/**
 	 * This protected operation setups the Entries, DataComponents and Form for
 	 * a subclass of Item. Subclasses should tailor this operation as needed.
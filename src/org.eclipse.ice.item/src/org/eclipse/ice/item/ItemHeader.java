@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * <p>
+ * The ItemHeader class stores the small set of information that describes a
+ * persisted Item without its Form: its id, name, description, type, status
+ * and the name of the builder that created it. Persistence providers can
+ * return ItemHeaders much faster than full Items, so the ItemManager uses them
+ * to publish the list of Items at start up and loads the Items themselves
+ * later.
+ * </p>
+ *
+ * @author agent
+ */
+public class ItemHeader extends ICEObject {
+
+	/**
+	 * The ItemType of the Item.
+	 */
+	private ItemType itemType;
+
+	/**
+	 * The most recent status of the Item.
+	 */
+	private FormStatus status;
+
+	/**
+	 * The name of the ItemBuilder that created the Item.
+	 */
+	private String builderName;
+
+	/**
+	 * The constructor.
+	 */
+	public ItemHeader() {
+		super();
+		itemType = ItemType.Basic;
+		status = FormStatus.ReadyToProcess;
+	}
+
+	/**
+	 * This constructor creates a header that describes an existing Item.
+	 *
+	 * @param item
+	 *            The Item that should be described
+	 */
+	public ItemHeader(Item item) {
+		this();
+		if (item != null) {
+			uniqueId = item.getId();
+			objectName = item.getName();
+			objectDescription = item.getDescription();
+			itemType = item.getItemType();
+			status = item.getStatus();
+			builderName = item.getItemBuilderName();
+		}
+	}
+
+	/**
+	 * This operation returns the ItemType of the Item.
+	 *
+	 * @return The type
+	 */
+	public ItemType getItemType() {
+		return itemType;
+	}
+
+	/**
+	 * This operation sets the ItemType of the Item.
+	 *
+	 * @param type
+	 *            The type
+	 */
+	public void setItemType(ItemType type) {
+		if (type != null) {
+			itemType = type;
+		}
+	}
+
+	/**
+	 * This operation returns the last status of the Item that was persisted.
+	 *
+	 * @return The status
+	 */
+	public FormStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * This operation sets the status of the Item.
+	 *
+	 * @param status
+	 *            The status
+	 */
+	public void setStatus(FormStatus status) {
+		if (status != null) {
+			this.status = status;
+		}
+	}
+
+	/**
+	 * This operation returns the name of the ItemBuilder that created the
+	 * Item.
+	 *
+	 * @return The builder name or null if it is not known
+	 */
+	public String getItemBuilderName() {
+		return builderName;
+	}
+
+	/**
+	 * This operation sets the name of the ItemBuilder that created the Item.
+	 *
+	 * @param name
+	 *            The builder name
+	 */
+	public void setItemBuilderName(String name) {
+		builderName = name;
+	}
+
+	/**
+	 * This operation copies the contents of another ItemHeader into this one.
+	 *
+	 * @param otherHeader
+	 *            The header to copy
+	 */
+	public void copy(ItemHeader otherHeader) {
+		if (otherHeader != null) {
+			super.copy(otherHeader);
+			itemType = otherHeader.itemType;
+			status = otherHeader.status;
+			builderName = otherHeader.builderName;
+		}
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ICEObject#clone()
+	 */
+	@Override
+	public Object clone() {
+		ItemHeader header = new ItemHeader();
+		header.copy(this);
+		return header;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ICEObject#equals(Object otherObject)
+	 */
+	@Override
+	public boolean equals(Object otherObject) {
+
+		// Local Declarations
+		boolean retVal = false;
+
+		if (otherObject instanceof ItemHeader && super.equals(otherObject)) {
+			ItemHeader otherHeader = (ItemHeader) otherObject;
+			retVal = itemType == otherHeader.itemType
+					&& status == otherHeader.status
+					&& (builderName == null ? otherHeader.builderName == null
+							: builderName.equals(otherHeader.builderName));
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ICEObject#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+
+		// Local Declaration
+		int hash = super.hashCode();
+
+		hash = 31 * hash + (null == itemType ? 0 : itemType.hashCode());
+		hash = 31 * hash + (null == status ? 0 : status.hashCode());
+		hash = 31 * hash + (null == builderName ? 0 : builderName.hashCode());
+
+		return hash;
+	}
+}
@@ -14,7 +14,14 @@ package org.eclipse.ice.item.action;
 
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.form.FormStatus;
+
+import java.util.ArrayList;
 import java.util.Dictionary;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The Action class performs actions, such as launching a job or script, for
@@ -32,6 +39,13 @@ import java.util.Dictionary;
  * Actions may update the dictionary passed to execute() at their discretion, so
  * keep in mind that it may change if you depend on it in the client class.
  * 
+ * Actions that run asynchronously should call notifyCompletion() when they
+ * finish, and override notifiesCompletion() to say so, so that clients
+ * registered with addCompletionListener() are called back instead of polling
+ * getStatus(). Actions that do not are watched by the base class, which polls
+ * getStatus() until the Action is no longer processing and then notifies the
+ * listeners itself.
+ * 
  * @author Jay Jay Billings
  */
 public abstract class Action {
@@ -62,6 +76,35 @@ public abstract class Action {
 	 */
 	protected FormStatus status;
 
+	/**
+	 * The listeners that are called when the Action completes.
+	 */
+	private final ArrayList<Runnable> completionListeners = new ArrayList<Runnable>();
+
+	/**
+	 * True if the Action has called notifyCompletion(), false otherwise.
+	 */
+	private boolean completed = false;
+
+	/**
+	 * The task that polls getStatus() for Actions that do not call
+	 * notifyCompletion() themselves, or null if it has not been started.
+	 */
+	private ScheduledFuture<?> completionWatch;
+
+	/**
+	 * The period, in milliseconds, at which the status of Actions that do not
+	 * call notifyCompletion() is polled.
+	 */
+	private static final long completionPollPeriod = 100;
+
+	/**
+	 * The thread that polls the status of Actions that do not call
+	 * notifyCompletion(). It is shared by all Actions and created when it is
+	 * first needed.
+	 */
+	private static ScheduledExecutorService completionWatcher;
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -162,4 +205,139 @@ public abstract class Action {
 	public FormStatus getStatus() {
 		return status;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * This operation registers a listener that is called, on the thread that
+	 * finishes the Action, once the Action completes. If the Action has already
+	 * completed, the listener is called immediately on the calling thread.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void addCompletionListener(Runnable listener) {
+
+		// Local Declarations
+		boolean callNow = false;
+
+		if (listener != null) {
+			synchronized (completionListeners) {
+				if (completed) {
+					callNow = true;
+				} else {
+					completionListeners.add(listener);
+					// Watch Actions that will not notify the listeners
+					if (!notifiesCompletion() && completionWatch == null) {
+						watchForCompletion();
+					}
+				}
+			}
+			// Call it outside of the lock
+			if (callNow) {
+				listener.run();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns true if the Action has completed and notified its
+	 * completion listeners.
+	 * 
+	 * @return True if the Action is complete, false otherwise
+	 */
+	public boolean isComplete() {
+		synchronized (completionListeners) {
+			return completed;
+		}
+	}
+
+	/**
+	 * This operation returns true if the Action calls notifyCompletion() once
+	 * it finishes. Subclasses that do should override it to return true.
+	 * Otherwise the status of the Action is polled once a completion listener
+	 * is registered.
+	 * 
+	 * @return True if the Action calls notifyCompletion(), false otherwise.
+	 *         The default is false.
+	 */
+	protected boolean notifiesCompletion() {
+		return false;
+	}
+
+	/**
+	 * This operation starts polling getStatus() and calls notifyCompletion()
+	 * once the Action is no longer processing or waiting for information. It
+	 * must be called while holding the lock on the completion listeners.
+	 */
+	private void watchForCompletion() {
+
+		// Create the shared watcher thread the first time it is needed. It is
+		// a daemon so that it never keeps the platform from shutting down.
+		synchronized (Action.class) {
+			if (completionWatcher == null) {
+				completionWatcher = Executors
+						.newSingleThreadScheduledExecutor(new ThreadFactory() {
+							@Override
+							public Thread newThread(Runnable runnable) {
+								Thread thread = new Thread(runnable,
+										"ICE Action Completion Watcher");
+								thread.setDaemon(true);
+								return thread;
+							}
+						});
+			}
+		}
+
+		// Poll the status until the Action is done
+		completionWatch = completionWatcher.scheduleWithFixedDelay(
+				new Runnable() {
+					@Override
+					public void run() {
+						FormStatus currentStatus = getStatus();
+						if (currentStatus != null
+								&& !currentStatus.equals(FormStatus.Processing)
+								&& !currentStatus.equals(FormStatus.NeedsInfo)) {
+							notifyCompletion();
+						}
+					}
+				}, completionPollPeriod, completionPollPeriod,
+				TimeUnit.MILLISECONDS);
+
+		return;
+	}
+
+	/**
+	 * This operation marks the Action as complete and calls all of the
+	 * completion listeners. Subclasses should call it once their final status
+	 * has been set.
+	 */
+	protected void notifyCompletion() {
+
+		// Local Declarations
+		ArrayList<Runnable> listeners = null;
+
+		// Copy the listeners so that they are called outside of the lock
+		synchronized (completionListeners) {
+			completed = true;
+			listeners = new ArrayList<Runnable>(completionListeners);
+			completionListeners.clear();
+			// Stop polling the status if it was being watched
+			if (completionWatch != null) {
+				completionWatch.cancel(false);
+			}
+		}
+
+		// Call them
+		for (Runnable listener : listeners) {
+			try {
+				listener.run();
+			} catch (Exception e) {
+				// Complain, but keep going for the other listeners
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+}
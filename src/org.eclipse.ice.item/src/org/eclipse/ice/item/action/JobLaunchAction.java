@@ -13,12 +13,12 @@
 package org.eclipse.ice.item.action;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Writer;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.file.Files;
@@ -376,7 +376,7 @@ public class JobLaunchAction extends Action implements Runnable {
 	/**
 	 * Output streams for stdout and stderr
 	 */
-	BufferedWriter stdOut = null, stdErr = null;
+	Writer stdOut = null, stdErr = null;
 
 	/**
 	 * A process for storing the process information from the launch.
@@ -445,6 +445,19 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	private long maxFileSize;
 
+	/**
+	 * The size at which the stdout and stderr log files are rotated, in bytes.
+	 * The default size is 100 MB and is set as a VM argument called
+	 * "max_log_size". Logs are never rotated if it is zero.
+	 */
+	private long maxLogSize;
+
+	/**
+	 * The number of rotated stdout and stderr log files that are kept. The
+	 * default is 3 and is set as a VM argument called "max_log_backups".
+	 */
+	private int maxLogBackups;
+
 	/**
 	 * The Constructor.
 	 */
@@ -465,6 +478,10 @@ public class JobLaunchAction extends Action implements Runnable {
 			maxFileSize = 52428800;
 		}
 
+		// Get the log rotation settings from the system properties
+		maxLogSize = Long.getLong("max_log_size", 104857600L);
+		maxLogBackups = Integer.getInteger("max_log_backups", 3);
+
 		return;
 	}
 
@@ -633,32 +650,30 @@ public class JobLaunchAction extends Action implements Runnable {
 
 	/**
 	 * This operation returns a buffered writer to the caller that will append
-	 * to file specified in the call.
+	 * to file specified in the call. The file is rotated when it grows past
+	 * the maximum log size.
 	 * 
 	 * @param filename
-	 *            The name of the file to which the BufferedWriter should
-	 *            append.
-	 * @return The BufferedWriter.
+	 *            The name of the file to which the writer should append.
+	 * @return The writer or null if the file could not be opened.
 	 */
-	private BufferedWriter getBufferedWriter(String filename) {
+	private Writer getLogWriter(String filename) {
 
 		// Local Declarations
-		FileWriter writer = null;
-		BufferedWriter bufferedWriter = null;
+		Writer writer = null;
 
 		// Check the file name and the create the writer
 		if (filename != null) {
 			try {
-				writer = new FileWriter(filename, true);
+				writer = new RotatingFileWriter(filename, maxLogSize,
+						maxLogBackups);
 			} catch (IOException e) {
 				// Complain
 				e.printStackTrace();
 			}
-			bufferedWriter = new BufferedWriter(writer);
-			return bufferedWriter;
-		} else {
-			return null;
 		}
+
+		return writer;
 	}
 
 	/**
@@ -730,9 +745,9 @@ public class JobLaunchAction extends Action implements Runnable {
 			if (cancelled.get()) {
 				break;
 			}
-			// Launch the current stage of the job
+			// Launch the current stage of the job. It returns when the stage
+			// has finished.
 			launchStatus = launchStageLocally(splitCMD.get(i), stdOut, stdErr);
-			monitorJob();
 			if (launchStatus.equals(FormStatus.InfoError)) {
 				// Look for abnormal launches
 				// // Look for still running jobs and watch them
@@ -749,14 +764,13 @@ public class JobLaunchAction extends Action implements Runnable {
 		return;
 	}
 
-	protected FormStatus launchStageLocally(String cmd, BufferedWriter stdOut,
-			BufferedWriter stdErr) {
+	protected FormStatus launchStageLocally(String cmd, Writer stdOut,
+			Writer stdErr) {
 
 		// Local Declarations
 		String errMsg = null;
 		ProcessBuilder jobBuilder = null;
 		InputStream stdOutStream = null, stdErrStream = null;
-		int exitValue = -1;
 		String os = execDictionary.get("os");
 		ArrayList<String> cmdList = new ArrayList<String>();
 		File directory = new File(execDictionary.get("workingDir"));
@@ -834,20 +848,14 @@ public class JobLaunchAction extends Action implements Runnable {
 		// Log the output
 		stdOutStream = job.getInputStream();
 		stdErrStream = job.getErrorStream();
-		logOutput(stdOutStream, stdErrStream);
 		if (logOutput(stdOutStream, stdErrStream).equals(FormStatus.InfoError)) {
 			// Throw an error if the streaming fails
 			return FormStatus.InfoError;
 		}
 
-		// Try to get the exit value of the job
-		try {
-			exitValue = job.exitValue();
-		} catch (IllegalThreadStateException e) {
-			// The job is still running, so it should be watched by someone
-			// else.
-			return FormStatus.Processing;
-		}
+		// Wait for the job to exit. The streams are closed, so this will not
+		// take long.
+		int exitValue = monitorJob();
 
 		// By convention exit values other than zero mean that the program
 		// failed. I follow that convention here.
@@ -865,41 +873,115 @@ public class JobLaunchAction extends Action implements Runnable {
 	 * rely on global variables, but since IRemoteProcess and Process are not
 	 * part of the same inheritance hierarchy, there is no better way to deal
 	 * with it.
+	 * 
+	 * It blocks in waitFor() until the job exits, so the exit is noticed as
+	 * soon as it happens and no time is spent polling. Cancelling the job
+	 * destroys it, which also ends the wait.
+	 * 
+	 * @return The exit value of the job or -1 if there is no job or the wait
+	 *         was interrupted
 	 */
-	protected void monitorJob() {
+	protected int monitorJob() {
 
 		// Local Declarations
-		int exitValue = -32; // Totally arbitrary
+		int exitValue = -1;
 
-		// Wait until the job exits. By convention an exit code of
-		// zero means that the job has succeeded. Watch it until it
-		// finishes.
-		while (exitValue != 0) {
-			// Try to get the exit value of the job
-			try {
-				exitValue = (isLocal.get()) ? job.exitValue() : remoteJob
-						.exitValue();
-			} catch (IllegalThreadStateException e) {
-				// Complain, but keep watching
-				e.printStackTrace();
-			}
-			// Give it a second
-			try {
-				Thread.currentThread();
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
-				// Complain
-				e.printStackTrace();
+		// Wait until the job exits. By convention an exit code of zero means
+		// that the job has succeeded.
+		try {
+			if (isLocal.get() && job != null) {
+				exitValue = job.waitFor();
+			} else if (!isLocal.get() && remoteJob != null) {
+				exitValue = remoteJob.waitFor();
 			}
+		} catch (InterruptedException e) {
+			// Complain and stop waiting
+			e.printStackTrace();
+			Thread.currentThread().interrupt();
 		}
 		System.out
 				.println("JobLaunchAction Message: Exit value = " + exitValue);
 
-		return;
+		return exitValue;
 	}
 
 	/**
-	 * This operation logs the content of the output and error streams
+	 * This is a private class that copies the lines of a stream from the job
+	 * to a log. The log is only flushed when no more output is waiting to be
+	 * read, so bursts of output are written in large blocks while the log still
+	 * shows everything that the job has written so far.
+	 * 
+	 * @author Jay Jay Billings
+	 * 
+	 */
+	private static class OutputPump implements Runnable {
+
+		/**
+		 * The reader for the stream from the job.
+		 */
+		private final BufferedReader reader;
+
+		/**
+		 * The log to which the lines are written.
+		 */
+		private final Writer log;
+
+		/**
+		 * The exception that stopped the pump or null if it finished
+		 * normally.
+		 */
+		private volatile IOException exception = null;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param stream
+		 *            The stream from the job
+		 * @param log
+		 *            The log to which the stream should be copied
+		 */
+		public OutputPump(InputStream stream, Writer log) {
+			reader = new BufferedReader(new InputStreamReader(stream));
+			this.log = log;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 * 
+		 * @see Runnable#run()
+		 */
+		@Override
+		public void run() {
+
+			// Local Declarations
+			String nextLine;
+
+			try {
+				while ((nextLine = reader.readLine()) != null) {
+					// MUST put a new line for this type of writer. "\r\n"
+					// works on Windows and Unix-based systems. Write the line
+					// in one call so that it is never split by a rotation.
+					log.write(nextLine + "\r\n");
+					// Flush once the job has nothing else waiting
+					if (!reader.ready()) {
+						log.flush();
+					}
+				}
+				log.flush();
+			} catch (IOException e) {
+				exception = e;
+			}
+
+			return;
+		}
+	}
+
+	/**
+	 * This operation logs the content of the output and error streams. Both
+	 * streams are read at the same time, stderr on a separate thread, so that
+	 * a job that writes a lot to one of them can never block on a full pipe
+	 * while the other is being read. It returns when both streams have been
+	 * closed by the job.
 	 * 
 	 * @param output
 	 *            The output stream from the code
@@ -910,38 +992,32 @@ public class JobLaunchAction extends Action implements Runnable {
 	protected FormStatus logOutput(InputStream output, InputStream errors) {
 
 		// Local Declarations
-		InputStreamReader stdOutStreamReader, stdErrStreamReader;
-		BufferedReader stdOutReader, stdErrReader;
-		String nextLine;
-
-		// Setup the BufferedReader that will get stdout from the process.
-		stdOutStreamReader = new InputStreamReader(output);
-		stdOutReader = new BufferedReader(stdOutStreamReader);
-		// Setup the BufferedReader that will get stderr from the process.
-		stdErrStreamReader = new InputStreamReader(errors);
-		stdErrReader = new BufferedReader(stdErrStreamReader);
-
-		// Catch the stdout and stderr output
+		OutputPump stdOutPump = new OutputPump(output, stdOut);
+		OutputPump stdErrPump = new OutputPump(errors, stdErr);
+		Thread stdErrThread = new Thread(stdErrPump,
+				"JobLaunchAction stderr pump");
+
+		// Pump stderr on its own thread and stdout on this one
+		stdErrThread.setDaemon(true);
+		stdErrThread.start();
+		stdOutPump.run();
 		try {
-			// Write to the stdOut file
-			while ((nextLine = stdOutReader.readLine()) != null) {
-				stdOut.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdOut.write("\r\n");
-				stdOut.flush();
+			stdErrThread.join();
+		} catch (InterruptedException e) {
+			// Complain
+			e.printStackTrace();
+			Thread.currentThread().interrupt();
+			return FormStatus.InfoError;
+		}
+
+		// Fail and complain if either of them failed
+		if (stdOutPump.exception != null || stdErrPump.exception != null) {
+			if (stdOutPump.exception != null) {
+				stdOutPump.exception.printStackTrace();
 			}
-			// Write to the stdErr file
-			while ((nextLine = stdErrReader.readLine()) != null) {
-				stdErr.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdErr.write("\r\n");
-				stdErr.flush();
+			if (stdErrPump.exception != null) {
+				stdErrPump.exception.printStackTrace();
 			}
-		} catch (IOException e) {
-			// Or fail and complain about it.
-			e.printStackTrace();
 			return FormStatus.InfoError;
 		}
 
@@ -1427,6 +1503,17 @@ public class JobLaunchAction extends Action implements Runnable {
 		return;
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see Action#notifiesCompletion()
+	 */
+	@Override
+	protected boolean notifiesCompletion() {
+		// The launch thread always notifies the listeners when it ends
+		return true;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -1434,6 +1521,23 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	public void run() {
 
+		// Launch the job and let the completion listeners know when it is
+		// done, however it ends.
+		try {
+			launch();
+		} finally {
+			notifyCompletion();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation launches the job described by the dictionary and waits
+	 * for it to finish. It is called on the Action's thread by run().
+	 */
+	private void launch() {
+
 		// Local Declarations
 		String executable = null, inputFile = null, hostname = null;
 		String stdOutFileName = null, stdErrFileName = null;
@@ -1475,10 +1579,14 @@ public class JobLaunchAction extends Action implements Runnable {
 
 		// Setup the output streams, stdout first
 		stdOutFileName = execDictionary.get("stdOutFileName");
-		stdOut = getBufferedWriter(stdOutFileName);
+		stdOut = getLogWriter(stdOutFileName);
 		// stderr second
 		stdErrFileName = execDictionary.get("stdErrFileName");
-		stdErr = getBufferedWriter(stdErrFileName);
+		stdErr = getLogWriter(stdErrFileName);
+		if (stdOut == null || stdErr == null) {
+			status = FormStatus.InfoError;
+			return;
+		}
 
 		// Setup the stdout and stderr headers
 		stdOutHeader = createOutputHeader("standard output");
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * <p>
+ * The RotatingFileWriter is a buffered Writer that appends to a log file and
+ * rotates the file when it grows past a maximum size. When the file is
+ * rotated, it is renamed to <fileName>.1, the previous <fileName>.1 is renamed
+ * to <fileName>.2 and so on up to the maximum number of backups, after which
+ * the oldest backup is deleted. A new, empty file is then started with the
+ * original name so that clients always find the most recent output there.
+ * </p>
+ * <p>
+ * Each call to write() is written to one file, so callers that write whole
+ * lines never see a line split across two files. The size is counted in
+ * characters, so it is approximate for text that is not ASCII. This class is
+ * thread-safe.
+ * </p>
+ *
+ * @author agent
+ */
+public class RotatingFileWriter extends Writer {
+
+	/**
+	 * The size of the write buffer in characters.
+	 */
+	private static final int bufferSize = 64 * 1024;
+
+	/**
+	 * The log file.
+	 */
+	private final File file;
+
+	/**
+	 * The size at which the file is rotated. Files are never rotated if it is
+	 * less than or equal to zero.
+	 */
+	private final long maxSize;
+
+	/**
+	 * The number of rotated files that are kept.
+	 */
+	private final int maxBackups;
+
+	/**
+	 * The writer for the current file.
+	 */
+	private BufferedWriter writer;
+
+	/**
+	 * The size of the current file.
+	 */
+	private long size;
+
+	/**
+	 * The number of times the file was rotated.
+	 */
+	private int rotationCount = 0;
+
+	/**
+	 * The constructor. The file is opened for appending.
+	 *
+	 * @param fileName
+	 *            The name of the log file
+	 * @param maxSize
+	 *            The size at which the file should be rotated or zero if it
+	 *            should never be rotated
+	 * @param maxBackups
+	 *            The number of rotated files that should be kept
+	 * @throws IOException
+	 *             An exception indicating that the file could not be opened
+	 */
+	public RotatingFileWriter(String fileName, long maxSize, int maxBackups)
+			throws IOException {
+		file = new File(fileName);
+		this.maxSize = maxSize;
+		this.maxBackups = Math.max(0, maxBackups);
+		open();
+	}
+
+	/**
+	 * This operation opens the writer for the current file.
+	 *
+	 * @throws IOException
+	 *             An exception indicating that the file could not be opened
+	 */
+	private void open() throws IOException {
+		size = file.length();
+		writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file, true)), bufferSize);
+	}
+
+	/**
+	 * This operation returns the file in which a backup is stored.
+	 *
+	 * @param index
+	 *            The index of the backup, starting at one for the newest
+	 * @return The file
+	 */
+	public File getBackupFile(int index) {
+		return new File(file.getPath() + "." + index);
+	}
+
+	/**
+	 * This operation closes the current file, shifts the backups and starts a
+	 * new file.
+	 *
+	 * @throws IOException
+	 *             An exception indicating that the file could not be rotated
+	 */
+	private void rotate() throws IOException {
+
+		// Close the current file
+		writer.close();
+
+		// Shift the backups, dropping the oldest one
+		if (maxBackups > 0) {
+			getBackupFile(maxBackups).delete();
+			for (int i = maxBackups - 1; i > 0; i--) {
+				File backup = getBackupFile(i);
+				if (backup.exists()) {
+					backup.renameTo(getBackupFile(i + 1));
+				}
+			}
+			if (!file.renameTo(getBackupFile(1))) {
+				throw new IOException("Unable to rotate " + file.getPath());
+			}
+		} else {
+			file.delete();
+		}
+
+		// Start the new file
+		open();
+		rotationCount++;
+
+		return;
+	}
+
+	/**
+	 * This operation rotates the file if writing the given number of
+	 * characters would make it larger than the maximum size. Files that are
+	 * empty are never rotated, so a single write that is larger than the
+	 * maximum size still goes to one file.
+	 *
+	 * @param length
+	 *            The number of characters about to be written
+	 * @throws IOException
+	 *             An exception indicating that the file could not be rotated
+	 */
+	private void checkSize(int length) throws IOException {
+		if (maxSize > 0 && size > 0 && size + length > maxSize) {
+			rotate();
+		}
+	}
+
+	/**
+	 * This operation returns the number of times that the file was rotated.
+	 *
+	 * @return The rotation count
+	 */
+	public int getRotationCount() {
+		synchronized (lock) {
+			return rotationCount;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Writer#write(char[], int, int)
+	 */
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		synchronized (lock) {
+			checkSize(len);
+			writer.write(cbuf, off, len);
+			size += len;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Writer#write(java.lang.String, int, int)
+	 */
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		synchronized (lock) {
+			checkSize(len);
+			writer.write(str, off, len);
+			size += len;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Writer#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		synchronized (lock) {
+			writer.flush();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Writer#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (lock) {
+			writer.close();
+		}
+	}
+
+}
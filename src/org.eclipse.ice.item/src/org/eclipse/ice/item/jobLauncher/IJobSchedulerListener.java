@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.jobLauncher;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+
+/**
+ * This interface is realized by clients of the JobScheduler that want to be
+ * notified when the jobs they submitted are started and when they finish. The
+ * operations are called on the thread that starts or finishes the job, so
+ * implementations should return quickly.
+ * 
+ * @author agent
+ */
+public interface IJobSchedulerListener {
+
+	/**
+	 * This operation is called when the scheduler starts a job. It is always
+	 * followed by a call to jobFinished() for the same job.
+	 * 
+	 * @param job
+	 *            The job that was started
+	 */
+	public void jobStarted(Item job);
+
+	/**
+	 * This operation is called when a job finishes, including when it could
+	 * not be launched.
+	 * 
+	 * @param job
+	 *            The job that finished
+	 * @param status
+	 *            The final status of the job
+	 */
+	public void jobFinished(Item job, FormStatus status);
+
+}
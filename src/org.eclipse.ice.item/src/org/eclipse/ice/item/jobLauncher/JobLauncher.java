@@ -538,6 +538,91 @@ public class JobLauncher extends Item {
 
 	}
 
+	/**
+	 * This operation returns the row of the hosts table for the host on which
+	 * the job will be launched.
+	 * 
+	 * @return The hostname, operating system and installation directory
+	 *         Entries of the selected host
+	 */
+	private ArrayList<Entry> getSelectedHost() {
+
+		// Get the hostname and OS by identifying the host in the table. Start
+		// by getting the selected row ids from the host table.
+		ArrayList<Integer> selectedRowIds = hostsTable.getSelectedRows();
+		// Default to the first row
+		int selectedRowId = 1;
+		// If there were rows selected, set the hostname from the first
+		// *selected* row. Default to the first row.
+		selectedRowId = 0; // FIXME! Row id should be > 0! This is a known
+							// issue.
+		if (selectedRowIds != null) {
+			selectedRowId = selectedRowIds.get(0);
+		}
+
+		return hostsTable.getRow(selectedRowId);
+	}
+
+	/**
+	 * This operation returns the name of the host on which the job will be
+	 * launched with the current Form.
+	 * 
+	 * @return The hostname or null if no hosts are configured
+	 */
+	public String getLaunchHost() {
+
+		// Local Declarations
+		String hostname = null;
+
+		if (hostsTable != null && hostsTable.numberOfRows() > 0) {
+			ArrayList<Entry> hostEntries = getSelectedHost();
+			if (hostEntries != null) {
+				hostname = hostEntries.get(0).getValue();
+			}
+		}
+
+		return hostname;
+	}
+
+	/**
+	 * This operation returns the number of cores that the job will use when it
+	 * is launched with the current Form. It is the product of the number of
+	 * MPI processes and the number of TBB threads and is always at least one.
+	 * 
+	 * @return The number of cores
+	 */
+	public int getRequestedCores() {
+
+		// Local Declarations
+		int numProcs = 1, numTBBThreads = 1;
+		DataComponent parallelData = (DataComponent) form
+				.getComponent(JobLauncherForm.parallelId);
+
+		// Get the number of MPI processes and TBB threads if they are
+		// available
+		if (parallelData != null) {
+			try {
+				Entry mpiEntry = parallelData
+						.retrieveEntry("Number of MPI Processes");
+				if (mpiEntry != null) {
+					numProcs = Math.max(numProcs,
+							Integer.parseInt(mpiEntry.getValue()));
+				}
+				Entry tbbThreadsEntry = parallelData
+						.retrieveEntry("Number of TBB Threads");
+				if (tbbThreadsEntry != null) {
+					numTBBThreads = Math.max(numTBBThreads,
+							Integer.parseInt(tbbThreadsEntry.getValue()));
+				}
+			} catch (NumberFormatException e) {
+				// Complain and assume one core
+				e.printStackTrace();
+			}
+		}
+
+		return numProcs * numTBBThreads;
+	}
+
 	/**
 	 * <p>
 	 * This operation fills the data dictionary for the JobLaunchAction based on
@@ -609,20 +694,8 @@ public class JobLauncher extends Item {
 			}
 		}
 
-		// Get the hostname and OS by identifying the host in the table. Start
-		// by getting the selected row ids from the host table.
-		ArrayList<Integer> selectedRowIds = hostsTable.getSelectedRows();
-		// Default to the first row
-		int selectedRowId = 1;
-		// If there were rows selected, set the hostname from the first
-		// *selected* row. Default to the first row.
-		selectedRowId = 0; // FIXME! Row id should be > 0! This is a known
-							// issue.
-		if (selectedRowIds != null) {
-			selectedRowId = selectedRowIds.get(0);
-		}
-		// Get the hostname and os
-		ArrayList<Entry> hostEntries = hostsTable.getRow(selectedRowId);
+		// Get the hostname and os from the selected host
+		ArrayList<Entry> hostEntries = getSelectedHost();
 		hostname = hostEntries.get(0).getValue();
 		os = hostEntries.get(1).getValue();
 		installDir = hostEntries.get(2).getValue();
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.jobLauncher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+
+/**
+ * <p>
+ * The JobScheduler is a local scheduler for jobs launched by Items such as the
+ * JobLauncher. Jobs are submitted with a priority and the number of cores that
+ * they will use and are queued until there are enough free cores on their
+ * host. Jobs with a higher priority are started first and jobs with the same
+ * priority are started in the order that they were submitted. A job that
+ * needs more cores than its host has is started by itself once the host is
+ * idle.
+ * </p>
+ * <p>
+ * The number of cores available on each host is, by default, the number of
+ * processors available to the JVM. It can be changed for all hosts with the
+ * max_jobs_per_host system property or for a single host with
+ * setHostCapacity().
+ * </p>
+ * <p>
+ * The scheduler does not poll the jobs. Instead, it registers a completion
+ * listener with each Item when it starts it and starts the next jobs in the
+ * queue when it is called back. Clients are notified through the
+ * IJobSchedulerListener that they provide when they submit the job. Most
+ * clients should use the shared instance from getInstance() so that all of the
+ * jobs launched by ICE are limited together.
+ * </p>
+ * 
+ * @author agent
+ */
+public class JobScheduler {
+
+	/**
+	 * The name of the system property that sets the default number of cores
+	 * for each host.
+	 */
+	public static final String hostCapacityProperty = "max_jobs_per_host";
+
+	/**
+	 * The shared instance of the scheduler.
+	 */
+	private static JobScheduler instance;
+
+	/**
+	 * The number of cores available on hosts that have not been configured with
+	 * setHostCapacity().
+	 */
+	private final int defaultCapacity;
+
+	/**
+	 * The number of cores available on each configured host.
+	 */
+	private final HashMap<String, Integer> hostCapacities;
+
+	/**
+	 * The number of cores used by the running jobs on each host.
+	 */
+	private final HashMap<String, Integer> usedCores;
+
+	/**
+	 * The queue of jobs that are waiting to start.
+	 */
+	private final PriorityQueue<ScheduledJob> queue;
+
+	/**
+	 * The number of jobs that are running.
+	 */
+	private int runningCount = 0;
+
+	/**
+	 * The number of jobs that have been submitted. It is used to order jobs
+	 * with the same priority.
+	 */
+	private long submissionCount = 0;
+
+	/**
+	 * The number of jobs that finished with the FormStatus.Processed status.
+	 */
+	private long completedCount = 0;
+
+	/**
+	 * The number of jobs that finished with any other status.
+	 */
+	private long failedCount = 0;
+
+	/**
+	 * This class holds a job and its scheduling information while it is queued
+	 * and running. It is ordered by priority and then by the order of
+	 * submission.
+	 * 
+	 * @author agent
+	 */
+	private static class ScheduledJob implements Comparable<ScheduledJob> {
+
+		/**
+		 * The Item that launches the job.
+		 */
+		private final Item job;
+
+		/**
+		 * The name of the action that launches the job.
+		 */
+		private final String actionName;
+
+		/**
+		 * The host on which the job runs.
+		 */
+		private final String host;
+
+		/**
+		 * The number of cores that the job uses.
+		 */
+		private final int cores;
+
+		/**
+		 * The priority of the job. Higher priorities start first.
+		 */
+		private final int priority;
+
+		/**
+		 * The order in which the job was submitted.
+		 */
+		private final long sequence;
+
+		/**
+		 * The listener that is notified when the job starts and finishes.
+		 */
+		private final IJobSchedulerListener listener;
+
+		/**
+		 * The number of cores that were reserved for the job when it was
+		 * started.
+		 */
+		private int reservedCores;
+
+		/**
+		 * True once the job's cores have been released.
+		 */
+		private boolean finished = false;
+
+		/**
+		 * The constructor.
+		 */
+		private ScheduledJob(Item job, String actionName, String host,
+				int cores, int priority, long sequence,
+				IJobSchedulerListener listener) {
+			this.job = job;
+			this.actionName = actionName;
+			this.host = host;
+			this.cores = cores;
+			this.priority = priority;
+			this.sequence = sequence;
+			this.listener = listener;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Comparable#compareTo(java.lang.Object)
+		 */
+		@Override
+		public int compareTo(ScheduledJob otherJob) {
+			if (priority != otherJob.priority) {
+				return priority > otherJob.priority ? -1 : 1;
+			}
+			return sequence < otherJob.sequence ? -1
+					: (sequence == otherJob.sequence ? 0 : 1);
+		}
+	}
+
+	/**
+	 * The constructor. The default number of cores for each host is read from
+	 * the max_jobs_per_host system property or is the number of processors
+	 * available to the JVM if it is not set.
+	 */
+	public JobScheduler() {
+		this(Integer.getInteger(hostCapacityProperty, Runtime.getRuntime()
+				.availableProcessors()));
+	}
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param defaultCapacity
+	 *            The number of cores available on each host. It is always at
+	 *            least one.
+	 */
+	public JobScheduler(int defaultCapacity) {
+		this.defaultCapacity = Math.max(1, defaultCapacity);
+		hostCapacities = new HashMap<String, Integer>();
+		usedCores = new HashMap<String, Integer>();
+		queue = new PriorityQueue<ScheduledJob>();
+	}
+
+	/**
+	 * This operation returns the scheduler that is shared by all of the Items
+	 * in ICE.
+	 * 
+	 * @return The shared scheduler
+	 */
+	public static synchronized JobScheduler getInstance() {
+		if (instance == null) {
+			instance = new JobScheduler();
+		}
+		return instance;
+	}
+
+	/**
+	 * This operation sets the number of cores available on a host. Queued jobs
+	 * are started if the new capacity allows it.
+	 * 
+	 * @param host
+	 *            The host
+	 * @param capacity
+	 *            The number of cores. It is always at least one.
+	 */
+	public void setHostCapacity(String host, int capacity) {
+		synchronized (queue) {
+			hostCapacities.put(host, Math.max(1, capacity));
+		}
+		dispatch();
+	}
+
+	/**
+	 * This operation returns the number of cores available on a host.
+	 * 
+	 * @param host
+	 *            The host
+	 * @return The number of cores
+	 */
+	public int getHostCapacity(String host) {
+		synchronized (queue) {
+			Integer capacity = hostCapacities.get(host);
+			return capacity != null ? capacity : defaultCapacity;
+		}
+	}
+
+	/**
+	 * This operation submits a job to the scheduler. The job is started with
+	 * Item.process() once enough cores are free on its host.
+	 * 
+	 * @param job
+	 *            The Item that launches the job
+	 * @param actionName
+	 *            The name of the action that launches the job
+	 * @param host
+	 *            The host on which the job runs or null for the local host
+	 * @param cores
+	 *            The number of cores that the job uses
+	 * @param priority
+	 *            The priority of the job. Higher priorities start first.
+	 * @param listener
+	 *            The listener that is notified when the job starts and
+	 *            finishes. It may be null.
+	 * @return True if the job was queued, false if the job or the action name
+	 *         were null
+	 */
+	public boolean submit(Item job, String actionName, String host,
+			int cores, int priority, IJobSchedulerListener listener) {
+
+		// Check the arguments
+		if (job == null || actionName == null) {
+			return false;
+		}
+
+		// Queue the job
+		synchronized (queue) {
+			queue.add(new ScheduledJob(job, actionName,
+					host != null ? host : "localhost", Math.max(1, cores),
+					priority, submissionCount++, listener));
+		}
+
+		// Start it if there is room
+		dispatch();
+
+		return true;
+	}
+
+	/**
+	 * This operation removes a job from the queue if it has not been started.
+	 * 
+	 * @param job
+	 *            The job
+	 * @return True if the job was removed, false if it was not queued
+	 */
+	public boolean cancel(Item job) {
+		synchronized (queue) {
+			Iterator<ScheduledJob> iterator = queue.iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().job == job) {
+					iterator.remove();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * This operation starts as many queued jobs as the hosts can take. The
+	 * jobs are picked under the lock and started outside of it because
+	 * Item.process() may take a while.
+	 */
+	private void dispatch() {
+
+		// Local Declarations
+		ArrayList<ScheduledJob> jobsToStart = new ArrayList<ScheduledJob>();
+		ArrayList<ScheduledJob> waitingJobs = new ArrayList<ScheduledJob>();
+		ScheduledJob scheduledJob = null;
+
+		// Pick the jobs to start in order. Jobs that do not fit are set aside
+		// so that smaller jobs on other hosts can still start.
+		synchronized (queue) {
+			while ((scheduledJob = queue.poll()) != null) {
+				int capacity = hostCapacities.containsKey(scheduledJob.host) ? hostCapacities
+						.get(scheduledJob.host) : defaultCapacity;
+				int used = usedCores.containsKey(scheduledJob.host) ? usedCores
+						.get(scheduledJob.host) : 0;
+				// Jobs that are too large for the host run by themselves
+				int cores = Math.min(scheduledJob.cores, capacity);
+				if (used + cores <= capacity) {
+					scheduledJob.reservedCores = cores;
+					usedCores.put(scheduledJob.host, used + cores);
+					runningCount++;
+					jobsToStart.add(scheduledJob);
+				} else {
+					waitingJobs.add(scheduledJob);
+				}
+			}
+			queue.addAll(waitingJobs);
+		}
+
+		// Start the jobs
+		for (ScheduledJob job : jobsToStart) {
+			start(job);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation starts a job and registers the completion listener that
+	 * releases its cores.
+	 * 
+	 * @param scheduledJob
+	 *            The job
+	 */
+	private void start(final ScheduledJob scheduledJob) {
+
+		// Local Declarations
+		FormStatus status = FormStatus.InfoError;
+
+		System.out.println("JobScheduler Message: Launching job "
+				+ scheduledJob.job.getName() + " with id "
+				+ scheduledJob.job.getId() + " on " + scheduledJob.host);
+		if (scheduledJob.listener != null) {
+			scheduledJob.listener.jobStarted(scheduledJob.job);
+		}
+
+		// Launch it and wait for it to finish. If it fails to launch or the
+		// listener cannot be registered, its cores are released in the finally
+		// block so that they can never be lost.
+		boolean waiting = false;
+		try {
+			status = scheduledJob.job.process(scheduledJob.actionName);
+			if (!status.equals(FormStatus.InfoError)
+					&& !status.equals(FormStatus.Unacceptable)) {
+				scheduledJob.job.addActionCompletionListener(new Runnable() {
+					@Override
+					public void run() {
+						finish(scheduledJob, scheduledJob.job.getStatus());
+					}
+				});
+				waiting = true;
+			}
+		} catch (Exception e) {
+			// Complain
+			e.printStackTrace();
+			status = FormStatus.InfoError;
+		} finally {
+			if (!waiting) {
+				System.out.println("JobScheduler Message: Unable to launch "
+						+ "job " + scheduledJob.job.getName() + " with id "
+						+ scheduledJob.job.getId());
+				finish(scheduledJob, status);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation releases the cores of a job that finished, notifies its
+	 * listener and starts the next jobs. It does nothing if the job has already
+	 * finished.
+	 * 
+	 * @param scheduledJob
+	 *            The job
+	 * @param status
+	 *            The final status of the job
+	 */
+	private void finish(ScheduledJob scheduledJob, FormStatus status) {
+
+		// Release the cores and update the counts
+		synchronized (queue) {
+			if (scheduledJob.finished) {
+				return;
+			}
+			scheduledJob.finished = true;
+			usedCores.put(scheduledJob.host, usedCores.get(scheduledJob.host)
+					- scheduledJob.reservedCores);
+			runningCount--;
+			if (status.equals(FormStatus.Processed)) {
+				completedCount++;
+			} else {
+				failedCount++;
+			}
+		}
+
+		// Notify the listener
+		if (scheduledJob.listener != null) {
+			try {
+				scheduledJob.listener.jobFinished(scheduledJob.job, status);
+			} catch (Exception e) {
+				// Complain, but keep scheduling
+				e.printStackTrace();
+			}
+		}
+
+		// Start the next jobs
+		dispatch();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of jobs that are waiting to start.
+	 * 
+	 * @return The number of queued jobs
+	 */
+	public int getQueuedCount() {
+		synchronized (queue) {
+			return queue.size();
+		}
+	}
+
+	/**
+	 * This operation returns the number of jobs that are running.
+	 * 
+	 * @return The number of running jobs
+	 */
+	public int getRunningCount() {
+		synchronized (queue) {
+			return runningCount;
+		}
+	}
+
+	/**
+	 * This operation returns the number of jobs that finished successfully.
+	 * 
+	 * @return The number of completed jobs
+	 */
+	public long getCompletedCount() {
+		synchronized (queue) {
+			return completedCount;
+		}
+	}
+
+	/**
+	 * This operation returns the number of jobs that failed to launch or
+	 * finished with an error.
+	 * 
+	 * @return The number of failed jobs
+	 */
+	public long getFailedCount() {
+		synchronized (queue) {
+			return failedCount;
+		}
+	}
+
+}
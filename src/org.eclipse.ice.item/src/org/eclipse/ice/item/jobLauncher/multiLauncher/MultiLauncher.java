@@ -34,7 +34,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.ice.datastructures.form.MasterDetailsPair;
 import org.eclipse.ice.datastructures.resource.ICEResource;
 import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.jobLauncher.IJobSchedulerListener;
+import org.eclipse.ice.item.jobLauncher.JobLauncher;
 import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
+import org.eclipse.ice.item.jobLauncher.JobScheduler;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 
@@ -61,25 +64,24 @@ import org.eclipse.core.resources.IProject;
  * details. (See the JobLauncherForm for reference.)
  * </p>
  * <p>
- * When jobs are launched in sequential mode, the MultiLauncher launches a
- * thread and monitors each job launcher until it finishes, then launches the
- * next or breaks out if there was an error. When jobs are launched in parallel,
- * the job launchers are processed asynchronously.
+ * The jobs are not launched directly. They are submitted to the shared
+ * JobScheduler, which limits the number of cores used on each host, and the
+ * MultiLauncher itself never has more jobs submitted than the
+ * "Maximum Concurrent Jobs" Entry allows. In sequential mode that limit is
+ * one and each job is submitted when the previous one finishes so that its
+ * output can be chained to the next job's input. If a job fails, no more jobs
+ * are launched.
  * </p>
  * <p>
- * This class implements Runnable and uses itself as the thread. The run()
- * operation works overtime: it handles all updates to the ResourceComponent
- * from the launchers, it handles all job launch for the sequential launch and
- * it polls the running jobs constantly to update the status if it is launched
- * in parallel. This is implemented with two blocks. The first handles the
- * sequential execution if it is required and the second updates both the
- * parallel execution status and the ResourceComponent. I think, ideally, this
- * would be separated out to a couple of separate threads.
+ * The scheduler calls the MultiLauncher back when a job starts or finishes, so
+ * nothing is polled. The callbacks update the counts and throughput in the
+ * "Launch Progress" DataComponent of the Form and, once all of the jobs have
+ * finished, collect their output in the ResourceComponent.
  * </p>
  * 
  * @author Jay Jay Billings
  */
-public class MultiLauncher extends Item implements Runnable {
+public class MultiLauncher extends Item implements IJobSchedulerListener {
 	/**
 	 * <p>
 	 * The set of JobLaunchers that are available to the MultiLauncher.
@@ -147,6 +149,68 @@ public class MultiLauncher extends Item implements Runnable {
 	 */
 	private Item needyLauncher;
 
+	/**
+	 * The lock that guards the launch state below. It is separate from the
+	 * Item's monitor so that scheduler callbacks never wait on clients.
+	 */
+	private final Object launchLock = new Object();
+
+	/**
+	 * The index in runningLaunchers of the next job to submit.
+	 */
+	private int nextJob;
+
+	/**
+	 * The maximum number of jobs that may be submitted at the same time.
+	 */
+	private int maxConcurrentJobs;
+
+	/**
+	 * The number of jobs that have been submitted and have not finished.
+	 */
+	private int submittedJobs;
+
+	/**
+	 * The number of jobs that are waiting in the scheduler's queue.
+	 */
+	private int queuedJobs;
+
+	/**
+	 * The number of jobs that are running.
+	 */
+	private int runningJobs;
+
+	/**
+	 * The number of jobs that finished successfully.
+	 */
+	private int completedJobs;
+
+	/**
+	 * The number of jobs that failed.
+	 */
+	private int failedJobs;
+
+	/**
+	 * True if a job failed and the launch should stop.
+	 */
+	private boolean launchFailed;
+
+	/**
+	 * The name of the first output file of the last job that finished. It is
+	 * used to chain jobs in sequential mode.
+	 */
+	private String lastFilename;
+
+	/**
+	 * The time, in milliseconds, at which the jobs were launched.
+	 */
+	private long launchStartTime;
+
+	/**
+	 * The scheduler that launches the jobs.
+	 */
+	private JobScheduler scheduler = JobScheduler.getInstance();
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -317,13 +381,7 @@ public class MultiLauncher extends Item implements Runnable {
 				// sequential mode not parallel mode.
 				isSequential.set(!isParallel);
 				// Launch the jobs
-				if (isParallel) {
-					// In parallel
-					launcherStatus = launchInParallel();
-				} else {
-					// In sequence
-					launcherStatus = launchSequentially();
-				}
+				launcherStatus = launch(isParallel);
 			}
 		} else if (!(runningLaunchers.isEmpty())) {
 			// Return "Processing" if the MultiLauncher is already working.
@@ -352,10 +410,27 @@ public class MultiLauncher extends Item implements Runnable {
 
 		// Local Declarations
 		FormStatus launcherStatus = FormStatus.InfoError;
+		ArrayList<Item> launchersToCheck = null;
 
 		// Get the status
 		launcherStatus = multiLaunchStatus.get();
 
+		// If the jobs are running, report that more information is needed if
+		// any of them need it.
+		if (launcherStatus.equals(FormStatus.Processing)
+				|| launcherStatus.equals(FormStatus.NeedsInfo)) {
+			synchronized (launchLock) {
+				launchersToCheck = new ArrayList<Item>(runningLaunchers);
+			}
+			launcherStatus = FormStatus.Processing;
+			for (Item launcher : launchersToCheck) {
+				if (launcher.getStatus().equals(FormStatus.NeedsInfo)) {
+					launcherStatus = FormStatus.NeedsInfo;
+					break;
+				}
+			}
+		}
+
 		return launcherStatus;
 	}
 
@@ -453,73 +528,287 @@ public class MultiLauncher extends Item implements Runnable {
 	}
 
 	/**
-	 * <p>
-	 * This operation launches the jobs sequentially. It starts the
-	 * MultiLauncher thread to do this.
-	 * </p>
+	 * This operation launches the jobs by submitting them to the scheduler. In
+	 * parallel mode, up to the maximum number of concurrent jobs are submitted
+	 * at once. In sequential mode, they are submitted one at a time.
 	 * 
-	 * @return <p>
-	 *         The launch status.
-	 *         </p>
+	 * @param isParallel
+	 *            True if the jobs should be launched in parallel, false if
+	 *            they should be launched sequentially
+	 * @return The launch status
 	 */
-	private FormStatus launchSequentially() {
+	private FormStatus launch(boolean isParallel) {
 
 		// Local Declarations
-		Thread launchThread = new Thread(this);
+		int maxJobs = 1;
+
+		// Get the limit for parallel launches
+		if (isParallel) {
+			maxJobs = Integer.MAX_VALUE;
+			Entry maxJobsEntry = executionModeComp
+					.retrieveEntry("Maximum Concurrent Jobs");
+			if (maxJobsEntry != null) {
+				try {
+					maxJobs = Math.max(1,
+							(int) Double.parseDouble(maxJobsEntry.getValue()));
+				} catch (NumberFormatException e) {
+					System.out.println("MultiLauncher Message: Invalid "
+							+ "maximum number of concurrent jobs, "
+							+ maxJobsEntry.getValue());
+				}
+			}
+		}
+
+		// Reset the launch state
+		synchronized (launchLock) {
+			maxConcurrentJobs = maxJobs;
+			nextJob = 0;
+			submittedJobs = 0;
+			queuedJobs = 0;
+			runningJobs = 0;
+			completedJobs = 0;
+			failedJobs = 0;
+			launchFailed = false;
+			lastFilename = null;
+			launchStartTime = System.currentTimeMillis();
+		}
 
 		// Set the status flag
 		multiLaunchStatus.set(FormStatus.Processing);
 
-		// Launch the thread
-		launchThread.start();
+		// Launch the first set of jobs
+		submitJobs();
 
 		return FormStatus.Processing;
 	}
 
 	/**
-	 * <p>
-	 * This operation launches the jobs in parallel. They jobs are launched
-	 * asynchronously on their own threads, which they manage, so that this
-	 * operation need not be threaded.
-	 * </p>
+	 * This operation submits as many of the remaining jobs to the scheduler as
+	 * the maximum number of concurrent jobs allows. The jobs are picked under
+	 * the lock and submitted outside of it because the scheduler may call back
+	 * on this thread.
+	 */
+	private void submitJobs() {
+
+		// Local Declarations
+		ArrayList<Item> jobsToSubmit = new ArrayList<Item>();
+		Item job = null;
+
+		// Pick the jobs
+		synchronized (launchLock) {
+			while (!launchFailed && nextJob < runningLaunchers.size()
+					&& submittedJobs < maxConcurrentJobs) {
+				job = runningLaunchers.get(nextJob);
+				// Set the input file to the output file of the last code if it
+				// is necessary.
+				if (isSequential.get() && nextJob > 0) {
+					setupChainedInput(lastFilename, job);
+				}
+				System.out.println("MultiLauncher Message: Submitting job #"
+						+ (nextJob + 1) + ", " + job.getName() + " with id "
+						+ job.getId());
+				jobsToSubmit.add(job);
+				nextJob++;
+				submittedJobs++;
+				queuedJobs++;
+			}
+		}
+		updateProgress();
+
+		// Submit them
+		for (Item jobToSubmit : jobsToSubmit) {
+			String host = null;
+			int cores = 1;
+			if (jobToSubmit instanceof JobLauncher) {
+				host = ((JobLauncher) jobToSubmit).getLaunchHost();
+				cores = ((JobLauncher) jobToSubmit).getRequestedCores();
+			}
+			scheduler.submit(jobToSubmit, "Launch the Job", host, cores, 0,
+					this);
+		}
+
+		return;
+	}
+
+	/**
+	 * (non-Javadoc)
 	 * 
-	 * @return <p>
-	 *         The launch status.
-	 *         </p>
+	 * @see IJobSchedulerListener#jobStarted(Item)
+	 */
+	@Override
+	public void jobStarted(Item job) {
+
+		// Update the counts
+		synchronized (launchLock) {
+			queuedJobs--;
+			runningJobs++;
+		}
+		updateProgress();
+
+		return;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see IJobSchedulerListener#jobFinished(Item, FormStatus)
 	 */
-	private FormStatus launchInParallel() {
+	@Override
+	public void jobFinished(Item job, FormStatus status) {
 
 		// Local Declarations
-		FormStatus retVal = FormStatus.InfoError;
-		Thread launchThread = new Thread(this);
+		boolean launchFinished = false;
+		ArrayList<Item> queuedLaunchers = null;
+		String outputFilename = null;
 
-		// Launch each job
-		for (Item job : runningLaunchers) {
-			// Launch the job if the Form is ready to process
-			if (job.getStatus().equals(FormStatus.ReadyToProcess)) {
-				System.out
-						.println("MultiLauncher Message: Launching parallel job "
-								+ job.getName() + " with id " + job.getId());
-				// Launch it
-				retVal = job.process("Launch the Job");
+		// Get the name of the last output file for chaining
+		if (status.equals(FormStatus.Processed) && isSequential.get()) {
+			outputFilename = getOutputFilename(job);
+		}
+
+		synchronized (launchLock) {
+			// Update the counts
+			submittedJobs--;
+			runningJobs--;
+			if (status.equals(FormStatus.Processed)) {
+				completedJobs++;
+				lastFilename = outputFilename;
 			} else {
-				System.out
-						.println("MultiLauncher Message: Unable to launch parallel job!");
-				System.out.println("MultiLauncher Message: Failed job name = "
-						+ job.getName());
-				System.out.println("MultiLauncher Message: Failed job id = "
-						+ job.getId());
-				break; // Otherwise throw the error.
+				failedJobs++;
+				// Stop the launch and pull the other jobs from the queue
+				if (!launchFailed) {
+					System.out.println("MultiLauncher Message: Job "
+							+ job.getName() + " with id " + job.getId()
+							+ " failed. No more jobs will be launched.");
+					launchFailed = true;
+					queuedLaunchers = new ArrayList<Item>(
+							runningLaunchers.subList(0, nextJob));
+				}
 			}
+			launchFinished = submittedJobs == 0
+					&& (launchFailed || nextJob == runningLaunchers.size());
 		}
 
-		// Set the status flag
-		multiLaunchStatus.set(FormStatus.Processing);
+		// Cancel the jobs that have not started yet
+		if (queuedLaunchers != null) {
+			for (Item queuedLauncher : queuedLaunchers) {
+				if (scheduler.cancel(queuedLauncher)) {
+					synchronized (launchLock) {
+						submittedJobs--;
+						queuedJobs--;
+						launchFinished = submittedJobs == 0;
+					}
+				}
+			}
+		}
+		updateProgress();
 
-		// Launch the thread
-		launchThread.start();
+		// Finish up or launch the next jobs
+		if (launchFinished) {
+			finishLaunch();
+		} else {
+			submitJobs();
+		}
 
-		return retVal;
+		return;
+	}
+
+	/**
+	 * This operation updates the Entries of the "Launch Progress"
+	 * DataComponent with the current counts, throughput and elapsed time.
+	 */
+	private void updateProgress() {
+
+		// Local Declarations
+		DataComponent progressComp = null;
+		int queued, running, completed, failed;
+		double elapsedTime;
+
+		// Get the component. Forms from older versions do not have it.
+		if (form.getComponent(progressId) instanceof DataComponent) {
+			progressComp = (DataComponent) form.getComponent(progressId);
+		} else {
+			return;
+		}
+
+		// Get the counts
+		synchronized (launchLock) {
+			queued = queuedJobs;
+			running = runningJobs;
+			completed = completedJobs;
+			failed = failedJobs;
+			elapsedTime = (System.currentTimeMillis() - launchStartTime) / 1000.0;
+		}
+
+		// Update the Entries
+		progressComp.retrieveEntry(queuedJobsName).setValue(
+				String.valueOf(queued));
+		progressComp.retrieveEntry(runningJobsName).setValue(
+				String.valueOf(running));
+		progressComp.retrieveEntry(completedJobsName).setValue(
+				String.valueOf(completed));
+		progressComp.retrieveEntry(failedJobsName).setValue(
+				String.valueOf(failed));
+		progressComp.retrieveEntry(throughputName).setValue(
+				String.format("%.2f", elapsedTime > 0.0 ? (completed + failed)
+						* 60.0 / elapsedTime : 0.0));
+		progressComp.retrieveEntry(elapsedTimeName).setValue(
+				String.format("%.1f", elapsedTime));
+
+		return;
+	}
+
+	/**
+	 * This operation sets the final status of the launch once all of the jobs
+	 * have finished and, if they all succeeded, collects their output in the
+	 * ResourceComponent.
+	 */
+	private void finishLaunch() {
+
+		// Local Declarations
+		FormStatus launchStatus = FormStatus.Processed;
+		ArrayList<Item> finishedLaunchers = null;
+		int completed, failed;
+
+		synchronized (launchLock) {
+			if (launchFailed) {
+				launchStatus = FormStatus.InfoError;
+			}
+			finishedLaunchers = new ArrayList<Item>(runningLaunchers);
+			completed = completedJobs;
+			failed = failedJobs;
+		}
+
+		// Add the output if the status does not indicate an error
+		if (launchStatus.equals(FormStatus.Processed)) {
+			// Get the ResourceComponent for the MultiLauncher and clear its
+			// output
+			ResourceComponent resourceComp = (ResourceComponent) form
+					.getComponent(2);
+			resourceComp.clearResources();
+			// Loop over the launchers and get the output
+			for (Item launcher : finishedLaunchers) {
+				// Get the component
+				ResourceComponent launcherResourceComp = (ResourceComponent) launcher
+						.getForm().getComponent(2);
+				// Add its resources to the MultiLaunchers ResourceComponent
+				for (ICEResource j : launcherResourceComp.getResources()) {
+					resourceComp.addResource(j);
+				}
+			}
+			// Clear the launchers if needed
+			synchronized (launchLock) {
+				runningLaunchers.clear();
+			}
+		}
+
+		System.out.println("MultiLauncher Message: Launch finished with "
+				+ completed + " completed and " + failed + " failed jobs.");
+
+		// Set the final status
+		multiLaunchStatus.set(launchStatus);
+
+		return;
 	}
 
 	/**
@@ -702,131 +991,6 @@ public class MultiLauncher extends Item implements Runnable {
 		return retStatus;
 	}
 
-	/**
-	 * (non-Javadoc)
-	 * 
-	 * @see Runnable#run()
-	 */
-	public void run() {
-
-		// Local Declarations
-		Item job = null;
-		FormStatus launchStatus = FormStatus.InfoError;
-		String lastFilename = null;
-		boolean checkStatus = true;
-		ArrayList<FormStatus> runningLauncherStatuses = new ArrayList<FormStatus>();
-
-		/*----- Read the documentation on the class before editing this! -----*/
-
-		// Sequential launch block. Make sure we are in the correct mode.
-		if (isSequential.get()) {
-			// Loop over all of the launchers
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				// Get and launch the job
-				job = runningLaunchers.get(i);
-				System.out
-						.println("MultiLauncher Message: Launching sequential job #"
-								+ (i + 1) + ", " + job.getName());
-				// Set the input file to the output file of the last code it is
-				// necessary.
-				if (i > 0) {
-					setupChainedInput(lastFilename, job);
-				}
-				job.process("Launch the Job");
-				// Launch the job
-				launchStatus = job.getStatus();
-				// Start the status checking loop
-				multiLaunchStatus.set(launchStatus);
-				while (launchStatus.equals(FormStatus.Processing)
-						|| launchStatus.equals(FormStatus.NeedsInfo)) {
-					// The thread shouldn't poll the job continuously. Let it
-					// sleep some.
-					try {
-						Thread.sleep(100);
-					} catch (InterruptedException e) {
-						// TODO Auto-generated catch block
-						e.printStackTrace();
-					}
-					// Update the status
-					launchStatus = job.getStatus();
-					multiLaunchStatus.set(launchStatus);
-				}
-				// Break if there is some kind of error
-				if (multiLaunchStatus.get().equals(FormStatus.InfoError)) {
-					break;
-				}
-				// Get the name of the last output file
-				lastFilename = getOutputFilename(job);
-			}
-		}
-
-		// Setup the list of launcher statuses before going into the update
-		// block.
-		for (Item launcher : runningLaunchers) {
-			runningLauncherStatuses.add(launcher.getStatus());
-		}
-
-		// Status update block.
-		while (checkStatus) {
-			// Loop over all of the launchers and get their statuses.
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				Item launcher = runningLaunchers.get(i);
-				runningLauncherStatuses.set(i, launcher.getStatus());
-			}
-			// Check the status. This switch works by checking if an instance of
-			// any of the launchers is in a particular state and setting the
-			// status of the MultiLauncher to that state. First, quit if there
-			// is an error.
-			if (runningLauncherStatuses.contains(FormStatus.InfoError)) {
-				launchStatus = FormStatus.InfoError;
-				checkStatus = false;
-			} else if (runningLauncherStatuses.contains(FormStatus.NeedsInfo)) {
-				// Else look for a launcher that needs more information
-				launchStatus = FormStatus.NeedsInfo;
-			} else if (runningLauncherStatuses.contains(FormStatus.Processing)) {
-				// Else look for a launcher that is still processing
-				launchStatus = FormStatus.Processing;
-			} else {
-				// We're processed! Since all of the other statuses except
-				// Processed are covered in the process() operation, break out
-				// of the thread.
-				launchStatus = FormStatus.Processed;
-				checkStatus = false;
-			}
-			// Update the status on the thread.
-			multiLaunchStatus.set(launchStatus);
-			// The thread shouldn't poll the jobs continuously. Let it
-			// sleep some.
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-		}
-		// Add the output if the status does not indicate an error
-		if (launchStatus.equals(FormStatus.Processed)) {
-			// Get the ResourceComponent for the MultiLauncher and clear its
-			// output
-			ResourceComponent resourceComp = (ResourceComponent) form
-					.getComponent(2);
-			resourceComp.clearResources();
-			// Loop over the launchers and get the output
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				// Get the component
-				ResourceComponent launcherResourceComp = (ResourceComponent) runningLaunchers
-						.get(i).getForm().getComponent(2);
-				// Add its resources to the MultiLaunchers ResourceComponent
-				for (ICEResource j : launcherResourceComp.getResources()) {
-					resourceComp.addResource(j);
-				}
-			}
-			// Clear the launchers if needed
-			runningLaunchers.clear();
-		}
-
-	}
-
 	/**
 	 * This operation overrides the MasterDetailsComponent visitor from the Item
 	 * base class to search for the MasterDetailsComponent in the
@@ -28,16 +28,53 @@ import javax.xml.bind.annotation.XmlRootElement;
  * MasterDetailsComponent. Construction of the header, which is a DataComponent,
  * and the MasterDetailsComponent required by the MultiLauncher class is
  * performed here, not in the MultiLauncher. However, the description of the
- * MasterDetailsComponent can still be found on the MultiLauncher class. There
- * is not a specific unit test for this class because all it does is implement a
- * constructor that fills the Form. Instead, this class is checked as part of
- * the MultiLauncherTester.
+ * MasterDetailsComponent can still be found on the MultiLauncher class. It
+ * also creates a DataComponent with id 4 that shows the progress of the jobs.
+ * There is not a specific unit test for this class because all it does is
+ * implement a constructor that fills the Form. Instead, this class is checked
+ * as part of the MultiLauncherTester.
  * </p>
  * 
  * @author Jay Jay Billings
  */
 @XmlRootElement(name = "Form")
 class MultiLauncherForm extends Form {
+
+	/**
+	 * The id of the DataComponent that shows the progress of the launch.
+	 */
+	static final int progressId = 4;
+
+	/**
+	 * The name of the Entry for the number of queued jobs.
+	 */
+	static final String queuedJobsName = "Queued Jobs";
+
+	/**
+	 * The name of the Entry for the number of running jobs.
+	 */
+	static final String runningJobsName = "Running Jobs";
+
+	/**
+	 * The name of the Entry for the number of completed jobs.
+	 */
+	static final String completedJobsName = "Completed Jobs";
+
+	/**
+	 * The name of the Entry for the number of failed jobs.
+	 */
+	static final String failedJobsName = "Failed Jobs";
+
+	/**
+	 * The name of the Entry for the throughput.
+	 */
+	static final String throughputName = "Throughput (jobs/min)";
+
+	/**
+	 * The name of the Entry for the elapsed time.
+	 */
+	static final String elapsedTimeName = "Elapsed Time (s)";
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -82,8 +119,30 @@ class MultiLauncherForm extends Form {
 			}
 		};
 
-		// Add the Entry to the DataComponent
+		// Create an Entry for the maximum number of jobs that may run at once
+		Entry maxJobsEntry = new Entry() {
+			@Override
+			protected void setup() {
+
+				setName("Maximum Concurrent Jobs");
+				setId(2);
+				setDescription("The maximum number of jobs from this launcher "
+						+ "that may run at the same time in parallel mode. "
+						+ "Jobs are also limited by the number of cores on "
+						+ "their host.");
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("1");
+				allowedValues.add("1024");
+				defaultValue = String.valueOf(Runtime.getRuntime()
+						.availableProcessors());
+
+				return;
+			}
+		};
+
+		// Add the Entries to the DataComponent
 		execModeComp.addEntry(parallelLaunchEntry);
+		execModeComp.addEntry(maxJobsEntry);
 
 		// Create the master-details component. All we can do here is set it up.
 		// The MultiLauncher has to actually add the details.
@@ -112,5 +171,34 @@ class MultiLauncherForm extends Form {
 		// Add the ResourceComponent
 		addComponent(outputData);
 
+		// Create a DataComponent for the progress of the launch
+		DataComponent progressComp = new DataComponent();
+		progressComp.setName("Launch Progress");
+		progressComp.setId(progressId);
+		progressComp.setDescription("This section shows the progress of the "
+				+ "jobs and the rate at which they are finishing. It is "
+				+ "updated as the jobs start and finish.");
+		String[] progressNames = { queuedJobsName, runningJobsName,
+				completedJobsName, failedJobsName, throughputName,
+				elapsedTimeName };
+		String[] progressDescriptions = {
+				"The number of jobs waiting for a free slot.",
+				"The number of jobs that are running.",
+				"The number of jobs that finished successfully.",
+				"The number of jobs that failed.",
+				"The number of jobs finished per minute.",
+				"The time since the jobs were launched in seconds." };
+		for (int i = 0; i < progressNames.length; i++) {
+			Entry progressEntry = new Entry();
+			progressEntry.setName(progressNames[i]);
+			progressEntry.setId(i + 1);
+			progressEntry.setDescription(progressDescriptions[i]);
+			progressEntry.setValue("0");
+			progressComp.addEntry(progressEntry);
+		}
+
+		// Add the progress component
+		addComponent(progressComp);
+
 	}
 }
\ No newline at end of file
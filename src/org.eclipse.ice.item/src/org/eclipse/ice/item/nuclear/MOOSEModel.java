@@ -671,73 +671,9 @@ public class MOOSEModel extends Item {
 	 *         pathname.
 	 */
 	private Map<String, TreeComposite> buildInputMap(TreeComposite inputTree) {
-
-		// Local declarations
-		Map<String, TreeComposite> inputMap = new HashMap<String, TreeComposite>();
-		ArrayList<TreeComposite> children = new ArrayList<TreeComposite>();
-		TreeComposite tree = null;
-		String treeName = "";
-		int prevNameIndex = -1;
-
-		// Create an empty stack for TreeComposites
-		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
-
-		// Push the top level TreeComposites from the input file
-		// first on top
-		for (TreeComposite topLevelTree : topLevelInputTrees) {
-			treeStack.push(topLevelTree);
-		}
-
-		// Pop one of the top-level trees off to start.
-		tree = treeStack.pop();
-
-		while (tree != null) {
-
-			// Append to the tree name
-			treeName += "/" + tree.getName();
-			// Put the tree in the Map, keyed on path name
-			inputMap.put(
-					(treeName.startsWith("/") ? treeName.substring(1,
-							treeName.length()) : treeName), tree);
-
-			// Clear the children list in case there are any
-			// from a previous tree
-			children.clear();
-
-			// Check if this tree has children
-			if (tree.getNumberOfChildren() > 0) {
-
-				// Construct the list of this node's children
-				for (int i = 0; i < tree.getNumberOfChildren(); i++) {
-					children.add(tree.getChildAtIndex(i));
-				}
-
-				// Push children to the top of the tree stack
-				for (int i = (children.size() - 1); i >= 0; i--) {
-					treeStack.push(children.get(i));
-				}
-			}
-
-			// If the next tree in the stack is a top-level tree,
-			// clear the path name
-			if (topLevelInputTrees.contains(treeStack.peek())) {
-				treeName = "";
-			}
-
-			// Otherwise, if the current tree didn't have children
-			// to push onto the stack, remove the last "part" of the
-			// path name, as we'll be going back up one level
-			else if (children.isEmpty()) {
-				prevNameIndex = treeName.lastIndexOf("/" + tree.getName());
-				treeName = treeName.substring(0, prevNameIndex);
-			}
-
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
-		}
-
-		return inputMap;
+		// Copy the path index of the tree since the trees are modified while
+		// the map is used.
+		return new HashMap<String, TreeComposite>(inputTree.getPathIndex());
 	}
 
 	/**
@@ -756,77 +692,57 @@ public class MOOSEModel extends Item {
 	private Map<String, TreeComposite> buildExemplarMap(TreeComposite yamlTree) {
 
 		// Local declarations
-		ArrayList<TreeComposite> childExemplars;
 		HashMap<String, TreeComposite> exemplarMap = new HashMap<String, TreeComposite>();
-		TreeComposite tree = null, oneUpTree = null;
-		String treeName = "";
-		int prevNameIndex = -1;
 
-		// Create an empty stack for TreeComposites
-		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
-
-		// Push the top level TreeComposites from the YAML ArrayList
-		// first on top
+		// Add the top level TreeComposites from the YAML ArrayList and all of
+		// their child exemplars
 		for (TreeComposite topLevelYamlTree : topLevelYamlTrees) {
-			treeStack.push(topLevelYamlTree);
+			addExemplars(null, topLevelYamlTree, exemplarMap);
 		}
 
-		// Pop one of the top-level trees off to start.
-		tree = treeStack.pop();
-		while (tree != null) {
-
-			// Append to the tree name
-			treeName += "/" + tree.getName();
-			// Put the tree in the Map, keyed on path name
-			exemplarMap.put(
-					(treeName.startsWith("/") ? treeName.substring(1,
-							treeName.length()) : treeName), tree);
-
-			// Push child exemplars to the top of the tree stack
-			childExemplars = tree.getChildExemplars();
-			for (int i = (childExemplars.size() - 1); i >= 0; i--) {
-				treeStack.push(childExemplars.get(i));
-			}
-
-			// While we're here, append a blank exemplar to the tree (so the
-			// user can create custom blocks)
-			addBlankChildExemplar(tree);
-
-			// If the next tree in the stack is a top-level tree,
-			// clear the path name
-			if (topLevelYamlTrees.contains(treeStack.peek())) {
-				treeName = "";
-			}
-
-			// Otherwise, if the current tree didn't have child
-			// exemplars to push onto the stack, remove the last
-			// "part" of the path name, as we'll be going back up
-			// one level
-			else if (childExemplars.isEmpty()) {
-
-				// Get the name of the tree one level up
-				prevNameIndex = treeName.lastIndexOf("/" + tree.getName());
-				treeName = treeName.substring(0, prevNameIndex);
-
-				// Go up another level if the next tree in the stack isn't
-				// a child exemplar of the current tree referenced by treeName
-				oneUpTree = exemplarMap.get(treeName.substring(1));
-				if (oneUpTree != null
-						&& !oneUpTree.getChildExemplars().contains(
-								treeStack.peek())) {
-					prevNameIndex = treeName.lastIndexOf("/");
-					treeName = ((prevNameIndex == 0 || prevNameIndex == -1) ? treeName
-							: treeName.substring(0, prevNameIndex));
-				}
+		return exemplarMap;
+	}
 
-			}
+	/**
+	 * This utility method adds a TreeComposite from a MOOSE YAML spec and all
+	 * of its child exemplars to the exemplar map, keyed on their pathnames
+	 * relative to the root. While it does this, it appends a blank exemplar to
+	 * each of them (so the user can create custom blocks).
+	 * 
+	 * Used exclusively by {@link #buildExemplarMap(TreeComposite)
+	 * MOOSEModel.buildExemplarMap(...)}.
+	 * 
+	 * @param parentPath
+	 *            The pathname of the tree's parent or null if it is a
+	 *            top-level tree.
+	 * @param tree
+	 *            The tree to add.
+	 * @param exemplarMap
+	 *            The Map of child exemplars, keyed on pathname.
+	 */
+	private void addExemplars(String parentPath, TreeComposite tree,
+			Map<String, TreeComposite> exemplarMap) {
+
+		// Put the tree in the Map, keyed on path name
+		String treeName = (parentPath == null) ? tree.getName() : parentPath
+				+ "/" + tree.getName();
+		exemplarMap.put(treeName, tree);
+
+		// Replace the child exemplars with copies before they are changed
+		// since they may be shared with other trees
+		ArrayList<TreeComposite> childExemplars = new ArrayList<TreeComposite>();
+		for (TreeComposite childExemplar : tree.getChildExemplars()) {
+			childExemplars.add((TreeComposite) childExemplar.clone());
+		}
+		tree.setChildExemplars(childExemplars);
+		addBlankChildExemplar(tree);
 
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
+		// Add the child exemplars
+		for (TreeComposite childExemplar : childExemplars) {
+			addExemplars(treeName, childExemplar, exemplarMap);
 		}
 
-		return exemplarMap;
+		return;
 	}
 
 	/**
@@ -1229,30 +1145,25 @@ public class MOOSEModel extends Item {
 							.toString());
 					if (treeType != null
 							&& treeType == TreeType.AdaptiveTreeComposite) {
-						String childName = exemplar.getName();
-						yamlCur.resetChildIterator();
-						TreeComposite childCur = null;
-
 						// Look for a child matching the name of the exemplar
 						// that is an AdaptiveTreeComposite
-						while ((childCur = yamlCur.getNextChild()) != null) {
-							if (childCur.getName().equals(childName)) {
-
-								// Clone the exemplar with all the "types" data
-								// already entered
-								AdaptiveTreeComposite adapChild = (AdaptiveTreeComposite) exemplar
-										.clone();
-								// Set the new AdaptiveTreeComposite in the
-								// yamlCur's list of children
-								yamlCur.removeChild(childCur);
-								yamlCur.setNextChild(adapChild);
-								// Copy the actual child's data in
-								adapChild.copy(childCur);
-								// Set the adaptive type
-								setAdaptiveType(adapChild);
-								// Git off mah lawn!
-								break;
-							}
+						ArrayList<TreeComposite> namedChildren = yamlCur
+								.getChildrenByName(exemplar.getName());
+						if (!namedChildren.isEmpty()) {
+							TreeComposite childCur = namedChildren.get(0);
+
+							// Clone the exemplar with all the "types" data
+							// already entered
+							AdaptiveTreeComposite adapChild = (AdaptiveTreeComposite) exemplar
+									.clone();
+							// Set the new AdaptiveTreeComposite in the
+							// yamlCur's list of children
+							yamlCur.removeChild(childCur);
+							yamlCur.setNextChild(adapChild);
+							// Copy the actual child's data in
+							adapChild.copy(childCur);
+							// Set the adaptive type
+							setAdaptiveType(adapChild);
 						}
 					}
 				}
@@ -1341,20 +1252,12 @@ public class MOOSEModel extends Item {
 		// Try to find the Mesh block on the TreeComposite
 		TreeComposite tree = (TreeComposite) form
 				.getComponent(mooseTreeCompositeId);
-		TreeComposite treeCur = null;
-
-		// Check if the tree has children
-		if (tree != null && tree.getNumberOfChildren() > 0) {
 
-			// Iterate through the tree's children
-			tree.resetChildIterator();
-			while ((treeCur = tree.getNextChild()) != null) {
-
-				// Try to find the Mesh block by name
-				if ("Mesh".equals(treeCur.getName())) {
-					meshTree = treeCur;
-					break;
-				}
+		// Try to find the Mesh block by name
+		if (tree != null) {
+			ArrayList<TreeComposite> meshTrees = tree.getChildrenByName("Mesh");
+			if (!meshTrees.isEmpty()) {
+				meshTree = meshTrees.get(0);
 			}
 		}
 
@@ -14,17 +14,27 @@ package org.eclipse.ice.item.utilities.moose;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
 
 /**
  * This class represents a MOOSE input block. This class is parsed from and
  * written to YAML using SnakeYAML's Java Bean parser. It can also be converted
- * to a GetPot compatible string and loaded from a map and a TreeComposite.
+ * to a GetPot compatible string and loaded from a map, a stream of SnakeYAML
+ * parser events and a TreeComposite.
  * 
  * @author Jay Jay Billings, Anna Wojtowicz         
  */
@@ -340,6 +350,243 @@ public class Block {
 		return;
 	}
 
+	/**
+	 * This operation loads the block directly from a stream of SnakeYAML
+	 * parser events so that the document never has to be loaded into Maps. It
+	 * reads the same keys as loadFromMap() and skips all others. The iterator
+	 * must be positioned just after the MappingStartEvent of the block and the
+	 * block's MappingEndEvent is consumed before this operation returns.
+	 * 
+	 * @param events
+	 *            The parser events.
+	 */
+	public void loadFromEvents(Iterator<Event> events) {
+
+		// Local Declarations
+		Event event = null;
+		String key = null, value = null;
+
+		// Read the key/value pairs until the end of the block
+		while (!((event = events.next()) instanceof MappingEndEvent)) {
+
+			// Skip the pair if the key isn't a plain string
+			key = (event instanceof ScalarEvent) ? ((ScalarEvent) event)
+					.getValue() : null;
+			if (key == null) {
+				skipEvents(event, events);
+				skipEvents(events.next(), events);
+				continue;
+			}
+
+			// Get the name. Like loadFromMap(), only keep the last name in
+			// the path.
+			if ("name".equals(key)) {
+				value = readScalar(events);
+				if (value != null) {
+					setName(value.substring(value.lastIndexOf("/") + 1));
+				}
+			}
+			// ... the description
+			else if ("description".equals(key)) {
+				value = readScalar(events);
+				if (value != null) {
+					setDescription(value);
+				}
+			}
+			// ... and the type
+			else if ("type".equals(key)) {
+				value = readScalar(events);
+				if (value != null) {
+					setType(value);
+				}
+			}
+			// Load the parameters
+			else if ("parameters".equals(key)) {
+				ArrayList<Parameter> parameters = readParameters(events);
+				if (parameters != null) {
+					setParameters(parameters);
+				}
+			}
+			// Load the sub blocks
+			else if ("subblocks".equals(key)) {
+				event = events.next();
+				if (event instanceof SequenceStartEvent) {
+					ArrayList<Block> subblocks = new ArrayList<Block>();
+					while (!((event = events.next()) instanceof SequenceEndEvent)) {
+						if (event instanceof MappingStartEvent) {
+							// Load the block from the events
+							Block subblock = getNewBlock();
+							subblock.loadFromEvents(events);
+							subblocks.add(subblock);
+						} else {
+							skipEvents(event, events);
+						}
+					}
+					setSubblocks(subblocks);
+				} else {
+					skipEvents(event, events);
+				}
+			}
+			// Skip everything else
+			else {
+				skipEvents(events.next(), events);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads a list of parameters from the parser events.
+	 * 
+	 * @param events
+	 *            The parser events, positioned just before the list.
+	 * @return The parameters or null if the value was not a list.
+	 */
+	private ArrayList<Parameter> readParameters(Iterator<Event> events) {
+
+		// Local Declarations
+		ArrayList<Parameter> parameters = null;
+		Event event = events.next();
+		String key = null, value = null;
+
+		// Make sure it is a list
+		if (!(event instanceof SequenceStartEvent)) {
+			skipEvents(event, events);
+			return null;
+		}
+
+		// Read each parameter
+		parameters = new ArrayList<Parameter>();
+		while (!((event = events.next()) instanceof SequenceEndEvent)) {
+			if (!(event instanceof MappingStartEvent)) {
+				skipEvents(event, events);
+				continue;
+			}
+			Parameter param = new Parameter();
+			while (!((event = events.next()) instanceof MappingEndEvent)) {
+				// Skip the pair if the key isn't a plain string
+				key = (event instanceof ScalarEvent) ? ((ScalarEvent) event)
+						.getValue() : null;
+				if (key == null) {
+					skipEvents(event, events);
+					skipEvents(events.next(), events);
+					continue;
+				}
+				// Get the strings, ignoring empty values
+				value = readScalar(events);
+				if (value == null) {
+					continue;
+				} else if ("name".equals(key)) {
+					param.setName(value);
+				} else if ("description".equals(key)) {
+					param.setDescription(value);
+				} else if ("comment".equals(key)) {
+					param.setComment(value);
+				} else if ("cpp_type".equals(key)) {
+					param.setCpp_type(value);
+				} else if ("options".equals(key)) {
+					param.setOptions(value);
+				} else if ("group_name".equals(key)) {
+					param.setGroup_name(value);
+				} else if ("default".equals(key)) {
+					param.setDefault(value);
+				} else if ("required".equals(key)) {
+					// Get the boolean required flag
+					Boolean isRequired = toBoolean(value);
+					if (isRequired != null) {
+						param.setRequired(isRequired);
+						param.setEnabled(isRequired);
+					}
+				}
+			}
+			// Add the parameter to the list
+			parameters.add(param);
+		}
+
+		return parameters;
+	}
+
+	/**
+	 * This operation reads a scalar value from the parser events. Empty and
+	 * null plain scalars are returned as null, just as SnakeYAML would load
+	 * them, and values that are not scalars are skipped.
+	 * 
+	 * @param events
+	 *            The parser events, positioned just before the value.
+	 * @return The value or null if it is null or not a scalar.
+	 */
+	private static String readScalar(Iterator<Event> events) {
+
+		// Local Declarations
+		Event event = events.next();
+		String value = null;
+
+		if (event instanceof ScalarEvent) {
+			ScalarEvent scalar = (ScalarEvent) event;
+			value = scalar.getValue();
+			// Resolve implicit nulls
+			if (scalar.getImplicit().canOmitTagInPlainScalar()
+					&& (value.isEmpty() || "~".equals(value)
+							|| "null".equals(value) || "Null".equals(value) || "NULL"
+								.equals(value))) {
+				value = null;
+			}
+		} else {
+			skipEvents(event, events);
+		}
+
+		return value;
+	}
+
+	/**
+	 * This operation converts a YAML 1.1 boolean to a Boolean.
+	 * 
+	 * @param value
+	 *            The value, such as "true" or "Yes"
+	 * @return The Boolean or null if the value is not a boolean.
+	 */
+	private static Boolean toBoolean(String value) {
+
+		// Local Declarations
+		Boolean flag = null;
+
+		if (Arrays.asList("yes", "Yes", "YES", "true", "True", "TRUE", "on",
+				"On", "ON").contains(value)) {
+			flag = Boolean.TRUE;
+		} else if (Arrays.asList("no", "No", "NO", "false", "False", "FALSE",
+				"off", "Off", "OFF").contains(value)) {
+			flag = Boolean.FALSE;
+		}
+
+		return flag;
+	}
+
+	/**
+	 * This operation skips a node in the parser events, including all of its
+	 * children if it is a list or a map.
+	 * 
+	 * @param event
+	 *            The first event of the node.
+	 * @param events
+	 *            The parser events, positioned just after the first event.
+	 */
+	private static void skipEvents(Event event, Iterator<Event> events) {
+
+		// Count the depth of the nested lists and maps until the node ends
+		int depth = (event instanceof CollectionStartEvent) ? 1 : 0;
+		while (depth > 0) {
+			event = events.next();
+			if (event instanceof CollectionStartEvent) {
+				depth++;
+			} else if (event instanceof CollectionEndEvent) {
+				depth--;
+			}
+		}
+
+		return;
+	}
+
 	/**
 	 * This operation converts the Block to a standard GetPot-compatible format
 	 * and returns it as a string. If the name of the Block starts with "/", the
@@ -12,13 +12,14 @@
  *******************************************************************************/
 package org.eclipse.ice.item.utilities.moose;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.io.Reader;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -26,7 +27,16 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.ice.datastructures.form.AdaptiveTreeComposite;
@@ -45,6 +55,13 @@ import java.util.Map;
 import javax.naming.OperationNotSupportedException;
 
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 
 /**
  * <p>
@@ -89,6 +106,13 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		}
 	}
 
+	/**
+	 * The executor that is shared by every handler to convert the blocks of
+	 * YAML files into TreeComposites. It is created when it is first needed and
+	 * its threads are daemons that exit when they have been idle for a while.
+	 */
+	private static ExecutorService blockConverter;
+
 	/**
 	 * This operation writes a set of MOOSE blocks to the specified file path.
 	 * 
@@ -330,6 +354,10 @@ public class MOOSEFileHandler implements IReader, IWriter {
 	 * This operations loads a MOOSE YAML file at the specified path and returns
 	 * a fully-configured set of ICE TreeComposites.
 	 * 
+	 * The YAML file and its action syntax file are only parsed the first time
+	 * that they are loaded. After that, the compiled trees are retrieved from
+	 * the MOOSESyntaxCache until either file changes.
+	 * 
 	 * @param filePath
 	 *            The file path from which the MOOSE blocks written in YAML
 	 *            should be read. If the path is null or empty, the operation
@@ -345,135 +373,281 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			throws IOException {
 
 		// Local Declarations
-		InputStream input = null;
-		String syntaxFilePath, treeName;
-		ArrayList<String> hardPathsList = null;
 		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
-		Map<String, TreeComposite> treeMap = null;
-		TreeComposite oneUpTree = null;
 
 		// Quit if the path is boned
 		if (filePath == null || filePath.isEmpty()) {
 			return null;
 		}
 
-		// Get a handle on the YAML file
+		// Clone the compiled trees since they are shared
+		for (TreeComposite tree : loadCompiledYAML(filePath)) {
+			trees.add((TreeComposite) tree.clone());
+		}
+
+		return trees;
+	}
+
+	/**
+	 * This operation returns the compiled trees for a MOOSE YAML file from the
+	 * MOOSESyntaxCache, parsing the YAML and action syntax files only if they
+	 * have not been compiled before. The trees are shared by all of the
+	 * callers and must be cloned, not modified.
+	 * 
+	 * @param filePath
+	 *            The file path of the YAML file
+	 * @return The compiled trees
+	 * @throws IOException
+	 */
+	private ArrayList<TreeComposite> loadCompiledYAML(String filePath)
+			throws IOException {
+
+		// Local Declarations
 		File yamlFile = new File(filePath);
-		input = new FileInputStream(yamlFile);
+		ArrayList<String> hardPathsList = new ArrayList<String>();
+		ArrayList<Block> blocks = null;
+		ArrayList<TreeComposite> trees = null;
 
-		// Load the YAML tree
-		if (debugFlag) {
-			System.out.println("MOOSEFileHandler Message: Loading YAML file "
-					+ filePath.toString());
+		// Define the file path of the action syntax file
+		int yamlIndex = filePath.lastIndexOf(".yaml");
+		File syntaxFile = new File((yamlIndex < 0 ? filePath : filePath
+				.substring(0, yamlIndex)) + ".syntax");
+
+		// Check the in-memory cache first
+		String key = MOOSESyntaxCache.getKey(yamlFile, syntaxFile);
+		trees = MOOSESyntaxCache.getTrees(key);
+		if (trees != null) {
+			if (debugFlag) {
+				System.out.println("MOOSEFileHandler Message: Using compiled "
+						+ "syntax for " + filePath);
+			}
+			return trees;
 		}
-		Yaml yaml = new Yaml();
-		ArrayList<?> list = (ArrayList<?>) yaml.load(input);
-		if (debugFlag) {
-			System.out.println("MOOSEFileHandler Message: File loaded.");
+
+		// Then the cache file
+		blocks = MOOSESyntaxCache.read(yamlFile, key, hardPathsList);
+		if (blocks != null) {
+			if (debugFlag) {
+				System.out.println("MOOSEFileHandler Message: Loaded cached "
+						+ "syntax for " + filePath);
+			}
+		} else {
+			// Otherwise parse the files and cache them. Nothing is cached if
+			// the action syntax file could not be read so that it is read
+			// again next time.
+			boolean syntaxLoaded = true;
+			blocks = parseYAML(yamlFile);
+			if (syntaxFile.isFile()) {
+				try {
+					hardPathsList = loadActionSyntax(syntaxFile.getPath());
+				} catch (IOException e) {
+					e.printStackTrace();
+					syntaxLoaded = false;
+				}
+			} else if (debugFlag) {
+				System.out.println("MOOSEFileHandler Message: No action "
+						+ "syntax file found at " + syntaxFile.getPath());
+			}
+			if (!syntaxLoaded) {
+				return compileTrees(blocks, hardPathsList);
+			}
+			MOOSESyntaxCache.write(yamlFile, key, blocks, hardPathsList);
 		}
 
-		// Load the block list. Use YAMLBlocks so that they can be converted to
-		// TreeComposites appropriately.
-		for (int i = 0; i < list.size(); i++) {
-			Block block = new YAMLBlock();
-			block.loadFromMap((Map<String, Object>) list.get(i));
-			block.active = true;
-			trees.add(block.toTreeComposite());
+		// Build the trees and share them
+		trees = compileTrees(blocks, hardPathsList);
+		MOOSESyntaxCache.putTrees(key, trees);
+
+		return trees;
+	}
+
+	/**
+	 * This operation parses the blocks in a MOOSE YAML file. The blocks are
+	 * loaded directly from the SnakeYAML parser events as the file is read, so
+	 * the document is never loaded into memory as a whole.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @return The top-level blocks, which are all YAMLBlocks
+	 * @throws IOException
+	 */
+	private ArrayList<Block> parseYAML(File yamlFile) throws IOException {
+
+		// Local Declarations
+		ArrayList<Block> blocks = new ArrayList<Block>();
+		Reader reader = new UnicodeReader(new BufferedInputStream(
+				new FileInputStream(yamlFile), 64 * 1024));
+		Event event = null;
+
+		// Load the YAML tree
+		if (debugFlag) {
+			System.out.println("MOOSEFileHandler Message: Loading YAML file "
+					+ yamlFile.getPath());
 		}
 
-		// Close the files
 		try {
-			input.close();
-		} catch (IOException e) {
-			// Complain
-			e.printStackTrace();
-		}
+			// Skip to the start of the list of blocks
+			Iterator<Event> events = new Yaml().parse(reader).iterator();
+			do {
+				event = events.next();
+			} while (event instanceof StreamStartEvent
+					|| event instanceof DocumentStartEvent);
+			if (!(event instanceof SequenceStartEvent)) {
+				throw new IOException("MOOSEFileHandler Exception: "
+						+ yamlFile.getPath() + " is not a list of blocks.");
+			}
 
-		// Put all the names of top-level nodes into a list (we use this later)
-		ArrayList<String> topLevelNodes = new ArrayList<String>();
-		for (TreeComposite node : trees) {
-			topLevelNodes.add(node.getName());
+			// Load the block list. Use YAMLBlocks so that they can be
+			// converted to TreeComposites appropriately.
+			while (!((event = events.next()) instanceof SequenceEndEvent)) {
+				if (!(event instanceof MappingStartEvent)) {
+					throw new IOException("MOOSEFileHandler Exception: "
+							+ yamlFile.getPath() + " is not a list of blocks.");
+				}
+				Block block = new YAMLBlock();
+				block.loadFromEvents(events);
+				blocks.add(block);
+			}
+		} finally {
+			// Close the files
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// Complain
+				e.printStackTrace();
+			}
 		}
-		// Instantiate a HashMap that all TreeComposites and their exemplar
-		// children trees can be added to, keyed by absolute path name
-		treeMap = new HashMap<String, TreeComposite>();
-
-		// Create empty stack for TreeComposites
-		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
 
-		// Push the top level TreeComposites from the ArrayList first on first
-		for (TreeComposite tree : trees) {
-			treeStack.push(tree);
+		if (debugFlag) {
+			System.out.println("MOOSEFileHandler Message: File loaded.");
 		}
-		// Pop one of the top-level trees off to start.
-		TreeComposite tree = treeStack.pop();
-		ArrayList<TreeComposite> childExemplars;
-		treeName = "";
-		int prevNameIndex;
-		while (tree != null) {
 
-			// Append to the tree name
-			treeName += "/" + tree.getName();
+		return blocks;
+	}
 
-			// Put the tree in the Map, keyed on path name
-			treeMap.put((treeName.startsWith("/") ? treeName.substring(1)
-					: treeName), tree);
+	/**
+	 * This operation converts the blocks loaded from a MOOSE YAML file into
+	 * TreeComposites. The top-level blocks are converted in parallel on the
+	 * shared block converter since they are independent.
+	 * 
+	 * @param blocks
+	 *            The top-level blocks
+	 * @return The TreeComposites in the same order as the blocks
+	 */
+	private ArrayList<TreeComposite> convertBlocks(ArrayList<Block> blocks) {
 
-			// Push child exemplars to the top of the tree stack
-			childExemplars = tree.getChildExemplars();
-			for (int i = (childExemplars.size() - 1); i >= 0; i--) {
-				treeStack.push(childExemplars.get(i));
+		// Local Declarations
+		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
+		ArrayList<Future<TreeComposite>> futures = new ArrayList<Future<TreeComposite>>();
+		int numThreads = Math.min(blocks.size(), Runtime.getRuntime()
+				.availableProcessors());
+		ExecutorService executor = null;
+
+		// Convert the blocks in parallel if it is worth it
+		if (numThreads > 1) {
+			executor = getBlockConverter();
+			try {
+				for (final Block block : blocks) {
+					futures.add(executor.submit(new Callable<TreeComposite>() {
+						@Override
+						public TreeComposite call() {
+							return block.toTreeComposite();
+						}
+					}));
+				}
+				for (Future<TreeComposite> future : futures) {
+					trees.add(future.get());
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				// Complain and convert them on this thread instead
+				System.err.println("MOOSEFileHandler Message: "
+						+ "Unable to convert blocks in parallel.");
+				e.printStackTrace();
+				trees.clear();
+				for (Future<TreeComposite> future : futures) {
+					future.cancel(true);
+				}
+				if (e instanceof InterruptedException) {
+					Thread.currentThread().interrupt();
+				}
 			}
+		}
 
-			// If the next tree in the stack is a top-level tree, clear the
-			// path name
-			if (trees.contains(treeStack.peek())) {
-				treeName = "";
+		// Otherwise convert them on this thread
+		if (trees.size() != blocks.size()) {
+			for (Block block : blocks) {
+				trees.add(block.toTreeComposite());
 			}
+		}
 
-			// Otherwise, if the current tree didn't have child exemplars to
-			// push onto the stack, remove the last "part" of the path name, as
-			// we'll be going back up one level
-			else if (childExemplars.isEmpty()) {
-
-				// Get the name of the tree one level up
-				prevNameIndex = treeName.lastIndexOf("/" + tree.getName());
-				treeName = treeName.substring(0, prevNameIndex);
-
-				// Go up another level if the next tree in the stack isn't
-				// a child exemplar of the current tree referenced by treeName
-				oneUpTree = treeMap.get(treeName.substring(1));
-				if (oneUpTree != null
-						&& !oneUpTree.getChildExemplars().contains(
-								treeStack.peek())) {
-					prevNameIndex = treeName.lastIndexOf("/");
-					treeName = ((prevNameIndex == 0 || prevNameIndex == -1) ? treeName
-							: treeName.substring(0, prevNameIndex));
-				}
-
-			}
+		return trees;
+	}
 
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
+	/**
+	 * This operation returns the executor that is shared by every handler to
+	 * convert blocks, creating it if needed.
+	 * 
+	 * @return The executor
+	 */
+	private static synchronized ExecutorService getBlockConverter() {
+
+		if (blockConverter == null) {
+			int numThreads = Runtime.getRuntime().availableProcessors();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads,
+					numThreads, 30L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"ICE MOOSE Block Converter");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			blockConverter = executor;
 		}
 
-		// Define the file path of the action syntax file
-		int yamlIndex = filePath.indexOf(".yaml");
-		syntaxFilePath = filePath.substring(0, yamlIndex) + ".syntax";
+		return blockConverter;
+	}
 
-		// Load the list of all "hard" paths from the action syntax file
-		try {
-			hardPathsList = loadActionSyntax(syntaxFilePath);
-		} catch (IOException e) {
-			e.printStackTrace();
+	/**
+	 * This operation converts the blocks loaded from a MOOSE YAML file into
+	 * TreeComposites and converts the trees at the "hard" paths of the action
+	 * syntax file that have a "&lt;type&gt;" child exemplar into
+	 * AdaptiveTreeComposites.
+	 * 
+	 * @param blocks
+	 *            The top-level blocks loaded from the YAML file
+	 * @param hardPathsList
+	 *            The hard paths from the action syntax file
+	 * @return The TreeComposites
+	 */
+	private ArrayList<TreeComposite> compileTrees(ArrayList<Block> blocks,
+			ArrayList<String> hardPathsList) {
+
+		// Local Declarations
+		ArrayList<TreeComposite> trees = null;
+		ArrayList<String> topLevelNodes = new ArrayList<String>();
+		Map<String, TreeComposite> treeMap = new HashMap<String, TreeComposite>();
+		String treeName;
+
+		// Convert the blocks and index all TreeComposites and their exemplar
+		// children by absolute path name
+		for (Block block : blocks) {
+			block.active = true;
+		}
+		trees = convertBlocks(blocks);
+		for (TreeComposite tree : trees) {
+			topLevelNodes.add(tree.getName());
+			indexExemplars(null, tree, treeMap);
 		}
 
 		// Begin looking through the TreeComposites for matches to the list of
 		// "hard" paths from the action syntax file
 		TreeComposite currTree;
 		boolean hasType = false;
-		int typeIndex = -1;
+		int typeIndex = -1, prevNameIndex;
 		String cleanPath;
 		ArrayList<TreeComposite> types, currChildExemplars;
 		DataComponent typeParameters = null, treeParameters = null;
@@ -567,12 +741,11 @@ public class MOOSEFileHandler implements IReader, IWriter {
 
 					// Check if this tree is a child exemplar of something (ie.
 					// isn't a top-level node)
-					if (!topLevelNodes.contains(currTree.getName())) {
+					prevNameIndex = cleanPath.lastIndexOf("/");
+					if (prevNameIndex > 0) {
 
 						// Get the name of the tree that this
 						// AdaptiveTreeComposite is a child exemplar of
-						prevNameIndex = cleanPath.indexOf("/"
-								+ currTree.getName());
 						treeName = cleanPath.substring(0, prevNameIndex);
 
 						// Re-set the AdaptiveTreeComposite as a child exemplar
@@ -599,6 +772,34 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		return newTrees;
 	}
 
+	/**
+	 * This operation adds a TreeComposite and all of its exemplar children to
+	 * a map keyed by their absolute path names.
+	 * 
+	 * @param parentPath
+	 *            The path of the tree's parent or null if it is a top-level
+	 *            tree
+	 * @param tree
+	 *            The tree
+	 * @param treeMap
+	 *            The map
+	 */
+	private void indexExemplars(String parentPath, TreeComposite tree,
+			Map<String, TreeComposite> treeMap) {
+
+		// Put the tree in the Map, keyed on path name
+		String path = (parentPath == null) ? tree.getName() : parentPath
+				+ "/" + tree.getName();
+		treeMap.put(path, tree);
+
+		// Add its child exemplars
+		for (TreeComposite exemplar : tree.getChildExemplars()) {
+			indexExemplars(path, exemplar, treeMap);
+		}
+
+		return;
+	}
+
 	/**
 	 * This method is responsible for loading the action syntax file associated
 	 * with a MOOSE app. It reads through the list of paths and returns the
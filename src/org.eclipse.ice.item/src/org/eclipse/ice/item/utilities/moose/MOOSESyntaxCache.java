@@ -0,0 +1,613 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.utilities.moose;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.ice.datastructures.form.TreeComposite;
+
+/**
+ * <p>
+ * This class caches the compiled MOOSE syntax of a YAML specification and its
+ * action syntax file so that they only need to be parsed once. It is used by
+ * the MOOSEFileHandler.
+ * </p>
+ * <p>
+ * The cache has two levels, both keyed by a hash of the contents of the YAML
+ * and action syntax files. The first level is a small, in-memory cache of the
+ * exemplar TreeComposites built from the files that is shared by every
+ * MOOSEModel in the process. These trees are never given to clients directly
+ * and must only be cloned. The second level is a compact, indexed binary file
+ * in a ".syntaxcache" directory next to the YAML file that stores the blocks
+ * and the "hard" action syntax paths. Every string in it is stored once in a
+ * string table and referenced by index, so the file is much smaller than the
+ * YAML dump and reading it does not require SnakeYAML. Cache files are
+ * replaced when either file changes and are ignored if they can not be read.
+ * </p>
+ * <p>
+ * The keys themselves are remembered by the size and modification time of
+ * the files, so the files are only hashed again when those change.
+ * </p>
+ * 
+ * @author agent
+ */
+public class MOOSESyntaxCache {
+
+	/**
+	 * The name of the directory, next to the YAML files, in which the cache
+	 * files are stored.
+	 */
+	public static final String cacheDirectoryName = ".syntaxcache";
+
+	/**
+	 * The extension of the cache files.
+	 */
+	public static final String cacheFileExtension = ".msc";
+
+	/**
+	 * The marker at the start of every cache file.
+	 */
+	private static final int magicNumber = 0x4D53594E;
+
+	/**
+	 * The version of the cache file format. It is included in the keys, so
+	 * changing it invalidates all of the cache files.
+	 */
+	private static final int formatVersion = 1;
+
+	/**
+	 * The maximum number of compiled specifications that are kept in memory.
+	 */
+	private static final int maxMemoryEntries = 8;
+
+	/**
+	 * The in-memory cache of compiled exemplar trees, keyed by the hash of the
+	 * files and ordered from the least to the most recently used.
+	 */
+	private static final Map<String, ArrayList<TreeComposite>> trees = new LinkedHashMap<String, ArrayList<TreeComposite>>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<String, ArrayList<TreeComposite>> eldest) {
+			return size() > maxMemoryEntries;
+		}
+	};
+
+	/**
+	 * The keys that have already been computed, keyed by the paths, sizes and
+	 * modification times of the files that they were computed from and ordered
+	 * from the least to the most recently used.
+	 */
+	private static final Map<String, String> keys = new LinkedHashMap<String, String>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > maxMemoryEntries;
+		}
+	};
+
+	/**
+	 * The character set used for the strings in the cache files.
+	 */
+	private static final Charset charset = Charset.forName("UTF-8");
+
+	/**
+	 * This operation computes the key for a YAML file and its action syntax
+	 * file from their contents. The contents are only hashed if the size or
+	 * modification time of either file has changed since the last call.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @param syntaxFile
+	 *            The action syntax file. It is ignored if it does not exist.
+	 * @return The key, a hexadecimal SHA-1 hash
+	 * @throws IOException
+	 *             An exception indicating that the files could not be read
+	 */
+	public static String getKey(File yamlFile, File syntaxFile)
+			throws IOException {
+
+		// Local Declarations
+		MessageDigest digest = null;
+		StringBuilder key = new StringBuilder();
+		boolean hasSyntax = (syntaxFile != null && syntaxFile.isFile());
+		String stamp = getStamp(yamlFile) + "|"
+				+ (hasSyntax ? getStamp(syntaxFile) : "");
+		String knownKey = null;
+
+		// Reuse the key if neither file has changed
+		synchronized (MOOSESyntaxCache.class) {
+			knownKey = keys.get(stamp);
+		}
+		if (knownKey != null) {
+			return knownKey;
+		}
+
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to have SHA-1
+			throw new IOException(e);
+		}
+
+		// Hash the format version and both files
+		digest.update((byte) formatVersion);
+		updateDigest(digest, yamlFile);
+		if (hasSyntax) {
+			updateDigest(digest, syntaxFile);
+		}
+
+		// Convert the hash to hex
+		for (byte b : digest.digest()) {
+			key.append(String.format("%02x", b));
+		}
+
+		// Remember it
+		synchronized (MOOSESyntaxCache.class) {
+			keys.put(stamp, key.toString());
+		}
+
+		return key.toString();
+	}
+
+	/**
+	 * This operation returns a string that identifies a file by its path, size
+	 * and modification time.
+	 * 
+	 * @param file
+	 *            The file
+	 * @return The stamp
+	 */
+	private static String getStamp(File file) {
+		return file.getAbsolutePath() + ":" + file.length() + ":"
+				+ file.lastModified();
+	}
+
+	/**
+	 * This operation adds the contents of a file to a digest.
+	 * 
+	 * @param digest
+	 *            The digest
+	 * @param file
+	 *            The file
+	 * @throws IOException
+	 *             An exception indicating that the file could not be read
+	 */
+	private static void updateDigest(MessageDigest digest, File file)
+			throws IOException {
+
+		// Local Declarations
+		byte[] buffer = new byte[64 * 1024];
+		int count = 0;
+		InputStream stream = new FileInputStream(file);
+
+		try {
+			while ((count = stream.read(buffer)) > 0) {
+				digest.update(buffer, 0, count);
+			}
+		} finally {
+			stream.close();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the compiled exemplar trees for a key if they are
+	 * in memory. The trees are shared and must not be modified. Clone them
+	 * instead.
+	 * 
+	 * @param key
+	 *            The key of the YAML and action syntax files
+	 * @return The trees or null if they are not in memory
+	 */
+	public static synchronized ArrayList<TreeComposite> getTrees(String key) {
+		return trees.get(key);
+	}
+
+	/**
+	 * This operation stores the compiled exemplar trees for a key in memory.
+	 * The trees must not be modified after they are stored.
+	 * 
+	 * @param key
+	 *            The key of the YAML and action syntax files
+	 * @param compiledTrees
+	 *            The trees
+	 */
+	public static synchronized void putTrees(String key,
+			ArrayList<TreeComposite> compiledTrees) {
+		if (key != null && compiledTrees != null) {
+			trees.put(key, compiledTrees);
+		}
+	}
+
+	/**
+	 * This operation removes all of the compiled trees and keys from memory.
+	 * It does not delete the cache files.
+	 */
+	public static synchronized void clear() {
+		trees.clear();
+		keys.clear();
+	}
+
+	/**
+	 * This operation returns the cache file for a YAML file and a key. The file
+	 * may not exist.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @param key
+	 *            The key of the YAML and action syntax files
+	 * @return The cache file
+	 */
+	public static File getCacheFile(File yamlFile, String key) {
+		File directory = new File(yamlFile.getAbsoluteFile().getParentFile(),
+				cacheDirectoryName);
+		return new File(directory, yamlFile.getName() + "." + key
+				+ cacheFileExtension);
+	}
+
+	/**
+	 * This operation reads the blocks and the hard action syntax paths from the
+	 * cache file for a YAML file and a key.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @param key
+	 *            The key of the YAML and action syntax files
+	 * @param hardPaths
+	 *            The list to which the hard action syntax paths are added
+	 * @return The top-level blocks, which are all YAMLBlocks, or null if the
+	 *         file does not exist or could not be read
+	 */
+	public static ArrayList<Block> read(File yamlFile, String key,
+			ArrayList<String> hardPaths) {
+
+		// Local Declarations
+		File cacheFile = getCacheFile(yamlFile, key);
+		ArrayList<Block> blocks = null;
+		DataInputStream stream = null;
+
+		// Quit if there is nothing to read
+		if (!cacheFile.isFile() || hardPaths == null) {
+			return null;
+		}
+
+		try {
+			stream = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(cacheFile), 64 * 1024));
+			// Check the header
+			if (stream.readInt() != magicNumber
+					|| stream.readInt() != formatVersion) {
+				throw new IOException("Unknown format");
+			}
+			// Read the string table
+			String[] strings = new String[stream.readInt()];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[stream.readInt()];
+				stream.readFully(bytes);
+				strings[i] = new String(bytes, charset);
+			}
+			// Read the hard paths
+			int numPaths = stream.readInt();
+			ArrayList<String> paths = new ArrayList<String>(numPaths);
+			for (int i = 0; i < numPaths; i++) {
+				paths.add(readString(stream, strings));
+			}
+			// Read the blocks
+			int numBlocks = stream.readInt();
+			blocks = new ArrayList<Block>(numBlocks);
+			for (int i = 0; i < numBlocks; i++) {
+				blocks.add(readBlock(stream, strings));
+			}
+			hardPaths.addAll(paths);
+		} catch (IOException | RuntimeException e) {
+			// Complain and fall back to the YAML file
+			System.err.println("MOOSESyntaxCache Message: Unable to read "
+					+ "cache file " + cacheFile.getPath() + ": " + e);
+			blocks = null;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * This operation reads a string reference from the stream.
+	 * 
+	 * @param stream
+	 *            The stream
+	 * @param strings
+	 *            The string table
+	 * @return The string, which may be null
+	 * @throws IOException
+	 */
+	private static String readString(DataInputStream stream, String[] strings)
+			throws IOException {
+		int index = stream.readInt();
+		return (index < 0) ? null : strings[index];
+	}
+
+	/**
+	 * This operation reads a block and its sub-blocks from the stream.
+	 * 
+	 * @param stream
+	 *            The stream
+	 * @param strings
+	 *            The string table
+	 * @return The block
+	 * @throws IOException
+	 */
+	private static Block readBlock(DataInputStream stream, String[] strings)
+			throws IOException {
+
+		// Local Declarations
+		Block block = new YAMLBlock();
+
+		// Read the block's attributes
+		block.setName(readString(stream, strings));
+		block.setDescription(readString(stream, strings));
+		block.setType(readString(stream, strings));
+		block.setComment(readString(stream, strings));
+
+		// Read the parameters
+		int numParams = stream.readInt();
+		ArrayList<Parameter> parameters = new ArrayList<Parameter>(numParams);
+		for (int i = 0; i < numParams; i++) {
+			Parameter param = new Parameter();
+			param.setName(readString(stream, strings));
+			param.setDescription(readString(stream, strings));
+			param.setComment(readString(stream, strings));
+			param.setCpp_type(readString(stream, strings));
+			param.setGroup_name(readString(stream, strings));
+			param.setDefault(readString(stream, strings));
+			param.setRequired(stream.readBoolean());
+			param.setEnabled(stream.readBoolean());
+			// Options have no white space, so they can be added one by one.
+			int numOptions = stream.readInt();
+			for (int j = 0; j < numOptions; j++) {
+				param.setOptions(readString(stream, strings));
+			}
+			parameters.add(param);
+		}
+		block.setParameters(parameters);
+
+		// Read the sub-blocks
+		int numBlocks = stream.readInt();
+		ArrayList<Block> subblocks = new ArrayList<Block>(numBlocks);
+		for (int i = 0; i < numBlocks; i++) {
+			subblocks.add(readBlock(stream, strings));
+		}
+		block.setSubblocks(subblocks);
+
+		return block;
+	}
+
+	/**
+	 * This operation writes the blocks and the hard action syntax paths to the
+	 * cache file for a YAML file and a key and deletes the cache files of any
+	 * previous versions of the YAML file. Failures are logged and otherwise
+	 * ignored since the cache can always be rebuilt.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @param key
+	 *            The key of the YAML and action syntax files
+	 * @param blocks
+	 *            The top-level blocks
+	 * @param hardPaths
+	 *            The hard action syntax paths
+	 * @return True if the file was written, false otherwise
+	 */
+	public static boolean write(File yamlFile, String key,
+			ArrayList<Block> blocks, ArrayList<String> hardPaths) {
+
+		// Local Declarations
+		File cacheFile = getCacheFile(yamlFile, key);
+		HashMap<String, Integer> indices = new HashMap<String, Integer>();
+		ArrayList<String> strings = new ArrayList<String>();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream bodyStream = new DataOutputStream(body);
+		DataOutputStream stream = null;
+		File directory = cacheFile.getParentFile();
+		File tmpFile = null;
+		boolean written = false;
+
+		try {
+			// Write the paths and blocks to the body, collecting the strings
+			bodyStream.writeInt(hardPaths.size());
+			for (String path : hardPaths) {
+				writeString(bodyStream, path, indices, strings);
+			}
+			bodyStream.writeInt(blocks.size());
+			for (Block block : blocks) {
+				writeBlock(bodyStream, block, indices, strings);
+			}
+			bodyStream.flush();
+
+			// Write the file to a temporary file first so that other readers
+			// never see part of it
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Unable to create "
+						+ directory.getPath());
+			}
+			tmpFile = File.createTempFile("syntax", ".tmp", directory);
+			stream = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tmpFile), 64 * 1024));
+			stream.writeInt(magicNumber);
+			stream.writeInt(formatVersion);
+			stream.writeInt(strings.size());
+			for (String string : strings) {
+				byte[] bytes = string.getBytes(charset);
+				stream.writeInt(bytes.length);
+				stream.write(bytes);
+			}
+			body.writeTo(stream);
+			stream.close();
+			stream = null;
+
+			// Remove the old cache files and move the new one into place
+			String prefix = yamlFile.getName() + ".";
+			int nameLength = cacheFile.getName().length();
+			for (File oldFile : directory.listFiles()) {
+				String name = oldFile.getName();
+				if (name.length() == nameLength && name.startsWith(prefix)
+						&& name.endsWith(cacheFileExtension)) {
+					oldFile.delete();
+				}
+			}
+			written = tmpFile.renameTo(cacheFile);
+		} catch (IOException e) {
+			// Complain
+			System.err.println("MOOSESyntaxCache Message: Unable to write "
+					+ "cache file " + cacheFile.getPath());
+			e.printStackTrace();
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			if (tmpFile != null && !written) {
+				tmpFile.delete();
+			}
+		}
+
+		return written;
+	}
+
+	/**
+	 * This operation writes a reference to a string to the stream and adds the
+	 * string to the table if it is not already there.
+	 * 
+	 * @param stream
+	 *            The stream
+	 * @param string
+	 *            The string, which may be null
+	 * @param indices
+	 *            The indices of the strings in the table
+	 * @param strings
+	 *            The string table
+	 * @throws IOException
+	 */
+	private static void writeString(DataOutputStream stream, String string,
+			HashMap<String, Integer> indices, ArrayList<String> strings)
+			throws IOException {
+
+		// Local Declarations
+		Integer index = null;
+
+		if (string == null) {
+			stream.writeInt(-1);
+		} else {
+			index = indices.get(string);
+			if (index == null) {
+				index = strings.size();
+				indices.put(string, index);
+				strings.add(string);
+			}
+			stream.writeInt(index);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes a block and its sub-blocks to the stream.
+	 * 
+	 * @param stream
+	 *            The stream
+	 * @param block
+	 *            The block
+	 * @param indices
+	 *            The indices of the strings in the table
+	 * @param strings
+	 *            The string table
+	 * @throws IOException
+	 */
+	private static void writeBlock(DataOutputStream stream, Block block,
+			HashMap<String, Integer> indices, ArrayList<String> strings)
+			throws IOException {
+
+		// Local Declarations
+		ArrayList<Parameter> parameters = block.getParameters();
+		ArrayList<Block> subblocks = block.getSubblocks();
+
+		// Write the block's attributes
+		writeString(stream, block.getName(), indices, strings);
+		writeString(stream, block.getDescription(), indices, strings);
+		writeString(stream, block.getType(), indices, strings);
+		writeString(stream, block.getComment(), indices, strings);
+
+		// Write the parameters
+		stream.writeInt(parameters != null ? parameters.size() : 0);
+		if (parameters != null) {
+			for (Parameter param : parameters) {
+				writeString(stream, param.getName(), indices, strings);
+				writeString(stream, param.getDescription(), indices, strings);
+				writeString(stream, param.getComment(), indices, strings);
+				writeString(stream, param.getCpp_type(), indices, strings);
+				writeString(stream, param.getGroup_name(), indices, strings);
+				writeString(stream, param.getDefault(), indices, strings);
+				stream.writeBoolean(param.isRequired());
+				stream.writeBoolean(param.isEnabled());
+				ArrayList<String> options = param.getOptions();
+				stream.writeInt(options != null ? options.size() : 0);
+				if (options != null) {
+					for (String option : options) {
+						writeString(stream, option, indices, strings);
+					}
+				}
+			}
+		}
+
+		// Write the sub-blocks
+		stream.writeInt(subblocks != null ? subblocks.size() : 0);
+		if (subblocks != null) {
+			for (Block subblock : subblocks) {
+				writeBlock(stream, subblock, indices, strings);
+			}
+		}
+
+		return;
+	}
+}
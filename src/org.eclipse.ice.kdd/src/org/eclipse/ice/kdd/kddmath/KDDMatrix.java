@@ -13,7 +13,10 @@
 package org.eclipse.ice.kdd.kddmath;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import org.eclipse.ice.analysistool.AnalysisPool;
+import org.eclipse.ice.analysistool.AnalysisPool.RangeKernel;
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
 
@@ -29,18 +32,63 @@ import org.eclipse.ice.analysistool.IDataProvider;
  * methods for matrix arithmetic, transposition, normalizing rows and columns,
  * and scaling by an uncertainty matrix.
  * </p>
+ * <p>
+ * The elements are stored in a primitive double array. Element (i,j) is stored
+ * at offset + i * rowStride + j * columnStride, which lets transpose() swap the
+ * strides instead of moving the elements and lets getRow() and getColumn()
+ * return views that share the elements of this matrix instead of copying
+ * them. The arithmetic operations work in place on the array and large
+ * matrices are split by rows across a shared fork/join pool. Views keep
+ * sharing the elements until rows or columns are added to or deleted from
+ * them or from this matrix, after which they work on their own copy.
+ * </p>
  * 
  * @author Alex McCaskey
  */
 public class KDDMatrix implements IAbstractMatrix<Double> {
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix. This array holds at least n*m
+	 * double values for a given matrix of size nxm, laid out as described by
+	 * the offset and strides. It may be shared with other matrices.
+	 * </p>
+	 * 
+	 */
+	protected double[] elements;
+
+	/**
+	 * <p>
+	 * The position of element (0,0) in the elements array.
+	 * </p>
+	 * 
+	 */
+	protected int offset;
+
+	/**
+	 * <p>
+	 * The distance in the elements array between two consecutive rows.
+	 * </p>
+	 * 
+	 */
+	protected int rowStride;
+
+	/**
+	 * <p>
+	 * The distance in the elements array between two consecutive columns.
 	 * </p>
 	 * 
 	 */
-	protected ArrayList<Double> elements;
+	protected int columnStride;
+
+	/**
+	 * <p>
+	 * True if the elements array is shared with the matrix that this one was
+	 * taken from or copied from, in which case it is copied before the shape
+	 * of this matrix is changed.
+	 * </p>
+	 * 
+	 */
+	protected boolean shared;
 
 	/**
 	 * <p>
@@ -66,6 +114,34 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	protected IDataProvider dataProvider;
 
+	/**
+	 * The smallest number of elements that is handed to a single task in the
+	 * fork/join pool. Smaller matrices are handled on the calling thread.
+	 */
+	private static final int elementsPerTask = 16384;
+
+	/**
+	 * The number of rows and columns in each of the tiles that are used to
+	 * walk matrices whose layouts differ, such as a matrix and a transposed
+	 * matrix, so that both arrays are read from the cache.
+	 */
+	private static final int blockSize = 64;
+
+	/**
+	 * The operation code for element-wise addition.
+	 */
+	private static final int addOperation = 0;
+
+	/**
+	 * The operation code for element-wise subtraction.
+	 */
+	private static final int subtractOperation = 1;
+
+	/**
+	 * The operation code for element-wise division.
+	 */
+	private static final int divideOperation = 2;
+
 	/**
 	 * <p>
 	 * The constructor, takes a valid set of IData and constructs this matrix
@@ -77,7 +153,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(IDataProvider data) throws IllegalArgumentException {
 
 		// Initialize the elements array
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 
 		// Initialize the number of rows and columns
 		nCols = 0;
@@ -105,22 +181,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public boolean subtract(IAbstractMatrix<Double> matToSubtract) {
-
-		// Make sure the size of matToSubtract is valid
-		if (matToSubtract.numberOfColumns() != nCols
-				&& matToSubtract.numberOfRows() != nRows) {
-			return false;
-		}
-
-		// Perform the subtraction
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) - matToSubtract.getElement(i, j));
-			}
-		}
-
-		return true;
+		return combine(matToSubtract, subtractOperation);
 	}
 
 	/**
@@ -132,21 +193,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public boolean add(IAbstractMatrix<Double> matToAdd) {
-		// Make sure the size of matToSubtract is valid
-		if (matToAdd.numberOfColumns() != nCols
-				&& matToAdd.numberOfRows() != nRows) {
-			return false;
-		}
-
-		// Perform the addition
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) + matToAdd.getElement(i, j));
-			}
-		}
-
-		return true;
-
+		return combine(matToAdd, addOperation);
 	}
 
 	/**
@@ -158,31 +205,26 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public void rowNormalize() {
 
-		// Local ArrayList to collect all row sums
-		ArrayList<Double> rowSums = new ArrayList<Double>();
-
-		// Initialize one rowSum to 0.0
-		Double rowSum = 0.0;
-
-		// Calculate the sum of each row, then add it to the
-		// array list
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				rowSum = rowSum + getElement(i, j);
-			}
-			// Add the sum to the list
-			rowSums.add(rowSum);
-			// Reset the sum
-			rowSum = 0.0;
-		}
-
-		// Now go through each element and divide it
-		// by its row sum
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) / rowSums.get(i));
+		// Each row is independent, so the rows can be split across tasks
+		forEachRow(new RangeKernel() {
+			@Override
+			public void compute(int firstRow, int lastRow) {
+				for (int i = firstRow; i < lastRow; i++) {
+					int rowStart = offset + i * rowStride;
+					// Calculate the sum of the row
+					double rowSum = 0.0;
+					int k = rowStart;
+					for (int j = 0; j < nCols; j++, k += columnStride) {
+						rowSum += elements[k];
+					}
+					// Divide each element by it
+					k = rowStart;
+					for (int j = 0; j < nCols; j++, k += columnStride) {
+						elements[k] /= rowSum;
+					}
+				}
 			}
-		}
+		});
 
 		return;
 	}
@@ -195,7 +237,32 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public void columnNormalize() {
-		// FIXME coming soon to a theater near you
+
+		// Local Declarations
+		final double[] columnSums = new double[nCols];
+
+		// Calculate the sum of each column, walking the rows in order
+		for (int i = 0; i < nRows; i++) {
+			int k = offset + i * rowStride;
+			for (int j = 0; j < nCols; j++, k += columnStride) {
+				columnSums[j] += elements[k];
+			}
+		}
+
+		// Now go through each element and divide it by its column sum
+		forEachRow(new RangeKernel() {
+			@Override
+			public void compute(int firstRow, int lastRow) {
+				for (int i = firstRow; i < lastRow; i++) {
+					int k = offset + i * rowStride;
+					for (int j = 0; j < nCols; j++, k += columnStride) {
+						elements[k] /= columnSums[j];
+					}
+				}
+			}
+		});
+
+		return;
 	}
 
 	/**
@@ -208,23 +275,159 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public boolean scaleByUncertainty(KDDMatrix uncertainty) {
-		// Make sure the size of matToSubtract is valid
-		if (uncertainty.numberOfColumns() != nCols
-				&& uncertainty.numberOfRows() != nRows) {
+		// Divide each element by the corresponding
+		// uncertainty element
+		return combine(uncertainty, divideOperation);
+	}
+
+	/**
+	 * <p>
+	 * This operation combines each element of this matrix with the
+	 * corresponding element of the given matrix in place. It returns false if
+	 * the matrices are not the same size.
+	 * </p>
+	 * 
+	 * @param matrix
+	 *            The matrix to combine with this one
+	 * @param operation
+	 *            The operation code for addition, subtraction or division
+	 * @return True if the elements were combined, false otherwise
+	 */
+	private boolean combine(IAbstractMatrix<Double> matrix, final int operation) {
+
+		// Make sure the size of the matrix is valid
+		if (matrix == null || matrix.numberOfColumns() != nCols
+				|| matrix.numberOfRows() != nRows) {
 			return false;
 		}
 
-		// Divide each element by the corresponding
-		// uncertainty element
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) / uncertainty.getElement(i, j));
+		// Other implementations can only be read element by element
+		if (!(matrix instanceof KDDMatrix)) {
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					int k = offset + i * rowStride + j * columnStride;
+					elements[k] = apply(operation, elements[k],
+							matrix.getElement(i, j));
+				}
 			}
+			return true;
 		}
 
+		// Work from a copy if the other matrix shares the elements of this
+		// one in a different layout, since they would be overwritten before
+		// they are read.
+		KDDMatrix other = (KDDMatrix) matrix;
+		if (other.elements == elements
+				&& (other.offset != offset || other.rowStride != rowStride || other.columnStride != columnStride)) {
+			other = new KDDMatrix(other.toArray(), nRows, nCols);
+		}
+
+		// Combine the rows
+		final KDDMatrix source = other;
+		forEachRow(new RangeKernel() {
+			@Override
+			public void compute(int firstRow, int lastRow) {
+				combineRows(source, operation, firstRow, lastRow);
+			}
+		});
+
 		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation combines a range of the rows of this matrix with the same
+	 * rows of another matrix of the same size. Rows that are contiguous in
+	 * both matrices are walked directly. Otherwise the rows are walked in
+	 * square tiles so that the elements of both matrices are read from the
+	 * cache.
+	 * </p>
+	 * 
+	 * @param other
+	 *            The other matrix
+	 * @param operation
+	 *            The operation code for addition, subtraction or division
+	 * @param firstRow
+	 *            The first row in the range
+	 * @param lastRow
+	 *            The row after the last row in the range
+	 */
+	private void combineRows(KDDMatrix other, int operation, int firstRow,
+			int lastRow) {
+
+		// Local Declarations
+		double[] values = elements, otherValues = other.elements;
+
+		// Walk contiguous rows directly
+		if (columnStride == 1 && other.columnStride == 1) {
+			for (int i = firstRow; i < lastRow; i++) {
+				int k = offset + i * rowStride;
+				int otherK = other.offset + i * other.rowStride;
+				switch (operation) {
+				case addOperation:
+					for (int j = 0; j < nCols; j++) {
+						values[k + j] += otherValues[otherK + j];
+					}
+					break;
+				case subtractOperation:
+					for (int j = 0; j < nCols; j++) {
+						values[k + j] -= otherValues[otherK + j];
+					}
+					break;
+				default:
+					for (int j = 0; j < nCols; j++) {
+						values[k + j] /= otherValues[otherK + j];
+					}
+					break;
+				}
+			}
+			return;
+		}
+
+		// Otherwise walk the rows tile by tile
+		for (int iBlock = firstRow; iBlock < lastRow; iBlock += blockSize) {
+			int iEnd = Math.min(iBlock + blockSize, lastRow);
+			for (int jBlock = 0; jBlock < nCols; jBlock += blockSize) {
+				int jEnd = Math.min(jBlock + blockSize, nCols);
+				for (int i = iBlock; i < iEnd; i++) {
+					int k = offset + i * rowStride + jBlock * columnStride;
+					int otherK = other.offset + i * other.rowStride + jBlock
+							* other.columnStride;
+					for (int j = jBlock; j < jEnd; j++) {
+						values[k] = apply(operation, values[k],
+								otherValues[otherK]);
+						k += columnStride;
+						otherK += other.columnStride;
+					}
+				}
+			}
+		}
 
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation applies an element-wise operation to two values.
+	 * </p>
+	 * 
+	 * @param operation
+	 *            The operation code for addition, subtraction or division
+	 * @param value
+	 *            The element of this matrix
+	 * @param otherValue
+	 *            The element of the other matrix
+	 * @return The result
+	 */
+	private static double apply(int operation, double value, double otherValue) {
+		switch (operation) {
+		case addOperation:
+			return value + otherValue;
+		case subtractOperation:
+			return value - otherValue;
+		default:
+			return value / otherValue;
+		}
 	}
 
 	/**
@@ -248,7 +451,8 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return null;
 		}
 
-		return elements.get(nCols * rowIndex + colIndex);
+		return elements[offset + rowIndex * rowStride + colIndex
+				* columnStride];
 	}
 
 	/**
@@ -278,11 +482,41 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		}
 
 		// Set the value
-		elements.set(nCols * rowIndex + colIndex, value);
+		elements[offset + rowIndex * rowStride + colIndex * columnStride] = value;
 
 		return true;
 	}
 
+	/**
+	 * <p>
+	 * Get the element value at the given row and column index without boxing
+	 * it. Unlike getElement(), this operation does not check the indices.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @return
+	 */
+	public double get(int rowIndex, int colIndex) {
+		return elements[offset + rowIndex * rowStride + colIndex
+				* columnStride];
+	}
+
+	/**
+	 * <p>
+	 * Set the value of the element at the given row and column index without
+	 * boxing it. Unlike setElement(), this operation does not check the
+	 * indices.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @param value
+	 */
+	public void set(int rowIndex, int colIndex, double value) {
+		elements[offset + rowIndex * rowStride + colIndex * columnStride] = value;
+	}
+
 	/**
 	 * <p>
 	 * Returns the number of rows in this matrix
@@ -307,51 +541,23 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 	/**
 	 * <p>
-	 * This method transposes this KDDMatrix.
+	 * This method transposes this KDDMatrix. The elements are not moved, only
+	 * the number of rows and columns and the strides are swapped.
 	 * </p>
 	 * 
 	 */
 	public void transpose() {
 
-		// Save the old number of columns and rows
-		// so we can switch them
+		// Swap the number of rows and columns
 		int oldNRows = nRows;
-		int oldNCols = nCols;
-
-		// Easy bc they are just vectors
-		if (nRows == 1 || nCols == 1) {
-			// Just switch them
-			nRows = oldNCols;
-			nCols = oldNRows;
-		} else {
-
-			// This method assumes that the IDataProvider
-			// has already been validated, since the KDDMatrix wouldn't
-			// have been constructed otherwise.
-
-			// Get the IData elements
-			ArrayList<IData> dataElements = dataProvider
-					.getDataAtCurrentTime("Data");
-
-			// Transpose swaps the number of rows and cols
-			nRows = oldNCols;
-			nCols = oldNRows;
-
-			KDDMatrix oldMatrix = new KDDMatrix(
-					(ArrayList<Double>) elements.clone(), oldNRows, oldNCols);
+		nRows = nCols;
+		nCols = oldNRows;
 
-			elements.clear();
-			for (int i = 0; i < nRows * nCols; i++) {
-				elements.add(0.0);
-			}
-
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					setElement(i, j, oldMatrix.getElement(j, i));
-				}
-			}
+		// Swap the strides
+		int oldRowStride = rowStride;
+		rowStride = columnStride;
+		columnStride = oldRowStride;
 
-		}
 		return;
 	}
 
@@ -364,9 +570,10 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public KDDMatrix() {
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 		nRows = 0;
 		nCols = 0;
+		columnStride = 1;
 	}
 
 	/**
@@ -398,9 +605,16 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addRow() {
-		// Add for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.add(0.0);
+		// Make sure the rows are contiguous and owned by this matrix
+		compact();
+
+		// Grow the array if there is no room for the row, otherwise clear it
+		int size = nRows * nCols;
+		if (elements.length < size + nCols) {
+			elements = Arrays.copyOf(elements,
+					Math.max(size + nCols, size + size / 2));
+		} else {
+			Arrays.fill(elements, size, size + nCols, 0.0);
 		}
 		// Add to the row
 		nRows += 1;
@@ -416,12 +630,17 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addColumn() {
-		// Add for the number of rows
+		// Copy each row into a wider array
+		compact();
+		double[] newElements = new double[nRows * (nCols + 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.add(((i + 1) * nCols) + i, 0.0);
+			System.arraycopy(elements, i * nCols, newElements, i * (nCols + 1),
+					nCols);
 		}
+		elements = newElements;
 		// Add to the cols
 		nCols += 1;
+		rowStride = nCols;
 
 		return nCols;
 	}
@@ -435,11 +654,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public boolean deleteRow() {
-		// Remove for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.remove(elements.size() - 1);
+		// Fail if there are no rows
+		if (nRows == 0) {
+			return false;
 		}
-		// Remove a row
+		// Remove a row, the last row is just dropped from the end of the
+		// array.
+		compact();
 		nRows -= 1;
 		return true;
 	}
@@ -453,15 +674,91 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public boolean deleteColumn() {
-		// Remove for the number of rows
+		// Fail if there are no columns
+		if (nCols == 0) {
+			return false;
+		}
+		// Copy each row into a narrower array
+		compact();
+		double[] newElements = new double[nRows * (nCols - 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.remove(((i + 1) * nCols) - i - 1);
+			System.arraycopy(elements, i * nCols, newElements, i * (nCols - 1),
+					nCols - 1);
 		}
+		elements = newElements;
 		// Remove a Column
 		nCols -= 1;
+		rowStride = nCols;
 		return true;
 	}
 
+	/**
+	 * <p>
+	 * This operation makes sure that the elements of this matrix are stored in
+	 * row major order at the start of an array that is not shared with any
+	 * other matrix. Transposed layouts are copied tile by tile.
+	 * </p>
+	 * 
+	 */
+	private void compact() {
+
+		// Nothing to do if the layout is already row major
+		if (!shared && offset == 0 && columnStride == 1 && rowStride == nCols) {
+			return;
+		}
+
+		// Copy the elements in row major order
+		double[] newElements = toArray();
+
+		// Store them
+		elements = newElements;
+		offset = 0;
+		rowStride = nCols;
+		columnStride = 1;
+		shared = false;
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns a copy of the elements of this matrix in row major
+	 * order.
+	 * </p>
+	 * 
+	 * @return The elements
+	 */
+	public double[] toArray() {
+
+		// Local Declarations
+		double[] array = new double[nRows * nCols];
+
+		// Copy contiguous rows directly
+		if (columnStride == 1) {
+			for (int i = 0; i < nRows; i++) {
+				System.arraycopy(elements, offset + i * rowStride, array, i
+						* nCols, nCols);
+			}
+			return array;
+		}
+
+		// Otherwise copy them tile by tile
+		for (int iBlock = 0; iBlock < nRows; iBlock += blockSize) {
+			int iEnd = Math.min(iBlock + blockSize, nRows);
+			for (int jBlock = 0; jBlock < nCols; jBlock += blockSize) {
+				int jEnd = Math.min(jBlock + blockSize, nCols);
+				for (int i = iBlock; i < iEnd; i++) {
+					int k = offset + i * rowStride + jBlock * columnStride;
+					for (int j = jBlock; j < jEnd; j++, k += columnStride) {
+						array[i * nCols + j] = elements[k];
+					}
+				}
+			}
+		}
+
+		return array;
+	}
+
 	/**
 	 * <p>
 	 * This utility private method is used by the constructor and setData method
@@ -523,19 +820,26 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			throw new IllegalArgumentException(
 					"Invalid value for the number of matrix columns. Must be an integer.");
 		}
-		// Set the values
-		nRows = (int) rowValue;
-		nCols = (int) colValue;
 
 		// Make sure we have the correct number of matrix elements
-		if (dataElements.size() != nRows * nCols) {
+		if (dataElements.size() != (int) rowValue * (int) colValue) {
 			throw new IllegalArgumentException(
 					"Invalid number of data elements. Must have nRows * nCols data elements.");
 		}
+
+		// Set the values
+		nRows = (int) rowValue;
+		nCols = (int) colValue;
+
 		// Add the elements
+		elements = new double[nRows * nCols];
 		for (int i = 0; i < nRows * nCols; i++) {
-			elements.add(dataElements.get(i).getValue());
+			elements[i] = dataElements.get(i).getValue();
 		}
+		offset = 0;
+		rowStride = nCols;
+		columnStride = 1;
+		shared = false;
 
 		return;
 	}
@@ -555,37 +859,42 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * <p>
 	 * Get the N-dimensional (N = nRows) row vector at the given index. Returned
 	 * as a KDDMatrix with number of columns equal to N and number of rows equal
-	 * to 1.
+	 * to 1. The vector is a view that shares the elements of this matrix.
+	 * Returns null if invalid index.
 	 * </p>
 	 * 
 	 * @param index
 	 * @return
 	 */
 	public KDDMatrix getRow(int index) {
-		KDDMatrix retVector = new KDDMatrix(1, nCols);
-		for (int i = 0; i < nCols; i++) {
-			if (!retVector.setElement(0, i, getElement(index, i))) {
-				System.out.println("THIS WQAS FALSE");
-				return null;
-			}
+		// Return if out of range
+		if (index < 0 || index >= nRows) {
+			return null;
 		}
 
-		return retVector;
+		return new KDDMatrix(elements, offset + index * rowStride, 1, nCols,
+				rowStride, columnStride);
 	}
 
 	/**
 	 * <p>
 	 * Get the N-dimensional (N = nRows) column vector at the given index.
 	 * Returned as a KDDMatrix with number of columns equal to 1 and number of
-	 * rows equal to N.
+	 * rows equal to N. The vector is a view that shares the elements of this
+	 * matrix. Returns null if invalid index.
 	 * </p>
 	 * 
 	 * @param index
 	 * @return
 	 */
 	public KDDMatrix getColumn(int index) {
-		// TODO Auto-generated method stub
-		return null;
+		// Return if out of range
+		if (index < 0 || index >= nCols) {
+			return null;
+		}
+
+		return new KDDMatrix(elements, offset + index * columnStride, nRows,
+				1, rowStride, columnStride);
 	}
 
 	/**
@@ -598,12 +907,48 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @param nCols
 	 */
 	public KDDMatrix(int nRows, int nCols) {
+		this(new double[nRows * nCols], nRows, nCols);
+	}
+
+	/**
+	 * <p>
+	 * This constructor creates a KDDMatrix of size nRows by nCols that stores
+	 * its elements in the given row major array. The array is not copied.
+	 * </p>
+	 * 
+	 * @param elements
+	 * @param nRows
+	 * @param nCols
+	 */
+	public KDDMatrix(double[] elements, int nRows, int nCols) {
 		this.nRows = nRows;
 		this.nCols = nCols;
-		elements = new ArrayList<Double>();
-		for (int i = 0; i < this.nRows * this.nCols; i++) {
-			elements.add(0.0);
-		}
+		this.elements = elements;
+		rowStride = nCols;
+		columnStride = 1;
+	}
+
+	/**
+	 * <p>
+	 * This constructor creates a view of the elements of another matrix.
+	 * </p>
+	 * 
+	 * @param elements
+	 * @param offset
+	 * @param nRows
+	 * @param nCols
+	 * @param rowStride
+	 * @param columnStride
+	 */
+	private KDDMatrix(double[] elements, int offset, int nRows, int nCols,
+			int rowStride, int columnStride) {
+		this.elements = elements;
+		this.offset = offset;
+		this.nRows = nRows;
+		this.nCols = nCols;
+		this.rowStride = rowStride;
+		this.columnStride = columnStride;
+		shared = true;
 	}
 
 	/**
@@ -618,13 +963,15 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public boolean equals(KDDMatrix matrix) {
 		// First make sure the incoming matrix is the right
 		// size
-		if (matrix.numberOfColumns() != nCols || matrix.numberOfRows() != nRows) {
+		if (matrix == null || matrix.numberOfColumns() != nCols
+				|| matrix.numberOfRows() != nRows) {
 			return false;
 		}
 		// Then make sure all the elements are the same
 		for (int i = 0; i < nRows; i++) {
 			for (int j = 0; j < nCols; j++) {
-				if (!matrix.getElement(i, j).equals(getElement(i, j))) {
+				if (Double.doubleToLongBits(matrix.get(i, j)) != Double
+						.doubleToLongBits(get(i, j))) {
 					return false;
 				}
 			}
@@ -633,7 +980,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		// If we make it here, they are equal
 		return true;
 	}
-	
+
 	/**
 	 * <p>
 	 * This operation returns the hashcode value of the KDDMatrix.
@@ -644,16 +991,27 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 *         </p>
 	 */
 	public int hashCode() {
-		
+
 		// Local Declarations
-		int hash = 8;
+		int hash = 8, elementHash = 1;
+
+		// Hash the elements in row major order so that the layout does not
+		// matter
+		for (int i = 0; i < nRows; i++) {
+			for (int j = 0; j < nCols; j++) {
+				long bits = Double.doubleToLongBits(get(i, j));
+				elementHash = 31 * elementHash + (int) (bits ^ (bits >>> 32));
+			}
+		}
 
 		// Compute the hashcode
 		hash = 31 * hash + this.nCols;
 		hash = 31 * hash + this.nRows;
-		hash = 31 * hash + this.elements.hashCode();
-		hash = 31 * hash + this.dataProvider.hashCode();
-		
+		hash = 31 * hash + elementHash;
+		if (dataProvider != null) {
+			hash = 31 * hash + this.dataProvider.hashCode();
+		}
+
 		// Done, return
 		return hash;
 	}
@@ -668,14 +1026,16 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @param nCols
 	 */
 	public KDDMatrix(ArrayList<Double> elements, int nRows, int nCols) {
-		this.nRows = nRows;
-		this.nCols = nCols;
-		this.elements = elements;
+		this(new double[nRows * nCols], nRows, nCols);
+		for (int i = 0; i < this.elements.length && i < elements.size(); i++) {
+			this.elements[i] = elements.get(i);
+		}
 	}
 
 	/**
 	 * <p>
-	 * Create a copy of this KDDMatrix and return it.
+	 * Create a copy of this KDDMatrix and return it. The elements are shared
+	 * with the other matrix.
 	 * </p>
 	 * 
 	 * @param other
@@ -685,13 +1045,57 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		nRows = other.nRows;
 		nCols = other.nCols;
 		elements = other.elements;
+		offset = other.offset;
+		rowStride = other.rowStride;
+		columnStride = other.columnStride;
+		shared = true;
 		return;
 	}
 
-	public void zeroMatrix() {
+	/**
+	 * <p>
+	 * Return the largest element in this matrix or NaN if it is empty.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public double getMaxElement() {
+		double max = (nRows * nCols > 0 ? Double.NEGATIVE_INFINITY : Double.NaN);
 		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, 0.0);
+			int k = offset + i * rowStride;
+			for (int j = 0; j < nCols; j++, k += columnStride) {
+				max = Math.max(max, elements[k]);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * <p>
+	 * Return the smallest element in this matrix or NaN if it is empty.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public double getMinElement() {
+		double min = (nRows * nCols > 0 ? Double.POSITIVE_INFINITY : Double.NaN);
+		for (int i = 0; i < nRows; i++) {
+			int k = offset + i * rowStride;
+			for (int j = 0; j < nCols; j++, k += columnStride) {
+				min = Math.min(min, elements[k]);
+			}
+		}
+		return min;
+	}
+
+	public void zeroMatrix() {
+		if (columnStride == 1 && rowStride == nCols) {
+			Arrays.fill(elements, offset, offset + nRows * nCols, 0.0);
+		} else {
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					set(i, j, 0.0);
+				}
 			}
 		}
 	}
@@ -705,4 +1109,18 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>
+	 * This operation runs a kernel over all of the rows of this matrix. Large
+	 * matrices are split into ranges of rows that are run in the shared pool.
+	 * Small matrices are handled on the calling thread.
+	 * </p>
+	 * 
+	 * @param kernel
+	 *            The kernel
+	 */
+	private void forEachRow(RangeKernel kernel) {
+		AnalysisPool.forEachRange(kernel, nRows,
+				elementsPerTask / Math.max(1, nCols));
+	}
+}
@@ -0,0 +1,900 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.kddstrategy.godfreystrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.ice.analysistool.AnalysisPool;
+import org.eclipse.ice.analysistool.AnalysisPool.RangeKernel;
+import org.eclipse.ice.analysistool.IData;
+
+/**
+ * <p>
+ * The GodfreyEngine computes the Godfrey pin power difference, axial power
+ * and radial power statistics for a sequence of state points, such as a
+ * depletion history, against a single set of reference pin powers. It
+ * computes the same quantities as the PinPowerDifference, AxialPower and
+ * RadialPower sub-strategies, but it reads the pin powers from a dense array
+ * of doubles and computes all of them in a single pass over the pins.
+ * </p>
+ * <p>
+ * Pin powers, reference pin powers and weights are stored in one array with
+ * the pins of each axial level in row major order, the axial levels of each
+ * assembly in order and the assemblies in order. This is the order of the
+ * IData list that is given to the GodfreyStrategy, so toArray() can be used to
+ * create the arrays.
+ * </p>
+ * <p>
+ * Each call to process() overwrites the axial and radial powers and the
+ * statistics of the previous state point. Only a few summary values of each
+ * state point and running sums over the whole history are kept, so the
+ * memory used by the engine does not grow with the number of pins times the
+ * number of state points. The assemblies are processed in parallel on a
+ * shared fork/join pool.
+ * </p>
+ *
+ * @author agent
+ */
+public class GodfreyEngine {
+
+	/**
+	 * The number of pin terms that is handed to a single task in the
+	 * fork/join pool. Smaller problems are handled on the calling thread.
+	 */
+	private static final int termsPerTask = 16384;
+
+	/**
+	 * The number of assemblies.
+	 */
+	private final int nAssemblies;
+
+	/**
+	 * The number of axial levels in each assembly.
+	 */
+	private final int nAxial;
+
+	/**
+	 * The number of pin rows in each axial level.
+	 */
+	private final int nPinRows;
+
+	/**
+	 * The number of pin columns in each axial level.
+	 */
+	private final int nPinCols;
+
+	/**
+	 * The number of pins in each axial level.
+	 */
+	private final int nPins;
+
+	/**
+	 * The reference pin powers. This array is not copied.
+	 */
+	private final double[] refPinPowers;
+
+	/**
+	 * The weight of each pin. This array is not copied.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The height of each axial level, which weights the axial levels in the
+	 * axial averages.
+	 */
+	private final double[] axialMesh;
+
+	/**
+	 * True if the differences are relative to the reference pin powers, false
+	 * if they are the basic differences.
+	 */
+	private boolean relativeDifference;
+
+	/**
+	 * The pin powers of the state point that is being processed.
+	 */
+	private double[] pinPowers;
+
+	/**
+	 * The kernel that processes a range of assemblies of the current state
+	 * point.
+	 */
+	private final RangeKernel kernel;
+
+	/**
+	 * The axial power of each axial level.
+	 */
+	private final double[] axialPower;
+
+	/**
+	 * The axial power difference of each axial level.
+	 */
+	private final double[] axialPowerDiff;
+
+	/**
+	 * The radial power of each pin of each assembly.
+	 */
+	private final double[] radialPower;
+
+	/**
+	 * The radial power difference of each pin of each assembly.
+	 */
+	private final double[] radialPowerDiff;
+
+	/**
+	 * The sums of each pin of each assembly over the axial levels, pinTerms
+	 * per pin.
+	 */
+	private final double[] pinSums;
+
+	/**
+	 * The number of sums of each pin in pinSums. They are the weighted sums of
+	 * the powers and differences, the sum of the weights and the sums of the
+	 * powers, squared powers, differences and squared differences.
+	 */
+	private static final int pinTerms = 7;
+
+	/**
+	 * The weighted sums of the pin powers, differences and weights of each
+	 * axial level of each assembly, three per axial level.
+	 */
+	private final double[] axialSums;
+
+	/**
+	 * The sums of each assembly that are used for the radial averages and the
+	 * pin power difference statistics, assemblyTerms per assembly.
+	 */
+	private final double[] assemblySums;
+
+	/**
+	 * The number of sums of each assembly in assemblySums. They are the radial
+	 * weighted sums of the powers, squared powers, differences and squared
+	 * differences, the sum of the radial weights, the weighted sum of the
+	 * squared differences, the sum of the weights and the largest absolute
+	 * difference.
+	 */
+	private static final int assemblyTerms = 8;
+
+	/**
+	 * The index of the pin with the largest absolute difference in each
+	 * assembly.
+	 */
+	private final int[] maxDiffIndices;
+
+	/**
+	 * The average and RMS axial power and axial power difference, and the
+	 * average and RMS radial power and radial power difference, of the last
+	 * state point.
+	 */
+	private double axialPowerAverage, axialPowerRMS, axialPowerDiffAverage,
+			axialPowerDiffRMS, radialPowerAverage, radialPowerRMS,
+			radialPowerDiffAverage, radialPowerDiffRMS;
+
+	/**
+	 * The weighted RMS pin power difference of the last state point.
+	 */
+	private double pinPowerDiffRMS;
+
+	/**
+	 * The largest absolute pin power difference of the last state point.
+	 */
+	private double maxPinPowerDiff;
+
+	/**
+	 * The index of the pin with the largest absolute pin power difference of
+	 * the last state point.
+	 */
+	private int maxPinPowerDiffIndex;
+
+	/**
+	 * The number of state points that have been processed.
+	 */
+	private int nStatePoints;
+
+	/**
+	 * The largest absolute pin power difference of each state point.
+	 */
+	private double[] maxPinPowerDiffHistory;
+
+	/**
+	 * The weighted RMS pin power difference of each state point.
+	 */
+	private double[] pinPowerDiffRMSHistory;
+
+	/**
+	 * The RMS axial power difference of each state point.
+	 */
+	private double[] axialPowerDiffRMSHistory;
+
+	/**
+	 * The RMS radial power difference of each state point.
+	 */
+	private double[] radialPowerDiffRMSHistory;
+
+	/**
+	 * The sums of the axial power differences of each axial level and of their
+	 * squares over all of the state points, two per axial level.
+	 */
+	private final double[] axialDiffHistorySums;
+
+	/**
+	 * The sums of the radial power differences of each pin of each assembly
+	 * and of their squares over all of the state points, two per pin.
+	 */
+	private final double[] radialDiffHistorySums;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param nAssemblies
+	 *            The number of assemblies
+	 * @param nAxial
+	 *            The number of axial levels in each assembly
+	 * @param nPinRows
+	 *            The number of pin rows in each axial level
+	 * @param nPinCols
+	 *            The number of pin columns in each axial level
+	 * @param refPinPowers
+	 *            The reference pin powers. The array is not copied and must
+	 *            not change while the engine is used.
+	 * @param weights
+	 *            The weight of each pin. The array is not copied and must not
+	 *            change while the engine is used.
+	 * @param axialMesh
+	 *            The height of each axial level, or null if all of the axial
+	 *            levels have the same height
+	 * @throws IllegalArgumentException
+	 *             if the arrays do not have the right number of elements
+	 */
+	public GodfreyEngine(int nAssemblies, int nAxial, int nPinRows,
+			int nPinCols, double[] refPinPowers, double[] weights,
+			double[] axialMesh) throws IllegalArgumentException {
+
+		// Make sure the data is valid
+		if (nAssemblies < 1 || nAxial < 1 || nPinRows < 1 || nPinCols < 1) {
+			throw new IllegalArgumentException("GodfreyEngine requires at "
+					+ "least one assembly, axial level and pin.");
+		}
+		int size = nAssemblies * nAxial * nPinRows * nPinCols;
+		if (refPinPowers == null || weights == null
+				|| refPinPowers.length != size || weights.length != size
+				|| (axialMesh != null && axialMesh.length != nAxial)) {
+			throw new IllegalArgumentException("GodfreyEngine requires "
+					+ "reference pin powers and weights for every pin and "
+					+ "one mesh height per axial level.");
+		}
+
+		// Set the dimensions and data
+		this.nAssemblies = nAssemblies;
+		this.nAxial = nAxial;
+		this.nPinRows = nPinRows;
+		this.nPinCols = nPinCols;
+		nPins = nPinRows * nPinCols;
+		this.refPinPowers = refPinPowers;
+		this.weights = weights;
+		if (axialMesh != null) {
+			this.axialMesh = axialMesh.clone();
+		} else {
+			this.axialMesh = new double[nAxial];
+			Arrays.fill(this.axialMesh, 1.0);
+		}
+
+		// Allocate the results and work space
+		axialPower = new double[nAxial];
+		axialPowerDiff = new double[nAxial];
+		radialPower = new double[nAssemblies * nPins];
+		radialPowerDiff = new double[nAssemblies * nPins];
+		pinSums = new double[pinTerms * nAssemblies * nPins];
+		axialSums = new double[3 * nAssemblies * nAxial];
+		assemblySums = new double[assemblyTerms * nAssemblies];
+		maxDiffIndices = new int[nAssemblies];
+		axialDiffHistorySums = new double[2 * nAxial];
+		radialDiffHistorySums = new double[2 * nAssemblies * nPins];
+		maxPinPowerDiffHistory = new double[16];
+		pinPowerDiffRMSHistory = new double[16];
+		axialPowerDiffRMSHistory = new double[16];
+		radialPowerDiffRMSHistory = new double[16];
+
+		// Create the kernel that processes the assemblies
+		kernel = new RangeKernel() {
+			@Override
+			public void compute(int first, int last) {
+				for (int l = first; l < last; l++) {
+					processAssembly(l);
+				}
+			}
+		};
+	}
+
+	/**
+	 * This operation copies the values of a list of IData into an array that
+	 * can be processed by the engine.
+	 *
+	 * @param data
+	 *            The data
+	 * @return The values of the data, in the same order
+	 */
+	public static double[] toArray(ArrayList<IData> data) {
+
+		// Local Declarations
+		double[] values = new double[data.size()];
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = data.get(i).getValue();
+		}
+
+		return values;
+	}
+
+	/**
+	 * This operation sets whether the differences are relative to the
+	 * reference pin powers, (p - r) / r, or the basic differences, p - r. The
+	 * basic differences are used by default.
+	 *
+	 * @param relative
+	 *            True for relative differences, false for basic differences
+	 */
+	public void setRelativeDifference(boolean relative) {
+		relativeDifference = relative;
+	}
+
+	/**
+	 * This operation returns true if the differences are relative to the
+	 * reference pin powers.
+	 *
+	 * @return True for relative differences, false for basic differences
+	 */
+	public boolean isRelativeDifference() {
+		return relativeDifference;
+	}
+
+	/**
+	 * This operation computes the differences, axial powers and radial powers
+	 * of the next state point and adds it to the history.
+	 *
+	 * @param pinPowers
+	 *            The pin powers of the state point. The array is not kept
+	 *            after this operation returns, so it may be reused for the
+	 *            next state point.
+	 * @return The index of the state point in the history
+	 * @throws IllegalArgumentException
+	 *             if the array does not have one element for every pin
+	 */
+	public int process(double[] pinPowers) throws IllegalArgumentException {
+
+		// Make sure the data is valid
+		if (pinPowers == null || pinPowers.length != refPinPowers.length) {
+			throw new IllegalArgumentException("GodfreyEngine requires a pin "
+					+ "power for every pin.");
+		}
+
+		// Process the assemblies
+		this.pinPowers = pinPowers;
+		AnalysisPool.forEachRange(kernel, nAssemblies, termsPerTask
+				/ (nAxial * nPins));
+		this.pinPowers = null;
+
+		// Combine the assemblies and record the state point. The assemblies
+		// are always combined in the same order so that the results do not
+		// depend on how the work was split.
+		computeAxialPower();
+		computeRadialStatistics();
+		recordStatePoint();
+
+		return nStatePoints - 1;
+	}
+
+	/**
+	 * This operation makes the single pass over the pins of one assembly. It
+	 * computes the differences, sums the axial levels of the assembly for the
+	 * axial power, sums the axial levels of each pin for the radial power and
+	 * adds the radial power differences to the history. It only writes to the
+	 * parts of the arrays that belong to the assembly.
+	 *
+	 * @param l
+	 *            The index of the assembly
+	 */
+	private void processAssembly(int l) {
+
+		// Local Declarations
+		int pinOffset = l * nPins, dataOffset = l * nAxial * nPins;
+		int sumsOffset = pinTerms * pinOffset;
+		double diffSquareSum = 0.0, weightSum = 0.0, maxDiff = -1.0;
+		int maxIndex = dataOffset;
+
+		// Clear the pin sums of this assembly
+		Arrays.fill(pinSums, sumsOffset, sumsOffset + pinTerms * nPins, 0.0);
+
+		// Sum each axial level and each pin
+		for (int k = 0; k < nAxial; k++) {
+			double powerSum = 0.0, diffSum = 0.0, levelWeightSum = 0.0;
+			int levelOffset = dataOffset + k * nPins;
+			for (int p = 0; p < nPins; p++) {
+				int index = levelOffset + p, pin = sumsOffset + pinTerms * p;
+				double power = pinPowers[index], weight = weights[index];
+				double diff = power - refPinPowers[index];
+				if (relativeDifference) {
+					diff /= refPinPowers[index];
+				}
+				powerSum += power * weight;
+				diffSum += diff * weight;
+				levelWeightSum += weight;
+				pinSums[pin] += power * weight;
+				pinSums[pin + 1] += diff * weight;
+				pinSums[pin + 2] += weight;
+				pinSums[pin + 3] += power;
+				pinSums[pin + 4] += power * power;
+				pinSums[pin + 5] += diff;
+				pinSums[pin + 6] += diff * diff;
+				diffSquareSum += diff * diff * weight;
+				if (Math.abs(diff) > maxDiff) {
+					maxDiff = Math.abs(diff);
+					maxIndex = index;
+				}
+			}
+			int axialOffset = 3 * (l * nAxial + k);
+			axialSums[axialOffset] = powerSum;
+			axialSums[axialOffset + 1] = diffSum;
+			axialSums[axialOffset + 2] = levelWeightSum;
+			weightSum += levelWeightSum;
+		}
+
+		// Compute the radial powers and the sums for the radial averages,
+		// which weight every axial level of a pin by the total weight of the
+		// pin.
+		double powerSum = 0.0, powerSquareSum = 0.0, diffSum = 0.0;
+		double diffSquareRadialSum = 0.0, radialWeightSum = 0.0;
+		for (int p = 0; p < nPins; p++) {
+			int pin = sumsOffset + pinTerms * p, radialPin = pinOffset + p;
+			double weight = pinSums[pin + 2];
+			radialPower[radialPin] = Math.sqrt(Math.abs(pinSums[pin] / weight));
+			radialPowerDiff[radialPin] = Math.sqrt(Math.abs(pinSums[pin + 1]
+					/ weight));
+			powerSum += weight * pinSums[pin + 3];
+			powerSquareSum += weight * pinSums[pin + 4];
+			diffSum += weight * pinSums[pin + 5];
+			diffSquareRadialSum += weight * pinSums[pin + 6];
+			radialWeightSum += weight * nAxial;
+			radialDiffHistorySums[2 * radialPin] += radialPowerDiff[radialPin];
+			radialDiffHistorySums[2 * radialPin + 1] += radialPowerDiff[radialPin]
+					* radialPowerDiff[radialPin];
+		}
+
+		// Store the sums of this assembly
+		int offset = assemblyTerms * l;
+		assemblySums[offset] = powerSum;
+		assemblySums[offset + 1] = powerSquareSum;
+		assemblySums[offset + 2] = diffSum;
+		assemblySums[offset + 3] = diffSquareRadialSum;
+		assemblySums[offset + 4] = radialWeightSum;
+		assemblySums[offset + 5] = diffSquareSum;
+		assemblySums[offset + 6] = weightSum;
+		assemblySums[offset + 7] = maxDiff;
+		maxDiffIndices[l] = maxIndex;
+
+		return;
+	}
+
+	/**
+	 * This operation combines the axial sums of the assemblies into the axial
+	 * powers and computes the axial averages.
+	 */
+	private void computeAxialPower() {
+
+		// Local Declarations
+		double sum = 0.0, squareSum = 0.0, diffSum = 0.0, diffSquareSum = 0.0;
+		double meshSum = 0.0;
+
+		for (int k = 0; k < nAxial; k++) {
+			// Sum the assemblies
+			double powerSum = 0.0, levelDiffSum = 0.0, weightSum = 0.0;
+			for (int l = 0; l < nAssemblies; l++) {
+				int offset = 3 * (l * nAxial + k);
+				powerSum += axialSums[offset];
+				levelDiffSum += axialSums[offset + 1];
+				weightSum += axialSums[offset + 2];
+			}
+			axialPower[k] = Math.sqrt(Math.abs(powerSum / weightSum));
+			axialPowerDiff[k] = Math.sqrt(Math.abs(levelDiffSum / weightSum));
+			// Add the level to the averages
+			sum += axialPower[k] * axialMesh[k];
+			squareSum += axialPower[k] * axialPower[k] * axialMesh[k];
+			diffSum += axialPowerDiff[k] * axialMesh[k];
+			diffSquareSum += axialPowerDiff[k] * axialPowerDiff[k]
+					* axialMesh[k];
+			meshSum += axialMesh[k];
+			// Add the level to the history
+			axialDiffHistorySums[2 * k] += axialPowerDiff[k];
+			axialDiffHistorySums[2 * k + 1] += axialPowerDiff[k]
+					* axialPowerDiff[k];
+		}
+
+		axialPowerAverage = Math.abs(sum / meshSum);
+		axialPowerRMS = Math.sqrt(Math.abs(squareSum / meshSum));
+		axialPowerDiffAverage = Math.abs(diffSum / meshSum);
+		axialPowerDiffRMS = Math.sqrt(Math.abs(diffSquareSum / meshSum));
+
+		return;
+	}
+
+	/**
+	 * This operation combines the sums of the assemblies into the radial
+	 * averages and the pin power difference statistics.
+	 */
+	private void computeRadialStatistics() {
+
+		// Local Declarations
+		double[] sums = new double[assemblyTerms];
+
+		maxPinPowerDiff = -1.0;
+		for (int l = 0; l < nAssemblies; l++) {
+			int offset = assemblyTerms * l;
+			for (int i = 0; i < assemblyTerms - 1; i++) {
+				sums[i] += assemblySums[offset + i];
+			}
+			if (assemblySums[offset + 7] > maxPinPowerDiff) {
+				maxPinPowerDiff = assemblySums[offset + 7];
+				maxPinPowerDiffIndex = maxDiffIndices[l];
+			}
+		}
+
+		radialPowerAverage = Math.abs(sums[0] / sums[4]);
+		radialPowerRMS = Math.sqrt(Math.abs(sums[1] / sums[4]));
+		radialPowerDiffAverage = Math.abs(sums[2] / sums[4]);
+		radialPowerDiffRMS = Math.sqrt(Math.abs(sums[3] / sums[4]));
+		pinPowerDiffRMS = Math.sqrt(Math.abs(sums[5] / sums[6]));
+
+		return;
+	}
+
+	/**
+	 * This operation adds the summary of the last state point to the history.
+	 */
+	private void recordStatePoint() {
+
+		// Grow the history if needed
+		if (nStatePoints == maxPinPowerDiffHistory.length) {
+			int length = 2 * nStatePoints;
+			maxPinPowerDiffHistory = Arrays.copyOf(maxPinPowerDiffHistory,
+					length);
+			pinPowerDiffRMSHistory = Arrays.copyOf(pinPowerDiffRMSHistory,
+					length);
+			axialPowerDiffRMSHistory = Arrays.copyOf(axialPowerDiffRMSHistory,
+					length);
+			radialPowerDiffRMSHistory = Arrays.copyOf(
+					radialPowerDiffRMSHistory, length);
+		}
+
+		maxPinPowerDiffHistory[nStatePoints] = maxPinPowerDiff;
+		pinPowerDiffRMSHistory[nStatePoints] = pinPowerDiffRMS;
+		axialPowerDiffRMSHistory[nStatePoints] = axialPowerDiffRMS;
+		radialPowerDiffRMSHistory[nStatePoints] = radialPowerDiffRMS;
+		nStatePoints++;
+
+		return;
+	}
+
+	/**
+	 * This operation clears the history so that a new sequence of state
+	 * points can be processed against the same reference.
+	 */
+	public void reset() {
+		nStatePoints = 0;
+		Arrays.fill(axialDiffHistorySums, 0.0);
+		Arrays.fill(radialDiffHistorySums, 0.0);
+	}
+
+	/**
+	 * This operation returns the number of assemblies.
+	 *
+	 * @return The number of assemblies
+	 */
+	public int getNumberOfAssemblies() {
+		return nAssemblies;
+	}
+
+	/**
+	 * This operation returns the number of axial levels in each assembly.
+	 *
+	 * @return The number of axial levels
+	 */
+	public int getNumberOfAxialLevels() {
+		return nAxial;
+	}
+
+	/**
+	 * This operation returns the number of pin rows in each axial level.
+	 *
+	 * @return The number of pin rows
+	 */
+	public int getNumberOfPinRows() {
+		return nPinRows;
+	}
+
+	/**
+	 * This operation returns the number of pin columns in each axial level.
+	 *
+	 * @return The number of pin columns
+	 */
+	public int getNumberOfPinCols() {
+		return nPinCols;
+	}
+
+	/**
+	 * This operation returns the number of state points that have been
+	 * processed since the engine was created or reset.
+	 *
+	 * @return The number of state points
+	 */
+	public int getNumberOfStatePoints() {
+		return nStatePoints;
+	}
+
+	/**
+	 * This operation returns the axial power of each axial level of the last
+	 * state point.
+	 *
+	 * @return The axial powers, which must not be modified
+	 */
+	public double[] getAxialPower() {
+		return axialPower;
+	}
+
+	/**
+	 * This operation returns the axial power difference of each axial level
+	 * of the last state point.
+	 *
+	 * @return The axial power differences, which must not be modified
+	 */
+	public double[] getAxialPowerDifference() {
+		return axialPowerDiff;
+	}
+
+	/**
+	 * This operation returns the radial power of each pin of each assembly of
+	 * the last state point, with the pins of each assembly in row major order.
+	 *
+	 * @return The radial powers, which must not be modified
+	 */
+	public double[] getRadialPower() {
+		return radialPower;
+	}
+
+	/**
+	 * This operation returns the radial power difference of each pin of each
+	 * assembly of the last state point, with the pins of each assembly in row
+	 * major order.
+	 *
+	 * @return The radial power differences, which must not be modified
+	 */
+	public double[] getRadialPowerDifference() {
+		return radialPowerDiff;
+	}
+
+	/**
+	 * This operation returns the average axial power of the last state point.
+	 *
+	 * @return The average axial power
+	 */
+	public double getAxialPowerAverage() {
+		return axialPowerAverage;
+	}
+
+	/**
+	 * This operation returns the RMS axial power of the last state point.
+	 *
+	 * @return The RMS axial power
+	 */
+	public double getAxialPowerRMS() {
+		return axialPowerRMS;
+	}
+
+	/**
+	 * This operation returns the average axial power difference of the last
+	 * state point.
+	 *
+	 * @return The average axial power difference
+	 */
+	public double getAxialPowerDifferenceAverage() {
+		return axialPowerDiffAverage;
+	}
+
+	/**
+	 * This operation returns the RMS axial power difference of the last state
+	 * point.
+	 *
+	 * @return The RMS axial power difference
+	 */
+	public double getAxialPowerDifferenceRMS() {
+		return axialPowerDiffRMS;
+	}
+
+	/**
+	 * This operation returns the average radial power of the last state point.
+	 *
+	 * @return The average radial power
+	 */
+	public double getRadialPowerAverage() {
+		return radialPowerAverage;
+	}
+
+	/**
+	 * This operation returns the RMS radial power of the last state point.
+	 *
+	 * @return The RMS radial power
+	 */
+	public double getRadialPowerRMS() {
+		return radialPowerRMS;
+	}
+
+	/**
+	 * This operation returns the average radial power difference of the last
+	 * state point.
+	 *
+	 * @return The average radial power difference
+	 */
+	public double getRadialPowerDifferenceAverage() {
+		return radialPowerDiffAverage;
+	}
+
+	/**
+	 * This operation returns the RMS radial power difference of the last state
+	 * point.
+	 *
+	 * @return The RMS radial power difference
+	 */
+	public double getRadialPowerDifferenceRMS() {
+		return radialPowerDiffRMS;
+	}
+
+	/**
+	 * This operation returns the weighted RMS pin power difference of the
+	 * last state point.
+	 *
+	 * @return The RMS pin power difference
+	 */
+	public double getPinPowerDifferenceRMS() {
+		return pinPowerDiffRMS;
+	}
+
+	/**
+	 * This operation returns the largest absolute pin power difference of the
+	 * last state point.
+	 *
+	 * @return The largest absolute difference
+	 */
+	public double getMaxPinPowerDifference() {
+		return maxPinPowerDiff;
+	}
+
+	/**
+	 * This operation returns the index in the pin power array of the pin with
+	 * the largest absolute difference in the last state point.
+	 *
+	 * @return The index of the pin
+	 */
+	public int getMaxPinPowerDifferenceIndex() {
+		return maxPinPowerDiffIndex;
+	}
+
+	/**
+	 * This operation returns the largest absolute pin power difference of
+	 * each state point in the history.
+	 *
+	 * @return The largest differences, one per state point
+	 */
+	public double[] getMaxPinPowerDifferenceHistory() {
+		return Arrays.copyOf(maxPinPowerDiffHistory, nStatePoints);
+	}
+
+	/**
+	 * This operation returns the weighted RMS pin power difference of each
+	 * state point in the history.
+	 *
+	 * @return The RMS differences, one per state point
+	 */
+	public double[] getPinPowerDifferenceRMSHistory() {
+		return Arrays.copyOf(pinPowerDiffRMSHistory, nStatePoints);
+	}
+
+	/**
+	 * This operation returns the RMS axial power difference of each state
+	 * point in the history.
+	 *
+	 * @return The RMS axial power differences, one per state point
+	 */
+	public double[] getAxialPowerDifferenceRMSHistory() {
+		return Arrays.copyOf(axialPowerDiffRMSHistory, nStatePoints);
+	}
+
+	/**
+	 * This operation returns the RMS radial power difference of each state
+	 * point in the history.
+	 *
+	 * @return The RMS radial power differences, one per state point
+	 */
+	public double[] getRadialPowerDifferenceRMSHistory() {
+		return Arrays.copyOf(radialPowerDiffRMSHistory, nStatePoints);
+	}
+
+	/**
+	 * This operation returns the mean over the history of the axial power
+	 * difference of each axial level.
+	 *
+	 * @return The mean axial power differences, or NaNs if no state points
+	 *         have been processed
+	 */
+	public double[] getAxialPowerDifferenceMean() {
+		return historyStatistic(axialDiffHistorySums, false);
+	}
+
+	/**
+	 * This operation returns the RMS over the history of the axial power
+	 * difference of each axial level.
+	 *
+	 * @return The RMS axial power differences, or NaNs if no state points have
+	 *         been processed
+	 */
+	public double[] getAxialPowerDifferenceRMSOverHistory() {
+		return historyStatistic(axialDiffHistorySums, true);
+	}
+
+	/**
+	 * This operation returns the mean over the history of the radial power
+	 * difference of each pin of each assembly.
+	 *
+	 * @return The mean radial power differences, or NaNs if no state points
+	 *         have been processed
+	 */
+	public double[] getRadialPowerDifferenceMean() {
+		return historyStatistic(radialDiffHistorySums, false);
+	}
+
+	/**
+	 * This operation returns the RMS over the history of the radial power
+	 * difference of each pin of each assembly.
+	 *
+	 * @return The RMS radial power differences, or NaNs if no state points
+	 *         have been processed
+	 */
+	public double[] getRadialPowerDifferenceRMSOverHistory() {
+		return historyStatistic(radialDiffHistorySums, true);
+	}
+
+	/**
+	 * This operation computes the mean or RMS over the history from a running
+	 * sum and sum of squares.
+	 *
+	 * @param sums
+	 *            The sum and the sum of squares of each quantity
+	 * @param rms
+	 *            True for the RMS, false for the mean
+	 * @return The mean or RMS of each quantity
+	 */
+	private double[] historyStatistic(double[] sums, boolean rms) {
+
+		// Local Declarations
+		double[] result = new double[sums.length / 2];
+
+		for (int i = 0; i < result.length; i++) {
+			if (rms) {
+				result[i] = Math.sqrt(sums[2 * i + 1] / nStatePoints);
+			} else {
+				result[i] = sums[2 * i] / nStatePoints;
+			}
+		}
+
+		return result;
+	}
+}
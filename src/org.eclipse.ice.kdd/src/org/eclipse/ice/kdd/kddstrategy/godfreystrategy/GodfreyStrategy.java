@@ -368,6 +368,77 @@ public class GodfreyStrategy extends CompositeStrategy {
 		return true;
 	}
 
+	/**
+	 * <p>
+	 * This operation runs the Godfrey analysis on each state point of a
+	 * history, such as a depletion, against the reference data of this
+	 * strategy. The state points are streamed through a GodfreyEngine one at a
+	 * time, so only the statistics of each state point are kept. The state
+	 * points must be ordered like the data that was given to the constructor.
+	 * </p>
+	 *
+	 * @param history
+	 *            The pin powers of each state point
+	 * @return The engine holding the statistics of the history, or null if the
+	 *         history could not be processed
+	 */
+	public GodfreyEngine executeHistory(ArrayList<ArrayList<IData>> history) {
+
+		// Local Declarations
+		int nPins = nPinRows * nPinCols, size = nAssemblies * nAxial * nPins;
+		double[] refValues = new double[size], weightValues = new double[size];
+		double[] axialMesh = new double[nAxial];
+		GodfreyEngine engine;
+
+		// Make sure the data isn't null
+		if (refPinPowers == null || history == null) {
+			return null;
+		}
+		// Fill the Weights Mapping
+		if (!calculateWeights()) {
+			return null;
+		}
+
+		// Copy the reference data and weights into the layout of the engine.
+		// This assumes the z positions are the same across all assemblies.
+		for (int l = 0; l < nAssemblies; l++) {
+			for (int k = 0; k < nAxial; k++) {
+				IDataMatrix ref = refPinPowers.get(l).get(k);
+				KDDMatrix weight = weights.get(l).get(k);
+				int offset = (l * nAxial + k) * nPins;
+				for (int i = 0; i < nPinRows; i++) {
+					for (int j = 0; j < nPinCols; j++) {
+						refValues[offset + i * nPinCols + j] = ref
+								.getElementValue(i, j);
+						weightValues[offset + i * nPinCols + j] = weight.get(
+								i, j);
+					}
+				}
+			}
+		}
+		for (int k = 0; k < nAxial; k++) {
+			axialMesh[k] = refPinPowers.get(0).get(k).getElementPosition(0, 0)
+					.get(2);
+		}
+
+		// Process the state points
+		engine = new GodfreyEngine(nAssemblies, nAxial, nPinRows, nPinCols,
+				refValues, weightValues, axialMesh);
+		engine.setRelativeDifference("Relative".equals(properties
+				.get("Difference Type")));
+		for (ArrayList<IData> statePoint : history) {
+			if (statePoint == null || statePoint.size() != size) {
+				System.err.println("Invalid state point "
+						+ engine.getNumberOfStatePoints()
+						+ " for GodfreyStrategy. Must have one value per pin.");
+				return null;
+			}
+			engine.process(GodfreyEngine.toArray(statePoint));
+		}
+
+		return engine;
+	}
+
 	/**
 	 * <p>
 	 * Return the number of rows in the pin powers matrix.
@@ -54,6 +54,24 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 */
 	protected ArrayList<Cluster> clusters;
 
+	/**
+	 * <p>
+	 * Clustering stops early once no centroid moves further than this
+	 * distance in an iteration.
+	 * </p>
+	 * 
+	 */
+	private double tolerance = 0.0;
+
+	/**
+	 * <p>
+	 * The number of rows in each mini-batch, or zero if every row should be
+	 * used in every iteration.
+	 * </p>
+	 * 
+	 */
+	private int miniBatchSize = 0;
+
 	/**
 	 * <p>
 	 * The constructor, takes a valid set of IData and constructs this matrix.
@@ -99,7 +117,15 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * data indices to vectors in an N-dimensional space represented as
 	 * KDDMatrices with number of columns equal to 1 and number of rows equal to
 	 * N. It takes as argument the number of cluster centroids to produce, as
-	 * well as the number of iterations to use in refining the clusters.
+	 * well as the largest number of iterations to use in refining the
+	 * clusters.
+	 * </p>
+	 * <p>
+	 * With the default EuclideanDistanceMeasure, the rows are clustered by a
+	 * KMeansClusterer, which seeds the centroids with k-means++ and stops
+	 * early when they settle. It uses mini-batches if a mini-batch size is
+	 * set. Other distance measures are clustered by comparing every row to
+	 * every centroid.
 	 * </p>
 	 * 
 	 * @param nClusters
@@ -107,15 +133,92 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 */
 	public void cluster(int nClusters, int nIterations) {
 
+		// Clear any old clusters from a previous run
+		clusters.clear();
+
+		// Cluster the rows
+		if (distanceMeasure instanceof EuclideanDistanceMeasure) {
+			clusterEuclidean(nClusters, nIterations);
+		} else {
+			clusterWithMeasure(nClusters, nIterations);
+		}
+
+		// Debug
+		for (Cluster c : clusters) {
+			System.out
+					.println("\n[ICE KDD] Cluster "
+							+ c.getClusterIndex()
+							+ " has "
+							+ c.numberOfElements()
+							+ " data elements after \n\tKMeans clustering algorithm with "
+							+ nIterations + " iterations.");
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This method clusters the rows with a KMeansClusterer and adds each row
+	 * to the Cluster of its centroid.
+	 * </p>
+	 * 
+	 * @param nClusters
+	 * @param nIterations
+	 */
+	private void clusterEuclidean(int nClusters, int nIterations) {
+
+		// Local Declarations
+		KMeansClusterer clusterer;
+		double[] rows = elements;
+		KDDMatrix vector;
+
+		// Use the elements directly if they are stored in row major order
+		if (offset != 0 || columnStride != 1 || rowStride != nCols) {
+			rows = toArray();
+		}
+
+		// Cluster them
+		clusterer = new KMeansClusterer(rows, nRows, nCols);
+		if (miniBatchSize > 0 && miniBatchSize < nRows) {
+			clusterer.clusterMiniBatch(nClusters, nIterations, miniBatchSize,
+					tolerance);
+		} else {
+			clusterer.cluster(nClusters, nIterations, tolerance);
+		}
+
+		// Create the clusters and add the rows to them as column vectors
+		int[] assignments = clusterer.getAssignments();
+		for (int i = 0; i < clusterer.getNumberOfClusters(); i++) {
+			clusters.add(new Cluster(i));
+		}
+		for (int j = 0; j < assignments.length; j++) {
+			vector = getRow(j);
+			vector.transpose();
+			clusters.get(assignments[j]).addVector(vector);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This method clusters the rows with the distance measure, starting from
+	 * random centroids and comparing every row to every centroid in each
+	 * iteration.
+	 * </p>
+	 * 
+	 * @param nClusters
+	 * @param nIterations
+	 */
+	private void clusterWithMeasure(int nClusters, int nIterations) {
+
 		// Local Declarations
 		ArrayList<KDDMatrix> centroids = new ArrayList<KDDMatrix>();
 		ArrayList<Double> distances = new ArrayList<Double>();
 		KDDMatrix vector = null;
 		Double minDistance = 0.0;
 
-		// Clear any old clusters from a previous run
-		clusters.clear();
-
 		// Create nClusters clusters, and calculate
 		// a set of random means
 		for (int i = 0; i < nClusters; i++) {
@@ -175,17 +278,6 @@ public class ClusterKDDMatrix extends KDDMatrix {
 			}
 		}
 
-		// Debug
-		for (Cluster c : clusters) {
-			System.out
-					.println("\n[ICE KDD] Cluster "
-							+ c.getClusterIndex()
-							+ " has "
-							+ c.numberOfElements()
-							+ " data elements after \n\tKMeans clustering algorithm with "
-							+ nIterations + " iterations.");
-		}
-
 		return;
 	}
 
@@ -197,7 +289,7 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * @return
 	 */
 	private Double getMaxMatrixElement() {
-		return Collections.max(elements);
+		return getMaxElement();
 	}
 
 	/**
@@ -208,7 +300,60 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * @return
 	 */
 	private Double getMinMatrixElement() {
-		return Collections.min(elements);
+		return getMinElement();
+	}
+
+	/**
+	 * <p>
+	 * Set the distance below which the movement of the centroids is
+	 * considered to have settled. Clustering stops early once no centroid
+	 * moves further than it in an iteration. It is zero by default, in which
+	 * case clustering stops early only when no row changes clusters.
+	 * </p>
+	 * 
+	 * @param tolerance
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = Math.max(0.0, tolerance);
+	}
+
+	/**
+	 * <p>
+	 * Return the distance below which the movement of the centroids is
+	 * considered to have settled.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * <p>
+	 * Set the number of rows that are sampled in each iteration, which makes
+	 * clustering very large matrices much faster at some cost in accuracy.
+	 * Every row is used in every iteration if it is zero, which is the
+	 * default, or at least the number of rows. It is only used with the
+	 * EuclideanDistanceMeasure.
+	 * </p>
+	 * 
+	 * @param size
+	 */
+	public void setMiniBatchSize(int size) {
+		miniBatchSize = Math.max(0, size);
+	}
+
+	/**
+	 * <p>
+	 * Return the number of rows that are sampled in each iteration, or zero
+	 * if every row is used.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public int getMiniBatchSize() {
+		return miniBatchSize;
 	}
 
 	/**
@@ -394,6 +539,10 @@ public class ClusterKDDMatrix extends KDDMatrix {
 
 			// Get its distance measure method
 			this.distanceMeasure = matrix.distanceMeasure;
+
+			// Get its clustering parameters
+			this.tolerance = matrix.tolerance;
+			this.miniBatchSize = matrix.miniBatchSize;
 		}
 
 		return;
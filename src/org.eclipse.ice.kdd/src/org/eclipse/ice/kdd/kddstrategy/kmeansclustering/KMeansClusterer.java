@@ -0,0 +1,696 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.ice.analysistool.AnalysisPool;
+import org.eclipse.ice.analysistool.AnalysisPool.RangeKernel;
+
+/**
+ * <p>
+ * The KMeansClusterer clusters the rows of a dense, row major matrix of
+ * doubles with the Euclidean k-means algorithm. The centroids are seeded with
+ * k-means++, which picks each new centroid with a probability proportional to
+ * its squared distance from the centroids that were already picked.
+ * </p>
+ * <p>
+ * cluster() runs Hamerly's version of Lloyd's algorithm. It keeps an upper
+ * bound on the distance from each point to its centroid and a lower bound on
+ * the distance to every other centroid, and uses the triangle inequality to
+ * skip the points that cannot change clusters. It produces the same clusters
+ * as Lloyd's algorithm and stops early when no centroid moves further than
+ * the tolerance. clusterMiniBatch() instead moves the centroids towards small
+ * random samples of the points, which is much cheaper for very large data
+ * sets, and then assigns every point to its nearest centroid.
+ * </p>
+ * <p>
+ * Points are assigned to centroids in parallel on a shared fork/join pool.
+ * The assignment does not allocate any memory per point or per iteration.
+ * </p>
+ *
+ * @author agent
+ */
+public class KMeansClusterer {
+
+	/**
+	 * The number of distance terms (points times centroids times dimensions)
+	 * that is handed to a single task in the fork/join pool. Smaller problems
+	 * are handled on the calling thread.
+	 */
+	private static final int termsPerTask = 16384;
+
+	/**
+	 * The points, one per row in row major order. This array is not copied.
+	 */
+	private final double[] data;
+
+	/**
+	 * The number of points.
+	 */
+	private final int nPoints;
+
+	/**
+	 * The number of dimensions of each point.
+	 */
+	private final int nDimensions;
+
+	/**
+	 * The random number generator used to seed the centroids and draw the
+	 * mini-batches.
+	 */
+	private Random random = new Random();
+
+	/**
+	 * The number of clusters.
+	 */
+	private int nClusters;
+
+	/**
+	 * The centroids, one per row in row major order.
+	 */
+	private double[] centroids;
+
+	/**
+	 * The index of the centroid that each point is assigned to.
+	 */
+	private int[] assignments;
+
+	/**
+	 * The number of iterations of the last run.
+	 */
+	private int iterations;
+
+	/**
+	 * True if the last run converged before its maximum number of iterations.
+	 */
+	private boolean converged;
+
+	/**
+	 * An upper bound on the distance from each point to its centroid.
+	 */
+	private double[] upperBounds;
+
+	/**
+	 * A lower bound on the distance from each point to the nearest centroid
+	 * that it is not assigned to. It holds the squared distance from each
+	 * point to the nearest centroid while the centroids are seeded.
+	 */
+	private double[] lowerBounds;
+
+	/**
+	 * Half the distance from each centroid to the nearest other centroid.
+	 */
+	private double[] halfSeparations;
+
+	/**
+	 * The distance that each centroid moved in the last iteration.
+	 */
+	private double[] shifts;
+
+	/**
+	 * The largest distance that a centroid moved in the last iteration.
+	 */
+	private double maxShift;
+
+	/**
+	 * The second largest distance that a centroid moved in the last
+	 * iteration.
+	 */
+	private double secondShift;
+
+	/**
+	 * The index of the centroid that moved the furthest in the last
+	 * iteration.
+	 */
+	private int maxShiftIndex;
+
+	/**
+	 * The sum of the points assigned to each centroid, or the centroids
+	 * before the last mini-batch.
+	 */
+	private double[] sums;
+
+	/**
+	 * The number of points assigned to each centroid, or the number of points
+	 * that each centroid has been moved towards in a mini-batch.
+	 */
+	private int[] counts;
+
+	/**
+	 * The centroid that each point was assigned to before the last iteration.
+	 */
+	private int[] previousAssignments;
+
+	/**
+	 * The indices of the points in the current mini-batch.
+	 */
+	private int[] batch;
+
+	/**
+	 * The centroid that each point in the current mini-batch is nearest to.
+	 */
+	private int[] batchAssignments;
+
+	/**
+	 * The index of the centroid that was just picked while the centroids are
+	 * seeded.
+	 */
+	private int seededCentroid;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param data
+	 *            The points, one per row in row major order. The array is not
+	 *            copied and must not change while it is clustered.
+	 * @param nPoints
+	 *            The number of points
+	 * @param nDimensions
+	 *            The number of dimensions of each point
+	 * @throws IllegalArgumentException
+	 *             if the array is too small for the points
+	 */
+	public KMeansClusterer(double[] data, int nPoints, int nDimensions)
+			throws IllegalArgumentException {
+
+		// Make sure the data is valid
+		if (data == null || nPoints < 0 || nDimensions < 0
+				|| data.length < nPoints * nDimensions) {
+			throw new IllegalArgumentException("KMeansClusterer requires an "
+					+ "array with nPoints * nDimensions elements.");
+		}
+
+		this.data = data;
+		this.nPoints = nPoints;
+		this.nDimensions = nDimensions;
+		centroids = new double[0];
+		assignments = new int[0];
+	}
+
+	/**
+	 * This operation sets the seed of the random number generator so that
+	 * runs can be repeated.
+	 *
+	 * @param seed
+	 *            The seed
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * This operation clusters the points with Hamerly's algorithm.
+	 *
+	 * @param nClusters
+	 *            The number of clusters
+	 * @param maxIterations
+	 *            The largest number of iterations to run
+	 * @param tolerance
+	 *            The run stops when no centroid moves further than this
+	 *            distance in an iteration. A run always stops when no point
+	 *            changes clusters.
+	 * @return The number of iterations that were run
+	 */
+	public int cluster(int nClusters, int maxIterations, double tolerance) {
+
+		// Seed the centroids
+		if (!seed(nClusters)) {
+			return 0;
+		}
+		upperBounds = new double[nPoints];
+		halfSeparations = new double[nClusters];
+		shifts = new double[nClusters];
+		sums = new double[nClusters * nDimensions];
+		counts = new int[nClusters];
+		previousAssignments = new int[nPoints];
+		maxShift = 0.0;
+		secondShift = 0.0;
+		maxShiftIndex = 0;
+
+		// Assign each point to its nearest centroid and set its bounds
+		runKernel(new RangeKernel() {
+			@Override
+			public void compute(int first, int last) {
+				for (int i = first; i < last; i++) {
+					assignWithBounds(i);
+				}
+			}
+		}, nPoints);
+		for (int i = 0; i < nPoints; i++) {
+			addToSum(i, assignments[i], 1);
+		}
+		System.arraycopy(assignments, 0, previousAssignments, 0, nPoints);
+		iterations = 1;
+
+		// The kernel that reassigns the points whose bounds allow it
+		RangeKernel kernel = new RangeKernel() {
+			@Override
+			public void compute(int first, int last) {
+				for (int i = first; i < last; i++) {
+					updatePoint(i);
+				}
+			}
+		};
+
+		// Move the centroids and reassign the points until they settle
+		while (moveCentroids() > tolerance && iterations < maxIterations) {
+			updateHalfSeparations();
+			runKernel(kernel, nPoints);
+			iterations++;
+			// Move the points that changed clusters between the sums
+			int changes = 0;
+			for (int i = 0; i < nPoints; i++) {
+				int newCentroid = assignments[i];
+				int oldCentroid = previousAssignments[i];
+				if (newCentroid != oldCentroid) {
+					addToSum(i, oldCentroid, -1);
+					addToSum(i, newCentroid, 1);
+					previousAssignments[i] = newCentroid;
+					changes++;
+				}
+			}
+			// Stop if nothing changed, since the centroids will not move
+			if (changes == 0) {
+				maxShift = 0.0;
+				break;
+			}
+		}
+		converged = (maxShift <= tolerance);
+
+		return iterations;
+	}
+
+	/**
+	 * This operation clusters the points with mini-batch k-means. Each
+	 * iteration assigns a random sample of the points to their nearest
+	 * centroids and moves each centroid towards its points by a step that
+	 * shrinks with the number of points it has seen. Every point is assigned
+	 * to its nearest centroid at the end.
+	 *
+	 * @param nClusters
+	 *            The number of clusters
+	 * @param maxIterations
+	 *            The largest number of mini-batches to run
+	 * @param batchSize
+	 *            The number of points in each mini-batch
+	 * @param tolerance
+	 *            The run stops when no centroid moves further than this
+	 *            distance in a mini-batch
+	 * @return The number of mini-batches that were run
+	 */
+	public int clusterMiniBatch(int nClusters, int maxIterations,
+			int batchSize, double tolerance) {
+
+		// Seed the centroids
+		if (!seed(nClusters) || batchSize < 1) {
+			return 0;
+		}
+		upperBounds = null;
+		lowerBounds = null;
+		sums = new double[nClusters * nDimensions];
+		counts = new int[nClusters];
+		batch = new int[batchSize];
+		batchAssignments = new int[batchSize];
+		converged = false;
+		iterations = 0;
+
+		// The kernel that finds the nearest centroid of each point in the
+		// batch
+		RangeKernel kernel = new RangeKernel() {
+			@Override
+			public void compute(int first, int last) {
+				for (int i = first; i < last; i++) {
+					batchAssignments[i] = nearestCentroid(batch[i]);
+				}
+			}
+		};
+
+		while (iterations < maxIterations) {
+			// Draw and assign the batch
+			for (int i = 0; i < batchSize; i++) {
+				batch[i] = random.nextInt(nPoints);
+			}
+			runKernel(kernel, batchSize);
+			iterations++;
+
+			// Move the centroids towards their points, keeping the old ones to
+			// see how far they moved
+			System.arraycopy(centroids, 0, sums, 0, sums.length);
+			for (int i = 0; i < batchSize; i++) {
+				int centroid = batchAssignments[i];
+				double rate = 1.0 / ++counts[centroid];
+				int c = centroid * nDimensions, p = batch[i] * nDimensions;
+				for (int k = 0; k < nDimensions; k++) {
+					centroids[c + k] += rate * (data[p + k] - centroids[c + k]);
+				}
+			}
+
+			// Stop if none of them moved far enough
+			double largestShift = 0.0;
+			for (int j = 0; j < nClusters; j++) {
+				largestShift = Math.max(largestShift,
+						Math.sqrt(squaredDistance(sums, j, centroids, j)));
+			}
+			if (largestShift <= tolerance) {
+				converged = true;
+				break;
+			}
+		}
+
+		// Assign every point to its nearest centroid
+		runKernel(new RangeKernel() {
+			@Override
+			public void compute(int first, int last) {
+				for (int i = first; i < last; i++) {
+					assignments[i] = nearestCentroid(i);
+				}
+			}
+		}, nPoints);
+
+		return iterations;
+	}
+
+	/**
+	 * This operation returns the index of the centroid that each point is
+	 * assigned to.
+	 *
+	 * @return The assignments, which must not be modified
+	 */
+	public int[] getAssignments() {
+		return assignments;
+	}
+
+	/**
+	 * This operation returns the centroids, one per row in row major order.
+	 *
+	 * @return The centroids, which must not be modified
+	 */
+	public double[] getCentroids() {
+		return centroids;
+	}
+
+	/**
+	 * This operation returns the number of clusters of the last run.
+	 *
+	 * @return The number of clusters
+	 */
+	public int getNumberOfClusters() {
+		return nClusters;
+	}
+
+	/**
+	 * This operation returns the number of iterations of the last run.
+	 *
+	 * @return The number of iterations
+	 */
+	public int getNumberOfIterations() {
+		return iterations;
+	}
+
+	/**
+	 * This operation returns whether or not the last run converged before its
+	 * maximum number of iterations.
+	 *
+	 * @return True if it converged, false otherwise
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/**
+	 * This operation seeds the centroids with k-means++.
+	 *
+	 * @param nClusters
+	 *            The number of clusters
+	 * @return True if the centroids were seeded, false if there are no points
+	 *         or clusters
+	 */
+	private boolean seed(int nClusters) {
+
+		// Reset the results
+		this.nClusters = Math.max(0, nClusters);
+		centroids = new double[this.nClusters * nDimensions];
+		assignments = new int[nPoints];
+		iterations = 0;
+		converged = false;
+		if (nPoints == 0 || nClusters < 1) {
+			return false;
+		}
+
+		// The kernel that lowers the squared distance from each point to its
+		// nearest centroid with the distance to the one that was just picked
+		lowerBounds = new double[nPoints];
+		Arrays.fill(lowerBounds, Double.POSITIVE_INFINITY);
+		RangeKernel kernel = new RangeKernel() {
+			@Override
+			public void compute(int first, int last) {
+				for (int i = first; i < last; i++) {
+					lowerBounds[i] = Math.min(lowerBounds[i],
+							squaredDistance(data, i, centroids, seededCentroid));
+				}
+			}
+		};
+
+		// Pick the first centroid uniformly and the others in proportion to
+		// their squared distance from the centroids already picked
+		int point = random.nextInt(nPoints);
+		for (int j = 0; j < nClusters; j++) {
+			if (j > 0) {
+				double total = 0.0;
+				for (int i = 0; i < nPoints; i++) {
+					total += lowerBounds[i];
+				}
+				if (total > 0.0) {
+					double target = random.nextDouble() * total;
+					point = 0;
+					for (double sum = lowerBounds[0]; sum <= target
+							&& point < nPoints - 1;) {
+						sum += lowerBounds[++point];
+					}
+				} else {
+					point = random.nextInt(nPoints);
+				}
+			}
+			System.arraycopy(data, point * nDimensions, centroids, j
+					* nDimensions, nDimensions);
+			seededCentroid = j;
+			if (j < nClusters - 1) {
+				runKernel(kernel, nPoints);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation assigns a point to its nearest centroid and sets its
+	 * bounds to the distances to the nearest and second nearest centroids.
+	 *
+	 * @param point
+	 *            The index of the point
+	 */
+	private void assignWithBounds(int point) {
+
+		// Local Declarations
+		double nearest = Double.POSITIVE_INFINITY;
+		double second = Double.POSITIVE_INFINITY;
+		int nearestIndex = 0;
+
+		// Find the two nearest centroids
+		for (int j = 0; j < nClusters; j++) {
+			double distance = squaredDistance(data, point, centroids, j);
+			if (distance < nearest) {
+				second = nearest;
+				nearest = distance;
+				nearestIndex = j;
+			} else if (distance < second) {
+				second = distance;
+			}
+		}
+
+		assignments[point] = nearestIndex;
+		upperBounds[point] = Math.sqrt(nearest);
+		lowerBounds[point] = Math.sqrt(second);
+
+		return;
+	}
+
+	/**
+	 * This operation updates the bounds of a point for the last move of the
+	 * centroids and reassigns it if the bounds can no longer show that its
+	 * centroid is the nearest.
+	 *
+	 * @param point
+	 *            The index of the point
+	 */
+	private void updatePoint(int point) {
+
+		// Loosen the bounds by the distances the centroids moved
+		int centroid = assignments[point];
+		upperBounds[point] += shifts[centroid];
+		lowerBounds[point] -= (centroid == maxShiftIndex ? secondShift
+				: maxShift);
+
+		// Check the bounds, tightening the upper bound if needed
+		double bound = Math.max(halfSeparations[centroid], lowerBounds[point]);
+		if (upperBounds[point] > bound) {
+			upperBounds[point] = Math.sqrt(squaredDistance(data, point,
+					centroids, centroid));
+			if (upperBounds[point] > bound) {
+				assignWithBounds(point);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the index of the centroid nearest to a point.
+	 *
+	 * @param point
+	 *            The index of the point
+	 * @return The index of the centroid
+	 */
+	private int nearestCentroid(int point) {
+
+		// Local Declarations
+		double nearest = Double.POSITIVE_INFINITY;
+		int nearestIndex = 0;
+
+		for (int j = 0; j < nClusters; j++) {
+			double distance = squaredDistance(data, point, centroids, j);
+			if (distance < nearest) {
+				nearest = distance;
+				nearestIndex = j;
+			}
+		}
+
+		return nearestIndex;
+	}
+
+	/**
+	 * This operation adds a point to, or subtracts it from, the sum of the
+	 * points of a centroid.
+	 *
+	 * @param point
+	 *            The index of the point
+	 * @param centroid
+	 *            The index of the centroid
+	 * @param sign
+	 *            1 to add the point or -1 to subtract it
+	 */
+	private void addToSum(int point, int centroid, int sign) {
+		int c = centroid * nDimensions, p = point * nDimensions;
+		for (int k = 0; k < nDimensions; k++) {
+			sums[c + k] += sign * data[p + k];
+		}
+		counts[centroid] += sign;
+	}
+
+	/**
+	 * This operation moves each centroid to the mean of its points and
+	 * records how far it moved. Centroids without any points do not move.
+	 *
+	 * @return The largest distance that a centroid moved
+	 */
+	private double moveCentroids() {
+
+		// Reset the shifts
+		maxShift = 0.0;
+		secondShift = 0.0;
+		maxShiftIndex = 0;
+
+		for (int j = 0; j < nClusters; j++) {
+			// Move the centroid
+			double shift = 0.0;
+			if (counts[j] > 0) {
+				int c = j * nDimensions;
+				for (int k = 0; k < nDimensions; k++) {
+					double mean = sums[c + k] / counts[j];
+					double difference = mean - centroids[c + k];
+					shift += difference * difference;
+					centroids[c + k] = mean;
+				}
+				shift = Math.sqrt(shift);
+			}
+			shifts[j] = shift;
+			// Keep the two largest shifts
+			if (shift > maxShift) {
+				secondShift = maxShift;
+				maxShift = shift;
+				maxShiftIndex = j;
+			} else if (shift > secondShift) {
+				secondShift = shift;
+			}
+		}
+
+		return maxShift;
+	}
+
+	/**
+	 * This operation computes half the distance from each centroid to the
+	 * nearest other centroid.
+	 */
+	private void updateHalfSeparations() {
+		Arrays.fill(halfSeparations, Double.POSITIVE_INFINITY);
+		for (int j = 0; j < nClusters; j++) {
+			for (int k = j + 1; k < nClusters; k++) {
+				double half = 0.5 * Math.sqrt(squaredDistance(centroids, j,
+						centroids, k));
+				halfSeparations[j] = Math.min(halfSeparations[j], half);
+				halfSeparations[k] = Math.min(halfSeparations[k], half);
+			}
+		}
+	}
+
+	/**
+	 * This operation returns the squared Euclidean distance between two rows.
+	 *
+	 * @param first
+	 *            The array that holds the first row
+	 * @param firstRow
+	 *            The index of the first row
+	 * @param second
+	 *            The array that holds the second row
+	 * @param secondRow
+	 *            The index of the second row
+	 * @return The squared distance
+	 */
+	private double squaredDistance(double[] first, int firstRow,
+			double[] second, int secondRow) {
+		double sum = 0.0;
+		int f = firstRow * nDimensions, s = secondRow * nDimensions;
+		for (int k = 0; k < nDimensions; k++) {
+			double difference = first[f + k] - second[s + k];
+			sum += difference * difference;
+		}
+		return sum;
+	}
+
+	/**
+	 * This operation runs a kernel over a range of points. Large problems are
+	 * split into ranges that are run in the shared pool. Small problems are
+	 * handled on the calling thread.
+	 *
+	 * @param kernel
+	 *            The kernel
+	 * @param count
+	 *            The number of points in the range, starting from zero
+	 */
+	private void runKernel(RangeKernel kernel, int count) {
+		AnalysisPool.forEachRange(kernel, count, Math.max(16, termsPerTask
+				/ Math.max(1, nClusters * nDimensions)));
+	}
+}
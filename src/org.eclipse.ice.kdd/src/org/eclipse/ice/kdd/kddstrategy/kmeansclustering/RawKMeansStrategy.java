@@ -83,6 +83,8 @@ public class RawKMeansStrategy extends KDDStrategy {
 		properties.put("Number of Iterations", "10");
 		properties.put("Visualization Dimension", "2");
 		properties.put("Distance Measure", "Euclidean");
+		properties.put("Convergence Tolerance", "0.0");
+		properties.put("Mini-Batch Size", "0");
 
 	}
 
@@ -102,6 +104,8 @@ public class RawKMeansStrategy extends KDDStrategy {
 		properties.put("Number of Iterations", "10");
 		properties.put("Visualization Dimension", "2");
 		properties.put("Distance Measure", "Euclidean");
+		properties.put("Convergence Tolerance", "0.0");
+		properties.put("Mini-Batch Size", "0");
 
 	}
 
@@ -157,6 +161,32 @@ public class RawKMeansStrategy extends KDDStrategy {
 		};
 		retList.add(dm);
 
+		Entry tolerance = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Convergence Tolerance";
+				this.uniqueId = 4;
+				this.objectDescription = "Indicate the distance below which the movement of the cluster centers is considered to have settled.";
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Continuous;
+			}
+		};
+		retList.add(tolerance);
+
+		Entry batchSize = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Mini-Batch Size";
+				this.uniqueId = 5;
+				this.objectDescription = "Indicate the number of rows to sample in each iteration, or 0 to use every row.";
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Continuous;
+			}
+		};
+		retList.add(batchSize);
+
 		return retList;
 	}
 
@@ -185,7 +215,13 @@ public class RawKMeansStrategy extends KDDStrategy {
 		oldMatrix.copy(matrixToCluster);
 
 		try {
-			// Get the NCentroids, refined over NIteratinos
+			// Set the convergence tolerance and mini-batch size
+			matrixToCluster.setTolerance(Double.parseDouble(properties
+					.get("Convergence Tolerance")));
+			matrixToCluster.setMiniBatchSize(Integer.parseInt(properties
+					.get("Mini-Batch Size")));
+
+			// Get the NCentroids, refined over at most NIteratinos
 			matrixToCluster.cluster(
 					Integer.parseInt(properties.get("Number of Clusters")),
 					Integer.parseInt(properties.get("Number of Iterations")));
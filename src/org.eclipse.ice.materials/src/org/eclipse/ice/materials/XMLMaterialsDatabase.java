@@ -12,8 +12,14 @@
  *******************************************************************************/
 package org.eclipse.ice.materials;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Hashtable;
@@ -22,11 +28,10 @@ import java.util.Map;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
+import org.eclipse.ice.datastructures.ICEObject.JAXBContextCache;
 import org.eclipse.ice.datastructures.form.Material;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -190,19 +195,18 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 *            should be loaded.
 	 */
 	private void loadDatabase(File fileToLoad) {
-		try {
-			// Create the necessary JAXB equipment to load the file
-			Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-			// And unmarshall it into the list
-			ICEList<Material> rawList = (ICEList<Material>) jaxbUnmarshaller
-					.unmarshal(fileToLoad);
+		try (InputStream stream = new BufferedInputStream(new FileInputStream(
+				fileToLoad))) {
+			// Unmarshall the file into the list with a pooled unmarshaller
+			ICEList<Material> rawList = (ICEList<Material>) JAXBContextCache
+					.unmarshal(jaxbContext, stream);
 
 			// Load the list into the material map
 			materialsMap = new Hashtable<String, Material>();
 			for (Material material : rawList.getList()) {
 				materialsMap.put(material.getName(), material);
 			}
-		} catch (JAXBException e) {
+		} catch (JAXBException | IOException e) {
 			e.printStackTrace();
 		}
 	}
@@ -212,16 +216,14 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	private void writeDatabase() {
 
-		try {
-			// Create the necessary JAXB equipment to dump the file
-			Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-			jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+		try (OutputStream stream = new BufferedOutputStream(
+				new FileOutputStream(userDatabase))) {
 			// Create the ICEList of Materials
 			ICEList<Material> materialsList = new ICEList<Material>();
 			materialsList.setList(new ArrayList<Material>(getMaterials()));
-			// And dump it into the file
-			jaxbMarshaller.marshal(materialsList, userDatabase);
-		} catch (JAXBException e) {
+			// And dump it into the file with a pooled marshaller
+			JAXBContextCache.marshal(jaxbContext, materialsList, stream);
+		} catch (JAXBException | IOException e) {
 			System.err.println("XMLMaterialDatabase: Error writing database!");
 			e.printStackTrace();
 		}
@@ -250,8 +252,8 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 
 		// Create the JAXB context to manipulate the files
 		try {
-			jaxbContext = JAXBContext
-					.newInstance(ICEList.class, Material.class);
+			jaxbContext = JAXBContextCache.getContext(ICEList.class,
+					Material.class);
 		} catch (JAXBException e) {
 			// Complain
 			if (logger != null) {
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.persistence.xml;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * This class is an IPersistenceProvider that stores Items as GZIP-compressed
+ * XML files, <itemName>_<itemId>.xml.gz, instead of plain XML. Items are
+ * streamed through the compressor as they are marshalled, so the files are
+ * never held in memory uncompressed. This is much smaller and faster to read
+ * for Items with large Matrix, Table or Mesh Components.
+ * 
+ * It differs from the XMLPersistenceProvider only in the format that it uses
+ * for projects that have not selected one. Projects that were created by the
+ * XMLPersistenceProvider keep their format until it is changed with
+ * setFormat(), and migrateItems() converts the Items that are already stored.
+ * 
+ * It is registered as an IPersistenceProvider with a lower service ranking
+ * than the XMLPersistenceProvider, so it is only used if the XML provider is
+ * disabled.
+ * 
+ * @author agent
+ * 
+ */
+public class CompressedXMLPersistenceProvider extends XMLPersistenceProvider {
+
+	/**
+	 * The default constructor.
+	 */
+	public CompressedXMLPersistenceProvider() {
+		super();
+	}
+
+	/**
+	 * An alternative constructor that allows the project space to be set for
+	 * testing.
+	 * 
+	 * @param projectSpace
+	 *            The project space that should be used instead of the default.
+	 */
+	public CompressedXMLPersistenceProvider(IProject projectSpace) {
+		super(projectSpace);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see XMLPersistenceProvider#getDefaultFormat()
+	 */
+	@Override
+	protected String getDefaultFormat() {
+		return compressedFormat;
+	}
+
+}
@@ -12,21 +12,45 @@
  *******************************************************************************/
 package org.eclipse.ice.persistence.xml;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.naming.OperationNotSupportedException;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -35,14 +59,19 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.datastructures.ICEObject.JAXBContextCache;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.datastructures.jaxbclassprovider.IJAXBClassProvider;
 import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.ItemBuilder;
+import org.eclipse.ice.item.ItemHeader;
+import org.eclipse.ice.item.ItemType;
 import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
 
 /**
@@ -54,11 +83,27 @@ import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
  * <itemName>_<itemId>.xml for the file names. White space in the item name is
  * replaced with underscores.
  * 
+ * Items can also be stored as GZIP-compressed XML, <itemName>_<itemId>.xml.gz,
+ * which is much smaller for Items with large Matrix, Table or Mesh Components.
+ * The format is selected per project with the formatProperty persistent
+ * property (see setFormat()) and defaults to the value returned by
+ * getDefaultFormat(). Items in either format are always read, so changing the
+ * format of a project migrates each Item the next time it is persisted, or all
+ * at once with migrateItems().
+ * 
  * All of the operations performed by this class except for those that load
  * Items are handled on a separate, non-blocking thread. Loading operations are
- * blocking.
+ * blocking. The thread sleeps until there is work in the queue and then
+ * processes everything that is waiting as one batch. Repeated persists or
+ * updates of an Item that are still waiting in the queue are merged so that
+ * only its latest state is written, and files are written to a temporary file
+ * that is then renamed over the original. The queue depth, number of merged
+ * writes and batch (flush) latencies are available from the provider.
  * 
  * Items that are loaded by the provider are not constructed with a project.
+ * loadItems() unmarshals the Items in parallel. The provider also keeps an
+ * index of Item headers in the project (see loadItemHeaders()) so that the
+ * list of Items can be published without unmarshalling any Forms.
  * 
  * This provider should always be started AFTER all of the Items are registered
  * with it because registering Items while it is running would require stopping
@@ -120,6 +165,57 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	ArrayBlockingQueue<QueuedTask> taskQueue = new ArrayBlockingQueue<QueuedTask>(
 			1024);
 
+	/**
+	 * The persist and write tasks that are in the queue and have not been
+	 * taken by the event loop yet, keyed by the id of their Item or the path
+	 * of their file. A new persist or write for the same key replaces the
+	 * contents of the queued task instead of adding another one, so only the
+	 * latest state is written. All access must be synchronized on this map.
+	 */
+	private HashMap<Object, QueuedTask> pendingTasks = new HashMap<Object, QueuedTask>();
+
+	/**
+	 * The maximum number of tasks that the event loop takes from the queue in
+	 * one batch.
+	 */
+	private static final int maxBatchSize = 64;
+
+	/**
+	 * A task used only to wake the event loop when the provider is stopped.
+	 */
+	private static final QueuedTask wakeTask = new QueuedTask();
+
+	/**
+	 * The number of persist or write requests that were merged into a task
+	 * that was already queued.
+	 */
+	private AtomicLong coalescedWriteCount = new AtomicLong();
+
+	/**
+	 * The number of files written by the event loop.
+	 */
+	private AtomicLong writeCount = new AtomicLong();
+
+	/**
+	 * The number of batches processed by the event loop.
+	 */
+	private AtomicLong flushCount = new AtomicLong();
+
+	/**
+	 * The time in nanoseconds that it took to process the last batch.
+	 */
+	private AtomicLong lastFlushLatency = new AtomicLong();
+
+	/**
+	 * The longest time in nanoseconds that it took to process a batch.
+	 */
+	private AtomicLong maxFlushLatency = new AtomicLong();
+
+	/**
+	 * The total time in nanoseconds spent processing batches.
+	 */
+	private AtomicLong totalFlushLatency = new AtomicLong();
+
 	/**
 	 * A private thread on which the event loop is run. The runnable for this
 	 * thread is the current instance of this class. All work is processed on
@@ -146,6 +242,86 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 */
 	private Hashtable<Integer, String> itemIdMap = new Hashtable<Integer, String>();
 
+	/**
+	 * The persistent project property that selects the format in which Items
+	 * are written to the project, either xmlFormat or compressedFormat.
+	 */
+	public static final QualifiedName formatProperty = new QualifiedName(
+			"org.eclipse.ice.persistence.xml", "format");
+
+	/**
+	 * The value of formatProperty for plain XML files.
+	 */
+	public static final String xmlFormat = "xml";
+
+	/**
+	 * The value of formatProperty for GZIP-compressed XML files.
+	 */
+	public static final String compressedFormat = "compressed";
+
+	/**
+	 * The extension added to the names of compressed files.
+	 */
+	private static final String compressedExtension = ".gz";
+
+	/**
+	 * True if Items are written as compressed XML.
+	 */
+	private volatile boolean compressed = false;
+
+	/**
+	 * This is a private class used to store the entries of the Item header
+	 * index. It records the header of an Item along with the file from which
+	 * it was read and the local time stamp of that file at the time, so that
+	 * stale entries can be detected.
+	 * 
+	 * @author Jay Jay Billings
+	 * 
+	 */
+	private static class IndexEntry {
+		/**
+		 * The header of the Item.
+		 */
+		public ItemHeader header;
+		/**
+		 * The name of the file that holds the Item.
+		 */
+		public String fileName;
+		/**
+		 * The local time stamp of the file when the header was read.
+		 */
+		public long timeStamp;
+	}
+
+	/**
+	 * The name of the file in the project that stores the Item header index.
+	 * It does not match the pattern used for Item files.
+	 */
+	private static final String indexFileName = ".itemIndex.xml";
+
+	/**
+	 * The Item header index. The keys are the Item ids. It is read from disk
+	 * the first time that headers are requested and is kept up to date by the
+	 * event loop when Items are persisted or deleted.
+	 */
+	private Hashtable<Integer, IndexEntry> itemIndex = new Hashtable<Integer, IndexEntry>();
+
+	/**
+	 * True if the header index was read from disk.
+	 */
+	private AtomicBoolean indexLoaded = new AtomicBoolean(false);
+
+	/**
+	 * True if the header index was changed since it was last written to disk.
+	 */
+	private AtomicBoolean indexDirty = new AtomicBoolean(false);
+
+	/**
+	 * The number of threads used to load Items in bulk.
+	 */
+	private static final int numLoaderThreads = Math.max(1, Runtime
+			.getRuntime().availableProcessors());
+
 	/**
 	 * The list of IJAXBClassProviders to be used in the construction of the
 	 * JAXBContext.
@@ -213,10 +389,10 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			for (IResource resource : members) {
 				// Only add the resources that are xml files with the format
 				// that we expect. This uses a regular expression that checks
-				// for <itemName>_<itemId>.xml.
+				// for <itemName>_<itemId>.xml or <itemName>_<itemId>.xml.gz.
 				if (resource.getType() == IResource.FILE
 						&& resource.getName().matches(
-								"^[a-zA-Z0-9_\\-]*_\\d+\\.xml$")) {
+								"^[a-zA-Z0-9_\\-]*_\\d+\\.xml(\\.gz)?$")) {
 					names.add(resource.getName());
 				}
 			}
@@ -233,8 +409,11 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 				String[] nameMinusExtParts = nameMinusExt.split("_");
 				String idString = nameMinusExtParts[nameMinusExtParts.length - 1];
 				id = Integer.valueOf(idString);
-				// Put the info in the map
-				itemIdMap.put(id, name);
+				// Put the info in the map. If a migration was interrupted and
+				// the Item is stored in both formats, prefer the current one.
+				if (!itemIdMap.containsKey(id) || isCurrentFormat(name)) {
+					itemIdMap.put(id, name);
+				}
 			}
 
 		} catch (CoreException e) {
@@ -245,6 +424,171 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		return;
 	}
 
+	/**
+	 * This operation returns the format in which Items are written to projects
+	 * that have not selected one with setFormat().
+	 *
+	 * @return xmlFormat
+	 */
+	protected String getDefaultFormat() {
+		return xmlFormat;
+	}
+
+	/**
+	 * This operation reads the format of the project from its persistent
+	 * properties, or records the default format if it does not have one yet.
+	 */
+	private void loadFormat() {
+
+		// Local Declarations
+		String format = null;
+
+		try {
+			format = project.getPersistentProperty(formatProperty);
+		} catch (CoreException e) {
+			// Complain and use the default
+			e.printStackTrace();
+		}
+
+		// Select the format
+		if (!setFormat(format != null ? format : getDefaultFormat())) {
+			setFormat(getDefaultFormat());
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the format in which Items are written.
+	 *
+	 * @return xmlFormat or compressedFormat
+	 */
+	public String getFormat() {
+		return compressed ? compressedFormat : xmlFormat;
+	}
+
+	/**
+	 * This operation selects the format in which Items are written to the
+	 * project and stores it with the project. Items that are already stored in
+	 * the other format are still read and are written in the new format the
+	 * next time that they are persisted. Call migrateItems() to rewrite them
+	 * all right away.
+	 *
+	 * @param format
+	 *            xmlFormat or compressedFormat
+	 * @return True if the format was set, false if it was not recognized
+	 */
+	public boolean setFormat(String format) {
+
+		// Check the format
+		if (!xmlFormat.equals(format) && !compressedFormat.equals(format)) {
+			System.out.println("XMLPersistenceProvider Message: "
+					+ "Unknown format " + format);
+			return false;
+		}
+
+		// Set it and store it with the project
+		compressed = compressedFormat.equals(format);
+		if (project != null && project.isOpen()) {
+			try {
+				project.setPersistentProperty(formatProperty, format);
+			} catch (CoreException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation rewrites all of the Items that are stored in the project
+	 * in a format other than the current one. The Items are loaded right away
+	 * and the writes are queued like any other persist; the files in the old
+	 * format are removed as the new ones are written.
+	 *
+	 * @return The number of Items that were queued for migration
+	 */
+	public int migrateItems() {
+
+		// Local Declarations
+		int count = 0;
+
+		for (int id : new TreeSet<Integer>(itemIdMap.keySet())) {
+			String fileName = itemIdMap.get(id);
+			if (fileName != null && !isCurrentFormat(fileName)) {
+				Item item = loadItem(id);
+				if (item != null && persistItem(item)) {
+					count++;
+				}
+			}
+		}
+
+		System.out.println("XMLPersistenceProvider Message: " + "Migrating "
+				+ count + " Items to " + getFormat() + ".");
+
+		return count;
+	}
+
+	/**
+	 * This operation returns true if the file name has the extension of the
+	 * current format.
+	 *
+	 * @param fileName
+	 *            The file name
+	 * @return True if the file is in the current format
+	 */
+	private boolean isCurrentFormat(String fileName) {
+		return fileName.endsWith(compressedExtension) == compressed;
+	}
+
+	/**
+	 * This operation returns the name of the file in which an Item is stored
+	 * in the given format.
+	 *
+	 * @param item
+	 *            The Item
+	 * @param compressedFile
+	 *            True for the name of the compressed file
+	 * @return The file name
+	 */
+	private String getItemFileName(Item item, boolean compressedFile) {
+		return item.getName().replaceAll("\\s+", "_") + "_" + item.getId()
+				+ ".xml" + (compressedFile ? compressedExtension : "");
+	}
+
+	/**
+	 * This operation opens a stream to read the contents of a file,
+	 * decompressing it if it is a compressed file.
+	 *
+	 * @param file
+	 *            The file
+	 * @return The stream, which the caller must close
+	 * @throws CoreException
+	 *             An exception indicating that the file could not be opened
+	 * @throws IOException
+	 *             An exception indicating that the file is not a valid
+	 *             compressed file
+	 */
+	private InputStream openStream(IFile file) throws CoreException,
+			IOException {
+
+		// Local Declarations
+		InputStream stream = file.getContents();
+
+		// Decompress it if needed
+		if (file.getName().endsWith(compressedExtension)) {
+			try {
+				stream = new GZIPInputStream(new BufferedInputStream(stream));
+			} catch (IOException e) {
+				stream.close();
+				throw e;
+			}
+		}
+
+		return stream;
+	}
+
 	/**
 	 * This operation is responsible for creating the project space used by the
 	 * XMLPersistenceProvider.
@@ -290,7 +634,6 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	private void createJAXBContext() throws JAXBException {
 		// Make an array to store the class list of registered Items
 		ArrayList<Class> classList = new ArrayList<Class>();
-		Class[] classArray = {};
 		// Create the list of classes for the JAXBContext
 		for (Item refItem : referenceItems) {
 			classList.add(refItem.getClass());
@@ -307,8 +650,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			classList.addAll(provider.getClasses());
 		}
 
-		// Create new JAXB class context and unmarshaller
-		context = JAXBContext.newInstance(classList.toArray(classArray));
+		// Get the JAXB class context from the shared cache so that it is
+		// reused by every other client with the same classes.
+		context = JAXBContextCache.getContext(classList);
 	}
 
 	/**
@@ -335,6 +679,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Create the JAXB context
 		createJAXBContext();
 
+		// Determine the format of the project
+		loadFormat();
+
 		// Get the names and ids for all of the Items that have been persisted.
 		loadItemIdMap();
 
@@ -358,7 +705,7 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 */
 	public void stop() {
 
-		long counter = 0, maxPollCount = 60;
+		long maxWaitTime = 60000;
 
 		// Debug information
 		System.out.println("XMLPersistenceProvider Message: "
@@ -366,26 +713,17 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		// Shut down the thread if it was started
 		if (eventLoop != null) {
-			// Thrown the flag to shut down the thread
+			// Thrown the flag to shut down the thread and wake it up if it is
+			// waiting for work
 			runFlag.set(false);
-			// Watch the thread until it shuts down or for one minute,
-			// whichever is sooner.
-			while (counter < maxPollCount) {
-				if (eventLoop.isAlive()) {
-					Thread.currentThread();
-					try {
-						// Sleep for a second if the event loop is still busy
-						Thread.sleep(1000);
-					} catch (InterruptedException e) {
-						// Complain if something interrupts naptime!
-						e.printStackTrace();
-					}
-					// Increment the counter
-					counter++;
-				} else {
-					// Just quit because the event loop has already died.
-					break;
-				}
+			taskQueue.offer(wakeTask);
+			// Wait until it shuts down or for one minute, whichever is
+			// sooner.
+			try {
+				eventLoop.join(maxWaitTime);
+			} catch (InterruptedException e) {
+				// Complain if something interrupts naptime!
+				e.printStackTrace();
 			}
 		}
 
@@ -431,13 +769,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	private ByteArrayOutputStream createXMLStream(Object obj) {
 		// Get the XML
 		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-		// Create the marshaller and write the item
-		Marshaller marshaller;
+		// Write the item with a pooled marshaller
 		try {
-			marshaller = context.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-					Boolean.TRUE);
-			marshaller.marshal(obj, outputStream);
+			JAXBContextCache.marshal(context, obj, outputStream);
 		} catch (JAXBException e) {
 			// Complain
 			e.printStackTrace();
@@ -456,12 +790,28 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 *            The file to where it should be written
 	 */
 	private void writeFile(Object obj, IFile file) {
+
+		// Write the file atomically if it is on the local file system
+		if (file.getLocation() != null) {
+			writeFileAtomically(obj, file);
+			return;
+		}
+
 		// Create an output stream containing the XML.
 		ByteArrayOutputStream outputStream = createXMLStream(obj);
-		// Convert it to an input stream so it can be pushed to file
-		ByteArrayInputStream inputStream = new ByteArrayInputStream(
-				outputStream.toByteArray());
 		try {
+			// Compress it if needed
+			if (file.getName().endsWith(compressedExtension)) {
+				ByteArrayOutputStream compressedStream = new ByteArrayOutputStream();
+				try (GZIPOutputStream zipStream = new GZIPOutputStream(
+						compressedStream)) {
+					outputStream.writeTo(zipStream);
+				}
+				outputStream = compressedStream;
+			}
+			// Convert it to an input stream so it can be pushed to file
+			ByteArrayInputStream inputStream = new ByteArrayInputStream(
+					outputStream.toByteArray());
 			// Update the output file if it already exists
 			if (file.exists()) {
 				file.setContents(inputStream, IResource.FORCE, null);
@@ -469,10 +819,79 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 				// Or create it from scratch
 				file.create(inputStream, IResource.FORCE, null);
 			}
-		} catch (CoreException e) {
+			writeCount.incrementAndGet();
+		} catch (CoreException | IOException e) {
+			// Complain
+			e.printStackTrace();
+		}
+		return;
+	}
+
+	/**
+	 * This operation writes the specified object to the file in XML by
+	 * streaming it to a temporary file in the same directory and then renaming
+	 * the temporary file over the original. Files with the compressed
+	 * extension are compressed as they are written. The original file is never left
+	 * half-written, even if the workbench dies during the write. The workspace
+	 * is refreshed afterwards so that it sees the new contents.
+	 *
+	 * @param obj
+	 *            The object to be written
+	 * @param file
+	 *            The file to where it should be written. It must have a local
+	 *            location.
+	 */
+	private void writeFileAtomically(Object obj, IFile file) {
+
+		// Local Declarations
+		File target = file.getLocation().toFile();
+		Path tempPath = null;
+
+		try {
+			// Stream the XML into a temporary file next to the target. The
+			// suffix keeps it from matching the Item file pattern.
+			tempPath = Files.createTempFile(target.getParentFile().toPath(),
+					"." + target.getName(), ".tmp");
+			OutputStream stream = new BufferedOutputStream(
+					Files.newOutputStream(tempPath));
+			if (target.getName().endsWith(compressedExtension)) {
+				stream = new GZIPOutputStream(stream);
+			}
+			try {
+				JAXBContextCache.marshal(context, obj, stream);
+			} finally {
+				stream.close();
+			}
+			// Replace the target with it
+			try {
+				Files.move(tempPath, target.toPath(),
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				// Some file systems can not move atomically
+				Files.move(tempPath, target.toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+			tempPath = null;
+			writeCount.incrementAndGet();
+			// Let the workspace know that the file changed
+			file.refreshLocal(IResource.DEPTH_ZERO, null);
+		} catch (IOException | JAXBException | CoreException e) {
 			// Complain
 			e.printStackTrace();
+			System.out.println("XMLPersistenceProvider Message: "
+					+ "Failed to write " + file.getName());
+		} finally {
+			// Clean up the temporary file if the write failed
+			if (tempPath != null) {
+				try {
+					Files.deleteIfExists(tempPath);
+				} catch (IOException e) {
+					// Nothing else to do
+				}
+			}
 		}
+
 		return;
 	}
 
@@ -485,20 +904,20 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	private void processTask(QueuedTask currentTask) {
 
 		// Local Declarations
-		String name = null;
-		IFile file = null;
+		IFile file = null, otherFile = null;
 
 		try {
 			// Handle the task if it is available
 			if (currentTask != null) {
-				// Get the file name if this is a persist or delete
+				// Get the files if this is a persist or delete. The Item is
+				// written in the current format, but it may also be stored in
+				// the other one.
 				if ("persist".equals(currentTask.task)
 						|| "delete".equals(currentTask.task)) {
-					// Setup the file name
-					name = currentTask.item.getName().replaceAll("\\s+", "_")
-							+ "_" + currentTask.item.getId() + ".xml";
-					// Get the file in the project
-					file = project.getFile(name);
+					file = project.getFile(getItemFileName(currentTask.item,
+							compressed));
+					otherFile = project.getFile(getItemFileName(
+							currentTask.item, !compressed));
 				}
 				// Process persists
 				if ("persist".equals(currentTask.task)
@@ -507,24 +926,32 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 					writeFile(currentTask.item, file);
 					// Update the item id map
 					itemIdMap.put(currentTask.item.getId(), file.getName());
-				} else if ("delete".equals(currentTask.task) && file.exists()) {
+					// Update the header index
+					indexItem(new ItemHeader(currentTask.item), file);
+					// Remove the copy in the old format if it was migrated
+					if (otherFile.exists()) {
+						otherFile.delete(true, null);
+					}
+				} else if ("delete".equals(currentTask.task)
+						&& (file.exists() || otherFile.exists())) {
 					// Handle deletes
-					file.delete(true, null);
-					// Update the item id map
+					if (file.exists()) {
+						file.delete(true, null);
+					}
+					if (otherFile.exists()) {
+						otherFile.delete(true, null);
+					}
+					// Update the item id map and the header index
 					itemIdMap.remove(currentTask.item.getId());
+					if (itemIndex.remove(currentTask.item.getId()) != null) {
+						indexDirty.set(true);
+					}
 				} else if ("write".equals(currentTask.task)) {
 					// Deal with simple Form write requests from the IWriter
 					// interface.
 					writeFile(currentTask.form, currentTask.file);
 				}
-			} else {
-				// Otherwise sleep for a bit
-				Thread.currentThread();
-				Thread.sleep(1000);
 			}
-		} catch (InterruptedException e) {
-			// Complain
-			e.printStackTrace();
 		} catch (CoreException e) {
 			// Complain
 			e.printStackTrace();
@@ -533,27 +960,244 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		return;
 	}
 
+	/**
+	 * This operation processes a batch of tasks that were taken from the queue
+	 * and records how long it took. Each task is released from the map of
+	 * pending tasks before it is processed so that requests that arrive while
+	 * it is being written are queued again instead of being lost.
+	 *
+	 * @param batch
+	 *            The tasks to process, in the order they were queued
+	 */
+	private void processBatch(List<QueuedTask> batch) {
+
+		// Local Declarations
+		long start = System.nanoTime(), latency;
+
+		for (QueuedTask currentTask : batch) {
+			// Skip the wake up call
+			if (currentTask == wakeTask) {
+				continue;
+			}
+			// Release it and grab its current contents
+			synchronized (pendingTasks) {
+				Object key = getTaskKey(currentTask);
+				if (key != null && pendingTasks.get(key) == currentTask) {
+					pendingTasks.remove(key);
+				}
+			}
+			processTask(currentTask);
+		}
+
+		// Write the header index once per batch
+		if (indexDirty.get()) {
+			writeItemIndex();
+		}
+
+		// Update the metrics
+		latency = System.nanoTime() - start;
+		flushCount.incrementAndGet();
+		lastFlushLatency.set(latency);
+		totalFlushLatency.addAndGet(latency);
+		long max = maxFlushLatency.get();
+		while (latency > max && !maxFlushLatency.compareAndSet(max, latency)) {
+			max = maxFlushLatency.get();
+		}
+
+		return;
+	}
+
 	/**
 	 * The event loop. When Items are persisted, loaded, deleted or updated,
 	 * they are added to the queue and those operations are processed on this
-	 * thread.
+	 * thread. The loop blocks until a task arrives and then processes it
+	 * along with any other tasks that are waiting, up to maxBatchSize at a
+	 * time.
 	 */
 	public void run() {
 
+		// Local Declarations
+		ArrayList<QueuedTask> batch = new ArrayList<QueuedTask>(maxBatchSize);
+
 		// While the provider is set to run, just process tasks from the
 		// queue
 		while (runFlag.get()) {
 			try {
-				// Grab the next task
+				// Wait for the next task. stop() sends a wake up call, so the
+				// time out is only a safety net.
 				QueuedTask currentTask = taskQueue.poll(2, TimeUnit.SECONDS);
-				// Process it
-				processTask(currentTask);
+				if (currentTask != null) {
+					// Grab everything else that is waiting and process it
+					batch.add(currentTask);
+					taskQueue.drainTo(batch, maxBatchSize - 1);
+					processBatch(batch);
+					batch.clear();
+				}
 			} catch (InterruptedException e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
 		}
 
+		// Finish any work that was queued before the provider was stopped
+		while (taskQueue.drainTo(batch, maxBatchSize) > 0) {
+			processBatch(batch);
+			batch.clear();
+		}
+
+		// Save the header index before shutting down
+		if (indexDirty.get()) {
+			writeItemIndex();
+		}
+
+	}
+
+	/**
+	 * This operation returns the key used to coalesce a task in the map of
+	 * pending tasks.
+	 *
+	 * @param task
+	 *            The task
+	 * @return The id of the Item for persist tasks, the full path of the file
+	 *         for write tasks, or null for all other tasks, which are never
+	 *         coalesced.
+	 */
+	private Object getTaskKey(QueuedTask task) {
+
+		// Local Declarations
+		Object key = null;
+
+		if ("persist".equals(task.task) && task.item != null) {
+			key = task.item.getId();
+		} else if ("write".equals(task.task) && task.file != null) {
+			key = task.file.getFullPath();
+		}
+
+		return key;
+	}
+
+	/**
+	 * This operation adds a task to the queue. If it is a persist or write
+	 * task and a task for the same Item or file is still waiting in the queue,
+	 * the waiting task is updated with the new contents instead. Delete tasks
+	 * cancel any persist that is waiting for the same Item.
+	 *
+	 * @param task
+	 *            The task to queue
+	 * @return True if the task was queued or merged, false otherwise
+	 */
+	private boolean queueTask(QueuedTask task) {
+
+		// Local Declarations
+		boolean retVal = true;
+		Object key = getTaskKey(task);
+
+		synchronized (pendingTasks) {
+			QueuedTask pendingTask = (key != null) ? pendingTasks.get(key)
+					: null;
+			if (pendingTask != null) {
+				// Merge it into the waiting task
+				pendingTask.item = task.item;
+				pendingTask.form = task.form;
+				pendingTask.file = task.file;
+				coalescedWriteCount.incrementAndGet();
+			} else {
+				// Cancel waiting persists for deleted Items
+				if ("delete".equals(task.task)) {
+					QueuedTask persistTask = pendingTasks.remove(task.item
+							.getId());
+					if (persistTask != null) {
+						persistTask.task = "cancelled";
+						coalescedWriteCount.incrementAndGet();
+					}
+				}
+				// Submit the task
+				try {
+					taskQueue.add(task);
+					if (key != null) {
+						pendingTasks.put(key, task);
+					}
+				} catch (Exception exception) {
+					// Complain
+					exception.printStackTrace();
+					retVal = false;
+				}
+			}
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * This operation returns the number of tasks that are waiting in the
+	 * queue.
+	 *
+	 * @return The queue depth
+	 */
+	public int getQueueDepth() {
+		return taskQueue.size();
+	}
+
+	/**
+	 * This operation returns the number of persist, update or write requests
+	 * that did not cause a separate write because they were merged into a
+	 * request that was already waiting in the queue or cancelled by a delete.
+	 *
+	 * @return The number of coalesced writes
+	 */
+	public long getCoalescedWriteCount() {
+		return coalescedWriteCount.get();
+	}
+
+	/**
+	 * This operation returns the number of files written by the provider.
+	 *
+	 * @return The number of writes
+	 */
+	public long getWriteCount() {
+		return writeCount.get();
+	}
+
+	/**
+	 * This operation returns the number of batches of tasks that the provider
+	 * has processed.
+	 *
+	 * @return The number of batches
+	 */
+	public long getFlushCount() {
+		return flushCount.get();
+	}
+
+	/**
+	 * This operation returns the time that it took to process the last batch
+	 * of tasks.
+	 *
+	 * @return The latency in milliseconds
+	 */
+	public double getLastFlushLatency() {
+		return lastFlushLatency.get() / 1.0e6;
+	}
+
+	/**
+	 * This operation returns the longest time that it took to process a batch
+	 * of tasks.
+	 *
+	 * @return The latency in milliseconds
+	 */
+	public double getMaxFlushLatency() {
+		return maxFlushLatency.get() / 1.0e6;
+	}
+
+	/**
+	 * This operation returns the average time that it took to process a batch
+	 * of tasks.
+	 *
+	 * @return The latency in milliseconds or zero if no batches have been
+	 *         processed
+	 */
+	public double getMeanFlushLatency() {
+		long count = flushCount.get();
+		return (count > 0) ? totalFlushLatency.get() / 1.0e6 / count : 0.0;
 	}
 
 	/**
@@ -581,13 +1225,7 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			task.item = item;
 			task.task = taskName;
 			// Submit the task
-			try {
-				taskQueue.add(task);
-			} catch (Exception exception) {
-				// Complain
-				exception.printStackTrace();
-				retVal = false;
-			}
+			retVal = queueTask(task);
 		} else if (form != null && file != null) {
 			// Otherwise submit the task if the Form and IFile are good (for the
 			// IWriter interface). Setup the task.
@@ -595,13 +1233,7 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			task.form = form;
 			task.file = file;
 			// Submit the task
-			try {
-				taskQueue.add(task);
-			} catch (Exception exception) {
-				// Complain
-				exception.printStackTrace();
-				retVal = false;
-			}
+			retVal = queueTask(task);
 		} else {
 			// The submission was invalid
 			retVal = false;
@@ -641,12 +1273,12 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			// If the map contains the item, load it.
 			fileName = itemIdMap.get(itemID);
 			if (fileName != null) {
-				// Create the unmarshaller and load the item
-				Unmarshaller unmarshaller = context.createUnmarshaller();
-				item = (Item) unmarshaller.unmarshal(project.getFile(fileName)
-						.getContents());
+				// Load the item with a pooled unmarshaller
+				try (InputStream stream = openStream(project.getFile(fileName))) {
+					item = (Item) JAXBContextCache.unmarshal(context, stream);
+				}
 			}
-		} catch (CoreException e) {
+		} catch (CoreException | IOException e) {
 			// Complain
 			e.printStackTrace();
 			// Null out the Item so that it can't be returned uninitialized
@@ -680,7 +1312,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 * and only returns false if an exception is thrown.
 	 * 
 	 * This operation is identical to calling persistItem() because there is no
-	 * way to do an efficient merge of the XML files.
+	 * way to do an efficient merge of the XML files. Updates that arrive while
+	 * an earlier update of the same Item is still waiting in the queue are
+	 * merged into it.
 	 * 
 	 * @param item
 	 *            Item to update.
@@ -702,18 +1336,366 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		// Local Declarations
 		ArrayList<Item> items = new ArrayList<Item>();
-		Set<Integer> keys = itemIdMap.keySet();
-		Item item = null;
+		ArrayList<Future<Item>> loads = new ArrayList<Future<Item>>();
+		Set<Integer> keys = new TreeSet<Integer>(itemIdMap.keySet());
+		ExecutorService loaderPool = Executors
+				.newFixedThreadPool(numLoaderThreads);
+
+		// Load them all in parallel. The files are independent and the
+		// unmarshallers are pooled, so this is safe.
+		for (final int id : keys) {
+			loads.add(loaderPool.submit(new Callable<Item>() {
+				@Override
+				public Item call() {
+					return loadItem(id);
+				}
+			}));
+		}
+		loaderPool.shutdown();
 
-		// Load them all
-		for (int id : keys) {
-			item = loadItem(id);
-			items.add(item);
+		// Collect them in order of their ids
+		for (Future<Item> load : loads) {
+			try {
+				items.add(load.get());
+			} catch (InterruptedException | ExecutionException e) {
+				// Complain
+				e.printStackTrace();
+				items.add(null);
+			}
 		}
 
 		return items;
 	}
 
+	/**
+	 * This operation returns the headers of all of the Items that this
+	 * provider can find without loading their Forms. The headers come from the
+	 * header index, which is stored in the project and kept up to date by the
+	 * event loop. Only the Item files that are missing from the index or have
+	 * changed on disk since it was written are read, and then only up to the
+	 * attributes of their root elements.
+	 * 
+	 * @return A list of the headers of all of the Items in the project space.
+	 */
+	public ArrayList<ItemHeader> loadItemHeaders() {
+
+		// Local Declarations
+		ArrayList<ItemHeader> headers = new ArrayList<ItemHeader>();
+		Set<Integer> keys = new TreeSet<Integer>(itemIdMap.keySet());
+
+		// Read the stored index if this is the first request
+		if (!indexLoaded.getAndSet(true)) {
+			readItemIndex();
+		}
+
+		// Check each Item against the index
+		for (int id : keys) {
+			String fileName = itemIdMap.get(id);
+			IFile file = (fileName != null) ? project.getFile(fileName) : null;
+			if (file == null || !file.exists()) {
+				continue;
+			}
+			IndexEntry entry = itemIndex.get(id);
+			// Read the header from the file if the entry is missing or stale
+			if (entry == null || !fileName.equals(entry.fileName)
+					|| entry.timeStamp != file.getLocalTimeStamp()) {
+				ItemHeader header = readItemHeader(file);
+				if (header == null) {
+					continue;
+				}
+				entry = indexItem(header, file);
+			}
+			headers.add((ItemHeader) entry.header.clone());
+		}
+
+		// Drop entries for Items that no longer exist
+		for (Integer id : new ArrayList<Integer>(itemIndex.keySet())) {
+			if (!itemIdMap.containsKey(id)) {
+				itemIndex.remove(id);
+				indexDirty.set(true);
+			}
+		}
+
+		return headers;
+	}
+
+	/**
+	 * This operation adds or replaces the header for an Item in the header
+	 * index.
+	 * 
+	 * @param header
+	 *            The header of the Item
+	 * @param file
+	 *            The file in which the Item is stored
+	 * @return The new entry in the index
+	 */
+	private IndexEntry indexItem(ItemHeader header, IFile file) {
+
+		IndexEntry entry = new IndexEntry();
+		entry.header = header;
+		entry.fileName = file.getName();
+		entry.timeStamp = file.getLocalTimeStamp();
+		itemIndex.put(header.getId(), entry);
+		indexDirty.set(true);
+
+		return entry;
+	}
+
+	/**
+	 * This operation reads the header of an Item from its file. Only the
+	 * attributes of the root element are read; the Form is skipped.
+	 * 
+	 * @param file
+	 *            The file that contains the Item
+	 * @return The header or null if it could not be read
+	 */
+	private ItemHeader readItemHeader(IFile file) {
+
+		// Local Declarations
+		ItemHeader header = null;
+		InputStream stream = null;
+		XMLStreamReader reader = null;
+
+		try {
+			stream = openStream(file);
+			reader = XMLInputFactory.newInstance().createXMLStreamReader(
+					stream);
+			// Move to the root element and read its attributes
+			while (reader.hasNext()
+					&& reader.next() != XMLStreamConstants.START_ELEMENT) {
+				// Skip the prolog
+			}
+			if (reader.isStartElement()) {
+				header = readHeaderAttributes(reader);
+			}
+		} catch (CoreException | XMLStreamException | IOException e) {
+			// Complain
+			e.printStackTrace();
+			System.out.println("XMLPersistenceProvider Message: "
+					+ "Unable to read Item header from " + file.getName());
+		} finally {
+			closeQuietly(reader, stream);
+		}
+
+		return header;
+	}
+
+	/**
+	 * This operation creates an ItemHeader from the attributes of the current
+	 * element of the reader. The attribute names are the same as those that
+	 * JAXB writes for Items.
+	 * 
+	 * @param reader
+	 *            The reader, positioned at a start element
+	 * @return The header
+	 */
+	private ItemHeader readHeaderAttributes(XMLStreamReader reader) {
+
+		// Local Declarations
+		ItemHeader header = new ItemHeader();
+		String value;
+
+		value = reader.getAttributeValue(null, "id");
+		if (value != null) {
+			header.setId(Integer.parseInt(value));
+		}
+		value = reader.getAttributeValue(null, "name");
+		if (value != null) {
+			header.setName(value);
+		}
+		value = reader.getAttributeValue(null, "description");
+		if (value != null) {
+			header.setDescription(value);
+		}
+		value = reader.getAttributeValue(null, "builderName");
+		header.setItemBuilderName(value);
+		value = reader.getAttributeValue(null, "itemType");
+		if (value != null) {
+			try {
+				header.setItemType(ItemType.valueOf(value));
+			} catch (IllegalArgumentException e) {
+				// Keep the default type
+			}
+		}
+		value = reader.getAttributeValue(null, "status");
+		if (value != null) {
+			header.setStatus(statusFromXML(value));
+		}
+
+		return header;
+	}
+
+	/**
+	 * This operation converts a FormStatus to the value that JAXB uses for it
+	 * in XML.
+	 * 
+	 * @param status
+	 *            The status
+	 * @return The XML value of the status
+	 */
+	private static String statusToXML(FormStatus status) {
+
+		// Local Declarations
+		String value = status.name();
+
+		// Use the value from the JAXB annotation if there is one
+		try {
+			XmlEnumValue enumValue = FormStatus.class.getField(status.name())
+					.getAnnotation(XmlEnumValue.class);
+			if (enumValue != null) {
+				value = enumValue.value();
+			}
+		} catch (NoSuchFieldException e) {
+			// Use the name
+		}
+
+		return value;
+	}
+
+	/**
+	 * This operation converts the value that JAXB uses for a FormStatus in XML
+	 * back to the FormStatus.
+	 * 
+	 * @param value
+	 *            The XML value of the status
+	 * @return The status or null if the value is not recognized
+	 */
+	private static FormStatus statusFromXML(String value) {
+
+		for (FormStatus status : FormStatus.values()) {
+			if (statusToXML(status).equals(value)
+					|| status.name().equals(value)) {
+				return status;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * This operation reads the header index from the project.
+	 */
+	private void readItemIndex() {
+
+		// Local Declarations
+		IFile file = project.getFile(indexFileName);
+		InputStream stream = null;
+		XMLStreamReader reader = null;
+
+		// There is nothing to read if the index has not been written
+		if (!file.exists()) {
+			return;
+		}
+
+		try {
+			stream = file.getContents();
+			reader = XMLInputFactory.newInstance().createXMLStreamReader(
+					stream);
+			// Each Item element holds one entry
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT
+						&& "Item".equals(reader.getLocalName())) {
+					IndexEntry entry = new IndexEntry();
+					entry.header = readHeaderAttributes(reader);
+					entry.fileName = reader.getAttributeValue(null, "file");
+					String timeStamp = reader.getAttributeValue(null,
+							"timeStamp");
+					entry.timeStamp = (timeStamp != null) ? Long
+							.parseLong(timeStamp) : IResource.NULL_STAMP;
+					itemIndex.put(entry.header.getId(), entry);
+				}
+			}
+		} catch (CoreException | XMLStreamException | NumberFormatException e) {
+			// A broken index is rebuilt from the Item files.
+			e.printStackTrace();
+			itemIndex.clear();
+		} finally {
+			closeQuietly(reader, stream);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes the header index to the project. It is only called
+	 * from the event loop.
+	 */
+	private void writeItemIndex() {
+
+		// Local Declarations
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		IFile file = project.getFile(indexFileName);
+
+		indexDirty.set(false);
+		try {
+			XMLStreamWriter writer = XMLOutputFactory.newInstance()
+					.createXMLStreamWriter(outputStream, "UTF-8");
+			writer.writeStartDocument("UTF-8", "1.0");
+			writer.writeStartElement("ItemIndex");
+			for (IndexEntry entry : new ArrayList<IndexEntry>(
+					itemIndex.values())) {
+				ItemHeader header = entry.header;
+				writer.writeStartElement("Item");
+				writer.writeAttribute("id", String.valueOf(header.getId()));
+				writer.writeAttribute("name", header.getName());
+				writer.writeAttribute("description", header.getDescription());
+				if (header.getItemBuilderName() != null) {
+					writer.writeAttribute("builderName",
+							header.getItemBuilderName());
+				}
+				writer.writeAttribute("itemType", header.getItemType().name());
+				if (header.getStatus() != null) {
+					writer.writeAttribute("status",
+							statusToXML(header.getStatus()));
+				}
+				writer.writeAttribute("file", entry.fileName);
+				writer.writeAttribute("timeStamp",
+						String.valueOf(entry.timeStamp));
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+
+			// Push it to the file
+			ByteArrayInputStream inputStream = new ByteArrayInputStream(
+					outputStream.toByteArray());
+			if (file.exists()) {
+				file.setContents(inputStream, IResource.FORCE, null);
+			} else {
+				file.create(inputStream, IResource.FORCE, null);
+			}
+		} catch (XMLStreamException | CoreException e) {
+			// Complain and try again later
+			e.printStackTrace();
+			indexDirty.set(true);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation closes a stream reader and its stream, ignoring any
+	 * errors.
+	 * 
+	 * @param reader
+	 *            The reader or null
+	 * @param stream
+	 *            The stream or null
+	 */
+	private void closeQuietly(XMLStreamReader reader, InputStream stream) {
+		try {
+			if (reader != null) {
+				reader.close();
+			}
+			if (stream != null) {
+				stream.close();
+			}
+		} catch (XMLStreamException | IOException e) {
+			// Nothing to do
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -766,15 +1748,13 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		Form form = null;
 
-		try {
-			// Create the marshaller
-			Unmarshaller unmarshaller = context.createUnmarshaller();
-			// Grab the form
-			form = (Form) unmarshaller.unmarshal(file.getContents());
+		try (InputStream stream = openStream(file)) {
+			// Grab the form with a pooled unmarshaller
+			form = (Form) JAXBContextCache.unmarshal(context, stream);
 		} catch (JAXBException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
-		} catch (CoreException e) {
+		} catch (CoreException | IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
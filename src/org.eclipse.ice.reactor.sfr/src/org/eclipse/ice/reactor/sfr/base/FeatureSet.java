@@ -15,6 +15,7 @@ package org.eclipse.ice.reactor.sfr.base;
 import org.eclipse.ice.analysistool.IData;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * <p>
@@ -23,18 +24,65 @@ import java.util.ArrayList;
  * SFRData for the same types of features. The getFeature() operation on SFRData
  * should return the same value as the getName() operation on this class.
  * </p>
+ * <p>
+ * SFRData added to the set are not kept. Their values, uncertainties and
+ * positions are copied into primitive columns, and their units are stored
+ * once and only expanded to one String per entry if they differ. The columns
+ * are converted to a list of SFRData the first time getData() is called, and
+ * the set keeps that list from then on so that the list it returns stays
+ * live. Any other IData also switches the set to the list. The package
+ * operations that read a single entry work on either storage so that the
+ * SFReactorIOHandler can write the data without creating the list.
+ * </p>
  * 
  * @author Anna Wojtowicz
  */
 public class FeatureSet {
 	/**
 	 * <p>
-	 * List of IData associated to the FeatureSet.
+	 * List of IData associated to the FeatureSet. This is null while the data
+	 * are stored in the columns.
 	 * </p>
 	 * 
 	 */
 	private ArrayList<IData> iData;
 
+	/**
+	 * The initial capacity of the columns.
+	 */
+	private static final int initialCapacity = 8;
+
+	/**
+	 * The number of entries in the columns.
+	 */
+	private int size = 0;
+
+	/**
+	 * The values of the entries in the columns.
+	 */
+	private double[] values;
+
+	/**
+	 * The uncertainties of the entries in the columns.
+	 */
+	private double[] uncertainties;
+
+	/**
+	 * The (x, y, z) positions of the entries in the columns, three for each
+	 * entry.
+	 */
+	private double[] positions;
+
+	/**
+	 * The units of all of the entries in the columns if they are the same.
+	 */
+	private String units;
+
+	/**
+	 * The units of each entry in the columns or null if they are all the same.
+	 */
+	private String[] mixedUnits;
+
 	/**
 	 * <p>
 	 * Name of the feature.
@@ -66,8 +114,10 @@ public class FeatureSet {
 			name = feature.trim();
 		}
 
-		// Initialize the List of IData.
-		iData = new ArrayList<IData>();
+		// Initialize the columns of data.
+		values = new double[initialCapacity];
+		uncertainties = new double[initialCapacity];
+		positions = new double[3 * initialCapacity];
 
 		return;
 	}
@@ -96,6 +146,9 @@ public class FeatureSet {
 	 */
 	public ArrayList<IData> getData() {
 
+		// The returned list must be live, so convert the columns to the list.
+		toList();
+
 		// By default, return the data stored in this FeatureSet.
 		ArrayList<IData> data = iData;
 
@@ -127,7 +180,15 @@ public class FeatureSet {
 		// If the argument is not null, and the feature name matches, add it to
 		// the List.
 		if (iData != null && iData.getFeature().equals(name)) {
-			success = this.iData.add(iData);
+			// Copy SFRData into the columns if possible. Anything else goes in
+			// the list.
+			if (this.iData == null && isColumnar(iData)) {
+				addToColumns(iData);
+				success = true;
+			} else {
+				toList();
+				success = this.iData.add(iData);
+			}
 		}
 		// Return whether or not the data was successfully added to the List.
 		return success;
@@ -161,11 +222,9 @@ public class FeatureSet {
 
 			// Compare the values between the two objects.
 			if (name != null) {
-				equals = (name.equals(featureSet.name) && iData
-						.equals(featureSet.iData));
+				equals = (name.equals(featureSet.name) && dataEquals(featureSet));
 			} else {
-				equals = (featureSet.name == null && iData
-						.equals(featureSet.iData));
+				equals = (featureSet.name == null && dataEquals(featureSet));
 			}
 		}
 
@@ -188,7 +247,12 @@ public class FeatureSet {
 		if (name != null) {
 			hash += 31 * name.hashCode();
 		}
-		hash += 31 * iData.hashCode();
+		// This is the same as the hash of the list of IData.
+		int dataHash = 1;
+		for (int i = 0, n = size(); i < n; i++) {
+			dataHash = 31 * dataHash + getIData(i).hashCode();
+		}
+		hash += 31 * dataHash;
 
 		return hash;
 	}
@@ -210,10 +274,23 @@ public class FeatureSet {
 		// Copy the name.
 		name = otherObject.name;
 
-		// Copy the contents of the iData List.
-		iData.clear();
-		for (IData data : otherObject.iData) {
-			iData.add(data);
+		// Copy the columns or the contents of the iData List, whichever the
+		// other object uses.
+		if (otherObject.iData == null) {
+			iData = null;
+			size = otherObject.size;
+			values = otherObject.values.clone();
+			uncertainties = otherObject.uncertainties.clone();
+			positions = otherObject.positions.clone();
+			units = otherObject.units;
+			mixedUnits = (otherObject.mixedUnits != null ? otherObject.mixedUnits
+					.clone() : null);
+		} else {
+			toList();
+			iData.clear();
+			for (IData data : otherObject.iData) {
+				iData.add(data);
+			}
 		}
 		return;
 	}
@@ -236,4 +313,205 @@ public class FeatureSet {
 		// Return the newly instantiated object.
 		return object;
 	}
+
+	/**
+	 * Returns the number of IData in the set.
+	 * 
+	 * @return The number of IData.
+	 */
+	int size() {
+		return (iData == null ? size : iData.size());
+	}
+
+	/**
+	 * Returns the value of the IData at the index.
+	 * 
+	 * @param index
+	 *            The index of the IData.
+	 * @return The value.
+	 */
+	double getValue(int index) {
+		return (iData == null ? values[index] : iData.get(index).getValue());
+	}
+
+	/**
+	 * Returns the uncertainty of the IData at the index.
+	 * 
+	 * @param index
+	 *            The index of the IData.
+	 * @return The uncertainty.
+	 */
+	double getUncertainty(int index) {
+		return (iData == null ? uncertainties[index] : iData.get(index)
+				.getUncertainty());
+	}
+
+	/**
+	 * Returns one coordinate of the position of the IData at the index.
+	 * 
+	 * @param index
+	 *            The index of the IData.
+	 * @param axis
+	 *            The coordinate, 0 for x, 1 for y or 2 for z.
+	 * @return The coordinate.
+	 */
+	double getPosition(int index, int axis) {
+		return (iData == null ? positions[3 * index + axis] : iData
+				.get(index).getPosition().get(axis));
+	}
+
+	/**
+	 * Returns the units of the IData at the index.
+	 * 
+	 * @param index
+	 *            The index of the IData.
+	 * @return The units.
+	 */
+	String getUnits(int index) {
+		if (iData != null) {
+			return iData.get(index).getUnits();
+		}
+		return (mixedUnits == null ? units : mixedUnits[index]);
+	}
+
+	/**
+	 * Returns true if the IData can be stored in the columns. Only SFRData
+	 * (not subclasses) with a full (x, y, z) position can be, since the
+	 * columns are converted back to SFRData.
+	 * 
+	 * @param data
+	 *            The IData to check.
+	 * @return True if the IData can be stored in the columns.
+	 */
+	private boolean isColumnar(IData data) {
+
+		if (data.getClass() != SFRData.class) {
+			return false;
+		}
+		ArrayList<Double> position = data.getPosition();
+		return position != null && position.size() == 3
+				&& !position.contains(null);
+	}
+
+	/**
+	 * Copies the contents of the SFRData to the end of the columns. The
+	 * SFRData itself is not kept.
+	 * 
+	 * @param data
+	 *            The SFRData to copy.
+	 */
+	private void addToColumns(IData data) {
+
+		// Grow the columns if needed.
+		if (size == values.length) {
+			int capacity = 2 * values.length;
+			values = Arrays.copyOf(values, capacity);
+			uncertainties = Arrays.copyOf(uncertainties, capacity);
+			positions = Arrays.copyOf(positions, 3 * capacity);
+			if (mixedUnits != null) {
+				mixedUnits = Arrays.copyOf(mixedUnits, capacity);
+			}
+		}
+
+		// Copy the value, uncertainty and position.
+		ArrayList<Double> position = data.getPosition();
+		values[size] = data.getValue();
+		uncertainties[size] = data.getUncertainty();
+		positions[3 * size] = position.get(0);
+		positions[3 * size + 1] = position.get(1);
+		positions[3 * size + 2] = position.get(2);
+
+		// Store the units once unless they differ from the others.
+		String newUnits = data.getUnits();
+		if (mixedUnits == null) {
+			if (size == 0) {
+				units = newUnits;
+			} else if (units == null ? newUnits != null : !units
+					.equals(newUnits)) {
+				mixedUnits = new String[values.length];
+				Arrays.fill(mixedUnits, 0, size, units);
+			}
+		}
+		if (mixedUnits != null) {
+			mixedUnits[size] = newUnits;
+		}
+		size++;
+
+		return;
+	}
+
+	/**
+	 * Returns the IData at the index. If the data are in the columns, a new
+	 * SFRData is created.
+	 * 
+	 * @param index
+	 *            The index of the IData.
+	 * @return The IData.
+	 */
+	private IData getIData(int index) {
+
+		// Use the list if the columns have been converted.
+		if (iData != null) {
+			return iData.get(index);
+		}
+
+		// Otherwise create an SFRData from the columns.
+		SFRData data = new SFRData(name);
+		data.setValue(values[index]);
+		data.setUncertainty(uncertainties[index]);
+		data.setUnits(getUnits(index));
+		ArrayList<Double> position = data.getPosition();
+		position.set(0, positions[3 * index]);
+		position.set(1, positions[3 * index + 1]);
+		position.set(2, positions[3 * index + 2]);
+
+		return data;
+	}
+
+	/**
+	 * Converts the columns to the list of IData if that has not already been
+	 * done. The columns are released afterward.
+	 */
+	private void toList() {
+
+		if (iData == null) {
+			ArrayList<IData> list = new ArrayList<IData>(Math.max(size, 10));
+			for (int i = 0; i < size; i++) {
+				list.add(getIData(i));
+			}
+			iData = list;
+
+			// Release the columns.
+			size = 0;
+			values = null;
+			uncertainties = null;
+			positions = null;
+			units = null;
+			mixedUnits = null;
+		}
+
+		return;
+	}
+
+	/**
+	 * Compares the IData in this set with the IData in another set, in order,
+	 * with the equals() operation of the IData.
+	 * 
+	 * @param featureSet
+	 *            The other set.
+	 * @return True if both sets contain equal IData.
+	 */
+	private boolean dataEquals(FeatureSet featureSet) {
+
+		int n = size();
+		if (n != featureSet.size()) {
+			return false;
+		}
+		for (int i = 0; i < n; i++) {
+			if (!getIData(i).equals(featureSet.getIData(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
 }
\ No newline at end of file
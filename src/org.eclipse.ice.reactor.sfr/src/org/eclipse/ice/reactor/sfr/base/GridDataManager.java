@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.ice.reactor.sfr.base;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -21,15 +22,24 @@ import java.util.TreeMap;
  * in the grid. Because the client class already has a GridManager to maintain
  * locations, this class removes the burden of managing the data providers when
  * that functionality is so closely tied to managing the grid locations.
+ * <p>
+ * Like the locations in the GridManager, the IDataProviders are stored in a
+ * dense array indexed by location, and only locations beyond the dense limit
+ * are kept in a sparse Map.
  * 
  * @author Jordan H. Deyton
  * 
  */
 public class GridDataManager extends GridManager {
 
-	// A map of IDataProviders (typically SFRComponents) keyed on the locations.
-	// Updates to the super class' location sshould also be reflected in this.
-	private Map<Integer, SFRComponent> dataProviders;
+	// An array of IDataProviders (typically SFRComponents) indexed by the
+	// locations. Updates to the super class' location should also be reflected
+	// in this. It grows as locations are filled.
+	private SFRComponent[] dataProviders;
+
+	// A map of IDataProviders keyed on the locations that are too large for
+	// the array.
+	private Map<Integer, SFRComponent> sparseDataProviders;
 
 	// FIXME - For now, we need to use SFRComponents so that data *can be added*
 	// to the IDataProvider. The LWR model currently has an LWRDataProvider,
@@ -44,8 +54,9 @@ public class GridDataManager extends GridManager {
 	public GridDataManager(int size) {
 		super(size);
 
-		// Initialize the Map of IDataProviders.
-		dataProviders = new TreeMap<Integer, SFRComponent>();
+		// Initialize the array and Map of IDataProviders.
+		dataProviders = new SFRComponent[0];
+		sparseDataProviders = new TreeMap<Integer, SFRComponent>();
 
 		return;
 	}
@@ -60,7 +71,44 @@ public class GridDataManager extends GridManager {
 	 *         location is unset.
 	 */
 	public SFRComponent getDataProvider(int location) {
-		return dataProviders.get(location);
+
+		SFRComponent provider = null;
+
+		if (location >= 0 && location < dataProviders.length) {
+			provider = dataProviders[location];
+		} else if (location >= denseLimit) {
+			provider = sparseDataProviders.get(location);
+		}
+		return provider;
+	}
+
+	/**
+	 * Sets the IDataProvider for a valid location.
+	 * 
+	 * @param location
+	 *            The location of the IDataProvider.
+	 * @param provider
+	 *            The IDataProvider or null to remove it.
+	 */
+	private void setDataProvider(int location, SFRComponent provider) {
+
+		if (location >= denseLimit) {
+			if (provider == null) {
+				sparseDataProviders.remove(location);
+			} else {
+				sparseDataProviders.put(location, provider);
+			}
+		} else if (location < dataProviders.length) {
+			dataProviders[location] = provider;
+		} else if (provider != null) {
+			// Grow the array so that the location fits.
+			int length = Math.min(2 * dataProviders.length, denseLimit);
+			dataProviders = Arrays.copyOf(dataProviders,
+					Math.max(length, location + 1));
+			dataProviders[location] = provider;
+		}
+
+		return;
 	}
 
 	/**
@@ -75,7 +123,7 @@ public class GridDataManager extends GridManager {
 
 		// If possible, add a new IDataProvider to the location.
 		if (success) {
-			dataProviders.put(location, new SFRComponent());
+			setDataProvider(location, new SFRComponent());
 		}
 		return success;
 	}
@@ -90,9 +138,9 @@ public class GridDataManager extends GridManager {
 		// By default, we did not succeed in removing the Component location.
 		boolean success = super.removeComponent(location);
 
-		// If possible, remove the associated IDataProvider from the map.
+		// If possible, remove the associated IDataProvider.
 		if (success) {
-			dataProviders.remove(location);
+			setDataProvider(location, null);
 		}
 		return success;
 	}
@@ -110,11 +158,10 @@ public class GridDataManager extends GridManager {
 		// By default, we did not succeed in removing the Component.
 		boolean success = super.removeComponent(name);
 
-		// If possible, remove all of the associated IDataProviders from the
-		// map.
+		// If possible, remove all of the associated IDataProviders.
 		if (success) {
 			for (int location : locations) {
-				dataProviders.remove(location);
+				setDataProvider(location, null);
 			}
 		}
 		return success;
@@ -143,9 +190,18 @@ public class GridDataManager extends GridManager {
 			// We can now cast the other object.
 			GridDataManager manager = (GridDataManager) otherObject;
 
-			// Compare the values between the two objects.
-			equals = (super.equals(manager) && dataProviders
-					.equals(manager.dataProviders));
+			// Compare the values between the two objects. The arrays may have
+			// different lengths, so compare each location.
+			equals = (super.equals(manager) && sparseDataProviders
+					.equals(manager.sparseDataProviders));
+			int length = Math.max(dataProviders.length,
+					manager.dataProviders.length);
+			for (int location = 0; equals && location < length; location++) {
+				SFRComponent provider = getDataProvider(location);
+				SFRComponent otherProvider = manager.getDataProvider(location);
+				equals = (provider == null ? otherProvider == null : provider
+						.equals(otherProvider));
+			}
 		}
 
 		return equals;
@@ -163,8 +219,15 @@ public class GridDataManager extends GridManager {
 		// Static hash at 31.
 		int hash = super.hashCode();
 
-		// Add local hashes.
-		hash += 31 * dataProviders.hashCode();
+		// Add local hashes. Each IDataProvider is hashed like an entry in a
+		// Map keyed on the locations.
+		int providerHash = sparseDataProviders.hashCode();
+		for (int location = 0; location < dataProviders.length; location++) {
+			if (dataProviders[location] != null) {
+				providerHash += location ^ dataProviders[location].hashCode();
+			}
+		}
+		hash += 31 * providerHash;
 
 		return hash;
 	}
@@ -185,9 +248,10 @@ public class GridDataManager extends GridManager {
 		}
 		super.copy(otherObject);
 
-		// Copy the Map.
-		dataProviders.clear();
-		dataProviders.putAll(otherObject.dataProviders);
+		// Copy the array and Map.
+		dataProviders = otherObject.dataProviders.clone();
+		sparseDataProviders.clear();
+		sparseDataProviders.putAll(otherObject.sparseDataProviders);
 
 		return;
 	}
@@ -4,7 +4,7 @@
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
  * http://www.eclipse.org/legal/epl-v10.html
- *
+ * 
  * Contributors:
  *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
  *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
@@ -13,11 +13,11 @@
 package org.eclipse.ice.reactor.sfr.base;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Map.Entry;
 import java.util.TreeMap;
 
 /**
@@ -26,12 +26,25 @@ import java.util.TreeMap;
  * <p>
  * Classes that employ this GridManager are expected to translate between their
  * own geometric coordinate system and 0-based indexes used within this class.
+ * <p>
+ * Component names are interned into a table of integer IDs, and the ID of the
+ * Component at each location is stored in a dense array indexed by location.
+ * Each ID also keeps an array of the locations it occupies. Locations at or
+ * beyond {@link #denseLimit}, which are only possible for unbounded managers,
+ * are kept in a sparse Map instead.
  * 
  * @author Jordan H. Deyton
  * 
  */
 public class GridManager implements IGridManager {
 
+	/**
+	 * <!-- begin-UML-doc --> The first location that is not stored in the
+	 * dense arrays. Larger locations are stored in sparse Maps. <!--
+	 * end-UML-doc -->
+	 */
+	static final int denseLimit = 1 << 20;
+
 	/**
 	 * <!-- begin-UML-doc --> The size of the list of possible locations. This
 	 * is considered the maximum index plus 1. <!-- end-UML-doc -->
@@ -39,19 +52,49 @@ public class GridManager implements IGridManager {
 	private int size;
 
 	/**
-	 * <!-- begin-UML-doc --> A Map of Components keyed on their names. Each
-	 * entry contains a Set of locations for quickly looking up all the
-	 * locations for a particular Component. <!-- end-UML-doc -->
+	 * <!-- begin-UML-doc --> The names of the Components keyed on their IDs.
+	 * IDs that are not in use have null names. <!-- end-UML-doc -->
+	 */
+	private ArrayList<String> names;
+
+	/**
+	 * <!-- begin-UML-doc --> A Map of Component IDs keyed on their names. Only
+	 * Components that occupy at least one location are in the Map. <!--
+	 * end-UML-doc -->
+	 */
+	private Map<String, Integer> nameIds;
+
+	/**
+	 * <!-- begin-UML-doc --> IDs that were released when their Components left
+	 * the grid and that can be reused. <!-- end-UML-doc -->
 	 */
-	private Map<String, Set<Integer>> components;
+	private ArrayList<Integer> freeIds;
 
 	/**
-	 * <!-- begin-UML-doc --> A Map of locations keyed on their index. Each
-	 * entry contains the name of the Component at that location. If the
-	 * location is not in the Map, the value should be null. <!-- end-UML-doc
-	 * -->
+	 * <!-- begin-UML-doc --> The locations occupied by each Component, keyed
+	 * on the Component ID. Only the first nameCounts[id] locations of each
+	 * array are valid, and they are not sorted. <!-- end-UML-doc -->
 	 */
-	private Map<Integer, String> locations;
+	private int[][] nameLocations;
+
+	/**
+	 * <!-- begin-UML-doc --> The number of locations occupied by each
+	 * Component, keyed on the Component ID. <!-- end-UML-doc -->
+	 */
+	private int[] nameCounts;
+
+	/**
+	 * <!-- begin-UML-doc --> The ID plus 1 of the Component at each location
+	 * below {@link #denseLimit}. A value of 0 means the location is empty. The
+	 * array grows as locations are filled. <!-- end-UML-doc -->
+	 */
+	private int[] locationIds;
+
+	/**
+	 * <!-- begin-UML-doc --> The IDs of the Components at locations at or
+	 * beyond {@link #denseLimit}, keyed on the location. <!-- end-UML-doc -->
+	 */
+	private Map<Integer, Integer> sparseLocationIds;
 
 	/**
 	 * <!-- begin-UML-doc --> The default constructor. <!-- end-UML-doc -->
@@ -63,9 +106,122 @@ public class GridManager implements IGridManager {
 
 		this.size = (size > 0 ? size : Integer.MAX_VALUE);
 
-		components = new HashMap<String, Set<Integer>>();
+		names = new ArrayList<String>();
+		nameIds = new HashMap<String, Integer>();
+		freeIds = new ArrayList<Integer>();
+		nameLocations = new int[4][];
+		nameCounts = new int[4];
+
+		// Bounded grids get all of their locations up front. Unbounded grids
+		// grow as needed.
+		locationIds = new int[this.size <= denseLimit ? this.size : 16];
+		sparseLocationIds = new TreeMap<Integer, Integer>();
+
+		return;
+	}
+
+	/**
+	 * <!-- begin-UML-doc --> Gets the ID of the Component at a valid location.
+	 * <!-- end-UML-doc -->
+	 * 
+	 * @param location
+	 *            The location index.
+	 * @return The ID of the Component or -1 if the location is empty.
+	 */
+	private int getNameId(int location) {
+
+		int id = -1;
+
+		if (location < locationIds.length) {
+			id = locationIds[location] - 1;
+		} else if (location >= denseLimit) {
+			Integer sparseId = sparseLocationIds.get(location);
+			if (sparseId != null) {
+				id = sparseId;
+			}
+		}
+
+		return id;
+	}
+
+	/**
+	 * <!-- begin-UML-doc --> Sets the ID of the Component at a valid location.
+	 * <!-- end-UML-doc -->
+	 * 
+	 * @param location
+	 *            The location index.
+	 * @param id
+	 *            The ID of the Component or -1 to empty the location.
+	 */
+	private void setNameId(int location, int id) {
+
+		if (location >= denseLimit) {
+			if (id < 0) {
+				sparseLocationIds.remove(location);
+			} else {
+				sparseLocationIds.put(location, id);
+			}
+		} else if (location < locationIds.length || id >= 0) {
+			// Grow the dense array if the location does not fit yet.
+			if (location >= locationIds.length) {
+				int length = Math.min(2 * locationIds.length,
+						Math.min(size, denseLimit));
+				locationIds = Arrays.copyOf(locationIds,
+						Math.max(length, location + 1));
+			}
+			locationIds[location] = id + 1;
+		}
+
+		return;
+	}
+
+	/**
+	 * <!-- begin-UML-doc --> Gets the ID of a Component name, creating a new
+	 * ID if the Component is not in the grid. <!-- end-UML-doc -->
+	 * 
+	 * @param name
+	 *            The name of the Component.
+	 * @return The ID of the Component.
+	 */
+	private int internName(String name) {
+
+		Integer id = nameIds.get(name);
+
+		if (id == null) {
+			// Reuse a released ID if possible.
+			if (!freeIds.isEmpty()) {
+				id = freeIds.remove(freeIds.size() - 1);
+				names.set(id, name);
+			} else {
+				id = names.size();
+				names.add(name);
+				if (id == nameCounts.length) {
+					nameCounts = Arrays.copyOf(nameCounts, 2 * id);
+					nameLocations = Arrays.copyOf(nameLocations, 2 * id);
+				}
+			}
+			nameIds.put(name, id);
+			nameLocations[id] = new int[4];
+			nameCounts[id] = 0;
+		}
 
-		locations = new TreeMap<Integer, String>();
+		return id;
+	}
+
+	/**
+	 * <!-- begin-UML-doc --> Releases the ID of a Component that no longer
+	 * occupies any locations. <!-- end-UML-doc -->
+	 * 
+	 * @param id
+	 *            The ID of the Component.
+	 */
+	private void releaseName(int id) {
+
+		nameIds.remove(names.get(id));
+		names.set(id, null);
+		nameLocations[id] = null;
+		nameCounts[id] = 0;
+		freeIds.add(id);
 
 		return;
 	}
@@ -83,7 +239,10 @@ public class GridManager implements IGridManager {
 		String name = null;
 
 		if (location >= 0 && location < size) {
-			name = locations.get(location);
+			int id = getNameId(location);
+			if (id >= 0) {
+				name = names.get(id);
+			}
 		}
 		return name;
 	}
@@ -94,17 +253,20 @@ public class GridManager implements IGridManager {
 	 * 
 	 * @param name
 	 *            The name of the Component to search for.
-	 * @return A List of location indexes or an empty List if the Component is
-	 *         invalid.
+	 * @return A List of location indexes in ascending order or an empty List
+	 *         if the Component is invalid.
 	 */
 	public List<Integer> getComponentLocations(String name) {
 
 		List<Integer> locations = new ArrayList<Integer>();
 
 		if (name != null) {
-			Set<Integer> indexes = components.get(name);
+			Integer id = nameIds.get(name);
 
-			if (indexes != null) {
+			if (id != null) {
+				int[] indexes = Arrays.copyOf(nameLocations[id],
+						nameCounts[id]);
+				Arrays.sort(indexes);
 				for (int index : indexes) {
 					locations.add(index);
 				}
@@ -133,35 +295,30 @@ public class GridManager implements IGridManager {
 
 		if (name != null && location >= 0 && location < size) {
 
-			// Get the Set of indexes this Component occupies.
-			Set<Integer> indexes = components.get(name);
-			if (indexes == null) {
-				indexes = new HashSet<Integer>();
-				components.put(name, indexes);
-			}
-
-			// Add this location to that Set. It will return true if the
-			// location did not previously exist in the Set.
-			if (indexes.add(location)) {
+			// Get the ID of this Component and the one in the location.
+			int id = internName(name);
+			int oldId = getNameId(location);
 
-				// Update the Map of locations.
-				String oldName = locations.put(location, name);
+			// Only add it if it does not already occupy the location.
+			if (id != oldId) {
 
 				// If there was a previous Component in that location, update
-				// its
-				// Set of locations.
-				if (oldName != null && !oldName.equals(name)) {
-					indexes = components.get(oldName);
-					indexes.remove(location);
-
-					// If it no longer resides in any locations, remove it from
-					// the
-					// Map of Components.
-					if (indexes.isEmpty()) {
-						components.remove(oldName);
-					}
+				// its locations.
+				if (oldId >= 0) {
+					removeLocation(oldId, location);
 				}
 
+				// Put the Component in the location and add the location to
+				// its array of locations.
+				setNameId(location, id);
+				int count = nameCounts[id];
+				if (count == nameLocations[id].length) {
+					nameLocations[id] = Arrays.copyOf(nameLocations[id],
+							2 * count);
+				}
+				nameLocations[id][count] = location;
+				nameCounts[id] = count + 1;
+
 				// We have successfully added the Component to the location.
 				success = true;
 			}
@@ -170,6 +327,37 @@ public class GridManager implements IGridManager {
 		return success;
 	}
 
+	/**
+	 * <!-- begin-UML-doc --> Removes a location from the array of locations of
+	 * a Component. If it no longer resides in any locations, its ID is
+	 * released. <!-- end-UML-doc -->
+	 * 
+	 * @param id
+	 *            The ID of the Component.
+	 * @param location
+	 *            The location to remove.
+	 */
+	private void removeLocation(int id, int location) {
+
+		int[] indexes = nameLocations[id];
+		int count = nameCounts[id] - 1;
+
+		// Find the location and replace it with the last one.
+		for (int i = count; i >= 0; i--) {
+			if (indexes[i] == location) {
+				indexes[i] = indexes[count];
+				break;
+			}
+		}
+		nameCounts[id] = count;
+
+		if (count == 0) {
+			releaseName(id);
+		}
+
+		return;
+	}
+
 	/**
 	 * <!-- begin-UML-doc --> Dissociates the Component at a specified location
 	 * with that location. If the location has a corresponding Component, this
@@ -186,23 +374,14 @@ public class GridManager implements IGridManager {
 		boolean success = false;
 
 		if (location >= 0 && location < size) {
-			String name = locations.remove(location);
+			int id = getNameId(location);
 
 			// If there was a previous Component in that location, update its
-			// Set of locations.
-			if (name != null) {
-				Set<Integer> indexes = components.get(name);
-
-				// Remove the specified location from the Component's list of
-				// locations. This operation will return true if the location
-				// was valid.
-				success = indexes.remove(location);
-
-				// If it no longer resides in any locations, remove it from the
-				// Map of Components.
-				if (indexes.isEmpty()) {
-					components.remove(name);
-				}
+			// locations.
+			if (id >= 0) {
+				setNameId(location, -1);
+				removeLocation(id, location);
+				success = true;
 			}
 		}
 
@@ -226,11 +405,13 @@ public class GridManager implements IGridManager {
 
 		if (name != null) {
 
-			Set<Integer> indexes = components.remove(name);
-			if (indexes != null) {
-				for (int index : indexes) {
-					locations.remove(index);
+			Integer id = nameIds.get(name);
+			if (id != null) {
+				int[] indexes = nameLocations[id];
+				for (int i = 0; i < nameCounts[id]; i++) {
+					setNameId(indexes[i], -1);
 				}
+				releaseName(id);
 
 				// If we found a valid set of indexes, we have removed the
 				// Component successfully.
@@ -264,10 +445,25 @@ public class GridManager implements IGridManager {
 			// We can now cast the other object.
 			GridManager manager = (GridManager) otherObject;
 
-			// Compare the values between the two objects.
-			equals = (size == manager.size
-					&& components.equals(manager.components) && locations
-					.equals(manager.locations));
+			// Compare the values between the two objects. The IDs may differ,
+			// so each Component must have the same number of locations and
+			// each of its locations must hold the same Component in the other
+			// manager.
+			equals = (size == manager.size && nameIds.size() == manager.nameIds
+					.size());
+			for (Entry<String, Integer> entry : nameIds.entrySet()) {
+				if (!equals) {
+					break;
+				}
+				int id = entry.getValue();
+				Integer otherId = manager.nameIds.get(entry.getKey());
+				equals = (otherId != null
+						&& nameCounts[id] == manager.nameCounts[otherId]);
+				for (int i = 0; equals && i < nameCounts[id]; i++) {
+					equals = (manager.getNameId(nameLocations[id][i]) == otherId
+							.intValue());
+				}
+			}
 		}
 
 		return equals;
@@ -287,8 +483,18 @@ public class GridManager implements IGridManager {
 
 		// Add local hashes.
 		hash += 31 * size;
-		hash += 31 * components.hashCode();
-		hash += 31 * locations.hashCode();
+
+		// Add the hash of each occupied location. This does not depend on the
+		// IDs or the order of the locations.
+		int locationHash = 0;
+		for (Entry<String, Integer> entry : nameIds.entrySet()) {
+			int nameHash = entry.getKey().hashCode();
+			int id = entry.getValue();
+			for (int i = 0; i < nameCounts[id]; i++) {
+				locationHash += nameLocations[id][i] ^ nameHash;
+			}
+		}
+		hash += 31 * locationHash;
 
 		return hash;
 	}
@@ -311,11 +517,22 @@ public class GridManager implements IGridManager {
 		// Copy the size.
 		size = otherObject.size;
 
-		// Copy the two Maps.
-		components.clear();
-		components.putAll(otherObject.components);
-		locations.clear();
-		locations.putAll(otherObject.locations);
+		// Copy the name table.
+		names = new ArrayList<String>(otherObject.names);
+		nameIds = new HashMap<String, Integer>(otherObject.nameIds);
+		freeIds = new ArrayList<Integer>(otherObject.freeIds);
+		nameCounts = otherObject.nameCounts.clone();
+		nameLocations = new int[otherObject.nameLocations.length][];
+		for (int id = 0; id < nameLocations.length; id++) {
+			if (otherObject.nameLocations[id] != null) {
+				nameLocations[id] = otherObject.nameLocations[id].clone();
+			}
+		}
+
+		// Copy the locations.
+		locationIds = otherObject.locationIds.clone();
+		sparseLocationIds = new TreeMap<Integer, Integer>(
+				otherObject.sparseLocationIds);
 
 		return;
 	}
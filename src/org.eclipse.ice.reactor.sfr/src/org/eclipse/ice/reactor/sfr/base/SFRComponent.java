@@ -18,6 +18,7 @@ import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
+import org.eclipse.ice.datastructures.ICEObject.ListenerDispatcher;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 
@@ -170,27 +171,8 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		if (listeners.isEmpty()) {
 			return;
 		}
-		// Notify the listeners through a separate thread.
-		Thread notifierThread = new Thread() {
-			@Override
-			public void run() {
-
-				// Loop over the listeners and update them.
-				for (int i = 0; i < listeners.size(); i++) {
-					listeners.get(i).update(SFRComponent.this);
-				}
-				// FIXME - The iterator-based loop below throws
-				// ConcurrentModificationExceptions. Although the List itself is
-				// not modified, the listeners in it may be.
-				// for (IUpdateableListener listener : listeners)
-				// listener.update(SFRComponent.this);
-
-				return;
-			}
-		};
-
-		// Start the thread to send out the notifications.
-		notifierThread.start();
+		// Notify the listeners through the shared dispatcher.
+		ListenerDispatcher.getInstance().dispatch(this, listeners);
 
 		return;
 	}
@@ -775,6 +757,26 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		return new ArrayList<IData>();
 	}
 
+	/**
+	 * Returns the FeatureSet for the feature at the current time. Unlike
+	 * getDataAtCurrentTime(), this does not convert the columns of the
+	 * FeatureSet to a list of IData, so the SFReactorIOHandler uses it to
+	 * write the data.
+	 * 
+	 * @param feature
+	 *            The feature of the FeatureSet.
+	 * @return The FeatureSet or null if there is no data for the feature at
+	 *         the current time.
+	 */
+	FeatureSet getFeatureSetAtCurrentTime(String feature) {
+
+		// Get the list of FeatureSets at the current time.
+		HashMap<String, FeatureSet> featureSetMap = dataTree.get(time);
+
+		return (featureSetMap != null && feature != null ? featureSetMap
+				.get(feature) : null);
+	}
+
 	/**
 	 * <!-- begin-UML-doc --> Returns an ArrayList of strings representing all
 	 * features found in the SFRComponent's dataTree, at the current time. <!--
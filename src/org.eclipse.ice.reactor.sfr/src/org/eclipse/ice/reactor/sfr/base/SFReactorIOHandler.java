@@ -12,12 +12,11 @@
  *******************************************************************************/
 package org.eclipse.ice.reactor.sfr.base;
 
-import org.eclipse.ice.analysistool.IData;
-
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
@@ -31,6 +30,7 @@ import org.eclipse.ice.reactor.sfr.core.assembly.PinAssembly;
 import org.eclipse.ice.reactor.sfr.core.assembly.PinType;
 import org.eclipse.ice.reactor.sfr.core.assembly.ReflectorAssembly;
 import org.eclipse.ice.reactor.sfr.core.assembly.Ring;
+import org.eclipse.ice.reactor.sfr.core.assembly.SFRAssembly;
 import org.eclipse.ice.reactor.sfr.core.assembly.SFRPin;
 import org.eclipse.ice.reactor.sfr.core.assembly.SFRRod;
 
@@ -46,10 +46,59 @@ import ncsa.hdf.hdf5lib.structs.H5O_info_t;
  * both reads HDF5 data into the SFReactor, and writes from the SFReactor into
  * HDF5 data.
  * </p>
+ * <p>
+ * Reactors may be read without the pins, rods and grid data of their
+ * assemblies, which are then read on demand, and written incrementally, which
+ * only rewrites the assemblies that changed. All HDF5 access goes through the
+ * synchronized public operations of a handler, so a handler may be shared
+ * between threads.
+ * </p>
+ * <p>
+ * Incremental writes compare signatures of the assemblies with the ones from
+ * the last read or write of the file. Computing them costs about as much as
+ * writing the reactor without the file, so they are only computed when they
+ * can be used: by reads that do not load the assemblies and by incremental
+ * writes. The first incremental write after any other read or write of a file
+ * is a full write.
+ * </p>
  * 
  * @author Anna Wojtowicz
  */
 public class SFReactorIOHandler {
+
+	/**
+	 * The assembly types in the order they are read and written.
+	 */
+	private static final AssemblyType[] assemblyTypes = { AssemblyType.Fuel,
+			AssemblyType.Control, AssemblyType.Shield, AssemblyType.Test,
+			AssemblyType.Reflector };
+
+	/**
+	 * The records of the files this handler has read or written, keyed on
+	 * their paths. They are used to find the assemblies that changed for
+	 * incremental writes.
+	 */
+	private final Map<String, FileRecord> fileRecords = new HashMap<String, FileRecord>();
+
+	/**
+	 * How many times larger than its last full write a file may grow through
+	 * incremental writes before the next write is a full write again.
+	 */
+	private static final long maxIncrementalGrowth = 2;
+
+	/**
+	 * The files that hold the pins, rods and grid data of the assemblies that
+	 * have not been loaded yet, keyed on the assemblies. Entries are removed
+	 * when the assemblies are loaded or by {@link #release(SFReactor)}.
+	 */
+	private final Map<SFRAssembly, AssemblySource> unloadedAssemblies = new IdentityHashMap<SFRAssembly, AssemblySource>();
+
+	/**
+	 * The digest that receives the values instead of the file while a
+	 * signature is computed. This is null otherwise.
+	 */
+	private ContentDigest digest = null;
+
 	/**
 	 * <p>
 	 * Nullary constructor.
@@ -69,6 +118,26 @@ public class SFReactorIOHandler {
 	 *         {@code null} if the file could not be opened.
 	 */
 	public SFReactor readHDF5(URI uri) {
+		return readHDF5(uri, true);
+	}
+
+	/**
+	 * Reads data from an input HDF5 file into a SFReactor. If the assemblies
+	 * are not loaded, only the reactor, the attributes of its assemblies and
+	 * their locations in the reactor are read. The pins, rods and grid data of
+	 * each assembly are then read when they are needed with
+	 * {@link #loadAssembly(SFReactor, AssemblyType, String)} or
+	 * {@link #loadAssemblies(SFReactor)}.
+	 * 
+	 * @param uri
+	 *            The URI of the file to read.
+	 * @param loadAssemblies
+	 *            Whether or not to read the pins, rods and grid data of the
+	 *            assemblies now.
+	 * @return A valid {@link SFReactor} if the file could be completely read,
+	 *         {@code null} if the file could not be opened.
+	 */
+	public synchronized SFReactor readHDF5(URI uri, boolean loadAssemblies) {
 
 		// The SFReactor that will receive the data from the file.
 		SFReactor reactor = null;
@@ -99,13 +168,13 @@ public class SFReactorIOHandler {
 		int status;
 
 		// Other IDs for HDF5 components.
-		int fileId, groupId;
-
-		// A stack representing the currently opened groups.
-		Stack<Integer> groupIds = new Stack<Integer>();
+		int fileId = -1, reactorGroupId, typeGroupId, groupId;
 
-		Integer[] intBuffer = new Integer[1];
-		Double[] doubleBuffer = new Double[1];
+		// The signatures of what was read, for incremental writes. They are
+		// only computed if the assemblies are not loaded, which leaves only
+		// their attributes to sign.
+		FileRecord record = new FileRecord();
+		record.signed = !loadAssemblies;
 
 		try {
 			// Open the H5 file with read-only access.
@@ -116,763 +185,1338 @@ public class SFReactorIOHandler {
 			fileId = status;
 
 			// Currently, we only support a single reactor.
-			groupId = groupIds.push(openGroup(fileId, "/SFReactor"));
+			reactorGroupId = openGroup(fileId, "/SFReactor");
 
 			// Get the size of the reactor in the file and initialize it.
-			int size = (Integer) readAttribute(groupId, "size", H5T_NATIVE_INT,
-					intBuffer);
+			int size = (Integer) readAttribute(reactorGroupId, "size",
+					H5T_NATIVE_INT, new Integer[1]);
 			reactor = new SFReactor(size);
 
 			/* ---- Read the reactor's attributes. ---- */
 			// Attributes inherited from SFRComponent.
-			readSFRComponent(reactor, groupId);
+			readSFRComponent(reactor, reactorGroupId);
 
 			// Attributes inherited from SFRComposite.
 			// none
 
 			// SFReactor-specific attributes.
 			// size has already been read.
-			reactor.setLatticePitch((Double) readAttribute(groupId,
+			Double[] doubleBuffer = new Double[1];
+			reactor.setLatticePitch((Double) readAttribute(reactorGroupId,
 					"latticePitch", H5T_NATIVE_DOUBLE, doubleBuffer));
-			reactor.setOuterFlatToFlat((Double) readAttribute(groupId,
+			reactor.setOuterFlatToFlat((Double) readAttribute(reactorGroupId,
 					"outerFlatToFlat", H5T_NATIVE_DOUBLE, doubleBuffer));
 			/* ---------------------------------------- */
 
-			/* ---- Read the reactor's Pin Assemblies. ---- */
-			List<AssemblyType> pinAssemblyTypes = new ArrayList<AssemblyType>();
-			pinAssemblyTypes.add(AssemblyType.Fuel);
-			pinAssemblyTypes.add(AssemblyType.Control);
-			pinAssemblyTypes.add(AssemblyType.Shield);
-			pinAssemblyTypes.add(AssemblyType.Test);
-
-			for (AssemblyType assemblyType : pinAssemblyTypes) {
+			/* ---- Read the reactor's assemblies. ---- */
+			for (AssemblyType assemblyType : assemblyTypes) {
 				// Open the group for this assembly type.
-				groupId = groupIds.push(openGroup(groupIds.peek(),
-						assemblyType.toString()));
+				typeGroupId = openGroup(reactorGroupId, assemblyType.toString());
 
 				// Loop over the child groups in this assembly type's group.
 				// These groups should have the assembly names.
-				for (String assemblyName : getChildNames(groupId,
+				for (String assemblyName : getChildNames(typeGroupId,
 						H5O_TYPE_GROUP)) {
 
 					// Open the group for this assembly.
-					groupId = groupIds.push(openGroup(groupIds.peek(),
-							assemblyName));
-
-					// Read the name, pinType, and size of the assembly.
-					PinType pinType = PinType.valueOf((Integer) readAttribute(
-							groupId, "pinType", H5T_NATIVE_INT, intBuffer));
-					size = (Integer) readAttribute(groupId, "size",
-							H5T_NATIVE_INT, intBuffer);
-
-					// Initialize the assembly.
-					PinAssembly assembly = new PinAssembly(assemblyName,
-							pinType, size);
-
-					/* --- Read the assembly's attributes. --- */
-					// Attributes inherited from SFRComponent.
-					readSFRComponent(assembly, groupId);
-
-					// Attributes inherited from SFRComposite.
-					// none
-
-					// Attributes inherited from SFRAssembly.
-					// size has already been read.
-					assembly.setDuctThickness((Double) readAttribute(groupId,
-							"ductThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
-
-					// PinAssembly-specific attributes.
-					assembly.setPinPitch((Double) readAttribute(groupId,
-							"pinPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
-					// pinType has already been read.
-					assembly.setInnerDuctFlatToFlat((Double) readAttribute(
-							groupId, "innerDuctFlatToFlat", H5T_NATIVE_DOUBLE,
-							doubleBuffer));
-					assembly.setInnerDuctThickness((Double) readAttribute(
-							groupId, "innerDuctThickness", H5T_NATIVE_DOUBLE,
-							doubleBuffer));
-					/* --------------------------------------- */
-
-					/* --- Read the assembly's reactor locations. --- */
-					// Add the assembly to the reactor.
-					reactor.addAssembly(assemblyType, assembly);
-
-					// Set the assembly's locations in the reactor.
-					for (int location : readLocationData(groupId)) {
-						reactor.setAssemblyLocation(assemblyType, assemblyName,
-								location / reactor.getSize(), location
-										% reactor.getSize());
+					groupId = openGroup(typeGroupId, assemblyName);
+
+					// Read the assembly and its locations in the reactor.
+					SFRAssembly assembly = readAssembly(reactor, assemblyType,
+							assemblyName, groupId);
+
+					// Read its contents now or remember where they are.
+					if (loadAssemblies) {
+						readAssemblyContents(assembly, groupId);
+					} else {
+						unloadedAssemblies.put(assembly, new AssemblySource(
+								reactor, path, assemblyType, assemblyName));
 					}
-					/* ---------------------------------------------- */
-
-					/* --- Read the assembly's pins. --- */
-					// Open the group that holds the pins.
-					groupId = groupIds.push(openGroup(groupId, "Pins"));
-
-					// Loop over the child groups in this assembly's Pins group.
-					// These groups should have the pin names.
-					for (String pinName : getChildNames(groupId, H5O_TYPE_GROUP)) {
-
-						// Open the group for this pin.
-						groupId = groupIds.push(openGroup(groupIds.peek(),
-								pinName));
-
-						// So we don't waste time creating default properties
-						// for the pin that will soon be replaced, we should
-						// first read in the physical structure of the pin.
-						Ring cladding = null;
-						Material fillGas = null;
-						TreeSet<MaterialBlock> materialBlocks = null;
-
-						/* -- Read in the cladding. -- */
-						groupId = openGroup(groupId, "cladding");
-						cladding = readRing(groupId);
-						closeGroup(groupId);
-						/* --------------------------- */
 
-						/* -- Read in the fill gas. -- */
-						// Initialize the container for the fill gas.
-						fillGas = new Material();
+					// Close the group for this assembly.
+					closeGroup(groupId);
 
-						// Read the material's attributes.
-						groupId = openGroup(groupIds.peek(), "fillGas");
-						readSFRComponent(fillGas, groupId);
-						closeGroup(groupId);
-						/* --------------------------- */
-
-						/* -- Read in the material blocks. -- */
-						// Initialize the container for the material blocks.
-						materialBlocks = new TreeSet<MaterialBlock>();
-
-						// Open the material blocks group.
-						groupId = groupIds.push(openGroup(groupIds.peek(),
-								"materialBlocks"));
-
-						// Loop over the child groups of materialBlocks. They
-						// correspond to individual MaterialBlocks in the
-						// TreeSet.
-						for (String groupName : getChildNames(groupIds.peek(),
-								H5O_TYPE_GROUP)) {
-							// Initialize a MaterialBlock.
-							MaterialBlock block = new MaterialBlock();
-
-							// Open the MaterialBlock's group.
-							groupId = groupIds.push(openGroup(groupIds.peek(),
-									groupName));
-
-							// Read the block's SFRComponent attributes.
-							readSFRComponent(block, groupId);
-
-							// Read the block's other attributes.
-							block.setVertPosition((Double) readAttribute(
-									groupId, "vertPosition", H5T_NATIVE_DOUBLE,
-									doubleBuffer));
-
-							/* - Read the block's rings. - */
-
-							// Open the Rings group.
-							groupId = groupIds
-									.push(openGroup(groupId, "Rings"));
-
-							// Loop over the child groups of the block. They
-							// correspond to individual rings in the block's
-							// TreeSet.
-							for (String ringGroupName : getChildNames(groupId,
-									H5O_TYPE_GROUP)) {
-								groupId = openGroup(groupIds.peek(),
-										ringGroupName);
-								block.addRing(readRing(groupId));
-								closeGroup(groupId);
-							}
-
-							// Close the Rings group.
-							closeGroup(groupIds.pop());
-							/* --------------------------- */
-
-							// Close the MaterialBlock's group.
-							closeGroup(groupIds.pop());
-
-							// Add the block to materialBlocks (TreeSet).
-							materialBlocks.add(block);
-						}
+					// Store the signature of the assembly as it was read.
+					if (record.signed) {
+						record.signatures.put(
+								getAssemblyKey(assemblyType, assemblyName),
+								getSignature(reactor, assemblyType,
+										assemblyName));
+					}
+				}
 
-						// Close the material blocks group.
-						closeGroup(groupIds.pop());
-						/* ---------------------------------- */
+				// Close the group for this assembly type.
+				closeGroup(typeGroupId);
+			}
+			/* ---------------------------------------- */
+
+			// Close the reactor's group.
+			closeGroup(reactorGroupId);
+
+			// Close the H5file.
+			status = H5.H5Fclose(fileId);
+			fileId = -1;
+			if (status < 0) {
+				throwException("Closing file \"" + path + "\"", status);
+			}
+
+			// Store the record of the file.
+			if (record.signed) {
+				record.reactorSignature = getSignature(reactor);
+			}
+			record.setFile(file);
+			record.fullWriteLength = record.length;
+			fileRecords.put(path, record);
+
+		} catch (HDF5LibraryException e) {
+			e.printStackTrace();
+			System.err.println("SFReactorIOHandler error: " + e.getMessage());
+		} catch (HDF5Exception e) {
+			e.printStackTrace();
+			System.err.println("SFReactorIOHandler error: " + e.getMessage());
+		} catch (NullPointerException e) {
+			e.printStackTrace();
+			System.err.println("SFReactorIOHandler error: " + e.getMessage());
+		} finally {
+			// Close the H5file if reading it failed.
+			closeFile(fileId, path);
+		}
 
-						// Initialize the pin.
-						SFRPin pin = new SFRPin(pinName, cladding, fillGas,
-								materialBlocks);
+		// Return the loaded SFReactor.
+		return reactor;
+	}
 
-						// Get the pin's groupId.
-						groupId = groupIds.peek();
+	/**
+	 * Reads the pins, rods and grid data of an assembly that was read by
+	 * {@link #readHDF5(URI, boolean)} without them. Assemblies that are
+	 * already loaded are not read again.
+	 * 
+	 * @param reactor
+	 *            The reactor that holds the assembly.
+	 * @param type
+	 *            The type of the assembly.
+	 * @param name
+	 *            The name of the assembly.
+	 * @return True if the assembly is loaded, false if it does not exist or
+	 *         could not be read.
+	 */
+	public synchronized boolean loadAssembly(SFReactor reactor,
+			AssemblyType type, String name) {
+
+		// By default, the assembly is not loaded.
+		boolean loaded = false;
+
+		if (reactor != null && type != null && name != null) {
+			SFRAssembly assembly = (SFRAssembly) reactor.getAssemblyByName(
+					type, name);
+			if (assembly != null) {
+				List<SFRAssembly> assemblies = new ArrayList<SFRAssembly>(1);
+				assemblies.add(assembly);
+				readUnloadedAssemblies(assemblies);
+				loaded = !unloadedAssemblies.containsKey(assembly);
+			}
+		}
 
-						/* -- Read in the Pin's other attributes. -- */
-						// Attributes inherited from SFRComponent.
-						readSFRComponent(pin, groupId);
+		return loaded;
+	}
 
-						// Pin-specific attributes.
-						// none
-						/* ----------------------------------------- */
+	/**
+	 * Reads the pins, rods and grid data of every assembly of a reactor that
+	 * was read by {@link #readHDF5(URI, boolean)} without them.
+	 * 
+	 * @param reactor
+	 *            The reactor whose assemblies should be loaded.
+	 */
+	public synchronized void loadAssemblies(SFReactor reactor) {
 
-						/* -- Read the pin's assembly locations. -- */
-						// Add the pin to the assembly.
-						assembly.addPin(pin);
+		if (reactor != null) {
+			readUnloadedAssemblies(getUnloadedAssemblies(reactor, null));
+		}
 
-						// Set the pin's locations in the assembly.
-						for (int location : readLocationData(groupId)) {
-							assembly.setPinLocation(pinName, location / size,
-									location % size);
-						}
-						/* ---------------------------------------- */
+		return;
+	}
 
-						// Close the group for this pin.
-						closeGroup(groupIds.pop());
+	/**
+	 * Returns whether or not the pins, rods and grid data of an assembly have
+	 * been read.
+	 * 
+	 * @param reactor
+	 *            The reactor that holds the assembly.
+	 * @param type
+	 *            The type of the assembly.
+	 * @param name
+	 *            The name of the assembly.
+	 * @return True if the assembly exists and is loaded, false otherwise.
+	 */
+	public synchronized boolean isAssemblyLoaded(SFReactor reactor,
+			AssemblyType type, String name) {
+
+		SFRComponent assembly = null;
+
+		if (reactor != null && type != null && name != null) {
+			assembly = reactor.getAssemblyByName(type, name);
+		}
+
+		return assembly != null && !unloadedAssemblies.containsKey(assembly);
+	}
+
+	/**
+	 * Releases the unloaded assemblies of a reactor that was read by
+	 * {@link #readHDF5(URI, boolean)} without them, so that the handler no
+	 * longer holds the reactor. The handler then treats those assemblies as
+	 * loaded, so their pins, rods and grid data are never read and writing
+	 * the reactor writes them without them. A reactor should only be released
+	 * once it is no longer used.
+	 * 
+	 * @param reactor
+	 *            The reactor to release.
+	 */
+	public synchronized void release(SFReactor reactor) {
+
+		if (reactor != null) {
+			for (SFRAssembly assembly : getUnloadedAssemblies(reactor, null)) {
+				unloadedAssemblies.remove(assembly);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Writes data from the input SFReactor into a HDF5 file.
+	 * </p>
+	 * 
+	 * @param reactor
+	 */
+	public void writeHDF5(URI uri, SFReactor reactor) {
+		writeHDF5(uri, reactor, false);
+	}
+
+	/**
+	 * <p>
+	 * Writes data from the input SFReactor into a HDF5 file. An incremental
+	 * write only replaces the groups of the assemblies that changed since this
+	 * handler last read or wrote the same file. The whole file is written
+	 * instead if the handler has no record of it, if something else changed
+	 * the file since then or if the reactor's own attributes changed.
+	 * </p>
+	 * <p>
+	 * The replaced groups are unlinked with H5Ldelete, but HDF5 does not
+	 * reclaim their space, so each incremental write makes the file larger.
+	 * Once the file is more than twice as large as it was after the last full
+	 * write (or read), the next write is a full write, which compacts it. The
+	 * next write is also a full write if the file was last read with its
+	 * assemblies or written without incremental set, since the signatures of
+	 * its assemblies were not computed then.
+	 * </p>
+	 * 
+	 * @param uri
+	 *            The URI of the file to write.
+	 * @param reactor
+	 *            The reactor to write.
+	 * @param incremental
+	 *            Whether or not to only write the changed assemblies.
+	 */
+	public synchronized void writeHDF5(URI uri, SFReactor reactor,
+			boolean incremental) {
+
+		// Check the parameters.
+		if (uri == null || reactor == null) {
+			return;
+		}
+		// Check the file associated with the URI.
+		File file = new File(uri);
+		String path = file.getPath();
+		if (file.exists()) {
+		} else {
+			// Make sure the directory containing this file exists! If we can't
+			// create the directory, then quit!
+			String directoryName = file.getParent();
+			File directory = new File(directoryName);
+			if (!directory.exists() && !directory.mkdirs()) {
+				System.err.println("SFReactorIOHandler error: Directory \""
+						+ directoryName + "\" could not be created.");
+				return;
+
+			}
+		}
+
+		try {
+			// Only write the changed assemblies if the file is the one that
+			// was last read or written and has not grown too large from the
+			// space left behind by earlier incremental writes.
+			FileRecord record = fileRecords.get(path);
+			boolean written = false;
+			if (incremental && record != null && record.signed
+					&& record.isCurrent(file)
+					&& file.length() <= maxIncrementalGrowth
+							* record.fullWriteLength) {
+				written = writeChangedAssemblies(file, reactor, record);
+			}
+
+			// Otherwise, write the whole file. Its signatures are only needed
+			// if it will be written incrementally.
+			if (!written) {
+				writeReactor(file, reactor, incremental);
+			}
+		} catch (HDF5LibraryException e) {
+			e.printStackTrace();
+			System.err.println("SFReactorIOHandler error: " + e.getMessage());
+		} catch (HDF5Exception e) {
+			e.printStackTrace();
+			System.err.println("SFReactorIOHandler error: " + e.getMessage());
+		} catch (NullPointerException e) {
+			e.printStackTrace();
+			System.err.println("SFReactorIOHandler error: " + e.getMessage());
+		}
+
+		return;
+	}
+
+	/**
+	 * Writes the whole reactor to a new HDF5 file, replacing the file if it
+	 * exists. Assemblies that have not been loaded are loaded first.
+	 * 
+	 * @param file
+	 *            The file to write.
+	 * @param reactor
+	 *            The reactor to write.
+	 * @param sign
+	 *            Whether or not to compute the signatures of the reactor and
+	 *            its assemblies for incremental writes.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private void writeReactor(File file, SFReactor reactor, boolean sign)
+			throws NullPointerException, HDF5Exception {
+
+		// HDF5 constants. Writing out "HDF5Constants." every time is annoying.
+		int H5P_DEFAULT = HDF5Constants.H5P_DEFAULT; // Default flag.
+		int H5F_ACC_TRUNC = HDF5Constants.H5F_ACC_TRUNC; // Create, open,
+															// truncate.
+
+		// The status of the previous HDF5 operation. Generally, if it is
+		// negative, there was some error.
+		int status;
+
+		// Other IDs for HDF5 components.
+		int fileId, reactorGroupId, typeGroupId;
+
+		// The signatures of what is written, for incremental writes.
+		String path = file.getPath();
+		FileRecord record = new FileRecord();
+		record.signed = sign;
+
+		// The reactor's unloaded assemblies must be read before they can be
+		// written, and the unloaded assemblies of any reactor may be in the
+		// file that is about to be replaced, so read them first.
+		readUnloadedAssemblies(getUnloadedAssemblies(reactor, path));
+
+		// Create the H5 file. This should also open it with RW-access.
+		status = H5.H5Fcreate(path, H5F_ACC_TRUNC, H5P_DEFAULT, H5P_DEFAULT);
+		if (status < 0) {
+			throwException("Opening file \"" + path + "\"", status);
+		}
+		fileId = status;
+		try {
+			// Create the group for the reactor and write its attributes.
+			reactorGroupId = createGroup(fileId, "/SFReactor");
+			writeReactorAttributes(reactor, reactorGroupId);
+			if (sign) {
+				record.reactorSignature = getSignature(reactor);
+			}
+
+			/* ---- Write the reactor's assemblies. ---- */
+			for (AssemblyType assemblyType : assemblyTypes) {
+				// Create a group for this assembly type.
+				typeGroupId = createGroup(reactorGroupId,
+						assemblyType.toString());
+
+				for (String assemblyName : reactor
+						.getAssemblyNames(assemblyType)) {
+					writeAssembly(reactor, assemblyType, assemblyName,
+							typeGroupId);
+					if (sign) {
+						record.signatures.put(
+								getAssemblyKey(assemblyType, assemblyName),
+								getSignature(reactor, assemblyType,
+										assemblyName));
 					}
+				}
 
-					// Close the group that holds the pins.
-					closeGroup(groupIds.pop());
-					/* --------------------------------- */
+				// Close the group for this assembly type.
+				closeGroup(typeGroupId);
+			}
+			/* ----------------------------------------- */
+
+			// Close the reactor group.
+			closeGroup(reactorGroupId);
+
+			// Close the H5file.
+			status = H5.H5Fclose(fileId);
+			fileId = -1;
+			if (status < 0) {
+				throwException("Closing file \"" + path + "\"", status);
+			}
+		} finally {
+			// Close the H5file if writing it failed.
+			closeFile(fileId, path);
+		}
+
+		// Store the record of the file.
+		record.setFile(file);
+		record.fullWriteLength = record.length;
+		fileRecords.put(path, record);
+
+		return;
+	}
+
+	/**
+	 * Replaces the groups of the assemblies that changed since the file was
+	 * last read or written by this handler, adds the groups of new assemblies
+	 * and removes the groups of assemblies that are no longer in the reactor.
+	 * 
+	 * @param file
+	 *            The file to update.
+	 * @param reactor
+	 *            The reactor to write.
+	 * @param record
+	 *            The record of the last read or write of the file.
+	 * @return True if the file was updated, false if the reactor's attributes
+	 *         changed and the whole file must be written.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private boolean writeChangedAssemblies(File file, SFReactor reactor,
+			FileRecord record) throws NullPointerException, HDF5Exception {
+
+		// HDF5 constants. Writing out "HDF5Constants." every time is annoying.
+		int H5P_DEFAULT = HDF5Constants.H5P_DEFAULT; // Default flag.
+		int H5F_ACC_RDWR = HDF5Constants.H5F_ACC_RDWR; // Open read-write.
+
+		// The status of the previous HDF5 operation. Generally, if it is
+		// negative, there was some error.
+		int status;
+
+		// Other IDs for HDF5 components.
+		int fileId, reactorGroupId, typeGroupId, groupId;
+
+		// The reactor's attributes are only written with the whole file.
+		if (getSignature(reactor) != record.reactorSignature) {
+			return false;
+		}
 
-					/* --- Read the assembly's GridData. --- */
-					groupId = groupIds.peek();
+		// The reactor's unloaded assemblies from other files must be read
+		// before this one can hold them, and the unloaded assemblies of other
+		// reactors in this file must be read before their groups can be
+		// replaced. The reactor's own unloaded assemblies in this file are
+		// only read if they changed.
+		String path = file.getPath();
+		List<SFRAssembly> assemblies = getUnloadedAssemblies(reactor, path);
+		for (int i = assemblies.size() - 1; i >= 0; i--) {
+			AssemblySource source = unloadedAssemblies.get(assemblies.get(i));
+			if (source.reactor == reactor && path.equals(source.path)) {
+				assemblies.remove(i);
+			}
+		}
+		readUnloadedAssemblies(assemblies);
 
-					List<SFRComponent> gridData = new ArrayList<SFRComponent>();
-					for (int row = 0; row < assembly.getSize(); row++) {
-						for (int column = 0; column < assembly.getSize(); column++) {
-							gridData.add(assembly.getDataProviderByLocation(
-									row, column));
+		// Open the H5 file with read-write access.
+		status = H5.H5Fopen(path, H5F_ACC_RDWR, H5P_DEFAULT);
+		if (status < 0) {
+			throwException("Opening file \"" + path + "\"", status);
+		}
+		fileId = status;
+		Map<String, Long> signatures = new HashMap<String, Long>();
+		try {
+			reactorGroupId = openGroup(fileId, "/SFReactor");
+
+			/* ---- Write the changed assemblies. ---- */
+			for (AssemblyType assemblyType : assemblyTypes) {
+				// Open the group for this assembly type.
+				typeGroupId = openGroup(reactorGroupId,
+						assemblyType.toString());
+
+				for (String assemblyName : reactor
+						.getAssemblyNames(assemblyType)) {
+
+					// Compare the assembly with what is in the file.
+					String key = getAssemblyKey(assemblyType, assemblyName);
+					long signature = getSignature(reactor, assemblyType,
+							assemblyName);
+					Long oldSignature = record.signatures.get(key);
+
+					if (oldSignature == null || oldSignature != signature) {
+
+						// If the assembly's contents are still only in the
+						// file, read them before its group is replaced.
+						SFRAssembly assembly = (SFRAssembly) reactor
+								.getAssemblyByName(assemblyType, assemblyName);
+						AssemblySource source = unloadedAssemblies
+								.get(assembly);
+						if (source != null) {
+							groupId = openGroup(fileId, source.getGroupPath());
+							readAssemblyContents(assembly, groupId);
+							closeGroup(groupId);
+							unloadedAssemblies.remove(assembly);
+							signature = getSignature(reactor, assemblyType,
+									assemblyName);
 						}
-					}
-					readGridData(gridData, groupId);
-					/* -------------------------------------- */
 
-					// Close the group for this assembly.
-					closeGroup(groupIds.pop());
+						// Replace the assembly's group.
+						if (H5.H5Lexists(typeGroupId, assemblyName,
+								H5P_DEFAULT)) {
+							H5.H5Ldelete(typeGroupId, assemblyName,
+									H5P_DEFAULT);
+						}
+						writeAssembly(reactor, assemblyType, assemblyName,
+								typeGroupId);
+					}
+					signatures.put(key, signature);
 				}
 
 				// Close the group for this assembly type.
-				closeGroup(groupIds.pop());
+				closeGroup(typeGroupId);
 			}
-			/* -------------------------------------------- */
 
-			/* ---- Read the reactor's Reflector Assemblies. ---- */
-			// Open the group for this assembly type.
-			groupId = groupIds.push(openGroup(groupIds.peek(),
-					AssemblyType.Reflector.toString()));
+			// Remove the groups of assemblies that are no longer in the
+			// reactor. The keys are the paths of the groups relative to the
+			// reactor group.
+			for (String key : record.signatures.keySet()) {
+				if (!signatures.containsKey(key)
+						&& H5.H5Lexists(reactorGroupId, key, H5P_DEFAULT)) {
+					H5.H5Ldelete(reactorGroupId, key, H5P_DEFAULT);
+				}
+			}
+			/* --------------------------------------- */
 
-			// Loop over the child groups in this assembly type's group.
-			// These groups should have the assembly names.
-			for (String assemblyName : getChildNames(groupId, H5O_TYPE_GROUP)) {
+			// Close the reactor group.
+			closeGroup(reactorGroupId);
 
-				// Open the group for this assembly.
-				groupId = groupIds
-						.push(openGroup(groupIds.peek(), assemblyName));
+			// Close the H5file.
+			status = H5.H5Fclose(fileId);
+			fileId = -1;
+			if (status < 0) {
+				throwException("Closing file \"" + path + "\"", status);
+			}
+		} finally {
+			// Close the H5file if writing it failed.
+			closeFile(fileId, path);
+		}
 
-				// Read the name, rodType, and size of the assembly.
-				size = (Integer) readAttribute(groupId, "size", H5T_NATIVE_INT,
-						intBuffer);
+		// Update the record of the file.
+		record.signatures = signatures;
+		record.setFile(file);
 
-				// Initialize the assembly.
-				ReflectorAssembly assembly = new ReflectorAssembly(
-						assemblyName, size);
+		return true;
+	}
 
-				/* --- Read the assembly's attributes. --- */
-				// Attributes inherited from SFRComponent.
-				readSFRComponent(assembly, groupId);
+	/**
+	 * Writes the reactor's own attributes to the reactor's HDF5 Group.
+	 * 
+	 * @param reactor
+	 *            The reactor to write.
+	 * @param groupId
+	 *            The ID of the reactor's HDF5 Group, which should be open.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private void writeReactorAttributes(SFReactor reactor, int groupId)
+			throws NullPointerException, HDF5Exception {
 
-				// Attributes inherited from SFRComposite.
-				// none
+		// HDF5 constants.
+		int H5T_NATIVE_INT = HDF5Constants.H5T_NATIVE_INT; // int
+		int H5T_NATIVE_DOUBLE = HDF5Constants.H5T_NATIVE_DOUBLE; // double
 
-				// Attributes inherited from SFRAssembly.
-				// size has already been read.
-				assembly.setDuctThickness((Double) readAttribute(groupId,
-						"ductThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
+		/* ---- Write the reactor's attributes. ---- */
+		// Attributes inherited from SFRComponent.
+		writeSFRComponent(reactor, groupId);
 
-				// ReflectorAssembly-specific attributes.
-				assembly.setRodPitch((Double) readAttribute(groupId,
-						"rodPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
-				/* --------------------------------------- */
+		// Attributes inherited from SFRComposite.
+		// none
 
-				/* --- Read the assembly's reactor locations. --- */
-				// Add the assembly to the reactor.
-				reactor.addAssembly(AssemblyType.Reflector, assembly);
+		// SFReactor-specific attributes.
+		writeAttribute(groupId, "size", H5T_NATIVE_INT,
+				new int[] { reactor.getSize() });
+		writeAttribute(groupId, "latticePitch", H5T_NATIVE_DOUBLE,
+				new double[] { reactor.getLatticePitch() });
+		writeAttribute(groupId, "outerFlatToFlat", H5T_NATIVE_DOUBLE,
+				new double[] { reactor.getOuterFlatToFlat() });
+		/* ----------------------------------------- */
 
-				// Set the assembly's locations in the reactor.
-				for (int location : readLocationData(groupId)) {
-					reactor.setAssemblyLocation(AssemblyType.Reflector,
-							assemblyName, location / reactor.getSize(),
-							location % reactor.getSize());
-				}
-				/* ---------------------------------------------- */
+		return;
+	}
 
-				/* --- Read the assembly's rods. --- */
-				// Open the group that holds the rods.
-				groupId = groupIds.push(openGroup(groupId, "Rods"));
+	/**
+	 * Writes an assembly of the reactor, including its pins or rods and its
+	 * grid data, to a new HDF5 Group.
+	 * 
+	 * @param reactor
+	 *            The reactor that holds the assembly.
+	 * @param assemblyType
+	 *            The type of the assembly.
+	 * @param assemblyName
+	 *            The name of the assembly.
+	 * @param typeGroupId
+	 *            The ID of the HDF5 Group for the assembly type, which should
+	 *            be open.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private void writeAssembly(SFReactor reactor, AssemblyType assemblyType,
+			String assemblyName, int typeGroupId) throws NullPointerException,
+			HDF5Exception {
 
-				// Loop over the child groups in this assembly's Rods group.
-				// These groups should have the rod names.
-				for (String rodName : getChildNames(groupId, H5O_TYPE_GROUP)) {
+		// HDF5 constants.
+		int H5T_NATIVE_INT = HDF5Constants.H5T_NATIVE_INT; // int
+		int H5T_NATIVE_DOUBLE = HDF5Constants.H5T_NATIVE_DOUBLE; // double
 
-					// Open the group for this rod.
-					groupId = groupIds
-							.push(openGroup(groupIds.peek(), rodName));
+		// Other IDs for HDF5 components.
+		int groupId;
+		Stack<Integer> groupIds = new Stack<Integer>();
 
-					// Initialize the rod.
-					SFRRod rod = new SFRRod(rodName);
+		// Get the assembly object from the reactor.
+		SFRAssembly assembly = (SFRAssembly) reactor.getAssemblyByName(
+				assemblyType, assemblyName);
+
+		// Create a group for this assembly.
+		groupId = groupIds.push(createGroup(typeGroupId, assemblyName));
+
+		/* --- Write the assembly's attributes. --- */
+		// Attributes inherited from SFRComponent.
+		writeSFRComponent(assembly, groupId);
+
+		// Attributes inherited from SFRComposite.
+		// none
+
+		// Attributes inherited from SFRAssembly.
+		writeAttribute(groupId, "size", H5T_NATIVE_INT,
+				new int[] { assembly.getSize() });
+		writeAttribute(groupId, "ductThickness", H5T_NATIVE_DOUBLE,
+				new double[] { assembly.getDuctThickness() });
+
+		if (assemblyType != AssemblyType.Reflector) {
+			PinAssembly pinAssembly = (PinAssembly) assembly;
+
+			// PinAssembly-specific attributes.
+			writeAttribute(groupId, "pinPitch", H5T_NATIVE_DOUBLE,
+					new double[] { pinAssembly.getPinPitch() });
+			writeAttribute(groupId, "pinType", H5T_NATIVE_INT,
+					new int[] { pinAssembly.getPinType().getId() });
+			writeAttribute(groupId, "innerDuctFlatToFlat", H5T_NATIVE_DOUBLE,
+					new double[] { pinAssembly.getInnerDuctFlatToFlat() });
+			writeAttribute(groupId, "innerDuctThickness", H5T_NATIVE_INT,
+					new double[] { pinAssembly.getInnerDuctThickness() });
+		} else {
+			// ReflectorAssembly-specific attributes.
+			writeAttribute(groupId, "rodPitch", H5T_NATIVE_DOUBLE,
+					new double[] { ((ReflectorAssembly) assembly)
+							.getRodPitch() });
+		}
+		/* ---------------------------------------- */
 
-					/* -- Read in the Rod's other attributes. -- */
-					// Attributes inherited from SFRComponent.
-					readSFRComponent(rod, groupId);
+		/* --- Write the assembly's reactor locations. --- */
+		writeLocationData(
+				reactor.getAssemblyLocations(assemblyType, assemblyName),
+				groupId);
+		/* ----------------------------------------------- */
 
-					// Rod-specific attributes.
-					// none
-					/* ----------------------------------------- */
+		List<SFRComponent> gridData = new ArrayList<SFRComponent>();
 
-					/* -- Read in the reflector. -- */
-					groupId = openGroup(groupId, "reflector");
-					rod.setReflector(readRing(groupId));
-					closeGroup(groupId);
-					/* --------------------------- */
+		if (assemblyType != AssemblyType.Reflector) {
+			PinAssembly pinAssembly = (PinAssembly) assembly;
 
-					// Get the rod's groupId back.
-					groupId = groupIds.peek();
+			// Create a group to hold the pins.
+			groupId = groupIds.push(createGroup(groupIds.peek(), "Pins"));
 
-					/* -- Read the rod's assembly locations. -- */
-					// Add the rod to the assembly.
-					assembly.addRod(rod);
+			/* --- Write the assembly's rods/pins. --- */
+			for (String pinName : pinAssembly.getPinNames()) {
 
-					// Set the rod's locations in the assembly.
-					for (int location : readLocationData(groupId)) {
-						assembly.setRodLocation(rodName, location / size,
-								location % size);
+				// Get the pin object from the assembly.
+				SFRPin pin = pinAssembly.getPinByName(pinName);
+
+				// Create a group for the pin.
+				groupId = groupIds.push(createGroup(groupIds.peek(), pinName));
+
+				/* -- Write the pin's attributes. -- */
+				// Attributes inherited from SFRComponent.
+				writeSFRComponent(pin, groupId);
+
+				// Pin-specific attributes.
+				// none
+				/* --------------------------------- */
+
+				/* -- Write the pin's physical properties. -- */
+				// Material fillGas
+				Material fillGas = pin.getFillGas();
+				groupId = groupIds
+						.push(createGroup(groupIds.peek(), "fillGas"));
+				writeSFRComponent(fillGas, groupId);
+				closeGroup(groupIds.pop());
+
+				// Ring cladding
+				Ring cladding = pin.getCladding();
+				groupId = groupIds.push(createGroup(groupIds.peek(),
+						"cladding"));
+				writeRing(cladding, groupId);
+				closeGroup(groupIds.pop());
+
+				// TreeSet materialBlocks
+				groupId = groupIds.push(createGroup(groupIds.peek(),
+						"materialBlocks"));
+				int i = 0;
+				for (MaterialBlock block : pin.getMaterialBlocks()) {
+					// Create a Group for the MaterialBlock.
+					groupId = groupIds.push(createGroup(groupIds.peek(),
+							Integer.toString(i++)));
+
+					// Write the block's SFRComponent attributes.
+					writeSFRComponent(block, groupId);
+
+					// Write the block's other attributes.
+					writeAttribute(groupId, "vertPosition", H5T_NATIVE_DOUBLE,
+							new Double[] { block.getVertPosition() });
+
+					// Create a group to contain the Rings.
+					groupIds.push(createGroup(groupId, "Rings"));
+
+					// Write the block's rings.
+					int j = 0;
+					for (Ring ring : block.getRings()) {
+						groupId = groupIds.push(createGroup(groupIds.peek(),
+								Integer.toString(j++)));
+						writeRing(ring, groupId);
+						closeGroup(groupIds.pop());
 					}
-					/* ---------------------------------------- */
 
-					// Close the group for this rod.
+					// Close the group that contains the Rings.
 					closeGroup(groupIds.pop());
-				}
 
-				// Close the group that holds the rods.
+					// Close the group for the MaterialBlock.
+					closeGroup(groupIds.pop());
+				}
 				closeGroup(groupIds.pop());
-				/* --------------------------------- */
+				/* ------------------------------------------ */
 
-				/* --- Read the assembly's GridData. --- */
+				// Get the group ID back (subgroups have been created).
 				groupId = groupIds.peek();
 
-				List<SFRComponent> gridData = new ArrayList<SFRComponent>();
-				for (int row = 0; row < assembly.getSize(); row++) {
-					for (int column = 0; column < assembly.getSize(); column++) {
-						gridData.add(assembly.getDataProviderByLocation(row,
-								column));
-					}
-				}
-				readGridData(gridData, groupId);
-				/* -------------------------------------- */
+				/* -- Write the pin's assembly locations. -- */
+				writeLocationData(pinAssembly.getPinLocations(pinName),
+						groupId);
+				/* ----------------------------------------- */
 
-				// Close the group for this assembly.
+				// Close the group for the pin.
 				closeGroup(groupIds.pop());
 			}
+			/* --------------------------------------- */
 
-			// Close the group for this assembly type.
+			// Close the group containing the pins.
 			closeGroup(groupIds.pop());
-			/* -------------------------------------------------- */
 
-			// Close the reactor's group.
+			// Get the assembly's GridData.
+			for (int row = 0; row < assembly.getSize(); row++) {
+				for (int column = 0; column < assembly.getSize(); column++) {
+					gridData.add(pinAssembly.getDataProviderByLocation(row,
+							column));
+				}
+			}
+		} else {
+			ReflectorAssembly reflectorAssembly = (ReflectorAssembly) assembly;
+
+			// Create a group to hold the pins.
+			groupId = groupIds.push(createGroup(groupIds.peek(), "Rods"));
+
+			/* --- Write the assembly's rods/pins. --- */
+			for (String rodName : reflectorAssembly.getRodNames()) {
+
+				// Get the rod object from the assembly.
+				SFRRod rod = reflectorAssembly.getRodByName(rodName);
+
+				// Create a group for the rod.
+				groupId = groupIds.push(createGroup(groupIds.peek(), rodName));
+
+				/* -- Write the rod's attributes. -- */
+				// Attributes inherited from SFRComponent.
+				writeSFRComponent(rod, groupId);
+
+				// Rod-specific attributes.
+				// none
+				/* --------------------------------- */
+
+				/* -- Write the rod's physical properties. -- */
+				// Ring reflector.
+				Ring reflector = rod.getReflector();
+				groupId = groupIds.push(createGroup(groupIds.peek(),
+						"reflector"));
+				writeRing(reflector, groupId);
+				closeGroup(groupIds.pop());
+				/* ------------------------------------------ */
+
+				// Get the group ID back (subgroups have been created).
+				groupId = groupIds.peek();
+
+				/* -- Write the rod's assembly locations. -- */
+				writeLocationData(reflectorAssembly.getRodLocations(rodName),
+						groupId);
+				/* ----------------------------------------- */
+
+				// Close the group for the rod.
+				closeGroup(groupIds.pop());
+			}
+			/* --------------------------------------- */
+
+			// Close the group containing the rods.
 			closeGroup(groupIds.pop());
 
-			// Close the H5file.
-			status = H5.H5Fclose(fileId);
-			if (status < 0) {
-				throwException("Closing file \"" + path + "\"", status);
+			// Get the assembly's GridData.
+			for (int row = 0; row < assembly.getSize(); row++) {
+				for (int column = 0; column < assembly.getSize(); column++) {
+					gridData.add(reflectorAssembly.getDataProviderByLocation(
+							row, column));
+				}
 			}
-		} catch (HDF5LibraryException e) {
-			e.printStackTrace();
-			System.err.println("SFReactorIOHandler error: " + e.getMessage());
-		} catch (HDF5Exception e) {
-			e.printStackTrace();
-			System.err.println("SFReactorIOHandler error: " + e.getMessage());
-		} catch (NullPointerException e) {
-			e.printStackTrace();
-			System.err.println("SFReactorIOHandler error: " + e.getMessage());
 		}
 
-		// Return the loaded SFReactor.
-		return reactor;
+		/* --- Write the assembly's GridData. --- */
+		writeGridData(gridData, groupIds.peek());
+		/* -------------------------------------- */
+
+		// Close this assembly group.
+		closeGroup(groupIds.pop());
+
+		return;
 	}
 
 	/**
-	 * <p>
-	 * Writes data from the input SFReactor into a HDF5 file.
-	 * </p>
+	 * Reads an assembly's attributes from its HDF5 Group, adds it to the
+	 * reactor and sets its locations in the reactor. Its pins or rods and its
+	 * grid data are not read.
 	 * 
 	 * @param reactor
+	 *            The reactor that will hold the assembly.
+	 * @param assemblyType
+	 *            The type of the assembly.
+	 * @param assemblyName
+	 *            The name of the assembly.
+	 * @param groupId
+	 *            The ID of the assembly's HDF5 Group, which should be open.
+	 * @return The new assembly.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
 	 */
-	public void writeHDF5(URI uri, SFReactor reactor) {
-
-		// Check the parameters.
-		if (uri == null || reactor == null) {
-			return;
-		}
-		// Check the file associated with the URI. If it exists, delete it.
-		File file = new File(uri);
-		String path = file.getPath();
-		if (file.exists()) {
-		} else {
-			// Make sure the directory containing this file exists! If we can't
-			// create the directory, then quit!
-			String directoryName = file.getParent();
-			File directory = new File(directoryName);
-			if (!directory.exists() && !directory.mkdirs()) {
-				System.err.println("SFReactorIOHandler error: Directory \""
-						+ directoryName + "\" could not be created.");
-				return;
-
-			}
-		}
+	private SFRAssembly readAssembly(SFReactor reactor,
+			AssemblyType assemblyType, String assemblyName, int groupId)
+			throws NullPointerException, HDF5Exception {
 
-		// HDF5 constants. Writing out "HDF5Constants." every time is annoying.
-		int H5P_DEFAULT = HDF5Constants.H5P_DEFAULT; // Default flag.
-		int H5F_ACC_TRUNC = HDF5Constants.H5F_ACC_TRUNC; // Create, open,
-															// truncate.
+		// HDF5 constants.
 		int H5T_NATIVE_INT = HDF5Constants.H5T_NATIVE_INT; // int
 		int H5T_NATIVE_DOUBLE = HDF5Constants.H5T_NATIVE_DOUBLE; // double
 
-		// The status of the previous HDF5 operation. Generally, if it is
-		// negative, there was some error.
-		int status;
+		Integer[] intBuffer = new Integer[1];
+		Double[] doubleBuffer = new Double[1];
 
-		// Other IDs for HDF5 components.
-		int fileId, groupId;
+		// The new assembly.
+		SFRAssembly assembly;
 
-		Stack<Integer> groupIds = new Stack<Integer>();
+		// Read the size of the assembly.
+		int size = (Integer) readAttribute(groupId, "size", H5T_NATIVE_INT,
+				intBuffer);
 
-		// Create and open the h5 file.
-		try {
+		if (assemblyType != AssemblyType.Reflector) {
+			// Read the pinType of the assembly.
+			PinType pinType = PinType.valueOf((Integer) readAttribute(groupId,
+					"pinType", H5T_NATIVE_INT, intBuffer));
 
-			// Create the H5 file. This should also open it with RW-access.
-			status = H5
-					.H5Fcreate(path, H5F_ACC_TRUNC, H5P_DEFAULT, H5P_DEFAULT);
-			if (status < 0) {
-				throwException("Opening file \"" + path + "\"", status);
-			}
-			fileId = status;
+			// Initialize the assembly.
+			PinAssembly pinAssembly = new PinAssembly(assemblyName, pinType,
+					size);
+
+			/* --- Read the assembly's attributes. --- */
+			// Attributes inherited from SFRComponent.
+			readSFRComponent(pinAssembly, groupId);
+
+			// Attributes inherited from SFRComposite.
+			// none
 
-			// Create the group for the reactor.
-			groupId = groupIds.push(createGroup(fileId, "/SFReactor"));
+			// Attributes inherited from SFRAssembly.
+			// size has already been read.
+			pinAssembly.setDuctThickness((Double) readAttribute(groupId,
+					"ductThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
+
+			// PinAssembly-specific attributes.
+			pinAssembly.setPinPitch((Double) readAttribute(groupId,
+					"pinPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
+			// pinType has already been read.
+			pinAssembly.setInnerDuctFlatToFlat((Double) readAttribute(groupId,
+					"innerDuctFlatToFlat", H5T_NATIVE_DOUBLE, doubleBuffer));
+			pinAssembly.setInnerDuctThickness((Double) readAttribute(groupId,
+					"innerDuctThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
+			/* --------------------------------------- */
+
+			assembly = pinAssembly;
+		} else {
+			// Initialize the assembly.
+			ReflectorAssembly reflectorAssembly = new ReflectorAssembly(
+					assemblyName, size);
 
-			/* ---- Write the reactor's attributes. ---- */
+			/* --- Read the assembly's attributes. --- */
 			// Attributes inherited from SFRComponent.
-			writeSFRComponent(reactor, groupId);
+			readSFRComponent(reflectorAssembly, groupId);
 
 			// Attributes inherited from SFRComposite.
 			// none
 
-			// SFReactor-specific attributes.
-			writeAttribute(groupId, "size", H5T_NATIVE_INT,
-					new int[] { reactor.getSize() });
-			writeAttribute(groupId, "latticePitch", H5T_NATIVE_DOUBLE,
-					new double[] { reactor.getLatticePitch() });
-			writeAttribute(groupId, "outerFlatToFlat", H5T_NATIVE_DOUBLE,
-					new double[] { reactor.getOuterFlatToFlat() });
-			/* ----------------------------------------- */
+			// Attributes inherited from SFRAssembly.
+			// size has already been read.
+			reflectorAssembly.setDuctThickness((Double) readAttribute(groupId,
+					"ductThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
 
-			/* ---- Write the reactor's Pin Assemblies. ---- */
-			List<AssemblyType> pinAssemblyTypes = new ArrayList<AssemblyType>();
-			pinAssemblyTypes.add(AssemblyType.Fuel);
-			pinAssemblyTypes.add(AssemblyType.Control);
-			pinAssemblyTypes.add(AssemblyType.Shield);
-			pinAssemblyTypes.add(AssemblyType.Test);
+			// ReflectorAssembly-specific attributes.
+			reflectorAssembly.setRodPitch((Double) readAttribute(groupId,
+					"rodPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
+			/* --------------------------------------- */
 
-			for (AssemblyType assemblyType : pinAssemblyTypes) {
-				// Create a group for this assembly type.
-				groupId = groupIds.push(createGroup(groupIds.peek(),
-						assemblyType.toString()));
+			assembly = reflectorAssembly;
+		}
 
-				for (String assemblyName : reactor
-						.getAssemblyNames(assemblyType)) {
+		/* --- Read the assembly's reactor locations. --- */
+		// Add the assembly to the reactor.
+		reactor.addAssembly(assemblyType, assembly);
 
-					// Get the assembly object from the reactor.
-					PinAssembly assembly = (PinAssembly) reactor
-							.getAssemblyByName(assemblyType, assemblyName);
+		// Set the assembly's locations in the reactor.
+		for (int location : readLocationData(groupId)) {
+			reactor.setAssemblyLocation(assemblyType, assemblyName, location
+					/ reactor.getSize(), location % reactor.getSize());
+		}
+		/* ---------------------------------------------- */
 
-					// Create a group for this assembly.
-					groupId = groupIds.push(createGroup(groupIds.peek(),
-							assemblyName));
-
-					/* --- Write the assembly's attributes. --- */
-					// Attributes inherited from SFRComponent.
-					writeSFRComponent(assembly, groupId);
-
-					// Attributes inherited from SFRComposite.
-					// none
-
-					// Attributes inherited from SFRAssembly.
-					writeAttribute(groupId, "size", H5T_NATIVE_INT,
-							new int[] { assembly.getSize() });
-					writeAttribute(groupId, "ductThickness", H5T_NATIVE_DOUBLE,
-							new double[] { assembly.getDuctThickness() });
-
-					// PinAssembly-specific attributes.
-					writeAttribute(groupId, "pinPitch", H5T_NATIVE_DOUBLE,
-							new double[] { assembly.getPinPitch() });
-					writeAttribute(groupId, "pinType", H5T_NATIVE_INT,
-							new int[] { assembly.getPinType().getId() });
-					writeAttribute(groupId, "innerDuctFlatToFlat",
-							H5T_NATIVE_DOUBLE,
-							new double[] { assembly.getInnerDuctFlatToFlat() });
-					writeAttribute(groupId, "innerDuctThickness",
-							H5T_NATIVE_INT,
-							new double[] { assembly.getInnerDuctThickness() });
-					/* ---------------------------------------- */
-
-					/* --- Write the assembly's reactor locations. --- */
-					writeLocationData(reactor.getAssemblyLocations(
-							assemblyType, assemblyName), groupId);
-					/* ----------------------------------------------- */
-
-					// Create a group to hold the pins.
-					groupId = groupIds
-							.push(createGroup(groupIds.peek(), "Pins"));
-
-					/* --- Write the assembly's rods/pins. --- */
-					for (String pinName : assembly.getPinNames()) {
-
-						// Get the pin object from the assembly.
-						SFRPin pin = assembly.getPinByName(pinName);
-
-						// Create a group for the pin.
-						groupId = groupIds.push(createGroup(groupIds.peek(),
-								pinName));
+		return assembly;
+	}
 
-						/* -- Write the pin's attributes. -- */
-						// Attributes inherited from SFRComponent.
-						writeSFRComponent(pin, groupId);
+	/**
+	 * Reads the pins or rods and the grid data of an assembly from its HDF5
+	 * Group.
+	 * 
+	 * @param assembly
+	 *            The assembly, which should not have any pins or rods yet.
+	 * @param assemblyGroupId
+	 *            The ID of the assembly's HDF5 Group, which should be open.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private void readAssemblyContents(SFRAssembly assembly,
+			int assemblyGroupId) throws NullPointerException, HDF5Exception {
 
-						// Pin-specific attributes.
-						// none
-						/* --------------------------------- */
+		// HDF5 constants.
+		int H5T_NATIVE_DOUBLE = HDF5Constants.H5T_NATIVE_DOUBLE; // double
+		int H5O_TYPE_GROUP = HDF5Constants.H5O_TYPE_GROUP;
 
-						/* -- Write the pin's physical properties. -- */
-						// Material fillGas
-						Material fillGas = pin.getFillGas();
-						groupId = groupIds.push(createGroup(groupIds.peek(),
-								"fillGas"));
-						writeSFRComponent(fillGas, groupId);
-						closeGroup(groupIds.pop());
+		// Other IDs for HDF5 components.
+		int groupId;
 
-						// Ring cladding
-						Ring cladding = pin.getCladding();
-						groupId = groupIds.push(createGroup(groupIds.peek(),
-								"cladding"));
-						writeRing(cladding, groupId);
-						closeGroup(groupIds.pop());
+		// A stack representing the currently opened groups.
+		Stack<Integer> groupIds = new Stack<Integer>();
+		groupIds.push(assemblyGroupId);
 
-						// TreeSet materialBlocks
-						groupId = groupIds.push(createGroup(groupIds.peek(),
-								"materialBlocks"));
-						int i = 0;
-						for (MaterialBlock block : pin.getMaterialBlocks()) {
-							// Create a Group for the MaterialBlock.
-							groupId = groupIds.push(createGroup(
-									groupIds.peek(), Integer.toString(i++)));
-
-							// Write the block's SFRComponent attributes.
-							writeSFRComponent(block, groupId);
-
-							// Write the block's other attributes.
-							writeAttribute(groupId, "vertPosition",
-									H5T_NATIVE_DOUBLE,
-									new Double[] { block.getVertPosition() });
-
-							// Create a group to contain the Rings.
-							groupIds.push(createGroup(groupId, "Rings"));
-
-							// Write the block's rings.
-							int j = 0;
-							for (Ring ring : block.getRings()) {
-								groupId = groupIds
-										.push(createGroup(groupIds.peek(),
-												Integer.toString(j++)));
-								writeRing(ring, groupId);
-								closeGroup(groupIds.pop());
-							}
-
-							// Close the group that contains the Rings.
-							closeGroup(groupIds.pop());
-
-							// Close the group for the MaterialBlock.
-							closeGroup(groupIds.pop());
-						}
-						closeGroup(groupIds.pop());
-						/* ------------------------------------------ */
+		Double[] doubleBuffer = new Double[1];
+		int size = assembly.getSize();
+		List<SFRComponent> gridData = new ArrayList<SFRComponent>();
+
+		if (assembly instanceof PinAssembly) {
+			PinAssembly pinAssembly = (PinAssembly) assembly;
+
+			/* --- Read the assembly's pins. --- */
+			// Open the group that holds the pins.
+			groupId = groupIds.push(openGroup(assemblyGroupId, "Pins"));
+
+			// Loop over the child groups in this assembly's Pins group.
+			// These groups should have the pin names.
+			for (String pinName : getChildNames(groupId, H5O_TYPE_GROUP)) {
+
+				// Open the group for this pin.
+				groupId = groupIds.push(openGroup(groupIds.peek(), pinName));
+
+				// So we don't waste time creating default properties
+				// for the pin that will soon be replaced, we should
+				// first read in the physical structure of the pin.
+				Ring cladding = null;
+				Material fillGas = null;
+				TreeSet<MaterialBlock> materialBlocks = null;
+
+				/* -- Read in the cladding. -- */
+				groupId = openGroup(groupId, "cladding");
+				cladding = readRing(groupId);
+				closeGroup(groupId);
+				/* --------------------------- */
+
+				/* -- Read in the fill gas. -- */
+				// Initialize the container for the fill gas.
+				fillGas = new Material();
+
+				// Read the material's attributes.
+				groupId = openGroup(groupIds.peek(), "fillGas");
+				readSFRComponent(fillGas, groupId);
+				closeGroup(groupId);
+				/* --------------------------- */
+
+				/* -- Read in the material blocks. -- */
+				// Initialize the container for the material blocks.
+				materialBlocks = new TreeSet<MaterialBlock>();
+
+				// Open the material blocks group.
+				groupId = groupIds.push(openGroup(groupIds.peek(),
+						"materialBlocks"));
 
-						// Get the group ID back (subgroups have been created).
-						groupId = groupIds.peek();
+				// Loop over the child groups of materialBlocks. They
+				// correspond to individual MaterialBlocks in the
+				// TreeSet.
+				for (String groupName : getChildNames(groupIds.peek(),
+						H5O_TYPE_GROUP)) {
+					// Initialize a MaterialBlock.
+					MaterialBlock block = new MaterialBlock();
 
-						/* -- Write the pin's assembly locations. -- */
-						writeLocationData(assembly.getPinLocations(pinName),
-								groupId);
-						/* ----------------------------------------- */
+					// Open the MaterialBlock's group.
+					groupId = groupIds.push(openGroup(groupIds.peek(),
+							groupName));
 
-						// Close the group for the pin.
-						closeGroup(groupIds.pop());
-					}
-					/* --------------------------------------- */
+					// Read the block's SFRComponent attributes.
+					readSFRComponent(block, groupId);
 
-					// Close the group containing the pins.
-					closeGroup(groupIds.pop());
+					// Read the block's other attributes.
+					block.setVertPosition((Double) readAttribute(groupId,
+							"vertPosition", H5T_NATIVE_DOUBLE, doubleBuffer));
 
-					/* --- Write the assembly's GridData. --- */
-					groupId = groupIds.peek();
+					/* - Read the block's rings. - */
 
-					List<SFRComponent> gridData = new ArrayList<SFRComponent>();
-					for (int row = 0; row < assembly.getSize(); row++) {
-						for (int column = 0; column < assembly.getSize(); column++) {
-							gridData.add(assembly.getDataProviderByLocation(
-									row, column));
-						}
+					// Open the Rings group.
+					groupId = groupIds.push(openGroup(groupId, "Rings"));
+
+					// Loop over the child groups of the block. They
+					// correspond to individual rings in the block's
+					// TreeSet.
+					for (String ringGroupName : getChildNames(groupId,
+							H5O_TYPE_GROUP)) {
+						groupId = openGroup(groupIds.peek(), ringGroupName);
+						block.addRing(readRing(groupId));
+						closeGroup(groupId);
 					}
-					writeGridData(gridData, groupId);
-					/* -------------------------------------- */
 
-					// Close this assembly group.
+					// Close the Rings group.
 					closeGroup(groupIds.pop());
-				}
+					/* --------------------------- */
 
-				// Close the group for this assembly type.
-				closeGroup(groupIds.pop());
-			}
-			/* --------------------------------------------- */
+					// Close the MaterialBlock's group.
+					closeGroup(groupIds.pop());
 
-			/* ---- Write the reactor's Reflector Assemblies. ---- */
-			// Create a group for this assembly type.
-			groupId = groupIds.push(createGroup(groupIds.peek(),
-					AssemblyType.Reflector.toString()));
+					// Add the block to materialBlocks (TreeSet).
+					materialBlocks.add(block);
+				}
 
-			for (String assemblyName : reactor
-					.getAssemblyNames(AssemblyType.Reflector)) {
+				// Close the material blocks group.
+				closeGroup(groupIds.pop());
+				/* ---------------------------------- */
 
-				// Get the assembly object from the reactor.
-				ReflectorAssembly assembly = (ReflectorAssembly) reactor
-						.getAssemblyByName(AssemblyType.Reflector, assemblyName);
+				// Initialize the pin.
+				SFRPin pin = new SFRPin(pinName, cladding, fillGas,
+						materialBlocks);
 
-				// Create a group for this assembly.
-				groupId = groupIds.push(createGroup(groupIds.peek(),
-						assemblyName));
+				// Get the pin's groupId.
+				groupId = groupIds.peek();
 
-				/* --- Write the assembly's attributes. --- */
+				/* -- Read in the Pin's other attributes. -- */
 				// Attributes inherited from SFRComponent.
-				writeSFRComponent(assembly, groupId);
+				readSFRComponent(pin, groupId);
 
-				// Attributes inherited from SFRComposite.
+				// Pin-specific attributes.
 				// none
+				/* ----------------------------------------- */
 
-				// Attributes inherited from SFRAssembly.
-				writeAttribute(groupId, "size", H5T_NATIVE_INT,
-						new int[] { assembly.getSize() });
-				writeAttribute(groupId, "ductThickness", H5T_NATIVE_DOUBLE,
-						new double[] { assembly.getDuctThickness() });
+				/* -- Read the pin's assembly locations. -- */
+				// Add the pin to the assembly.
+				pinAssembly.addPin(pin);
 
-				// ReflectorAssembly-specific attributes.
-				writeAttribute(groupId, "rodPitch", H5T_NATIVE_DOUBLE,
-						new double[] { assembly.getRodPitch() });
+				// Set the pin's locations in the assembly.
+				for (int location : readLocationData(groupId)) {
+					pinAssembly.setPinLocation(pinName, location / size,
+							location % size);
+				}
 				/* ---------------------------------------- */
 
-				/* --- Write the assembly's reactor locations. --- */
-				writeLocationData(reactor.getAssemblyLocations(
-						AssemblyType.Reflector, assemblyName), groupId);
-				/* ----------------------------------------------- */
+				// Close the group for this pin.
+				closeGroup(groupIds.pop());
+			}
 
-				// Create a group to hold the pins.
-				groupId = groupIds.push(createGroup(groupIds.peek(), "Rods"));
+			// Close the group that holds the pins.
+			closeGroup(groupIds.pop());
+			/* --------------------------------- */
 
-				/* --- Write the assembly's rods/pins. --- */
-				for (String rodName : assembly.getRodNames()) {
+			// Get the assembly's GridData.
+			for (int row = 0; row < size; row++) {
+				for (int column = 0; column < size; column++) {
+					gridData.add(pinAssembly.getDataProviderByLocation(row,
+							column));
+				}
+			}
+		} else {
+			ReflectorAssembly reflectorAssembly = (ReflectorAssembly) assembly;
 
-					// Get the rod object from the assembly.
-					SFRRod rod = assembly.getRodByName(rodName);
+			/* --- Read the assembly's rods. --- */
+			// Open the group that holds the rods.
+			groupId = groupIds.push(openGroup(assemblyGroupId, "Rods"));
 
-					// Create a group for the rod.
-					groupId = groupIds.push(createGroup(groupIds.peek(),
-							rodName));
+			// Loop over the child groups in this assembly's Rods group.
+			// These groups should have the rod names.
+			for (String rodName : getChildNames(groupId, H5O_TYPE_GROUP)) {
 
-					/* -- Write the rod's attributes. -- */
-					// Attributes inherited from SFRComponent.
-					writeSFRComponent(rod, groupId);
+				// Open the group for this rod.
+				groupId = groupIds.push(openGroup(groupIds.peek(), rodName));
 
-					// Rod-specific attributes.
-					// none
-					/* --------------------------------- */
+				// Initialize the rod.
+				SFRRod rod = new SFRRod(rodName);
 
-					/* -- Write the rod's physical properties. -- */
-					// Ring reflector.
-					Ring reflector = rod.getReflector();
-					groupId = groupIds.push(createGroup(groupIds.peek(),
-							"reflector"));
-					writeRing(reflector, groupId);
-					closeGroup(groupIds.pop());
-					/* ------------------------------------------ */
+				/* -- Read in the Rod's other attributes. -- */
+				// Attributes inherited from SFRComponent.
+				readSFRComponent(rod, groupId);
 
-					// Get the group ID back (subgroups have been created).
-					groupId = groupIds.peek();
+				// Rod-specific attributes.
+				// none
+				/* ----------------------------------------- */
 
-					/* -- Write the rod's assembly locations. -- */
-					writeLocationData(assembly.getRodLocations(rodName),
-							groupId);
-					/* ----------------------------------------- */
+				/* -- Read in the reflector. -- */
+				groupId = openGroup(groupId, "reflector");
+				rod.setReflector(readRing(groupId));
+				closeGroup(groupId);
+				/* --------------------------- */
 
-					// Close the group for the rod.
-					closeGroup(groupIds.pop());
+				// Get the rod's groupId back.
+				groupId = groupIds.peek();
+
+				/* -- Read the rod's assembly locations. -- */
+				// Add the rod to the assembly.
+				reflectorAssembly.addRod(rod);
+
+				// Set the rod's locations in the assembly.
+				for (int location : readLocationData(groupId)) {
+					reflectorAssembly.setRodLocation(rodName, location / size,
+							location % size);
 				}
-				/* --------------------------------------- */
+				/* ---------------------------------------- */
 
-				// Close the group containing the rods.
+				// Close the group for this rod.
 				closeGroup(groupIds.pop());
+			}
 
-				/* --- Write the assembly's GridData. --- */
-				groupId = groupIds.peek();
+			// Close the group that holds the rods.
+			closeGroup(groupIds.pop());
+			/* --------------------------------- */
 
-				List<SFRComponent> gridData = new ArrayList<SFRComponent>();
-				for (int row = 0; row < assembly.getSize(); row++) {
-					for (int column = 0; column < assembly.getSize(); column++) {
-						gridData.add(assembly.getDataProviderByLocation(row,
-								column));
-					}
+			// Get the assembly's GridData.
+			for (int row = 0; row < size; row++) {
+				for (int column = 0; column < size; column++) {
+					gridData.add(reflectorAssembly.getDataProviderByLocation(
+							row, column));
 				}
-				writeGridData(gridData, groupId);
-				/* -------------------------------------- */
+			}
+		}
 
-				// Close this assembly group.
-				closeGroup(groupIds.pop());
+		/* --- Read the assembly's GridData. --- */
+		readGridData(gridData, assemblyGroupId);
+		/* -------------------------------------- */
+
+		return;
+	}
+
+	/**
+	 * Gets the assemblies whose pins, rods and grid data have not been read
+	 * yet and that either belong to a reactor or are read from a file.
+	 * 
+	 * @param reactor
+	 *            The reactor, or null to not select assemblies by reactor.
+	 * @param path
+	 *            The path of the file, or null to not select assemblies by
+	 *            file.
+	 * @return A List of the unloaded assemblies.
+	 */
+	private List<SFRAssembly> getUnloadedAssemblies(SFReactor reactor,
+			String path) {
+
+		List<SFRAssembly> assemblies = new ArrayList<SFRAssembly>();
+
+		for (Map.Entry<SFRAssembly, AssemblySource> entry : unloadedAssemblies
+				.entrySet()) {
+			AssemblySource source = entry.getValue();
+			if (source.reactor == reactor || source.path.equals(path)) {
+				assemblies.add(entry.getKey());
 			}
+		}
 
-			// Close the group for this assembly type.
-			closeGroup(groupIds.pop());
-			/* --------------------------------------------------- */
+		return assemblies;
+	}
 
-			// Close the reactor group.
-			closeGroup(groupIds.pop());
+	/**
+	 * Reads the pins, rods and grid data of unloaded assemblies. Each file is
+	 * opened once for all of its assemblies. If this handler's record of a
+	 * file is still current, the signatures of the loaded assemblies are
+	 * updated so that incremental writes do not rewrite them.
+	 * 
+	 * @param assemblies
+	 *            The assemblies to load. Assemblies that are already loaded
+	 *            are skipped.
+	 */
+	private void readUnloadedAssemblies(List<SFRAssembly> assemblies) {
+
+		// Group the assemblies by the files that hold them.
+		Map<String, List<SFRAssembly>> assembliesByPath = new HashMap<String, List<SFRAssembly>>();
+		for (SFRAssembly assembly : assemblies) {
+			AssemblySource source = unloadedAssemblies.get(assembly);
+			if (source != null) {
+				List<SFRAssembly> pathAssemblies = assembliesByPath
+						.get(source.path);
+				if (pathAssemblies == null) {
+					pathAssemblies = new ArrayList<SFRAssembly>();
+					assembliesByPath.put(source.path, pathAssemblies);
+				}
+				pathAssemblies.add(assembly);
+			}
+		}
 
-			// Close the H5file.
-			status = H5.H5Fclose(fileId);
-			if (status < 0) {
-				throwException("Closing file \"" + path + "\"", status);
+		// Read the assemblies from each file.
+		for (Map.Entry<String, List<SFRAssembly>> entry : assembliesByPath
+				.entrySet()) {
+			String path = entry.getKey();
+			File file = new File(path);
+			FileRecord record = fileRecords.get(path);
+			if (record != null && (!record.signed || !record.isCurrent(file))) {
+				record = null;
+			}
+
+			int fileId = -1;
+			try {
+				// Open the H5 file with read-only access.
+				int status = H5.H5Fopen(path, HDF5Constants.H5F_ACC_RDONLY,
+						HDF5Constants.H5P_DEFAULT);
+				if (status < 0) {
+					throwException("Opening file \"" + path + "\"", status);
+				}
+				fileId = status;
+
+				for (SFRAssembly assembly : entry.getValue()) {
+					AssemblySource source = unloadedAssemblies.get(assembly);
+					String key = getAssemblyKey(source.type, source.name);
+
+					// If the assembly matches the file before its contents
+					// are read, it also matches the file after.
+					boolean unchanged = record != null
+							&& record.signatures.containsKey(key)
+							&& record.signatures.get(key) == getSignature(
+									source.reactor, source.type, source.name);
+
+					// Read the assembly's contents.
+					int groupId = openGroup(fileId, source.getGroupPath());
+					readAssemblyContents(assembly, groupId);
+					closeGroup(groupId);
+					unloadedAssemblies.remove(assembly);
+
+					// Store the signature of the loaded assembly.
+					if (unchanged) {
+						record.signatures.put(key, getSignature(
+								source.reactor, source.type, source.name));
+					}
+				}
+
+				// Close the H5file.
+				status = H5.H5Fclose(fileId);
+				fileId = -1;
+				if (status < 0) {
+					throwException("Closing file \"" + path + "\"", status);
+				}
+			} catch (HDF5LibraryException e) {
+				e.printStackTrace();
+				System.err.println("SFReactorIOHandler error: "
+						+ e.getMessage());
+			} catch (HDF5Exception e) {
+				e.printStackTrace();
+				System.err.println("SFReactorIOHandler error: "
+						+ e.getMessage());
+			} catch (NullPointerException e) {
+				e.printStackTrace();
+				System.err.println("SFReactorIOHandler error: "
+						+ e.getMessage());
+			} finally {
+				// Close the H5file if reading it failed.
+				closeFile(fileId, path);
 			}
-		} catch (HDF5LibraryException e) {
-			e.printStackTrace();
-			System.err.println("SFReactorIOHandler error: " + e.getMessage());
-		} catch (HDF5Exception e) {
-			e.printStackTrace();
-			System.err.println("SFReactorIOHandler error: " + e.getMessage());
-		} catch (NullPointerException e) {
-			e.printStackTrace();
-			System.err.println("SFReactorIOHandler error: " + e.getMessage());
 		}
 
 		return;
 	}
 
+	/**
+	 * Gets the key of an assembly in a {@link FileRecord}, which is also the
+	 * path of the assembly's HDF5 Group relative to the reactor's Group.
+	 * 
+	 * @param assemblyType
+	 *            The type of the assembly.
+	 * @param assemblyName
+	 *            The name of the assembly.
+	 * @return The key.
+	 */
+	private static String getAssemblyKey(AssemblyType assemblyType,
+			String assemblyName) {
+		return assemblyType.toString() + "/" + assemblyName;
+	}
+
+	/**
+	 * Computes the signature of the reactor's own attributes from the values
+	 * that {@link #writeReactorAttributes(SFReactor, int)} would write.
+	 * 
+	 * @param reactor
+	 *            The reactor.
+	 * @return The signature.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private long getSignature(SFReactor reactor) throws NullPointerException,
+			HDF5Exception {
+
+		digest = new ContentDigest();
+		try {
+			writeReactorAttributes(reactor, 0);
+			return digest.getValue();
+		} finally {
+			digest = null;
+		}
+	}
+
+	/**
+	 * Computes the signature of an assembly from the values that
+	 * {@link #writeAssembly(SFReactor, AssemblyType, String, int)} would
+	 * write.
+	 * 
+	 * @param reactor
+	 *            The reactor that holds the assembly.
+	 * @param assemblyType
+	 *            The type of the assembly.
+	 * @param assemblyName
+	 *            The name of the assembly.
+	 * @return The signature.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private long getSignature(SFReactor reactor, AssemblyType assemblyType,
+			String assemblyName) throws NullPointerException, HDF5Exception {
+
+		digest = new ContentDigest();
+		try {
+			writeAssembly(reactor, assemblyType, assemblyName, 0);
+			return digest.getValue();
+		} finally {
+			digest = null;
+		}
+	}
+
 	/**
 	 * This utility method throws an HDF5LibraryException with a custom message.
 	 * 
@@ -889,6 +1533,32 @@ public class SFReactorIOHandler {
 				+ ": " + Integer.toString(status));
 	}
 
+	/**
+	 * Closes an HDF5 file that is still open because reading or writing it
+	 * failed. Errors are only reported, so that they do not hide the original
+	 * exception.
+	 * 
+	 * @param fileId
+	 *            The ID of the file, or -1 if it is already closed.
+	 * @param path
+	 *            The path of the file.
+	 */
+	private void closeFile(int fileId, String path) {
+		if (fileId >= 0) {
+			try {
+				if (H5.H5Fclose(fileId) < 0) {
+					System.err.println("SFReactorIOHandler error: "
+							+ "Closing file \"" + path + "\"");
+				}
+			} catch (HDF5LibraryException e) {
+				e.printStackTrace();
+				System.err.println("SFReactorIOHandler error: "
+						+ e.getMessage());
+			}
+		}
+		return;
+	}
+
 	/**
 	 * Opens an HDF5 Group.
 	 * 
@@ -922,6 +1592,11 @@ public class SFReactorIOHandler {
 	 */
 	private int createGroup(int parentId, String name)
 			throws HDF5LibraryException, NullPointerException {
+		// Only add the name to the digest when computing a signature.
+		if (digest != null) {
+			digest.update(name);
+			return 0;
+		}
 		int status = H5.H5Gcreate(parentId, name, HDF5Constants.H5P_DEFAULT,
 				HDF5Constants.H5P_DEFAULT, HDF5Constants.H5P_DEFAULT);
 		if (status < 0) {
@@ -938,6 +1613,11 @@ public class SFReactorIOHandler {
 	 * @throws HDF5LibraryException
 	 */
 	private void closeGroup(int groupId) throws HDF5LibraryException {
+		// Mark the end of the group in the digest when computing a signature.
+		if (digest != null) {
+			digest.update(-1L);
+			return;
+		}
 		int status = H5.H5Gclose(groupId);
 		if (status < 0) {
 			throwException("Closing group \"/SFReactor\"", status);
@@ -1021,6 +1701,14 @@ public class SFReactorIOHandler {
 			Object buffer) throws NullPointerException, HDF5Exception {
 		int status;
 
+		// Only add the attribute to the digest when computing a signature.
+		if (digest != null) {
+			digest.update(name);
+			digest.update(type);
+			digest.update(buffer);
+			return;
+		}
+
 		// Create the buffer that holds the data to write to the attribute.
 		long[] bufferSize = new long[] { 1 };
 
@@ -1125,6 +1813,14 @@ public class SFReactorIOHandler {
 	private void writeStringAttribute(int objectId, String name, String value)
 			throws NullPointerException, HDF5Exception {
 		int status;
+
+		// Only add the attribute to the digest when computing a signature.
+		if (digest != null) {
+			digest.update(name);
+			digest.update(value);
+			return;
+		}
+
 		// HDF5 requires null-terminated strings. Unfortunately, Java's
 		// String.getBytes() method does not return a byte array that includes a
 		// null character in the last position, so we have to create a new
@@ -1288,6 +1984,17 @@ public class SFReactorIOHandler {
 			int type, Object buffer) throws NullPointerException, HDF5Exception {
 		int status;
 
+		// Only add the dataset to the digest when computing a signature. The
+		// type may be an ID for an opened Datatype, so it is left out.
+		if (digest != null) {
+			digest.update(name);
+			for (int i = 0; i < rank; i++) {
+				digest.update(dims[i]);
+			}
+			digest.update(buffer);
+			return;
+		}
+
 		// Create the dataspace.
 		status = H5.H5Screate_simple(rank, dims, null);
 		if (status < 0) {
@@ -1481,23 +2188,24 @@ public class SFReactorIOHandler {
 			for (double time : times) {
 				provider.setTime(time);
 
-				// Get the data from the pin.
-				ArrayList<IData> dataList = provider
-						.getDataAtCurrentTime(feature);
-				int length = dataList.size();
+				// Get the data from the pin. The FeatureSet is read directly
+				// so that its columns are not converted to IData.
+				FeatureSet featureSet = provider
+						.getFeatureSetAtCurrentTime(feature);
+				int length = (featureSet != null ? featureSet.size() : 0);
 
 				// Construct the buffer of data for HDF5 writing.
-				double[] dataBuffer = new double[dataList.size() * 6];
+				double[] dataBuffer = new double[length * 6];
 				int bufferIndex = 0;
-				for (IData data : dataList) {
-					dataBuffer[bufferIndex++] = data.getValue();
-					dataBuffer[bufferIndex++] = data.getUncertainty();
-					dataBuffer[bufferIndex++] = data.getPosition().get(0);
-					dataBuffer[bufferIndex++] = data.getPosition().get(1);
-					dataBuffer[bufferIndex++] = data.getPosition().get(2);
+				for (int i = 0; i < length; i++) {
+					dataBuffer[bufferIndex++] = featureSet.getValue(i);
+					dataBuffer[bufferIndex++] = featureSet.getUncertainty(i);
+					dataBuffer[bufferIndex++] = featureSet.getPosition(i, 0);
+					dataBuffer[bufferIndex++] = featureSet.getPosition(i, 1);
+					dataBuffer[bufferIndex++] = featureSet.getPosition(i, 2);
 
 					// Get the units.
-					String units = data.getUnits();
+					String units = featureSet.getUnits(i);
 
 					// Get the units ID from the Map. If the units are not in
 					// the Map, then we need to add it.
@@ -1541,8 +2249,10 @@ public class SFReactorIOHandler {
 			// character.
 			int nullTermLength = unitsStringLength + 1;
 
-			// Create the Datatype for all elements in the Dataset.
-			type = H5.H5Tcreate(HDF5Constants.H5T_STRING, nullTermLength);
+			// Create the Datatype for all elements in the Dataset. No file is
+			// written when computing a signature.
+			type = (digest == null ? H5.H5Tcreate(HDF5Constants.H5T_STRING,
+					nullTermLength) : nullTermLength);
 
 			// The buffer for the bytes is necessary because HDF5 does not
 			// support Java Strings, but C-style, null-terminated strings. Note
@@ -1561,7 +2271,9 @@ public class SFReactorIOHandler {
 			writeDataset(groupId, "Units", rank, dims, type, unitsBuffer);
 
 			// Close the Datatype.
-			H5.H5Tclose(type);
+			if (digest == null) {
+				H5.H5Tclose(type);
+			}
 		}
 		// Restore the current time.
 		provider.setTime(currentTime);
@@ -2018,4 +2730,207 @@ public class SFReactorIOHandler {
 		return ring;
 	}
 
+	/**
+	 * This class records what this handler last read from or wrote to a file.
+	 */
+	private static class FileRecord {
+
+		/**
+		 * The modification time of the file after it was read or written.
+		 */
+		private long lastModified;
+
+		/**
+		 * The length of the file after it was read or written.
+		 */
+		private long length;
+
+		/**
+		 * Whether or not the signatures were computed. If not, the file can
+		 * not be written incrementally.
+		 */
+		private boolean signed = false;
+
+		/**
+		 * The signature of the reactor's own attributes in the file.
+		 */
+		private long reactorSignature;
+
+		/**
+		 * The length of the file after it was last read or completely
+		 * written. Incremental writes do not change it.
+		 */
+		private long fullWriteLength;
+
+		/**
+		 * The signatures of the assemblies in the file, keyed on the paths of
+		 * their Groups relative to the reactor's Group.
+		 */
+		private Map<String, Long> signatures = new HashMap<String, Long>();
+
+		/**
+		 * Stores the modification time and length of the file.
+		 *
+		 * @param file
+		 *            The file that was read or written.
+		 */
+		private void setFile(File file) {
+			lastModified = file.lastModified();
+			length = file.length();
+		}
+
+		/**
+		 * Returns whether or not the file is unchanged since it was read or
+		 * written.
+		 *
+		 * @param file
+		 *            The file.
+		 * @return True if the file has the same modification time and length,
+		 *         false otherwise.
+		 */
+		private boolean isCurrent(File file) {
+			return file.exists() && file.lastModified() == lastModified
+					&& file.length() == length;
+		}
+	}
+
+	/**
+	 * This class describes where the pins, rods and grid data of an unloaded
+	 * assembly are.
+	 */
+	private static class AssemblySource {
+
+		/**
+		 * The reactor that holds the assembly.
+		 */
+		private final SFReactor reactor;
+
+		/**
+		 * The path of the file that holds the assembly.
+		 */
+		private final String path;
+
+		/**
+		 * The type of the assembly.
+		 */
+		private final AssemblyType type;
+
+		/**
+		 * The name of the assembly.
+		 */
+		private final String name;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param reactor
+		 *            The reactor that holds the assembly.
+		 * @param path
+		 *            The path of the file that holds the assembly.
+		 * @param type
+		 *            The type of the assembly.
+		 * @param name
+		 *            The name of the assembly.
+		 */
+		private AssemblySource(SFReactor reactor, String path,
+				AssemblyType type, String name) {
+			this.reactor = reactor;
+			this.path = path;
+			this.type = type;
+			this.name = name;
+		}
+
+		/**
+		 * Gets the path of the assembly's HDF5 Group in the file.
+		 *
+		 * @return The path of the Group.
+		 */
+		private String getGroupPath() {
+			return "/SFReactor/" + getAssemblyKey(type, name);
+		}
+	}
+
+	/**
+	 * This class computes a 64-bit digest of the values that would be written
+	 * to a file. Equal digests are taken to mean equal contents.
+	 */
+	private static class ContentDigest {
+
+		/**
+		 * The current value of the digest.
+		 */
+		private long value = 0x9E3779B97F4A7C15L;
+
+		/**
+		 * Adds a long to the digest.
+		 *
+		 * @param x
+		 *            The value to add.
+		 */
+		private void update(long x) {
+			long h = (value ^ x) * 0xBF58476D1CE4E5B9L;
+			value = (h ^ (h >>> 31)) * 0x94D049BB133111EBL;
+		}
+
+		/**
+		 * Adds a String to the digest.
+		 *
+		 * @param string
+		 *            The String to add.
+		 */
+		private void update(String string) {
+			update(string.length());
+			for (int i = 0; i < string.length(); i++) {
+				update(string.charAt(i));
+			}
+		}
+
+		/**
+		 * Adds a buffer that would be written to an Attribute or Dataset to
+		 * the digest.
+		 *
+		 * @param buffer
+		 *            The buffer. This should be an int[], a double[], a Double[]
+		 *            or a byte[][].
+		 * @throws IllegalArgumentException
+		 *             If the buffer is any other type.
+		 */
+		private void update(Object buffer) {
+			if (buffer instanceof int[]) {
+				for (int x : (int[]) buffer) {
+					update(x);
+				}
+			} else if (buffer instanceof double[]) {
+				for (double x : (double[]) buffer) {
+					update(Double.doubleToLongBits(x));
+				}
+			} else if (buffer instanceof Double[]) {
+				for (Double x : (Double[]) buffer) {
+					update(Double.doubleToLongBits(x));
+				}
+			} else if (buffer instanceof byte[][]) {
+				for (byte[] bytes : (byte[][]) buffer) {
+					update(bytes.length);
+					for (byte x : bytes) {
+						update(x);
+					}
+				}
+			} else {
+				throw new IllegalArgumentException(
+						"SFReactorIOHandler error: Cannot digest a buffer of type "
+								+ (buffer == null ? "null" : buffer.getClass()
+										.getName()) + ".");
+			}
+		}
+
+		/**
+		 * Gets the value of the digest.
+		 *
+		 * @return The value.
+		 */
+		private long getValue() {
+			return value;
+		}
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.ice.analysistool.IData;
+
+/**
+ * <p>
+ * FeatureColumns is the columnar counterpart of FeatureSet that the
+ * LWRDataProvider uses to store the data for one feature at one time step.
+ * Instead of keeping a list of LWRData, it stores the values, uncertainties
+ * and positions in primitive arrays. The units are almost always the same for
+ * every value of a feature, so they are stored once and only expanded to one
+ * String per value if they differ. The feature and unit Strings are interned
+ * so that all of the providers in a reactor share one copy of each.
+ * </p>
+ * <p>
+ * The data are handed out as LWRData views with get(). The views read from
+ * and write to these columns, so they only cost a reference and an index.
+ * </p>
+ * 
+ * @author agent
+ */
+class FeatureColumns {
+
+	/**
+	 * The initial capacity of the columns.
+	 */
+	private static final int initialCapacity = 4;
+
+	/**
+	 * The name of the feature.
+	 */
+	private final String name;
+
+	/**
+	 * The number of values in the columns.
+	 */
+	private int size;
+
+	/**
+	 * The values.
+	 */
+	private double[] values;
+
+	/**
+	 * The uncertainties.
+	 */
+	private double[] uncertainties;
+
+	/**
+	 * The x, y and z positions of each value, stored one after the other.
+	 */
+	private double[] positions;
+
+	/**
+	 * The units of all of the values if they are the same.
+	 */
+	private String units;
+
+	/**
+	 * The units of each value or null if they are all the same.
+	 */
+	private String[] mixedUnits;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param feature
+	 *            The name of the feature
+	 */
+	public FeatureColumns(String feature) {
+		name = feature.intern();
+		values = new double[initialCapacity];
+		uncertainties = new double[initialCapacity];
+		positions = new double[3 * initialCapacity];
+	}
+
+	/**
+	 * The copy constructor. The columns are trimmed to their size.
+	 * 
+	 * @param otherObject
+	 *            The columns to copy
+	 */
+	public FeatureColumns(FeatureColumns otherObject) {
+		name = otherObject.name;
+		size = otherObject.size;
+		values = Arrays.copyOf(otherObject.values, Math.max(1, size));
+		uncertainties = Arrays.copyOf(otherObject.uncertainties,
+				Math.max(1, size));
+		positions = Arrays.copyOf(otherObject.positions, Math.max(3, 3 * size));
+		units = otherObject.units;
+		if (otherObject.mixedUnits != null) {
+			mixedUnits = Arrays.copyOf(otherObject.mixedUnits,
+					Math.max(1, size));
+		}
+	}
+
+	/**
+	 * Returns the name of the feature.
+	 * 
+	 * @return The name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of values.
+	 * 
+	 * @return The size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the contents of the IData to the end of the columns. The IData
+	 * itself is not kept.
+	 * 
+	 * @param data
+	 *            The IData to add
+	 */
+	public void add(IData data) {
+
+		// Grow the columns if needed
+		if (size == values.length) {
+			int capacity = 2 * values.length;
+			values = Arrays.copyOf(values, capacity);
+			uncertainties = Arrays.copyOf(uncertainties, capacity);
+			positions = Arrays.copyOf(positions, 3 * capacity);
+			if (mixedUnits != null) {
+				mixedUnits = Arrays.copyOf(mixedUnits, capacity);
+			}
+		}
+
+		// Copy the values
+		int index = size++;
+		ArrayList<Double> position = data.getPosition();
+		values[index] = data.getValue();
+		uncertainties[index] = data.getUncertainty();
+		for (int i = 0; i < 3; i++) {
+			positions[3 * index + i] = position.get(i);
+		}
+		setUnits(index, data.getUnits());
+
+		return;
+	}
+
+	/**
+	 * Returns a view of the value at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The LWRData view
+	 */
+	public LWRData get(int index) {
+		return new LWRData(this, index);
+	}
+
+	/**
+	 * Returns views of all of the values.
+	 * 
+	 * @return The list of views
+	 */
+	public ArrayList<IData> getIData() {
+
+		// Local Declarations
+		ArrayList<IData> data = new ArrayList<IData>(size);
+
+		for (int i = 0; i < size; i++) {
+			data.add(new LWRData(this, i));
+		}
+
+		return data;
+	}
+
+	/**
+	 * Returns the value at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The value
+	 */
+	public double getValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Sets the value at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param value
+	 *            The value
+	 */
+	public void setValue(int index, double value) {
+		values[index] = value;
+	}
+
+	/**
+	 * Returns the uncertainty at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The uncertainty
+	 */
+	public double getUncertainty(int index) {
+		return uncertainties[index];
+	}
+
+	/**
+	 * Sets the uncertainty at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param uncertainty
+	 *            The uncertainty
+	 */
+	public void setUncertainty(int index, double uncertainty) {
+		uncertainties[index] = uncertainty;
+	}
+
+	/**
+	 * Returns one coordinate of the position at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param dimension
+	 *            0, 1 or 2 for x, y or z
+	 * @return The coordinate
+	 */
+	public double getPosition(int index, int dimension) {
+		return positions[3 * index + dimension];
+	}
+
+	/**
+	 * Sets one coordinate of the position at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param dimension
+	 *            0, 1 or 2 for x, y or z
+	 * @param coordinate
+	 *            The coordinate
+	 */
+	public void setPosition(int index, int dimension, double coordinate) {
+		positions[3 * index + dimension] = coordinate;
+	}
+
+	/**
+	 * Returns the units at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The units
+	 */
+	public String getUnits(int index) {
+		return (mixedUnits == null) ? units : mixedUnits[index];
+	}
+
+	/**
+	 * Sets the units at the index. The units are expanded to one String for
+	 * each value the first time that they differ.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param newUnits
+	 *            The units
+	 */
+	public void setUnits(int index, String newUnits) {
+
+		// Intern the units so that they are shared
+		newUnits = newUnits.intern();
+
+		if (mixedUnits == null) {
+			// Nothing to do if they are the same. Units are always interned,
+			// so the references can be compared. If there is only one value,
+			// its units can just be replaced.
+			if (units == newUnits || size <= 1) {
+				units = newUnits;
+				return;
+			}
+			// Expand the units
+			mixedUnits = new String[values.length];
+			Arrays.fill(mixedUnits, 0, size, units);
+		}
+		mixedUnits[index] = newUnits;
+
+		return;
+	}
+
+	/**
+	 * Returns true if the values at the index of both columns are equal.
+	 * 
+	 * @param index
+	 *            The index in these columns
+	 * @param otherObject
+	 *            The other columns
+	 * @param otherIndex
+	 *            The index in the other columns
+	 * @return True if they are equal, false otherwise
+	 */
+	public boolean equals(int index, FeatureColumns otherObject, int otherIndex) {
+		return name == otherObject.name
+				&& values[index] == otherObject.values[otherIndex]
+				&& uncertainties[index] == otherObject.uncertainties[otherIndex]
+				&& positions[3 * index] == otherObject.positions[3 * otherIndex]
+				&& positions[3 * index + 1] == otherObject.positions[3 * otherIndex + 1]
+				&& positions[3 * index + 2] == otherObject.positions[3 * otherIndex + 2]
+				&& getUnits(index) == otherObject.getUnits(otherIndex);
+	}
+
+	/**
+	 * Returns true if the object is a FeatureColumns with the same name and
+	 * values.
+	 * 
+	 * @param otherObject
+	 *            The object to compare
+	 * @return True if they are equal, false otherwise
+	 */
+	public boolean equals(Object otherObject) {
+
+		// If they are equal to the same object, return true
+		if (this == otherObject) {
+			return true;
+		}
+		// Check the type
+		if (!(otherObject instanceof FeatureColumns)) {
+			return false;
+		}
+		FeatureColumns columns = (FeatureColumns) otherObject;
+
+		// Check the values
+		if (!name.equals(columns.name) || size != columns.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (!equals(i, columns, i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the hashCode of the object.
+	 * 
+	 * @return The hash
+	 */
+	public int hashCode() {
+
+		// Local Declarations
+		int hash = 31;
+
+		// Calculate the hash from the name and the views
+		hash += 31 * name.hashCode();
+		for (int i = 0; i < size; i++) {
+			hash = 31 * hash + get(i).hashCode();
+		}
+
+		return hash;
+	}
+}
@@ -35,6 +35,11 @@ import ncsa.hdf.object.h5.H5Group;
  * populate that list accordingly to any part of a Reactor or its delegated
  * classes that inherit from LWRComponent.
  * </p>
+ * <p>
+ * The state point data of the LWRGridManagers in the tree can be limited to a
+ * single time or position with readTimeSlice() and readPosition(), which
+ * avoids loading the data of the whole reactor.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
@@ -98,6 +103,79 @@ public class LWRComponentReader implements IHdfReader {
 	 * @see IHdfReader#read(URI uri)
 	 */
 	public IHdfReadable read(URI uri) {
+		return this.read(uri, null, null);
+	}
+
+	/**
+	 * <p>
+	 * Reads the tree from the file at the provided URI, but only reads the
+	 * state point data of the LWRGridManagers at the given time.
+	 * </p>
+	 * 
+	 * @param uri
+	 *            <p>
+	 *            The URI of the file.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time to read.
+	 *            </p>
+	 * @return <p>
+	 *         The IHdfReadable read from the file or null if it could not be
+	 *         read.
+	 *         </p>
+	 */
+	public IHdfReadable readTimeSlice(URI uri, double time) {
+		return this.read(uri, time, null);
+	}
+
+	/**
+	 * <p>
+	 * Reads the tree from the file at the provided URI, but only reads the
+	 * state point data of the LWRGridManagers at the given location.
+	 * </p>
+	 * 
+	 * @param uri
+	 *            <p>
+	 *            The URI of the file.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The location to read.
+	 *            </p>
+	 * @return <p>
+	 *         The IHdfReadable read from the file or null if it could not be
+	 *         read.
+	 *         </p>
+	 */
+	public IHdfReadable readPosition(URI uri, GridLocation location) {
+		return this.read(uri, null, location);
+	}
+
+	/**
+	 * <p>
+	 * Reads the tree from the file at the provided URI with the given read
+	 * filter for the LWRGridManagers.
+	 * </p>
+	 * 
+	 * @param uri
+	 *            <p>
+	 *            The URI of the file.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The only time to read or null for all times.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The only location to read or null for all locations.
+	 *            </p>
+	 * @return <p>
+	 *         The IHdfReadable read from the file or null if it could not be
+	 *         read.
+	 *         </p>
+	 */
+	private IHdfReadable read(URI uri, Double time, GridLocation location) {
 
 		// Open the file at the provided uri
 		H5File h5File = HdfFileFactory.openH5File(uri);
@@ -118,7 +196,7 @@ public class LWRComponentReader implements IHdfReader {
 		H5Group h5Group = HdfReaderFactory.getChildH5Group(rootH5Group, 0);
 
 		// Read the group into the iHdfReadable
-		IHdfReadable iHdfReadable = this.read(h5Group);
+		IHdfReadable iHdfReadable = this.read(h5Group, time, location);
 
 		// Close the file
 		HdfFileFactory.closeH5File(h5File);
@@ -163,12 +241,21 @@ public class LWRComponentReader implements IHdfReader {
 	 *            <p>
 	 *            The H5Group to be read.
 	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The only time to read or null for all times.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The only location to read or null for all locations.
+	 *            </p>
 	 * @return <p>
 	 *         An IHdfReadable that has been populated by the provided H5Group
 	 *         and its child H5Groups and Datasets.
 	 *         </p>
 	 */
-	private IHdfReadable read(H5Group h5Group) {
+	private IHdfReadable read(H5Group h5Group, Double time,
+			GridLocation location) {
 
 		IHdfReadable iHdfReadable = null;
 
@@ -189,6 +276,11 @@ public class LWRComponentReader implements IHdfReader {
 			// Read in the attributes
 			iHdfReadable.readAttributes(h5Group);
 
+			// Limit the data read by grid managers
+			if (iHdfReadable instanceof LWRGridManager) {
+				((LWRGridManager) iHdfReadable).setReadFilter(time, location);
+			}
+
 			// Read in the datasets
 			iHdfReadable.readDatasets(h5Group);
 
@@ -203,7 +295,7 @@ public class LWRComponentReader implements IHdfReader {
 				for (H5Group group : childGroupList) {
 
 					// Create and populate a child from the child group
-					IHdfReadable child = this.read(group);
+					IHdfReadable child = this.read(group, time, location);
 
 					// Read the child into the readable
 					iHdfReadable.readChild(child);
@@ -30,11 +30,36 @@ import org.eclipse.ice.io.hdf.IHdfWriteable;
  * accordingly to any part of a Reactor or its delegated classes that inherit
  * from LWRComponent.
  * </p>
+ * <p>
+ * LWRGridManagers write their state point data in a chunked layout by
+ * default. setLegacyLayout() can be used to write files that older readers
+ * can open.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
 public class LWRComponentWriter implements IHdfWriter {
 
+	/**
+	 * True if the LWRGridManagers should be written in their older layout.
+	 */
+	private boolean legacyLayout = false;
+
+	/**
+	 * <p>
+	 * Sets whether the LWRGridManagers in the tree should be written in the
+	 * older layout with one group for each position and time step.
+	 * </p>
+	 * 
+	 * @param legacy
+	 *            <p>
+	 *            True if the older layout should be written, false otherwise.
+	 *            </p>
+	 */
+	public void setLegacyLayout(boolean legacy) {
+		legacyLayout = legacy;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -116,8 +141,17 @@ public class LWRComponentWriter implements IHdfWriter {
 		// Write the attributes for this LWRComponent
 		flag &= iHdfWriteable.writeAttributes(h5File, h5Group);
 
-		// Write the datasets for this LWRComponent
-		flag &= iHdfWriteable.writeDatasets(h5File, h5Group);
+		// Write the datasets for this LWRComponent. Grid managers are
+		// switched to the older layout for this write if requested.
+		if (legacyLayout && iHdfWriteable instanceof LWRGridManager) {
+			LWRGridManager manager = (LWRGridManager) iHdfWriteable;
+			boolean managerLayout = manager.isLegacyLayout();
+			manager.setLegacyLayout(true);
+			flag &= manager.writeDatasets(h5File, h5Group);
+			manager.setLegacyLayout(managerLayout);
+		} else {
+			flag &= iHdfWriteable.writeDatasets(h5File, h5Group);
+		}
 
 		// Get the children of iHdfWriteable
 		ArrayList<IHdfWriteable> children = iHdfWriteable
@@ -23,8 +23,10 @@ import java.util.ArrayList;
  * equality and copying routines for convenience.
  * </p>
  * <p>
- * </p>
- * <p>
+ * The LWRData returned by an LWRDataProvider are views of its columnar
+ * storage. Their setters write through to the provider, except for
+ * setFeature(), which is ignored because the feature is fixed by the column.
+ * The list returned by getPosition() on a view is a copy.
  * </p>
  * 
  * @author Scott Forest Hull II
@@ -67,6 +69,17 @@ public class LWRData implements IData {
 	 */
 	private String feature;
 
+	/**
+	 * The columns that back this LWRData if it is a view or null if it
+	 * stores its own values.
+	 */
+	private FeatureColumns columns;
+
+	/**
+	 * The index of this LWRData in its columns.
+	 */
+	private int index;
+
 	/**
 	 * <p>
 	 * The constructor. Sets up the default values for the LWRData.
@@ -106,6 +119,26 @@ public class LWRData implements IData {
 		this.setFeature(feature);
 	}
 
+	/**
+	 * <p>
+	 * A constructor that creates a view of the value at the index of the
+	 * columns.
+	 * </p>
+	 * 
+	 * @param columns
+	 *            <p>
+	 *            The columns
+	 *            </p>
+	 * @param index
+	 *            <p>
+	 *            The index
+	 *            </p>
+	 */
+	LWRData(FeatureColumns columns, int index) {
+		this.columns = columns;
+		this.index = index;
+	}
+
 	/**
 	 * <p>
 	 * Sets the position of the LWRData. The passed parameter can not be null
@@ -122,7 +155,12 @@ public class LWRData implements IData {
 	public void setPosition(ArrayList<Double> position) {
 
 		// If the position is not 3, return
-		if (position.size() == 3) {
+		if (position.size() == 3 && columns != null) {
+			// Write the position to the columns
+			for (int i = 0; i < 3; i++) {
+				columns.setPosition(index, i, position.get(i));
+			}
+		} else if (position.size() == 3) {
 			// Add all uniquely
 			this.position.clear();
 			// Iterate over the list and add each position
@@ -145,7 +183,11 @@ public class LWRData implements IData {
 	 */
 	public void setValue(double value) {
 
-		this.value = value;
+		if (columns != null) {
+			columns.setValue(index, value);
+		} else {
+			this.value = value;
+		}
 
 	}
 
@@ -161,7 +203,11 @@ public class LWRData implements IData {
 	 */
 	public void setUncertainty(double uncertainty) {
 
-		this.uncertainty = uncertainty;
+		if (columns != null) {
+			columns.setUncertainty(index, uncertainty);
+		} else {
+			this.uncertainty = uncertainty;
+		}
 
 	}
 
@@ -181,7 +227,11 @@ public class LWRData implements IData {
 		// If the String is not null and it is not empty string (when trimmed)
 		// set accordingly
 		if (units != null && !units.trim().isEmpty()) {
-			this.units = units.trim();
+			if (columns != null) {
+				columns.setUnits(index, units.trim());
+			} else {
+				this.units = units.trim();
+			}
 		}
 
 	}
@@ -200,7 +250,8 @@ public class LWRData implements IData {
 	public void setFeature(String feature) {
 		// If the String is not null and it is not empty string (when trimmed)
 		// set accordingly
-		if (feature != null && !feature.trim().isEmpty()) {
+		// The feature of a view is fixed by its columns.
+		if (feature != null && !feature.trim().isEmpty() && columns == null) {
 			this.feature = feature.trim();
 		}
 
@@ -232,11 +283,11 @@ public class LWRData implements IData {
 			data = (LWRData) otherObject;
 
 			// Check values
-			retVal = (this.position.equals(data.position)
-					&& this.value == data.value
-					&& this.uncertainty == data.uncertainty
-					&& this.units.equals(data.units) && this.feature
-					.equals(data.feature));
+			retVal = (this.getPosition().equals(data.getPosition())
+					&& this.getValue() == data.getValue()
+					&& this.getUncertainty() == data.getUncertainty()
+					&& this.getUnits().equals(data.getUnits()) && this
+					.getFeature().equals(data.getFeature()));
 
 		}
 
@@ -260,11 +311,11 @@ public class LWRData implements IData {
 		int hash = 31;
 
 		// Calculate the hashCode for the following attributes
-		hash += 31 * this.position.hashCode();
-		hash += 31 * this.value;
-		hash += 31 * this.uncertainty;
-		hash += 31 * this.units.hashCode();
-		hash += 31 * this.feature.hashCode();
+		hash += 31 * this.getPosition().hashCode();
+		hash += 31 * this.getValue();
+		hash += 31 * this.getUncertainty();
+		hash += 31 * this.getUnits().hashCode();
+		hash += 31 * this.getFeature().hashCode();
 
 		// Return the hash
 		return hash;
@@ -287,17 +338,12 @@ public class LWRData implements IData {
 		if (otherObject == null) {
 			return;
 		}
-		// Copy contents
-		this.position.clear();
-		// Deep copy position
-		for (int i = 0; i < otherObject.position.size(); i++) {
-			this.position.add(new Double(otherObject.position.get(i)
-					.doubleValue()));
-		}
-		this.feature = otherObject.feature;
-		this.uncertainty = otherObject.uncertainty;
-		this.units = otherObject.units;
-		this.value = otherObject.value;
+		// Copy contents. The setters write through if this is a view.
+		this.setPosition(otherObject.getPosition());
+		this.setFeature(otherObject.getFeature());
+		this.setUncertainty(otherObject.getUncertainty());
+		this.setUnits(otherObject.getUnits());
+		this.setValue(otherObject.getValue());
 
 	}
 
@@ -328,6 +374,15 @@ public class LWRData implements IData {
 	 */
 	public ArrayList<Double> getPosition() {
 
+		// Copy the position out of the columns for views
+		if (columns != null) {
+			ArrayList<Double> position = new ArrayList<Double>(3);
+			for (int i = 0; i < 3; i++) {
+				position.add(columns.getPosition(index, i));
+			}
+			return position;
+		}
+
 		return this.position;
 	}
 
@@ -338,7 +393,7 @@ public class LWRData implements IData {
 	 */
 	public double getValue() {
 
-		return this.value;
+		return (columns != null) ? columns.getValue(index) : this.value;
 	}
 
 	/**
@@ -348,7 +403,8 @@ public class LWRData implements IData {
 	 */
 	public double getUncertainty() {
 
-		return this.uncertainty;
+		return (columns != null) ? columns.getUncertainty(index)
+				: this.uncertainty;
 	}
 
 	/**
@@ -358,7 +414,7 @@ public class LWRData implements IData {
 	 */
 	public String getUnits() {
 
-		return this.units;
+		return (columns != null) ? columns.getUnits(index) : this.units;
 	}
 
 	/**
@@ -368,6 +424,6 @@ public class LWRData implements IData {
 	 */
 	public String getFeature() {
 
-		return this.feature;
+		return (columns != null) ? columns.getName() : this.feature;
 	}
 }
\ No newline at end of file
@@ -26,18 +26,24 @@ import java.util.ArrayList;
  * point data, usually for material decompositions or powers, that can be used
  * to store and display changes in value overtime across different features.
  * </p>
+ * <p>
+ * The data are stored in columns of primitive values for each feature and
+ * time step, so the LWRData passed to addData() are copied and not kept.
+ * getDataAtCurrentTime() returns LWRData views of the columns that can be
+ * used to read and change the stored values.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
 public class LWRDataProvider implements IDataProvider {
 	/**
 	 * <p>
-	 * A TreeMap implementation of IData and features. Keep in mind that there
-	 * can be multiple IData for the same feature.
+	 * A TreeMap of the columns of each feature at each time. Keep in mind that
+	 * there can be multiple IData for the same feature.
 	 * </p>
 	 * 
 	 */
-	private TreeMap<Double, ArrayList<FeatureSet>> dataTree;
+	private TreeMap<Double, ArrayList<FeatureColumns>> dataTree;
 	/**
 	 * <p>
 	 * The current time step. Can not be less than 0, and must be strictly less
@@ -70,7 +76,7 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public LWRDataProvider() {
 		// Setup TreeMap
-		this.dataTree = new TreeMap<Double, ArrayList<FeatureSet>>();
+		this.dataTree = new TreeMap<Double, ArrayList<FeatureColumns>>();
 
 		// Setup Source
 		this.sourceInfo = "No Source Available";
@@ -102,6 +108,8 @@ public class LWRDataProvider implements IDataProvider {
 	 * <p>
 	 * Adds a IData piece, keyed on the feature and timeStep, to the dataTree.
 	 * If the feature exists in the tree, it will append to the end of the list.
+	 * The values of the data are copied into the tree, so later changes to the
+	 * data are not seen by the provider.
 	 * </p>
 	 * 
 	 * @param data
@@ -113,53 +121,53 @@ public class LWRDataProvider implements IDataProvider {
 	public void addData(LWRData data, double time) {
 
 		// Local Declarations
-		ArrayList<FeatureSet> featureSetList;
-		FeatureSet set;
-		boolean featureExistsFlag = false;
+		ArrayList<FeatureColumns> columnsList;
+		FeatureColumns columns;
 
 		// Return if the passed parameters are incorrect
 		if (data == null || time < 0) {
 			return;
 		}
 
-		featureSetList = this.dataTree.get(time);
+		columnsList = this.dataTree.get(time);
 
 		// If the timestep does not exist in the list, add it to the list
-		if (featureSetList == null) {
-			featureSetList = new ArrayList<FeatureSet>();
-			set = new FeatureSet(data.getFeature());
-			set.addIData(data);
-			featureSetList.add(set);
-			this.dataTree.put(time, featureSetList);
+		if (columnsList == null) {
+			columnsList = new ArrayList<FeatureColumns>(1);
+			this.dataTree.put(time, columnsList);
+		}
 
+		// Append to the current columns if they exist or add new ones
+		columns = this.getColumns(columnsList, data.getFeature());
+		if (columns == null) {
+			columns = new FeatureColumns(data.getFeature());
+			columnsList.add(columns);
 		}
+		columns.add(data);
 
-		// Otherwise, the timestep exists and needs to append to the current
-		// running list
-		else {
-
-			// Append to the current FeatureSet if it exists
-			for (int i = 0; i < featureSetList.size(); i++) {
-				// IF the featureset is the same name as the data, add it
-				if (featureSetList.get(i).getName().equals(data.getFeature())) {
-					featureSetList.get(i).addIData(data);
-					featureExistsFlag = true;
-					break;
-				}
-			}
+	}
 
-			// If the featureSet does not exist, then add it
-			if (!featureExistsFlag) {
-				// If it does not, add it
-				set = new FeatureSet(data.getFeature());
-				set.addIData(data);
+	/**
+	 * Returns the columns for the feature in the list or null if the feature
+	 * is not in the list.
+	 * 
+	 * @param columnsList
+	 *            The list of columns at a time
+	 * @param feature
+	 *            The feature
+	 * @return The columns or null
+	 */
+	private FeatureColumns getColumns(ArrayList<FeatureColumns> columnsList,
+			String feature) {
 
-				// Add it to the list of sets
-				featureSetList.add(set);
+		for (int i = 0; i < columnsList.size(); i++) {
+			if (columnsList.get(i).getName().equals(feature)) {
+				return columnsList.get(i);
 			}
-
 		}
 
+		return null;
+
 	}
 
 	/**
@@ -187,9 +195,9 @@ public class LWRDataProvider implements IDataProvider {
 
 		// Iterate over the list of all timesteps and remove all the features
 		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
+			ArrayList<FeatureColumns> list = this.dataTree.get(iter.next());
 
-			// If the FeatureSet with the feature name exists, remove it
+			// If the columns with the feature name exist, remove them
 			for (int i = 0; i < list.size(); i++) {
 				if (list.get(i).getName().equals(feature)) {
 					list.remove(i);
@@ -226,12 +234,17 @@ public class LWRDataProvider implements IDataProvider {
 		// Setup the iterator
 		iter = otherObject.dataTree.keySet().iterator();
 
-		// Currently, this will only shallow copy the ArrayList on value. IData
-		// will have to implement copy and clone routines for it to be a deep
-		// copy
+		// Deep copy the columns. They only hold primitives and Strings, so
+		// this is cheap.
 		while (iter.hasNext()) {
 			Double key = iter.next();
-			this.dataTree.put(key, otherObject.dataTree.get(key));
+			ArrayList<FeatureColumns> otherList = otherObject.dataTree.get(key);
+			ArrayList<FeatureColumns> list = new ArrayList<FeatureColumns>(
+					otherList.size());
+			for (FeatureColumns columns : otherList) {
+				list.add(new FeatureColumns(columns));
+			}
+			this.dataTree.put(key, list);
 		}
 
 		// Copy Time info
@@ -362,7 +375,7 @@ public class LWRDataProvider implements IDataProvider {
 
 		// Iterate over the list of all timesteps get one unique feature
 		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
+			ArrayList<FeatureColumns> list = this.dataTree.get(iter.next());
 
 			// If the map does not have the feature name, add it
 			for (int i = 0; i < list.size(); i++) {
@@ -416,16 +429,13 @@ public class LWRDataProvider implements IDataProvider {
 			return new ArrayList<IData>();
 		}
 		// Locate the list
-		ArrayList<FeatureSet> list = this.dataTree.get(this.time);
+		ArrayList<FeatureColumns> list = this.dataTree.get(this.time);
 
 		if (list != null) {
-			// If the list exists, return the iData
-			for (int i = 0; i < list.size(); i++) {
-				if (list.get(i).getName().equals(feature)) {
-
-					// Return the reference to the list of iData
-					return list.get(i).getIData();
-				}
+			// If the list exists, return views of the iData
+			FeatureColumns columns = this.getColumns(list, feature);
+			if (columns != null) {
+				return columns.getIData();
 			}
 		}
 
@@ -453,7 +463,7 @@ public class LWRDataProvider implements IDataProvider {
 
 		// Local Declarations
 		ArrayList<String> features = new ArrayList<String>();
-		ArrayList<FeatureSet> list = null;
+		ArrayList<FeatureColumns> list = null;
 
 		// Get the list at the time
 		list = this.dataTree.get(this.time);
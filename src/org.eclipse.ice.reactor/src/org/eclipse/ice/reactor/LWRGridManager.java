@@ -13,9 +13,11 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.Vector;
 
 import ncsa.hdf.object.h5.H5CompoundDS;
@@ -44,6 +46,18 @@ import org.eclipse.ice.datastructures.ICEObject.Component;
  * time instead of using LWRComponent's IDataProvider directly. Please see
  * GridLocation for more details on the usage of this delegation class.
  * </p>
+ * <p>
+ * The state point data are written to HDF5 in a chunked layout by default.
+ * Each feature is stored as one compressed dataset with the dimensions
+ * position x time x axial x 6, where the last dimension holds the value,
+ * uncertainty, x, y and z position and units index of each LWRData. A second
+ * dataset for each feature holds the number of LWRData and the order of the
+ * feature at each position and time. The positions, times, features and units
+ * are stored once in index tables. The older layout, which uses one group for
+ * each position and time step, can still be read and can be written with
+ * setLegacyLayout(). A read can be limited to a single time or position with
+ * setReadFilter().
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
@@ -75,6 +89,49 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	private String headTableString = " headTable";
 	private String dataTableString = " dataTable";
 
+	// Names for the chunked layout
+	private static final String layoutAttributeName = "layout";
+	private static final int chunkedLayout = 2;
+	private static final String positionIndexTableName = "Position Index Table";
+	private static final String timeTableName = "Time Table";
+	private static final String featureNamesTableName = "Feature Names Table";
+	private static final String featureDataPrefix = "Feature Data ";
+	private static final String featureCountsPrefix = "Feature Counts ";
+
+	/**
+	 * The number of values stored for each LWRData in the chunked layout:
+	 * value, uncertainty, x, y, z and the units index.
+	 */
+	private static final int valuesPerData = 6;
+
+	/**
+	 * The gzip compression level used for the chunked datasets.
+	 */
+	private static final int compressionLevel = 6;
+
+	/**
+	 * The target size of a chunk in bytes.
+	 */
+	private static final int chunkSize = 64 * 1024;
+
+	/**
+	 * True if the data should be written in the older layout with one group
+	 * for each position and time step.
+	 */
+	private boolean legacyLayout = false;
+
+	/**
+	 * The only time that should be read from HDF5 or null if all times should
+	 * be read.
+	 */
+	private Double readTime = null;
+
+	/**
+	 * The only location whose data should be read from HDF5 or null if the
+	 * data at all locations should be read.
+	 */
+	private GridLocation readLocation = null;
+
 	/**
 	 * <p>
 	 * The Constructor.
@@ -390,7 +447,544 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		if (this.lWRComponents.isEmpty()) {
 			return true;
 		}
-		return this.writeFeatureSets(h5File, h5Group);
+		// Write the data in the requested layout
+		if (legacyLayout) {
+			return this.writeFeatureSets(h5File, h5Group);
+		}
+		return this.writeChunkedFeatureSets(h5File, h5Group);
+	}
+
+	/**
+	 * <p>
+	 * Sets whether the state point data should be written in the older layout
+	 * with one group for each position and time step instead of the chunked
+	 * layout. Files in either layout can always be read.
+	 * </p>
+	 * 
+	 * @param legacy
+	 *            <p>
+	 *            True if the older layout should be written, false otherwise.
+	 *            </p>
+	 */
+	public void setLegacyLayout(boolean legacy) {
+		legacyLayout = legacy;
+	}
+
+	/**
+	 * <p>
+	 * Returns true if the state point data are written in the older layout.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         True if the older layout is written, false otherwise.
+	 *         </p>
+	 */
+	public boolean isLegacyLayout() {
+		return legacyLayout;
+	}
+
+	/**
+	 * <p>
+	 * Limits the state point data that readDatasets() reads to a single time
+	 * and/or a single location. The components at all locations are always
+	 * read. Pass null for either argument to read all of the times or
+	 * locations.
+	 * </p>
+	 * 
+	 * @param time
+	 *            <p>
+	 *            The only time to read or null for all times.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The only location to read or null for all locations.
+	 *            </p>
+	 */
+	public void setReadFilter(Double time, GridLocation location) {
+		readTime = time;
+		readLocation = location;
+	}
+
+	/**
+	 * Returns true if the data at the location should be read based on the
+	 * read filter.
+	 * 
+	 * @param location
+	 *            The location
+	 * @return True if the data should be read, false otherwise
+	 */
+	private boolean isReadLocation(GridLocation location) {
+		return readLocation == null
+				|| (readLocation.getRow() == location.getRow() && readLocation
+						.getColumn() == location.getColumn());
+	}
+
+	/**
+	 * This writes the FeatureSets of all the locations in the chunked layout.
+	 * 
+	 * @param h5File
+	 *            The H5File
+	 * @param h5Group
+	 *            The Group
+	 * 
+	 * @return True if successful, false otherwise
+	 */
+	private boolean writeChunkedFeatureSets(H5File h5File, H5Group h5Group) {
+
+		// Local Declarations
+		ArrayList<String> unitsList = new ArrayList<String>();
+		ArrayList<String> positionNames = new ArrayList<String>();
+		ArrayList<String> features = new ArrayList<String>();
+		ArrayList<Integer> maxCounts = new ArrayList<Integer>();
+		TreeSet<Double> timeSet = new TreeSet<Double>();
+		ArrayList<GridLocation> locations = new ArrayList<GridLocation>(
+				this.lWRComponents.keySet());
+		int numPositions = locations.size();
+		H5Group mainH5Group = null;
+
+		// Gather the times, features, units and the largest number of
+		// LWRData for each feature.
+		for (GridLocation location : locations) {
+			LWRDataProvider provider = location.getLWRDataProvider();
+			double previousTime = provider.getCurrentTime();
+			for (Double time : provider.getTimes()) {
+				timeSet.add(time);
+				provider.setTime(time);
+				for (String feature : provider.getFeaturesAtCurrentTime()) {
+					ArrayList<IData> set = provider.getDataAtCurrentTime(feature);
+					int index = features.indexOf(feature);
+					if (index < 0) {
+						features.add(feature);
+						maxCounts.add(set.size());
+					} else {
+						maxCounts.set(index,
+								Math.max(maxCounts.get(index), set.size()));
+					}
+					for (IData iData : set) {
+						if (!unitsList.contains(iData.getUnits())) {
+							unitsList.add(iData.getUnits());
+						}
+					}
+				}
+			}
+			provider.setTime(previousTime);
+			// Get the name of the component at the position
+			if (!positionNames.contains(this.lWRComponents.get(location))) {
+				positionNames.add(this.lWRComponents.get(location));
+			}
+		}
+		ArrayList<Double> times = new ArrayList<Double>(timeSet);
+		int numTimes = times.size();
+
+		try {
+			// Make the main group and mark its layout
+			mainH5Group = HdfWriterFactory.createH5Group(h5File,
+					this.dataH5GroupName, h5Group);
+			HdfWriterFactory.writeIntegerAttribute(h5File, mainH5Group,
+					layoutAttributeName, chunkedLayout);
+
+			// Get the datatypes
+			Datatype dataTypeInteger = HdfWriterFactory
+					.createIntegerH5Datatype(h5File);
+			Datatype dataTypeDouble = HdfWriterFactory
+					.createFloatH5Datatype(h5File);
+
+			// Write the index of the positions. Each row is the row, column
+			// and index of the component name.
+			int[] positionData = new int[numPositions * 3];
+			for (int i = 0; i < numPositions; i++) {
+				GridLocation location = locations.get(i);
+				positionData[3 * i] = location.getRow();
+				positionData[3 * i + 1] = location.getColumn();
+				positionData[3 * i + 2] = positionNames
+						.indexOf(this.lWRComponents.get(location));
+			}
+			long[] dimsPositions = { numPositions, 3 };
+			h5File.createScalarDS(positionIndexTableName, mainH5Group,
+					dataTypeInteger, dimsPositions, null, null, 0, positionData);
+
+			// Write the names, units, features and times
+			writeStringTable(h5File, mainH5Group,
+					"Simple Position Names Table", positionNames);
+			writeStringTable(h5File, mainH5Group, "Units Table", unitsList);
+			writeStringTable(h5File, mainH5Group, featureNamesTableName,
+					features);
+			if (numTimes > 0) {
+				double[] timeData = new double[numTimes];
+				for (int i = 0; i < numTimes; i++) {
+					timeData[i] = times.get(i);
+				}
+				long[] dimsTimes = { numTimes };
+				h5File.createScalarDS(timeTableName, mainH5Group,
+						dataTypeDouble, dimsTimes, null, null, 0, timeData);
+			}
+
+			// Write one dataset of data and one of counts for each feature.
+			// They are written one position at a time to limit the memory
+			// used.
+			for (int i = 0; i < features.size(); i++) {
+
+				// Create the datasets
+				int maxCount = Math.max(1, maxCounts.get(i));
+				long chunkTimes = Math.max(1, Math.min(numTimes, chunkSize
+						/ (8 * valuesPerData * maxCount)));
+				long[] dimsData = { numPositions, numTimes, maxCount,
+						valuesPerData };
+				long[] chunksData = { 1, chunkTimes, maxCount, valuesPerData };
+				long[] dimsCounts = { numPositions, numTimes, 2 };
+				long[] chunksCounts = { 1, numTimes, 2 };
+				Dataset dataSet = h5File.createScalarDS(featureDataPrefix + i,
+						mainH5Group, dataTypeDouble, dimsData, null,
+						chunksData, compressionLevel, null);
+				Dataset countSet = h5File.createScalarDS(featureCountsPrefix
+						+ i, mainH5Group, dataTypeInteger, dimsCounts, null,
+						chunksCounts, compressionLevel, null);
+				dataSet.init();
+				countSet.init();
+
+				// Write the positions
+				for (int j = 0; j < numPositions; j++) {
+					double[] data = new double[numTimes * maxCount
+							* valuesPerData];
+					int[] counts = new int[numTimes * 2];
+					fillChunkedData(locations.get(j).getLWRDataProvider(),
+							features.get(i), times, unitsList, maxCount, data,
+							counts);
+					selectSlab(dataSet, new long[] { j, 0, 0, 0 }, new long[] {
+							1, numTimes, maxCount, valuesPerData });
+					dataSet.write(data);
+					selectSlab(countSet, new long[] { j, 0, 0 }, new long[] {
+							1, numTimes, 2 });
+					countSet.write(counts);
+				}
+			}
+
+		} catch (Exception e) {
+			// Break and return
+			e.printStackTrace();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Fills the arrays that are written for one feature at one location in
+	 * the chunked layout.
+	 * 
+	 * @param provider
+	 *            The LWRDataProvider at the location
+	 * @param feature
+	 *            The feature
+	 * @param times
+	 *            All of the times in the file
+	 * @param unitsList
+	 *            The list of units
+	 * @param maxCount
+	 *            The largest number of LWRData for the feature
+	 * @param data
+	 *            The values of the LWRData at each time
+	 * @param counts
+	 *            The number of LWRData and the order of the feature at each
+	 *            time
+	 */
+	private void fillChunkedData(LWRDataProvider provider, String feature,
+			ArrayList<Double> times, ArrayList<String> unitsList,
+			int maxCount, double[] data, int[] counts) {
+
+		// Local Declarations
+		double previousTime = provider.getCurrentTime();
+
+		for (Double time : provider.getTimes()) {
+			int timeIndex = Collections.binarySearch(times, time);
+			provider.setTime(time);
+			// Get the data and the order of the feature at this time
+			int order = provider.getFeaturesAtCurrentTime().indexOf(feature);
+			if (order < 0) {
+				continue;
+			}
+			ArrayList<IData> set = provider.getDataAtCurrentTime(feature);
+			counts[2 * timeIndex] = set.size();
+			counts[2 * timeIndex + 1] = order;
+			// Copy the values
+			for (int k = 0; k < set.size(); k++) {
+				IData iData = set.get(k);
+				ArrayList<Double> position = iData.getPosition();
+				int offset = (timeIndex * maxCount + k) * valuesPerData;
+				data[offset] = iData.getValue();
+				data[offset + 1] = iData.getUncertainty();
+				data[offset + 2] = position.get(0);
+				data[offset + 3] = position.get(1);
+				data[offset + 4] = position.get(2);
+				data[offset + 5] = unitsList.indexOf(iData.getUnits());
+			}
+		}
+
+		// Reset the time
+		provider.setTime(previousTime);
+
+		return;
+	}
+
+	/**
+	 * Selects a hyperslab of a Dataset that has already been initialized for
+	 * the next read or write.
+	 * 
+	 * @param dataset
+	 *            The Dataset
+	 * @param start
+	 *            The start of the slab in each dimension
+	 * @param count
+	 *            The size of the slab in each dimension
+	 */
+	private void selectSlab(Dataset dataset, long[] start, long[] count) {
+
+		// Get the selection arrays. They are modified in place.
+		long[] startDims = dataset.getStartDims();
+		long[] selectedDims = dataset.getSelectedDims();
+
+		for (int i = 0; i < start.length; i++) {
+			startDims[i] = start[i];
+			selectedDims[i] = count[i];
+		}
+
+		return;
+	}
+
+	/**
+	 * Writes a list of Strings as a one dimensional dataset. Nothing is
+	 * written if the list is empty.
+	 * 
+	 * @param h5File
+	 *            The H5File
+	 * @param h5Group
+	 *            The group
+	 * @param name
+	 *            The name of the dataset
+	 * @param strings
+	 *            The Strings
+	 * @throws Exception
+	 */
+	private void writeStringTable(H5File h5File, H5Group h5Group, String name,
+			ArrayList<String> strings) throws Exception {
+
+		// Only write if there is something to write
+		if (strings.isEmpty()) {
+			return;
+		}
+
+		// Get the length of the longest string
+		int maxLength = 1;
+		for (String string : strings) {
+			maxLength = Math.max(string.length(), maxLength);
+		}
+
+		// Setup the string datatype and write the dataset
+		long[] dimsStrings = { strings.size() };
+		H5Datatype datatypeString = (H5Datatype) h5File.createDatatype(
+				Datatype.CLASS_STRING, maxLength, Datatype.NATIVE,
+				Datatype.NATIVE);
+		Dataset dataSet = h5File.createScalarDS(name, h5Group, datatypeString,
+				dimsStrings, null, null, 0, null);
+		dataSet.write(strings.toArray(new String[strings.size()]));
+		dataSet.init();
+
+		return;
+	}
+
+	/**
+	 * Reads a one dimensional dataset of Strings.
+	 * 
+	 * @param h5Group
+	 *            The group
+	 * @param name
+	 *            The name of the dataset
+	 * @return The Strings or null if the dataset does not exist
+	 * @throws Exception
+	 */
+	private String[] readStringTable(H5Group h5Group, String name)
+			throws Exception {
+
+		// Get the dataset
+		Dataset dataSet = HdfReaderFactory.getDataset(h5Group, name);
+		if (dataSet == null) {
+			return null;
+		}
+		dataSet.init();
+
+		return (String[]) dataSet.getData();
+	}
+
+	/**
+	 * Reads the FeatureSets of all the locations that pass the read filter
+	 * from the chunked layout.
+	 * 
+	 * @param dataH5Group
+	 *            The Positions group
+	 * @return True if successful, false otherwise
+	 */
+	private boolean readChunkedFeatureSets(H5Group dataH5Group) {
+
+		// Local Declarations
+		String[] units = null, positionNames = null, features = null;
+		double[] times = new double[0];
+		int[] positionData = null;
+		Dataset[] dataSets = null, countSets = null;
+		int[] maxCounts = null;
+
+		try {
+			// Read the index tables
+			units = readStringTable(dataH5Group, "Units Table");
+			positionNames = readStringTable(dataH5Group,
+					"Simple Position Names Table");
+			features = readStringTable(dataH5Group, featureNamesTableName);
+			Dataset timeSet = HdfReaderFactory.getDataset(dataH5Group,
+					timeTableName);
+			if (timeSet != null) {
+				timeSet.init();
+				times = (double[]) timeSet.getData();
+			}
+			Dataset positionSet = HdfReaderFactory.getDataset(dataH5Group,
+					positionIndexTableName);
+			if (positionSet == null || positionNames == null) {
+				System.err.println("LWRGridManager: Can't find dataset for "
+						+ "reading the positions table.");
+				return false;
+			}
+			positionSet.init();
+			positionData = (int[]) positionSet.getData();
+
+			// Open the feature datasets
+			if (features == null) {
+				features = new String[0];
+			}
+			dataSets = new Dataset[features.length];
+			countSets = new Dataset[features.length];
+			maxCounts = new int[features.length];
+			for (int i = 0; i < features.length; i++) {
+				dataSets[i] = HdfReaderFactory.getDataset(dataH5Group,
+						featureDataPrefix + i);
+				countSets[i] = HdfReaderFactory.getDataset(dataH5Group,
+						featureCountsPrefix + i);
+				dataSets[i].init();
+				countSets[i].init();
+				maxCounts[i] = (int) dataSets[i].getDims()[2];
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		// Figure out which times should be read
+		int timeStart = 0, numTimes = times.length;
+		if (readTime != null) {
+			numTimes = 0;
+			for (int i = 0; i < times.length; i++) {
+				if (times[i] == readTime.doubleValue()) {
+					timeStart = i;
+					numTimes = 1;
+					break;
+				}
+			}
+		}
+
+		// Read the positions
+		for (int i = 0; i < positionData.length / 3; i++) {
+
+			// Create the location and add it to the tree
+			GridLocation location = new GridLocation(positionData[3 * i],
+					positionData[3 * i + 1]);
+			this.lWRComponents.put(location,
+					positionNames[positionData[3 * i + 2]]);
+
+			// Skip the data if it was not requested
+			if (!isReadLocation(location) || numTimes == 0
+					|| features.length == 0) {
+				continue;
+			}
+
+			try {
+				// Read the slabs for this location
+				double[][] data = new double[features.length][];
+				int[][] counts = new int[features.length][];
+				for (int j = 0; j < features.length; j++) {
+					selectSlab(dataSets[j],
+							new long[] { i, timeStart, 0, 0 }, new long[] { 1,
+									numTimes, maxCounts[j], valuesPerData });
+					data[j] = (double[]) dataSets[j].read();
+					selectSlab(countSets[j], new long[] { i, timeStart, 0 },
+							new long[] { 1, numTimes, 2 });
+					counts[j] = (int[]) countSets[j].read();
+				}
+				// Add the data at each time
+				addChunkedData(location.getLWRDataProvider(), features, units,
+						times, timeStart, numTimes, maxCounts, data, counts);
+			} catch (Exception e) {
+				e.printStackTrace();
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Adds the data read from the chunked layout for one location to its
+	 * LWRDataProvider. The features are added at each time in the order in
+	 * which they were written.
+	 * 
+	 * @param provider
+	 *            The LWRDataProvider
+	 * @param features
+	 *            The names of the features
+	 * @param units
+	 *            The units table
+	 * @param times
+	 *            All of the times in the file
+	 * @param timeStart
+	 *            The index of the first time that was read
+	 * @param numTimes
+	 *            The number of times that were read
+	 * @param maxCounts
+	 *            The largest number of LWRData for each feature
+	 * @param data
+	 *            The values read for each feature
+	 * @param counts
+	 *            The counts and orders read for each feature
+	 */
+	private void addChunkedData(LWRDataProvider provider, String[] features,
+			String[] units, double[] times, int timeStart, int numTimes,
+			int[] maxCounts, double[][] data, int[][] counts) {
+
+		for (int t = 0; t < numTimes; t++) {
+
+			// Sort the features that have data at this time by their order
+			TreeMap<Integer, Integer> featureOrder = new TreeMap<Integer, Integer>();
+			for (int j = 0; j < features.length; j++) {
+				if (counts[j][2 * t] > 0) {
+					featureOrder.put(counts[j][2 * t + 1], j);
+				}
+			}
+
+			// Add the data
+			for (int j : featureOrder.values()) {
+				for (int k = 0; k < counts[j][2 * t]; k++) {
+					int offset = (t * maxCounts[j] + k) * valuesPerData;
+					LWRData lwrdata = new LWRData(features[j]);
+					lwrdata.setValue(data[j][offset]);
+					lwrdata.setUncertainty(data[j][offset + 1]);
+					ArrayList<Double> position = new ArrayList<Double>();
+					position.add(data[j][offset + 2]);
+					position.add(data[j][offset + 3]);
+					position.add(data[j][offset + 4]);
+					lwrdata.setPosition(position);
+					lwrdata.setUnits(units[(int) data[j][offset + 5]]);
+					provider.addData(lwrdata, times[timeStart + t]);
+				}
+			}
+		}
+
+		return;
 	}
 
 	//
@@ -726,6 +1320,13 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		// Clear the tree
 		this.lWRComponents.clear();
 
+		// Read the chunked layout if the group is marked with it
+		Integer layout = HdfReaderFactory.readIntegerAttribute(dataH5Group,
+				layoutAttributeName);
+		if (layout != null && layout.intValue() == chunkedLayout) {
+			return this.readChunkedFeatureSets(dataH5Group);
+		}
+
 		// If the dataGroup is 0, return
 		if (dataH5Group.getNumberOfMembersInFile() == 0) {
 			return true;
@@ -817,6 +1418,10 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			if (arrayStrings == null && position.getNumberOfMembersInFile() > 1) {
 				return false;
 			}
+			// Skip the data if it was not requested
+			if (!isReadLocation(location)) {
+				continue;
+			}
 			// Iterate over ONLY the groups
 			ArrayList<H5Group> timeStepsMemberList = HdfReaderFactory
 					.getChildH5Groups(position);
@@ -859,6 +1464,11 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			double time = HdfReaderFactory.readDoubleAttribute(timeGroup,
 					"time");
 
+			// Skip the time step if it was not requested
+			if (readTime != null && time != readTime.doubleValue()) {
+				continue;
+			}
+
 			ArrayList<HObject> memberList = HdfReaderFactory
 					.getChildH5Members(timeGroup);
 
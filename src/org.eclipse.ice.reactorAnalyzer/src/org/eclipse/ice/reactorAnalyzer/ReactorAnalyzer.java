@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.ice.reactorAnalyzer;
 
+import org.eclipse.ice.analysistool.AnalysisPool;
 import org.eclipse.ice.analysistool.IAnalysisAsset;
 import org.eclipse.ice.analysistool.IAnalysisDocument;
 import org.eclipse.ice.analysistool.IAnalysisTool;
@@ -40,6 +41,14 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -76,6 +85,14 @@ import org.eclipse.core.runtime.IPath;
  * The ResourceComponent is monitored for changes and the artifacts are updated
  * on the fly. The ResourceComponent is named "Analysis Artifacts" and has id=2.
  * </p>
+ * <p>
+ * Processing runs on the fork/join pool of AnalysisPool, which is shared with
+ * the analysis tools. The assets of each IAnalysisDocument are created in parallel with those of
+ * the other documents. The assets of a document are kept until its data or
+ * its selected assets change, so changing the selection for one analysis does
+ * not recreate the assets of the others. getStatus() and getProgress() report
+ * on the processing while it runs and cancelProcess() stops it.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -177,6 +194,32 @@ public class ReactorAnalyzer extends Item implements Runnable {
 	 */
 	private IReactorComponent referenceReactorComponent = null;
 
+	/**
+	 * The assets that were last created by each analysis document, along with
+	 * the selection that they were created for.
+	 */
+	private final Map<IAnalysisDocument, AssetMemo> assetMemos = Collections
+			.synchronizedMap(new IdentityHashMap<IAnalysisDocument, AssetMemo>());
+
+	/**
+	 * The flag used to cancel the current processing request. A new flag is
+	 * created for every request so that a canceled request can not affect the
+	 * next one.
+	 */
+	private final AtomicReference<AtomicBoolean> processCanceled = new AtomicReference<AtomicBoolean>(
+			new AtomicBoolean());
+
+	/**
+	 * The number of analysis documents that have been processed in the
+	 * current processing request.
+	 */
+	private final AtomicInteger completedDocuments = new AtomicInteger();
+
+	/**
+	 * The number of analysis documents in the current processing request.
+	 */
+	private volatile int totalDocuments = 0;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -431,6 +474,13 @@ public class ReactorAnalyzer extends Item implements Runnable {
 		if (inputReactor != null && inputReactor != inputReactorComponent) {
 			inputReactorComponent = inputReactor;
 
+			// The documents for the old data source are replaced, along with
+			// their assets. The reference data must be loaded into the new
+			// documents, so forget the current reference.
+			analysisDocuments.clear();
+			assetMemos.clear();
+			referenceReactorComponent = null;
+
 			// FIXME - We should probably change the search to look for
 			// an ID instead of a String.
 			// Get documents for the new data source
@@ -606,9 +656,11 @@ public class ReactorAnalyzer extends Item implements Runnable {
 			// Set the references
 			concurrentStatus.set(status);
 			concurrentForm.set(form);
-			// Start the processing thread
-			Thread analysisThread = new Thread(this);
-			analysisThread.start();
+			processCanceled.set(new AtomicBoolean());
+			completedDocuments.set(0);
+			totalDocuments = 0;
+			// Start processing on the pool
+			AnalysisPool.getPool().execute(this);
 		} else {
 			return FormStatus.InfoError;
 		}
@@ -699,6 +751,71 @@ public class ReactorAnalyzer extends Item implements Runnable {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation returns the fraction of the analysis documents that have
+	 * been processed by the current or last processing request.
+	 * </p>
+	 * 
+	 * @return A value between 0 and 1, which is 1 if there was nothing to
+	 *         process
+	 */
+	public double getProgress() {
+
+		// Local Declarations
+		int total = totalDocuments;
+
+		if (total == 0) {
+			return (getStatus() == FormStatus.Processing) ? 0.0 : 1.0;
+		}
+
+		return Math.min(1.0, (double) completedDocuments.get() / total);
+	}
+
+	/**
+	 * <p>
+	 * This operation cancels the current processing request. Documents that
+	 * are already creating their assets finish, but no more are started and
+	 * the Form is not updated. The assets that were finished are kept for the
+	 * next request.
+	 * </p>
+	 * 
+	 * @return The status of the ReactorAnalyzer, which is ReadyToProcess if
+	 *         the request was canceled
+	 */
+	@Override
+	public FormStatus cancelProcess() {
+
+		// Only cancel if the analyzer is actually processing
+		if (getStatus() == FormStatus.Processing) {
+			processCanceled.get().set(true);
+			concurrentStatus.set(FormStatus.ReadyToProcess);
+			status = FormStatus.ReadyToProcess;
+		}
+
+		return status;
+	}
+
+	/**
+	 * <p>
+	 * This operation cancels the current processing request if it was for the
+	 * named action.
+	 * </p>
+	 * 
+	 * @param actionName
+	 *            The name of the action to cancel
+	 * @return The status of the ReactorAnalyzer
+	 */
+	@Override
+	public FormStatus cancelProcess(String actionName) {
+
+		if ("Generate Analysis Artifacts".equals(actionName)) {
+			return cancelProcess();
+		}
+
+		return FormStatus.InfoError;
+	}
+
 	/**
 	 * <p>
 	 * Given a general IDataProvider, attempt to construct an IDataProvider
@@ -722,7 +839,6 @@ public class ReactorAnalyzer extends Item implements Runnable {
 		int totalNAssemblies = 0, nRows = 0, nCols = 0, nAxial = 49;
 		int nAssemblies = 0;
 		FuelAssembly assembly = null;
-		ArrayList<IData> dataElements = new ArrayList<IData>();
 		LWRDataProvider provider = new LWRDataProvider();
 		LWRData temp = null;
 
@@ -731,7 +847,8 @@ public class ReactorAnalyzer extends Item implements Runnable {
 		// fuel assembly grid
 		totalNAssemblies = reactor.getSize();
 
-		// Loop over all the possible fuel assembly locations
+		// Loop over all the possible fuel assembly locations and add a copy
+		// of each pin power straight to the provider.
 		for (int i = 0; i < totalNAssemblies; i++) {
 			for (int j = 0; j < totalNAssemblies; j++) {
 				// Get the assembly at location i,j
@@ -757,49 +874,42 @@ public class ReactorAnalyzer extends Item implements Runnable {
 							// control rod or something else
 							IDataProvider prov = assembly
 									.getLWRRodDataProviderAtLocation(k, l);
+							ArrayList<IData> pinPowers = null;
 							if (prov != null
 									&& prov.getFeatureList().contains(
 											"Axial Pin Power")) {
-								// Since there was a rod here, take the Axial
-								// Pin Power
-								// data and add it to the list of elements
-								dataElements
-										.addAll(prov
-												.getDataAtCurrentTime("Axial Pin Power"));
-								// Get the number of axial levels,
-								// I am assuming its the same throughout
-								nAxial = prov.getDataAtCurrentTime(
-										"Axial Pin Power").size();
+								pinPowers = prov
+										.getDataAtCurrentTime("Axial Pin Power");
+							}
+							if (pinPowers != null) {
+								// Since there was a rod here, add the Axial
+								// Pin Power data. Get the number of axial
+								// levels, I am assuming its the same
+								// throughout
+								nAxial = pinPowers.size();
+								for (IData d : pinPowers) {
+									temp = new LWRData("Data");
+									temp.setValue(d.getValue());
+									temp.setUncertainty(d.getUncertainty());
+									provider.addData(temp, 0.0);
+								}
 							} else {
-								// If we had no fuel rod at k,l then
-								// we should add an empty IData element
-								temp = new LWRData("Data");
-								temp.setValue(0.0);
-								temp.setUncertainty(0.0);
-								// Add nAxial of them to simulate an empty
-								// fuel rod spot
+								// If we had no fuel rod at k,l then we should
+								// add nAxial empty IData elements to simulate
+								// an empty fuel rod spot
 								for (int ii = 0; ii < nAxial; ii++) {
-									dataElements.add(temp);
+									temp = new LWRData("Data");
+									temp.setValue(0.0);
+									temp.setUncertainty(0.0);
+									provider.addData(temp, 0.0);
 								}
-
 							}
 						}
 					}
-				} else {
 				}
-
 			}
 		}
 
-		// Add all the IData elements to the
-		// IDataProvider we are returning
-		for (IData d : dataElements) {
-			temp = new LWRData("Data");
-			temp.setValue(d.getValue());
-			temp.setUncertainty(d.getUncertainty());
-			provider.addData(temp, 0.0);
-		}
-
 		// KDD needs to know the number of rows
 		temp = new LWRData("Number of Rows");
 		temp.setValue(nRows);
@@ -855,10 +965,15 @@ public class ReactorAnalyzer extends Item implements Runnable {
 						&& referenceReactor instanceof IDataProvider
 						&& !(analysisDocuments.isEmpty())
 						&& analysisDocuments.get(0) != null) {
-					analysisDocuments
-							.get(0)
-							.loadReferenceData(
-									getKDDIDataProvider((IDataProvider) referenceReactor));
+					IAnalysisDocument document = analysisDocuments.get(0);
+					IDataProvider reference = getKDDIDataProvider((IDataProvider) referenceReactor);
+					// The assets of the document were created against the old
+					// reference, so forget them. createAssets() holds the lock
+					// on the document while it uses its memo.
+					synchronized (document) {
+						document.loadReferenceData(reference);
+						assetMemos.remove(document);
+					}
 				}
 			}
 
@@ -876,12 +991,18 @@ public class ReactorAnalyzer extends Item implements Runnable {
 	 */
 	public void run() {
 
+		// Local Declarations
+		final AtomicBoolean canceled = processCanceled.get();
+		Form processForm = concurrentForm.get();
+		ArrayList<Future<ArrayList<IAnalysisAsset>>> results = new ArrayList<Future<ArrayList<IAnalysisAsset>>>();
+		ArrayList<IAnalysisAsset> assets = new ArrayList<IAnalysisAsset>();
+
 		// Get the MasterDetailsComponent component from the concurrentForm
-		MasterDetailsComponent analysisConfigComp = (MasterDetailsComponent) concurrentForm
-				.get().getComponent(3);
+		MasterDetailsComponent analysisConfigComp = (MasterDetailsComponent) processForm
+				.getComponent(analysisMDCompId);
 
 		// Create an ArrayList to hold the selected assets
-		ArrayList<String> selectedAssets = new ArrayList<String>();
+		final ArrayList<String> selectedAssets = new ArrayList<String>();
 
 		// Loop over all the MasterDetailsPairs
 		for (int i = 0; i < analysisConfigComp.numberOfMasters(); i++) {
@@ -891,22 +1012,54 @@ public class ReactorAnalyzer extends Item implements Runnable {
 
 		}
 
-		// Get the first document in the analysisDocuments list
-		// since we will only have a KDDAnalysisDocument to access initially
-		IAnalysisDocument document = analysisDocuments.get(0);
-
-		// Set the selected assets on the document
-		document.setSelectedAssets(selectedAssets);
+		// Create the assets of each document on the pool. The documents are
+		// independent, so they can be processed at the same time.
+		ArrayList<IAnalysisDocument> documents = new ArrayList<IAnalysisDocument>(
+				analysisDocuments);
+		documents.removeAll(Collections.singleton(null));
+		totalDocuments = documents.size();
+		for (final IAnalysisDocument document : documents) {
+			results.add(AnalysisPool.getPool().submit(
+					new Callable<ArrayList<IAnalysisAsset>>() {
+						@Override
+						public ArrayList<IAnalysisAsset> call() {
+							ArrayList<IAnalysisAsset> documentAssets = null;
+							if (!canceled.get()) {
+								documentAssets = createAssets(document,
+										selectedAssets);
+							}
+							completedDocuments.incrementAndGet();
+							return documentAssets;
+						}
+					}));
+		}
 
-		// Create the assets
-		document.createSelectedAssets();
+		// Collect the assets in the order of the documents
+		try {
+			for (Future<ArrayList<IAnalysisAsset>> result : results) {
+				ArrayList<IAnalysisAsset> documentAssets = result.get();
+				if (documentAssets != null) {
+					assets.addAll(documentAssets);
+				}
+			}
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+			canceled.set(true);
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+			canceled.set(true);
+			concurrentStatus.compareAndSet(FormStatus.Processing,
+					FormStatus.InfoError);
+		}
 
-		// Get all of the selected assets
-		ArrayList<IAnalysisAsset> assets = document.getAllAssets();
+		// Don't touch the Form if the request was canceled
+		if (canceled.get()) {
+			return;
+		}
 
 		// Get the ResourceComponent from the concurrentForm
-		ResourceComponent resourceComponent = (ResourceComponent) concurrentForm
-				.get().getComponent(resourceCompId);
+		ResourceComponent resourceComponent = (ResourceComponent) processForm
+				.getComponent(resourceCompId);
 
 		// Check for any resources currently stored in the resourceComponent
 		if (!(resourceComponent.getResources().isEmpty())) {
@@ -947,14 +1100,94 @@ public class ReactorAnalyzer extends Item implements Runnable {
 
 			}
 		}
-		// Set the status
-		concurrentStatus.set(FormStatus.Processed);
-
-		// Assign the concurrentForm reference to form.
-		form = concurrentForm.get();
+		// Set the status, unless the request was canceled in the meantime
+		if (concurrentStatus.compareAndSet(FormStatus.Processing,
+				FormStatus.Processed)) {
+			// Assign the concurrentForm reference to form.
+			form = processForm;
+		}
 
 		return;
 
 	}
 
+	/**
+	 * <p>
+	 * This operation creates the selected assets of a document, or returns
+	 * the assets that it created for the same selection the last time.
+	 * </p>
+	 * 
+	 * @param document
+	 *            The analysis document
+	 * @param selectedAssets
+	 *            The names of all of the selected assets
+	 * @return The assets of the document
+	 */
+	private ArrayList<IAnalysisAsset> createAssets(IAnalysisDocument document,
+			ArrayList<String> selectedAssets) {
+
+		// Local Declarations
+		ArrayList<String> documentSelection = new ArrayList<String>();
+		ArrayList<String> availableAssets = document.getAvailableAssets();
+		AssetMemo memo;
+
+		// Only give the document the assets that it can create
+		for (String assetName : selectedAssets) {
+			if (availableAssets == null || availableAssets.contains(assetName)) {
+				documentSelection.add(assetName);
+			}
+		}
+
+		// Reuse the assets if the selection has not changed. A document is
+		// only processed by one thread at a time.
+		synchronized (document) {
+			memo = assetMemos.get(document);
+			if (memo == null || !memo.selection.equals(documentSelection)) {
+				document.setSelectedAssets(documentSelection);
+				document.createSelectedAssets();
+				memo = new AssetMemo(documentSelection,
+						document.getAllAssets());
+				assetMemos.put(document, memo);
+			}
+		}
+
+		return memo.assets;
+	}
+
+	/**
+	 * <p>
+	 * This class holds the assets that an analysis document created and the
+	 * selection that they were created for.
+	 * </p>
+	 * 
+	 * @author Jay Jay Billings
+	 */
+	private static class AssetMemo {
+
+		/**
+		 * The names of the selected assets.
+		 */
+		private final ArrayList<String> selection;
+
+		/**
+		 * The assets that were created.
+		 */
+		private final ArrayList<IAnalysisAsset> assets;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param selection
+		 *            The names of the selected assets
+		 * @param assets
+		 *            The assets that were created
+		 */
+		public AssetMemo(ArrayList<String> selection,
+				ArrayList<IAnalysisAsset> assets) {
+			this.selection = selection;
+			this.assets = (assets != null) ? new ArrayList<IAnalysisAsset>(
+					assets) : new ArrayList<IAnalysisAsset>();
+		}
+	}
+
 }
\ No newline at end of file
@@ -19,6 +19,7 @@ import org.eclipse.ice.reactor.sfr.base.SFReactorIOHandler;
 import org.eclipse.ice.reactor.sfr.core.SFReactor;
 
 import java.io.File;
+import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
@@ -37,10 +38,71 @@ public class ReactorReaderFactory {
 		public IReactorComponent read(URI uri);
 
 		public void copy(IReactorComponent src, IReactorComponent dst);
+
+		public IReactorComponent clone(IReactorComponent src);
 	}
 
 	private Map<Class, IReactorFactory> reactorFactoryMap;
 
+	/**
+	 * The reactors that have been read by all factories, keyed on the absolute
+	 * path of their file. A file is only read again if its modification time
+	 * or size changes, or if the memory for its reactor was reclaimed. The
+	 * cached reactors are never given to clients, only clones of them.
+	 */
+	private static final Map<String, CachedReactor> cache = new HashMap<String, CachedReactor>();
+
+	/**
+	 * This class holds a reactor that was read from a file and the state of
+	 * the file when it was read.
+	 */
+	private static class CachedReactor {
+
+		/**
+		 * The modification time of the file.
+		 */
+		private final long lastModified;
+
+		/**
+		 * The size of the file.
+		 */
+		private final long length;
+
+		/**
+		 * The reactor, which may be reclaimed if memory is low.
+		 */
+		private final SoftReference<IReactorComponent> reactor;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param file
+		 *            The file that the reactor was read from
+		 * @param reactor
+		 *            The reactor
+		 */
+		public CachedReactor(File file, IReactorComponent reactor) {
+			lastModified = file.lastModified();
+			length = file.length();
+			this.reactor = new SoftReference<IReactorComponent>(reactor);
+		}
+
+		/**
+		 * This operation returns the reactor if the file has not changed.
+		 * 
+		 * @param file
+		 *            The file that the reactor was read from
+		 * @return The reactor, or null if the file changed or the reactor was
+		 *         reclaimed
+		 */
+		public IReactorComponent get(File file) {
+			if (file.lastModified() == lastModified && file.length() == length) {
+				return reactor.get();
+			}
+			return null;
+		}
+	}
+
 	public ReactorReaderFactory() {
 
 		reactorFactoryMap = new HashMap<Class, IReactorFactory>();
@@ -57,6 +119,11 @@ public class ReactorReaderFactory {
 								.copy((PressurizedWaterReactor) src);
 						return;
 					}
+
+					public IReactorComponent clone(IReactorComponent src) {
+						return (IReactorComponent) ((PressurizedWaterReactor) src)
+								.clone();
+					}
 				});
 		reactorFactoryMap.put(SFReactor.class, new IReactorFactory() {
 			public IReactorComponent read(URI uri) {
@@ -67,6 +134,10 @@ public class ReactorReaderFactory {
 				((SFReactor) dst).copy((SFReactor) src);
 				return;
 			}
+
+			public IReactorComponent clone(IReactorComponent src) {
+				return (IReactorComponent) ((SFReactor) src).clone();
+			}
 		});
 
 		return;
@@ -75,6 +146,8 @@ public class ReactorReaderFactory {
 	/**
 	 * This method reads the data from a given file into an implementation of an
 	 * IReactorComponent. It will return null if the file could not be read.
+	 * Reading the same, unchanged file again does not read the file, but
+	 * every call still returns a new component that the caller may modify.
 	 * 
 	 * @param source
 	 *            The URI of the source data file.
@@ -101,6 +174,19 @@ public class ReactorReaderFactory {
 			return component;
 		}
 
+		// Return the reactor from the cache if the file has not changed
+		String key = file.getAbsolutePath();
+		synchronized (cache) {
+			CachedReactor cachedReactor = cache.get(key);
+			if (cachedReactor != null) {
+				component = cachedReactor.get(file);
+			}
+		}
+		if (component != null) {
+			return reactorFactoryMap.get(component.getClass()).clone(
+					component);
+		}
+
 		// The name of the reactor group (the first group in the .h5 file).
 		Class type = null;
 
@@ -216,9 +302,28 @@ public class ReactorReaderFactory {
 		if (factory != null) {
 			component = factory.read(source);
 		}
+
+		// Cache the reactor for the next read and return a clone of it
+		if (component != null) {
+			synchronized (cache) {
+				cache.put(key, new CachedReactor(file, component));
+			}
+			component = factory.clone(component);
+		}
+
 		return component;
 	}
 
+	/**
+	 * This method clears the reactors that have been read from files, so that
+	 * the next read of every file goes to the disk.
+	 */
+	public static void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
 	/**
 	 * Copies the information from a source IReactorComponent instance to
 	 * another IReactorComponent.
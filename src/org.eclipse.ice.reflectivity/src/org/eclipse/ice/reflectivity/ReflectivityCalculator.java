@@ -11,9 +11,12 @@
  *******************************************************************************/
 package org.eclipse.ice.reflectivity;
 
+import java.util.Arrays;
+
 import org.apache.commons.math.MathException;
-import org.apache.commons.math.complex.Complex;
 import org.apache.commons.math.special.Erf;
+import org.eclipse.ice.analysistool.AnalysisPool;
+import org.eclipse.ice.analysistool.AnalysisPool.RangeKernel;
 
 /**
  * This class performs all of the operations necessary to calculate the
@@ -22,6 +25,13 @@ import org.apache.commons.math.special.Erf;
  * method described in Parratt, Phys. Rev. 95, 359(1954). It has been corrected
  * to incorporate incoherent and true absorption.
  * 
+ * The complex arithmetic of the Parratt recursion is written out with
+ * primitive doubles so that no objects are created for each wave vector, and
+ * the wave vector is evaluated in parallel on the shared AnalysisPool. The
+ * resolution function is cached and reused as long as the wave vector and
+ * resolution do not change, which makes repeated calls while fitting cheap.
+ * Instances can be shared between threads.
+ * 
  * @author Jay Jay Billings, John Ankner
  *
  */
@@ -43,6 +53,27 @@ public class ReflectivityCalculator {
 	 */
 	private static final double cE = 1.665;
 
+	/**
+	 * The largest number of wave vector points that are evaluated at once by
+	 * a single task in the AnalysisPool.
+	 */
+	private static final int pointsPerTask = 32;
+
+	/**
+	 * The resolution function from the last call to convoluteReflectivity().
+	 */
+	private ResolutionKernel kernel;
+
+	/**
+	 * The wave vector that the kernel was created for.
+	 */
+	private double[] kernelWaveVector;
+
+	/**
+	 * The resolution that the kernel was created for, deltaQ0 and deltaQ1ByQ.
+	 */
+	private double[] kernelResolution;
+
 	/**
 	 * This operation returns the value of the squared modulus of the specular
 	 * reflectivity for a single wave vector Q.
@@ -63,59 +94,142 @@ public class ReflectivityCalculator {
 		double modSqrdSpecRef = 0.0;
 
 		if (wavelength > 0.0) {
-			// Variables only needed if we are going to do the work, i.e. -
-			// wavelength > 0.0.
-			Tile tile;
-			Complex aNm1Sq, fNm1N, rNm1N = new Complex(0.0, 0.0), one = new Complex(
-					1.0, 0.0), qN = new Complex(0.0, 0.0), rNNp1 = new Complex(
-					0.0, 0.0);
-			// Get the bottom tile
-			int nLayers = tiles.length;
-			tile = tiles[nLayers - 1];
-			// Starting point--no reflected beam in bottom-most (bulk) layer
-			double qCSq = 16.0 * Math.PI * tile.scatteringLength;
-			double muLAbs = tile.trueAbsLength;
-			double mulInc = tile.incAbsLength;
-			double thickness = tile.thickness;
-			// Setup other values for the problem
-			double betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
-			Complex qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
-					* betaNm1);
-			qNm1 = qNm1.sqrt();
-			// Loop through to calculate recursion formula described in Parratt.
-			// Start at the bottom and work up.
-			for (int i = nLayers - 1; i > 0; i--) {
-				// Get the tile above tile[i] (started at the bottom
-				tile = tiles[i - 1];
-				// Calculate the normal component of Q for layer and layer-1
-				qN = qNm1;
-				qCSq = 16.0 * Math.PI * tile.scatteringLength;
-				muLAbs = tile.trueAbsLength;
-				mulInc = tile.incAbsLength;
-				thickness = tile.thickness;
-				betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
-				qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
-						* betaNm1);
-				qNm1 = qNm1.sqrt();
+			modSqrdSpecRef = getModSqrdSpecRef(waveVectorQ,
+					getLayerConstants(wavelength, tiles));
+		}
+
+		return modSqrdSpecRef;
+	}
+
+	/**
+	 * This operation computes the terms of the Parratt recursion that only
+	 * depend on the tiles and the wavelength so that they can be reused for
+	 * every wave vector.
+	 * 
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the list of Tiles
+	 * @return an array of three arrays with one value for each tile: the
+	 *         square of the critical wave vector, the absorption term beta and
+	 *         the thickness
+	 */
+	private static double[][] getLayerConstants(double wavelength,
+			Tile[] tiles) {
+
+		// Local Declarations
+		int nLayers = tiles.length;
+		double[][] constants = new double[3][nLayers];
+
+		for (int i = 0; i < nLayers; i++) {
+			Tile tile = tiles[i];
+			constants[0][i] = 16.0 * Math.PI * tile.scatteringLength;
+			constants[1][i] = 4.0 * Math.PI
+					* (tile.trueAbsLength + tile.incAbsLength / wavelength);
+			constants[2][i] = tile.thickness;
+		}
+
+		return constants;
+	}
+
+	/**
+	 * This operation returns the value of the squared modulus of the specular
+	 * reflectivity for a single wave vector Q from the precomputed layer
+	 * constants. The complex values are held in pairs of doubles and the
+	 * operations follow those of the Apache Commons Complex class, so nothing
+	 * is allocated.
+	 * 
+	 * @param waveVectorQ
+	 *            the value of the wave vector
+	 * @param constants
+	 *            the layer constants from getLayerConstants()
+	 * @return the squared modulus of the specular reflectivity
+	 */
+	private static double getModSqrdSpecRef(double waveVectorQ,
+			double[][] constants) {
+
+		// Local Declarations
+		double[] qCSq = constants[0], beta = constants[1], thickness = constants[2];
+		int nLayers = qCSq.length;
+		double qSq = waveVectorQ * waveVectorQ;
+		// qN, the normal component of Q in the layer below, and rNNp1, the
+		// reflectivity amplitude at the interface below.
+		double qNRe = 0.0, qNIm = 0.0, rRe = 0.0, rIm = 0.0;
+
+		// Loop through to calculate recursion formula described in Parratt.
+		// Start at the bottom, where there is no reflected beam, and work up.
+		for (int i = nLayers - 1; i >= 0; i--) {
+
+			// Calculate the normal component of Q for this layer,
+			// qNm1 = sqrt(Q^2 - qCSq - 2i*beta)
+			double re = qSq - qCSq[i], im = -2.0 * beta[i];
+			double qRe = 0.0, qIm = 0.0;
+			if (re != 0.0 || im != 0.0) {
+				double modulus;
+				if (Math.abs(re) < Math.abs(im)) {
+					double q = re / im;
+					modulus = Math.abs(im) * Math.sqrt(1 + q * q);
+				} else {
+					double q = im / re;
+					modulus = Math.abs(re) * Math.sqrt(1 + q * q);
+				}
+				double t = Math.sqrt((Math.abs(re) + modulus) / 2.0);
+				if (re >= 0.0) {
+					qRe = t;
+					qIm = im / (2.0 * t);
+				} else {
+					qRe = Math.abs(im) / (2.0 * t);
+					qIm = (im >= 0.0 ? 1.0 : -1.0) * t;
+				}
+			}
+
+			if (i < nLayers - 1) {
 				// Calculate phase factor, e^(-0.5*d*qNm1)
-				aNm1Sq = (new Complex(qNm1.getImaginary(), qNm1.getReal())
-						.multiply(-0.5 * thickness)).exp();
-				// CDiv(qNm1-qN,qNm1+qN)
-				fNm1N = qNm1.subtract(qN).divide(qNm1.add(qN));
+				double eRe = qIm * (-0.5 * thickness[i]);
+				double eIm = qRe * (-0.5 * thickness[i]);
+				double expRe = Math.exp(eRe);
+				double aRe = expRe * Math.cos(eIm), aIm = expRe * Math.sin(eIm);
+				// fNm1N = CDiv(qNm1-qN,qNm1+qN)
+				double nRe = qRe - qNRe, nIm = qIm - qNIm;
+				double dRe = qRe + qNRe, dIm = qIm + qNIm;
+				double fRe, fIm;
+				if (Math.abs(dRe) < Math.abs(dIm)) {
+					double q = dRe / dIm, denominator = dRe * q + dIm;
+					fRe = (nRe * q + nIm) / denominator;
+					fIm = (nIm * q - nRe) / denominator;
+				} else {
+					double q = dIm / dRe, denominator = dIm * q + dRe;
+					fRe = (nIm * q + nRe) / denominator;
+					fIm = (nIm - nRe * q) / denominator;
+				}
 				// Calculate the reflectivity amplitude.
 				// CMult(aNm1Sq, CMult(aNm1Sq, CDiv(CAdd(rNNp1, fNm1N),
 				// CAdd(CMult(rNNp1, fNm1N), CReal(1)))))
-				Complex y = rNNp1.multiply(fNm1N).add(one);
-				Complex z = rNNp1.add(fNm1N);
-				rNm1N = aNm1Sq.multiply(aNm1Sq).multiply(z.divide((y)));
+				double yRe = (rRe * fRe - rIm * fIm) + 1.0;
+				double yIm = rRe * fIm + rIm * fRe;
+				double zRe = rRe + fRe, zIm = rIm + fIm;
+				double wRe, wIm;
+				if (Math.abs(yRe) < Math.abs(yIm)) {
+					double q = yRe / yIm, denominator = yRe * q + yIm;
+					wRe = (zRe * q + zIm) / denominator;
+					wIm = (zIm * q - zRe) / denominator;
+				} else {
+					double q = yIm / yRe, denominator = yIm * q + yRe;
+					wRe = (zIm * q + zRe) / denominator;
+					wIm = (zIm - zRe * q) / denominator;
+				}
+				double aaRe = aRe * aRe - aIm * aIm, aaIm = aRe * aIm + aIm * aRe;
 				// Carry over to the next iteration
-				rNNp1 = rNm1N;
+				rRe = aaRe * wRe - aaIm * wIm;
+				rIm = aaRe * wIm + aaIm * wRe;
 			}
-			modSqrdSpecRef = rNm1N.getReal() * rNm1N.getReal()
-					+ rNm1N.getImaginary() * rNm1N.getImaginary();
+
+			// Move up a layer
+			qNRe = qRe;
+			qNIm = qIm;
 		}
 
-		return modSqrdSpecRef;
+		return rRe * rRe + rIm * rIm;
 	}
 
 	/**
@@ -151,68 +265,12 @@ public class ReflectivityCalculator {
 			double deltaQ1ByQ, double wavelength, int numPoints,
 			int numLowPoints, int numHighPoints, double[] refFit) {
 
-		double ln2 = Math.log(2.0);
-		double qEff = 0.0, qRes = 0.0, rExp = 0.0, rNorm = 0.0;
-		double[] refTemp = new double[maxPoints];
-		int nStep = 0;
-		boolean lFinish = false, hFinish = false;
-
-		// Perform convolution over nPnts between nLow and nHigh extensions
-		for (int i = numLowPoints; i <= numLowPoints + numPoints - 1; i++) {
-			// Calculate resolution width and initialize resolution loop
-			if (waveVector[i] < 1.0e-10) {
-				qEff = 1.0e-10;
-			} else {
-				qEff = waveVector[i];
-			}
-			double qDel = deltaQ0 + qEff * deltaQ1ByQ;
-			double twSgSq = 2.0 * qDel * qDel / (8.0 * ln2);
-			if (twSgSq < 1.0e-10) {
-				twSgSq = 1.0e-10;
-			}
-			rNorm = 1.0;
-			refTemp[i - numLowPoints] = refFit[i];
-			nStep = 1;
-			// Check if exponent term becomes < 0.001 and loop until it does so
-			lFinish = false;
-			hFinish = false;
-			while (!lFinish && !hFinish) {
-				// Evaluate the low-q side
-				if (lFinish) {
-					qRes = 1.0e20;
-				} else {
-					qRes = waveVector[i - nStep] - waveVector[i];
-				}
-				if (qRes * qRes / twSgSq < 6.908) {
-					// Continue evaluating convolution
-					rExp = Math.exp(-qRes * qRes / twSgSq);
-					rNorm = rNorm + rExp;
-					refTemp[i - numLowPoints] = refTemp[i - numLowPoints]
-							+ rExp * refFit[i - nStep];
-				} else {
-					lFinish = true;
-				}
-				// Evaluate high-q side
-				if (hFinish) {
-					qRes = 1.0e20;
-				} else {
-					qRes = waveVector[i + nStep] - waveVector[i];
-				}
-				if (qRes * qRes / twSgSq < 6.908) {
-					// Continue evaluating convolution
-					rExp = Math.exp(-qRes * qRes / twSgSq);
-					rNorm = rNorm + rExp;
-					refTemp[i - numLowPoints] = refTemp[i - numLowPoints]
-							+ rExp * refFit[i + nStep];
-				} else {
-					hFinish = true;
-				}
-				nStep++;
-			}
-			// Normalize convoluted value to integrated intensity of resolution
-			// function
-			refTemp[i - numLowPoints] = refTemp[i - numLowPoints] / rNorm;
-		}
+		// Evaluate the resolution function and apply it
+		ResolutionKernel resolution = new ResolutionKernel(waveVector,
+				deltaQ0, deltaQ1ByQ, numPoints, numLowPoints);
+		double[] refTemp = new double[numPoints];
+		resolution.convolute(refFit, refTemp);
+
 		// Transfer convoluted values from refTemp to refFit
 		for (int i = 0; i < numPoints; i++) {
 			refFit[i] = refTemp[i];
@@ -606,33 +664,140 @@ public class ReflectivityCalculator {
 	 * variable Gaussian resolution function.
 	 * 
 	 * @param deltaQ0
-	 *            - FIXME!
+	 *            the zeroth order term of the Q resolution Taylor expansion
 	 * @param deltaQ1ByQ
-	 *            - FIXME!
+	 *            the first order term of the Q resolution Taylor expansion
 	 * @param wavelength
-	 *            - FIXME!
+	 *            the wavelength of the incident neutrons. The reflectivity is
+	 *            only calculated if it is positive, and is zero otherwise.
 	 * @param getRQ4
-	 *            - FIXME! True if the routine should compute rq^4, false
-	 *            otherwise.
+	 *            true if the routine should return the reflectivity
+	 *            multiplied by Q^4 at each point of the wave vector, false
+	 *            otherwise
 	 * @param waveVector
-	 *            The wave vector - FIXME!
+	 *            the wave vector, which must have at least two evenly spaced
+	 *            points
 	 * @param tiles
 	 *            The tiles that define the layered structure of the materials.
 	 * @return the reflectivity
 	 */
 	public double[] convoluteReflectivity(double deltaQ0, double deltaQ1ByQ,
 			double wavelength, boolean getRQ4, double[] waveVector, Tile[] tiles) {
+		return convoluteReflectivity(deltaQ0, deltaQ1ByQ, wavelength, getRQ4,
+				waveVector, new Tile[][] { tiles })[0];
+	}
+
+	/**
+	 * This operation computes the convolution of the reflectivity with a
+	 * variable Gaussian resolution function for several candidate sets of
+	 * tiles on the same wave vector, such as those generated by a fitting
+	 * routine. All of the sets are evaluated in parallel and share the
+	 * resolution function.
+	 * 
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution Taylor expansion
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons. The reflectivity is
+	 *            only calculated if it is positive, and is zero otherwise.
+	 * @param getRQ4
+	 *            true if the routine should return the reflectivity
+	 *            multiplied by Q^4 at each point of the wave vector, false
+	 *            otherwise
+	 * @param waveVector
+	 *            the wave vector, which must have at least two evenly spaced
+	 *            points
+	 * @param tileSets
+	 *            The sets of tiles that define the candidate layered
+	 *            structures.
+	 * @return the reflectivity for each set of tiles, in the same order as
+	 *         the sets
+	 */
+	public double[][] convoluteReflectivity(double deltaQ0, double deltaQ1ByQ,
+			double wavelength, boolean getRQ4, double[] waveVector,
+			Tile[][] tileSets) {
 
 		// Local Declarations
-		double qEff = 0.0;
-		int numPoints = waveVector.length, numLowPoints = 0, numHighPoints = 0;
-		double[] reflectivity = new double[numPoints];
+		int numPoints = waveVector.length;
+		double[][] reflectivities = new double[tileSets.length][numPoints];
+		ResolutionKernel resolution = getKernel(deltaQ0, deltaQ1ByQ,
+				waveVector);
+		final double[] tempWaveVector = resolution.getWaveVector();
+		final int numTempPoints = tempWaveVector.length;
+		final double[][] tempReflectivities = new double[tileSets.length][numTempPoints];
+		final double[][][] constants = new double[tileSets.length][][];
+
+		// Generate reflectivity values for convolution. Calculate
+		// perfect-resolution reflectivity on the extended wave vector for
+		// every set of tiles at once.
+		if (wavelength > 0.0) {
+			for (int i = 0; i < tileSets.length; i++) {
+				constants[i] = getLayerConstants(wavelength, tileSets[i]);
+			}
+			AnalysisPool.forEachRange(new RangeKernel() {
+				@Override
+				public void compute(int first, int last) {
+					for (int k = first; k < last; k++) {
+						int set = k / numTempPoints;
+						int i = k % numTempPoints;
+						double qEff = tempWaveVector[i];
+						if (qEff < 1.0e-10) {
+							qEff = 1.0e-10;
+						}
+						tempReflectivities[set][i] = getModSqrdSpecRef(qEff,
+								constants[set]);
+					}
+				}
+			}, tileSets.length * numTempPoints, pointsPerTask);
+		}
+
+		for (int i = 0; i < tileSets.length; i++) {
+			double[] reflectivity = reflectivities[i];
+			// Convolve with instrumental resolution
+			resolution.convolute(tempReflectivities[i], reflectivity);
+			// Calculate RQ^4 if needed
+			if (getRQ4) {
+				for (int j = 0; j < numPoints; j++) {
+					reflectivity[j] = Math.pow(waveVector[j], 4.0)
+							* reflectivity[j];
+				}
+			}
+		}
+
+		return reflectivities;
+	}
+
+	/**
+	 * This operation returns the resolution function for the wave vector. The
+	 * last one is reused if the wave vector and resolution have not changed.
+	 * 
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution Taylor expansion
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 * @param waveVector
+	 *            the wave vector
+	 * @return the resolution function over the extended wave vector
+	 */
+	private synchronized ResolutionKernel getKernel(double deltaQ0,
+			double deltaQ1ByQ, double[] waveVector) {
+
+		// Local Declarations
+		double[] resolution = { deltaQ0, deltaQ1ByQ };
+
+		// Reuse the last kernel if possible
+		if (kernel != null && Arrays.equals(kernelWaveVector, waveVector)
+				&& Arrays.equals(kernelResolution, resolution)) {
+			return kernel;
+		}
 
 		// Determine the length of the high- and low-Q extensions
-		numLowPoints = getLowExtensionLength(waveVector, deltaQ0, deltaQ1ByQ,
-				numPoints);
-		numHighPoints = getHighExtensionLength(waveVector, deltaQ0, deltaQ1ByQ,
-				numPoints);
+		int numPoints = waveVector.length;
+		int numLowPoints = getLowExtensionLength(waveVector, deltaQ0,
+				deltaQ1ByQ, numPoints);
+		int numHighPoints = getHighExtensionLength(waveVector, deltaQ0,
+				deltaQ1ByQ, numPoints);
 
 		// Extend the wave vector in a temporary array
 		double[] tempWaveVector = new double[numLowPoints + numHighPoints
@@ -651,38 +816,13 @@ public class ReflectivityCalculator {
 					+ waveVecStep * ((double) i);
 		}
 
-		// Create a temporary array to hold the extended reflectivity.
-		double[] tempReflectivity = new double[numPoints + numLowPoints
-				+ numHighPoints];
-		// Generate reflectivity values for convolution.
-		// Calculate perfect-resolution reflectivity on extended wave vector
-		for (int i = 0; i < numPoints + numLowPoints + numHighPoints; i++) {
-			if (tempWaveVector[i] < 1.0e-10) {
-				qEff = 1.0e-10;
-			} else {
-				qEff = tempWaveVector[i];
-			}
-			tempReflectivity[i] = getModSqrdSpecRef(qEff, wavelength, tiles);
-		}
-
-		// Convolve with instrumental resolution
-		convolute(tempWaveVector, deltaQ0, deltaQ1ByQ, wavelength, numPoints,
-				numLowPoints, numHighPoints, tempReflectivity);
-
-		// Transfer the results to the reflectivity array.
-		for (int i = 0; i < numPoints; i++) {
-			reflectivity[i] = tempReflectivity[i];
-		}
-		// Calculate RQ^4 if needed. FIXME! This is not covered by the current
-		// tests and should actually be a separate function!
-		if (getRQ4) {
-			for (int i = 0; i < numPoints; i++) {
-				reflectivity[i] = Math.pow(waveVector[i], 4.0)
-						* reflectivity[i];
-			}
-		}
+		// Create the kernel and remember what it was created for
+		kernel = new ResolutionKernel(tempWaveVector, deltaQ0, deltaQ1ByQ,
+				numPoints, numLowPoints);
+		kernelWaveVector = waveVector.clone();
+		kernelResolution = resolution;
 
-		return reflectivity;
+		return kernel;
 	}
 
 	/**
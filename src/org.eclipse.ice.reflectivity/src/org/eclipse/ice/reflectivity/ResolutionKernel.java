@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - 
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the Gaussian resolution function used by the
+ * ReflectivityCalculator to convolute the reflectivity. The weights only
+ * depend on the wave vector and the resolution, so they are computed once and
+ * can be applied to any number of reflectivity profiles on the same wave
+ * vector, which is the common case when fitting.
+ * 
+ * The weights for each point are stored in the order that the original
+ * convolution loop visits them and applied in that order, so the results are
+ * identical to evaluating the Gaussian on the fly.
+ * 
+ * @author agent
+ *
+ */
+class ResolutionKernel {
+
+	/**
+	 * The extended wave vector that the kernel was built for.
+	 */
+	private final double[] waveVector;
+
+	/**
+	 * The number of points in the wave vector without the extensions.
+	 */
+	private final int numPoints;
+
+	/**
+	 * The number of points in the low-Q extension.
+	 */
+	private final int numLowPoints;
+
+	/**
+	 * The offset into indices and weights of the first weight of each point.
+	 * It has numPoints + 1 entries.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * The indices in the extended wave vector of the neighbors of each point.
+	 */
+	private int[] indices;
+
+	/**
+	 * The weights of the neighbors of each point.
+	 */
+	private double[] weights;
+
+	/**
+	 * The integrated intensity of the resolution function at each point.
+	 */
+	private final double[] norms;
+
+	/**
+	 * The constructor. It evaluates the resolution function at every point.
+	 * 
+	 * @param waveVector
+	 *            the wave vector (Q) plus additional space for the convolution.
+	 *            This array should have length = numPoints + numLowPoints +
+	 *            numHighPoints.
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution Taylor expansion
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 * @param numPoints
+	 *            the number of points in the wave vector
+	 * @param numLowPoints
+	 *            the number of points in the low-Q extension
+	 */
+	public ResolutionKernel(double[] waveVector, double deltaQ0,
+			double deltaQ1ByQ, int numPoints, int numLowPoints) {
+
+		// Local Declarations
+		double ln2 = Math.log(2.0);
+		double qEff = 0.0, qRes = 0.0, rExp = 0.0, rNorm = 0.0;
+		int nStep = 0, size = 0;
+		boolean lFinish = false, hFinish = false;
+
+		this.waveVector = waveVector;
+		this.numPoints = numPoints;
+		this.numLowPoints = numLowPoints;
+		offsets = new int[numPoints + 1];
+		norms = new double[numPoints];
+		indices = new int[16 * numPoints];
+		weights = new double[16 * numPoints];
+
+		// Evaluate the resolution function over nPnts between the nLow and
+		// nHigh extensions
+		for (int i = numLowPoints; i <= numLowPoints + numPoints - 1; i++) {
+			// Calculate resolution width and initialize resolution loop
+			if (waveVector[i] < 1.0e-10) {
+				qEff = 1.0e-10;
+			} else {
+				qEff = waveVector[i];
+			}
+			double qDel = deltaQ0 + qEff * deltaQ1ByQ;
+			double twSgSq = 2.0 * qDel * qDel / (8.0 * ln2);
+			if (twSgSq < 1.0e-10) {
+				twSgSq = 1.0e-10;
+			}
+			rNorm = 1.0;
+			offsets[i - numLowPoints] = size;
+			nStep = 1;
+			// Check if exponent term becomes < 0.001 and loop until it does so
+			lFinish = false;
+			hFinish = false;
+			while (!lFinish && !hFinish) {
+				// Make room for two more weights
+				if (size + 2 > weights.length) {
+					indices = Arrays.copyOf(indices, 2 * indices.length);
+					weights = Arrays.copyOf(weights, 2 * weights.length);
+				}
+				// Evaluate the low-q side
+				qRes = waveVector[i - nStep] - waveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					indices[size] = i - nStep;
+					weights[size++] = rExp;
+				} else {
+					lFinish = true;
+				}
+				// Evaluate high-q side
+				qRes = waveVector[i + nStep] - waveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					indices[size] = i + nStep;
+					weights[size++] = rExp;
+				} else {
+					hFinish = true;
+				}
+				nStep++;
+			}
+			norms[i - numLowPoints] = rNorm;
+		}
+		offsets[numPoints] = size;
+
+		// Trim the weights
+		indices = Arrays.copyOf(indices, size);
+		weights = Arrays.copyOf(weights, size);
+	}
+
+	/**
+	 * This operation returns the extended wave vector that the kernel was
+	 * built for.
+	 * 
+	 * @return the extended wave vector. It should not be modified.
+	 */
+	public double[] getWaveVector() {
+		return waveVector;
+	}
+
+	/**
+	 * This operation returns the number of points in the wave vector without
+	 * the extensions.
+	 * 
+	 * @return the number of points
+	 */
+	public int getNumPoints() {
+		return numPoints;
+	}
+
+	/**
+	 * This operation convolutes the reflectivity with the resolution function.
+	 * 
+	 * @param refFit
+	 *            the specular reflectivity values for each Q in the extended
+	 *            wave vector
+	 * @param result
+	 *            OUTPUT - the convoluted values for the numPoints points of
+	 *            the wave vector. It may not be the same array as refFit.
+	 */
+	public void convolute(double[] refFit, double[] result) {
+
+		for (int i = 0; i < numPoints; i++) {
+			double refTemp = refFit[i + numLowPoints];
+			for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+				refTemp = refTemp + weights[j] * refFit[indices[j]];
+			}
+			// Normalize convoluted value to integrated intensity of resolution
+			// function
+			result[i] = refTemp / norms[i];
+		}
+
+		return;
+	}
+
+}
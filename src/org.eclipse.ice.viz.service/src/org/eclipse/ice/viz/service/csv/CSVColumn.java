@@ -0,0 +1,452 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.ice.analysistool.IData;
+
+/**
+ * <p>
+ * CSVColumn is the columnar storage that the CSVDataProvider uses for one
+ * feature at one time. Instead of keeping a list of CSVData, it stores the
+ * values and uncertainties in primitive arrays and keeps track of the minimum
+ * and maximum value as values are added. The units are almost always the same
+ * for every value of a feature, so they are stored once and only expanded to
+ * one String per value if they differ.
+ * </p>
+ * <p>
+ * getValues() returns the column itself instead of a copy, so the provider
+ * can read the loaded data without copying it. The provider copies the values
+ * before it gives them to its clients. The data are also handed out as CSVData
+ * views with getIData() for clients of the IDataProvider interface.
+ * </p>
+ * 
+ * @author agent
+ */
+class CSVColumn {
+
+	/**
+	 * The initial capacity of the column if none is given.
+	 */
+	private static final int initialCapacity = 16;
+
+	/**
+	 * The name of the feature.
+	 */
+	private final String name;
+
+	/**
+	 * The number of values in the column.
+	 */
+	private int size;
+
+	/**
+	 * The values.
+	 */
+	private double[] values;
+
+	/**
+	 * The uncertainties or null if they are all zero.
+	 */
+	private double[] uncertainties;
+
+	/**
+	 * The units of all of the values if they are the same.
+	 */
+	private String units;
+
+	/**
+	 * The units of each value or null if they are all the same.
+	 */
+	private String[] mixedUnits;
+
+	/**
+	 * The smallest value in the column.
+	 */
+	private double minimum = Double.POSITIVE_INFINITY;
+
+	/**
+	 * The largest value in the column.
+	 */
+	private double maximum = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * True if the minimum and maximum must be computed again because a value
+	 * that was one of them was replaced.
+	 */
+	private boolean rangeStale = false;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param feature
+	 *            The name of the feature
+	 */
+	public CSVColumn(String feature) {
+		this(feature, initialCapacity);
+	}
+
+	/**
+	 * The constructor for a column that will hold about the given number of
+	 * values.
+	 * 
+	 * @param feature
+	 *            The name of the feature
+	 * @param capacity
+	 *            The expected number of values
+	 */
+	public CSVColumn(String feature, int capacity) {
+		name = feature;
+		values = new double[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Returns the name of the feature.
+	 * 
+	 * @return The name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of values.
+	 * 
+	 * @return The size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Grows the arrays if they can not hold another value.
+	 */
+	private void ensureCapacity() {
+		if (size == values.length) {
+			int capacity = Math.max(initialCapacity, 2 * values.length);
+			values = Arrays.copyOf(values, capacity);
+			if (uncertainties != null) {
+				uncertainties = Arrays.copyOf(uncertainties, capacity);
+			}
+			if (mixedUnits != null) {
+				mixedUnits = Arrays.copyOf(mixedUnits, capacity);
+			}
+		}
+	}
+
+	/**
+	 * Adds a value with no uncertainty to the end of the column.
+	 * 
+	 * @param value
+	 *            The value
+	 */
+	public void add(double value) {
+
+		// Grow the arrays if needed
+		ensureCapacity();
+
+		// Store the value
+		values[size] = value;
+		if (mixedUnits != null) {
+			mixedUnits[size] = units;
+		}
+		size++;
+
+		// Update the range
+		if (value < minimum) {
+			minimum = value;
+		}
+		if (value > maximum) {
+			maximum = value;
+		}
+
+		return;
+	}
+
+	/**
+	 * Adds a value and its uncertainty to the end of the column.
+	 * 
+	 * @param value
+	 *            The value
+	 * @param uncertainty
+	 *            The uncertainty
+	 */
+	public void add(double value, double uncertainty) {
+		add(value);
+		setUncertainty(size - 1, uncertainty);
+	}
+
+	/**
+	 * Adds the contents of the IData to the end of the column. The IData
+	 * itself is not kept.
+	 * 
+	 * @param data
+	 *            The IData to add
+	 */
+	public void add(IData data) {
+		add(data.getValue(), data.getUncertainty());
+		setUnits(size - 1, data.getUnits());
+	}
+
+	/**
+	 * Returns the value at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The value
+	 */
+	public double getValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Sets the value at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param value
+	 *            The value
+	 */
+	public void setValue(int index, double value) {
+
+		// The range must be recomputed if the old value was on its boundary
+		double oldValue = values[index];
+		if (oldValue == minimum || oldValue == maximum) {
+			rangeStale = true;
+		}
+		values[index] = value;
+		if (value < minimum) {
+			minimum = value;
+		}
+		if (value > maximum) {
+			maximum = value;
+		}
+
+		return;
+	}
+
+	/**
+	 * Returns the uncertainty at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The uncertainty
+	 */
+	public double getUncertainty(int index) {
+		return (uncertainties == null) ? 0.0 : uncertainties[index];
+	}
+
+	/**
+	 * Sets the uncertainty at the index. The uncertainties are only stored
+	 * once one of them is not zero.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param uncertainty
+	 *            The uncertainty
+	 */
+	public void setUncertainty(int index, double uncertainty) {
+		if (uncertainties == null && uncertainty != 0.0) {
+			uncertainties = new double[values.length];
+		}
+		if (uncertainties != null) {
+			uncertainties[index] = uncertainty;
+		}
+	}
+
+	/**
+	 * Returns the units at the index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @return The units
+	 */
+	public String getUnits(int index) {
+		return (mixedUnits == null) ? units : mixedUnits[index];
+	}
+
+	/**
+	 * Sets the units at the index. The units are expanded to one String for
+	 * each value the first time that they differ.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param newUnits
+	 *            The units
+	 */
+	public void setUnits(int index, String newUnits) {
+
+		if (mixedUnits == null) {
+			// Nothing to do if they are the same. If there is only one value,
+			// its units can just be replaced.
+			if (size <= 1
+					|| (units == null ? newUnits == null : units
+							.equals(newUnits))) {
+				units = newUnits;
+				return;
+			}
+			// Expand the units
+			mixedUnits = new String[values.length];
+			Arrays.fill(mixedUnits, 0, size, units);
+		}
+		mixedUnits[index] = newUnits;
+
+		return;
+	}
+
+	/**
+	 * Sets the units of every value in the column.
+	 * 
+	 * @param newUnits
+	 *            The units
+	 */
+	public void setUnits(String newUnits) {
+		units = newUnits;
+		mixedUnits = null;
+	}
+
+	/**
+	 * Returns the smallest value in the column or positive infinity if it is
+	 * empty.
+	 * 
+	 * @return The minimum
+	 */
+	public double getMinimum() {
+		updateRange();
+		return minimum;
+	}
+
+	/**
+	 * Returns the largest value in the column or negative infinity if it is
+	 * empty.
+	 * 
+	 * @return The maximum
+	 */
+	public double getMaximum() {
+		updateRange();
+		return maximum;
+	}
+
+	/**
+	 * Computes the minimum and maximum again if a value on the boundary of the
+	 * range was replaced.
+	 */
+	private void updateRange() {
+		if (rangeStale) {
+			minimum = Double.POSITIVE_INFINITY;
+			maximum = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < size; i++) {
+				if (values[i] < minimum) {
+					minimum = values[i];
+				}
+				if (values[i] > maximum) {
+					maximum = values[i];
+				}
+			}
+			rangeStale = false;
+		}
+	}
+
+	/**
+	 * Trims the arrays to the size of the column so that they can be handed
+	 * out directly.
+	 */
+	private void trim() {
+		if (values.length != size) {
+			values = Arrays.copyOf(values, size);
+			if (uncertainties != null) {
+				uncertainties = Arrays.copyOf(uncertainties, size);
+			}
+			if (mixedUnits != null) {
+				mixedUnits = Arrays.copyOf(mixedUnits, size);
+			}
+		}
+	}
+
+	/**
+	 * Returns the values. The array is the column itself, not a copy, so it
+	 * must not be modified. It is only copied if values were added since the
+	 * last call.
+	 * 
+	 * @return The values
+	 */
+	public double[] getValues() {
+		trim();
+		return values;
+	}
+
+	/**
+	 * Returns the uncertainties. Like getValues(), the array is the column
+	 * itself and must not be modified.
+	 * 
+	 * @return The uncertainties
+	 */
+	public double[] getUncertainties() {
+		trim();
+		if (uncertainties == null) {
+			uncertainties = new double[size];
+		}
+		return uncertainties;
+	}
+
+	/**
+	 * Returns a copy of the values from the start index to the end of the
+	 * column. Unlike getValues(), it only copies the requested values, so it
+	 * can be used to read values as they are appended.
+	 * 
+	 * @param start
+	 *            The index of the first value
+	 * @return The values, which may be empty
+	 */
+	public double[] getValues(int start) {
+		return Arrays.copyOfRange(values, Math.min(start, size), size);
+	}
+
+	/**
+	 * Removes all of the values from the column. New arrays are created so
+	 * that arrays handed out by getValues() are not changed.
+	 */
+	public void clear() {
+		size = 0;
+		values = new double[initialCapacity];
+		uncertainties = null;
+		mixedUnits = null;
+		minimum = Double.POSITIVE_INFINITY;
+		maximum = Double.NEGATIVE_INFINITY;
+		rangeStale = false;
+	}
+
+	/**
+	 * Returns CSVData views of all of the values.
+	 * 
+	 * @param positionColumns
+	 *            The columns of the independent variables that give the
+	 *            position of each value
+	 * @return The list of views
+	 */
+	public ArrayList<IData> getIData(List<CSVColumn> positionColumns) {
+
+		// Local Declarations
+		ArrayList<IData> data = new ArrayList<IData>(size);
+
+		for (int i = 0; i < size; i++) {
+			data.add(new CSVData(this, i, positionColumns));
+		}
+
+		return data;
+	}
+
+}
@@ -13,6 +13,7 @@
 package org.eclipse.ice.viz.service.csv;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
@@ -22,6 +23,12 @@ import org.eclipse.ice.datastructures.ICEObject.ICEObject;
  * This class is the implementation of IData and inherits from NiCEObject for
  * the PlotViewer tool.
  * 
+ * The CSVData returned by a CSVDataProvider are views of its columnar storage.
+ * Their setters for the value, uncertainty and units write through to the
+ * provider, while setFeature() is ignored because the feature is fixed by the
+ * column. The position of a view is built from the independent variables of
+ * the provider the first time it is requested and is then a copy.
+ * 
  * @author Matthew Wang, Claire Saunders
  * 
  */
@@ -58,6 +65,23 @@ public class CSVData extends ICEObject implements IData {
 	 */
 	private double tol;
 
+	/**
+	 * The column that backs this CSVData if it is a view or null if it stores
+	 * its own values
+	 */
+	private CSVColumn column;
+
+	/**
+	 * The index of this CSVData in its column
+	 */
+	private int index;
+
+	/**
+	 * The columns of the independent variables used to create the position of
+	 * a view
+	 */
+	private List<CSVColumn> positionColumns;
+
 	/**
 	 * Constructor takes in feature and value
 	 * 
@@ -87,6 +111,22 @@ public class CSVData extends ICEObject implements IData {
 		this.tol = Math.pow(10, -15);
 	}
 
+	/**
+	 * Constructor for a view of the value at the index of the column
+	 * 
+	 * @param column
+	 * @param index
+	 * @param positionColumns
+	 *            The columns of the independent variables
+	 */
+	CSVData(CSVColumn column, int index, List<CSVColumn> positionColumns) {
+		this.column = column;
+		this.index = index;
+		this.positionColumns = positionColumns;
+		this.feature = column.getName();
+		this.tol = Math.pow(10, -15);
+	}
+
 	/**
 	 * Method to check if the current object is equal to the object passed in
 	 */
@@ -110,12 +150,12 @@ public class CSVData extends ICEObject implements IData {
 		// Other object must be a CSVData, so cast it
 		CSVData castedCSVData = (CSVData) otherCSVData;
 		// Check that their values are equal
-		if (Math.abs(this.value - castedCSVData.getValue()) > tol) {
+		if (Math.abs(getValue() - castedCSVData.getValue()) > tol) {
 			return false;
 		}
 
 		// Check that their uncertainties are equal
-		if (Math.abs(this.uncertainty - castedCSVData.getUncertainty()) > tol) {
+		if (Math.abs(getUncertainty() - castedCSVData.getUncertainty()) > tol) {
 			return false;
 		}
 
@@ -124,13 +164,14 @@ public class CSVData extends ICEObject implements IData {
 			return false;
 		}
 
+		ArrayList<Double> position = getPosition();
 		ArrayList<Double> castedCSVDataPosition = castedCSVData.getPosition();
 		// Check that their positions ArrayList sizes are equal
-		if (this.position.size() == castedCSVDataPosition.size()) {
-			int size = this.position.size();
+		if (position.size() == castedCSVDataPosition.size()) {
+			int size = position.size();
 			// Check each position for equality
 			for (int i = 0; i < size; i++) {
-				if (Math.abs(this.position.get(i)
+				if (Math.abs(position.get(i)
 						- castedCSVDataPosition.get(i)) > tol) {
 					return false;
 				}
@@ -152,13 +193,11 @@ public class CSVData extends ICEObject implements IData {
 		int hash = super.hashCode();
 
 		// Compute the hash code from this object's data
+		ArrayList<Double> position = getPosition();
+		String units = getUnits();
 		hash = 31 * hash + (null == position ? 0 : position.hashCode());
-		hash = 31 * hash
-				+ (null == (Double) value ? 0 : ((Double) value).hashCode());
-		hash = 31
-				* hash
-				+ (null == (Double) uncertainty ? 0 : ((Double) uncertainty)
-						.hashCode());
+		hash = 31 * hash + ((Double) getValue()).hashCode();
+		hash = 31 * hash + ((Double) getUncertainty()).hashCode();
 		hash = 31 * hash + (null == units ? 0 : units.hashCode());
 		hash = 31 * hash + (null == feature ? 0 : feature.hashCode());
 		hash = 31 * hash
@@ -187,14 +226,14 @@ public class CSVData extends ICEObject implements IData {
 		this.feature = otherCSVData.getFeature();
 
 		// Copy the value
-		this.value = otherCSVData.getValue();
+		this.setValue(otherCSVData.getValue());
 
 		// Copy the uncertainty
-		this.uncertainty = otherCSVData.getUncertainty();
+		this.setUncertainty(otherCSVData.getUncertainty());
 
 		// Deep copy of the position
 		for (Double pos : otherCSVData.getPosition()) {
-			this.position.add(pos);
+			this.addPosition(pos);
 		}
 	}
 
@@ -207,8 +246,8 @@ public class CSVData extends ICEObject implements IData {
 
 		// Check that the input for the clone is valid. If invalid, throw a
 		// NullPointerException
-		if (feature != null && !Double.isNaN(value)) {
-			CSVData newCSVData = new CSVData(this.feature, this.value);
+		if (feature != null && !Double.isNaN(getValue())) {
+			CSVData newCSVData = new CSVData(this.feature, getValue());
 			// Use copy to perform a deep copy
 			newCSVData.copy(this);
 			return newCSVData;
@@ -236,7 +275,11 @@ public class CSVData extends ICEObject implements IData {
 	 * @param value
 	 */
 	public void setValue(double value) {
-		this.value = value;
+		if (column != null) {
+			column.setValue(index, value);
+		} else {
+			this.value = value;
+		}
 	}
 
 	/**
@@ -246,7 +289,9 @@ public class CSVData extends ICEObject implements IData {
 	 * @param uncertainty
 	 */
 	public void setUncertainty(double uncertainty) {
-		if (uncertainty >= 0.0) {
+		if (uncertainty >= 0.0 && column != null) {
+			column.setUncertainty(index, uncertainty);
+		} else if (uncertainty >= 0.0) {
 			this.uncertainty = uncertainty;
 		}
 	}
@@ -257,7 +302,11 @@ public class CSVData extends ICEObject implements IData {
 	 * @param units
 	 */
 	public void setUnits(String units) {
-		this.units = units;
+		if (column != null) {
+			column.setUnits(index, units);
+		} else {
+			this.units = units;
+		}
 	}
 
 	/**
@@ -266,7 +315,10 @@ public class CSVData extends ICEObject implements IData {
 	 * @param feature
 	 */
 	public void setFeature(String feature) {
-		this.feature = feature;
+		// The feature of a view is fixed by its column.
+		if (column == null) {
+			this.feature = feature;
+		}
 	}
 
 	/**
@@ -275,7 +327,7 @@ public class CSVData extends ICEObject implements IData {
 	 * @param pos
 	 */
 	public void addPosition(Double pos) {
-		this.position.add(pos);
+		getPosition().add(pos);
 	}
 
 	/**
@@ -286,6 +338,17 @@ public class CSVData extends ICEObject implements IData {
 	 * Get the position
 	 */
 	public ArrayList<Double> getPosition() {
+		// Views build their position from the independent variables
+		if (position == null) {
+			position = new ArrayList<Double>();
+			if (positionColumns != null) {
+				for (CSVColumn positionColumn : positionColumns) {
+					if (index < positionColumn.size()) {
+						position.add(positionColumn.getValue(index));
+					}
+				}
+			}
+		}
 		return position;
 	}
 
@@ -293,21 +356,21 @@ public class CSVData extends ICEObject implements IData {
 	 * Get the value
 	 */
 	public double getValue() {
-		return value;
+		return (column != null) ? column.getValue(index) : value;
 	}
 
 	/**
 	 * Get the uncertainty
 	 */
 	public double getUncertainty() {
-		return uncertainty;
+		return (column != null) ? column.getUncertainty(index) : uncertainty;
 	}
 
 	/**
 	 * Gett the units
 	 */
 	public String getUnits() {
-		return units;
+		return (column != null) ? column.getUnits(index) : units;
 	}
 
 	/**
@@ -322,11 +385,11 @@ public class CSVData extends ICEObject implements IData {
 	 */
 	public String toString() {
 		String outputString = "";
-		outputString += "Position: " + this.position.toString() + "\n";
+		outputString += "Position: " + getPosition().toString() + "\n";
 		outputString += "Feature: " + this.feature + "\n";
-		outputString += "Units: " + this.units + "\n";
-		outputString += "Value: " + this.value + "\n";
-		outputString += "Uncertainty: " + this.uncertainty + "\n";
+		outputString += "Units: " + getUnits() + "\n";
+		outputString += "Value: " + getValue() + "\n";
+		outputString += "Uncertainty: " + getUncertainty() + "\n";
 		return outputString;
 	}
 }
@@ -17,6 +17,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -63,6 +67,42 @@ public class CSVDataLoader {
 	 */
 	private boolean boolVarComp;
 
+	/**
+	 * The columns of the last file loaded with load(), in the order of the
+	 * features. The entries for features that are the errors of other
+	 * features are null. They are kept so that lines appended to the file can
+	 * be added to them by loadAppended().
+	 */
+	private CSVColumn[] loadedColumns;
+
+	/**
+	 * The index of the error feature of each loaded feature or -1 if it has
+	 * none.
+	 */
+	private int[] loadedErrorIndices;
+
+	/**
+	 * The position in the last loaded file of the first line of data.
+	 */
+	private long dataStart;
+
+	/**
+	 * The position in the last loaded file after the last line of data that
+	 * was read.
+	 */
+	private long dataEnd;
+
+	/**
+	 * True if the data in the last loaded file ended with an empty line or a
+	 * comment, in which case appended lines are not read.
+	 */
+	private boolean dataEnded;
+
+	/**
+	 * The number of lines of data read from the last loaded file.
+	 */
+	private int numRows;
+
 	/**
 	 * Default CSVDataLoader constructor
 	 */
@@ -112,6 +152,12 @@ public class CSVDataLoader {
 	/**
 	 * This method loads a CSV input file and returns the contents as a
 	 * CSVDataProvider object.
+	 * <p>
+	 * The file is memory-mapped instead of read line by line. The header lines
+	 * are decoded into Strings, but the data lines are parsed straight from
+	 * the mapped bytes into one primitive CSVColumn per feature, so no Strings
+	 * or IData are created for the values.
+	 * </p>
 	 * 
 	 * @param csvInputFile
 	 *            The CSV input file to load
@@ -119,45 +165,72 @@ public class CSVDataLoader {
 	 * @throws Exception
 	 */
 	public CSVDataProvider load(File csvInputFile) throws Exception {
+		return load(csvInputFile, false);
+	}
+
+	/**
+	 * This method loads a CSV input file like load(File), but it can skip the
+	 * last line if it does not end with a line terminator. A file that is
+	 * still being written can end in the middle of a line, so CSVFileTailer
+	 * uses it to only read complete lines and reads the rest of the line with
+	 * loadAppended() once it is written. For the same reason, a file with a
+	 * complete header and no data is loaded as zero rows instead of being
+	 * rejected.
+	 * 
+	 * @param csvInputFile
+	 *            The CSV input file to load
+	 * @param completeLinesOnly
+	 *            True if a last line of data without a line terminator should
+	 *            not be read
+	 * @return The contents of the CSV file as a CSVDataProvider object
+	 * @throws Exception
+	 */
+	CSVDataProvider load(File csvInputFile, boolean completeLinesOnly)
+			throws Exception {
 		// Local Declarations
 		CSVDataProvider dataSet = new CSVDataProvider();
 		ArrayList<String> features = new ArrayList<String>();
 		ArrayList<String> units = new ArrayList<String>();
 		HashMap<Integer, Integer> featureErrorIndices = new HashMap<Integer, Integer>();
-		BufferedReader inputStream = null;
+		RandomAccessFile inputFile = null;
+		MappedLineReader reader;
+		boolean hasLine;
 		String line;
 		String[] commentLine;
-		String[] featureLine;
 		int commentLineLength;
 		int featureLineLength = 0;
 		int lineNumber = 1;
 		boolean hasHashFeature = false;
 		int elementOffset;
-		
+
 		// Reading in the data file line by line and passing to the provider
 		try {
-			
-			// Create a BufferedReader for reading the file
-			inputStream = new BufferedReader(new FileReader(csvInputFile));
+
+			// Map the file for reading
+			inputFile = new RandomAccessFile(csvInputFile, "r");
+			reader = new MappedLineReader(inputFile.getChannel());
 
 			// Begin reading the file. Find the line which contains the list
-			// of features, denoted either by the "#somefeature"-style label 
+			// of features, denoted either by the "#somefeature"-style label
 			// format, or just use line 1 if the hash-format is not used
-			while ((line = inputStream.readLine()) != null
-					&& (line.contains("#") || lineNumber == 1)) {
-				
-				// Replace characters if we can find a match to the 
+			while ((hasLine = reader.nextLine())
+					&& (reader.lineContains('#') || lineNumber == 1)) {
+
+				// Decode the header line
+				line = reader.getLine();
+
+				// Replace characters if we can find a match to the
 				// "#label:stuff", "#label;stuff" or "#label/stuff" formats
 				// (not whitespace sensitive)
 				if (line.matches("#\\s*\\w+\\s*([:;/]).+")) {
-							
+
 					// Replace all special delimiters (":", ";", "/") with
 					// commas
 					line = line.replaceAll(":", ",");
 					line = line.replaceAll(";", ",");
 					line = line.replaceAll("/", ",");
 				}
-				
+
 				// Split the line at each comma
 				commentLine = line.trim().split(",");
 				commentLineLength = commentLine.length;
@@ -171,44 +244,44 @@ public class CSVDataLoader {
 				// If this line contains all the feature names (either with the
 				// "#feature" format (or simply by being line 1 if it contains
 				// no hashes), add them to the features ArrayList
-				if (hasHashFeature || 
-						(!line.contains("#") && lineNumber == 1)) {
-					
+				if (hasHashFeature
+						|| (!line.contains("#") && lineNumber == 1)) {
+
 					// First, get the number of features. This is used later
 					// to check each line contains the same number of entries
 					// as there are number of features
 					featureLineLength = commentLine.length;
-					
+
 					// We'll also check if there are error/uncertainty provided
-					// for each feature. Set up regex matcher.					
+					// for each feature. Set up regex matcher.
 					String pattern = "(.*)_(error|uncertainty)";
 					Pattern errorPattern = Pattern.compile(pattern);
 					Matcher match = null;
-					
+
 					// Now loop through the split line, add features to the
-					// list of features, and look for any error/uncertainty 
+					// list of features, and look for any error/uncertainty
 					// matches
 					elementOffset = (hasHashFeature ? 1 : 0);
 					for (int i = elementOffset; i < commentLineLength; i++) {
-						
+
 						// Add the current element of commentLine to the
 						// ArrayList of features
 						features.add(commentLine[i]);
-						
+
 						// Try to find any error/uncertainty match
 						match = errorPattern.matcher(commentLine[i]);
 						if (match.find()) {
 
-							 // Add the feature and it's corresponding error to
-							 // the feature error hashmap.
+							// Add the feature and it's corresponding error to
+							// the feature error hashmap.
 							featureErrorIndices.put(
 									features.indexOf(match.group(1)), i
 											- elementOffset);
 						}
 					}
 				} else if (line.toLowerCase().contains("#units")) {
-					
-					// Loops through the split line and appends to the 
+
+					// Loops through the split line and appends to the
 					// ArrayList of units
 					boolVarComp = ValueComp(featureLineLength,
 							commentLineLength);
@@ -220,15 +293,15 @@ public class CSVDataLoader {
 						System.out.println("Number of units and "
 								+ "features do not match.");
 					}
-					
+
 				} else if (line.toLowerCase().contains("#time-units")) {
-					
+
 					// Set the time units
 					timeUnits = commentLine[1];
 					dataSet.setTimeUnits(timeUnits);
-					
+
 				} else if (line.toLowerCase().contains("#matrix")) {
-					
+
 					// Splits the line by comma
 					String[] matrixData = line.split(",");
 					// get the data width
@@ -239,190 +312,84 @@ public class CSVDataLoader {
 					dataSet.setDataWidth(dataWidth);
 					// set the data height in the provider
 					dataSet.setDataHeight(dataHeight);
-					
-				} 				
-				
+
+				}
+
 				// Increment the line counter
 				lineNumber++;
 			}
-			
+
+			// There must be at least one line of data, unless only complete
+			// lines are read. A file that is still being written can have a
+			// complete header and no data yet, which is zero rows.
+			boolean headerOnly = !hasLine && completeLinesOnly
+					&& !features.isEmpty() && reader.isLineTerminated();
+			if (!hasLine && !headerOnly) {
+				throw new Exception("CSV file in an unexpected format, "
+						+ "no data found");
+			}
+
 			/**
 			 * If the file had no given features, create a set of features
 			 * x0,x1,x2,...,xn for the fakeDataSet
 			 */
 			if (features.isEmpty()) {
 
-				// Split the line at each comma
-				featureLine = line.trim().split(",");
-
-				// Create as many dummy feature names as there were splits
-				for (int i = 0; i < featureLine.length; i++) {
+				// Create as many dummy feature names as there are values
+				int nValues = reader.countValues();
+				for (int i = 0; i < nValues; i++) {
 					features.add("x" + i);
 				}
 			}
-			
-			// Create an IData object to store information
-			IData data;
-			String[] dataLines;
-			dataLines = line.trim().split(",");
-			// Set the minimum and maximum as the first value
-			dataSet.setDataMax(Double.parseDouble(dataLines[0]));
-			dataSet.setDataMin(Double.parseDouble(dataLines[0]));
-			/**
-			 * Loop handles the columns of the first line of data
-			 */
-			for (int i = 0; i < dataLines.length; i++) {
-				/**
-				 * Check if error/uncertainties are present in the data file
-				 */
-				if (!(featureErrorIndices.isEmpty())) {
-					// Checks if the column is not an error value
-					if (!featureErrorIndices.containsValue(i)) {
-						/**
-						 * Instantiate a new CSVData object
-						 */
-						data = new CSVData(features.get(i),
-								Double.parseDouble(dataLines[i]));
-						/**
-						 * Set the uncertainty using the HashMap by finding the
-						 * column of error associated with this data
-						 */
-						if (featureErrorIndices.containsKey(i)) {
-							((CSVData) data).setUncertainty(Double
-									.parseDouble(dataLines[featureErrorIndices
-											.get(i)]));
-						}
-						/**
-						 * Set the units if the units exist
-						 */
-						if (!(units.isEmpty())) {
-							((CSVData) data).setUnits(units.get(i));
-						}
-						/**
-						 * Add the data with a time if the times exist,otherwise
-						 * add without time
-						 */
-						if (!(times.isEmpty())) {
-							dataSet.addData(times.get(i), data);
-						} else {
-							dataSet.addData(data);
-						}
-					}
-				} else {
-					/**
-					 * Instantiate a new CSVData object
-					 */
-					if (features.size() == dataLines.length) {
-						data = new CSVData(features.get(i),
-								Double.parseDouble(dataLines[i]));
-					} else {
-						throw new Exception("CSV file in an unexpected format, "
-								+ "data must be a (m x n) matrix");
-					}
+
+			// Create a column for each feature that is not the error of
+			// another. The number of rows is estimated from the length of the
+			// first line of data.
+			int nFeatures = features.size();
+			CSVColumn[] columns = new CSVColumn[nFeatures];
+			int[] errorIndices = new int[nFeatures];
+			int capacity = (headerOnly ? 16 : reader
+					.estimateRemainingLines());
+			Arrays.fill(errorIndices, -1);
+			for (Integer featureIndex : featureErrorIndices.keySet()) {
+				if (featureIndex >= 0) {
+					errorIndices[featureIndex] = featureErrorIndices
+							.get(featureIndex);
+				}
+			}
+			for (int i = 0; i < nFeatures; i++) {
+				if (!featureErrorIndices.containsValue(i)) {
+					columns[i] = new CSVColumn(features.get(i), capacity);
 					/**
 					 * Set the units if the units exist
 					 */
-					if (!(units.isEmpty())) {
-						((CSVData) data).setUnits(units.get(i));
+					if (i < units.size()) {
+						columns[i].setUnits(units.get(i));
 					}
-					/**
-					 * Add the data with a time if the times exist, otherwise
-					 * add with out time
-					 */
-					if (!(times.isEmpty())) {
-						dataSet.addData(times.get(i), data);
-					} else {
-						dataSet.addData(data);
-					}
-				}
-				// Finding the minimum and maximum for the contour plot
-				if (dataSet.getDataMin() > Double.parseDouble(dataLines[i])) {
-					dataSet.setDataMin(Double.parseDouble(dataLines[i]));
-				}
-				if (dataSet.getDataMax() < Double.parseDouble(dataLines[i])) {
-					dataSet.setDataMax(Double.parseDouble(dataLines[i]));
 				}
 			}
 
-			/**
-			 * While loop to read the rest of the data lines
-			 */
-			while ((line = inputStream.readLine()) != null && !line.isEmpty()
-					&& !line.startsWith("#")) {
-				/**
-				 * dataLines- for the split input line
-				 */
-				dataLines = line.trim().split(",");
+			// Keep the columns and the position of the data for
+			// loadAppended()
+			loadedColumns = columns;
+			loadedErrorIndices = errorIndices;
+			dataStart = (headerOnly ? reader.getNextLineStart() : reader
+					.getLineStart());
+			dataEnd = dataStart;
+			dataEnded = false;
+			numRows = 0;
 
-				/**
-				 * Loop through each data in the line
-				 */
-				for (int i = 0; i < dataLines.length; i++) {
-					/**
-					 * Check if error/uncertainties are present in the data file
-					 */
-					if (!(featureErrorIndices.isEmpty())) {
-						if (!featureErrorIndices.containsValue(i)) {
-							/**
-							 * Instantiate a new CSVData object
-							 */
-							data = new CSVData(features.get(i),
-									Double.parseDouble(dataLines[i]));
+			// Read the data lines
+			dataSet.setDataMin(Double.POSITIVE_INFINITY);
+			dataSet.setDataMax(Double.NEGATIVE_INFINITY);
+			if (!headerOnly) {
+				readData(reader, dataSet, completeLinesOnly);
+			}
 
-							/**
-							 * Set the uncertainty using the hashmap
-							 */
-							if (featureErrorIndices.containsKey(i)) {
-								((CSVData) data)
-										.setUncertainty(Double
-												.parseDouble(dataLines[featureErrorIndices
-														.get(i)]));
-							}
-							/**
-							 * Set the units if the units exist
-							 */
-							if (!(units.isEmpty())) {
-								((CSVData) data).setUnits(units.get(i));
-							}
-							/**
-							 * Add the data with a time if the times exist,
-							 * otherwise add without time
-							 */
-							if (!(times.isEmpty())) {
-								dataSet.addData(times.get(i), data);
-							} else {
-								dataSet.addData(data);
-							}
-						}
-					} else {
-						/**
-						 * Instantiate a new CSVData object
-						 */
-						data = new CSVData(features.get(i),
-								Double.parseDouble(dataLines[i]));
-						/**
-						 * Set the units if the units exist
-						 */
-						if (!(units.isEmpty())) {
-							((CSVData) data).setUnits(units.get(i));
-						}
-						/**
-						 * Add the data with a time if the times exist,
-						 * otherwise add with out time
-						 */
-						if (!(times.isEmpty())) {
-							dataSet.addData(times.get(i), data);
-						} else {
-							dataSet.addData(data);
-						}
-					}
-					// Finding the minimum and maximum for the contour plot
-					if (dataSet.getDataMin() > Double.parseDouble(dataLines[i])) {
-						dataSet.setDataMin(Double.parseDouble(dataLines[i]));
-					}
-					if (dataSet.getDataMax() < Double.parseDouble(dataLines[i])) {
-						dataSet.setDataMax(Double.parseDouble(dataLines[i]));
-					}
+			// Add the columns to the provider
+			for (int i = 0; i < nFeatures; i++) {
+				if (columns[i] != null) {
+					dataSet.addColumn(columns[i]);
 				}
 			}
 		} catch (FileNotFoundException e) {
@@ -453,11 +420,12 @@ public class CSVDataLoader {
 			System.out.println();
 		} finally {
 			/**
-			 * Check if the stream is null to catch IO error Close stream
+			 * Check if the file is null to catch IO error Close file. The
+			 * mapping stays valid after the file is closed.
 			 */
-			if (inputStream != null) {
+			if (inputFile != null) {
 				try {
-					inputStream.close();
+					inputFile.close();
 				} catch (IOException e) {
 					// TODO Auto-generated catch block
 					System.out.println("Error: Could not close stream");
@@ -467,6 +435,157 @@ public class CSVDataLoader {
 		return dataSet;
 	}
 
+	/**
+	 * Reads the lines of data from the current line until the end of the file,
+	 * an empty line or a comment and adds them to the loaded columns. The
+	 * minimum and maximum of the provider are updated for the contour plot.
+	 * 
+	 * @param reader
+	 *            The reader, which must be on the first line to read
+	 * @param dataSet
+	 *            The provider of the loaded columns
+	 * @param completeLinesOnly
+	 *            True if a last line without a line terminator should not be
+	 *            read
+	 * @throws Exception
+	 */
+	private void readData(MappedLineReader reader, CSVDataProvider dataSet,
+			boolean completeLinesOnly) throws Exception {
+
+		// Local Declarations
+		int nFeatures = loadedColumns.length;
+		double[] values = new double[nFeatures];
+		double dataMin = dataSet.getDataMin();
+		double dataMax = dataSet.getDataMax();
+
+		try {
+			do {
+				// Stop at a last line that is still being written
+				if (completeLinesOnly && !reader.isLineTerminated()) {
+					break;
+				}
+				// Stop at empty lines and comments
+				if (reader.isLineEmpty() || reader.lineStartsWith('#')) {
+					dataEnded = true;
+					break;
+				}
+				// Parse the values. Every line must have one per feature.
+				if (reader.parseValues(values) != nFeatures) {
+					throw new Exception("CSV file in an unexpected format, "
+							+ "data must be a (m x n) matrix");
+				}
+				// Add the values to the columns along with the uncertainties
+				for (int i = 0; i < nFeatures; i++) {
+					double value = values[i];
+					if (loadedColumns[i] != null) {
+						double uncertainty = (loadedErrorIndices[i] >= 0) ? values[loadedErrorIndices[i]]
+								: 0.0;
+						// Negative uncertainties are ignored like they are by
+						// CSVData
+						loadedColumns[i].add(value, Math.max(0.0, uncertainty));
+					}
+					// Finding the minimum and maximum for the contour plot
+					if (value < dataMin) {
+						dataMin = value;
+					}
+					if (value > dataMax) {
+						dataMax = value;
+					}
+				}
+				// Move past the line
+				dataEnd = reader.getNextLineStart();
+				numRows++;
+			} while (reader.nextLine());
+		} finally {
+			dataSet.setDataMin(dataMin);
+			dataSet.setDataMax(dataMax);
+		}
+
+		return;
+	}
+
+	/**
+	 * This method reads the lines of data that were appended to the last file
+	 * loaded by this loader and adds them to the end of the provider that was
+	 * returned for it. Only the bytes after the last line that was read are
+	 * mapped and parsed, so the cost depends on the number of new lines
+	 * instead of the size of the file. A last line without a line terminator
+	 * is left for the next call.
+	 * <p>
+	 * If the file became shorter than the data that was read, it is assumed
+	 * to have been rewritten, for example by a new run of the simulation. All
+	 * of the values are then removed and the data are read again from the
+	 * first line of data. The header is not read again.
+	 * </p>
+	 * <p>
+	 * The caller is responsible for locking the provider if it is read by
+	 * other threads.
+	 * </p>
+	 * 
+	 * @param csvInputFile
+	 *            The CSV input file that was loaded
+	 * @param dataSet
+	 *            The provider that was returned by load() for the file
+	 * @return The number of lines of data that were added
+	 * @throws Exception
+	 */
+	int loadAppended(File csvInputFile, CSVDataProvider dataSet)
+			throws Exception {
+
+		// Local Declarations
+		int oldRows = numRows;
+		RandomAccessFile inputFile;
+
+		// Nothing can be appended if no file was loaded
+		if (loadedColumns == null) {
+			return 0;
+		}
+
+		inputFile = new RandomAccessFile(csvInputFile, "r");
+		try {
+			FileChannel channel = inputFile.getChannel();
+			long size = channel.size();
+
+			// Start over if the file was rewritten
+			if (size < dataEnd) {
+				for (CSVColumn column : loadedColumns) {
+					if (column != null) {
+						column.clear();
+					}
+				}
+				dataSet.setDataMin(Double.POSITIVE_INFINITY);
+				dataSet.setDataMax(Double.NEGATIVE_INFINITY);
+				dataEnd = dataStart;
+				dataEnded = false;
+				numRows = 0;
+				oldRows = 0;
+			}
+
+			// Read the new lines
+			if (!dataEnded && size > dataEnd) {
+				MappedLineReader reader = new MappedLineReader(channel,
+						dataEnd);
+				if (reader.nextLine()) {
+					readData(reader, dataSet, true);
+				}
+			}
+		} finally {
+			inputFile.close();
+		}
+
+		return numRows - oldRows;
+	}
+
+	/**
+	 * Returns the number of lines of data that were read from the last file
+	 * loaded by this loader, including those read by loadAppended().
+	 * 
+	 * @return The number of lines
+	 */
+	int getNumberOfRows() {
+		return numRows;
+	}
+
 	/**
 	 * Checks the number of features
 	 * 
@@ -976,4 +1095,471 @@ public class CSVDataLoader {
 		return csvInputStringList;
 	}
 
+	/**
+	 * This class reads the lines of a memory-mapped file and parses the
+	 * comma-separated values on them without creating Strings. The file is
+	 * mapped in windows so that files larger than the address space that a
+	 * single mapping can hold can still be read.
+	 * 
+	 * @author Jay Jay Billings
+	 */
+	private static class MappedLineReader {
+
+		/**
+		 * The size of each mapped window.
+		 */
+		private static final int windowSize = 64 * 1024 * 1024;
+
+		/**
+		 * The largest power of ten that can be represented exactly by a
+		 * double.
+		 */
+		private static final int maxExactPower = 22;
+
+		/**
+		 * The powers of ten up to maxExactPower.
+		 */
+		private static final double[] powersOfTen = new double[maxExactPower + 1];
+
+		/**
+		 * The largest integer that can be represented exactly by a double.
+		 */
+		private static final long maxExactMantissa = 1L << 53;
+
+		static {
+			powersOfTen[0] = 1.0;
+			for (int i = 1; i <= maxExactPower; i++) {
+				powersOfTen[i] = 10.0 * powersOfTen[i - 1];
+			}
+		}
+
+		/**
+		 * The channel of the file.
+		 */
+		private final FileChannel channel;
+
+		/**
+		 * The size of the file.
+		 */
+		private final long fileSize;
+
+		/**
+		 * The current window.
+		 */
+		private MappedByteBuffer buffer;
+
+		/**
+		 * The position of the window in the file.
+		 */
+		private long bufferStart;
+
+		/**
+		 * The start of the current line in the window.
+		 */
+		private int lineStart;
+
+		/**
+		 * The end of the current line in the window, not including the line
+		 * terminator.
+		 */
+		private int lineEnd;
+
+		/**
+		 * The start of the next line in the window.
+		 */
+		private int next;
+
+		/**
+		 * True if the current line ends with a line terminator instead of the
+		 * end of the file.
+		 */
+		private boolean lineTerminated;
+
+		/**
+		 * The constructor. The first window is mapped immediately.
+		 * 
+		 * @param channel
+		 *            The channel of the file
+		 * @throws IOException
+		 */
+		public MappedLineReader(FileChannel channel) throws IOException {
+			this(channel, 0);
+		}
+
+		/**
+		 * The constructor for a reader that starts at a position in the file,
+		 * which must be the start of a line.
+		 * 
+		 * @param channel
+		 *            The channel of the file
+		 * @param position
+		 *            The position of the first line
+		 * @throws IOException
+		 */
+		public MappedLineReader(FileChannel channel, long position)
+				throws IOException {
+			this.channel = channel;
+			fileSize = channel.size();
+			map(position, windowSize);
+		}
+
+		/**
+		 * Maps a window of the file.
+		 * 
+		 * @param position
+		 *            The position of the window in the file
+		 * @param size
+		 *            The size of the window. It is limited by the end of the
+		 *            file.
+		 * @throws IOException
+		 */
+		private void map(long position, long size) throws IOException {
+			size = Math.min(Math.min(size, fileSize - position),
+					Integer.MAX_VALUE);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+			bufferStart = position;
+			next = 0;
+		}
+
+		/**
+		 * Moves to the next line. Lines end with "\n" or "\r\n".
+		 * 
+		 * @return True if there was another line, false if the end of the file
+		 *         was reached
+		 * @throws IOException
+		 */
+		public boolean nextLine() throws IOException {
+
+			// Check for the end of the file
+			if (bufferStart + next >= fileSize) {
+				return false;
+			}
+
+			while (true) {
+				// Look for the end of the line
+				int limit = buffer.limit();
+				int i = next;
+				while (i < limit && buffer.get(i) != '\n') {
+					i++;
+				}
+				// Use the line if it ends in this window or at the end of the
+				// file.
+				if (i < limit || bufferStart + limit == fileSize) {
+					lineStart = next;
+					lineEnd = i;
+					lineTerminated = (i < limit);
+					next = Math.min(i + 1, limit);
+					if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+						lineEnd--;
+					}
+					return true;
+				}
+				// Otherwise, map a new window at the start of the line. The
+				// window is grown if the line does not fit in one.
+				long size = (next == 0) ? 2L * limit : windowSize;
+				map(bufferStart + next, size);
+			}
+		}
+
+		/**
+		 * Returns true if the current line ends with a line terminator. Only
+		 * the last line of the file can end without one.
+		 * 
+		 * @return True if it does, false otherwise
+		 */
+		public boolean isLineTerminated() {
+			return lineTerminated;
+		}
+
+		/**
+		 * Returns the position of the current line in the file.
+		 * 
+		 * @return The position
+		 */
+		public long getLineStart() {
+			return bufferStart + lineStart;
+		}
+
+		/**
+		 * Returns the position in the file of the line after the current one.
+		 * 
+		 * @return The position
+		 */
+		public long getNextLineStart() {
+			return bufferStart + next;
+		}
+
+		/**
+		 * Returns the current line as a String.
+		 * 
+		 * @return The line
+		 */
+		public String getLine() {
+			byte[] bytes = new byte[lineEnd - lineStart];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = buffer.get(lineStart + i);
+			}
+			return new String(bytes, Charset.defaultCharset());
+		}
+
+		/**
+		 * Returns true if the current line contains the character.
+		 * 
+		 * @param c
+		 *            The character
+		 * @return True if it does, false otherwise
+		 */
+		public boolean lineContains(char c) {
+			for (int i = lineStart; i < lineEnd; i++) {
+				if (buffer.get(i) == c) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns true if the current line starts with the character.
+		 * 
+		 * @param c
+		 *            The character
+		 * @return True if it does, false otherwise
+		 */
+		public boolean lineStartsWith(char c) {
+			return lineEnd > lineStart && buffer.get(lineStart) == c;
+		}
+
+		/**
+		 * Returns true if the current line is empty.
+		 * 
+		 * @return True if it is, false otherwise
+		 */
+		public boolean isLineEmpty() {
+			return lineEnd == lineStart;
+		}
+
+		/**
+		 * Estimates the number of lines left in the file, including the
+		 * current one, from the length of the current line.
+		 * 
+		 * @return The estimate
+		 */
+		public int estimateRemainingLines() {
+			long remaining = fileSize - (bufferStart + lineStart);
+			long estimate = remaining / (lineEnd - lineStart + 1) + 1;
+			return (int) Math.min(estimate, Integer.MAX_VALUE - 8);
+		}
+
+		/**
+		 * Returns the start of the values on the current line. Whitespace is
+		 * trimmed like String.trim() does.
+		 * 
+		 * @return The start
+		 */
+		private int valuesStart() {
+			int start = lineStart;
+			while (start < lineEnd && buffer.get(start) <= ' ') {
+				start++;
+			}
+			return start;
+		}
+
+		/**
+		 * Returns the end of the values on the current line. Whitespace is
+		 * trimmed like String.trim() does and trailing empty values are
+		 * dropped like String.split() does.
+		 * 
+		 * @param start
+		 *            The start of the values
+		 * @return The end
+		 */
+		private int valuesEnd(int start) {
+			int end = lineEnd;
+			while (end > start && buffer.get(end - 1) <= ' ') {
+				end--;
+			}
+			while (end > start && buffer.get(end - 1) == ',') {
+				end--;
+			}
+			return end;
+		}
+
+		/**
+		 * Counts the comma-separated values on the current line.
+		 * 
+		 * @return The number of values
+		 */
+		public int countValues() {
+			int start = valuesStart();
+			int end = valuesEnd(start);
+			int count = 1;
+			for (int i = start; i < end; i++) {
+				if (buffer.get(i) == ',') {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Parses the comma-separated values on the current line.
+		 * 
+		 * @param values
+		 *            The array to fill. Values that do not fit are counted but
+		 *            not parsed.
+		 * @return The number of values on the line
+		 * @throws NumberFormatException
+		 *             If a value is not a number
+		 */
+		public int parseValues(double[] values) {
+			int start = valuesStart();
+			int end = valuesEnd(start);
+			int count = 0;
+			int valueStart = start;
+			for (int i = start; i <= end; i++) {
+				if (i == end || buffer.get(i) == ',') {
+					if (count < values.length) {
+						values[count] = parseDouble(valueStart, i);
+					}
+					count++;
+					valueStart = i + 1;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Parses a number from the window. Plain decimal numbers with up to 18
+		 * significant digits and small exponents are computed directly, which
+		 * gives exactly the same result as Double.parseDouble() because both
+		 * the digits and the power of ten are exact doubles. Everything else,
+		 * including NaN, Infinity and malformed values, falls back to
+		 * Double.parseDouble().
+		 * 
+		 * @param start
+		 *            The start of the number
+		 * @param end
+		 *            The end of the number
+		 * @return The number
+		 * @throws NumberFormatException
+		 *             If the value is not a number
+		 */
+		private double parseDouble(int start, int end) {
+
+			// Local Declarations
+			int i = start, stop = end;
+			boolean negative = false, hasDigits = false;
+			long mantissa = 0;
+			int digits = 0, exponent = 0;
+			byte b;
+
+			// Trim the value
+			while (i < stop && buffer.get(i) <= ' ') {
+				i++;
+			}
+			while (stop > i && buffer.get(stop - 1) <= ' ') {
+				stop--;
+			}
+
+			// Read the sign
+			if (i < stop && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negative = (buffer.get(i) == '-');
+				i++;
+			}
+
+			// Read the integer digits. Leading zeros are not significant.
+			while (i < stop && (b = buffer.get(i)) >= '0' && b <= '9') {
+				hasDigits = true;
+				if (mantissa != 0 || b != '0') {
+					mantissa = 10 * mantissa + (b - '0');
+					digits++;
+				}
+				if (digits > 18) {
+					return parseSlowly(start, end);
+				}
+				i++;
+			}
+
+			// Read the fraction digits
+			if (i < stop && buffer.get(i) == '.') {
+				i++;
+				while (i < stop && (b = buffer.get(i)) >= '0' && b <= '9') {
+					hasDigits = true;
+					if (mantissa != 0 || b != '0') {
+						mantissa = 10 * mantissa + (b - '0');
+						digits++;
+					}
+					if (digits > 18) {
+						return parseSlowly(start, end);
+					}
+					exponent--;
+					i++;
+				}
+			}
+
+			// Read the exponent
+			if (hasDigits && i < stop && (buffer.get(i) | 0x20) == 'e') {
+				boolean negativeExponent = false;
+				int exponentValue = 0, exponentDigits = 0;
+				i++;
+				if (i < stop && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+					negativeExponent = (buffer.get(i) == '-');
+					i++;
+				}
+				while (i < stop && (b = buffer.get(i)) >= '0' && b <= '9'
+						&& exponentDigits < 6) {
+					exponentValue = 10 * exponentValue + (b - '0');
+					exponentDigits++;
+					i++;
+				}
+				if (exponentDigits == 0) {
+					return parseSlowly(start, end);
+				}
+				exponent += (negativeExponent ? -exponentValue
+						: exponentValue);
+			}
+
+			// Anything else needs the full parser
+			if (!hasDigits || i != stop) {
+				return parseSlowly(start, end);
+			}
+
+			// Compute the value if it is exact
+			double value;
+			if (mantissa == 0) {
+				value = 0.0;
+			} else if (mantissa < maxExactMantissa && exponent >= 0
+					&& exponent <= maxExactPower) {
+				value = mantissa * powersOfTen[exponent];
+			} else if (mantissa < maxExactMantissa && exponent < 0
+					&& exponent >= -maxExactPower) {
+				value = mantissa / powersOfTen[-exponent];
+			} else {
+				return parseSlowly(start, end);
+			}
+
+			return negative ? -value : value;
+		}
+
+		/**
+		 * Parses a number from the window with Double.parseDouble().
+		 * 
+		 * @param start
+		 *            The start of the number
+		 * @param end
+		 *            The end of the number
+		 * @return The number
+		 * @throws NumberFormatException
+		 *             If the value is not a number
+		 */
+		private double parseSlowly(int start, int end) {
+			byte[] bytes = new byte[end - start];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = buffer.get(start + i);
+			}
+			return Double.parseDouble(new String(bytes,
+					Charset.defaultCharset()));
+		}
+	}
+
 }
@@ -15,7 +15,8 @@ package org.eclipse.ice.viz.service.csv;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,15 +27,20 @@ import org.eclipse.ice.analysistool.IDataProvider;
 /**
  * This class is the implementation of IDataProvider for the PlotViewer tool.
  * 
+ * The data for each feature at each time are stored in a CSVColumn of
+ * primitive values, so the IData passed to addData() are copied and not kept.
+ * getValuesAtCurrentTime() and getPositionAtCurrentTime() return copies of the
+ * columns, while getDataAtCurrentTime() returns CSVData views of them.
+ * 
  * @author Matthew Wang
  * 
  */
 public class CSVDataProvider implements IDataProvider {
 
 	/**
-	 * Structure to contain all the data for each feature at each time step
+	 * Structure to contain the column of each feature at each time step
 	 */
-	private final Map<Double, Map<String, List<IData>>> dataSet;
+	private final Map<Double, Map<String, CSVColumn>> dataSet;
 
 	/**
 	 * Units for the time
@@ -85,7 +91,7 @@ public class CSVDataProvider implements IDataProvider {
 	 * Default constructor
 	 */
 	public CSVDataProvider() {
-		dataSet = new HashMap<Double, Map<String, List<IData>>>();
+		dataSet = new HashMap<Double, Map<String, CSVColumn>>();
 		currentTime = defaultTime;
 		timeUnits = null;
 		source = null;
@@ -103,32 +109,72 @@ public class CSVDataProvider implements IDataProvider {
 	public void addData(double time, IData data) {
 		// Get the feature of the data item
 		String feature = data.getFeature();
-		// Check if the given time already exists
-		if (dataSet.containsKey(time)) {
-			// Check if the feature already exists for a given time
-			if (dataSet.get(time).containsKey(feature)) {
-				// Feature exists so add the data to the ArrayList
-				dataSet.get(time).get(feature).add(data);
-			} else {
-				// Feature does not exist so create the ArrayList
-				dataSet.get(time).put(feature, new ArrayList<IData>());
-				// Add data to the ArrayList
-				dataSet.get(time).get(feature).add(data);
-			}
-		} else {
-			// The time does not exist so need a new HashMap for the given time
-			Map<String, List<IData>> dataSetComponent = new HashMap<String, List<IData>>();
-			// Initialize the HashMap and add in the feature and an empty
-			// ArrayList
-			dataSetComponent.put(feature, new ArrayList<IData>());
-			// Add the data to the ArrayList
-			dataSetComponent.get(feature).add(data);
-			// Add this new HashMap to the dataSet
-			dataSet.put(time, dataSetComponent);
+		// Get the features at the given time, creating them if needed
+		Map<String, CSVColumn> columns = getColumns(time);
+		// Create the column if the feature does not exist yet
+		CSVColumn column = columns.get(feature);
+		if (column == null) {
+			column = new CSVColumn(feature);
+			columns.put(feature, column);
+		}
+		// Append the data to the column
+		column.add(data);
+		return;
+	}
+
+	/**
+	 * Returns the columns at the specified time, creating an empty map if the
+	 * time does not exist.
+	 * 
+	 * @param time
+	 * @return The map of columns keyed by feature
+	 */
+	private Map<String, CSVColumn> getColumns(double time) {
+		Map<String, CSVColumn> columns = dataSet.get(time);
+		if (columns == null) {
+			columns = new LinkedHashMap<String, CSVColumn>();
+			dataSet.put(time, columns);
+		}
+		return columns;
+	}
+
+	/**
+	 * Adds a loaded column at a specified time. If a column for the feature
+	 * already exists at that time, it does nothing.
+	 * 
+	 * @param time
+	 * @param column
+	 */
+	void addColumn(double time, CSVColumn column) {
+		Map<String, CSVColumn> columns = getColumns(time);
+		if (!columns.containsKey(column.getName())) {
+			columns.put(column.getName(), column);
 		}
 		return;
 	}
 
+	/**
+	 * Adds a loaded column with no specified time. It uses the defaultTime as
+	 * the time.
+	 * 
+	 * @param column
+	 */
+	void addColumn(CSVColumn column) {
+		addColumn(defaultTime, column);
+	}
+
+	/**
+	 * Returns the column for the feature at the current time or null if it
+	 * could not be found.
+	 * 
+	 * @param feature
+	 * @return The column
+	 */
+	private CSVColumn getColumnAtCurrentTime(String feature) {
+		Map<String, CSVColumn> columns = dataSet.get(currentTime);
+		return (columns != null) ? columns.get(feature) : null;
+	}
+
 	/**
 	 * Adds a single data item with no specified time. It calls the addData with
 	 * time and uses the default time instead.
@@ -150,23 +196,13 @@ public class CSVDataProvider implements IDataProvider {
 	public void addDataSeries(double time, List<IData> dataSeries) {
 		// Get the feature of the dataSeries
 		String feature = dataSeries.get(0).getFeature();
-		// Add to the dataSet
-		if (dataSet.containsKey(time)) {
-			// The time already exists so add to the existing HashMap
-			if (dataSet.get(time).containsKey(feature)) {
-				// Duplicate feature with a dataSeries, throw error or add to
-				// the end of the existing series?
-			} else {
-				dataSet.get(time).put(feature, dataSeries);
-			}
-		} else {
-			// Creates a new HashMap for the new time, feature, and dataSeries
-			Map<String, List<IData>> dataSetComponent = new HashMap<String, List<IData>>();
-			// Sets the given feature and dataSeries
-			dataSetComponent.put(feature, dataSeries);
-			// Adds the HashMap of the feature to the time
-			dataSet.put(time, dataSetComponent);
+		// Copy the series into a new column
+		CSVColumn column = new CSVColumn(feature, dataSeries.size());
+		for (IData data : dataSeries) {
+			column.add(data);
 		}
+		// Add it to the dataSet. Duplicate features are ignored.
+		addColumn(time, column);
 		return;
 	}
 
@@ -240,12 +276,12 @@ public class CSVDataProvider implements IDataProvider {
 	public void setTimeForFeature(double prevTime, double newTime,
 			String feature) {
 		if (dataSet.containsKey(prevTime)) {
-			// Saves the data before removal from the dataSet
-			List<IData> data = dataSet.get(prevTime).get(feature);
-			// Removes the data from the dataSet
-			removeDataSeries(prevTime, feature);
-			// Adds the data into the newTime
-			addDataSeries(newTime, data);
+			// Removes the column from the dataSet
+			CSVColumn column = dataSet.get(prevTime).remove(feature);
+			// Adds the column at the newTime
+			if (column != null) {
+				addColumn(newTime, column);
+			}
 		} else {
 			// Throw invalid time exception
 		}
@@ -271,49 +307,13 @@ public class CSVDataProvider implements IDataProvider {
 	 * @param independent
 	 */
 	public void setFeatureAsIndependentVariable(String independent) {
-		// FIXME Presumably, this method is called AFTER all data has been
-		// added. Otherwise, new features will not have the correct positional
-		// data.
+		// The positions of the data are read from the columns of the
+		// independent variables when they are needed, so only the name of the
+		// variable has to be stored. Its index in the list is the index of its
+		// value in the position of each CSVData.
 
 		// Don't add the same variable twice!
 		if (!independentVars.contains(independent)) {
-			// Loop through each time to add the independent variable's data at
-			// that time to the positions for all features.
-			List<Double> times = getTimes();
-			for (double time : times) {
-				// Set the current time.
-				setTime(time);
-
-				// Get the data at the current time for the new independent
-				// feature.
-				List<IData> independentData = getDataAtCurrentTime(independent);
-				// Get all features at the current time.
-				List<String> featuresAtTime = getFeaturesAtCurrentTime();
-
-				// Do not remove the independent variable feature from the list
-				// of features. Effectively, this means we can plot it against
-				// itself, but it also means the position arrays for each
-				// CSVData share the same order (based on the list of
-				// independent variables).
-
-				// For each feature at the current time, add the independent
-				// variable's data as positional data.
-				for (String feature : featuresAtTime) {
-					List<IData> featureData = getDataAtCurrentTime(feature);
-					for (int i = 0; i < featureData.size(); i++) {
-						// set the position
-						((CSVData) featureData.get(i))
-								.addPosition(independentData.get(i).getValue());
-					}
-				}
-				// Do not remove the independent variable feature from the map
-				// of data, else it will not be found when plotting another
-				// "independent" variable against it.
-			}
-
-			// Add to the independentVar list. We can use the independent
-			// feature's index in this list to pull the correct positional data
-			// from the features later.
 			independentVars.add(independent);
 		}
 		return;
@@ -392,7 +392,7 @@ public class CSVDataProvider implements IDataProvider {
 	public ArrayList<String> getFeatureList() {
 		// Traverse the map of data, adding all feature names to the Set.
 		// The Set will only contain unique values.
-		Set<String> featureSet = new HashSet<String>();
+		Set<String> featureSet = new LinkedHashSet<String>();
 		for (Double time : dataSet.keySet()) {
 			featureSet.addAll(dataSet.get(time).keySet());
 		}
@@ -411,48 +411,99 @@ public class CSVDataProvider implements IDataProvider {
 	/**
 	 * Returns the series of data at the set current time for a specified
 	 * feature, or null if data could not be found. Will not return an empty
-	 * list.
+	 * list. The data are views of the provider's columns.
 	 */
 	@Override
 	public ArrayList<IData> getDataAtCurrentTime(String feature) {
 		// Check that the dataSet at the current time has the specified feature
 		ArrayList<IData> data = null;
-		List<IData> sourceData = dataSet.get(currentTime).get(feature);
-		if (!sourceData.isEmpty()) {
-			// Send a copy of the list so the data map can't be altered.
-			data = new ArrayList<IData>(sourceData);
+		CSVColumn column = getColumnAtCurrentTime(feature);
+		if (column != null && column.size() > 0) {
+			// Collect the columns of the independent variables for the
+			// positions.
+			List<CSVColumn> positionColumns = new ArrayList<CSVColumn>(
+					independentVars.size());
+			for (String independentVar : independentVars) {
+				CSVColumn positionColumn = getColumnAtCurrentTime(independentVar);
+				if (positionColumn != null) {
+					positionColumns.add(positionColumn);
+				}
+			}
+			data = column.getIData(positionColumns);
 		}
 		return data;
 	}
 
 	/**
-	 * Returns the values of each IData at the current time for a specified
-	 * feature.
+	 * Returns a copy of the values of each IData at the current time for a
+	 * specified feature.
 	 * 
 	 * @param feature
 	 * @return An array of values for each IData at the current time, or null if
 	 *         data could not be found. Will not return an empty array.
 	 */
 	public double[] getValuesAtCurrentTime(String feature) {
-		// Create the double array
-		double[] values = null;
 		// Check that the dataSet at the current time has the specified feature
-		List<IData> data = getDataAtCurrentTime(feature);
-		if (data != null) {
-			// Initialize the Array
-			int size = data.size();
-			values = new double[size];
-			// Fill in the values
-			for (int i = 0; i < size; i++) {
-				values[i] = data.get(i).getValue();
-			}
-		}
-		return values;
+		CSVColumn column = getColumnAtCurrentTime(feature);
+		return (column != null && column.size() > 0) ? column.getValues()
+				.clone() : null;
+	}
+
+	/**
+	 * Returns a copy of the values at the current time for a specified feature,
+	 * starting at an index. It is used to read only the values that were
+	 * appended to a feature since it was last read.
+	 * 
+	 * @param feature
+	 * @param start
+	 *            The index of the first value
+	 * @return The values from the start index, which may be empty, or null if
+	 *         data could not be found.
+	 */
+	public double[] getValuesAtCurrentTime(String feature, int start) {
+		CSVColumn column = getColumnAtCurrentTime(feature);
+		return (column != null) ? column.getValues(start) : null;
+	}
+
+	/**
+	 * Returns the number of values at the current time for a specified
+	 * feature.
+	 * 
+	 * @param feature
+	 * @return The number of values or zero if data could not be found.
+	 */
+	public int getNumberOfValuesAtCurrentTime(String feature) {
+		CSVColumn column = getColumnAtCurrentTime(feature);
+		return (column != null) ? column.size() : 0;
 	}
 
 	/**
-	 * Returns the uncertainties of each IData at the current time for a
-	 * specified
+	 * Returns the smallest value at the current time for a specified feature.
+	 * 
+	 * @param feature
+	 * @return The minimum, or NaN if data could not be found.
+	 */
+	public double getMinimumAtCurrentTime(String feature) {
+		CSVColumn column = getColumnAtCurrentTime(feature);
+		return (column != null && column.size() > 0) ? column.getMinimum()
+				: Double.NaN;
+	}
+
+	/**
+	 * Returns the largest value at the current time for a specified feature.
+	 * 
+	 * @param feature
+	 * @return The maximum, or NaN if data could not be found.
+	 */
+	public double getMaximumAtCurrentTime(String feature) {
+		CSVColumn column = getColumnAtCurrentTime(feature);
+		return (column != null && column.size() > 0) ? column.getMaximum()
+				: Double.NaN;
+	}
+
+	/**
+	 * Returns a copy of the uncertainties of each IData at the current time for
+	 * a specified feature.
 	 * 
 	 * @param feature
 	 * @return
@@ -461,46 +512,30 @@ public class CSVDataProvider implements IDataProvider {
 		// Create the double array
 		double[] uncertainties = null;
 		// Check that the dataSet at the current time has the specified feature
-		if (!dataSet.get(currentTime).get(feature).isEmpty()) {
-			// Get the ArrayList of IData
-			List<IData> iDataSeries = dataSet.get(currentTime).get(feature);
-			// Initialize the Array
-			uncertainties = new double[iDataSeries.size()];
-			// Fill in the values
-			for (int i = 0; i < iDataSeries.size(); i++) {
-				uncertainties[i] = iDataSeries.get(i).getUncertainty();
-				if (uncertainties[i] < 0.0) {
+		CSVColumn column = getColumnAtCurrentTime(feature);
+		if (column != null && column.size() > 0) {
+			double[] columnUncertainties = column.getUncertainties();
+			// Negative uncertainties mean that there are none
+			for (int i = 0; i < columnUncertainties.length; i++) {
+				if (columnUncertainties[i] < 0.0) {
 					return null;
 				}
 			}
+			uncertainties = columnUncertainties.clone();
 		}
 		return uncertainties;
 	}
 
 	/**
-	 * Returns the specified position/independent variable from the provider
+	 * Returns a copy of the specified position/independent variable from the
+	 * provider.
 	 * 
 	 * @param independentVar
 	 * @return
 	 */
 	public double[] getPositionAtCurrentTime(String independentVar) {
-		// Create the position array
-		double[] position = null;
-
-		// Get the data for the independent variable.
-		List<IData> independentVarData = getDataAtCurrentTime(independentVar);
-
-		// If the data could be found, create the array of doubles based on its
-		// values at the current time.
-		if (independentVarData != null) {
-			int size = independentVarData.size();
-			position = new double[size];
-			for (int i = 0; i < size; i++) {
-				position[i] = independentVarData.get(i).getValue();
-			}
-		}
-
-		return position;
+		// The position is the column of the independent variable.
+		return getValuesAtCurrentTime(independentVar);
 	}
 
 	/**
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * CSVFileTailer loads a CSV file that is still being written, such as the
+ * postprocessor output of a running simulation, and adds the lines that are
+ * appended to it to the same CSVDataProvider. Only the bytes after the last
+ * line that was read are parsed, so each refresh costs time proportional to
+ * the number of new lines instead of the size of the file. Listeners are told
+ * which values are new so that plots only need to add those points.
+ * </p>
+ * <p>
+ * Once started, a daemon thread waits for the directory of the file to change
+ * using a WatchService and refreshes the data. It also checks the file at the
+ * end of every refresh interval in case an event is missed or the platform
+ * can not watch the directory. Refreshes are limited to one per interval, so a
+ * simulation that writes a line for every time step does not cause a refresh
+ * for each one.
+ * </p>
+ * <p>
+ * The provider is locked while values are added, so clients that read it on
+ * other threads should synchronize on it. SeriesProvider does this.
+ * </p>
+ * 
+ * @author agent
+ */
+public class CSVFileTailer {
+
+	/**
+	 * The default time between refreshes in milliseconds.
+	 */
+	public static final long defaultInterval = 1000;
+
+	/**
+	 * The file that is watched.
+	 */
+	private final File file;
+
+	/**
+	 * The loader that read the file. It keeps the columns and the position of
+	 * the last line that was read.
+	 */
+	private final CSVDataLoader loader;
+
+	/**
+	 * The provider that holds the data of the file.
+	 */
+	private final CSVDataProvider provider;
+
+	/**
+	 * The minimum time between refreshes in milliseconds.
+	 */
+	private final long interval;
+
+	/**
+	 * The listeners that are notified when lines are appended.
+	 */
+	private final List<ICSVTailListener> listeners;
+
+	/**
+	 * The length of the file at the last refresh.
+	 */
+	private long lastLength;
+
+	/**
+	 * The thread that watches the file or null if it is not running.
+	 */
+	private Thread watchThread;
+
+	/**
+	 * The constructor. It loads the file immediately, without the last line if
+	 * it is incomplete, but does not start watching it. A file that only has
+	 * its header so far is loaded with no values.
+	 * 
+	 * @param file
+	 *            The CSV file
+	 * @param interval
+	 *            The minimum time between refreshes in milliseconds
+	 * @throws Exception
+	 *             An exception indicating that the file could not be loaded
+	 */
+	public CSVFileTailer(File file, long interval) throws Exception {
+		this.file = file;
+		this.interval = Math.max(1, interval);
+		listeners = new CopyOnWriteArrayList<ICSVTailListener>();
+		loader = new CSVDataLoader();
+		lastLength = file.length();
+		provider = loader.load(file, true);
+	}
+
+	/**
+	 * Returns the provider that holds the data of the file. The same provider
+	 * is used for the lifetime of the tailer.
+	 * 
+	 * @return The provider
+	 */
+	public CSVDataProvider getDataProvider() {
+		return provider;
+	}
+
+	/**
+	 * Adds a listener that is notified when lines are appended to the file.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void addListener(ICSVTailListener listener) {
+		if (listener != null && !listeners.contains(listener)) {
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * Removes a listener.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeListener(ICSVTailListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * This operation reads the lines that were appended to the file since the
+	 * last refresh, adds them to the provider and notifies the listeners if
+	 * there were any. It is called by the watching thread, but it can also be
+	 * called directly to refresh the data immediately.
+	 * 
+	 * @return The number of lines that were added
+	 * @throws Exception
+	 *             An exception indicating that the file could not be read or
+	 *             that a new line was in an unexpected format
+	 */
+	public int refresh() throws Exception {
+
+		// Local Declarations
+		int count = 0;
+		int firstIndex;
+		boolean changed;
+
+		// Nothing can have been appended if the length did not change
+		long length = file.length();
+		if (length == lastLength) {
+			return 0;
+		}
+
+		// Read the new lines while holding the lock on the provider
+		synchronized (provider) {
+			int oldRows = loader.getNumberOfRows();
+			count = loader.loadAppended(file, provider);
+			firstIndex = loader.getNumberOfRows() - count;
+			changed = (count > 0 || firstIndex < oldRows);
+			lastLength = length;
+		}
+
+		// Notify the listeners
+		if (changed) {
+			for (ICSVTailListener listener : listeners) {
+				listener.dataAppended(provider, firstIndex, count);
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * This operation starts watching the file on a daemon thread. It does
+	 * nothing if the file is already being watched.
+	 */
+	public synchronized void start() {
+
+		if (watchThread == null) {
+			watchThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					watch();
+				}
+			}, "CSVFileTailer " + file.getName());
+			watchThread.setDaemon(true);
+			watchThread.start();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation stops watching the file. The data and the position in
+	 * the file are kept, so lines appended while it is stopped are read when
+	 * it is started again.
+	 */
+	public synchronized void stop() {
+
+		if (watchThread != null) {
+			watchThread.interrupt();
+			watchThread = null;
+		}
+
+		return;
+	}
+
+	/**
+	 * Returns true if the file is being watched.
+	 * 
+	 * @return True if it is, false otherwise
+	 */
+	public synchronized boolean isRunning() {
+		return watchThread != null;
+	}
+
+	/**
+	 * This operation waits for changes to the file and refreshes the data
+	 * until the watching thread is interrupted by stop().
+	 */
+	private void watch() {
+
+		// Local Declarations
+		WatchService watchService = null;
+		long lastRefresh = 0;
+
+		// Watch the directory of the file. If it can not be watched, the file
+		// is just checked at every interval.
+		try {
+			Path directory = file.getAbsoluteFile().getParentFile().toPath();
+			watchService = FileSystems.getDefault().newWatchService();
+			directory.register(watchService,
+					StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException e) {
+			System.err.println("CSVFileTailer Message: Unable to watch "
+					+ file.getPath() + ". It will be polled instead.");
+			e.printStackTrace();
+		}
+
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				// Wait for a change in the directory or the end of the
+				// interval. The events are not checked because the length of
+				// the file is checked by refresh().
+				if (watchService != null) {
+					WatchKey key = watchService.poll(interval,
+							TimeUnit.MILLISECONDS);
+					if (key != null) {
+						key.pollEvents();
+						key.reset();
+					}
+				} else {
+					Thread.sleep(interval);
+				}
+				// Limit the rate of the refreshes
+				long wait = lastRefresh + interval - System.currentTimeMillis();
+				if (wait > 0) {
+					Thread.sleep(wait);
+				}
+				lastRefresh = System.currentTimeMillis();
+				// Read the new lines
+				try {
+					refresh();
+				} catch (Exception e) {
+					System.err.println("CSVFileTailer Message: Unable to "
+							+ "read the new lines of " + file.getPath()
+							+ ". It will no longer be watched.");
+					e.printStackTrace();
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stopped
+		} finally {
+			// Mark the tailer as stopped if it stopped itself
+			synchronized (this) {
+				if (watchThread == Thread.currentThread()) {
+					watchThread = null;
+				}
+			}
+			if (watchService != null) {
+				try {
+					watchService.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return;
+	}
+
+}
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.ice.client.common.ActionTree;
 import org.eclipse.ice.viz.service.IPlot;
@@ -29,6 +30,7 @@ import org.eclipse.swt.events.DisposeListener;
 import org.eclipse.swt.events.MenuEvent;
 import org.eclipse.swt.events.MenuListener;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Menu;
 
 /**
@@ -38,6 +40,10 @@ import org.eclipse.swt.widgets.Menu;
  * In addition to the IPlot operations it provides the load() operation that
  * should be called after construction.
  * 
+ * If live refresh is enabled before load() is called, the file is watched by a
+ * CSVFileTailer while the plot is drawn and lines appended to it, for example
+ * by a running simulation, are added to the drawn plots.
+ * 
  * @author Jay Jay Billings, Anna Wojtowicz
  *
  */
@@ -72,6 +78,18 @@ public class CSVPlot implements IPlot {
 	 */
 	private final Map<Composite, DrawnPlot> drawnPlots;
 
+	/**
+	 * True if the file should be watched for new lines while the plot is
+	 * drawn.
+	 */
+	private boolean liveRefresh = false;
+
+	/**
+	 * The tailer that watches the file if live refresh was enabled when it was
+	 * loaded, otherwise null.
+	 */
+	private CSVFileTailer tailer;
+
 	/**
 	 * The Constructor
 	 * 
@@ -124,6 +142,37 @@ public class CSVPlot implements IPlot {
 		return;
 	}
 
+	/**
+	 * This operation enables or disables live refresh. When it is enabled,
+	 * lines appended to the file after it is loaded are added to the drawn
+	 * plots at most once every {@link CSVFileTailer#defaultInterval}
+	 * milliseconds. It must be enabled before load() is called, but it can be
+	 * disabled at any time.
+	 * 
+	 * @param enabled
+	 *            True if the file should be watched, false otherwise
+	 */
+	public void setLiveRefresh(boolean enabled) {
+		liveRefresh = enabled;
+		if (tailer != null) {
+			if (enabled && !drawnPlots.isEmpty()) {
+				tailer.start();
+			} else if (!enabled) {
+				tailer.stop();
+			}
+		}
+		return;
+	}
+
+	/**
+	 * Returns true if live refresh is enabled.
+	 * 
+	 * @return True if it is, false otherwise
+	 */
+	public boolean isLiveRefresh() {
+		return liveRefresh;
+	}
+
 	/**
 	 * Attempts to load the specified file. This should populate the
 	 * {@link #baseProvider} as well as the map of {@link #types} or plot
@@ -134,10 +183,16 @@ public class CSVPlot implements IPlot {
 	 */
 	private void load(File file) {
 
-		// Load the file using the CSV utilities.
-		CSVDataLoader dataLoader = new CSVDataLoader();
+		// Load the file using the CSV utilities. If it will be watched, the
+		// tailer loads it.
 		try {
-			baseProvider = dataLoader.load(file);
+			if (liveRefresh) {
+				tailer = new CSVFileTailer(file, CSVFileTailer.defaultInterval);
+				baseProvider = tailer.getDataProvider();
+			} else {
+				CSVDataLoader dataLoader = new CSVDataLoader();
+				baseProvider = dataLoader.load(file);
+			}
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
@@ -285,8 +340,17 @@ public class CSVPlot implements IPlot {
 					@Override
 					public void widgetDisposed(DisposeEvent e) {
 						drawnPlots.remove((Composite) e.widget).dispose();
+						// Stop watching the file if nothing is drawn
+						if (tailer != null && drawnPlots.isEmpty()) {
+							tailer.stop();
+						}
 					}
 				});
+
+				// Watch the file while it is drawn
+				if (tailer != null && liveRefresh) {
+					tailer.start();
+				}
 			}
 
 			// Reset the plot time to the initial time.
@@ -323,7 +387,7 @@ public class CSVPlot implements IPlot {
 	 * @author Jordan Deyton
 	 *
 	 */
-	private class DrawnPlot {
+	private class DrawnPlot implements ICSVTailListener {
 		// TODO Change CSVPlot to extend MultiPlot and create a PlotRender based
 		// off this nested class.
 
@@ -357,6 +421,18 @@ public class CSVPlot implements IPlot {
 		 */
 		private final Map<SeriesProvider, ActionTree> seriesMap = new HashMap<SeriesProvider, ActionTree>();
 
+		/**
+		 * True if new data from the tailer is waiting to be added to the
+		 * editor on the UI thread. It is used to queue at most one update.
+		 */
+		private final AtomicBoolean appendPending = new AtomicBoolean(false);
+
+		/**
+		 * The display of the editor, which is used to update it from the
+		 * thread of the tailer.
+		 */
+		private final Display display;
+
 		/**
 		 * Creates a {@link CSVPlotEditor} and all providers necessary to
 		 * populate it. The editor is created inside the specified parent
@@ -371,6 +447,7 @@ public class CSVPlot implements IPlot {
 			editor = new CSVPlotEditor();
 			dataProvider = baseProvider;
 			plotProvider = new PlotProvider();
+			display = parent.getDisplay();
 
 			// Set the plot title based on the file name.
 			int lastSeparator = dataProvider.getSourceInfo().lastIndexOf("/");
@@ -456,6 +533,36 @@ public class CSVPlot implements IPlot {
 			// have its own menu set later.
 			editor.getPlotCanvas().setMenu(menu);
 
+			// Listen for lines appended to the file
+			if (tailer != null) {
+				tailer.addListener(this);
+			}
+
+			return;
+		}
+
+		/**
+		 * Adds the appended values to the editor on the UI thread. Updates
+		 * that arrive while one is queued are handled by the queued one.
+		 * 
+		 * @see org.eclipse.ice.viz.service.csv.ICSVTailListener#dataAppended(org.eclipse.ice.viz.service.csv.CSVDataProvider,
+		 *      int, int)
+		 */
+		@Override
+		public void dataAppended(CSVDataProvider provider, int firstIndex,
+				int count) {
+			if (!display.isDisposed()
+					&& appendPending.compareAndSet(false, true)) {
+				display.asyncExec(new Runnable() {
+					@Override
+					public void run() {
+						appendPending.set(false);
+						if (!editor.getPlotCanvas().isDisposed()) {
+							editor.appendData();
+						}
+					}
+				});
+			}
 			return;
 		}
 
@@ -550,7 +657,10 @@ public class CSVPlot implements IPlot {
 		 * Disposes of the drawn plot and all related resources.
 		 */
 		public void dispose() {
-			// Nothing to do yet.
+			// Stop listening for lines appended to the file
+			if (tailer != null) {
+				tailer.removeListener(this);
+			}
 		}
 	}
 
@@ -13,7 +13,9 @@
 package org.eclipse.ice.viz.service.csv;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.draw2d.LightweightSystem;
@@ -21,12 +23,17 @@ import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap;
 import org.eclipse.nebula.visualization.widgets.datadefinition.ColorMap.PredefinedColorMap;
 import org.eclipse.nebula.visualization.widgets.figures.IntensityGraphFigure;
 import org.eclipse.nebula.visualization.xygraph.dataprovider.CircularBufferDataProvider;
+import org.eclipse.nebula.visualization.xygraph.figures.Axis;
+import org.eclipse.nebula.visualization.xygraph.figures.IAxisListener;
 import org.eclipse.nebula.visualization.xygraph.figures.ToolbarArmedXYGraph;
 import org.eclipse.nebula.visualization.xygraph.figures.Trace;
 import org.eclipse.nebula.visualization.xygraph.figures.Trace.PointStyle;
 import org.eclipse.nebula.visualization.xygraph.figures.Trace.TraceType;
 import org.eclipse.nebula.visualization.xygraph.figures.XYGraph;
+import org.eclipse.nebula.visualization.xygraph.linearscale.Range;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ControlAdapter;
+import org.eclipse.swt.events.ControlEvent;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.layout.GridData;
@@ -47,6 +54,11 @@ import org.eclipse.ui.part.EditorPart;
  * files. It is opened by the associated visualization views in
  * org.eclipse.ice.viz.
  * 
+ * Each series is reduced by a SeriesPyramid to the points that can be seen at
+ * the width of the plot, so the cost of drawing it does not depend on its
+ * length. The points are selected again shortly after the visible range of
+ * the x axis or the size of the plot changes.
+ * 
  * @author Matthew Wang
  * @author Taylor Patterson
  * @author Anna Wojtowicz
@@ -79,6 +91,35 @@ public class CSVPlotEditor extends EditorPart {
 	 */
 	private LightweightSystem lws;
 
+	/**
+	 * The series drawn in the current XY graph and the trace data of each. It
+	 * is used to add new values to the traces in {@link #appendData()}.
+	 */
+	private final Map<SeriesProvider, TraceData> traces = new LinkedHashMap<SeriesProvider, TraceData>();
+
+	/**
+	 * The current XY graph or null if there is none.
+	 */
+	private XYGraph xyGraph;
+
+	/**
+	 * The width in pixels used to select the points of the series if the plot
+	 * does not have a size yet.
+	 */
+	private static final int defaultPlotWidth = 1000;
+
+	/**
+	 * The time in milliseconds to wait after the visible range changes before
+	 * selecting the points again. Changes in that time, like those made while
+	 * panning, are handled together.
+	 */
+	private static final int selectionDelay = 100;
+
+	/**
+	 * True if the points will be selected again after the delay.
+	 */
+	private boolean selectionPending = false;
+
 	/**
 	 * The constructor
 	 */
@@ -153,6 +194,14 @@ public class CSVPlotEditor extends EditorPart {
 		// MAGIC
 		lws = new LightweightSystem(plotCanvas);
 
+		// Select the points again when the width of the plot changes
+		plotCanvas.addControlListener(new ControlAdapter() {
+			@Override
+			public void controlResized(ControlEvent e) {
+				scheduleSelection();
+			}
+		});
+
 		return;
 	}
 
@@ -281,8 +330,12 @@ public class CSVPlotEditor extends EditorPart {
 	 */
 	private void showXYGraph(PlotProvider plotProvider, double time) {
 
+		// Forget the traces of the previous graph
+		traces.clear();
+
 		// Creates a new XYGraph
-		XYGraph newXYGraph = new XYGraph();
+		final XYGraph newXYGraph = new XYGraph();
+		xyGraph = newXYGraph;
 		// A new ToolbarArmedXYGraph to hold the new XYGraph
 		ToolbarArmedXYGraph newToolbarArmedXYGraph = new ToolbarArmedXYGraph(
 				newXYGraph);
@@ -304,11 +357,22 @@ public class CSVPlotEditor extends EditorPart {
 
 			CircularBufferDataProvider traceDataProvider = new CircularBufferDataProvider(
 					false);
-			// Sets the size of the buffer
-			traceDataProvider.setBufferSize(series.getXData().length);
+			// Get the data. The provider is locked so that the x and y data
+			// have the same length if it is being appended to.
+			double[] xData, yData;
+			synchronized (series.getDataProvider()) {
+				xData = series.getXData();
+				yData = series.getYData();
+			}
+			// Build the pyramid that selects the points to be plotted
+			TraceData traceData = new TraceData(traceDataProvider);
+			traceData.pyramid.append(xData, yData);
+			traces.put(series, traceData);
 			// Set the data to be plotted
-			traceDataProvider.setCurrentXDataArray(series.getXData());
-			traceDataProvider.setCurrentYDataArray(series.getYData());
+			traceDataProvider.setConcatenate_data(false);
+			setPoints(traceData, traceData.pyramid.select(
+					Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+					getPlotWidth()));
 
 			// Creates a new trace with the name, axis,and provider to plot
 			Trace trace = new Trace(series.getSeriesTitle(),
@@ -332,6 +396,157 @@ public class CSVPlotEditor extends EditorPart {
 		// Auto-scale the image
 		newXYGraph.performAutoScale();
 
+		// Select the points for the visible range when it changes
+		newXYGraph.primaryXAxis.addListener(new IAxisListener() {
+			@Override
+			public void axisRevalidated(Axis axis) {
+				// Nothing to do
+			}
+
+			@Override
+			public void axisRangeChanged(Axis axis, Range old_range,
+					Range new_range) {
+				if (xyGraph == newXYGraph) {
+					scheduleSelection();
+				}
+			}
+		});
+
+		return;
+	}
+
+	/**
+	 * Returns the width of the plot in pixels, which limits the number of
+	 * points drawn for each series.
+	 * 
+	 * @return The width
+	 */
+	private int getPlotWidth() {
+		int width = plotCanvas.getClientArea().width;
+		return (width > 0) ? width : defaultPlotWidth;
+	}
+
+	/**
+	 * Replaces the points of a trace. The buffer of the trace is grown if it
+	 * can not hold them.
+	 * 
+	 * @param trace
+	 *            The trace
+	 * @param points
+	 *            The x values of the points in the first array and the y
+	 *            values in the second
+	 */
+	private void setPoints(TraceData trace, double[][] points) {
+		int count = points[0].length;
+		if (count > trace.bufferSize) {
+			trace.bufferSize = Math.max(count, 2 * trace.bufferSize);
+			trace.provider.setBufferSize(trace.bufferSize);
+		}
+		trace.provider.setCurrentXDataArray(points[0]);
+		trace.provider.setCurrentYDataArray(points[1]);
+	}
+
+	/**
+	 * Selects the points of each series again for the visible range of the x
+	 * axis after a short delay. It does nothing if a selection is already
+	 * waiting.
+	 */
+	private void scheduleSelection() {
+		if (!selectionPending && !plotCanvas.isDisposed()) {
+			selectionPending = true;
+			plotCanvas.getDisplay().timerExec(selectionDelay, new Runnable() {
+				@Override
+				public void run() {
+					selectionPending = false;
+					if (!plotCanvas.isDisposed() && xyGraph != null) {
+						showVisiblePoints();
+					}
+				}
+			});
+		}
+		return;
+	}
+
+	/**
+	 * Selects the points of each series for the visible range of the x axis
+	 * and the width of the plot. Auto-scaling is turned off while the points
+	 * are replaced so that the axes keep the range that was zoomed to.
+	 */
+	private void showVisiblePoints() {
+
+		// Local Declarations
+		Range range = xyGraph.primaryXAxis.getRange();
+		double lower = Math.min(range.getLower(), range.getUpper());
+		double upper = Math.max(range.getLower(), range.getUpper());
+		boolean xAutoScale = xyGraph.primaryXAxis.isAutoScale();
+		boolean yAutoScale = xyGraph.primaryYAxis.isAutoScale();
+		int width = getPlotWidth();
+
+		// Replace the points
+		xyGraph.primaryXAxis.setAutoScale(false);
+		xyGraph.primaryYAxis.setAutoScale(false);
+		for (TraceData trace : traces.values()) {
+			setPoints(trace, trace.pyramid.select(lower, upper, width));
+		}
+		xyGraph.primaryXAxis.setAutoScale(xAutoScale);
+		xyGraph.primaryYAxis.setAutoScale(yAutoScale);
+
+		return;
+	}
+
+	/**
+	 * This operation adds the values that were appended to the series of the
+	 * current XY graph since they were drawn, for example by a CSVFileTailer.
+	 * Only the new points are added to the pyramids of the series before the
+	 * points to draw are selected again. A series that became shorter, which
+	 * happens when its file is rewritten, is replaced instead. It must be
+	 * called on the UI thread.
+	 */
+	public void appendData() {
+
+		// Local Declarations
+		boolean changed = false;
+
+		for (Map.Entry<SeriesProvider, TraceData> entry : traces.entrySet()) {
+			SeriesProvider series = entry.getKey();
+			SeriesPyramid pyramid = entry.getValue().pyramid;
+			double[] xData, yData;
+			int start;
+
+			// Get the new values
+			synchronized (series.getDataProvider()) {
+				int size = series.getNumberOfPoints();
+				if (size == pyramid.size()) {
+					continue;
+				}
+				start = (size > pyramid.size()) ? pyramid.size() : 0;
+				xData = series.getXData(start);
+				yData = series.getYData(start);
+			}
+
+			// Add them to the pyramid
+			if (start == 0) {
+				pyramid.clear();
+			}
+			pyramid.append(xData, yData);
+			changed = true;
+		}
+
+		// Draw the new points. If the x axis is auto-scaled, all of the points
+		// are selected so that its range grows to include the new ones.
+		if (changed) {
+			if (xyGraph.primaryXAxis.isAutoScale()) {
+				int width = getPlotWidth();
+				for (TraceData trace : traces.values()) {
+					setPoints(trace, trace.pyramid.select(
+							Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+							width));
+				}
+			} else {
+				showVisiblePoints();
+			}
+		}
+
 		return;
 	}
 
@@ -468,4 +683,36 @@ public class CSVPlotEditor extends EditorPart {
 	public Canvas getPlotCanvas() {
 		return plotCanvas;
 	}
+
+	/**
+	 * The data of a drawn trace. The pyramid holds all of the points of the
+	 * series and the provider only holds those selected from it.
+	 */
+	private static class TraceData {
+
+		/**
+		 * The provider of the trace.
+		 */
+		public final CircularBufferDataProvider provider;
+
+		/**
+		 * The pyramid of the points of the series.
+		 */
+		public final SeriesPyramid pyramid = new SeriesPyramid();
+
+		/**
+		 * The size of the buffer of the provider.
+		 */
+		public int bufferSize = 0;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param provider
+		 *            The provider of the trace
+		 */
+		public TraceData(CircularBufferDataProvider provider) {
+			this.provider = provider;
+		}
+	}
 }
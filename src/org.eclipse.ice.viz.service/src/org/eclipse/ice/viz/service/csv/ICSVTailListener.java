@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+/**
+ * This interface is implemented by clients of a CSVFileTailer that need to
+ * know when lines are appended to the CSV file that it watches.
+ * 
+ * @author agent
+ */
+public interface ICSVTailListener {
+
+	/**
+	 * This operation is called by the CSVFileTailer after it adds new values
+	 * to the end of each feature of its CSVDataProvider. It is called on the
+	 * thread of the tailer, so clients that update widgets must do so on the
+	 * UI thread.
+	 * <p>
+	 * If the file was rewritten, all of the old values were removed and the
+	 * first index is zero. Clients that keep a copy of the values should then
+	 * discard it.
+	 * </p>
+	 * 
+	 * @param provider
+	 *            The provider to which the values were added
+	 * @param firstIndex
+	 *            The index of the first new value of each feature
+	 * @param count
+	 *            The number of new values of each feature
+	 */
+	public void dataAppended(CSVDataProvider provider, int firstIndex,
+			int count);
+
+}
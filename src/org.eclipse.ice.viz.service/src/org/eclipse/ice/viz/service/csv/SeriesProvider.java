@@ -171,10 +171,14 @@ public class SeriesProvider {
 	 * @return
 	 */
 	public double[] getXData() {
-		// Set the time for the dataProvider
-		dataProviderForSeries.setTime(timeForDataProvider);
-		// Return the data
-		return dataProviderForSeries.getPositionAtCurrentTime(xDataFeature);
+		// The provider is locked while a CSVFileTailer appends to it
+		synchronized (dataProviderForSeries) {
+			// Set the time for the dataProvider
+			dataProviderForSeries.setTime(timeForDataProvider);
+			// Return the data
+			return dataProviderForSeries
+					.getPositionAtCurrentTime(xDataFeature);
+		}
 	}
 
 	/**
@@ -183,10 +187,61 @@ public class SeriesProvider {
 	 * @return
 	 */
 	public double[] getYData() {
-		// Set the time for the dataProvider
-		dataProviderForSeries.setTime(timeForDataProvider);
-		// return the data
-		return this.dataProviderForSeries.getValuesAtCurrentTime(yDataFeature);
+		synchronized (dataProviderForSeries) {
+			// Set the time for the dataProvider
+			dataProviderForSeries.setTime(timeForDataProvider);
+			// return the data
+			return this.dataProviderForSeries
+					.getValuesAtCurrentTime(yDataFeature);
+		}
+	}
+
+	/**
+	 * Accessor for the xData from the start index to the end of the series.
+	 * Only the requested values are copied, so it is used to read the values
+	 * that were appended to the series.
+	 * 
+	 * @param start
+	 *            The index of the first value
+	 * @return The values, which may be empty, or null if there are none
+	 */
+	public double[] getXData(int start) {
+		synchronized (dataProviderForSeries) {
+			dataProviderForSeries.setTime(timeForDataProvider);
+			return dataProviderForSeries.getValuesAtCurrentTime(xDataFeature,
+					start);
+		}
+	}
+
+	/**
+	 * Accessor for the yData from the start index to the end of the series.
+	 * 
+	 * @param start
+	 *            The index of the first value
+	 * @return The values, which may be empty, or null if there are none
+	 */
+	public double[] getYData(int start) {
+		synchronized (dataProviderForSeries) {
+			dataProviderForSeries.setTime(timeForDataProvider);
+			return dataProviderForSeries.getValuesAtCurrentTime(yDataFeature,
+					start);
+		}
+	}
+
+	/**
+	 * Accessor for the number of points in the series, which is the smaller
+	 * of the number of x and y values.
+	 * 
+	 * @return The number of points
+	 */
+	public int getNumberOfPoints() {
+		synchronized (dataProviderForSeries) {
+			dataProviderForSeries.setTime(timeForDataProvider);
+			return Math.min(dataProviderForSeries
+					.getNumberOfValuesAtCurrentTime(xDataFeature),
+					dataProviderForSeries
+							.getNumberOfValuesAtCurrentTime(yDataFeature));
+		}
 	}
 
 	/**
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * SeriesPyramid reduces a series of points to the few that can be seen at the
+ * resolution of a plot. It keeps a copy of the points and a multi-resolution
+ * pyramid of min/max buckets. Level k of the pyramid divides the points into
+ * buckets of 2^k consecutive points and stores the index of the point with
+ * the smallest and the largest y value in each bucket. Each level is built
+ * from the one below it, so the pyramid takes about as much memory as the
+ * indices of the points and can be extended as points are appended.
+ * </p>
+ * <p>
+ * select() returns the points in a range of x values for a plot that is a
+ * given number of pixels wide. It picks the level with at most one bucket per
+ * pixel and returns the minimum and maximum of each bucket, so peaks are never
+ * lost, and the number of points it returns depends only on the width of the
+ * plot and not on the length of the series. If there are fewer points in the
+ * range than two per pixel, they are returned unchanged.
+ * </p>
+ * <p>
+ * The x values are usually increasing, like times, and the range is found by
+ * a binary search. If they are not, the whole series is reduced instead.
+ * </p>
+ * 
+ * @author agent
+ */
+public class SeriesPyramid {
+
+	/**
+	 * The initial capacity of the arrays.
+	 */
+	private static final int initialCapacity = 16;
+
+	/**
+	 * The number of levels that can be stored. Level 0 is the points.
+	 */
+	private static final int maxLevels = 31;
+
+	/**
+	 * The x values of the points.
+	 */
+	private double[] x;
+
+	/**
+	 * The y values of the points.
+	 */
+	private double[] y;
+
+	/**
+	 * The number of points.
+	 */
+	private int size;
+
+	/**
+	 * True if the x values never decrease.
+	 */
+	private boolean sorted;
+
+	/**
+	 * The index of the point with the smallest y value in each bucket of each
+	 * level. The entry for level 0 is not used.
+	 */
+	private final int[][] minIndices;
+
+	/**
+	 * The index of the point with the largest y value in each bucket of each
+	 * level.
+	 */
+	private final int[][] maxIndices;
+
+	/**
+	 * The number of complete buckets in each level.
+	 */
+	private final int[] numBuckets;
+
+	/**
+	 * The constructor.
+	 */
+	public SeriesPyramid() {
+		minIndices = new int[maxLevels][];
+		maxIndices = new int[maxLevels][];
+		numBuckets = new int[maxLevels];
+		clear();
+	}
+
+	/**
+	 * Removes all of the points.
+	 */
+	public void clear() {
+		x = new double[initialCapacity];
+		y = new double[initialCapacity];
+		size = 0;
+		sorted = true;
+		for (int level = 1; level < maxLevels; level++) {
+			minIndices[level] = new int[initialCapacity];
+			maxIndices[level] = new int[initialCapacity];
+			numBuckets[level] = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of points.
+	 * 
+	 * @return The size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Appends points to the series and adds the buckets that they complete to
+	 * the pyramid. The cost is proportional to the number of new points.
+	 * 
+	 * @param xValues
+	 *            The x values of the new points
+	 * @param yValues
+	 *            The y values of the new points. Only as many points as
+	 *            there are x and y values are added.
+	 */
+	public void append(double[] xValues, double[] yValues) {
+
+		// Local Declarations
+		int count = Math.min(xValues.length, yValues.length);
+
+		// Copy the points
+		if (size + count > x.length) {
+			int capacity = Math.max(size + count, 2 * x.length);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+		}
+		System.arraycopy(xValues, 0, x, size, count);
+		System.arraycopy(yValues, 0, y, size, count);
+		for (int i = Math.max(1, size); i < size + count; i++) {
+			if (x[i] < x[i - 1]) {
+				sorted = false;
+			}
+		}
+		size += count;
+
+		// Add the complete buckets to each level. The buckets of a level are
+		// made from pairs of buckets of the level below it.
+		for (int level = 1; level < maxLevels && (size >> level) > 0; level++) {
+			int total = size >> level;
+			int[] mins = minIndices[level];
+			int[] maxes = maxIndices[level];
+			if (total > mins.length) {
+				int capacity = Math.max(total, 2 * mins.length);
+				mins = minIndices[level] = Arrays.copyOf(mins, capacity);
+				maxes = maxIndices[level] = Arrays.copyOf(maxes, capacity);
+			}
+			for (int bucket = numBuckets[level]; bucket < total; bucket++) {
+				int first = 2 * bucket, second = first + 1;
+				int firstMin, firstMax, secondMin, secondMax;
+				if (level == 1) {
+					firstMin = firstMax = first;
+					secondMin = secondMax = second;
+				} else {
+					firstMin = minIndices[level - 1][first];
+					firstMax = maxIndices[level - 1][first];
+					secondMin = minIndices[level - 1][second];
+					secondMax = maxIndices[level - 1][second];
+				}
+				mins[bucket] = (y[secondMin] < y[firstMin]) ? secondMin
+						: firstMin;
+				maxes[bucket] = (y[secondMax] > y[firstMax]) ? secondMax
+						: firstMax;
+			}
+			numBuckets[level] = total;
+		}
+
+		return;
+	}
+
+	/**
+	 * Returns the points to draw for a range of x values in a plot with the
+	 * given width. The points before and after the range are included so that
+	 * lines can be drawn to the edges of the plot.
+	 * 
+	 * @param lower
+	 *            The smallest visible x value
+	 * @param upper
+	 *            The largest visible x value
+	 * @param width
+	 *            The width of the plot in pixels
+	 * @return The x values of the points in the first array and the y values
+	 *         in the second, in the order of the series
+	 */
+	public double[][] select(double lower, double upper, int width) {
+
+		// Local Declarations
+		int start = 0, end = size;
+		int level = 0;
+		width = Math.max(1, width);
+
+		// Find the points in the range, plus one on each side
+		if (sorted) {
+			start = Math.max(0, lowerBound(lower) - 1);
+			end = Math.min(size, upperBound(upper) + 1);
+			end = Math.max(start, end);
+		}
+
+		// Pick the first level with at most one bucket per pixel
+		while ((long) (end - start) > ((long) width << level)
+				&& level < maxLevels - 1) {
+			level++;
+		}
+
+		// Cover the range with the largest buckets that fit, up to the level,
+		// and keep the minimum and maximum of each in the order of the series.
+		// A bucket that starts before the range is not used, so smaller ones
+		// are used until the start is aligned. The first and last points are
+		// always kept so that the lines reach the edges of the plot.
+		double[] xPoints = new double[2 * (end - start >> level) + 4
+				* level + 6];
+		double[] yPoints = new double[xPoints.length];
+		int count = 0;
+		int last = end - 1;
+		if (start < end) {
+			xPoints[count] = x[start];
+			yPoints[count++] = y[start];
+		}
+		int i = start;
+		while (i < end) {
+			// Buckets that end within the range are always complete
+			int k = level;
+			while (k > 0
+					&& ((i & ((1 << k) - 1)) != 0 || i + (1 << k) > end)) {
+				k--;
+			}
+			if (k == 0) {
+				if (i != start && i != last) {
+					xPoints[count] = x[i];
+					yPoints[count++] = y[i];
+				}
+			} else {
+				int min = minIndices[k][i >> k], max = maxIndices[k][i >> k];
+				int first = Math.min(min, max), second = Math.max(min, max);
+				if (first != start && first != last) {
+					xPoints[count] = x[first];
+					yPoints[count++] = y[first];
+				}
+				if (second != first && second != start && second != last) {
+					xPoints[count] = x[second];
+					yPoints[count++] = y[second];
+				}
+			}
+			i += 1 << k;
+		}
+		if (last > start) {
+			xPoints[count] = x[last];
+			yPoints[count++] = y[last];
+		}
+
+		return new double[][] { Arrays.copyOf(xPoints, count),
+				Arrays.copyOf(yPoints, count) };
+	}
+
+	/**
+	 * Returns the index of the first point with an x value that is greater
+	 * than or equal to the value. The points must be sorted.
+	 * 
+	 * @param value
+	 *            The value
+	 * @return The index or the size if there is none
+	 */
+	private int lowerBound(double value) {
+		int low = 0, high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (x[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the index of the first point with an x value that is greater
+	 * than the value. The points must be sorted.
+	 * 
+	 * @param value
+	 *            The value
+	 * @return The index or the size if there is none
+	 */
+	private int upperBound(double value) {
+		int low = 0, high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (x[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+}
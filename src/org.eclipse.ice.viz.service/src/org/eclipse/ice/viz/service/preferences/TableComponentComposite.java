@@ -148,9 +148,11 @@ public class TableComponentComposite extends Composite {
 	 * @return The created JFace {@code TableViewer}.
 	 */
 	private TableViewer createTableViewer(Composite parent) {
-		// Create the TableViewer and the underlying Table Control.
+		// Create the TableViewer and the underlying Table Control. The table is
+		// virtual so that only the visible rows are created.
 		TableViewer viewer = new TableViewer(this, SWT.BORDER | SWT.MULTI
-				| SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL);
+				| SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL
+				| SWT.VIRTUAL);
 		// Set some properties for the table.
 		final Table table = viewer.getTable();
 		table.setHeaderVisible(true);
@@ -21,7 +21,7 @@ import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.TableComponent;
 import org.eclipse.jface.viewers.EditingSupport;
-import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
 import org.eclipse.jface.viewers.Viewer;
@@ -30,16 +30,21 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.TableColumn;
 
 /**
- * This class provides a basic JFace {@link IStructuredContentProvider} for ICE
+ * This class provides a basic JFace {@link ILazyContentProvider} for ICE
  * {@link TableComponent}s. It automatically registers for updates from the
  * input {@code TableComponent} and refreshes the associated JFace
  * {@link Viewer} when the {@code TableComponent} changes.
+ * <p>
+ * The {@code TableViewer} must be created with the {@code SWT.VIRTUAL} style.
+ * Rows are only retrieved from the {@code TableComponent} when they are shown,
+ * so the Entries of rows that are never shown are never created.
+ * </p>
  * 
  * @author Jordan Deyton
  *
  */
-public class TableComponentContentProvider implements
-		IStructuredContentProvider, IUpdateableListener {
+public class TableComponentContentProvider implements ILazyContentProvider,
+		IUpdateableListener {
 
 	/**
 	 * The data model for the {@link #viewer}.
@@ -114,33 +119,19 @@ public class TableComponentContentProvider implements
 	}
 
 	/**
-	 * For the root element (the {@link #tableComponent}), this method returns
-	 * the rows in the table. For each row, the {@link Entry} instances in the
-	 * row are returned.
-	 * <p>
-	 * All other input elements are ignored.
-	 * </p>
+	 * Replaces the row at the index in the {@link #viewer} with the
+	 * {@link Entry} instances in that row of the {@link #tableComponent}.
 	 */
 	@Override
-	public Object[] getElements(Object inputElement) {
-
-		Object[] elements;
+	public void updateElement(int index) {
 
-		// Handle the TableComponent.
-		if (inputElement == tableComponent) {
-			List<Integer> ids = tableComponent.getRowIds();
-			int size = ids.size();
-			elements = new Object[size];
-			for (int i = 0; i < size; i++) {
-				elements[i] = tableComponent.getRow(i);
-			}
-		}
-		// Return an empty array for anything else.
-		else {
-			elements = new Object[] {};
+		// Get the row from the TableComponent if it still exists.
+		List<Entry> row = tableComponent.getRow(index);
+		if (row != null) {
+			viewer.replace(row, index);
 		}
 
-		return elements;
+		return;
 	}
 
 	/**
@@ -226,7 +217,9 @@ public class TableComponentContentProvider implements
 			}
 		}
 
-		// Refresh the viewer contents.
+		// Refresh the viewer contents. The viewer only asks for the rows that
+		// are visible.
+		viewer.setItemCount(tableComponent.numberOfRows());
 		viewer.refresh();
 
 		return;
@@ -17,6 +17,7 @@ import org.eclipse.ice.core.iCore.IPersistenceProvider;
 import java.util.ArrayList;
 
 import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemHeader;
 
 /**
  * 
@@ -192,6 +193,16 @@ public class FakePersistenceProvider implements IPersistenceProvider {
 		return items;
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see IPersistenceProvider#loadItemHeaders()
+	 */
+	public ArrayList<ItemHeader> loadItemHeaders() {
+		// Headers are not supported, so the Items are loaded in bulk.
+		return null;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
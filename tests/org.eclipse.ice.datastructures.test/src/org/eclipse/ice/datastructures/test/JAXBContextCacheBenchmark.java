@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEJAXBHandler;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark for the JAXBContextCache. It builds a
+ * Form that holds a MOOSE-style TreeComposite with 5,000 Entries and measures
+ * the latency of an XML round trip (write then read) the way ICE did before
+ * the cache, with a new JAXBContext and (un)marshaller per call, and through
+ * the ICEJAXBHandler, which now uses the cache.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line.
+ * </p>
+ *
+ * @author agent
+ */
+public class JAXBContextCacheBenchmark {
+
+	/**
+	 * The number of Entries in the tree.
+	 */
+	private static final int numEntries = 5000;
+
+	/**
+	 * The number of Entries in each block of the tree.
+	 */
+	private static final int entriesPerBlock = 10;
+
+	/**
+	 * The number of round trips timed for each mode.
+	 */
+	private static final int numIterations = 20;
+
+	/**
+	 * This operation runs the benchmark.
+	 *
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) throws Exception {
+
+		// Local Declarations
+		Form form = createForm();
+		ArrayList<Class> classList = new ArrayList<Class>(
+				new ICEJAXBClassProvider().getClasses());
+		ICEJAXBHandler handler = new ICEJAXBHandler();
+		long start, uncachedTime = 0, cachedTime = 0;
+		int size = 0;
+
+		// Warm up both paths
+		for (int i = 0; i < 3; i++) {
+			roundTripUncached(form, classList);
+			roundTripCached(form, classList, handler);
+		}
+
+		// Time them
+		for (int i = 0; i < numIterations; i++) {
+			start = System.nanoTime();
+			roundTripUncached(form, classList);
+			uncachedTime += System.nanoTime() - start;
+			start = System.nanoTime();
+			size = roundTripCached(form, classList, handler);
+			cachedTime += System.nanoTime() - start;
+		}
+
+		// Report the results
+		System.out.println("JAXBContextCacheBenchmark: Form with "
+				+ numEntries + " Entries, " + size + " bytes of XML");
+		System.out.println("\tUncached round trip (ms): "
+				+ uncachedTime / 1.0e6 / numIterations);
+		System.out.println("\tCached round trip (ms): " + cachedTime / 1.0e6
+				/ numIterations);
+
+		return;
+	}
+
+	/**
+	 * This operation creates a Form with a tree of blocks that each hold a
+	 * DataComponent with several Entries, like a MOOSE input tree.
+	 *
+	 * @return The Form
+	 */
+	private static Form createForm() {
+
+		// Local Declarations
+		Form form = new Form();
+		TreeComposite root = new TreeComposite();
+		root.setName("Input");
+		root.setId(1);
+
+		// Create the blocks
+		for (int i = 0; i < numEntries / entriesPerBlock; i++) {
+			TreeComposite block = new TreeComposite();
+			block.setName("Block" + i);
+			block.setId(i + 2);
+			DataComponent parameters = new DataComponent();
+			parameters.setName("Parameters");
+			for (int j = 0; j < entriesPerBlock; j++) {
+				Entry entry = new Entry();
+				entry.setName("parameter" + j);
+				entry.setId(j);
+				entry.setValue(String.valueOf(i * entriesPerBlock + j));
+				parameters.addEntry(entry);
+			}
+			block.addComponent(parameters);
+			root.setNextChild(block);
+		}
+		form.addComponent(root);
+
+		return form;
+	}
+
+	/**
+	 * This operation writes and reads the Form with a new JAXBContext and new
+	 * (un)marshallers, which is what ICE did before the cache existed.
+	 *
+	 * @param form
+	 *            The Form
+	 * @param classList
+	 *            The JAXB classes
+	 * @return The size of the XML in bytes
+	 */
+	private static int roundTripUncached(Form form, ArrayList<Class> classList)
+			throws Exception {
+
+		// Write it
+		ArrayList<Class> classes = new ArrayList<Class>(classList);
+		classes.add(Form.class);
+		JAXBContext context = JAXBContext.newInstance(classes
+				.toArray(new Class[classes.size()]));
+		Marshaller marshaller = context.createMarshaller();
+		marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		marshaller.marshal(form, outputStream);
+
+		// Read it
+		context = JAXBContext.newInstance(classes.toArray(new Class[classes
+				.size()]));
+		Unmarshaller unmarshaller = context.createUnmarshaller();
+		unmarshaller.unmarshal(new ByteArrayInputStream(outputStream
+				.toByteArray()));
+
+		return outputStream.size();
+	}
+
+	/**
+	 * This operation writes and reads the Form with the ICEJAXBHandler.
+	 *
+	 * @param form
+	 *            The Form
+	 * @param classList
+	 *            The JAXB classes
+	 * @param handler
+	 *            The handler
+	 * @return The size of the XML in bytes
+	 */
+	private static int roundTripCached(Form form, ArrayList<Class> classList,
+			ICEJAXBHandler handler) throws Exception {
+
+		// The handler adds the Form's class to the list, so give it a copy
+		ArrayList<Class> classes = new ArrayList<Class>(classList);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		handler.write(form, classes, outputStream);
+		handler.read(classes, new ByteArrayInputStream(outputStream
+				.toByteArray()));
+
+		return outputStream.size();
+	}
+}
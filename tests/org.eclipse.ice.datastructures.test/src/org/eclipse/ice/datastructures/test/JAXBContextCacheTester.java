@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.JAXBContextCache;
+import org.junit.Test;
+
+/**
+ * <p>
+ * The JAXBContextCacheTester checks that the JAXBContextCache shares contexts
+ * between requests for the same set of classes and that its pooled
+ * (un)marshallers can round-trip an Object.
+ * </p>
+ *
+ * @author agent
+ */
+public class JAXBContextCacheTester {
+
+	/**
+	 * This operation checks that the same context is returned for the same
+	 * set of classes regardless of order or duplicates and that different
+	 * sets get different contexts.
+	 */
+	@Test
+	public void checkContextSharing() throws JAXBException {
+
+		// Local Declarations
+		ArrayList<Class> classList = new ArrayList<Class>();
+		classList.add(ICEObject.class);
+		classList.add(SimpleJAXBTestClass.class);
+		classList.add(ICEObject.class);
+
+		// Get the contexts
+		JAXBContext first = JAXBContextCache.getContext(ICEObject.class,
+				SimpleJAXBTestClass.class);
+		JAXBContext second = JAXBContextCache.getContext(
+				SimpleJAXBTestClass.class, ICEObject.class);
+		JAXBContext third = JAXBContextCache.getContext(classList);
+		JAXBContext other = JAXBContextCache.getContext(ICEObject.class);
+
+		// Check them
+		assertNotNull(first);
+		assertSame(first, second);
+		assertSame(first, third);
+		assertNotSame(first, other);
+
+		// Clearing the cache should create a new context
+		JAXBContextCache.clear();
+		assertNotSame(first, JAXBContextCache.getContext(ICEObject.class,
+				SimpleJAXBTestClass.class));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that an Object can be written and read back with
+	 * the pooled (un)marshallers several times in a row.
+	 */
+	@Test
+	public void checkRoundTrip() throws JAXBException {
+
+		// Local Declarations
+		JAXBContext context = JAXBContextCache.getContext(ICEObject.class);
+		ICEObject object = new ICEObject();
+		object.setId(20141018);
+		object.setName("Cached");
+		object.setDescription("Round trip through the cache");
+
+		// Write and read the object more than once to reuse the pools
+		for (int i = 0; i < 3; i++) {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			JAXBContextCache.marshal(context, object, outputStream);
+			ICEObject loadedObject = (ICEObject) JAXBContextCache.unmarshal(
+					context, new ByteArrayInputStream(outputStream
+							.toByteArray()));
+			assertEquals(object, loadedObject);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that clearing a class loader only removes the
+	 * contexts that were created with its classes.
+	 */
+	@Test
+	public void checkClearClassLoader() throws JAXBException {
+
+		// Local Declarations
+		JAXBContext context = JAXBContextCache.getContext(ICEObject.class);
+		ClassLoader otherLoader = new URLClassLoader(new URL[0]);
+
+		// Clearing a loader that did not load ICEObject should not remove it
+		JAXBContextCache.clear(otherLoader);
+		assertSame(context, JAXBContextCache.getContext(ICEObject.class));
+
+		// Clearing the loader of ICEObject should
+		JAXBContextCache.clear(ICEObject.class.getClassLoader());
+		assertNotSame(context, JAXBContextCache.getContext(ICEObject.class));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the cache rejects null class lists.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void checkNullClasses() throws JAXBException {
+		JAXBContextCache.getContext((ArrayList<Class>) null);
+	}
+}
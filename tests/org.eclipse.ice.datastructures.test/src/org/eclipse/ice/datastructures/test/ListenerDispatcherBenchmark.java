@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.ListenerDispatcher;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark for the ListenerDispatcher. It
+ * populates a TreeComposite with 10,000 children while a listener is
+ * registered and reports the number of threads that were started, the number
+ * of notifications that were posted, coalesced and delivered, and the time it
+ * took for the last notification to arrive. It is run once with every change
+ * notifying immediately and once inside of a beginUpdate()/endUpdate() batch.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line.
+ * </p>
+ *
+ * @author agent
+ */
+public class ListenerDispatcherBenchmark {
+
+	/**
+	 * The number of children added to the tree.
+	 */
+	private static final int numChildren = 10000;
+
+	/**
+	 * This operation runs the benchmark.
+	 *
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) throws InterruptedException {
+
+		// Warm up the JIT and the pool
+		run(false, false);
+		run(true, false);
+
+		// Do the measurements
+		run(false, true);
+		run(true, true);
+
+		return;
+	}
+
+	/**
+	 * This operation populates a tree and reports the results.
+	 *
+	 * @param batched
+	 *            True if the tree should be populated in one batch update
+	 * @param report
+	 *            True if the results should be printed
+	 */
+	private static void run(boolean batched, boolean report)
+			throws InterruptedException {
+
+		// Local Declarations
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		ListenerDispatcher dispatcher = ListenerDispatcher.getInstance();
+		final AtomicLong lastUpdate = new AtomicLong();
+		final AtomicLong updateCount = new AtomicLong();
+		TreeComposite root = new TreeComposite();
+
+		// Register a listener that records when it was last updated
+		root.register(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				updateCount.incrementAndGet();
+				lastUpdate.set(System.nanoTime());
+			}
+		});
+
+		// Record the state before the run
+		long startedThreads = threads.getTotalStartedThreadCount();
+		long posted = dispatcher.getPostedCount();
+		long coalesced = dispatcher.getCoalescedCount();
+		long delivered = dispatcher.getDeliveredCount();
+		long start = System.nanoTime();
+
+		// Populate the tree
+		if (batched) {
+			root.beginUpdate();
+		}
+		for (int i = 0; i < numChildren; i++) {
+			TreeComposite child = new TreeComposite();
+			child.setName("Child " + i);
+			child.setId(i);
+			root.setNextChild(child);
+			// Change the child after it has been added so that its own
+			// notifications reach the listener.
+			child.setDescription("Child number " + i);
+		}
+		if (batched) {
+			root.endUpdate();
+		}
+		long populated = System.nanoTime();
+
+		// Wait for all of the notifications to be delivered
+		while (dispatcher.isBusy()) {
+			Thread.sleep(1);
+		}
+
+		// Report the results
+		if (report) {
+			System.out.println("ListenerDispatcherBenchmark: "
+					+ (batched ? "batched" : "unbatched") + ", " + numChildren
+					+ " children");
+			System.out.println("\tThreads started: "
+					+ (threads.getTotalStartedThreadCount() - startedThreads)
+					+ " (pool size " + dispatcher.getPoolSize()
+					+ ", peak live " + threads.getPeakThreadCount() + ")");
+			System.out.println("\tNotifications posted: "
+					+ (dispatcher.getPostedCount() - posted) + ", coalesced: "
+					+ (dispatcher.getCoalescedCount() - coalesced)
+					+ ", delivered: "
+					+ (dispatcher.getDeliveredCount() - delivered)
+					+ ", seen by listener: " + updateCount.get());
+			System.out.println("\tPopulate time (ms): "
+					+ (populated - start) / 1.0e6);
+			System.out.println("\tLatency of last notification (ms): "
+					+ Math.max(0L, lastUpdate.get() - populated) / 1.0e6);
+		}
+
+		return;
+	}
+}
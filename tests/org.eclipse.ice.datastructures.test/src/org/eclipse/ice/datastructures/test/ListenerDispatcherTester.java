@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.ListenerDispatcher;
+import org.junit.Test;
+
+/**
+ * <p>
+ * The ListenerDispatcherTester checks that the ListenerDispatcher delivers
+ * updates to each listener in order, coalesces repeated updates from the same
+ * source and that ICEObject batch updates produce a single notification.
+ * </p>
+ *
+ * @author agent
+ */
+public class ListenerDispatcherTester {
+
+	/**
+	 * This operation checks that a listener receives updates from many sources
+	 * in the order in which they were posted.
+	 */
+	@Test
+	public void checkOrdering() throws InterruptedException {
+
+		// Local Declarations
+		int numSources = 500;
+		RecordingListener listener = new RecordingListener(numSources);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		ArrayList<ICEObject> sources = new ArrayList<ICEObject>();
+		listeners.add(listener);
+
+		// Post one update from each source
+		for (int i = 0; i < numSources; i++) {
+			ICEObject source = new ICEObject();
+			source.setId(i);
+			sources.add(source);
+			ListenerDispatcher.getInstance().dispatch(source, listeners);
+		}
+
+		// Wait for the updates and check the order
+		assertTrue(listener.await());
+		List<IUpdateable> received = listener.getReceived();
+		assertEquals(numSources, received.size());
+		for (int i = 0; i < numSources; i++) {
+			assertSame(sources.get(i), received.get(i));
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that repeated updates from the same source to a
+	 * listener that has not yet been notified are coalesced.
+	 */
+	@Test
+	public void checkCoalescing() throws InterruptedException {
+
+		// Local Declarations
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final ICEObject blocker = new ICEObject();
+		ICEObject source = new ICEObject();
+		RecordingListener listener = new RecordingListener(2) {
+			@Override
+			public void update(IUpdateable component) {
+				// Hold the dispatcher on the first update so that the others
+				// pile up behind it.
+				if (component == blocker) {
+					blocked.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+				}
+				super.update(component);
+			}
+		};
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(listener);
+
+		// Block the listener
+		ListenerDispatcher.getInstance().dispatch(blocker, listeners);
+		assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+		// Post the same source many times. They should collapse into one.
+		for (int i = 0; i < 100; i++) {
+			ListenerDispatcher.getInstance().dispatch(source, listeners);
+		}
+		release.countDown();
+
+		// Check that the listener only received two updates
+		assertTrue(listener.await());
+		Thread.sleep(200);
+		List<IUpdateable> received = listener.getReceived();
+		assertEquals(2, received.size());
+		assertSame(blocker, received.get(0));
+		assertSame(source, received.get(1));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the batch update operations on ICEObject
+	 * defer notifications until the outermost batch ends and then send only
+	 * one.
+	 */
+	@Test
+	public void checkBatchUpdates() throws InterruptedException {
+
+		// Local Declarations
+		RecordingListener listener = new RecordingListener(1);
+		ICEObject iceObject = new ICEObject();
+		iceObject.register(listener);
+
+		// Make several changes inside of nested batches
+		iceObject.beginUpdate();
+		iceObject.setName("Batch");
+		iceObject.beginUpdate();
+		iceObject.setId(12);
+		iceObject.endUpdate();
+		iceObject.setDescription("Batched description");
+
+		// Nothing should have been sent yet
+		Thread.sleep(200);
+		assertTrue(listener.getReceived().isEmpty());
+
+		// End the batch and make sure that exactly one update was sent
+		iceObject.endUpdate();
+		assertTrue(listener.await());
+		Thread.sleep(200);
+		assertEquals(1, listener.getReceived().size());
+		assertSame(iceObject, listener.getReceived().get(0));
+
+		// Ending a batch that was never started should not notify
+		listener.getReceived().clear();
+		iceObject.endUpdate();
+		Thread.sleep(200);
+		assertTrue(listener.getReceived().isEmpty());
+
+		return;
+	}
+
+	/**
+	 * This class records the sources that it has been updated by.
+	 */
+	private static class RecordingListener implements IUpdateableListener {
+
+		/**
+		 * The sources received, in order.
+		 */
+		private final List<IUpdateable> received = Collections
+				.synchronizedList(new ArrayList<IUpdateable>());
+
+		/**
+		 * The latch that is released after the expected number of updates.
+		 */
+		private final CountDownLatch latch;
+
+		/**
+		 * The constructor
+		 *
+		 * @param expected
+		 *            The number of updates that are expected.
+		 */
+		public RecordingListener(int expected) {
+			latch = new CountDownLatch(expected);
+		}
+
+		/**
+		 * This operation waits for the expected number of updates.
+		 *
+		 * @return True if all of the updates were received in time
+		 */
+		public boolean await() throws InterruptedException {
+			return latch.await(5, TimeUnit.SECONDS);
+		}
+
+		/**
+		 * This operation returns the list of received sources.
+		 *
+		 * @return The sources
+		 */
+		public List<IUpdateable> getReceived() {
+			return received;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see IUpdateableListener#update(IUpdateable component)
+		 */
+		@Override
+		public void update(IUpdateable component) {
+			received.add(component);
+			latch.countDown();
+		}
+	}
+}
@@ -2116,4 +2116,106 @@ public class MatrixComponentTester {
 		assertEquals(10.0, matrixComponent.getAllowedValues().get(3), 0.0);
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * An operation that checks setRow(), setColumn(), setAll() and getAll()
+	 * along with getColumn() and the checks of the allowed values.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkBulkOperations() {
+		// Local Declarations
+		ArrayList<Double> allowedValues = new ArrayList<Double>();
+		testComponentListener = new TestComponentListener();
+
+		// Create a 2x3 matrix
+		matrixComponent = new MatrixComponent();
+		matrixComponent.addRow();
+		matrixComponent.addColumn();
+		matrixComponent.addColumn();
+		matrixComponent.register(testComponentListener);
+		assertEquals(2, matrixComponent.numberOfRows());
+		assertEquals(3, matrixComponent.numberOfColumns());
+
+		// Set all of the values and check them
+		assertTrue(matrixComponent.setAll(new double[] { 1.0, 2.0, 3.0, 4.0,
+				5.0, 6.0 }));
+		assertTrue(testComponentListener.wasNotified());
+		assertEquals(2.0, matrixComponent.getElementValue(0, 1), 0.0);
+		assertEquals(4.0, matrixComponent.getElementValue(1, 0), 0.0);
+		assertEquals(6, matrixComponent.getAll().length);
+		assertEquals(6.0, matrixComponent.getAll()[5], 0.0);
+
+		// The columns are read down the rows
+		assertEquals(2, matrixComponent.getColumn(1).size());
+		assertEquals(2.0, matrixComponent.getColumn(1).get(0), 0.0);
+		assertEquals(5.0, matrixComponent.getColumn(1).get(1), 0.0);
+		assertEquals(3, matrixComponent.getRow(1).size());
+		assertEquals(6.0, matrixComponent.getRow(1).get(2), 0.0);
+
+		// Set a row and a column
+		testComponentListener.reset();
+		assertTrue(matrixComponent.setRow(1, new double[] { 7.0, 8.0, 9.0 }));
+		assertTrue(testComponentListener.wasNotified());
+		testComponentListener.reset();
+		assertTrue(matrixComponent.setColumn(2, new double[] { 10.0, 11.0 }));
+		assertTrue(testComponentListener.wasNotified());
+		assertEquals(8.0, matrixComponent.getElementValue(1, 1), 0.0);
+		assertEquals(10.0, matrixComponent.getElementValue(0, 2), 0.0);
+		assertEquals(11.0, matrixComponent.getElementValue(1, 2), 0.0);
+		assertEquals(1.0, matrixComponent.getElementValue(0, 0), 0.0);
+
+		// Bad indices and sizes should be rejected
+		testComponentListener.reset();
+		assertFalse(matrixComponent.setRow(2, new double[] { 1.0, 1.0, 1.0 }));
+		assertFalse(matrixComponent.setRow(0, new double[] { 1.0, 1.0 }));
+		assertFalse(matrixComponent.setColumn(-1, new double[] { 1.0, 1.0 }));
+		assertFalse(matrixComponent.setColumn(0, null));
+		assertFalse(matrixComponent.setAll(new double[] { 1.0 }));
+		assertFalse(testComponentListener.wasNotified());
+
+		// Adding and removing columns should keep the rows in place
+		matrixComponent.addColumn();
+		assertEquals(0.0, matrixComponent.getElementValue(0, 3), 0.0);
+		assertEquals(7.0, matrixComponent.getElementValue(1, 0), 0.0);
+		assertEquals(11.0, matrixComponent.getElementValue(1, 2), 0.0);
+		matrixComponent.deleteColumn();
+		matrixComponent.deleteColumn();
+		assertEquals(2, matrixComponent.numberOfColumns());
+		assertEquals(7.0, matrixComponent.getElementValue(1, 0), 0.0);
+		assertEquals(8.0, matrixComponent.getElementValue(1, 1), 0.0);
+
+		// Create a 2x2 discrete matrix
+		matrixComponent = new MatrixComponent(false, AllowedValueType.Discrete);
+		allowedValues.add(5.0);
+		allowedValues.add(-1.0);
+		allowedValues.add(3.0);
+		matrixComponent.setAllowedValues(allowedValues);
+		matrixComponent.addRow();
+		matrixComponent.addColumn();
+
+		// Only the allowed values may be set, and nothing should be set if
+		// one of the values is not allowed.
+		assertTrue(matrixComponent.setElementValue(0, 0, -1.0));
+		assertFalse(matrixComponent.setElementValue(0, 0, 4.0));
+		assertTrue(matrixComponent.setRow(1, new double[] { 3.0, 5.0 }));
+		assertFalse(matrixComponent.setAll(new double[] { 3.0, 5.0, 5.0, 0.0 }));
+		assertEquals(-1.0, matrixComponent.getElementValue(0, 0), 0.0);
+		assertEquals(5.0, matrixComponent.getElementValue(1, 1), 0.0);
+
+		// Create a continuous matrix and check the range
+		matrixComponent = new MatrixComponent(false,
+				AllowedValueType.Continuous);
+		allowedValues.clear();
+		allowedValues.add(0.0);
+		allowedValues.add(1.0);
+		matrixComponent.setAllowedValues(allowedValues);
+		matrixComponent.addRow();
+		assertTrue(matrixComponent.setColumn(0, new double[] { 0.0, 1.0 }));
+		assertFalse(matrixComponent.setColumn(0, new double[] { 0.5, 1.5 }));
+		assertEquals(0.0, matrixComponent.getElementValue(0, 0), 0.0);
+
+	}
+}
@@ -15,6 +15,7 @@ package org.eclipse.ice.datastructures.test;
 import static org.junit.Assert.*;
 
 import org.eclipse.ice.datastructures.ICEObject.ICEJAXBHandler;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.MasterDetailsPair;
@@ -1059,4 +1060,124 @@ public class TableComponentTester {
 		assertEquals(1, tableComponent2.getRowIds().get(1).intValue());
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks getValue(), setValue(), addRows() and
+	 * deleteRows() and makes sure that they agree with the Entries returned
+	 * by getRow().
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkCellsAndBulkOperations() {
+
+		// Local Declarations
+		ArrayList<Entry> template = new ArrayList<Entry>();
+		ArrayList<String[]> values = new ArrayList<String[]>();
+		testComponentListener = new TestComponentListener();
+
+		// Create a template with a free column and a discrete column
+		Entry nameEntry = new Entry();
+		nameEntry.setName("Name");
+		nameEntry.setId(1);
+		nameEntry.setValue("none");
+		Entry colorEntry = new Entry() {
+			@Override
+			protected void setup() {
+				this.allowedValues = new ArrayList<String>();
+				this.allowedValues.add("red");
+				this.allowedValues.add("blue");
+				this.allowedValueType = AllowedValueType.Discrete;
+			}
+		};
+		colorEntry.setName("Color");
+		colorEntry.setId(2);
+		template.add(nameEntry);
+		template.add(colorEntry);
+
+		// Nothing can be added without a template
+		tableComponent = new TableComponent();
+		assertEquals(-1, tableComponent.addRows(10));
+		assertNull(tableComponent.getValue(0, 0));
+		tableComponent.setRowTemplate(template);
+		tableComponent.register(testComponentListener);
+
+		// Add some rows and check their defaults
+		assertEquals(-1, tableComponent.addRows(0));
+		assertEquals(0, tableComponent.addRows(1000));
+		assertTrue(testComponentListener.wasNotified());
+		assertEquals(1000, tableComponent.numberOfRows());
+		assertEquals(1000, tableComponent.getRowIds().size());
+		assertEquals(999, tableComponent.getRowIds().get(999).intValue());
+		assertEquals("none", tableComponent.getValue(999, 0));
+		assertNull(tableComponent.getValue(1000, 0));
+		assertNull(tableComponent.getValue(0, 2));
+
+		// Set some values
+		testComponentListener.reset();
+		assertTrue(tableComponent.setValue(10, 0, "Bob"));
+		assertTrue(testComponentListener.wasNotified());
+		assertTrue(tableComponent.setValue(11, 0, "Bob"));
+		assertEquals("Bob", tableComponent.getValue(10, 0));
+		assertEquals("Bob", tableComponent.getValue(11, 0));
+		assertEquals("none", tableComponent.getValue(12, 0));
+		assertFalse(tableComponent.setValue(10, 5, "Bill"));
+		assertFalse(tableComponent.setValue(-1, 0, "Bill"));
+
+		// The Entries of the row should have the values
+		ArrayList<Entry> row = tableComponent.getRow(10);
+		assertEquals("Bob", row.get(0).getValue());
+		assertEquals("Name", row.get(0).getName());
+
+		// Changes to the Entries should show in the values
+		row.get(0).setValue("Bill");
+		assertEquals("Bill", tableComponent.getValue(10, 0));
+		assertTrue(tableComponent.setValue(10, 0, "Bob"));
+		assertEquals("Bob", row.get(0).getValue());
+
+		// Add rows with values. Nothing should be added if a value is not
+		// allowed.
+		values.add(new String[] { "Alice", "blue" });
+		values.add(new String[] { "Eve", "green" });
+		values.add(null);
+		assertEquals(-1, tableComponent.addRows(values));
+		assertEquals(1000, tableComponent.numberOfRows());
+		values.set(1, new String[] { "Eve" });
+		assertEquals(1000, tableComponent.addRows(values));
+		assertEquals(1003, tableComponent.numberOfRows());
+		assertEquals("Alice", tableComponent.getValue(1000, 0));
+		assertEquals("blue", tableComponent.getValue(1000, 1));
+		assertEquals("Eve", tableComponent.getValue(1001, 0));
+		assertEquals("red", tableComponent.getValue(1001, 1));
+		assertEquals("none", tableComponent.getValue(1002, 0));
+		assertFalse(tableComponent.setValue(1000, 1, "green"));
+		assertEquals("blue", tableComponent.getRow(1000).get(1).getValue());
+
+		// Copies should be equal and have the same values
+		TableComponent copy = (TableComponent) tableComponent.clone();
+		assertTrue(tableComponent.equals(copy));
+		assertEquals(tableComponent.hashCode(), copy.hashCode());
+		assertEquals("Bob", copy.getValue(11, 0));
+		assertTrue(copy.setValue(11, 0, "Bill"));
+		assertFalse(tableComponent.equals(copy));
+		assertEquals("Bob", tableComponent.getValue(11, 0));
+
+		// Delete some rows. The rows should move up.
+		testComponentListener.reset();
+		assertFalse(tableComponent.deleteRows(1000, 4));
+		assertFalse(tableComponent.deleteRows(-1, 2));
+		assertTrue(tableComponent.deleteRows(0, 10));
+		assertTrue(testComponentListener.wasNotified());
+		assertEquals(993, tableComponent.numberOfRows());
+		assertEquals("Bob", tableComponent.getValue(0, 0));
+		assertEquals("Bob", tableComponent.getValue(1, 0));
+		assertEquals("Alice", tableComponent.getValue(990, 0));
+		assertSame(row.get(0), tableComponent.getRow(0).get(0));
+		assertTrue(tableComponent.deleteRow(0));
+		assertEquals("blue", tableComponent.getRow(989).get(1).getValue());
+		assertEquals("Bob", tableComponent.getValue(0, 0));
+
+		return;
+	}
+}
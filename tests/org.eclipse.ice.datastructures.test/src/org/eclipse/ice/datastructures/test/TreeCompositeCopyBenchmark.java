@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark for copying TreeComposites. It builds
+ * a tree with a MOOSE-like set of nested child exemplars and instantiates
+ * 1,000 blocks from the exemplars, reporting the time and the memory retained
+ * by the new blocks. It is run once with the exemplars shared by the copies,
+ * which is what clone() does, and once with every copied exemplar forced into
+ * its own deep copy, which is what clone() used to do.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line.
+ * </p>
+ *
+ * @author agent
+ */
+public class TreeCompositeCopyBenchmark {
+
+	/**
+	 * The number of blocks instantiated from the exemplars.
+	 */
+	private static final int numBlocks = 1000;
+
+	/**
+	 * The number of exemplars of the root and the number of exemplars of each
+	 * of those exemplars.
+	 */
+	private static final int numExemplars = 40;
+
+	/**
+	 * The depth of the nested exemplars.
+	 */
+	private static final int exemplarDepth = 3;
+
+	/**
+	 * The number of parameters on each exemplar.
+	 */
+	private static final int numParameters = 15;
+
+	/**
+	 * This operation runs the benchmark.
+	 *
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) {
+
+		// Local Declarations
+		TreeComposite syntax = new TreeComposite();
+
+		// Create the syntax tree
+		syntax.setName("Syntax");
+		for (int i = 0; i < numExemplars; i++) {
+			syntax.addChildExemplar(createExemplar("Block" + i, 1));
+		}
+
+		// Warm up
+		run(syntax, false, false);
+		run(syntax, true, false);
+
+		// Do the measurements
+		run(syntax, false, true);
+		run(syntax, true, true);
+
+		return;
+	}
+
+	/**
+	 * This operation creates an exemplar with its parameters and nested
+	 * exemplars.
+	 *
+	 * @param name
+	 *            The name of the exemplar
+	 * @param depth
+	 *            The depth of the exemplar
+	 * @return The exemplar
+	 */
+	private static TreeComposite createExemplar(String name, int depth) {
+
+		// Local Declarations
+		TreeComposite exemplar = new TreeComposite();
+		DataComponent parameters = new DataComponent();
+
+		// Add the parameters
+		exemplar.setName(name);
+		parameters.setName(name + " parameters");
+		for (int i = 0; i < numParameters; i++) {
+			Entry entry = new Entry();
+			entry.setName("param" + i);
+			entry.setDescription("Parameter " + i + " of " + name);
+			entry.setValue(String.valueOf(i));
+			entry.setId(i);
+			parameters.addEntry(entry);
+		}
+		exemplar.addComponent(parameters);
+
+		// Add the nested exemplars
+		if (depth < exemplarDepth) {
+			for (int i = 0; i < numExemplars / (4 * depth); i++) {
+				exemplar.addChildExemplar(createExemplar(name + "_" + i,
+						depth + 1));
+			}
+		}
+
+		return exemplar;
+	}
+
+	/**
+	 * This operation replaces every exemplar of a tree and its exemplars with a
+	 * clone, which forces them to be deep copies.
+	 *
+	 * @param tree
+	 *            The tree
+	 */
+	private static void materialize(TreeComposite tree) {
+		ArrayList<TreeComposite> copies = new ArrayList<TreeComposite>();
+		for (TreeComposite exemplar : tree.getChildExemplars()) {
+			TreeComposite copy = (TreeComposite) exemplar.clone();
+			materialize(copy);
+			copies.add(copy);
+		}
+		tree.setChildExemplars(copies);
+	}
+
+	/**
+	 * This operation instantiates the blocks and reports the results.
+	 *
+	 * @param syntax
+	 *            The syntax tree with the exemplars
+	 * @param deepCopies
+	 *            True if the copied exemplars should be forced into deep
+	 *            copies
+	 * @param report
+	 *            True if the results should be printed
+	 */
+	private static void run(TreeComposite syntax, boolean deepCopies,
+			boolean report) {
+
+		// Local Declarations
+		Runtime runtime = Runtime.getRuntime();
+		ArrayList<TreeComposite> exemplars = syntax.getChildExemplars();
+		TreeComposite input = new TreeComposite();
+
+		// Record the memory in use before the run
+		input.setChildExemplars(exemplars);
+		System.gc();
+		long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+		long start = System.nanoTime();
+
+		// Instantiate the blocks
+		for (int i = 0; i < numBlocks; i++) {
+			TreeComposite block = (TreeComposite) exemplars.get(
+					i % exemplars.size()).clone();
+			if (deepCopies) {
+				materialize(block);
+			}
+			// Blocks must be added before they are changed, see
+			// TreeComposite.setChildExemplars().
+			input.setNextChild(block);
+			block.setDescription("Block " + i);
+		}
+		long time = System.nanoTime() - start;
+
+		// Measure the memory retained by the blocks
+		System.gc();
+		long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+
+		// Report the results
+		if (report) {
+			System.out.println("TreeCompositeCopyBenchmark: "
+					+ (deepCopies ? "deep copies" : "shared exemplars") + ", "
+					+ input.getNumberOfChildren() + " blocks");
+			System.out.println("\tTime (ms): " + time / 1.0e6);
+			System.out.println("\tRetained memory (MB): "
+					+ (usedAfter - usedBefore) / (1024.0 * 1024.0));
+		}
+
+		return;
+	}
+}
@@ -14,8 +14,10 @@ package org.eclipse.ice.datastructures.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -34,6 +36,7 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.componentVisitor.SelectiveComponentVisitor;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.ITreeCompositeFilter;
 import org.eclipse.ice.datastructures.form.TableComponent;
 import org.eclipse.ice.datastructures.form.TimeDataComponent;
 import org.eclipse.ice.datastructures.form.TreeComposite;
@@ -1123,6 +1126,180 @@ public class TreeCompositeTester extends SelectiveComponentVisitor {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that copies of a TreeComposite that share its
+	 * exemplars behave as if they had their own copies of them.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkSharedExemplars() {
+
+		// Local Declarations
+		TreeComposite tree = new TreeComposite();
+		TreeComposite exemplar = new TreeComposite();
+		TreeComposite exemplarExemplar = new TreeComposite();
+		TreeComposite newExemplar = new TreeComposite();
+
+		// Setup the tree with an exemplar that has an exemplar of its own
+		exemplarExemplar.setName("Variable");
+		exemplar.setName("Variables");
+		exemplar.addChildExemplar(exemplarExemplar);
+		tree.setName("Input");
+		tree.addChildExemplar(exemplar);
+
+		// Copy it. The copy should be equal and accept the same children.
+		TreeComposite copy = (TreeComposite) tree.clone();
+		assertEquals(tree, copy);
+		assertEquals(tree.hashCode(), copy.hashCode());
+		TreeComposite child = (TreeComposite) copy.getChildExemplars().get(0)
+				.clone();
+		copy.setNextChild(child);
+		assertEquals(1, copy.getNumberOfChildren());
+
+		// Copying should not clone the exemplars or change the original
+		assertSame(tree.getChildExemplars().get(0), copy.getChildExemplars()
+				.get(0));
+		assertNotSame(tree.getChildExemplars(), copy.getChildExemplars());
+		assertEquals(tree, tree.clone());
+
+		// Changing the list of exemplars of the copy should not change the
+		// original
+		copy.getChildExemplars().clear();
+		assertEquals(1, copy.getChildExemplars().size());
+		TreeComposite kernels = (TreeComposite) exemplar.clone();
+		kernels.setName("Variables");
+		kernels.setDescription("Kernels");
+		copy.addChildExemplar(kernels);
+		assertEquals("Kernels", copy.getChildExemplars().get(0)
+				.getDescription());
+		assertFalse("Kernels".equals(tree.getChildExemplars().get(0)
+				.getDescription()));
+
+		// Adding an exemplar to the original should not change the copy
+		copy = (TreeComposite) tree.clone();
+		newExemplar.setName("Mesh");
+		tree.addChildExemplar(newExemplar);
+		assertEquals(2, tree.getChildExemplars().size());
+		assertEquals(1, copy.getChildExemplars().size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks the indexed lookups of the TreeComposite -
+	 * getChildrenByName(), findByPath(), findAll() and getSubtreeSize() - and
+	 * makes sure that the indices are updated when the tree changes.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkIndexedLookups() {
+
+		// Local Declarations
+		TreeComposite root = new TreeComposite();
+		TreeComposite variables = new TreeComposite();
+		TreeComposite kernels = new TreeComposite();
+		TreeComposite u = new TreeComposite();
+		TreeComposite v = new TreeComposite();
+		TreeComposite otherU = new TreeComposite();
+		TreeComposite diffusion = new TreeComposite();
+
+		// Build the tree
+		root.setName("root");
+		variables.setName("Variables");
+		variables.setId(1);
+		kernels.setName("Kernels");
+		kernels.setId(2);
+		u.setName("u");
+		u.setId(3);
+		v.setName("v");
+		v.setId(4);
+		otherU.setName("u");
+		otherU.setId(5);
+		diffusion.setName("diff");
+		diffusion.setId(6);
+		root.setNextChild(variables);
+		root.setNextChild(kernels);
+		variables.setNextChild(u);
+		variables.setNextChild(v);
+		variables.setNextChild(otherU);
+		kernels.setNextChild(diffusion);
+
+		// Check the name index
+		assertEquals(2, variables.getChildrenByName("u").size());
+		assertTrue(u == variables.getChildrenByName("u").get(0));
+		assertTrue(otherU == variables.getChildrenByName("u").get(1));
+		assertTrue(variables.getChildrenByName("w").isEmpty());
+
+		// Check the path index. The first u should win.
+		assertTrue(u == root.findByPath("Variables/u"));
+		assertTrue(u == root.findByPath("/Variables/u"));
+		assertTrue(root == root.findByPath(""));
+		assertTrue(diffusion == root.findByPath("Kernels/diff"));
+		assertNull(root.findByPath("Kernels/u"));
+		assertNull(root.findByPath(null));
+		// Both u's share a path
+		assertEquals(5, root.getPathIndex().size());
+		assertTrue(diffusion == kernels.findByPath("diff"));
+
+		// Check the subtree sizes
+		assertEquals(7, root.getSubtreeSize());
+		assertEquals(4, variables.getSubtreeSize());
+		assertEquals(1, u.getSubtreeSize());
+
+		// Check findAll()
+		ArrayList<TreeComposite> leaves = root
+				.findAll(new ITreeCompositeFilter() {
+					public boolean accept(TreeComposite tree) {
+						return tree.getNumberOfChildren() == 0;
+					}
+				});
+		assertEquals(4, leaves.size());
+		assertTrue(u == leaves.get(0));
+		assertTrue(diffusion == leaves.get(3));
+		assertTrue(root.findAll(null).isEmpty());
+
+		// Rename a child and make sure the indices follow it
+		u.setName("w");
+		assertEquals(1, variables.getChildrenByName("u").size());
+		assertTrue(otherU == variables.getChildrenByName("u").get(0));
+		assertTrue(u == variables.getChildrenByName("w").get(0));
+		assertTrue(otherU == root.findByPath("Variables/u"));
+		assertTrue(u == root.findByPath("Variables/w"));
+
+		// Move a child to another parent
+		v.setParent(kernels);
+		assertTrue(variables.getChildrenByName("v").isEmpty());
+		assertTrue(v == root.findByPath("Kernels/v"));
+		assertNull(root.findByPath("Variables/v"));
+		assertEquals(3, variables.getSubtreeSize());
+		assertEquals(3, kernels.getSubtreeSize());
+		assertEquals(7, root.getSubtreeSize());
+
+		// Remove a subtree
+		root.removeChild(kernels);
+		assertNull(root.findByPath("Kernels/diff"));
+		assertTrue(root.getChildrenByName("Kernels").isEmpty());
+		assertEquals(4, root.getSubtreeSize());
+
+		// Copying should rebuild the indices
+		TreeComposite copy = (TreeComposite) root.clone();
+		assertEquals(4, copy.getSubtreeSize());
+		assertNotNull(copy.findByPath("Variables/w"));
+		assertEquals(2, copy.findByPath("Variables").getChildrenByName("u")
+				.size() + copy.findByPath("Variables").getChildrenByName("w")
+				.size());
+		variables.copy(kernels, true);
+		assertEquals(4, root.getSubtreeSize());
+		assertTrue(root.getChildrenByName("Variables").isEmpty());
+		assertNotNull(root.findByPath("Kernels/diff"));
+
+		return;
+	}
+
 	/**
 	 * This operation adds a component of the specified type to the map.
 	 * 
@@ -14,9 +14,16 @@ package org.eclipse.ice.item.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Dictionary;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.action.Action;
 
 /**
  * <p>
@@ -63,4 +70,89 @@ public class ActionTester {
 
 		return;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks that completion listeners are called once when the
+	 * Action finishes and that listeners registered after it finishes are
+	 * called immediately.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkCompletionListeners() {
+
+		// Local Declarations
+		final AtomicInteger count = new AtomicInteger(0);
+		Runnable listener = new Runnable() {
+			@Override
+			public void run() {
+				count.incrementAndGet();
+			}
+		};
+
+		// Start the action and register the listener
+		testAction = new TestAction();
+		assertEquals(FormStatus.Processing, testAction.execute(null));
+		testAction.addCompletionListener(listener);
+		assertFalse(testAction.isComplete());
+		assertEquals(0, count.get());
+
+		// Finish it
+		testAction.finish(FormStatus.Processed);
+		assertTrue(testAction.isComplete());
+		assertEquals(1, count.get());
+
+		// Late listeners should be called right away
+		testAction.addCompletionListener(listener);
+		assertEquals(2, count.get());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that the listeners of an Action that never calls
+	 * notifyCompletion() are still called once its status shows that it has
+	 * finished.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkPolledCompletion() throws InterruptedException {
+
+		// Local Declarations
+		final CountDownLatch latch = new CountDownLatch(1);
+		Action action = new Action() {
+			@Override
+			public FormStatus execute(Dictionary<String, String> dictionary) {
+				status = FormStatus.Processing;
+				return status;
+			}
+
+			@Override
+			public FormStatus cancel() {
+				status = FormStatus.ReadyToProcess;
+				return status;
+			}
+		};
+
+		// Start the action and register the listener
+		assertEquals(FormStatus.Processing, action.execute(null));
+		action.addCompletionListener(new Runnable() {
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		});
+		assertFalse(action.isComplete());
+
+		// Finish it without notifying the listeners. The Action should notice
+		// on its own.
+		action.cancel();
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertTrue(action.isComplete());
+
+		return;
+	}
+}
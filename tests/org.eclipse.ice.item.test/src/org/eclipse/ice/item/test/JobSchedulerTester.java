@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.jobLauncher.IJobSchedulerListener;
+import org.eclipse.ice.item.jobLauncher.JobScheduler;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class checks the JobScheduler. It uses Items that run a TestAction so
+ * that the test can decide when each job finishes.
+ * </p>
+ * 
+ * @author agent
+ */
+public class JobSchedulerTester implements IJobSchedulerListener {
+
+	/**
+	 * The jobs that were started, in order.
+	 */
+	private ArrayList<Item> startedJobs = new ArrayList<Item>();
+
+	/**
+	 * The jobs that finished, in order.
+	 */
+	private ArrayList<Item> finishedJobs = new ArrayList<Item>();
+
+	/**
+	 * This is a TestItem that starts a TestAction when it is processed.
+	 */
+	private static class ScheduledItem extends TestItem {
+
+		/**
+		 * The TestAction that is run by the Item.
+		 */
+		private final TestAction testAction = new TestAction();
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param name
+		 *            The name of the Item
+		 */
+		public ScheduledItem(String name) {
+			super(null);
+			setName(name);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.eclipse.ice.item.Item#process(java.lang.String)
+		 */
+		@Override
+		public FormStatus process(String actionName) {
+			action = testAction;
+			status = testAction.execute(null);
+			return status;
+		}
+
+		/**
+		 * This operation finishes the TestAction.
+		 * 
+		 * @param finalStatus
+		 *            The final status of the Action
+		 */
+		public void finish(FormStatus finalStatus) {
+			testAction.finish(finalStatus);
+		}
+	}
+
+	/**
+	 * This operation checks that the scheduler never runs more jobs than the
+	 * host has cores, that it starts jobs by priority and then in order, and
+	 * that it starts the next job when one finishes.
+	 */
+	@Test
+	public void checkScheduling() {
+
+		// Local Declarations
+		JobScheduler scheduler = new JobScheduler(2);
+		ArrayList<ScheduledItem> jobs = new ArrayList<ScheduledItem>();
+
+		// Submit five jobs, the last with a higher priority
+		for (int i = 0; i < 5; i++) {
+			ScheduledItem job = new ScheduledItem("Job " + i);
+			jobs.add(job);
+			assertTrue(scheduler.submit(job, "Launch", "localhost", 1,
+					(i == 4 ? 1 : 0), this));
+		}
+		assertFalse(scheduler.submit(null, "Launch", "localhost", 1, 0, this));
+
+		// Only the first two should be running
+		assertEquals(2, scheduler.getRunningCount());
+		assertEquals(3, scheduler.getQueuedCount());
+		assertEquals(2, startedJobs.size());
+		assertSame(jobs.get(0), startedJobs.get(0));
+		assertSame(jobs.get(1), startedJobs.get(1));
+
+		// Finishing one should start the high priority job
+		jobs.get(0).finish(FormStatus.Processed);
+		assertEquals(1, finishedJobs.size());
+		assertEquals(3, startedJobs.size());
+		assertSame(jobs.get(4), startedJobs.get(2));
+		assertEquals(2, scheduler.getRunningCount());
+
+		// Cancel a queued job
+		assertTrue(scheduler.cancel(jobs.get(3)));
+		assertFalse(scheduler.cancel(jobs.get(3)));
+		assertEquals(1, scheduler.getQueuedCount());
+
+		// Finish the rest. A failure should still start the next job.
+		jobs.get(1).finish(FormStatus.InfoError);
+		assertSame(jobs.get(2), startedJobs.get(3));
+		jobs.get(2).finish(FormStatus.Processed);
+		jobs.get(4).finish(FormStatus.Processed);
+		assertEquals(0, scheduler.getRunningCount());
+		assertEquals(0, scheduler.getQueuedCount());
+		assertEquals(3, scheduler.getCompletedCount());
+		assertEquals(1, scheduler.getFailedCount());
+		assertEquals(4, finishedJobs.size());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the number of cores used by the jobs is
+	 * limited on each host and that jobs on other hosts are not held up.
+	 */
+	@Test
+	public void checkHostCapacity() {
+
+		// Local Declarations
+		JobScheduler scheduler = new JobScheduler(4);
+		ScheduledItem bigJob = new ScheduledItem("Big Job");
+		ScheduledItem smallJob = new ScheduledItem("Small Job");
+		ScheduledItem remoteJob = new ScheduledItem("Remote Job");
+
+		// Check the capacities
+		assertEquals(4, scheduler.getHostCapacity("localhost"));
+		scheduler.setHostCapacity("remotehost", 1);
+		assertEquals(1, scheduler.getHostCapacity("remotehost"));
+
+		// A job that is larger than the host runs by itself
+		scheduler.submit(bigJob, "Launch", "localhost", 8, 0, this);
+		scheduler.submit(smallJob, "Launch", "localhost", 1, 0, this);
+		scheduler.submit(remoteJob, "Launch", "remotehost", 1, 0, this);
+		assertEquals(2, scheduler.getRunningCount());
+		assertTrue(startedJobs.contains(bigJob));
+		assertTrue(startedJobs.contains(remoteJob));
+		assertFalse(startedJobs.contains(smallJob));
+
+		// The small job starts when the big one is done
+		bigJob.finish(FormStatus.Processed);
+		assertTrue(startedJobs.contains(smallJob));
+		smallJob.finish(FormStatus.Processed);
+		remoteJob.finish(FormStatus.Processed);
+		assertEquals(0, scheduler.getRunningCount());
+		assertEquals(3, finishedJobs.size());
+
+		return;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see IJobSchedulerListener#jobStarted(Item)
+	 */
+	@Override
+	public void jobStarted(Item job) {
+		startedJobs.add(job);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see IJobSchedulerListener#jobFinished(Item, FormStatus)
+	 */
+	@Override
+	public void jobFinished(Item job, FormStatus status) {
+		finishedJobs.add(job);
+	}
+
+}
@@ -94,6 +94,15 @@ public class MultiLauncherTester implements IComponentVisitor {
 	 */
 	private ResourceComponent resourceComponent;
 
+	/**
+	 * <p>
+	 * The DataComponent from the MultiLauncher that shows the progress of the
+	 * launch.
+	 * </p>
+	 * 
+	 */
+	private DataComponent progressComponent;
+
 	/**
 	 * <p>
 	 * This operation is called before the test to setup the project space.
@@ -192,15 +201,16 @@ public class MultiLauncherTester implements IComponentVisitor {
 		assertTrue(launcher instanceof MultiLauncher);
 		assertTrue(launcher.getName().contains("MultiLauncher"));
 
-		// Grab the Form and take a look at it. It should have one component.
+		// Grab the Form and take a look at it. It should have three
+		// components.
 		Form form = launcher.getForm();
-		assertEquals(2, form.getNumberOfComponents());
+		assertEquals(3, form.getNumberOfComponents());
 
 		// Get the Component from the Form and visit it to get the data and
 		// master-details components
 		ArrayList<Component> components = form.getComponents();
 		assertNotNull(components);
-		assertEquals(2, components.size());
+		assertEquals(3, components.size());
 		for (Component component : components) {
 			component.accept(this);
 		}
@@ -209,6 +219,7 @@ public class MultiLauncherTester implements IComponentVisitor {
 		assertNotNull(dataComponent);
 		assertEquals("Execution Mode", dataComponent.getName());
 		assertNotNull(dataComponent.retrieveEntry("Enable Parallel Execution"));
+		assertNotNull(dataComponent.retrieveEntry("Maximum Concurrent Jobs"));
 		// The DataComponent should have id = 3
 		assertEquals(3, dataComponent.getId());
 
@@ -233,6 +244,22 @@ public class MultiLauncherTester implements IComponentVisitor {
 		// The ResourceComponent should have id = 2
 		assertEquals(2, resourceComponent.getId());
 
+		// Check the progress component. It should have id = 4 and start with
+		// no jobs.
+		assertNotNull(progressComponent);
+		assertEquals(4, progressComponent.getId());
+		assertEquals("Launch Progress", progressComponent.getName());
+		assertEquals("0", progressComponent.retrieveEntry("Queued Jobs")
+				.getValue());
+		assertEquals("0", progressComponent.retrieveEntry("Running Jobs")
+				.getValue());
+		assertEquals("0", progressComponent.retrieveEntry("Completed Jobs")
+				.getValue());
+		assertEquals("0", progressComponent.retrieveEntry("Failed Jobs")
+				.getValue());
+		assertNotNull(progressComponent
+				.retrieveEntry("Throughput (jobs/min)"));
+
 	}
 
 	/**
@@ -297,6 +324,9 @@ public class MultiLauncherTester implements IComponentVisitor {
 	 */
 	public void visit(DataComponent component) {
 
+		// The only top-level DataComponent is the progress component
+		progressComponent = component;
+
 	}
 
 	/**
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.ice.item.action.RotatingFileWriter;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class checks that the RotatingFileWriter appends to its file, rotates
+ * it when it grows past the maximum size and only keeps the requested number
+ * of backups.
+ * </p>
+ *
+ * @author agent
+ */
+public class RotatingFileWriterTester {
+
+	/**
+	 * This operation checks that the file is rotated without splitting lines
+	 * or losing any of the most recent lines.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkRotation() throws IOException {
+
+		// Local Declarations
+		File logFile = File.createTempFile("rotatingFileWriter", ".log");
+		RotatingFileWriter writer = new RotatingFileWriter(logFile.getPath(),
+				100, 2);
+		List<String> lines = new ArrayList<String>();
+
+		// Write 30 nine character lines. Eleven fit in each file, so the
+		// file should be rotated twice.
+		for (int i = 0; i < 30; i++) {
+			writer.write(String.format("line %03d\n", i));
+		}
+		writer.close();
+
+		// The log and two backups should be left
+		assertEquals(2, writer.getRotationCount());
+		assertTrue(writer.getBackupFile(1).exists());
+		assertTrue(writer.getBackupFile(2).exists());
+		assertFalse(writer.getBackupFile(3).exists());
+		assertTrue(logFile.length() <= 100);
+
+		// The lines should be in order across the files
+		for (int i = 2; i > 0; i--) {
+			lines.addAll(Files.readAllLines(writer.getBackupFile(i).toPath(),
+					Charset.defaultCharset()));
+		}
+		lines.addAll(Files.readAllLines(logFile.toPath(),
+				Charset.defaultCharset()));
+		assertEquals(30, lines.size());
+		for (int i = 0; i < lines.size(); i++) {
+			assertEquals(String.format("line %03d", i), lines.get(i));
+		}
+
+		// Clean up
+		logFile.delete();
+		writer.getBackupFile(1).delete();
+		writer.getBackupFile(2).delete();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the writer appends to an existing file and
+	 * does not rotate it if the maximum size is zero.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkAppend() throws IOException {
+
+		// Local Declarations
+		File logFile = File.createTempFile("rotatingFileWriter", ".log");
+		RotatingFileWriter writer = new RotatingFileWriter(logFile.getPath(),
+				0, 2);
+
+		// Write one line, then reopen the file and write another
+		writer.write("first\n");
+		writer.close();
+		writer = new RotatingFileWriter(logFile.getPath(), 0, 2);
+		for (int i = 0; i < 1000; i++) {
+			writer.write("second\n");
+		}
+		writer.close();
+
+		// Check the file
+		List<String> lines = Files.readAllLines(logFile.toPath(),
+				Charset.defaultCharset());
+		assertEquals(1001, lines.size());
+		assertEquals("first", lines.get(0));
+		assertEquals(0, writer.getRotationCount());
+		assertFalse(writer.getBackupFile(1).exists());
+
+		// Clean up
+		logFile.delete();
+
+		return;
+	}
+}
@@ -48,8 +48,32 @@ public class TestAction extends Action {
 	 * @see Action#execute(Dictionary<Object> dictionary)
 	 */
 	public FormStatus execute(Dictionary<String, String> dictionary) {
-		// TODO Auto-generated method stub
-		return null;
+		// Pretend to start processing
+		status = FormStatus.Processing;
+		return status;
+	}
+
+	/**
+	 * This operation sets the final status of the TestAction and notifies its
+	 * completion listeners as if it had finished processing.
+	 * 
+	 * @param finalStatus
+	 *            The final status
+	 */
+	public void finish(FormStatus finalStatus) {
+		status = finalStatus;
+		notifyCompletion();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see Action#notifiesCompletion()
+	 */
+	@Override
+	protected boolean notifiesCompletion() {
+		// finish() notifies the listeners
+		return true;
 	}
 
 	/**
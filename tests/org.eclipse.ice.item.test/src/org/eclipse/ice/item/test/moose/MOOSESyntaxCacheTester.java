@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test.moose;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.form.AdaptiveTreeComposite;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.eclipse.ice.item.utilities.moose.MOOSEFileHandler;
+import org.eclipse.ice.item.utilities.moose.MOOSESyntaxCache;
+import org.junit.Test;
+
+/**
+ * This class checks that the MOOSEFileHandler compiles YAML files into the
+ * MOOSESyntaxCache and loads them from it.
+ * 
+ * @author agent
+ */
+public class MOOSESyntaxCacheTester {
+
+	/**
+	 * A small YAML specification with a block that has types and one that
+	 * does not.
+	 */
+	private static final String yaml = "- name: /Executioner\n"
+			+ "  description: ''\n" + "  parameters:\n"
+			+ "  - name: type\n" + "    required: true\n"
+			+ "    default: Transient\n" + "    cpp_type: std::string\n"
+			+ "    description: The type of Executioner\n" + "  subblocks:\n"
+			+ "  - name: /Executioner/<type>\n" + "    description: ''\n"
+			+ "    subblocks:\n" + "    - name: /Executioner/<type>/Steady\n"
+			+ "      description: ''\n" + "      parameters:\n"
+			+ "      - name: solve_type\n" + "        required: false\n"
+			+ "        default: PJFNK\n" + "        cpp_type: MooseEnum\n"
+			+ "        options: PJFNK JFNK NEWTON\n"
+			+ "        description: PETSc solve type\n"
+			+ "    - name: /Executioner/<type>/Transient\n"
+			+ "      description: ''\n" + "      parameters:\n"
+			+ "      - name: dt\n" + "        required: false\n"
+			+ "        default: '1'\n" + "        cpp_type: double\n"
+			+ "        description: The time step size\n"
+			+ "- name: /Variables\n" + "  description: ''\n"
+			+ "  subblocks:\n" + "  - name: /Variables/*\n"
+			+ "    description: ''\n" + "    parameters:\n"
+			+ "    - name: order\n" + "      required: false\n"
+			+ "      default: FIRST\n" + "      cpp_type: MooseEnum\n"
+			+ "      options: CONSTANT FIRST SECOND\n"
+			+ "      description: Order of the FE shape function\n";
+
+	/**
+	 * This operation checks that the trees loaded from the cache are the same
+	 * as those parsed from the YAML file, that clients can not modify the
+	 * cached trees and that the cache file is replaced when the files change.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkCompiledSyntax() throws IOException {
+
+		// Local Declarations
+		File directory = Files.createTempDirectory("mooseSyntax").toFile();
+		File yamlFile = new File(directory, "app.yaml");
+		File syntaxFile = new File(directory, "app.syntax");
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+		Charset charset = Charset.forName("UTF-8");
+
+		// Write the files
+		Files.write(yamlFile.toPath(), yaml.getBytes(charset));
+		Files.write(syntaxFile.toPath(),
+				"Executioner\nVariables/*\nVariables\n".getBytes(charset));
+		String key = MOOSESyntaxCache.getKey(yamlFile, syntaxFile);
+		File cacheFile = MOOSESyntaxCache.getCacheFile(yamlFile, key);
+
+		// Parse them
+		MOOSESyntaxCache.clear();
+		ArrayList<TreeComposite> parsedTrees = handler.loadYAML(yamlFile
+				.getPath());
+		assertEquals(2, parsedTrees.size());
+		assertTrue(parsedTrees.get(0) instanceof AdaptiveTreeComposite);
+		assertEquals(2, ((AdaptiveTreeComposite) parsedTrees.get(0))
+				.getTypes().size());
+		assertEquals("Variables", parsedTrees.get(1).getName());
+		assertEquals(1, parsedTrees.get(1).getChildExemplars().size());
+		assertTrue(cacheFile.isFile());
+		assertNotNull(MOOSESyntaxCache.getTrees(key));
+
+		// Changing the loaded trees should not change the cached trees
+		parsedTrees.get(1).setName("Modified");
+		parsedTrees.get(1).setChildExemplars(new ArrayList<TreeComposite>());
+		ArrayList<TreeComposite> trees = handler.loadYAML(yamlFile.getPath());
+		assertEquals("Variables", trees.get(1).getName());
+		assertEquals(1, trees.get(1).getChildExemplars().size());
+
+		// Load them from the cache file
+		MOOSESyntaxCache.clear();
+		ArrayList<TreeComposite> cachedTrees = handler.loadYAML(yamlFile
+				.getPath());
+		assertEquals(trees, cachedTrees);
+		assertTrue(cachedTrees.get(0) instanceof AdaptiveTreeComposite);
+
+		// A bad cache file should be ignored
+		MOOSESyntaxCache.clear();
+		Files.write(cacheFile.toPath(), new byte[] { 1, 2, 3 });
+		assertEquals(trees, handler.loadYAML(yamlFile.getPath()));
+
+		// Changing the syntax file should replace the cache file
+		Files.write(syntaxFile.toPath(), "Variables\n".getBytes(charset));
+		String newKey = MOOSESyntaxCache.getKey(yamlFile, syntaxFile);
+		assertFalse(key.equals(newKey));
+		trees = handler.loadYAML(yamlFile.getPath());
+		assertFalse(trees.get(0) instanceof AdaptiveTreeComposite);
+		assertFalse(cacheFile.exists());
+		assertTrue(MOOSESyntaxCache.getCacheFile(yamlFile, newKey).isFile());
+
+		// The files should only be hashed again if their sizes or
+		// modification times change
+		long modified = syntaxFile.lastModified();
+		Files.write(syntaxFile.toPath(), "Executors\n".getBytes(charset));
+		syntaxFile.setLastModified(modified);
+		assertEquals(newKey, MOOSESyntaxCache.getKey(yamlFile, syntaxFile));
+		syntaxFile.setLastModified(modified + 2000);
+		assertFalse(newKey.equals(MOOSESyntaxCache.getKey(yamlFile,
+				syntaxFile)));
+
+		// Clean up
+		MOOSESyntaxCache.clear();
+		for (File file : cacheFile.getParentFile().listFiles()) {
+			file.delete();
+		}
+		cacheFile.getParentFile().delete();
+		yamlFile.delete();
+		syntaxFile.delete();
+		directory.delete();
+
+		return;
+	}
+
+}
@@ -21,9 +21,16 @@ import org.eclipse.ice.item.utilities.moose.Block;
 import org.eclipse.ice.item.utilities.moose.Parameter;
 import org.eclipse.ice.item.utilities.moose.YAMLBlock;
 
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
 
 import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
 
 /**
  * This class is responsible for testing the YAMLBlock class.
@@ -87,4 +94,111 @@ public class YAMLBlockTester {
 
 		return;
 	}
+
+	/**
+	 * This operation checks that a YAMLBlock loaded from SnakeYAML parser
+	 * events is the same as one loaded from the Map that SnakeYAML creates for
+	 * the same document.
+	 */
+	@Test
+	public void checkLoadFromEvents() {
+
+		// Local Declarations
+		String document = "- name: /Executioner\n"
+				+ "  description: The Executioner block\n"
+				+ "  type: \n"
+				+ "  unknown: {a: [1, 2, {b: c}], d: e}\n"
+				+ "  parameters:\n"
+				+ "  - name: solve_type\n"
+				+ "    required: Yes\n"
+				+ "    default: 'PJFNK'\n"
+				+ "    cpp_type: MooseEnum\n"
+				+ "    options: PJFNK JFNK NEWTON\n"
+				+ "    group_name: ~\n"
+				+ "    description: >\n"
+				+ "      PETSc solve\n"
+				+ "      type\n"
+				+ "  - name: dt\n"
+				+ "    required: false\n"
+				+ "    default: '0.1'\n"
+				+ "    cpp_type: double\n"
+				+ "    extra: [x, y]\n"
+				+ "  subblocks:\n"
+				+ "  - name: /Executioner/TimeStepper\n"
+				+ "    description: ''\n"
+				+ "    parameters:\n"
+				+ "    subblocks:\n"
+				+ "    - name: /Executioner/TimeStepper/*\n"
+				+ "      description: null\n";
+		Yaml yaml = new Yaml();
+		Block mapBlock = new YAMLBlock(), eventBlock = new YAMLBlock();
+
+		// Load the block from the Map
+		ArrayList<?> list = (ArrayList<?>) yaml.load(document);
+		mapBlock.loadFromMap((Map<?, ?>) list.get(0));
+
+		// Load it from the events
+		Iterator<Event> events = yaml.parse(new StringReader(document))
+				.iterator();
+		while (!(events.next() instanceof MappingStartEvent)) {
+			continue;
+		}
+		eventBlock.loadFromEvents(events);
+		assertTrue(events.next() instanceof SequenceEndEvent);
+
+		// Check them
+		assertEquals("Executioner", eventBlock.getName());
+		assertEquals(2, eventBlock.getParameters().size());
+		assertTrue(eventBlock.getParameters().get(0).isRequired());
+		assertEquals(3, eventBlock.getParameters().get(0).getOptions().size());
+		assertEquals(1, eventBlock.getSubblocks().size());
+		assertTrue(eventBlock.getSubblocks().get(0) instanceof YAMLBlock);
+		checkBlocks(mapBlock, eventBlock);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that two blocks and their sub-blocks have the same
+	 * attributes and parameters.
+	 * 
+	 * @param expected
+	 *            The expected block
+	 * @param block
+	 *            The block to check
+	 */
+	private void checkBlocks(Block expected, Block block) {
+
+		// Check the attributes
+		assertEquals(expected.getName(), block.getName());
+		assertEquals(expected.getDescription(), block.getDescription());
+		assertEquals(expected.getType(), block.getType());
+
+		// Check the parameters
+		assertEquals(expected.getParameters().size(), block.getParameters()
+				.size());
+		for (int i = 0; i < block.getParameters().size(); i++) {
+			Parameter expectedParam = expected.getParameters().get(i);
+			Parameter param = block.getParameters().get(i);
+			assertEquals(expectedParam.getName(), param.getName());
+			assertEquals(expectedParam.getDescription(),
+					param.getDescription());
+			assertEquals(expectedParam.getDefault(), param.getDefault());
+			assertEquals(expectedParam.getCpp_type(), param.getCpp_type());
+			assertEquals(expectedParam.getGroup_name(), param.getGroup_name());
+			assertEquals(expectedParam.getOptions(), param.getOptions());
+			assertEquals(expectedParam.isRequired(), param.isRequired());
+			assertEquals(expectedParam.isEnabled(), param.isEnabled());
+		}
+
+		// Check the sub-blocks
+		assertEquals(expected.getSubblocks().size(), block.getSubblocks()
+				.size());
+		for (int i = 0; i < block.getSubblocks().size(); i++) {
+			checkBlocks(expected.getSubblocks().get(i), block.getSubblocks()
+					.get(i));
+		}
+
+		return;
+	}
 }
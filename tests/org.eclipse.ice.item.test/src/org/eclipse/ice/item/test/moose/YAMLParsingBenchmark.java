@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test.moose;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.ice.item.utilities.moose.Block;
+import org.eclipse.ice.item.utilities.moose.YAMLBlock;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark that compares the time and the peak
+ * heap usage of loading MOOSE blocks from a YAML syntax dump by loading the
+ * whole document into Maps with SnakeYAML and calling Block.loadFromMap(), as
+ * the MOOSEFileHandler used to, against loading them directly from the
+ * SnakeYAML parser events with Block.loadFromEvents(). It generates a syntax
+ * dump that is about 50 MB, which is the size of the dumps of the larger MOOSE
+ * applications.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line. Running each method in a separate JVM
+ * (pass "map" or "events" as the argument) gives the most accurate peak heap
+ * usage.
+ * </p>
+ * 
+ * @author agent
+ */
+public class YAMLParsingBenchmark {
+
+	/**
+	 * The approximate size of the generated file in bytes.
+	 */
+	private static final long fileSize = 50L * 1024L * 1024L;
+
+	/**
+	 * The number of sub-blocks in each top-level block.
+	 */
+	private static final int numSubblocks = 40;
+
+	/**
+	 * The number of parameters in each sub-block.
+	 */
+	private static final int numParameters = 25;
+
+	/**
+	 * This operation runs the benchmark.
+	 * 
+	 * @param args
+	 *            Optionally "map" or "events" to only run one method
+	 */
+	public static void main(String[] args) throws Exception {
+
+		// Local Declarations
+		File yamlFile = File.createTempFile("benchmark", ".yaml");
+		String method = (args.length > 0) ? args[0] : "both";
+
+		// Create the file
+		int numBlocks = writeFile(yamlFile);
+		System.out.println("YAMLParsingBenchmark: " + yamlFile.length()
+				/ (1024 * 1024) + " MB, " + numBlocks + " top-level blocks");
+
+		// Run the methods
+		if (!"events".equals(method)) {
+			run(yamlFile, false);
+		}
+		if (!"map".equals(method)) {
+			run(yamlFile, true);
+		}
+
+		// Clean up
+		yamlFile.delete();
+
+		return;
+	}
+
+	/**
+	 * This operation loads the blocks with one method and prints the time and
+	 * the peak heap usage.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @param useEvents
+	 *            True if the blocks should be loaded from the parser events,
+	 *            false if they should be loaded from Maps
+	 */
+	private static void run(File yamlFile, boolean useEvents) throws Exception {
+
+		// Local Declarations
+		ArrayList<Block> blocks = null;
+		long baseline = 0, peak = 0;
+
+		// Start from a clean heap
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				baseline += pool.getUsage().getUsed();
+				pool.resetPeakUsage();
+			}
+		}
+
+		// Load the blocks
+		long start = System.nanoTime();
+		blocks = useEvents ? loadFromEvents(yamlFile) : loadFromMaps(yamlFile);
+		long time = System.nanoTime() - start;
+
+		// Get the peak usage
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+
+		// Report the results
+		System.out.println("\t" + (useEvents ? "Parser events" : "Maps")
+				+ ": " + blocks.size() + " blocks, time (ms) " + time / 1.0e6
+				+ ", peak heap (MB) " + (peak - baseline) / (1024 * 1024));
+
+		return;
+	}
+
+	/**
+	 * This operation loads the blocks from Maps created by SnakeYAML.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @return The blocks
+	 */
+	private static ArrayList<Block> loadFromMaps(File yamlFile)
+			throws Exception {
+
+		// Local Declarations
+		ArrayList<Block> blocks = new ArrayList<Block>();
+		Reader reader = new UnicodeReader(new FileInputStream(yamlFile));
+
+		try {
+			ArrayList<?> list = (ArrayList<?>) new Yaml().load(reader);
+			for (Object map : list) {
+				Block block = new YAMLBlock();
+				block.loadFromMap((Map<?, ?>) map);
+				blocks.add(block);
+			}
+		} finally {
+			reader.close();
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * This operation loads the blocks from the SnakeYAML parser events in the
+	 * same way as the MOOSEFileHandler.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file
+	 * @return The blocks
+	 */
+	private static ArrayList<Block> loadFromEvents(File yamlFile)
+			throws Exception {
+
+		// Local Declarations
+		ArrayList<Block> blocks = new ArrayList<Block>();
+		Reader reader = new UnicodeReader(new FileInputStream(yamlFile));
+		Event event = null;
+
+		try {
+			Iterator<Event> events = new Yaml().parse(reader).iterator();
+			while (!(events.next() instanceof SequenceStartEvent)) {
+				continue;
+			}
+			while (!((event = events.next()) instanceof SequenceEndEvent)) {
+				if (event instanceof MappingStartEvent) {
+					Block block = new YAMLBlock();
+					block.loadFromEvents(events);
+					blocks.add(block);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * This operation writes a MOOSE syntax dump of about the requested size.
+	 * 
+	 * @param yamlFile
+	 *            The file
+	 * @return The number of top-level blocks
+	 */
+	private static int writeFile(File yamlFile) throws Exception {
+
+		// Local Declarations
+		Writer writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(yamlFile), "UTF-8"));
+		int numBlocks = 0;
+		long size = 0;
+
+		try {
+			while (size < fileSize) {
+				StringBuilder builder = new StringBuilder();
+				String name = "/Block" + numBlocks;
+				builder.append("- name: " + name + "\n");
+				builder.append("  description: The " + name + " block\n");
+				builder.append("  type: \n");
+				builder.append("  parameters:\n");
+				builder.append("  subblocks:\n");
+				for (int i = 0; i < numSubblocks; i++) {
+					String subname = name + "/Object" + i;
+					builder.append("  - name: " + subname + "\n");
+					builder.append("    description: ''\n");
+					builder.append("    parameters:\n");
+					for (int j = 0; j < numParameters; j++) {
+						builder.append("    - name: param_" + j + "\n");
+						builder.append("      required: "
+								+ (j % 5 == 0 ? "Yes" : "No") + "\n");
+						builder.append("      default: '" + (j * 0.5) + "'\n");
+						builder.append("      cpp_type: "
+								+ (j % 3 == 0 ? "MooseEnum" : "Real") + "\n");
+						builder.append("      options: FIRST SECOND THIRD\n");
+						builder.append("      group_name: \n");
+						builder.append("      description: The parameter "
+								+ j + " of " + subname
+								+ ", which controls something important\n");
+					}
+					builder.append("    subblocks:\n");
+				}
+				writer.write(builder.toString());
+				size += builder.length();
+				numBlocks++;
+			}
+		} finally {
+			writer.close();
+		}
+
+		return numBlocks;
+	}
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.GodfreyEngine;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class checks that the GodfreyEngine computes the same pin power
+ * differences, axial powers and radial powers as the loops of the Godfrey
+ * sub-strategies, both on the calling thread and in parallel, and that it
+ * keeps the right statistics over a history of state points.
+ * </p>
+ *
+ * @author agent
+ */
+public class GodfreyEngineTester {
+
+	/**
+	 * The tolerance used to compare the results.
+	 */
+	private static final double tolerance = 1.0e-10;
+
+	/**
+	 * This operation creates random values near a given value.
+	 *
+	 * @param random
+	 *            The random number generator
+	 * @param size
+	 *            The number of values
+	 * @param mean
+	 *            The value to scatter the values around
+	 * @return The values
+	 */
+	private double[] createValues(Random random, int size, double mean) {
+
+		// Local Declarations
+		double[] values = new double[size];
+
+		for (int i = 0; i < size; i++) {
+			values[i] = mean + 0.1 * random.nextGaussian();
+		}
+
+		return values;
+	}
+
+	/**
+	 * This operation computes the Godfrey statistics of one state point with
+	 * the loops of the PinPowerDifference, AxialPower and RadialPower
+	 * sub-strategies and checks that the engine has the same values.
+	 *
+	 * @param engine
+	 *            The engine, which must have just processed the state point
+	 * @param powers
+	 *            The pin powers of the state point
+	 * @param ref
+	 *            The reference pin powers
+	 * @param weights
+	 *            The weights
+	 * @param mesh
+	 *            The axial mesh
+	 * @param relative
+	 *            True if the differences are relative
+	 */
+	private void checkStatePoint(GodfreyEngine engine, double[] powers,
+			double[] ref, double[] weights, double[] mesh, boolean relative) {
+
+		// Local Declarations
+		int nAssemblies = engine.getNumberOfAssemblies();
+		int nAxial = engine.getNumberOfAxialLevels();
+		int nPins = engine.getNumberOfPinRows() * engine.getNumberOfPinCols();
+		double[] diff = new double[powers.length];
+		double maxDiff = 0.0, diffSquareSum = 0.0, weightSum = 0.0;
+
+		// Compute the differences
+		for (int i = 0; i < powers.length; i++) {
+			diff[i] = powers[i] - ref[i];
+			if (relative) {
+				diff[i] /= ref[i];
+			}
+			maxDiff = Math.max(maxDiff, Math.abs(diff[i]));
+			diffSquareSum += diff[i] * diff[i] * weights[i];
+			weightSum += weights[i];
+		}
+		assertEquals(maxDiff, engine.getMaxPinPowerDifference(), tolerance);
+		assertEquals(maxDiff,
+				Math.abs(diff[engine.getMaxPinPowerDifferenceIndex()]),
+				tolerance);
+		assertEquals(Math.sqrt(diffSquareSum / weightSum),
+				engine.getPinPowerDifferenceRMS(), tolerance);
+
+		// Compute the axial powers
+		double sum = 0.0, rmsSum = 0.0, diffSum = 0.0, diffRMSSum = 0.0;
+		double meshSum = 0.0;
+		for (int k = 0; k < nAxial; k++) {
+			double powerSum = 0.0, levelDiffSum = 0.0, levelWeightSum = 0.0;
+			for (int l = 0; l < nAssemblies; l++) {
+				for (int p = 0; p < nPins; p++) {
+					int index = (l * nAxial + k) * nPins + p;
+					powerSum += powers[index] * weights[index];
+					levelDiffSum += diff[index] * weights[index];
+					levelWeightSum += weights[index];
+				}
+			}
+			double power = Math.sqrt(Math.abs(powerSum / levelWeightSum));
+			double powerDiff = Math.sqrt(Math.abs(levelDiffSum
+					/ levelWeightSum));
+			assertEquals(power, engine.getAxialPower()[k], tolerance);
+			assertEquals(powerDiff, engine.getAxialPowerDifference()[k],
+					tolerance);
+			sum += power * mesh[k];
+			rmsSum += power * power * mesh[k];
+			diffSum += powerDiff * mesh[k];
+			diffRMSSum += powerDiff * powerDiff * mesh[k];
+			meshSum += mesh[k];
+		}
+		assertEquals(sum / meshSum, engine.getAxialPowerAverage(), tolerance);
+		assertEquals(Math.sqrt(rmsSum / meshSum), engine.getAxialPowerRMS(),
+				tolerance);
+		assertEquals(diffSum / meshSum,
+				engine.getAxialPowerDifferenceAverage(), tolerance);
+		assertEquals(Math.sqrt(diffRMSSum / meshSum),
+				engine.getAxialPowerDifferenceRMS(), tolerance);
+
+		// Compute the radial powers
+		sum = 0.0;
+		rmsSum = 0.0;
+		diffSum = 0.0;
+		diffRMSSum = 0.0;
+		weightSum = 0.0;
+		for (int l = 0; l < nAssemblies; l++) {
+			for (int p = 0; p < nPins; p++) {
+				double powerSum = 0.0, pinDiffSum = 0.0, dr = 0.0;
+				for (int k = 0; k < nAxial; k++) {
+					int index = (l * nAxial + k) * nPins + p;
+					powerSum += powers[index] * weights[index];
+					pinDiffSum += diff[index] * weights[index];
+					dr += weights[index];
+				}
+				assertEquals(Math.sqrt(Math.abs(powerSum / dr)),
+						engine.getRadialPower()[l * nPins + p], tolerance);
+				assertEquals(Math.sqrt(Math.abs(pinDiffSum / dr)),
+						engine.getRadialPowerDifference()[l * nPins + p],
+						tolerance);
+				for (int k = 0; k < nAxial; k++) {
+					int index = (l * nAxial + k) * nPins + p;
+					sum += powers[index] * dr;
+					rmsSum += powers[index] * powers[index] * dr;
+					diffSum += diff[index] * dr;
+					diffRMSSum += diff[index] * diff[index] * dr;
+					weightSum += dr;
+				}
+			}
+		}
+		assertEquals(Math.abs(sum / weightSum),
+				engine.getRadialPowerAverage(), tolerance);
+		assertEquals(Math.sqrt(rmsSum / weightSum),
+				engine.getRadialPowerRMS(), tolerance);
+		assertEquals(Math.abs(diffSum / weightSum),
+				engine.getRadialPowerDifferenceAverage(), tolerance);
+		assertEquals(Math.sqrt(diffRMSSum / weightSum),
+				engine.getRadialPowerDifferenceRMS(), tolerance);
+
+		return;
+	}
+
+	/**
+	 * This operation checks a single state point with basic and relative
+	 * differences on the calling thread.
+	 */
+	@Test
+	public void checkStatePoint() {
+
+		// Local Declarations
+		Random random = new Random(5);
+		int nAssemblies = 3, nAxial = 4, nRows = 3, nCols = 2;
+		int size = nAssemblies * nAxial * nRows * nCols;
+		double[] ref = createValues(random, size, 1.0);
+		double[] weights = createValues(random, size, 1.0);
+		double[] mesh = createValues(random, nAxial, 2.0);
+		double[] powers = createValues(random, size, 1.0);
+		GodfreyEngine engine = new GodfreyEngine(nAssemblies, nAxial, nRows,
+				nCols, ref, weights, mesh);
+
+		// Check the basic differences
+		assertFalse(engine.isRelativeDifference());
+		assertEquals(0, engine.process(powers));
+		checkStatePoint(engine, powers, ref, weights, mesh, false);
+
+		// Check the relative differences
+		engine.setRelativeDifference(true);
+		assertEquals(1, engine.process(powers));
+		checkStatePoint(engine, powers, ref, weights, mesh, true);
+
+		// Bad arrays should be rejected
+		try {
+			engine.process(new double[size - 1]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Good
+		}
+		try {
+			new GodfreyEngine(nAssemblies, nAxial, nRows, nCols, ref,
+					new double[size + 1], null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Good
+		}
+		assertEquals(2, engine.getNumberOfStatePoints());
+
+		return;
+	}
+
+	/**
+	 * This operation checks a history of state points that is large enough to
+	 * be processed in parallel.
+	 */
+	@Test
+	public void checkHistory() {
+
+		// Local Declarations
+		Random random = new Random(11);
+		int nAssemblies = 37, nAxial = 12, nRows = 17, nCols = 17;
+		int nPins = nRows * nCols, size = nAssemblies * nAxial * nPins;
+		int nStatePoints = 5;
+		double[] ref = createValues(random, size, 1.0);
+		double[] weights = new double[size];
+		double[] mesh = new double[nAxial];
+		double[] maxDiffs = new double[nStatePoints];
+		double[] radialDiffSums = new double[nAssemblies * nPins];
+		double[] radialDiffSquareSums = new double[nAssemblies * nPins];
+		double[] axialDiffSums = new double[nAxial];
+		GodfreyEngine engine;
+
+		// Use full symmetry weights and a uniform mesh
+		Arrays.fill(weights, 1.0);
+		Arrays.fill(mesh, 1.0);
+		engine = new GodfreyEngine(nAssemblies, nAxial, nRows, nCols, ref,
+				weights, null);
+
+		// Process the state points, reusing the same array for each one
+		double[] powers = new double[size];
+		for (int i = 0; i < nStatePoints; i++) {
+			for (int j = 0; j < size; j++) {
+				powers[j] = ref[j] + 0.01 * (i + 1) * random.nextGaussian();
+			}
+			assertEquals(i, engine.process(powers));
+			checkStatePoint(engine, powers, ref, weights, mesh, false);
+			maxDiffs[i] = engine.getMaxPinPowerDifference();
+			for (int j = 0; j < radialDiffSums.length; j++) {
+				double diff = engine.getRadialPowerDifference()[j];
+				radialDiffSums[j] += diff;
+				radialDiffSquareSums[j] += diff * diff;
+			}
+			for (int k = 0; k < nAxial; k++) {
+				axialDiffSums[k] += engine.getAxialPowerDifference()[k];
+			}
+		}
+
+		// Check the history
+		assertEquals(nStatePoints, engine.getNumberOfStatePoints());
+		assertArrayEquals(maxDiffs, engine.getMaxPinPowerDifferenceHistory(),
+				0.0);
+		assertEquals(engine.getRadialPowerDifferenceRMS(),
+				engine.getRadialPowerDifferenceRMSHistory()[nStatePoints - 1],
+				0.0);
+		double[] radialMean = engine.getRadialPowerDifferenceMean();
+		double[] radialRMS = engine.getRadialPowerDifferenceRMSOverHistory();
+		for (int j = 0; j < radialDiffSums.length; j++) {
+			assertEquals(radialDiffSums[j] / nStatePoints, radialMean[j],
+					tolerance);
+			assertEquals(Math.sqrt(radialDiffSquareSums[j] / nStatePoints),
+					radialRMS[j], tolerance);
+		}
+		double[] axialMean = engine.getAxialPowerDifferenceMean();
+		for (int k = 0; k < nAxial; k++) {
+			assertEquals(axialDiffSums[k] / nStatePoints, axialMean[k],
+					tolerance);
+		}
+
+		// Resetting should clear the history
+		engine.reset();
+		assertEquals(0, engine.getNumberOfStatePoints());
+		assertEquals(0, engine.getMaxPinPowerDifferenceHistory().length);
+		engine.process(powers);
+		assertEquals(engine.getRadialPowerDifference()[0],
+				engine.getRadialPowerDifferenceMean()[0], 0.0);
+
+		return;
+	}
+}
@@ -22,6 +22,7 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Random;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -30,8 +31,13 @@ import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ice.kdd.kddmath.IDataMatrix;
 import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.AxialPower;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.GodfreyEngine;
 import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.GodfreyStrategy;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.PinPowerDifference;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.RadialPower;
 import org.eclipse.ice.kdd.test.fakeobjects.FakeSubStrategyFactory;
 import org.eclipse.ice.kdd.test.fakeobjects.SimpleData;
 import org.eclipse.ice.kdd.test.fakeobjects.SimpleDataProvider;
@@ -158,6 +164,126 @@ public class GodfreyStrategyTester {
 
 	}
 
+	/**
+	 * <p>
+	 * Checks that executeHistory() computes the same statistics for each state
+	 * point of a small history as the PinPowerDifference, AxialPower and
+	 * RadialPower sub-strategies do when they are run on each state point by
+	 * themselves.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkExecuteHistory() {
+
+		// Local Declarations
+		int rows = 3, cols = 2, axial = 4, assemblies = 3, nStatePoints = 4;
+		double tolerance = 1.0e-10;
+		Random random = new Random(13);
+		ArrayList<IData> refData = createStatePoint(random, rows, cols, axial,
+				assemblies);
+		ArrayList<ArrayList<IData>> history = new ArrayList<ArrayList<IData>>();
+		HashMap<Integer, ArrayList<IDataMatrix>> refMatrices;
+		HashMap<Integer, ArrayList<KDDMatrix>> fullWeights = new HashMap<Integer, ArrayList<KDDMatrix>>();
+		HashMap<String, String> props = new HashMap<String, String>();
+		double[] axialDiffSums = new double[axial];
+		AxialPower axialPower = null;
+		RadialPower radialPower = null;
+
+		// Create the history
+		for (int s = 0; s < nStatePoints; s++) {
+			history.add(createStatePoint(random, rows, cols, axial, assemblies));
+		}
+
+		// Run the history through the strategy
+		godfreyStrategy = new GodfreyStrategy(rows, cols, axial, assemblies,
+				history.get(0), refData);
+		GodfreyEngine engine = godfreyStrategy.executeHistory(history);
+		assertNotNull(engine);
+		assertEquals(nStatePoints, engine.getNumberOfStatePoints());
+
+		// Create the inputs of the sub-strategies. Full symmetry weights are
+		// all one.
+		refMatrices = partition(refData, rows, cols, axial, assemblies);
+		KDDMatrix weight = new KDDMatrix(rows, cols);
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				weight.setElement(i, j, 1.0);
+			}
+		}
+		for (int l = 0; l < assemblies; l++) {
+			ArrayList<KDDMatrix> levels = new ArrayList<KDDMatrix>();
+			for (int k = 0; k < axial; k++) {
+				levels.add(weight);
+			}
+			fullWeights.put(l, levels);
+		}
+		props.put("Difference Type", "Basic");
+
+		// Run the sub-strategies on each state point and compare them to the
+		// history kept by the engine
+		for (int s = 0; s < nStatePoints; s++) {
+			HashMap<Integer, ArrayList<IDataMatrix>> pinPowers = partition(
+					history.get(s), rows, cols, axial, assemblies);
+			PinPowerDifference difference = new PinPowerDifference(pinPowers,
+					refMatrices, props);
+			axialPower = new AxialPower(difference, pinPowers, refMatrices,
+					fullWeights);
+			radialPower = new RadialPower(difference, pinPowers, refMatrices,
+					fullWeights);
+			axialPower.executeStrategy();
+			radialPower.executeStrategy();
+
+			// Check the largest pin power difference
+			double maxDiff = 0.0;
+			for (int l = 0; l < assemblies; l++) {
+				for (int k = 0; k < axial; k++) {
+					KDDMatrix diff = difference.getPinPowerDifference().get(l)
+							.get(k);
+					for (int i = 0; i < rows; i++) {
+						for (int j = 0; j < cols; j++) {
+							maxDiff = Math.max(maxDiff,
+									Math.abs(diff.getElement(i, j)));
+						}
+					}
+				}
+			}
+			assertEquals(maxDiff, engine.getMaxPinPowerDifferenceHistory()[s],
+					tolerance);
+
+			// Check the axial and radial power differences
+			assertEquals(axialPower.getAxialPowerDifferenceRMS(),
+					engine.getAxialPowerDifferenceRMSHistory()[s], tolerance);
+			assertEquals(radialPower.getRadialPowerDifferenceRMS(),
+					engine.getRadialPowerDifferenceRMSHistory()[s], tolerance);
+			for (int k = 0; k < axial; k++) {
+				axialDiffSums[k] += axialPower.getAxialPowerDifference()
+						.getElement(k, 0);
+			}
+		}
+
+		// The engine should hold the full results of the last state point
+		for (int k = 0; k < axial; k++) {
+			assertEquals(axialPower.getAxialPower().getElement(k, 0),
+					engine.getAxialPower()[k], tolerance);
+			assertEquals(axialDiffSums[k] / nStatePoints,
+					engine.getAxialPowerDifferenceMean()[k], tolerance);
+		}
+		assertEquals(axialPower.getAxialPowerAverage(),
+				engine.getAxialPowerAverage(), tolerance);
+		assertEquals(axialPower.getAxialPowerRMS(), engine.getAxialPowerRMS(),
+				tolerance);
+		assertEquals(radialPower.getRadialPowerAverage(),
+				engine.getRadialPowerAverage(), tolerance);
+		assertEquals(radialPower.getRadialPowerRMS(),
+				engine.getRadialPowerRMS(), tolerance);
+
+		// A state point with the wrong number of pins should be rejected
+		history.add(new ArrayList<IData>(refData.subList(1, refData.size())));
+		assertNull(godfreyStrategy.executeHistory(history));
+
+	}
+
 	/**
 	 * <p>
 	 * Checks that we can get and set properties correctly.
@@ -179,6 +305,89 @@ public class GodfreyStrategyTester {
 
 	}
 
+	/**
+	 * <p>
+	 * Creates the pin powers of a random state point, ordered by assembly,
+	 * axial level and then pin. The z position of each pin is one more than
+	 * its axial level.
+	 * </p>
+	 * 
+	 * @param random
+	 *            The random number generator
+	 * @param rows
+	 *            The number of pin rows
+	 * @param cols
+	 *            The number of pin columns
+	 * @param axial
+	 *            The number of axial levels
+	 * @param assemblies
+	 *            The number of assemblies
+	 * @return The pin powers
+	 */
+	private ArrayList<IData> createStatePoint(Random random, int rows,
+			int cols, int axial, int assemblies) {
+
+		ArrayList<IData> statePoint = new ArrayList<IData>();
+		ArrayList<Double> pos = new ArrayList<Double>();
+		SimpleData data;
+
+		for (int l = 0; l < assemblies; l++) {
+			for (int k = 0; k < axial; k++) {
+				for (int p = 0; p < rows * cols; p++) {
+					data = new SimpleData("Data",
+							1.0 + 0.1 * random.nextGaussian());
+					data.setUncertainty(0.0);
+					pos.clear();
+					pos.add(0.0);
+					pos.add(0.0);
+					pos.add(k + 1.0);
+					data.setPosition(pos);
+					statePoint.add(data);
+				}
+			}
+		}
+
+		return statePoint;
+	}
+
+	/**
+	 * <p>
+	 * Splits the pin powers of a state point into one matrix per axial level
+	 * of each assembly, like the GodfreyStrategy does.
+	 * </p>
+	 * 
+	 * @param statePoint
+	 *            The pin powers
+	 * @param rows
+	 *            The number of pin rows
+	 * @param cols
+	 *            The number of pin columns
+	 * @param axial
+	 *            The number of axial levels
+	 * @param assemblies
+	 *            The number of assemblies
+	 * @return The matrices of each assembly
+	 */
+	private HashMap<Integer, ArrayList<IDataMatrix>> partition(
+			ArrayList<IData> statePoint, int rows, int cols, int axial,
+			int assemblies) {
+
+		HashMap<Integer, ArrayList<IDataMatrix>> matrices = new HashMap<Integer, ArrayList<IDataMatrix>>();
+		int nPins = rows * cols;
+
+		for (int l = 0; l < assemblies; l++) {
+			ArrayList<IDataMatrix> levels = new ArrayList<IDataMatrix>();
+			for (int k = 0; k < axial; k++) {
+				int offset = (l * axial + k) * nPins;
+				levels.add(new IDataMatrix(rows, cols, new ArrayList<IData>(
+						statePoint.subList(offset, offset + nPins))));
+			}
+			matrices.put(l, levels);
+		}
+
+		return matrices;
+	}
+
 	/**
 	 * 
 	 * @return
@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark that compares the KDDMatrix with the
+ * boxed ArrayList<Double> storage that it replaced. It builds pin power data
+ * for 193 assemblies with 49 axial levels of 17x17 pins, along with reference
+ * data and uncertainties, and times the operations used by the Godfrey and
+ * k-means strategies: subtracting the reference data, scaling by the
+ * uncertainty, normalizing, transposing and reading each row. The data is
+ * processed both as one 17x17 matrix per assembly and axial level and as a
+ * single matrix with one row per assembly and axial level.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line.
+ * </p>
+ *
+ * @author agent
+ */
+public class KDDMatrixBenchmark {
+
+	/**
+	 * The number of assemblies.
+	 */
+	private static final int nAssemblies = 193;
+
+	/**
+	 * The number of axial levels in each assembly.
+	 */
+	private static final int nAxial = 49;
+
+	/**
+	 * The number of pin rows and columns in each assembly.
+	 */
+	private static final int nPins = 17;
+
+	/**
+	 * The number of timed runs of each implementation.
+	 */
+	private static final int numIterations = 5;
+
+	/**
+	 * This operation runs the benchmark.
+	 *
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) {
+
+		// Local Declarations
+		int nMatrices = nAssemblies * nAxial, nElements = nPins * nPins;
+		Random random = new Random(1);
+		double[][] data = new double[3][nMatrices * nElements];
+		long[] times = new long[4];
+		double checksum = 0.0;
+
+		// Create the pin powers, reference powers and uncertainties
+		for (int i = 0; i < data[0].length; i++) {
+			data[0][i] = 1.0 + 0.1 * random.nextGaussian();
+			data[1][i] = 1.0 + 0.1 * random.nextGaussian();
+			data[2][i] = 0.01 + 0.001 * random.nextDouble();
+		}
+
+		// Warm up both implementations
+		for (int i = 0; i < 2; i++) {
+			checksum += runBoxed(data, nMatrices, nPins, nPins);
+			checksum += runPrimitive(data, nMatrices, nPins, nPins);
+			checksum += runBoxed(data, 1, nMatrices, nElements);
+			checksum += runPrimitive(data, 1, nMatrices, nElements);
+		}
+
+		// Time them
+		for (int i = 0; i < numIterations; i++) {
+			long start = System.nanoTime();
+			checksum += runBoxed(data, nMatrices, nPins, nPins);
+			times[0] += System.nanoTime() - start;
+			start = System.nanoTime();
+			checksum += runPrimitive(data, nMatrices, nPins, nPins);
+			times[1] += System.nanoTime() - start;
+			start = System.nanoTime();
+			checksum += runBoxed(data, 1, nMatrices, nElements);
+			times[2] += System.nanoTime() - start;
+			start = System.nanoTime();
+			checksum += runPrimitive(data, 1, nMatrices, nElements);
+			times[3] += System.nanoTime() - start;
+		}
+
+		// Report the results
+		System.out.println("KDDMatrixBenchmark: " + nAssemblies
+				+ " assemblies, " + nAxial + " axial levels, " + nPins + "x"
+				+ nPins + " pins (checksum " + checksum + ")");
+		report(nMatrices + " " + nPins + "x" + nPins + " matrices", times[0],
+				times[1]);
+		report("1 " + nMatrices + "x" + nElements + " matrix", times[2],
+				times[3]);
+
+		return;
+	}
+
+	/**
+	 * This operation prints the results for one shape of matrix.
+	 *
+	 * @param shape
+	 *            The shape of the matrices
+	 * @param boxedTime
+	 *            The total time of the boxed implementation in nanoseconds
+	 * @param primitiveTime
+	 *            The total time of the KDDMatrix in nanoseconds
+	 */
+	private static void report(String shape, long boxedTime, long primitiveTime) {
+		System.out.println("\t" + shape + ": ArrayList<Double> (ms) "
+				+ boxedTime / 1.0e6 / numIterations + ", KDDMatrix (ms) "
+				+ primitiveTime / 1.0e6 / numIterations + ", speedup "
+				+ (double) boxedTime / primitiveTime);
+	}
+
+	/**
+	 * This operation runs the operations on KDDMatrices.
+	 *
+	 * @param data
+	 *            The powers, reference powers and uncertainties
+	 * @param nMatrices
+	 *            The number of matrices to split the data into
+	 * @param nRows
+	 *            The number of rows in each matrix
+	 * @param nCols
+	 *            The number of columns in each matrix
+	 * @return The sum of the rows, to keep the work from being optimized away
+	 */
+	private static double runPrimitive(double[][] data, int nMatrices,
+			int nRows, int nCols) {
+
+		// Local Declarations
+		int size = nRows * nCols;
+		double sum = 0.0;
+
+		for (int m = 0; m < nMatrices; m++) {
+			// Create the matrices
+			KDDMatrix[] matrices = new KDDMatrix[3];
+			for (int k = 0; k < 3; k++) {
+				double[] elements = new double[size];
+				System.arraycopy(data[k], m * size, elements, 0, size);
+				matrices[k] = new KDDMatrix(elements, nRows, nCols);
+			}
+			// Run the operations
+			matrices[0].subtract(matrices[1]);
+			matrices[0].scaleByUncertainty(matrices[2]);
+			matrices[0].rowNormalize();
+			matrices[0].transpose();
+			// Read the rows of the transposed matrix
+			for (int i = 0; i < nCols; i++) {
+				KDDMatrix row = matrices[0].getRow(i);
+				for (int j = 0; j < nRows; j++) {
+					sum += row.get(0, j);
+				}
+			}
+		}
+
+		return sum;
+	}
+
+	/**
+	 * This operation runs the operations on BoxedMatrices.
+	 *
+	 * @param data
+	 *            The powers, reference powers and uncertainties
+	 * @param nMatrices
+	 *            The number of matrices to split the data into
+	 * @param nRows
+	 *            The number of rows in each matrix
+	 * @param nCols
+	 *            The number of columns in each matrix
+	 * @return The sum of the rows, to keep the work from being optimized away
+	 */
+	private static double runBoxed(double[][] data, int nMatrices, int nRows,
+			int nCols) {
+
+		// Local Declarations
+		int size = nRows * nCols;
+		double sum = 0.0;
+
+		for (int m = 0; m < nMatrices; m++) {
+			// Create the matrices
+			BoxedMatrix[] matrices = new BoxedMatrix[3];
+			for (int k = 0; k < 3; k++) {
+				ArrayList<Double> elements = new ArrayList<Double>(size);
+				for (int i = 0; i < size; i++) {
+					elements.add(data[k][m * size + i]);
+				}
+				matrices[k] = new BoxedMatrix(elements, nRows, nCols);
+			}
+			// Run the operations
+			matrices[0].subtract(matrices[1]);
+			matrices[0].scaleByUncertainty(matrices[2]);
+			matrices[0].rowNormalize();
+			matrices[0].transpose();
+			// Read the rows of the transposed matrix
+			for (int i = 0; i < nCols; i++) {
+				BoxedMatrix row = matrices[0].getRow(i);
+				for (int j = 0; j < nRows; j++) {
+					sum += row.getElement(0, j);
+				}
+			}
+		}
+
+		return sum;
+	}
+
+	/**
+	 * This class is a copy of the operations of the KDDMatrix when it stored
+	 * its elements in an ArrayList<Double>.
+	 *
+	 * @author agent
+	 */
+	private static class BoxedMatrix {
+
+		/**
+		 * The elements in row major order.
+		 */
+		private ArrayList<Double> elements;
+
+		/**
+		 * The number of rows.
+		 */
+		private int nRows;
+
+		/**
+		 * The number of columns.
+		 */
+		private int nCols;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param elements
+		 *            The elements in row major order
+		 * @param nRows
+		 *            The number of rows
+		 * @param nCols
+		 *            The number of columns
+		 */
+		public BoxedMatrix(ArrayList<Double> elements, int nRows, int nCols) {
+			this.elements = elements;
+			this.nRows = nRows;
+			this.nCols = nCols;
+		}
+
+		public Double getElement(int rowIndex, int colIndex) {
+			if (rowIndex < 0 || colIndex < 0 || rowIndex >= nRows
+					|| colIndex >= nCols) {
+				return null;
+			}
+			return elements.get(nCols * rowIndex + colIndex);
+		}
+
+		public boolean setElement(int rowIndex, int colIndex, Double value) {
+			if (value == null || rowIndex < 0 || colIndex < 0
+					|| rowIndex >= nRows || colIndex >= nCols) {
+				return false;
+			}
+			elements.set(nCols * rowIndex + colIndex, value);
+			return true;
+		}
+
+		public void subtract(BoxedMatrix matrix) {
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					setElement(i, j, getElement(i, j) - matrix.getElement(i, j));
+				}
+			}
+		}
+
+		public void scaleByUncertainty(BoxedMatrix uncertainty) {
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					setElement(i, j,
+							getElement(i, j) / uncertainty.getElement(i, j));
+				}
+			}
+		}
+
+		public void rowNormalize() {
+			ArrayList<Double> rowSums = new ArrayList<Double>();
+			for (int i = 0; i < nRows; i++) {
+				Double rowSum = 0.0;
+				for (int j = 0; j < nCols; j++) {
+					rowSum = rowSum + getElement(i, j);
+				}
+				rowSums.add(rowSum);
+			}
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					setElement(i, j, getElement(i, j) / rowSums.get(i));
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		public void transpose() {
+			int oldNRows = nRows, oldNCols = nCols;
+			nRows = oldNCols;
+			nCols = oldNRows;
+			BoxedMatrix oldMatrix = new BoxedMatrix(
+					(ArrayList<Double>) elements.clone(), oldNRows, oldNCols);
+			elements.clear();
+			for (int i = 0; i < nRows * nCols; i++) {
+				elements.add(0.0);
+			}
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					setElement(i, j, oldMatrix.getElement(j, i));
+				}
+			}
+		}
+
+		public BoxedMatrix getRow(int index) {
+			ArrayList<Double> rowElements = new ArrayList<Double>(nCols);
+			for (int i = 0; i < nCols; i++) {
+				rowElements.add(0.0);
+			}
+			BoxedMatrix row = new BoxedMatrix(rowElements, 1, nCols);
+			for (int i = 0; i < nCols; i++) {
+				row.setElement(0, i, getElement(index, i));
+			}
+			return row;
+		}
+	}
+}
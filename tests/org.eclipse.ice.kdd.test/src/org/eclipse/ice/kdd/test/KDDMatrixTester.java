@@ -243,6 +243,38 @@ public class KDDMatrixTester {
 			}
 		}
 
+		// Give each column a different scale and column normalize it
+		for (int i = 0; i < nRows; i++) {
+			for (int j = 0; j < nCols; j++) {
+				assertTrue(matrix.setElement(i, j, (i + 1.0) * (j + 1.0)));
+			}
+		}
+		matrix.columnNormalize();
+
+		// Each column is now (1, 2, 3, 4) / 10
+		for (int i = 0; i < nRows; i++) {
+			for (int j = 0; j < nCols; j++) {
+				assertEquals((i + 1.0) / 10.0, matrix.getElement(i, j), 1.0e-15);
+			}
+		}
+
+		// Normalize a matrix that is large enough to be split across threads
+		// and make sure the rows were all normalized
+		KDDMatrix large = new KDDMatrix(3000, 50);
+		for (int i = 0; i < large.numberOfRows(); i++) {
+			for (int j = 0; j < large.numberOfColumns(); j++) {
+				large.set(i, j, i + j + 1.0);
+			}
+		}
+		large.rowNormalize();
+		for (int i = 0; i < large.numberOfRows(); i++) {
+			double sum = 0.0;
+			for (int j = 0; j < large.numberOfColumns(); j++) {
+				sum += large.get(i, j);
+			}
+			assertEquals(1.0, sum, 1.0e-12);
+		}
+
 	}
 
 	/**
@@ -545,8 +577,82 @@ public class KDDMatrixTester {
 	 * </p>
 	 * 
 	 */
+	@Test
 	public void checkGetRowColumn() {
-		// TODO Auto-generated method stub
 
+		// Create a 3x4 matrix where element (i,j) is 10 * i + j
+		KDDMatrix m = new KDDMatrix(3, 4);
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertTrue(m.setElement(i, j, 10.0 * i + j));
+			}
+		}
+
+		// Check a row
+		KDDMatrix row = m.getRow(1);
+		assertEquals(1, row.numberOfRows());
+		assertEquals(4, row.numberOfColumns());
+		for (int j = 0; j < 4; j++) {
+			assertTrue(row.getElement(0, j).equals(10.0 + j));
+		}
+
+		// Check a column
+		KDDMatrix column = m.getColumn(2);
+		assertEquals(3, column.numberOfRows());
+		assertEquals(1, column.numberOfColumns());
+		for (int i = 0; i < 3; i++) {
+			assertTrue(column.getElement(i, 0).equals(10.0 * i + 2));
+		}
+
+		// Bad indices should return null
+		assertNull(m.getRow(3));
+		assertNull(m.getRow(-1));
+		assertNull(m.getColumn(4));
+
+		// The vectors are views, so changes to them show up in the matrix and
+		// the other way around
+		assertTrue(row.setElement(0, 2, 99.0));
+		assertTrue(m.getElement(1, 2).equals(99.0));
+		assertTrue(column.getElement(1, 0).equals(99.0));
+		m.set(2, 2, -1.0);
+		assertEquals(-1.0, column.get(2, 0), 0.0);
+
+		// Transposing a row view gives a column vector of the same elements
+		row.transpose();
+		assertEquals(4, row.numberOfRows());
+		assertEquals(1, row.numberOfColumns());
+		assertTrue(row.getElement(3, 0).equals(13.0));
+
+		// Views of a transposed matrix work the same way
+		m.transpose();
+		row = m.getRow(3);
+		assertEquals(3, row.numberOfColumns());
+		assertTrue(row.getElement(0, 2).equals(23.0));
+		column = m.getColumn(0);
+		assertEquals(4, column.numberOfRows());
+		assertTrue(column.getElement(3, 0).equals(3.0));
+
+		// Adding a row to a view copies it, so the matrix is not changed
+		column.addRow();
+		assertEquals(5, column.numberOfRows());
+		assertTrue(column.getElement(4, 0).equals(0.0));
+		assertTrue(column.setElement(0, 0, 42.0));
+		assertTrue(m.getElement(0, 0).equals(0.0));
+
+		// A transposed matrix can still be added to one that is not
+		KDDMatrix sum = new KDDMatrix(4, 3);
+		assertTrue(sum.add(m));
+		assertTrue(sum.equals(m));
+		assertEquals(sum.hashCode(), m.hashCode());
+		assertFalse(sum.add(new KDDMatrix(3, 4)));
+
+		// Rows and columns can be added to the transposed matrix
+		assertEquals(4, m.addColumn());
+		assertTrue(m.getElement(3, 1).equals(13.0));
+		assertTrue(m.getElement(2, 3).equals(0.0));
+		assertTrue(m.deleteColumn());
+		assertTrue(m.equals(sum));
+
+		return;
 	}
 }
\ No newline at end of file
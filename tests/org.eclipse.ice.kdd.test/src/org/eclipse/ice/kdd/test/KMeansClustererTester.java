@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.KMeansClusterer;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class checks that the KMeansClusterer finds well separated clusters
+ * with both full and mini-batch k-means and that its full runs end in the
+ * same state as Lloyd's algorithm.
+ * </p>
+ *
+ * @author agent
+ */
+public class KMeansClustererTester {
+
+	/**
+	 * The centers of the test clusters.
+	 */
+	private static final double[][] centers = { { 0.0, 0.0, 0.0 },
+			{ 10.0, 0.0, 5.0 }, { 0.0, 10.0, -5.0 } };
+
+	/**
+	 * The number of points in each test cluster.
+	 */
+	private static final int clusterSize = 3000;
+
+	/**
+	 * This operation creates points scattered around the centers. The points
+	 * of each center are interleaved with the others.
+	 *
+	 * @return The points in row major order
+	 */
+	private double[] createClusters() {
+
+		// Local Declarations
+		Random random = new Random(42);
+		int nDimensions = centers[0].length;
+		double[] data = new double[centers.length * clusterSize * nDimensions];
+
+		for (int i = 0; i < centers.length * clusterSize; i++) {
+			double[] center = centers[i % centers.length];
+			for (int k = 0; k < nDimensions; k++) {
+				data[i * nDimensions + k] = center[k] + random.nextGaussian();
+			}
+		}
+
+		return data;
+	}
+
+	/**
+	 * This operation checks that the points were split into the test clusters
+	 * and that the centroids are close to the centers.
+	 *
+	 * @param clusterer
+	 *            The clusterer
+	 * @param centroidTolerance
+	 *            The largest allowed distance from a centroid to its center
+	 */
+	private void checkClusters(KMeansClusterer clusterer,
+			double centroidTolerance) {
+
+		// Local Declarations
+		int[] assignments = clusterer.getAssignments();
+		double[] centroids = clusterer.getCentroids();
+		int nDimensions = centers[0].length;
+		int[] centroidOfCenter = new int[centers.length];
+
+		// Every point from the same center should be in the same cluster and
+		// each center should have its own cluster.
+		for (int i = 0; i < centers.length; i++) {
+			centroidOfCenter[i] = assignments[i];
+			for (int j = 0; j < i; j++) {
+				assertTrue(centroidOfCenter[i] != centroidOfCenter[j]);
+			}
+		}
+		for (int i = 0; i < assignments.length; i++) {
+			assertEquals(centroidOfCenter[i % centers.length], assignments[i]);
+		}
+
+		// The centroids should be near the centers
+		for (int i = 0; i < centers.length; i++) {
+			double distance = 0.0;
+			for (int k = 0; k < nDimensions; k++) {
+				double difference = centroids[centroidOfCenter[i]
+						* nDimensions + k]
+						- centers[i][k];
+				distance += difference * difference;
+			}
+			assertTrue(Math.sqrt(distance) < centroidTolerance);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a full run finds the clusters and stops
+	 * early when it converges.
+	 */
+	@Test
+	public void checkCluster() {
+
+		// Local Declarations
+		double[] data = createClusters();
+		KMeansClusterer clusterer = new KMeansClusterer(data, data.length / 3,
+				3);
+
+		// Cluster it
+		clusterer.setSeed(1);
+		int iterations = clusterer.cluster(3, 100, 0.0);
+		assertTrue(clusterer.isConverged());
+		assertEquals(iterations, clusterer.getNumberOfIterations());
+		assertTrue(iterations < 100);
+		assertEquals(3, clusterer.getNumberOfClusters());
+		checkClusters(clusterer, 0.1);
+
+		// A single iteration should stop without converging
+		clusterer.setSeed(1);
+		assertEquals(1, clusterer.cluster(3, 1, 0.0));
+		assertFalse(clusterer.isConverged());
+
+		// Bad arguments should not produce clusters
+		assertEquals(0, clusterer.cluster(0, 10, 0.0));
+		assertEquals(0, clusterer.getNumberOfClusters());
+		try {
+			new KMeansClusterer(data, data.length, 3);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Good
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a mini-batch run finds the clusters.
+	 */
+	@Test
+	public void checkMiniBatch() {
+
+		// Local Declarations
+		double[] data = createClusters();
+		KMeansClusterer clusterer = new KMeansClusterer(data, data.length / 3,
+				3);
+
+		// Cluster it
+		clusterer.setSeed(2);
+		assertEquals(200, clusterer.clusterMiniBatch(3, 200, 100, 0.0));
+		assertFalse(clusterer.isConverged());
+		checkClusters(clusterer, 0.5);
+
+		// A large tolerance should stop it early
+		clusterer.setSeed(2);
+		assertTrue(clusterer.clusterMiniBatch(3, 200, 100, 1.0e3) < 200);
+		assertTrue(clusterer.isConverged());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a converged run on data without clear
+	 * clusters ends where Lloyd's algorithm would, with every point assigned
+	 * to its nearest centroid and every centroid at the mean of its points.
+	 */
+	@Test
+	public void checkLloydFixedPoint() {
+
+		// Local Declarations
+		Random random = new Random(7);
+		int nPoints = 20000, nDimensions = 4, nClusters = 8;
+		double[] data = new double[nPoints * nDimensions];
+		KMeansClusterer clusterer;
+
+		// Create uniform random points
+		for (int i = 0; i < data.length; i++) {
+			data[i] = random.nextDouble();
+		}
+
+		// Cluster them
+		clusterer = new KMeansClusterer(data, nPoints, nDimensions);
+		clusterer.setSeed(3);
+		clusterer.cluster(nClusters, 1000, 0.0);
+		assertTrue(clusterer.isConverged());
+		int[] assignments = clusterer.getAssignments();
+		double[] centroids = clusterer.getCentroids();
+
+		// Each point should be assigned to its nearest centroid
+		double[] sums = new double[nClusters * nDimensions];
+		int[] counts = new int[nClusters];
+		for (int i = 0; i < nPoints; i++) {
+			double nearest = Double.POSITIVE_INFINITY;
+			double assigned = 0.0;
+			for (int j = 0; j < nClusters; j++) {
+				double distance = 0.0;
+				for (int k = 0; k < nDimensions; k++) {
+					double difference = data[i * nDimensions + k]
+							- centroids[j * nDimensions + k];
+					distance += difference * difference;
+				}
+				nearest = Math.min(nearest, distance);
+				if (j == assignments[i]) {
+					assigned = distance;
+				}
+			}
+			assertEquals(nearest, assigned, 1.0e-12);
+			for (int k = 0; k < nDimensions; k++) {
+				sums[assignments[i] * nDimensions + k] += data[i
+						* nDimensions + k];
+			}
+			counts[assignments[i]]++;
+		}
+
+		// Each centroid should be the mean of its points
+		for (int j = 0; j < nClusters; j++) {
+			assertTrue(counts[j] > 0);
+			for (int k = 0; k < nDimensions; k++) {
+				assertEquals(sums[j * nDimensions + k] / counts[j],
+						centroids[j * nDimensions + k], 1.0e-9);
+			}
+		}
+
+		return;
+	}
+}
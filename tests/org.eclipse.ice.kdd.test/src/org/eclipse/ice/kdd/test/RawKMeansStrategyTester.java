@@ -117,6 +117,8 @@ public class RawKMeansStrategyTester {
 		props.put("Number of Iterations", "10");
 		props.put("Visualization Dimension", "2");
 		props.put("Distance Measure", "Euclidean");
+		props.put("Convergence Tolerance", "0.0");
+		props.put("Mini-Batch Size", "0");
 
 		// Assert they are equal to the actual props
 		assertTrue(kmeans.getProperties().equals(props));
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package xmlpp.test;
+
+import static org.junit.Assert.*;
+
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.persistence.xml.CompressedXMLPersistenceProvider;
+import org.eclipse.ice.persistence.xml.XMLPersistenceProvider;
+import org.eclipse.ice.vibe.launcher.VibeLauncherBuilder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests the CompressedXMLPersistenceProvider and the selection and
+ * migration of formats in the XMLPersistenceProvider.
+ *
+ * @author agent
+ *
+ */
+public class CompressedXMLPersistenceProviderTester {
+
+	/**
+	 * The Eclipse project used in the test.
+	 */
+	private static IProject project;
+
+	/**
+	 * This operation creates an empty project space for the test.
+	 */
+	@BeforeClass
+	static public void setup() {
+
+		// Local Declarations
+		IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
+
+		try {
+			// Start with a clean project
+			project = workspaceRoot.getProject("compressedItemDB");
+			if (project.exists()) {
+				project.delete(true, null);
+			}
+			project.create(null);
+			project.open(null);
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+			fail();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation cleans up after the test and removes the project space.
+	 */
+	@AfterClass
+	static public void teardown() {
+
+		// Delete the project.
+		try {
+			project.delete(true, null);
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates and starts a provider for the project.
+	 *
+	 * @param provider
+	 *            The provider
+	 * @return The provider
+	 */
+	private XMLPersistenceProvider startProvider(
+			XMLPersistenceProvider provider) {
+
+		// Register the builder and the JAXB classes
+		provider.addBuilder(new VibeLauncherBuilder());
+		provider.registerClassProvider(new ICEJAXBClassProvider());
+
+		try {
+			// Start the service
+			provider.start();
+		} catch (JAXBException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return provider;
+	}
+
+	/**
+	 * This is a utility operation that just delays the execution of the program
+	 * for the specified number of seconds.
+	 *
+	 * @param seconds
+	 *            The time to delay.
+	 */
+	private void pause(int seconds) {
+
+		try {
+			Thread.sleep(seconds * 1000);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that Items written by the XMLPersistenceProvider
+	 * can be read by the CompressedXMLPersistenceProvider, that the project
+	 * keeps its format, and that the Items can be migrated to compressed XML.
+	 */
+	@Test
+	public void checkMigration() {
+
+		// Local Declarations
+		Item item = new VibeLauncherBuilder().build(project);
+		item.setId(1);
+		String name = item.getName().replace(" ", "_") + "_" + item.getId()
+				+ ".xml";
+
+		// Persist the Item as plain XML
+		XMLPersistenceProvider xmlpp = startProvider(new XMLPersistenceProvider(
+				project));
+		assertEquals(XMLPersistenceProvider.xmlFormat, xmlpp.getFormat());
+		assertTrue(xmlpp.persistItem(item));
+		pause(2);
+		xmlpp.stop();
+		assertTrue(project.getFile(name).exists());
+
+		// The compressed provider should keep the format of the project and
+		// still be able to read the Item.
+		XMLPersistenceProvider compressedpp = startProvider(new CompressedXMLPersistenceProvider(
+				project));
+		assertEquals(XMLPersistenceProvider.xmlFormat, compressedpp.getFormat());
+		Item loadedItem = compressedpp.loadItem(1);
+		assertNotNull(loadedItem);
+		assertEquals(item.getName(), loadedItem.getName());
+
+		// Migrate it to compressed XML
+		assertTrue(compressedpp.setFormat(XMLPersistenceProvider.compressedFormat));
+		assertEquals(1, compressedpp.migrateItems());
+		pause(2);
+		assertFalse(project.getFile(name).exists());
+		assertTrue(project.getFile(name + ".gz").exists());
+
+		// Read it back
+		loadedItem = compressedpp.loadItem(1);
+		assertNotNull(loadedItem);
+		assertEquals(item.getName(), loadedItem.getName());
+		assertEquals(item.getId(), loadedItem.getId());
+		assertEquals(1, compressedpp.loadItemHeaders().size());
+
+		// Bad formats should be rejected
+		assertFalse(compressedpp.setFormat("json"));
+		assertEquals(XMLPersistenceProvider.compressedFormat,
+				compressedpp.getFormat());
+
+		// Delete it and make sure both copies are gone
+		assertTrue(compressedpp.deleteItem(item));
+		pause(2);
+		assertFalse(project.getFile(name).exists());
+		assertFalse(project.getFile(name + ".gz").exists());
+		compressedpp.stop();
+
+		return;
+	}
+
+}
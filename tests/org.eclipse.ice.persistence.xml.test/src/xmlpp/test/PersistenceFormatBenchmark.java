@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package xmlpp.test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.bind.JAXBContext;
+
+import org.eclipse.ice.datastructures.ICEObject.JAXBContextCache;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.MatrixComponent;
+import org.eclipse.ice.datastructures.form.TableComponent;
+import org.eclipse.ice.datastructures.form.mesh.Edge;
+import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
+import org.eclipse.ice.datastructures.form.mesh.Polygon;
+import org.eclipse.ice.datastructures.form.mesh.Vertex;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark that compares the plain XML format of
+ * the XMLPersistenceProvider with the compressed XML format of the
+ * CompressedXMLPersistenceProvider. It builds a Form like those of the reactor
+ * and mesh Items, with a MeshComponent of quads, a square MatrixComponent and
+ * a large TableComponent, and measures the time to save and load it in each
+ * format along with the size of the file on disk.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line.
+ * </p>
+ *
+ * @author agent
+ */
+public class PersistenceFormatBenchmark {
+
+	/**
+	 * The number of quads along each side of the mesh.
+	 */
+	private static final int meshSize = 60;
+
+	/**
+	 * The number of rows and columns in the matrix.
+	 */
+	private static final int matrixSize = 60;
+
+	/**
+	 * The number of rows in the table.
+	 */
+	private static final int tableRows = 2000;
+
+	/**
+	 * The number of save/load cycles timed for each format.
+	 */
+	private static final int numIterations = 10;
+
+	/**
+	 * This operation runs the benchmark.
+	 *
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) throws Exception {
+
+		// Local Declarations
+		Form form = createForm();
+		ArrayList<Class> classList = new ArrayList<Class>(
+				new ICEJAXBClassProvider().getClasses());
+		classList.add(Form.class);
+		JAXBContext context = JAXBContextCache.getContext(classList);
+		File xmlFile = File.createTempFile("benchmark", ".xml");
+		File compressedFile = File.createTempFile("benchmark", ".xml.gz");
+		long[] xmlTimes = new long[2], compressedTimes = new long[2];
+
+		// Warm up both formats
+		for (int i = 0; i < 2; i++) {
+			run(context, form, xmlFile, false, new long[2]);
+			run(context, form, compressedFile, true, new long[2]);
+		}
+
+		// Time them
+		for (int i = 0; i < numIterations; i++) {
+			run(context, form, xmlFile, false, xmlTimes);
+			run(context, form, compressedFile, true, compressedTimes);
+		}
+
+		// Report the results
+		System.out.println("PersistenceFormatBenchmark: " + meshSize
+				* meshSize + " quads, " + matrixSize + "x" + matrixSize
+				+ " matrix, " + tableRows + " table rows");
+		report("XML", xmlTimes, xmlFile.length());
+		report("Compressed XML", compressedTimes, compressedFile.length());
+
+		// Clean up
+		xmlFile.delete();
+		compressedFile.delete();
+
+		return;
+	}
+
+	/**
+	 * This operation prints the results for one format.
+	 *
+	 * @param format
+	 *            The name of the format
+	 * @param times
+	 *            The total save and load times in nanoseconds
+	 * @param size
+	 *            The size of the file in bytes
+	 */
+	private static void report(String format, long[] times, long size) {
+		System.out.println("\t" + format + ": save (ms) " + times[0] / 1.0e6
+				/ numIterations + ", load (ms) " + times[1] / 1.0e6
+				/ numIterations + ", size (kB) " + size / 1024);
+	}
+
+	/**
+	 * This operation saves the Form to the file and loads it back in the same
+	 * way that the provider does and adds the times to the totals.
+	 *
+	 * @param context
+	 *            The JAXB context
+	 * @param form
+	 *            The Form
+	 * @param file
+	 *            The file
+	 * @param compressed
+	 *            True if the file should be compressed
+	 * @param times
+	 *            The total save and load times in nanoseconds
+	 */
+	private static void run(JAXBContext context, Form form, File file,
+			boolean compressed, long[] times) throws Exception {
+
+		// Save it
+		long start = System.nanoTime();
+		OutputStream outputStream = new BufferedOutputStream(
+				new FileOutputStream(file));
+		if (compressed) {
+			outputStream = new GZIPOutputStream(outputStream);
+		}
+		try {
+			JAXBContextCache.marshal(context, form, outputStream);
+		} finally {
+			outputStream.close();
+		}
+		times[0] += System.nanoTime() - start;
+
+		// Load it
+		start = System.nanoTime();
+		InputStream inputStream = new BufferedInputStream(new FileInputStream(
+				file));
+		if (compressed) {
+			inputStream = new GZIPInputStream(inputStream);
+		}
+		try {
+			JAXBContextCache.unmarshal(context, inputStream);
+		} finally {
+			inputStream.close();
+		}
+		times[1] += System.nanoTime() - start;
+
+		return;
+	}
+
+	/**
+	 * This operation creates the Form.
+	 *
+	 * @return The Form
+	 */
+	private static Form createForm() {
+
+		// Local Declarations
+		Form form = new Form();
+		MeshComponent mesh = new MeshComponent();
+		MatrixComponent matrix = new MatrixComponent(true);
+		TableComponent table = new TableComponent();
+		Vertex[][] vertices = new Vertex[meshSize + 1][meshSize + 1];
+		Edge[][] rowEdges = new Edge[meshSize + 1][meshSize];
+		Edge[][] columnEdges = new Edge[meshSize][meshSize + 1];
+		int id = 1;
+
+		// Create a grid of vertices and the edges between them
+		for (int i = 0; i <= meshSize; i++) {
+			for (int j = 0; j <= meshSize; j++) {
+				vertices[i][j] = new Vertex(j, 0f, i);
+				vertices[i][j].setId(id++);
+			}
+		}
+		id = 1;
+		for (int i = 0; i <= meshSize; i++) {
+			for (int j = 0; j < meshSize; j++) {
+				rowEdges[i][j] = new Edge(vertices[i][j], vertices[i][j + 1]);
+				rowEdges[i][j].setId(id++);
+			}
+		}
+		for (int i = 0; i < meshSize; i++) {
+			for (int j = 0; j <= meshSize; j++) {
+				columnEdges[i][j] = new Edge(vertices[i][j],
+						vertices[i + 1][j]);
+				columnEdges[i][j].setId(id++);
+			}
+		}
+
+		// Create the quads
+		id = 1;
+		for (int i = 0; i < meshSize; i++) {
+			for (int j = 0; j < meshSize; j++) {
+				ArrayList<Vertex> quadVertices = new ArrayList<Vertex>();
+				quadVertices.add(vertices[i][j]);
+				quadVertices.add(vertices[i][j + 1]);
+				quadVertices.add(vertices[i + 1][j + 1]);
+				quadVertices.add(vertices[i + 1][j]);
+				ArrayList<Edge> quadEdges = new ArrayList<Edge>();
+				quadEdges.add(rowEdges[i][j]);
+				quadEdges.add(columnEdges[i][j + 1]);
+				quadEdges.add(rowEdges[i + 1][j]);
+				quadEdges.add(columnEdges[i][j]);
+				Polygon quad = new Polygon(quadEdges, quadVertices);
+				quad.setId(id++);
+				mesh.addPolygon(quad);
+			}
+		}
+		mesh.setId(1);
+		form.addComponent(mesh);
+
+		// Fill the matrix
+		for (int i = 1; i < matrixSize; i++) {
+			matrix.addRow();
+		}
+		for (int i = 0; i < matrixSize; i++) {
+			for (int j = 0; j < matrixSize; j++) {
+				matrix.setElementValue(i, j, Math.sin(i * matrixSize + j));
+			}
+		}
+		matrix.setId(2);
+		form.addComponent(matrix);
+
+		// Fill the table
+		ArrayList<Entry> template = new ArrayList<Entry>();
+		for (int i = 0; i < 5; i++) {
+			Entry entry = new Entry();
+			entry.setName("Column " + i);
+			entry.setId(i);
+			template.add(entry);
+		}
+		table.setRowTemplate(template);
+		for (int i = 0; i < tableRows; i++) {
+			int row = table.addRow();
+			for (Entry entry : table.getRow(row)) {
+				entry.setValue(String.valueOf(i * 0.5 + entry.getId()));
+			}
+		}
+		table.setId(3);
+		form.addComponent(table);
+
+		return form;
+	}
+}
@@ -40,6 +40,7 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
 import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemHeader;
 import org.eclipse.ice.item.nuclear.MOOSEModelBuilder;
 import org.eclipse.ice.persistence.xml.XMLPersistenceProvider;
 import org.eclipse.ice.vibe.launcher.VibeLauncherBuilder;
@@ -368,6 +369,94 @@ public class XMLPersistenceProviderTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that repeated updates of the same Item are merged
+	 * while they wait in the queue and that the provider reports its metrics.
+	 */
+	@Test
+	public void checkCoalescedUpdates() {
+
+		// Create a MOOSE item
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		item.setId(7);
+		String name = item.getName().replace(" ", "_") + "_" + item.getId()
+				+ ".xml";
+		long coalesced = xmlpp.getCoalescedWriteCount();
+		long flushes = xmlpp.getFlushCount();
+
+		// Update it many times in a row. Writing the MOOSE Model takes much
+		// longer than queuing an update, so most of them should be merged.
+		for (int i = 0; i < 50; i++) {
+			item.setDescription("Update " + i);
+			assertTrue(xmlpp.updateItem(item));
+		}
+		assertTrue(xmlpp.getQueueDepth() <= 50);
+
+		// Wait while the file is persisted.
+		pause(2);
+
+		// Check the metrics and the file
+		assertTrue(xmlpp.getCoalescedWriteCount() > coalesced);
+		assertTrue(xmlpp.getFlushCount() > flushes);
+		assertEquals(0, xmlpp.getQueueDepth());
+		assertTrue(xmlpp.getMaxFlushLatency() >= xmlpp.getLastFlushLatency());
+		assertTrue(checkPersistedFile(name));
+		assertEquals("Update 49", xmlpp.loadItem(7).getDescription());
+
+		// Clean up
+		assertTrue(xmlpp.deleteItem(item));
+		pause(2);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the XMLPersistenceProvider can return the
+	 * headers of the persisted Items without loading their Forms and that the
+	 * headers match the Items.
+	 */
+	@Test
+	public void checkLoadItemHeaders() {
+
+		// Create a MOOSE item
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		int passedCount = 0;
+
+		// Persist it
+		item.setId(6);
+		assertTrue(xmlpp.persistItem(item));
+
+		// Wait while the file is persisted.
+		pause(2);
+
+		// Load the headers and look for the Item
+		ArrayList<ItemHeader> headers = xmlpp.loadItemHeaders();
+		assertNotNull(headers);
+		for (ItemHeader header : headers) {
+			if (header.getId() == 6) {
+				assertEquals(item.getName(), header.getName());
+				assertEquals(item.getDescription(), header.getDescription());
+				assertEquals(item.getItemBuilderName(),
+						header.getItemBuilderName());
+				assertEquals(item.getItemType(), header.getItemType());
+				assertEquals(item.getStatus(), header.getStatus());
+				passedCount++;
+			}
+		}
+		assertEquals(1, passedCount);
+
+		// Delete the Item and make sure that its header is gone too
+		assertTrue(xmlpp.deleteItem(item));
+		pause(2);
+		for (ItemHeader header : xmlpp.loadItemHeaders()) {
+			assertFalse(header.getId() == 6);
+		}
+
+		return;
+	}
+
 	/**
 	 * This operation insures that IWriter interface is implemented as described
 	 * by the XML persistence provider and that the operations function.
@@ -346,4 +346,78 @@ public class FeatureSetTester {
 
 		return;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * Tests that the SFRData in a FeatureSet are copied into its columns and
+	 * that the list from getData() stays live once it has been created.
+	 * </p>
+	 */
+	@Test
+	public void checkColumns() {
+
+		// The feature name.
+		String feature = "Zaphod Beeblebrox";
+
+		// Some objects to test the columns.
+		FeatureSet object = new FeatureSet(feature);
+		FeatureSet listObject = new FeatureSet(feature);
+
+		// A List to keep track of copies of the added data.
+		ArrayList<IData> data = new ArrayList<IData>();
+
+		// Add data with different positions and mixed units. The list object
+		// is switched to its list before any data is added.
+		listObject.getData();
+		SFRData iData = null;
+		ArrayList<Double> position;
+		for (int i = 0; i < 20; i++) {
+			iData = new SFRData(feature);
+			iData.setValue((double) i);
+			iData.setUncertainty(i / 10.0);
+			iData.setUnits(i < 15 ? "W" : "kW");
+			position = new ArrayList<Double>();
+			position.add((double) i);
+			position.add(i + 0.5);
+			position.add(-i / 4.0);
+			iData.setPosition(position);
+			assertTrue(object.addIData(iData));
+			assertTrue(listObject.addIData(iData));
+			data.add((SFRData) iData.clone());
+		}
+
+		// The sets should be equal even though they store their data
+		// differently.
+		assertTrue(object.equals(listObject));
+		assertTrue(listObject.equals(object));
+		assertEquals(listObject.hashCode(), object.hashCode());
+
+		// The list object keeps the last SFRData, but the columns do not.
+		iData.setValue(42.0);
+		assertFalse(object.equals(listObject));
+		iData.setValue(19.0);
+		assertTrue(object.equals(listObject));
+
+		// Check the contents of the columns and copies of them.
+		FeatureSet clonedObject = (FeatureSet) object.clone();
+		assertTrue(clonedObject.equals(object));
+		assertEquals(object.hashCode(), clonedObject.hashCode());
+		assertEquals(data, object.getData());
+		assertEquals(data, clonedObject.getData());
+
+		// The list should be live from now on.
+		ArrayList<IData> dataList = object.getData();
+		assertSame(dataList, object.getData());
+		iData = new SFRData(feature);
+		assertTrue(object.addIData(iData));
+		assertEquals(21, dataList.size());
+		assertSame(iData, dataList.get(20));
+		dataList.remove(20);
+		assertEquals(data, object.getData());
+
+		// The copy should not be affected.
+		assertEquals(20, clonedObject.getData().size());
+
+		return;
+	}
+}
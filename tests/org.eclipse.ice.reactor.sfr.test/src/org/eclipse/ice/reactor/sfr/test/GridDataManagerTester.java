@@ -523,4 +523,209 @@ public class GridDataManagerTester {
 
 		return;
 	}
+
+	/**
+	 * <p>
+	 * Tests the IDataProviders at locations that are too large for the dense
+	 * array and are kept in a sparse Map instead.
+	 * </p>
+	 */
+	@Test
+	public void checkSparseLocations() {
+
+		// The first location that is not kept in the dense array. This matches
+		// GridManager's dense limit.
+		int sparse = 1 << 20;
+		int largest = Integer.MAX_VALUE - 1;
+
+		GridDataManager manager = new GridDataManager(0);
+		GridDataManager clone;
+		SFRComponent defaultProvider = new SFRComponent();
+		SFRData data = new SFRData("Fictional character");
+		data.setValue(42.0);
+
+		/* ---- Add components on both sides of the limit. ---- */
+		assertTrue(manager.addComponent("Arthur", sparse - 1));
+		assertTrue(manager.addComponent("Arthur", sparse));
+		assertTrue(manager.addComponent("Trillian", largest));
+
+		assertEquals(defaultProvider, manager.getDataProvider(sparse - 1));
+		assertEquals(defaultProvider, manager.getDataProvider(sparse));
+		assertEquals(defaultProvider, manager.getDataProvider(largest));
+		assertNull(manager.getDataProvider(sparse + 1));
+		assertNull(manager.getDataProvider(Integer.MAX_VALUE));
+
+		manager.getDataProvider(sparse).addData(data, 0.0);
+		assertFalse(defaultProvider.equals(manager.getDataProvider(sparse)));
+		/* ---------------------------------------------------- */
+
+		/* ---- Copy the sparse providers. ---- */
+		clone = (GridDataManager) manager.clone();
+		assertTrue(manager.equals(clone));
+		assertEquals(manager.hashCode(), clone.hashCode());
+
+		// Removing a sparse location should not affect the clone.
+		assertTrue(manager.removeComponent(sparse));
+		assertNull(manager.getDataProvider(sparse));
+		assertFalse(clone.getDataProvider(sparse) == null);
+		assertFalse(manager.equals(clone));
+
+		// Removing a component should clear all of its providers.
+		assertTrue(manager.removeComponent("Trillian"));
+		assertNull(manager.getDataProvider(largest));
+		assertEquals(defaultProvider, manager.getDataProvider(sparse - 1));
+		assertFalse(clone.getDataProvider(largest) == null);
+		/* ------------------------------------ */
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Tests that the locations of a component are in ascending order and that
+	 * each location keeps its own IDataProvider.
+	 * </p>
+	 */
+	@Test
+	public void checkLocationOrder() {
+
+		GridDataManager manager = new GridDataManager(100);
+		String name = "Slartibartfast";
+		int[] added = { 42, 7, 99, 0, 63, 15, 28, 81 };
+		List<Integer> locations;
+		SFRData data;
+
+		// Add the locations out of order and give each one different data.
+		for (int location : added) {
+			assertTrue(manager.addComponent(name, location));
+			data = new SFRData("Fjord");
+			data.setValue(location);
+			manager.getDataProvider(location).addData(data, 0.0);
+		}
+
+		// Remove one location from the middle of the list.
+		assertTrue(manager.removeComponent(28));
+		assertNull(manager.getDataProvider(28));
+
+		locations = manager.getComponentLocations(name);
+		assertEquals(added.length - 1, locations.size());
+		for (int i = 1; i < locations.size(); i++) {
+			assertTrue(locations.get(i - 1) < locations.get(i));
+		}
+
+		// The providers should still be at the same locations.
+		for (int location : locations) {
+			assertEquals(location, manager.getDataProvider(location)
+					.getDataAtCurrentTime("Fjord").get(0).getValue(), 0.0);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Tests that copy() and clone() do not share their arrays of
+	 * IDataProviders with the original manager.
+	 * </p>
+	 */
+	@Test
+	public void checkDeepCopying() {
+
+		int size = 720;
+
+		GridDataManager object = new GridDataManager(size);
+		GridDataManager copy = new GridDataManager(size);
+		GridDataManager clone;
+		GridDataManager expected = new GridDataManager(size);
+		SFRComponent defaultProvider = new SFRComponent();
+
+		// Set up the object and a manager with the same contents.
+		object.addComponent("Ford", 50);
+		object.addComponent("Zaphod", 3);
+		object.addComponent("Marvin", 84);
+		expected.addComponent("Ford", 50);
+		expected.addComponent("Zaphod", 3);
+		expected.addComponent("Marvin", 84);
+
+		copy.copy(object);
+		clone = (GridDataManager) object.clone();
+
+		/* ---- Change the original. ---- */
+		object.removeComponent(3);
+		object.removeComponent("Marvin");
+		object.addComponent("Eddie", 700);
+
+		// The copies should still have the old providers.
+		for (GridDataManager manager : new GridDataManager[] { copy, clone }) {
+			assertTrue(expected.equals(manager));
+			assertFalse(object.equals(manager));
+			assertEquals(defaultProvider, manager.getDataProvider(3));
+			assertEquals(defaultProvider, manager.getDataProvider(84));
+			assertNull(manager.getDataProvider(700));
+		}
+		/* ------------------------------ */
+
+		/* ---- Change the copy. ---- */
+		copy.removeComponent(50);
+		copy.addComponent("Eddie", 701);
+		assertEquals(defaultProvider, object.getDataProvider(50));
+		assertNull(object.getDataProvider(701));
+		assertTrue(expected.equals(clone));
+		/* -------------------------- */
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Tests that replacing the component at a location also replaces its
+	 * IDataProvider and that reused component IDs do not pick up old
+	 * providers.
+	 * </p>
+	 */
+	@Test
+	public void checkReplaceAndReuse() {
+
+		int size = 10;
+
+		GridDataManager manager = new GridDataManager(size);
+		GridDataManager expected = new GridDataManager(size);
+		SFRComponent defaultProvider = new SFRComponent();
+		SFRData data = new SFRData("Fictional character");
+		data.setValue(42.0);
+
+		manager.addComponent("Arthur", 0);
+		manager.addComponent("Ford", 1);
+		manager.getDataProvider(0).addData(data, 0.0);
+
+		/* ---- Replace Arthur with Ford. ---- */
+		assertTrue(manager.addComponent("Ford", 0));
+		assertEquals("Ford", manager.getComponentName(0));
+		assertTrue(manager.getComponentLocations("Arthur").isEmpty());
+
+		// The location should have a new provider.
+		assertEquals(defaultProvider, manager.getDataProvider(0));
+		/* ----------------------------------- */
+
+		/* ---- New components may reuse Arthur's ID. ---- */
+		assertTrue(manager.addComponent("Zaphod", 2));
+		assertEquals(1, manager.getComponentLocations("Zaphod").size());
+		assertEquals(defaultProvider, manager.getDataProvider(2));
+
+		// Removing Zaphod should not touch Ford's providers.
+		assertTrue(manager.removeComponent("Zaphod"));
+		assertNull(manager.getDataProvider(2));
+		assertEquals(defaultProvider, manager.getDataProvider(0));
+		assertEquals(defaultProvider, manager.getDataProvider(1));
+		/* ----------------------------------------------- */
+
+		// The manager should be the same as one built without any replacing.
+		expected.addComponent("Ford", 0);
+		expected.addComponent("Ford", 1);
+		assertTrue(expected.equals(manager));
+		assertTrue(manager.equals(expected));
+		assertEquals(expected.hashCode(), manager.hashCode());
+
+		return;
+	}
 }
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.sfr.test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.ice.reactor.sfr.base.GridDataManager;
+import org.eclipse.ice.reactor.sfr.base.SFRComponent;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark for the GridDataManager. It loads the
+ * pin grids of a full hexagonal SFR core, one grid per assembly with a pin
+ * type for each ring, into GridDataManagers and into a copy of the Map-based
+ * layout the GridManager used before, and reports the load time, the time to
+ * look up every pin and its data provider and the heap held by the grids.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line.
+ * </p>
+ *
+ * @author agent
+ */
+public class GridManagerBenchmark {
+
+	/**
+	 * The number of rings of assemblies in the core.
+	 */
+	private static final int coreRings = 10;
+
+	/**
+	 * The number of rings of pins in each assembly.
+	 */
+	private static final int pinRings = 10;
+
+	/**
+	 * The number of times each load is timed.
+	 */
+	private static final int numIterations = 5;
+
+	/**
+	 * This is a copy of the Map-based storage of the GridDataManager before it
+	 * used dense arrays. Only the operations used by the benchmark are here.
+	 */
+	private static class MapGridDataManager {
+
+		/**
+		 * The locations of each Component keyed on its name.
+		 */
+		private Map<String, Set<Integer>> components = new HashMap<String, Set<Integer>>();
+
+		/**
+		 * The Component names keyed on the locations.
+		 */
+		private Map<Integer, String> locations = new TreeMap<Integer, String>();
+
+		/**
+		 * The IDataProviders keyed on the locations.
+		 */
+		private Map<Integer, SFRComponent> dataProviders = new TreeMap<Integer, SFRComponent>();
+
+		/**
+		 * This operation adds a Component to a location.
+		 *
+		 * @param name
+		 *            The name of the Component
+		 * @param location
+		 *            The location
+		 */
+		public void addComponent(String name, int location) {
+			Set<Integer> indexes = components.get(name);
+			if (indexes == null) {
+				indexes = new HashSet<Integer>();
+				components.put(name, indexes);
+			}
+			if (indexes.add(location)) {
+				locations.put(location, name);
+				dataProviders.put(location, new SFRComponent());
+			}
+		}
+	}
+
+	/**
+	 * This operation runs the benchmark.
+	 *
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) {
+
+		// Local Declarations
+		int nAssemblies = getNumberOfHexagons(coreRings);
+		int nPins = getNumberOfHexagons(pinRings);
+		int gridSize = (2 * pinRings - 1) * (2 * pinRings - 1);
+		String[] pinNames = new String[pinRings];
+		long start, mapTime = 0, denseTime = 0;
+		long mapLookupTime = 0, denseLookupTime = 0;
+		long checksum = 0;
+
+		// Create the names of the pins in each ring
+		for (int i = 0; i < pinRings; i++) {
+			pinNames[i] = "Pin Ring " + i;
+		}
+
+		// Warm up and time the loads and lookups
+		for (int i = 0; i < numIterations + 2; i++) {
+			start = System.nanoTime();
+			MapGridDataManager[] mapGrids = loadMapGrids(nAssemblies,
+					pinNames);
+			long time = System.nanoTime() - start;
+			start = System.nanoTime();
+			checksum += lookUp(mapGrids, gridSize);
+			long lookupTime = System.nanoTime() - start;
+			if (i >= 2) {
+				mapTime += time;
+				mapLookupTime += lookupTime;
+			}
+			mapGrids = null;
+			start = System.nanoTime();
+			GridDataManager[] denseGrids = loadDenseGrids(nAssemblies,
+					gridSize, pinNames);
+			time = System.nanoTime() - start;
+			start = System.nanoTime();
+			checksum += lookUp(denseGrids, gridSize);
+			lookupTime = System.nanoTime() - start;
+			if (i >= 2) {
+				denseTime += time;
+				denseLookupTime += lookupTime;
+			}
+		}
+
+		// Measure the heap held by each layout
+		long baseHeap = getUsedHeap();
+		MapGridDataManager[] mapGrids = loadMapGrids(nAssemblies, pinNames);
+		long mapHeap = getUsedHeap() - baseHeap;
+		checksum += mapGrids.length;
+		mapGrids = null;
+		baseHeap = getUsedHeap();
+		GridDataManager[] denseGrids = loadDenseGrids(nAssemblies, gridSize,
+				pinNames);
+		long denseHeap = getUsedHeap() - baseHeap;
+		checksum += denseGrids.length;
+
+		// Report the results
+		System.out.println("GridManagerBenchmark: " + nAssemblies
+				+ " assemblies with " + nPins + " pins each (checksum "
+				+ checksum + ")");
+		System.out.println("\tMap load (ms): " + mapTime / 1.0e6
+				/ numIterations);
+		System.out.println("\tDense load (ms): " + denseTime / 1.0e6
+				/ numIterations);
+		System.out.println("\tMap lookup (ms): " + mapLookupTime / 1.0e6
+				/ numIterations);
+		System.out.println("\tDense lookup (ms): " + denseLookupTime / 1.0e6
+				/ numIterations);
+		System.out.println("\tMap heap (MB): " + mapHeap / 1.0e6);
+		System.out.println("\tDense heap (MB): " + denseHeap / 1.0e6);
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of hexagons in a hexagonal grid with
+	 * the given number of rings.
+	 *
+	 * @param rings
+	 *            The number of rings, including the center
+	 * @return The number of hexagons
+	 */
+	private static int getNumberOfHexagons(int rings) {
+		return 3 * rings * (rings - 1) + 1;
+	}
+
+	/**
+	 * This operation returns the locations of the pins in a hexagonal
+	 * assembly. The pins are stored in the square grid of the assembly, and
+	 * the hexagon is the set of cells within the given number of rings of the
+	 * center in axial hexagonal coordinates.
+	 *
+	 * @param ring
+	 *            Filled with the ring of each pin
+	 * @return The locations of the pins in the grid
+	 */
+	private static int[] getPinLocations(int[] ring) {
+
+		// Local Declarations
+		int width = 2 * pinRings - 1;
+		int[] locations = new int[getNumberOfHexagons(pinRings)];
+		int count = 0;
+
+		for (int row = 0; row < width; row++) {
+			for (int column = 0; column < width; column++) {
+				int x = column - (pinRings - 1), y = row - (pinRings - 1);
+				int distance = Math.max(Math.abs(x),
+						Math.max(Math.abs(y), Math.abs(x - y)));
+				if (distance < pinRings) {
+					ring[count] = distance;
+					locations[count++] = row * width + column;
+				}
+			}
+		}
+
+		return locations;
+	}
+
+	/**
+	 * This operation loads the pins of every assembly into Map-based grids.
+	 *
+	 * @param nAssemblies
+	 *            The number of assemblies
+	 * @param pinNames
+	 *            The names of the pins in each ring
+	 * @return The grids
+	 */
+	private static MapGridDataManager[] loadMapGrids(int nAssemblies,
+			String[] pinNames) {
+
+		// Local Declarations
+		MapGridDataManager[] grids = new MapGridDataManager[nAssemblies];
+		int[] ring = new int[getNumberOfHexagons(pinRings)];
+		int[] locations = getPinLocations(ring);
+
+		for (int i = 0; i < nAssemblies; i++) {
+			grids[i] = new MapGridDataManager();
+			for (int j = 0; j < locations.length; j++) {
+				grids[i].addComponent(pinNames[ring[j]], locations[j]);
+			}
+		}
+
+		return grids;
+	}
+
+	/**
+	 * This operation loads the pins of every assembly into GridDataManagers.
+	 *
+	 * @param nAssemblies
+	 *            The number of assemblies
+	 * @param gridSize
+	 *            The size of the grid of each assembly
+	 * @param pinNames
+	 *            The names of the pins in each ring
+	 * @return The grids
+	 */
+	private static GridDataManager[] loadDenseGrids(int nAssemblies,
+			int gridSize, String[] pinNames) {
+
+		// Local Declarations
+		GridDataManager[] grids = new GridDataManager[nAssemblies];
+		int[] ring = new int[getNumberOfHexagons(pinRings)];
+		int[] locations = getPinLocations(ring);
+
+		for (int i = 0; i < nAssemblies; i++) {
+			grids[i] = new GridDataManager(gridSize);
+			for (int j = 0; j < locations.length; j++) {
+				grids[i].addComponent(pinNames[ring[j]], locations[j]);
+			}
+		}
+
+		return grids;
+	}
+
+	/**
+	 * This operation looks up the name and data provider of every location in
+	 * the Map-based grids, like the SFReactorIOHandler does when it writes
+	 * them.
+	 *
+	 * @param grids
+	 *            The grids
+	 * @param gridSize
+	 *            The size of the grid of each assembly
+	 * @return The number of occupied locations
+	 */
+	private static long lookUp(MapGridDataManager[] grids, int gridSize) {
+
+		long count = 0;
+
+		for (MapGridDataManager grid : grids) {
+			for (int location = 0; location < gridSize; location++) {
+				if (grid.locations.get(location) != null
+						&& grid.dataProviders.get(location) != null) {
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * This operation looks up the name and data provider of every location in
+	 * the GridDataManagers.
+	 *
+	 * @param grids
+	 *            The grids
+	 * @param gridSize
+	 *            The size of the grid of each assembly
+	 * @return The number of occupied locations
+	 */
+	private static long lookUp(GridDataManager[] grids, int gridSize) {
+
+		long count = 0;
+
+		for (GridDataManager grid : grids) {
+			for (int location = 0; location < gridSize; location++) {
+				if (grid.getComponentName(location) != null
+						&& grid.getDataProvider(location) != null) {
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * This operation runs the garbage collector and returns the used heap.
+	 *
+	 * @return The used heap in bytes
+	 */
+	private static long getUsedHeap() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
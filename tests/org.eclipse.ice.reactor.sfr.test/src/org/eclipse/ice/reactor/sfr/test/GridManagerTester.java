@@ -456,4 +456,245 @@ public class GridManagerTester {
 
 		return;
 	}
+
+	/**
+	 * <p>
+	 * Tests the locations that are too large for the dense array and are kept
+	 * in a sparse Map instead.
+	 * </p>
+	 */
+	@Test
+	public void checkSparseLocations() {
+
+		// The first location that is not kept in the dense array. This matches
+		// GridManager's dense limit.
+		int sparse = 1 << 20;
+		int largest = Integer.MAX_VALUE - 1;
+
+		GridManager manager = new GridManager(0);
+		GridManager clone;
+		List<Integer> locations;
+
+		/* ---- Add components on both sides of the limit. ---- */
+		assertTrue(manager.addComponent("Arthur", largest));
+		assertTrue(manager.addComponent("Arthur", sparse + 5));
+		assertTrue(manager.addComponent("Arthur", sparse));
+		assertTrue(manager.addComponent("Arthur", sparse - 1));
+		assertTrue(manager.addComponent("Trillian", sparse + 1));
+
+		assertEquals("Arthur", manager.getComponentName(sparse - 1));
+		assertEquals("Arthur", manager.getComponentName(sparse));
+		assertEquals("Trillian", manager.getComponentName(sparse + 1));
+		assertEquals("Arthur", manager.getComponentName(sparse + 5));
+		assertEquals("Arthur", manager.getComponentName(largest));
+		assertNull(manager.getComponentName(sparse + 2));
+
+		// The locations should be in ascending order.
+		locations = manager.getComponentLocations("Arthur");
+		assertEquals(4, locations.size());
+		assertEquals(sparse - 1, (int) locations.get(0));
+		assertEquals(sparse, (int) locations.get(1));
+		assertEquals(sparse + 5, (int) locations.get(2));
+		assertEquals(largest, (int) locations.get(3));
+		/* ---------------------------------------------------- */
+
+		/* ---- Copy the sparse locations. ---- */
+		clone = (GridManager) manager.clone();
+		assertTrue(manager.equals(clone));
+		assertEquals(manager.hashCode(), clone.hashCode());
+
+		// Changing the sparse locations should not affect the clone.
+		assertTrue(manager.removeComponent(sparse));
+		assertNull(manager.getComponentName(sparse));
+		assertEquals("Arthur", clone.getComponentName(sparse));
+		assertFalse(manager.equals(clone));
+		/* ------------------------------------ */
+
+		/* ---- Replace a sparse location. ---- */
+		assertTrue(manager.addComponent("Trillian", sparse + 5));
+		assertEquals("Trillian", manager.getComponentName(sparse + 5));
+		assertEquals(2, manager.getComponentLocations("Arthur").size());
+		locations = manager.getComponentLocations("Trillian");
+		assertEquals(2, locations.size());
+		assertEquals(sparse + 1, (int) locations.get(0));
+		assertEquals(sparse + 5, (int) locations.get(1));
+
+		// Removing a component should clear its sparse locations.
+		assertTrue(manager.removeComponent("Trillian"));
+		assertNull(manager.getComponentName(sparse + 1));
+		assertNull(manager.getComponentName(sparse + 5));
+		assertEquals("Arthur", manager.getComponentName(largest));
+		/* ------------------------------------ */
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Tests that the locations of a component are in ascending order no matter
+	 * the order in which they are added or removed.
+	 * </p>
+	 */
+	@Test
+	public void checkLocationOrder() {
+
+		GridManager manager = new GridManager(100);
+		String name = "Slartibartfast";
+		int[] added = { 42, 7, 99, 0, 63, 15, 28, 81 };
+		List<Integer> locations;
+
+		// Add the locations out of order.
+		for (int location : added) {
+			assertTrue(manager.addComponent(name, location));
+		}
+		locations = manager.getComponentLocations(name);
+		assertEquals(added.length, locations.size());
+		for (int i = 1; i < locations.size(); i++) {
+			assertTrue(locations.get(i - 1) < locations.get(i));
+		}
+
+		// Remove a location from the middle of the list and from the end.
+		assertTrue(manager.removeComponent(7));
+		assertTrue(manager.removeComponent(99));
+		locations = manager.getComponentLocations(name);
+		assertEquals(added.length - 2, locations.size());
+		assertFalse(locations.contains(7));
+		assertFalse(locations.contains(99));
+		for (int i = 1; i < locations.size(); i++) {
+			assertTrue(locations.get(i - 1) < locations.get(i));
+		}
+
+		// The returned List is a copy and should not change the manager.
+		locations.clear();
+		assertEquals(added.length - 2, manager.getComponentLocations(name)
+				.size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Tests that copy() and clone() do not share their contents with the
+	 * original manager.
+	 * </p>
+	 */
+	@Test
+	public void checkDeepCopying() {
+
+		int size = 720;
+
+		GridManager object = new GridManager(size);
+		GridManager copy = new GridManager(size);
+		GridManager clone;
+		GridManager expected = new GridManager(size);
+
+		// Set up the object and a manager with the same contents.
+		object.addComponent("Ford", 50);
+		object.addComponent("Zaphod", 3);
+		object.addComponent("Marvin", 84);
+		object.addComponent("Marvin", 37);
+		expected.addComponent("Ford", 50);
+		expected.addComponent("Zaphod", 3);
+		expected.addComponent("Marvin", 84);
+		expected.addComponent("Marvin", 37);
+
+		copy.copy(object);
+		clone = (GridManager) object.clone();
+
+		/* ---- Change the original. ---- */
+		object.addComponent("Ford", 51);
+		object.addComponent("Zaphod", 84);
+		object.removeComponent(3);
+		object.addComponent("Eddie", 700);
+
+		// The copies should still have the old contents.
+		for (GridManager manager : new GridManager[] { copy, clone }) {
+			assertTrue(expected.equals(manager));
+			assertFalse(object.equals(manager));
+			assertEquals("Zaphod", manager.getComponentName(3));
+			assertEquals("Marvin", manager.getComponentName(84));
+			assertNull(manager.getComponentName(51));
+			assertNull(manager.getComponentName(700));
+			assertEquals(1, manager.getComponentLocations("Ford").size());
+			assertEquals(2, manager.getComponentLocations("Marvin").size());
+			assertTrue(manager.getComponentLocations("Eddie").isEmpty());
+		}
+		/* ------------------------------ */
+
+		/* ---- Change the copy. ---- */
+		copy.removeComponent("Marvin");
+		copy.addComponent("Ford", 3);
+		assertTrue(expected.equals(clone));
+		assertEquals("Marvin", object.getComponentName(37));
+		assertEquals("Zaphod", object.getComponentName(84));
+		assertNull(object.getComponentName(3));
+		/* -------------------------- */
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Tests replacing the component at a location and reusing the IDs of
+	 * components that no longer have any locations.
+	 * </p>
+	 */
+	@Test
+	public void checkReplaceAndReuse() {
+
+		int size = 10;
+
+		GridManager manager = new GridManager(size);
+		GridManager expected = new GridManager(size);
+		List<Integer> locations;
+
+		manager.addComponent("Arthur", 0);
+		manager.addComponent("Ford", 1);
+
+		/* ---- Replace Arthur with Ford. ---- */
+		assertTrue(manager.addComponent("Ford", 0));
+		assertEquals("Ford", manager.getComponentName(0));
+		assertTrue(manager.getComponentLocations("Arthur").isEmpty());
+		locations = manager.getComponentLocations("Ford");
+		assertEquals(2, locations.size());
+		assertEquals(0, (int) locations.get(0));
+		assertEquals(1, (int) locations.get(1));
+		/* ----------------------------------- */
+
+		/* ---- New components may reuse Arthur's ID. ---- */
+		assertTrue(manager.addComponent("Zaphod", 2));
+		locations = manager.getComponentLocations("Zaphod");
+		assertEquals(1, locations.size());
+		assertEquals(2, (int) locations.get(0));
+		assertEquals(2, manager.getComponentLocations("Ford").size());
+		assertTrue(manager.getComponentLocations("Arthur").isEmpty());
+
+		// Arthur should get a new ID and not pick up anyone's locations.
+		assertTrue(manager.addComponent("Arthur", 3));
+		locations = manager.getComponentLocations("Arthur");
+		assertEquals(1, locations.size());
+		assertEquals(3, (int) locations.get(0));
+		assertEquals(1, manager.getComponentLocations("Zaphod").size());
+		/* ----------------------------------------------- */
+
+		/* ---- Replace a component's only location. ---- */
+		assertTrue(manager.addComponent("Marvin", 2));
+		assertTrue(manager.getComponentLocations("Zaphod").isEmpty());
+		assertTrue(manager.addComponent("Trillian", 4));
+		assertEquals(1, manager.getComponentLocations("Trillian").size());
+		assertTrue(manager.getComponentLocations("Zaphod").isEmpty());
+		/* ---------------------------------------------- */
+
+		// The manager should be the same as one built without any replacing.
+		expected.addComponent("Ford", 0);
+		expected.addComponent("Ford", 1);
+		expected.addComponent("Marvin", 2);
+		expected.addComponent("Arthur", 3);
+		expected.addComponent("Trillian", 4);
+		assertTrue(expected.equals(manager));
+		assertTrue(manager.equals(expected));
+		assertEquals(expected.hashCode(), manager.hashCode());
+
+		return;
+	}
 }
@@ -14,13 +14,21 @@ package org.eclipse.ice.reactor.sfr.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.net.URI;
 
+import ncsa.hdf.hdf5lib.H5;
+import ncsa.hdf.hdf5lib.HDF5Constants;
+import ncsa.hdf.hdf5lib.exceptions.HDF5LibraryException;
+
 import org.eclipse.ice.reactor.sfr.base.SFReactorIOHandler;
+import org.eclipse.ice.reactor.sfr.core.AssemblyType;
 import org.eclipse.ice.reactor.sfr.core.SFReactor;
+import org.eclipse.ice.reactor.sfr.core.assembly.SFRAssembly;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -256,4 +264,174 @@ public class SFReactorIOHandlerTester {
 
 		return;
 	}
+
+	/**
+	 * Checks that a reactor read without its assemblies' contents loads them
+	 * on demand, that an incremental write of a changed assembly produces the
+	 * same file contents as a full write and that repeated incremental writes
+	 * do not let the file grow without limit.
+	 */
+	@Test
+	public void checkLazyReadAndIncrementalWrite() {
+
+		// Constants for this test.
+		int reactorSize = 0; // Use the default.
+		int assemblySize = 0; // Use the default.
+		int nAssemblies = 3;
+		int nAssemblyComponents = 5;
+		int nAxialLevels = 5;
+		boolean randomData = true; // Randomize the data and properties.
+		boolean randomLocations = true; // Randomize the component locations.
+
+		// Input/Output files for this test.
+		String s = System.getProperty("file.separator");
+		String directory = System.getProperty("user.dir") + s
+				+ "ICEIOTestDirectory" + s;
+		String path = directory + "fromJavaIncremental.h5";
+
+		// Create a factory for generating populated reactors.
+		SFReactorFactory factory = new SFReactorFactory();
+
+		// Create an IO handler for writing/reading the reactor.
+		SFReactorIOHandler handler = new SFReactorIOHandler();
+
+		// Create a URI for a file to write/read for the test.
+		URI uri = new File(path).toURI();
+
+		// Generate a reactor and write the whole file.
+		SFReactor reactor = factory.generatePopulatedFullCoreReactor(
+				reactorSize, assemblySize, nAssemblies, nAssemblyComponents,
+				nAxialLevels, 42, randomData, randomLocations);
+		handler.writeHDF5(uri, reactor);
+
+		/* ---- Check lazy reading. ---- */
+		// Read the reactor without the assemblies' contents.
+		SFReactor loadedReactor = handler.readHDF5(uri, false);
+		assertNotNull(loadedReactor);
+		assertEquals(reactor.getAssemblyNames(AssemblyType.Fuel),
+				loadedReactor.getAssemblyNames(AssemblyType.Fuel));
+		assertFalse(handler.isAssemblyLoaded(loadedReactor,
+				AssemblyType.Fuel, "0"));
+
+		// Load one assembly. It should match the original.
+		assertTrue(handler.loadAssembly(loadedReactor, AssemblyType.Fuel, "0"));
+		assertTrue(handler.isAssemblyLoaded(loadedReactor, AssemblyType.Fuel,
+				"0"));
+		assertEquals(reactor.getAssemblyByName(AssemblyType.Fuel, "0"),
+				loadedReactor.getAssemblyByName(AssemblyType.Fuel, "0"));
+		assertFalse(handler.isAssemblyLoaded(loadedReactor,
+				AssemblyType.Reflector, "0"));
+
+		// Assemblies that do not exist cannot be loaded.
+		assertFalse(handler.loadAssembly(loadedReactor, AssemblyType.Fuel,
+				"Polaris"));
+		assertFalse(handler.loadAssembly(null, AssemblyType.Fuel, "0"));
+		/* ----------------------------- */
+
+		/* ---- Check incremental writing. ---- */
+		// Get the addresses of the groups of a loaded and an unloaded
+		// assembly that will not change.
+		long loadedAddress = getObjectAddress(path, "/SFReactor/Fuel/0");
+		long unloadedAddress = getObjectAddress(path, "/SFReactor/Reflector/0");
+
+		// Change an unloaded assembly in both reactors and write the loaded
+		// reactor incrementally.
+		SFRAssembly assembly = (SFRAssembly) reactor.getAssemblyByName(
+				AssemblyType.Control, "1");
+		assembly.setDuctThickness(assembly.getDuctThickness() + 1.0);
+		assembly = (SFRAssembly) loadedReactor.getAssemblyByName(
+				AssemblyType.Control, "1");
+		assembly.setDuctThickness(assembly.getDuctThickness() + 1.0);
+		handler.writeHDF5(uri, loadedReactor, true);
+
+		// The groups of the unchanged assemblies should not be rewritten.
+		assertEquals(loadedAddress, getObjectAddress(path, "/SFReactor/Fuel/0"));
+		assertEquals(unloadedAddress,
+				getObjectAddress(path, "/SFReactor/Reflector/0"));
+
+		// Read the file with a new handler. It should match the original.
+		SFReactor rereadReactor = new SFReactorIOHandler().readHDF5(uri);
+		assertEquals(reactor, rereadReactor);
+
+		// The remaining assemblies should still load from the updated file.
+		handler.loadAssemblies(loadedReactor);
+		assertTrue(handler.isAssemblyLoaded(loadedReactor,
+				AssemblyType.Reflector, "0"));
+		assertEquals(reactor, loadedReactor);
+		/* ------------------------------------ */
+
+		/* ---- Check the growth of incrementally written files. ---- */
+		// Replacing the same assembly many times should not let the file grow
+		// without limit. Writes fall back to full writes before the file is
+		// twice as large as it was after the last full write, so one more
+		// incremental write is the most it can exceed that by.
+		handler.writeHDF5(uri, reactor);
+		File outputFile = new File(path);
+		long fullLength = outputFile.length();
+		for (int i = 0; i < 50; i++) {
+			assembly = (SFRAssembly) reactor.getAssemblyByName(
+					AssemblyType.Control, "1");
+			assembly.setDuctThickness(assembly.getDuctThickness() + 1.0);
+			handler.writeHDF5(uri, reactor, true);
+			assertTrue(outputFile.length() < 3 * fullLength);
+		}
+
+		// The file should still hold the latest reactor.
+		assertEquals(reactor, new SFReactorIOHandler().readHDF5(uri));
+		/* ---------------------------------------------------------- */
+
+		/* ---- Check releasing lazily read reactors. ---- */
+		// Once a reactor is released, the contents of its unloaded assemblies
+		// are no longer read.
+		loadedReactor = handler.readHDF5(uri, false);
+		handler.release(loadedReactor);
+		handler.loadAssembly(loadedReactor, AssemblyType.Fuel, "0");
+		assertFalse(reactor.getAssemblyByName(AssemblyType.Fuel, "0").equals(
+				loadedReactor.getAssemblyByName(AssemblyType.Fuel, "0")));
+		/* ----------------------------------------------- */
+
+		// Delete the .h5 file produced by this test.
+		try {
+			File file = new File(path);
+			file.delete();
+		} catch (Exception e) {
+			System.err
+					.println("SFReactorIOHandlerTester error: Could not delete file \""
+							+ path + "\".");
+			fail();
+		}
+
+		return;
+	}
+
+	/**
+	 * Gets the address of an HDF5 Object in a file. The address only changes
+	 * if the Object is written again.
+	 * 
+	 * @param path
+	 *            The path of the file.
+	 * @param name
+	 *            The path of the Object in the file.
+	 * @return The address of the Object.
+	 */
+	private long getObjectAddress(String path, String name) {
+
+		long address = -1;
+
+		try {
+			int fileId = H5.H5Fopen(path, HDF5Constants.H5F_ACC_RDONLY,
+					HDF5Constants.H5P_DEFAULT);
+			try {
+				address = H5.H5Oget_info_by_name(fileId, name,
+						HDF5Constants.H5P_DEFAULT).addr;
+			} finally {
+				H5.H5Fclose(fileId);
+			}
+		} catch (HDF5LibraryException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return address;
+	}
 }
\ No newline at end of file
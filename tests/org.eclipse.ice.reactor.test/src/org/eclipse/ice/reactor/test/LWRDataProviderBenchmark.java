@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataProvider;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark that measures the heap used by the
+ * state point data of a full core in the LWRDataProvider. It fills one
+ * provider for every rod of a 193 assembly core with pin powers and burnups
+ * at several axial levels and time steps, and compares the heap used against
+ * the same data kept as lists of LWRData, which is how the provider stored
+ * them before it was columnar. It also measures the time of a full garbage
+ * collection with each set of data live.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line with a large heap, for example -Xmx4g.
+ * </p>
+ * 
+ * @author agent
+ */
+public class LWRDataProviderBenchmark {
+
+	/**
+	 * The number of assemblies in the core.
+	 */
+	private static final int numAssemblies = 193;
+
+	/**
+	 * The number of rods in each assembly.
+	 */
+	private static final int numRods = 264;
+
+	/**
+	 * The number of axial levels for each rod.
+	 */
+	private static final int numAxialLevels = 24;
+
+	/**
+	 * The number of time steps.
+	 */
+	private static final int numTimes = 2;
+
+	/**
+	 * The features stored for each rod.
+	 */
+	private static final String[] features = { "Pin Power", "Burnup" };
+
+	/**
+	 * This operation runs the benchmark.
+	 * 
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) {
+
+		// Local Declarations
+		int numRodsInCore = numAssemblies * numRods;
+		long baseline, used;
+		Object data;
+
+		System.out.println("LWRDataProviderBenchmark: " + numRodsInCore
+				+ " rods, " + numRodsInCore * numAxialLevels * numTimes
+				* features.length + " values");
+
+		// Measure the lists of LWRData
+		baseline = getUsedMemory();
+		long start = System.nanoTime();
+		data = createObjectData(numRodsInCore);
+		long fillTime = System.nanoTime() - start;
+		used = getUsedMemory() - baseline;
+		report("LWRData lists", used, fillTime, getFullGCTime());
+		data = null;
+
+		// Measure the providers
+		baseline = getUsedMemory();
+		start = System.nanoTime();
+		data = createProviders(numRodsInCore);
+		fillTime = System.nanoTime() - start;
+		used = getUsedMemory() - baseline;
+		report("LWRDataProvider", used, fillTime, getFullGCTime());
+
+		// Keep the providers live until they are measured
+		if (data == null) {
+			System.out.println("No data!");
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation prints the results for one storage.
+	 * 
+	 * @param storage
+	 *            The name of the storage
+	 * @param used
+	 *            The heap used in bytes
+	 * @param fillTime
+	 *            The time to fill the data in nanoseconds
+	 * @param gcTime
+	 *            The time of a full collection in milliseconds
+	 */
+	private static void report(String storage, long used, long fillTime,
+			long gcTime) {
+		System.out.println("\t" + storage + ": heap (MB) " + used
+				/ (1024 * 1024) + ", fill (ms) " + fillTime / 1000000
+				+ ", full GC (ms) " + gcTime);
+	}
+
+	/**
+	 * This operation creates one LWRData for a value.
+	 * 
+	 * @param feature
+	 *            The feature
+	 * @param rod
+	 *            The index of the rod
+	 * @param level
+	 *            The axial level
+	 * @param time
+	 *            The time step
+	 * @return The LWRData
+	 */
+	private static LWRData createData(String feature, int rod, int level,
+			int time) {
+
+		// Local Declarations
+		LWRData data = new LWRData(feature);
+		ArrayList<Double> position = new ArrayList<Double>(3);
+
+		position.add(0.0);
+		position.add(0.0);
+		position.add((double) level);
+		data.setPosition(position);
+		data.setValue(Math.sin(rod + level + time));
+		data.setUncertainty(0.01);
+		data.setUnits("W");
+
+		return data;
+	}
+
+	/**
+	 * This operation creates the data for the core as lists of LWRData keyed
+	 * by time, in the same way that the provider used to store them.
+	 * 
+	 * @param numRodsInCore
+	 *            The number of rods in the core
+	 * @return The data
+	 */
+	private static ArrayList<TreeMap<Double, ArrayList<ArrayList<LWRData>>>> createObjectData(
+			int numRodsInCore) {
+
+		// Local Declarations
+		ArrayList<TreeMap<Double, ArrayList<ArrayList<LWRData>>>> core = new ArrayList<TreeMap<Double, ArrayList<ArrayList<LWRData>>>>(
+				numRodsInCore);
+
+		for (int i = 0; i < numRodsInCore; i++) {
+			TreeMap<Double, ArrayList<ArrayList<LWRData>>> tree = new TreeMap<Double, ArrayList<ArrayList<LWRData>>>();
+			for (int t = 0; t < numTimes; t++) {
+				ArrayList<ArrayList<LWRData>> sets = new ArrayList<ArrayList<LWRData>>();
+				for (String feature : features) {
+					ArrayList<LWRData> set = new ArrayList<LWRData>();
+					for (int k = 0; k < numAxialLevels; k++) {
+						set.add(createData(feature, i, k, t));
+					}
+					sets.add(set);
+				}
+				tree.put((double) t, sets);
+			}
+			core.add(tree);
+		}
+
+		return core;
+	}
+
+	/**
+	 * This operation creates the data for the core in LWRDataProviders.
+	 * 
+	 * @param numRodsInCore
+	 *            The number of rods in the core
+	 * @return The providers
+	 */
+	private static ArrayList<LWRDataProvider> createProviders(int numRodsInCore) {
+
+		// Local Declarations
+		ArrayList<LWRDataProvider> core = new ArrayList<LWRDataProvider>(
+				numRodsInCore);
+
+		for (int i = 0; i < numRodsInCore; i++) {
+			LWRDataProvider provider = new LWRDataProvider();
+			for (int t = 0; t < numTimes; t++) {
+				for (String feature : features) {
+					for (int k = 0; k < numAxialLevels; k++) {
+						provider.addData(createData(feature, i, k, t), t);
+					}
+				}
+			}
+			core.add(provider);
+		}
+
+		return core;
+	}
+
+	/**
+	 * This operation returns the heap in use after a full collection.
+	 * 
+	 * @return The used heap in bytes
+	 */
+	private static long getUsedMemory() {
+
+		// Local Declarations
+		Runtime runtime = Runtime.getRuntime();
+
+		// Collect a few times to let the collector settle
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * This operation forces a full collection and returns the time that the
+	 * collectors report for it.
+	 * 
+	 * @return The collection time in milliseconds
+	 */
+	private static long getFullGCTime() {
+
+		// Local Declarations
+		long gcTime = 0;
+
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			gcTime -= bean.getCollectionTime();
+		}
+		System.gc();
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			gcTime += bean.getCollectionTime();
+		}
+
+		return gcTime;
+	}
+}
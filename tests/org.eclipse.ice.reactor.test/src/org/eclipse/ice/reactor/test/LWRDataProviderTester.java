@@ -17,6 +17,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.reactor.GridLocation;
 import org.eclipse.ice.reactor.LWRData;
 import org.eclipse.ice.reactor.LWRDataProvider;
@@ -380,4 +383,80 @@ public class LWRDataProviderTester {
 		assertFalse(object.hashCode() == unEqualObject.hashCode());
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * An operation that checks that the data returned by the provider are
+	 * views of its columns that read and write the stored values.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkColumnarViews() {
+
+		// Local Declarations
+		LWRDataProvider provider = new LWRDataProvider();
+		LWRDataProvider copy;
+		ArrayList<Double> position = new ArrayList<Double>();
+
+		// Add enough data to grow the columns, all with the same units except
+		// the last one.
+		for (int i = 0; i < 10; i++) {
+			LWRData data = new LWRData("Power");
+			position.clear();
+			position.add(0.0);
+			position.add(1.0);
+			position.add((double) i);
+			data.setPosition(position);
+			data.setValue(i);
+			data.setUncertainty(0.5 * i);
+			data.setUnits(i < 9 ? "W" : "kW");
+			provider.addData(data, 1.0);
+
+			// Changes to the data after it was added are not stored
+			data.setValue(-1.0);
+		}
+		provider.setTime(1.0);
+
+		// Check the values
+		ArrayList<IData> dataList = provider.getDataAtCurrentTime("Power");
+		assertEquals(10, dataList.size());
+		for (int i = 0; i < 10; i++) {
+			IData data = dataList.get(i);
+			assertEquals(i, data.getValue(), 0.0);
+			assertEquals(0.5 * i, data.getUncertainty(), 0.0);
+			assertEquals(i, data.getPosition().get(2), 0.0);
+			assertEquals(i < 9 ? "W" : "kW", data.getUnits());
+			assertEquals("Power", data.getFeature());
+		}
+
+		// Copies do not share the columns
+		copy = (LWRDataProvider) provider.clone();
+		assertTrue(copy.equals(provider));
+		assertEquals(provider.hashCode(), copy.hashCode());
+
+		// The views write to the columns, but the feature can not be changed
+		LWRData view = (LWRData) dataList.get(3);
+		view.setValue(30.0);
+		view.setUnits("MW");
+		view.setFeature("Burnup");
+		position.set(2, 7.5);
+		view.setPosition(position);
+		view = (LWRData) provider.getDataAtCurrentTime("Power").get(3);
+		assertEquals(30.0, view.getValue(), 0.0);
+		assertEquals("MW", view.getUnits());
+		assertEquals("Power", view.getFeature());
+		assertEquals(7.5, view.getPosition().get(2), 0.0);
+		assertEquals("W", provider.getDataAtCurrentTime("Power").get(2)
+				.getUnits());
+		assertFalse(copy.equals(provider));
+
+		// Clones of views are ordinary LWRData
+		LWRData clone = (LWRData) view.clone();
+		assertTrue(clone.equals(view));
+		assertTrue(view.equals(clone));
+		clone.setValue(1.0);
+		assertEquals(30.0, view.getValue(), 0.0);
+
+	}
+}
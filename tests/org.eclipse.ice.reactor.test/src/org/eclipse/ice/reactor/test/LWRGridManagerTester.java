@@ -39,6 +39,7 @@ import org.eclipse.ice.reactor.GridLocation;
 import org.eclipse.ice.reactor.HDF5LWRTagType;
 import org.eclipse.ice.reactor.LWRComponent;
 import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataProvider;
 import org.eclipse.ice.reactor.LWRGridManager;
 
 /**
@@ -616,6 +617,9 @@ public class LWRGridManagerTester {
 		manager.addComponent(component1, location1);
 		manager.addComponent(component2, location2);
 
+		// This test checks the structure of the older layout
+		manager.setLegacyLayout(true);
+
 		// Add data to the location
 		location1.getLWRDataProvider().addData(data1, time1);
 		location1.getLWRDataProvider().addData(data2, time1);
@@ -1306,6 +1310,163 @@ public class LWRGridManagerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that the chunked and older layouts can both be
+	 * read and that a read can be limited to one time or one location.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkHDF5Layouts() {
+
+		// Local Declarations
+		LWRGridManager component = new LWRGridManager(5);
+		GridLocation location1 = new GridLocation(0, 1);
+		GridLocation location2 = new GridLocation(2, 2);
+		GridLocation location3 = new GridLocation(4, 0);
+		File dataFile = new File(System.getProperty("user.dir")
+				+ System.getProperty("file.separator") + "test.h5");
+		URI uri = dataFile.toURI();
+
+		// Setup the component
+		component.setName("Layouts");
+		component.setId(2);
+		component.addComponent(new LWRComponent("Component 1"), location1);
+		component.addComponent(new LWRComponent("Component 2"), location2);
+		component.addComponent(new LWRComponent("Component 1"), location3);
+
+		// Add data at several times. Location 2 has a different number of
+		// axial values and its features in the opposite order.
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 3; j++) {
+				ArrayList<Double> position = new ArrayList<Double>();
+				position.add(0.0);
+				position.add(0.5);
+				position.add((double) j);
+				LWRData data = new LWRData("Power");
+				data.setPosition(position);
+				data.setValue(i * 10.0 + j);
+				data.setUncertainty(0.1 * j);
+				data.setUnits("W");
+				location1.getLWRDataProvider().addData(data, i * 0.5);
+			}
+			LWRData data = new LWRData("Temperature");
+			data.setValue(300.0 + i);
+			data.setUnits("K");
+			location1.getLWRDataProvider().addData(data, i * 0.5);
+			location2.getLWRDataProvider().addData(
+					(LWRData) data.clone(), i * 0.5);
+			data = new LWRData("Power");
+			data.setValue(i);
+			data.setUnits("W");
+			location2.getLWRDataProvider().addData(data, i * 0.5);
+		}
+
+		// Check both layouts. The older layout does not keep the order of the
+		// features, so only the chunked layout is compared in full.
+		for (int i = 0; i < 2; i++) {
+
+			// Write the component
+			boolean legacy = (i == 1);
+			component.setLegacyLayout(legacy);
+			H5Group subGroup = writeLayoutFile(component, uri);
+			assertNotNull(subGroup);
+
+			// Read everything
+			LWRGridManager newComponent = new LWRGridManager(1);
+			assertTrue(newComponent.readAttributes(subGroup));
+			assertTrue(newComponent.readDatasets(subGroup));
+			assertEquals(!legacy, component.equals(newComponent));
+
+			// Read one time
+			newComponent = new LWRGridManager(1);
+			newComponent.setReadFilter(1.0, null);
+			assertTrue(newComponent.readAttributes(subGroup));
+			assertTrue(newComponent.readDatasets(subGroup));
+			assertEquals(2, newComponent.getGridLocationsAtName("Component 1")
+					.size());
+			assertEquals("Component 2", newComponent.getComponentName(location2));
+			LWRDataProvider provider = newComponent
+					.getDataProviderAtLocation(location1);
+			assertEquals(1, provider.getTimes().size());
+			assertEquals(1.0, provider.getTimes().get(0), 0.0);
+			provider.setTime(1.0);
+			assertEquals(3, provider.getDataAtCurrentTime("Power").size());
+			assertEquals(22.0, provider.getDataAtCurrentTime("Power").get(2)
+					.getValue(), 0.0);
+			assertEquals(2.0, provider.getDataAtCurrentTime("Power").get(2)
+					.getPosition().get(2), 0.0);
+			provider = newComponent.getDataProviderAtLocation(location2);
+			provider.setTime(1.0);
+			assertEquals(2, provider.getFeaturesAtCurrentTime().size());
+			assertEquals(legacy ? "Power" : "Temperature", provider
+					.getFeaturesAtCurrentTime().get(0));
+			assertEquals("K", provider.getDataAtCurrentTime("Temperature")
+					.get(0).getUnits());
+
+			// Read one location
+			newComponent = new LWRGridManager(1);
+			newComponent.setReadFilter(null, location2);
+			assertTrue(newComponent.readAttributes(subGroup));
+			assertTrue(newComponent.readDatasets(subGroup));
+			assertEquals("Component 2", newComponent.getComponentName(location2));
+			assertTrue(newComponent.getDataProviderAtLocation(location1)
+					.getTimes().isEmpty());
+			assertTrue(newComponent.getDataProviderAtLocation(location3)
+					.getTimes().isEmpty());
+			assertEquals(4, newComponent.getDataProviderAtLocation(location2)
+					.getTimes().size());
+
+			// Close the file
+			try {
+				subGroup.getFileFormat().close();
+			} catch (Exception e) {
+				e.printStackTrace();
+				fail();
+			}
+			dataFile.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes the LWRGridManager to a new file and returns its
+	 * group from the reopened file.
+	 * 
+	 * @param component
+	 *            The LWRGridManager
+	 * @param uri
+	 *            The URI of the file
+	 * @return The group of the component or null if it could not be written
+	 */
+	private H5Group writeLayoutFile(LWRGridManager component, URI uri) {
+
+		// Create the file
+		H5File h5File = HdfFileFactory.createH5File(uri);
+
+		try {
+			h5File.open();
+			H5Group parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+			H5Group subGroup = component.createGroup(h5File, parentH5Group);
+			assertTrue(component.writeAttributes(h5File, subGroup));
+			assertTrue(component.writeDatasets(h5File, subGroup));
+
+			// Close the file and then reopen it
+			h5File.close();
+			h5File.open();
+			parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+			return (H5Group) parentH5Group.getMemberList().get(0);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+
+		return null;
+	}
+
 	/**
 	 * <p>
 	 * Removes the test.h5 file after the tests fails (to keep the workspace
@@ -154,6 +154,10 @@ public class FakeAnalysisDocument implements IAnalysisDocument {
 	 */
 	public void createSelectedAssets() {
 
+		// Create a new asset so that clients can tell the assets apart
+		asset = new FakeAnalysisAsset();
+		assetsCreated = true;
+
 		return;
 
 	}
@@ -230,8 +234,7 @@ public class FakeAnalysisDocument implements IAnalysisDocument {
 
 	@Override
 	public boolean loadReferenceData(IDataProvider data) {
-		// TODO Auto-generated method stub
-		return false;
+		return true;
 	}
 
 	@Override
@@ -17,8 +17,12 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.ice.analysistool.IAnalysisDocument;
 import org.eclipse.ice.analysistool.IAnalysisTool;
+import org.eclipse.ice.analysistool.IDataProvider;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
@@ -27,7 +31,9 @@ import org.eclipse.ice.datastructures.form.MasterDetailsComponent;
 import org.eclipse.ice.datastructures.form.ResourceComponent;
 import org.eclipse.ice.datastructures.resource.ICEResource;
 import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
+import org.eclipse.ice.reactor.pwr.PressurizedWaterReactor;
 import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzerBuilder;
+import org.eclipse.ice.reactorAnalyzer.ReactorComposite;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IWorkspaceRoot;
@@ -475,4 +481,256 @@ public class ReactorAnalyzerTester {
 		return;
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks that the ReactorAnalyzer reuses the assets of a
+	 * document when it is processed again with the same selection and that it
+	 * creates them again when the reference data is changed.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkAssetMemo() {
+
+		// Make the ReactorAnalyzer
+		FakeAnalysisDocument document = new FakeAnalysisDocument();
+		reactorAnalyzer = createAnalyzer(document);
+		Form form = reactorAnalyzer.getForm();
+
+		// Nothing has been processed, so there is nothing left to do
+		assertEquals(1.0, reactorAnalyzer.getProgress(), 0.0);
+
+		// Load the data and reference and select an asset
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.submitForm(form));
+		selectFirstAsset(form);
+
+		// Process the Form and make sure the assets were created
+		processAndWait();
+		assertEquals(FormStatus.Processed, reactorAnalyzer.getStatus());
+		assertEquals(1.0, reactorAnalyzer.getProgress(), 0.0);
+		assertTrue(document.assetsCreated());
+		FakeAnalysisAsset asset = document.getAsset();
+
+		// Processing the same selection again should reuse the assets
+		document.reset();
+		processAndWait();
+		assertEquals(FormStatus.Processed, reactorAnalyzer.getStatus());
+		assertFalse(document.assetsCreated());
+
+		// Swap the reference reactor. The selection is cleared when the
+		// reference changes, so make the same selection again.
+		ReactorComposite composite = (ReactorComposite) form
+				.getComponent(ReactorAnalyzer.reactorCompositeId);
+		PressurizedWaterReactor reference = new PressurizedWaterReactor(15);
+		reference.setName("Reference");
+		reference.setId(ReactorAnalyzer.referenceReactorComponentId);
+		composite.setComponent(ReactorAnalyzer.referenceReactorComponentId,
+				reference);
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.submitForm(form));
+		selectFirstAsset(form);
+
+		// The assets should be created again for the new reference
+		processAndWait();
+		assertEquals(FormStatus.Processed, reactorAnalyzer.getStatus());
+		assertTrue(document.assetsCreated());
+		assertNotNull(document.getAsset());
+		assertNotSame(asset, document.getAsset());
+
+		return;
+
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that a processing request can be canceled while
+	 * a document is creating its assets, that getProgress() reports on the
+	 * request and that the assets that were finished are kept for the next
+	 * request.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkCancelProcess() {
+
+		// Local Declarations
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		// Make a document that waits to be released while it creates its
+		// assets
+		FakeAnalysisDocument document = new FakeAnalysisDocument() {
+			@Override
+			public void createSelectedAssets() {
+				started.countDown();
+				try {
+					release.await(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				super.createSelectedAssets();
+			}
+		};
+		reactorAnalyzer = createAnalyzer(document);
+		Form form = reactorAnalyzer.getForm();
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.submitForm(form));
+		selectFirstAsset(form);
+
+		// There is nothing to cancel yet
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.cancelProcess());
+
+		// Start processing and cancel while the document is busy
+		assertEquals(FormStatus.Processing,
+				reactorAnalyzer.process("Generate Analysis Artifacts"));
+		try {
+			assertTrue(started.await(30, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+			fail();
+		}
+		assertEquals(FormStatus.Processing, reactorAnalyzer.getStatus());
+		assertEquals(0.0, reactorAnalyzer.getProgress(), 0.0);
+		assertEquals(FormStatus.InfoError,
+				reactorAnalyzer.cancelProcess("Beam me up."));
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.cancelProcess());
+
+		// Let the document finish. The request should stay canceled and the
+		// Form should not be updated.
+		release.countDown();
+		waitForProgress();
+		assertEquals(FormStatus.ReadyToProcess, reactorAnalyzer.getStatus());
+		assertTrue(document.assetsCreated());
+		ResourceComponent resourceComp = (ResourceComponent) form
+				.getComponent(2);
+		assertTrue(resourceComp.getResources().isEmpty());
+
+		// The next request should reuse the assets that were finished
+		document.reset();
+		processAndWait();
+		assertEquals(FormStatus.Processed, reactorAnalyzer.getStatus());
+		assertFalse(document.assetsCreated());
+		assertEquals(1, resourceComp.getResources().size());
+
+		return;
+
+	}
+
+	/**
+	 * <p>
+	 * This operation creates a ReactorAnalyzer that creates the given document
+	 * for its input data. The document is created by a fake tool with the
+	 * name of the KDD analysis tool, which is the only tool that the
+	 * ReactorAnalyzer uses.
+	 * </p>
+	 * 
+	 * @param document
+	 *            The document
+	 * @return The ReactorAnalyzer
+	 */
+	private ReactorAnalyzer createAnalyzer(final FakeAnalysisDocument document) {
+
+		// Make the ReactorAnalyzer
+		ReactorAnalyzer analyzer = new ReactorAnalyzer(projectSpace);
+		analyzer.setName(ReactorAnalyzerBuilder.name);
+
+		// Set the analysis tools
+		ArrayList<IAnalysisTool> tools = new ArrayList<IAnalysisTool>();
+		tools.add(new FakeAnalysisTool() {
+			@Override
+			public String getName() {
+				return "Knowledge Discovery and Data Mining ICE Analysis Tool";
+			}
+
+			@Override
+			public IAnalysisDocument createDocument(IDataProvider data) {
+				return document;
+			}
+		});
+		analyzer.setAnalysisTools(tools);
+
+		return analyzer;
+	}
+
+	/**
+	 * <p>
+	 * This operation selects the first available asset in the
+	 * MasterDetailsComponent of a Form.
+	 * </p>
+	 * 
+	 * @param form
+	 *            The Form
+	 */
+	private void selectFirstAsset(Form form) {
+
+		// Get the MasterDetailsComponent
+		MasterDetailsComponent masterDetailsComponent = (MasterDetailsComponent) form
+				.getComponent(3);
+		ArrayList<String> masterValues = masterDetailsComponent
+				.getAllowedMasterValues();
+		assertNotNull(masterValues);
+		assertFalse(masterValues.isEmpty());
+
+		// Add a master and select the asset
+		int masterId = masterDetailsComponent.addMaster();
+		masterDetailsComponent.setMasterInstanceValue(masterId,
+				masterValues.get(0));
+		assertEquals(1, masterDetailsComponent.numberOfMasters());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation directs the ReactorAnalyzer to generate the analysis
+	 * artifacts and waits until it is done.
+	 * </p>
+	 * 
+	 */
+	private void processAndWait() {
+
+		// Start processing
+		assertEquals(FormStatus.Processing,
+				reactorAnalyzer.process("Generate Analysis Artifacts"));
+
+		// Wait until the Item is done
+		long end = System.currentTimeMillis() + 30000;
+		while (reactorAnalyzer.getStatus().equals(FormStatus.Processing)) {
+			assertTrue(System.currentTimeMillis() < end);
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation waits until all of the documents of the current request
+	 * have been processed.
+	 * </p>
+	 * 
+	 */
+	private void waitForProgress() {
+
+		// Wait until all of the documents are done
+		long end = System.currentTimeMillis() + 30000;
+		while (reactorAnalyzer.getProgress() < 1.0) {
+			assertTrue(System.currentTimeMillis() < end);
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+}
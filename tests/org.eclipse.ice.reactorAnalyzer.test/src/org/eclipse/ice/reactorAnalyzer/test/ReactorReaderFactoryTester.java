@@ -14,6 +14,7 @@ package org.eclipse.ice.reactorAnalyzer.test;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -59,6 +60,7 @@ public class ReactorReaderFactoryTester {
 		/* ---- Test LWR functionality. ---- */
 		// Generate and write a simple reactor.
 		reactor = new PressurizedWaterReactor(4);
+		((PressurizedWaterReactor) reactor).setName("Reactor A");
 		file = new File(directory + "simpleLWR.h5");
 		uri = file.toURI();
 		lwrWriter.write((PressurizedWaterReactor) reactor, uri);
@@ -69,6 +71,35 @@ public class ReactorReaderFactoryTester {
 		// Verify that they are equivalent.
 		assertTrue(reactor.equals(loadedReactor));
 
+		// Every read should return a new reactor, so changing one should not
+		// change the next one.
+		IReactorComponent rereadReactor = factory.readReactor(uri);
+		assertNotSame(loadedReactor, rereadReactor);
+		assertTrue(reactor.equals(rereadReactor));
+		((PressurizedWaterReactor) loadedReactor).setName("Changed");
+		assertTrue(reactor.equals(factory.readReactor(uri)));
+
+		// Reading the unchanged file again, even with another factory, should
+		// use the cached reactor. Replace the file with a different reactor of
+		// the same size and restore its modification time to check this.
+		long lastModified = file.lastModified();
+		PressurizedWaterReactor otherReactor = new PressurizedWaterReactor(4);
+		otherReactor.setName("Reactor B");
+		lwrWriter.write(otherReactor, uri);
+		file.setLastModified(lastModified);
+		assertTrue(reactor.equals(new ReactorReaderFactory().readReactor(uri)));
+
+		// Changing the file should read it again.
+		file.setLastModified(lastModified + 2000);
+		assertTrue(otherReactor.equals(factory.readReactor(uri)));
+
+		// Clearing the cache should also read it again.
+		lwrWriter.write((PressurizedWaterReactor) reactor, uri);
+		file.setLastModified(lastModified + 2000);
+		assertTrue(otherReactor.equals(factory.readReactor(uri)));
+		ReactorReaderFactory.clearCache();
+		assertTrue(reactor.equals(factory.readReactor(uri)));
+
 		// Delete the file that was just created.
 		try {
 			file.delete();
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - 
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import org.apache.commons.math.complex.Complex;
+import org.eclipse.ice.reflectivity.ReflectivityCalculator;
+import org.eclipse.ice.reflectivity.Tile;
+
+/**
+ * This class is a reference implementation of the reflectivity and
+ * convolution routines of {@link ReflectivityCalculator} that uses the Apache
+ * Commons Complex class and evaluates the resolution function on the fly, as
+ * the calculator originally did. It is used to check the optimized calculator
+ * and to benchmark it.
+ * 
+ * @author Jay Jay Billings, John Ankner
+ *
+ */
+public class ReferenceReflectivityCalculator {
+
+	/**
+	 * This operation returns the value of the squared modulus of the specular
+	 * reflectivity for a single wave vector Q.
+	 * 
+	 * @param waveVectorQ
+	 *            the value of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the list of Tiles
+	 * @return the squared modulus of the specular reflectivity
+	 */
+	public static double getModSqrdSpecRef(double waveVectorQ,
+			double wavelength, Tile[] tiles) {
+
+		double modSqrdSpecRef = 0.0;
+
+		if (wavelength > 0.0) {
+			Tile tile;
+			Complex aNm1Sq, fNm1N, rNm1N = new Complex(0.0, 0.0), one = new Complex(
+					1.0, 0.0), qN = new Complex(0.0, 0.0), rNNp1 = new Complex(
+					0.0, 0.0);
+			// Get the bottom tile
+			int nLayers = tiles.length;
+			tile = tiles[nLayers - 1];
+			// Starting point--no reflected beam in bottom-most (bulk) layer
+			double qCSq = 16.0 * Math.PI * tile.scatteringLength;
+			double muLAbs = tile.trueAbsLength;
+			double mulInc = tile.incAbsLength;
+			double thickness = tile.thickness;
+			double betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
+			Complex qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
+					* betaNm1);
+			qNm1 = qNm1.sqrt();
+			// Start at the bottom and work up.
+			for (int i = nLayers - 1; i > 0; i--) {
+				tile = tiles[i - 1];
+				qN = qNm1;
+				qCSq = 16.0 * Math.PI * tile.scatteringLength;
+				muLAbs = tile.trueAbsLength;
+				mulInc = tile.incAbsLength;
+				thickness = tile.thickness;
+				betaNm1 = 4.0 * Math.PI * (muLAbs + mulInc / wavelength);
+				qNm1 = new Complex(waveVectorQ * waveVectorQ - qCSq, -2.0
+						* betaNm1);
+				qNm1 = qNm1.sqrt();
+				// Calculate phase factor, e^(-0.5*d*qNm1)
+				aNm1Sq = (new Complex(qNm1.getImaginary(), qNm1.getReal())
+						.multiply(-0.5 * thickness)).exp();
+				fNm1N = qNm1.subtract(qN).divide(qNm1.add(qN));
+				// Calculate the reflectivity amplitude.
+				Complex y = rNNp1.multiply(fNm1N).add(one);
+				Complex z = rNNp1.add(fNm1N);
+				rNm1N = aNm1Sq.multiply(aNm1Sq).multiply(z.divide((y)));
+				rNNp1 = rNm1N;
+			}
+			modSqrdSpecRef = rNm1N.getReal() * rNm1N.getReal()
+					+ rNm1N.getImaginary() * rNm1N.getImaginary();
+		}
+
+		return modSqrdSpecRef;
+	}
+
+	/**
+	 * This operation convolutes the data in refFit with a Gaussian resolution
+	 * function in q, evaluating the Gaussian for every pair of points.
+	 * 
+	 * @param waveVector
+	 *            the extended wave vector
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution Taylor expansion
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 * @param numPoints
+	 *            the number of points in the wave vector
+	 * @param numLowPoints
+	 *            the number of points in the low-Q extension
+	 * @param refFit
+	 *            INPUT/OUTPUT - the reflectivity on the extended wave vector,
+	 *            replaced by the convoluted values.
+	 */
+	public static void convolute(double[] waveVector, double deltaQ0,
+			double deltaQ1ByQ, int numPoints, int numLowPoints, double[] refFit) {
+
+		double ln2 = Math.log(2.0);
+		double qEff = 0.0, qRes = 0.0, rExp = 0.0, rNorm = 0.0;
+		double[] refTemp = new double[numPoints];
+		int nStep = 0;
+		boolean lFinish = false, hFinish = false;
+
+		for (int i = numLowPoints; i <= numLowPoints + numPoints - 1; i++) {
+			if (waveVector[i] < 1.0e-10) {
+				qEff = 1.0e-10;
+			} else {
+				qEff = waveVector[i];
+			}
+			double qDel = deltaQ0 + qEff * deltaQ1ByQ;
+			double twSgSq = 2.0 * qDel * qDel / (8.0 * ln2);
+			if (twSgSq < 1.0e-10) {
+				twSgSq = 1.0e-10;
+			}
+			rNorm = 1.0;
+			refTemp[i - numLowPoints] = refFit[i];
+			nStep = 1;
+			lFinish = false;
+			hFinish = false;
+			while (!lFinish && !hFinish) {
+				qRes = waveVector[i - nStep] - waveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					refTemp[i - numLowPoints] = refTemp[i - numLowPoints]
+							+ rExp * refFit[i - nStep];
+				} else {
+					lFinish = true;
+				}
+				qRes = waveVector[i + nStep] - waveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					refTemp[i - numLowPoints] = refTemp[i - numLowPoints]
+							+ rExp * refFit[i + nStep];
+				} else {
+					hFinish = true;
+				}
+				nStep++;
+			}
+			refTemp[i - numLowPoints] = refTemp[i - numLowPoints] / rNorm;
+		}
+		for (int i = 0; i < numPoints; i++) {
+			refFit[i] = refTemp[i];
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation computes the convolution of the reflectivity with a
+	 * variable Gaussian resolution function serially.
+	 * 
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution Taylor expansion
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param waveVector
+	 *            the wave vector
+	 * @param tiles
+	 *            the tiles that define the layered structure
+	 * @return the reflectivity
+	 */
+	public static double[] convoluteReflectivity(double deltaQ0,
+			double deltaQ1ByQ, double wavelength, double[] waveVector,
+			Tile[] tiles) {
+
+		// Local Declarations
+		ReflectivityCalculator calc = new ReflectivityCalculator();
+		int numPoints = waveVector.length;
+		double[] reflectivity = new double[numPoints];
+
+		// Determine the length of the high- and low-Q extensions
+		int numLowPoints = calc.getLowExtensionLength(waveVector, deltaQ0,
+				deltaQ1ByQ, numPoints);
+		int numHighPoints = calc.getHighExtensionLength(waveVector, deltaQ0,
+				deltaQ1ByQ, numPoints);
+
+		// Extend the wave vector
+		double[] tempWaveVector = new double[numLowPoints + numHighPoints
+				+ numPoints];
+		double waveVecStep = waveVector[1] - waveVector[0];
+		for (int i = 0; i < numLowPoints; i++) {
+			tempWaveVector[i] = waveVector[0] - waveVecStep
+					* ((double) numLowPoints + 1 - i);
+		}
+		for (int i = 0; i < numPoints; i++) {
+			tempWaveVector[numLowPoints + i] = waveVector[i];
+		}
+		waveVecStep = waveVector[numPoints - 1] - waveVector[numPoints - 2];
+		for (int i = 0; i < numHighPoints; i++) {
+			tempWaveVector[i + numLowPoints + numPoints] = waveVector[numPoints - 1]
+					+ waveVecStep * ((double) i);
+		}
+
+		// Calculate the reflectivity on the extended wave vector
+		double[] tempReflectivity = new double[tempWaveVector.length];
+		for (int i = 0; i < tempWaveVector.length; i++) {
+			double qEff = Math.max(tempWaveVector[i], 1.0e-10);
+			tempReflectivity[i] = getModSqrdSpecRef(qEff, wavelength, tiles);
+		}
+
+		// Convolve with instrumental resolution
+		convolute(tempWaveVector, deltaQ0, deltaQ1ByQ, numPoints,
+				numLowPoints, tempReflectivity);
+		for (int i = 0; i < numPoints; i++) {
+			reflectivity[i] = tempReflectivity[i];
+		}
+
+		return reflectivity;
+	}
+}
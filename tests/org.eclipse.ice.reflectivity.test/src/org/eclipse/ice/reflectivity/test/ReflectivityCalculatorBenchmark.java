@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - 
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import org.eclipse.ice.reflectivity.ReflectivityCalculator;
+import org.eclipse.ice.reflectivity.Slab;
+import org.eclipse.ice.reflectivity.Tile;
+
+/**
+ * This class is a stand-alone benchmark that compares the time to compute the
+ * convoluted reflectivity with {@link ReflectivityCalculator} against the
+ * reference implementation that uses Complex objects, as a fitting routine
+ * would by calling it many times for the same wave vector. It also times the
+ * batch operation for a set of candidate profiles and checks that every
+ * result matches the reference to 1.0e-12.
+ * 
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line.
+ * 
+ * @author agent
+ *
+ */
+public class ReflectivityCalculatorBenchmark {
+
+	/**
+	 * The number of points in the wave vector.
+	 */
+	private static final int numPoints = 400;
+
+	/**
+	 * The number of calls that are timed for each implementation.
+	 */
+	private static final int numIterations = 200;
+
+	/**
+	 * The number of candidate profiles in the batch.
+	 */
+	private static final int batchSize = 32;
+
+	/**
+	 * The largest allowed difference from the reference.
+	 */
+	private static final double tolerance = 1.0e-12;
+
+	/**
+	 * This operation runs the benchmark.
+	 * 
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) throws Exception {
+
+		// Local Declarations
+		ReflectivityCalculator calc = new ReflectivityCalculator();
+		double deltaQ0 = 0.0002, deltaQ1ByQ = 0.025, lambda = 4.25;
+		double[] waveVector = new double[numPoints];
+		double[] zInt = new double[ReflectivityCalculator.maxRoughSize];
+		double[] rufInt = new double[ReflectivityCalculator.maxRoughSize];
+		Tile[][] candidates = new Tile[batchSize][];
+		double maxDifference = 0.0;
+
+		// Create the wave vector and the candidate profiles
+		for (int i = 0; i < numPoints; i++) {
+			waveVector[i] = 0.008 + 0.0005 * i;
+		}
+		calc.getInterfacialProfile(41, zInt, rufInt);
+		for (int i = 0; i < batchSize; i++) {
+			candidates[i] = calc.generateTiles(createSlabs(1.0 + 0.01 * i),
+					41, zInt, rufInt);
+		}
+		Tile[] tiles = candidates[0];
+		System.out.println("ReflectivityCalculatorBenchmark: " + numPoints
+				+ " points, " + tiles.length + " tiles, "
+				+ Runtime.getRuntime().availableProcessors() + " processors");
+
+		// Warm up and check the results
+		for (int i = 0; i < 5; i++) {
+			for (Tile[] candidate : candidates) {
+				double[] ref = ReferenceReflectivityCalculator
+						.convoluteReflectivity(deltaQ0, deltaQ1ByQ, lambda,
+								waveVector, candidate);
+				double[] fast = calc.convoluteReflectivity(deltaQ0,
+						deltaQ1ByQ, lambda, false, waveVector, candidate);
+				for (int j = 0; j < numPoints; j++) {
+					maxDifference = Math.max(maxDifference,
+							Math.abs(ref[j] - fast[j]));
+				}
+			}
+			calc.convoluteReflectivity(deltaQ0, deltaQ1ByQ, lambda, false,
+					waveVector, candidates);
+		}
+		System.out.println("\tMaximum difference from the reference: "
+				+ maxDifference);
+		if (maxDifference > tolerance) {
+			System.out.println("\tFAILED: the results differ by more than "
+					+ tolerance);
+		}
+
+		// Time the reference
+		long start = System.nanoTime();
+		for (int i = 0; i < numIterations; i++) {
+			ReferenceReflectivityCalculator.convoluteReflectivity(deltaQ0,
+					deltaQ1ByQ, lambda, waveVector, tiles);
+		}
+		report("Reference", System.nanoTime() - start, numIterations);
+
+		// Time the calculator
+		start = System.nanoTime();
+		for (int i = 0; i < numIterations; i++) {
+			calc.convoluteReflectivity(deltaQ0, deltaQ1ByQ, lambda, false,
+					waveVector, tiles);
+		}
+		report("ReflectivityCalculator", System.nanoTime() - start,
+				numIterations);
+
+		// Time the batch
+		start = System.nanoTime();
+		for (int i = 0; i < numIterations / batchSize + 1; i++) {
+			calc.convoluteReflectivity(deltaQ0, deltaQ1ByQ, lambda, false,
+					waveVector, candidates);
+		}
+		report("ReflectivityCalculator batch", System.nanoTime() - start,
+				(numIterations / batchSize + 1) * batchSize);
+
+		return;
+	}
+
+	/**
+	 * This operation prints the time per profile.
+	 * 
+	 * @param name
+	 *            The name of the implementation
+	 * @param time
+	 *            The total time in nanoseconds
+	 * @param numProfiles
+	 *            The number of profiles computed in that time
+	 */
+	private static void report(String name, long time, int numProfiles) {
+		System.out.println("\t" + name + ": " + time / 1.0e6 / numProfiles
+				+ " ms per profile");
+	}
+
+	/**
+	 * This operation creates the slabs of the NiOx/Ni/SiNiOx/Si system used
+	 * in the tests with the thickness of the nickel scaled by a factor.
+	 * 
+	 * @param scale
+	 *            The factor for the nickel thickness
+	 * @return The slabs
+	 */
+	private static Slab[] createSlabs(double scale) {
+
+		// Air
+		Slab air = new Slab();
+		air.thickness = 200.0;
+
+		// NiOx
+		Slab niOx = new Slab();
+		niOx.scatteringLength = (0.00000686 + 0.00000715) / 2.0;
+		niOx.trueAbsLength = 2.27931868269305E-09;
+		niOx.incAbsLength = 4.74626235093697E-09;
+		niOx.thickness = 22.0;
+		niOx.interfaceWidth = 4.0 * 2.35;
+
+		// Ni
+		Slab ni = new Slab();
+		ni.scatteringLength = 9.31e-6;
+		ni.trueAbsLength = 2.27931868269305E-09;
+		ni.incAbsLength = 4.74626235093697E-09;
+		ni.thickness = 551.0 * scale;
+		ni.interfaceWidth = 4.3 * 2.35;
+
+		// SiNiOx
+		Slab siNiOx = new Slab();
+		siNiOx.scatteringLength = (0.00000554 + 0.00000585) / 2.0;
+		siNiOx.trueAbsLength = 2.27931868269305E-09;
+		siNiOx.incAbsLength = 4.74626235093697E-09;
+		siNiOx.thickness = 42.0;
+		siNiOx.interfaceWidth = 7.0 * 2.35;
+
+		// Si
+		Slab si = new Slab();
+		si.scatteringLength = 2.070e-6;
+		si.trueAbsLength = 4.74981478870069E-11;
+		si.incAbsLength = 1.99769988072137E-12;
+		si.thickness = 100.0;
+		si.interfaceWidth = 17.5;
+
+		return new Slab[] { air, niOx, ni, siNiOx, si };
+	}
+}
@@ -657,4 +657,147 @@ public class ReflectivityCalculatorTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that the optimized, parallel reflectivity
+	 * routines of {@link ReflectivityCalculator} match the reference
+	 * implementation that uses Complex objects, that the cached resolution
+	 * function gives the same results, and that the batch operation matches
+	 * the single operation.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void testOptimizedReflectivity() throws MathException {
+
+		// Local Declarations
+		ReflectivityCalculator calc = new ReflectivityCalculator();
+		double deltaQ0 = 0.0002, deltaQ1ByQ = 0.025, lambda = 4.25;
+		double[] waveVector = new double[400];
+		double[] zInt = new double[ReflectivityCalculator.maxRoughSize];
+		double[] rufInt = new double[ReflectivityCalculator.maxRoughSize];
+
+		// Create the wave vector and the tiles
+		for (int i = 0; i < waveVector.length; i++) {
+			waveVector[i] = 0.008 + 0.0005 * i;
+		}
+		calc.getInterfacialProfile(41, zInt, rufInt);
+		Tile[] tiles = calc.generateTiles(slabs, 41, zInt, rufInt);
+
+		// Check single points, including the lower limit of the wave vector
+		double[] points = { 1.0e-10, 0.01, 0.0215, 0.1, 0.3 };
+		for (double q : points) {
+			assertEquals(
+					ReferenceReflectivityCalculator.getModSqrdSpecRef(q,
+							lambda, tiles),
+					calc.getModSqrdSpecRef(q, lambda, tiles), 1.0e-12);
+		}
+
+		// Check the convoluted reflectivity
+		double[] refReflectivity = ReferenceReflectivityCalculator
+				.convoluteReflectivity(deltaQ0, deltaQ1ByQ, lambda,
+						waveVector, tiles);
+		double[] reflectivity = calc.convoluteReflectivity(deltaQ0,
+				deltaQ1ByQ, lambda, false, waveVector, tiles);
+		assertEquals(refReflectivity.length, reflectivity.length);
+		for (int i = 0; i < reflectivity.length; i++) {
+			assertEquals(refReflectivity[i], reflectivity[i], 1.0e-12);
+		}
+
+		// The cached resolution function should give exactly the same results
+		double[] cachedReflectivity = calc.convoluteReflectivity(deltaQ0,
+				deltaQ1ByQ, lambda, false, waveVector, tiles);
+		for (int i = 0; i < reflectivity.length; i++) {
+			assertEquals(reflectivity[i], cachedReflectivity[i], 0.0);
+		}
+
+		// Create a second candidate with thicker layers and check the batch
+		Tile[] thickTiles = new Tile[tiles.length];
+		for (int i = 0; i < tiles.length; i++) {
+			thickTiles[i] = new Tile();
+			thickTiles[i].scatteringLength = tiles[i].scatteringLength;
+			thickTiles[i].trueAbsLength = tiles[i].trueAbsLength;
+			thickTiles[i].incAbsLength = tiles[i].incAbsLength;
+			thickTiles[i].thickness = 1.1 * tiles[i].thickness;
+		}
+		double[][] batch = calc.convoluteReflectivity(deltaQ0, deltaQ1ByQ,
+				lambda, false, waveVector, new Tile[][] { tiles, thickTiles });
+		double[] thickReflectivity = ReferenceReflectivityCalculator
+				.convoluteReflectivity(deltaQ0, deltaQ1ByQ, lambda,
+						waveVector, thickTiles);
+		assertEquals(2, batch.length);
+		for (int i = 0; i < reflectivity.length; i++) {
+			assertEquals(reflectivity[i], batch[0][i], 0.0);
+			assertEquals(thickReflectivity[i], batch[1][i], 1.0e-12);
+		}
+
+		// Changing the resolution should not reuse the old function
+		refReflectivity = ReferenceReflectivityCalculator
+				.convoluteReflectivity(deltaQ0, 0.05, lambda, waveVector,
+						tiles);
+		reflectivity = calc.convoluteReflectivity(deltaQ0, 0.05, lambda,
+				false, waveVector, tiles);
+		for (int i = 0; i < reflectivity.length; i++) {
+			assertEquals(refReflectivity[i], reflectivity[i], 1.0e-12);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that
+	 * {@link ReflectivityCalculator#convoluteReflectivity()} scales the
+	 * convoluted reflectivity by Q^4 when RQ^4 is requested, for both a single
+	 * set of tiles and a batch.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void testConvoluteReflectivityRQ4() throws MathException {
+
+		// Local Declarations
+		ReflectivityCalculator calc = new ReflectivityCalculator();
+		double deltaQ0 = 0.0002, deltaQ1ByQ = 0.025, lambda = 4.25;
+		double[] waveVector = new double[200];
+		double[] zInt = new double[ReflectivityCalculator.maxRoughSize];
+		double[] rufInt = new double[ReflectivityCalculator.maxRoughSize];
+
+		// Create the wave vector and the tiles
+		for (int i = 0; i < waveVector.length; i++) {
+			waveVector[i] = 0.008 + 0.001 * i;
+		}
+		calc.getInterfacialProfile(41, zInt, rufInt);
+		Tile[] tiles = calc.generateTiles(slabs, 41, zInt, rufInt);
+
+		// Compute the reflectivity with and without RQ^4
+		double[] refReflectivity = ReferenceReflectivityCalculator
+				.convoluteReflectivity(deltaQ0, deltaQ1ByQ, lambda,
+						waveVector, tiles);
+		double[] reflectivity = calc.convoluteReflectivity(deltaQ0,
+				deltaQ1ByQ, lambda, false, waveVector, tiles);
+		double[] rq4 = calc.convoluteReflectivity(deltaQ0, deltaQ1ByQ,
+				lambda, true, waveVector, tiles);
+		double[][] batch = calc.convoluteReflectivity(deltaQ0, deltaQ1ByQ,
+				lambda, true, waveVector, new Tile[][] { tiles, tiles });
+
+		// Check that RQ^4 is the reflectivity scaled by Q^4
+		assertEquals(waveVector.length, rq4.length);
+		for (int i = 0; i < rq4.length; i++) {
+			double q4 = Math.pow(waveVector[i], 4.0);
+			assertEquals(q4 * refReflectivity[i], rq4[i],
+					1.0e-12 * Math.abs(q4));
+			assertEquals(q4 * reflectivity[i], rq4[i], 0.0);
+			assertEquals(rq4[i], batch[0][i], 0.0);
+			assertEquals(rq4[i], batch[1][i], 0.0);
+		}
+
+		// The reflectivity without RQ^4 should not have been changed
+		double[] plainReflectivity = calc.convoluteReflectivity(deltaQ0,
+				deltaQ1ByQ, lambda, false, waveVector, tiles);
+		for (int i = 0; i < reflectivity.length; i++) {
+			assertEquals(reflectivity[i], plainReflectivity[i], 0.0);
+		}
+
+		return;
+	}
+
 }
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.plotviewer.test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import org.eclipse.ice.viz.service.csv.CSVDataLoader;
+import org.eclipse.ice.viz.service.csv.CSVDataProvider;
+
+/**
+ * <p>
+ * This class is a stand-alone benchmark that measures how long the
+ * CSVDataLoader takes to load a large postprocessor file like those written by
+ * long MOOSE transients, how much heap the loaded CSVDataProvider uses, and
+ * how long it takes to get the arrays for every "y vs. time" series the way
+ * the CSVPlot does when it draws them.
+ * </p>
+ * <p>
+ * It is not a unit test and is not run by the build. Run it with main() from
+ * the workbench or the command line with a large heap, for example -Xmx4g.
+ * </p>
+ * 
+ * @author agent
+ */
+public class CSVDataLoaderBenchmark {
+
+	/**
+	 * The number of rows in the file.
+	 */
+	private static final int numRows = 2000000;
+
+	/**
+	 * The number of postprocessors in the file, not counting the time.
+	 */
+	private static final int numPostprocessors = 5;
+
+	/**
+	 * The number of times the file is loaded.
+	 */
+	private static final int numIterations = 5;
+
+	/**
+	 * This operation runs the benchmark.
+	 * 
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) throws Exception {
+
+		// Local Declarations
+		File file = createFile();
+		CSVDataProvider provider = null;
+		long loadTime = 0, seriesTime = 0, start, baseline;
+
+		System.out.println("CSVDataLoaderBenchmark: " + numRows + " rows, "
+				+ (numPostprocessors + 1) + " columns, " + file.length()
+				/ (1024 * 1024) + " MB");
+
+		// Warm up
+		new CSVDataLoader().load(file);
+
+		// Time the loads and the series
+		for (int i = 0; i < numIterations; i++) {
+			provider = null;
+			start = System.nanoTime();
+			provider = new CSVDataLoader().load(file);
+			loadTime += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			List<String> features = provider.getFeatureList();
+			for (String feature : features) {
+				provider.setFeatureAsIndependentVariable(feature);
+			}
+			for (String feature : features) {
+				if (!"time".equals(feature)) {
+					provider.getPositionAtCurrentTime("time");
+					provider.getValuesAtCurrentTime(feature);
+				}
+			}
+			seriesTime += System.nanoTime() - start;
+		}
+
+		// Measure the heap used by the last provider
+		baseline = usedMemory();
+		provider = null;
+		baseline -= usedMemory();
+
+		// Report the results
+		System.out.println("\tload (ms) " + loadTime / 1.0e6 / numIterations
+				+ ", series (ms) " + seriesTime / 1.0e6 / numIterations
+				+ ", heap (MB) " + baseline / (1024 * 1024));
+
+		// Clean up
+		file.delete();
+
+		return;
+	}
+
+	/**
+	 * This operation writes the postprocessor file.
+	 * 
+	 * @return The file
+	 * @throws IOException
+	 */
+	private static File createFile() throws IOException {
+
+		// Local Declarations
+		File file = File.createTempFile("postprocessors", ".csv");
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+
+		// Write the header
+		writer.write("time");
+		for (int i = 0; i < numPostprocessors; i++) {
+			writer.write(",pp" + i);
+		}
+		writer.newLine();
+
+		// Write the rows
+		for (int i = 0; i < numRows; i++) {
+			double time = 0.01 * i;
+			writer.write(Double.toString(time));
+			for (int j = 0; j < numPostprocessors; j++) {
+				writer.write(",");
+				writer.write(Double.toString(Math.sin(time + j) * 1.0e3));
+			}
+			writer.newLine();
+		}
+		writer.close();
+
+		return file;
+	}
+
+	/**
+	 * This operation returns the heap that is in use after a few garbage
+	 * collections.
+	 * 
+	 * @return The used heap in bytes
+	 */
+	private static long usedMemory() {
+
+		Runtime runtime = Runtime.getRuntime();
+
+		// Collect a few times to let the collector settle
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -15,6 +15,8 @@ package org.eclipse.ice.viz.plotviewer.test;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,6 +27,7 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.viz.service.csv.CSVData;
 import org.eclipse.ice.viz.service.csv.CSVDataLoader;
 import org.eclipse.ice.viz.service.csv.CSVDataProvider;
 import org.junit.Before;
@@ -40,6 +43,7 @@ import org.junit.Test;
  * Case 2: 	A very basic single CSV file (IFA-431_rod1_out.csv) with no special
  * 			#labels of any sort. The features have uncertainties.
  * Case 3:	A contour file (sqe0.5.csv).
+ * Case 4:	A temporary file with numbers in many different formats.
  * 
  * @author Claire Saunders, Anna Wojtowicz
  * 
@@ -722,4 +726,80 @@ public class CSVDataLoaderTester {
 		// Check that the maximums are equal
 		assertTrue(contourMax == contourProvider.getDataMax());
 	}
+
+	/**
+	 * Check that numbers in different formats are parsed exactly like
+	 * Double.parseDouble() would parse them, that Windows line endings and
+	 * trailing commas are handled and that the columns are served without
+	 * copies.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkNumberFormats() throws IOException {
+
+		// Local Declarations
+		String[] xValues = { "0", "-0.0", "1.5E+3", "  2.25 ", ".5",
+				"123456789012345678901", "1e-30", "-7.123456789012345e22",
+				"3.", "NaN" };
+		String[] yValues = { "0.1", "0.2", "0.3", "1e308", "-1e-308",
+				"4.9e-324", "12345.6789", "Infinity", "-2", "1E5" };
+		File file = File.createTempFile("numberFormats", ".csv");
+		FileWriter writer = new FileWriter(file);
+
+		// Write the file with an error column, Windows line endings and
+		// trailing commas
+		writer.write("#features, x, y, y_error\r\n");
+		writer.write("#units, m, s, s\r\n");
+		for (int i = 0; i < xValues.length; i++) {
+			writer.write(xValues[i] + "," + yValues[i] + "," + (i - 1)
+					+ ",\r\n");
+		}
+		writer.close();
+
+		// Load it
+		CSVDataProvider provider = new CSVDataLoader().load(file.getPath());
+		assertNotNull(provider);
+		assertEquals(2, provider.getFeatureList().size());
+
+		// Check the values, units and uncertainties. Negative uncertainties
+		// are ignored.
+		ArrayList<IData> xData = provider.getDataAtCurrentTime("x");
+		ArrayList<IData> yData = provider.getDataAtCurrentTime("y");
+		assertEquals(xValues.length, xData.size());
+		for (int i = 0; i < xValues.length; i++) {
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(xValues[i])),
+					Double.doubleToLongBits(xData.get(i).getValue()));
+			assertEquals(Double.doubleToLongBits(Double.parseDouble(yValues[i])),
+					Double.doubleToLongBits(yData.get(i).getValue()));
+			assertEquals(Math.max(0.0, i - 1), yData.get(i).getUncertainty(),
+					0.0);
+			assertEquals("m", xData.get(i).getUnits());
+			assertEquals("s", yData.get(i).getUnits());
+		}
+
+		// The minimum and maximum include every value in the file
+		assertEquals(-7.123456789012345e22, provider.getDataMin(), 0.0);
+		assertEquals(Double.POSITIVE_INFINITY, provider.getDataMax(), 0.0);
+		assertEquals(-2.0, provider.getMinimumAtCurrentTime("y"), 0.0);
+
+		// The values should be copies of the column, so changing them should
+		// not change the provider
+		double[] values = provider.getValuesAtCurrentTime("y");
+		assertEquals(yValues.length, values.length);
+		assertNotSame(values, provider.getValuesAtCurrentTime("y"));
+		assertNotSame(values, provider.getPositionAtCurrentTime("y"));
+		values[0] = 7.0;
+		assertEquals(yData.get(0).getValue(),
+				provider.getValuesAtCurrentTime("y")[0], 0.0);
+
+		// Changing a view should change the column
+		((CSVData) yData.get(0)).setValue(5.0);
+		assertEquals(5.0, provider.getValuesAtCurrentTime("y")[0], 0.0);
+
+		// Clean up
+		file.delete();
+
+		return;
+	}
 }
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.plotviewer.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.viz.service.csv.CSVDataProvider;
+import org.eclipse.ice.viz.service.csv.CSVFileTailer;
+import org.eclipse.ice.viz.service.csv.ICSVTailListener;
+import org.junit.Test;
+
+/**
+ * This class checks that the CSVFileTailer adds lines appended to a CSV file
+ * to its provider, waits for incomplete lines and starts over when the file
+ * is rewritten.
+ * 
+ * @author agent
+ */
+public class CSVFileTailerTester {
+
+	/**
+	 * The index of the first value in the last notification.
+	 */
+	private int firstIndex;
+
+	/**
+	 * The number of values in the last notification.
+	 */
+	private int count;
+
+	/**
+	 * The number of notifications.
+	 */
+	private int numNotifications;
+
+	/**
+	 * This operation writes text to the file.
+	 * 
+	 * @param file
+	 *            The file
+	 * @param text
+	 *            The text
+	 * @param append
+	 *            True if the text should be appended to the file
+	 * @throws IOException
+	 */
+	private void write(File file, String text, boolean append)
+			throws IOException {
+		FileWriter writer = new FileWriter(file, append);
+		writer.write(text);
+		writer.close();
+	}
+
+	/**
+	 * This operation checks that appended lines are added to the provider and
+	 * that the listeners are only told about the new values.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void checkRefresh() throws Exception {
+
+		// Local Declarations
+		File file = File.createTempFile("tail", ".csv");
+
+		// Write the header, two lines and part of a third
+		write(file, "time,temperature\n0.0,300.0\n1.0,310.0\n2.0,3", false);
+
+		// The incomplete line should not be loaded
+		CSVFileTailer tailer = new CSVFileTailer(file, 10);
+		CSVDataProvider provider = tailer.getDataProvider();
+		tailer.addListener(new ICSVTailListener() {
+			@Override
+			public void dataAppended(CSVDataProvider provider, int first,
+					int num) {
+				firstIndex = first;
+				count = num;
+				numNotifications++;
+			}
+		});
+		assertEquals(2, provider.getValuesAtCurrentTime("time").length);
+		assertEquals(310.0,
+				provider.getValuesAtCurrentTime("temperature")[1], 0.0);
+
+		// Nothing changed
+		assertEquals(0, tailer.refresh());
+		assertEquals(0, numNotifications);
+
+		// Finish the line and add another
+		write(file, "20.0\n3.0,330.0\n", true);
+		assertEquals(2, tailer.refresh());
+		assertEquals(1, numNotifications);
+		assertEquals(2, firstIndex);
+		assertEquals(2, count);
+		double[] temperatures = provider.getValuesAtCurrentTime("temperature");
+		assertEquals(4, temperatures.length);
+		assertEquals(320.0, temperatures[2], 0.0);
+		assertEquals(330.0, temperatures[3], 0.0);
+		assertEquals(330.0, provider.getMaximumAtCurrentTime("temperature"),
+				0.0);
+		assertEquals(2, provider.getValuesAtCurrentTime("temperature", 2).length);
+
+		// Rewrite the file with less data. It should start over.
+		write(file, "time,temperature\n0.0,290.0\n", false);
+		assertEquals(1, tailer.refresh());
+		assertEquals(2, numNotifications);
+		assertEquals(0, firstIndex);
+		assertEquals(1, count);
+		temperatures = provider.getValuesAtCurrentTime("temperature");
+		assertEquals(1, temperatures.length);
+		assertEquals(290.0, temperatures[0], 0.0);
+
+		// Clean up
+		file.delete();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the tailer reads appended lines on its own
+	 * once it is started.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void checkWatch() throws Exception {
+
+		// Local Declarations
+		File file = File.createTempFile("tail", ".csv");
+		write(file, "#features,x,y\n0,0\n", false);
+		CSVFileTailer tailer = new CSVFileTailer(file, 10);
+		CSVDataProvider provider = tailer.getDataProvider();
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		// Release the latch once all of the lines have been read. The
+		// listener is called on the watching thread.
+		tailer.addListener(new ICSVTailListener() {
+			@Override
+			public void dataAppended(CSVDataProvider provider, int first,
+					int num) {
+				if (first + num == 4) {
+					latch.countDown();
+				}
+			}
+		});
+
+		// Start it and append some lines
+		tailer.start();
+		assertTrue(tailer.isRunning());
+		write(file, "1,1\n2,4\n3,9\n", true);
+
+		// Wait for them to be read. The timeout only guards against a hang.
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+		tailer.stop();
+		assertFalse(tailer.isRunning());
+		synchronized (provider) {
+			assertEquals(4, provider.getValuesAtCurrentTime("y").length);
+			assertEquals(9.0, provider.getValuesAtCurrentTime("y")[3], 0.0);
+		}
+
+		// Clean up
+		file.delete();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a file that only has its header is loaded
+	 * as zero rows and that the first lines of data are read when they are
+	 * appended.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void checkHeaderOnly() throws Exception {
+
+		// Local Declarations
+		File file = File.createTempFile("tail", ".csv");
+		write(file, "#features,x,y\n#units,s,m\n", false);
+
+		// The features should be there, but no values yet
+		CSVFileTailer tailer = new CSVFileTailer(file, 10);
+		CSVDataProvider provider = tailer.getDataProvider();
+		assertTrue(provider.getFeatureList().contains("y"));
+		assertEquals(0, provider.getNumberOfValuesAtCurrentTime("y"));
+		assertEquals(0, tailer.refresh());
+
+		// Append the first lines of data
+		write(file, "0,0\n1,1\n2,4\n", true);
+		assertEquals(3, tailer.refresh());
+		double[] y = provider.getValuesAtCurrentTime("y");
+		assertEquals(3, y.length);
+		assertEquals(4.0, y[2], 0.0);
+		assertEquals(4.0, provider.getMaximumAtCurrentTime("y"), 0.0);
+
+		// A file without any complete lines still can not be tailed
+		write(file, "#features,x,y", false);
+		try {
+			new CSVFileTailer(file, 10);
+			fail();
+		} catch (Exception e) {
+			// Good
+		}
+
+		// Clean up
+		file.delete();
+
+		return;
+	}
+
+}
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.plotviewer.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.eclipse.ice.viz.service.csv.SeriesPyramid;
+import org.junit.Test;
+
+/**
+ * This class checks that the SeriesPyramid reduces a series to a number of
+ * points that depends only on the width of the plot without losing its peaks.
+ * 
+ * @author agent
+ */
+public class SeriesPyramidTester {
+
+	/**
+	 * The number of points in the series.
+	 */
+	private static final int numPoints = 1000003;
+
+	/**
+	 * The width of the plot in pixels.
+	 */
+	private static final int width = 500;
+
+	/**
+	 * This operation creates the x values, which are increasing.
+	 * 
+	 * @return The x values
+	 */
+	private double[] createX() {
+		double[] x = new double[numPoints];
+		for (int i = 0; i < numPoints; i++) {
+			x[i] = 0.5 * i;
+		}
+		return x;
+	}
+
+	/**
+	 * This operation creates the y values, a sine with two spikes.
+	 * 
+	 * @return The y values
+	 */
+	private double[] createY() {
+		double[] y = new double[numPoints];
+		for (int i = 0; i < numPoints; i++) {
+			y[i] = Math.sin(i * 1.0e-3);
+		}
+		y[123457] = 10.0;
+		y[876543] = -10.0;
+		return y;
+	}
+
+	/**
+	 * This operation checks that the points are in order, that there are at
+	 * most about two per pixel and that the values are in the series.
+	 * 
+	 * @param points
+	 *            The selected points
+	 * @param x
+	 *            The x values of the series
+	 * @param y
+	 *            The y values of the series
+	 */
+	private void checkPoints(double[][] points, double[] x, double[] y) {
+		assertEquals(points[0].length, points[1].length);
+		assertTrue(points[0].length <= 2 * width + 100);
+		for (int i = 0; i < points[0].length; i++) {
+			int index = (int) (2.0 * points[0][i]);
+			assertEquals(x[index], points[0][i], 0.0);
+			assertEquals(y[index], points[1][i], 0.0);
+			if (i > 0) {
+				assertTrue(points[0][i] > points[0][i - 1]);
+			}
+		}
+	}
+
+	/**
+	 * This operation checks the selection of the whole series and of a range.
+	 */
+	@Test
+	public void checkSelect() {
+
+		// Local Declarations
+		double[] x = createX();
+		double[] y = createY();
+		SeriesPyramid pyramid = new SeriesPyramid();
+		pyramid.append(x, y);
+		assertEquals(numPoints, pyramid.size());
+
+		// The whole series should keep the first and last points and both
+		// spikes
+		double[][] points = pyramid.select(Double.NEGATIVE_INFINITY,
+				Double.POSITIVE_INFINITY, width);
+		checkPoints(points, x, y);
+		assertEquals(x[0], points[0][0], 0.0);
+		assertEquals(x[numPoints - 1], points[0][points[0].length - 1], 0.0);
+		double[] sorted = Arrays.copyOf(points[1], points[1].length);
+		Arrays.sort(sorted);
+		assertEquals(-10.0, sorted[0], 0.0);
+		assertEquals(10.0, sorted[sorted.length - 1], 0.0);
+
+		// A range should include one point on each side of it and the spike
+		// in it
+		points = pyramid.select(50000.0, 70000.0, width);
+		checkPoints(points, x, y);
+		assertTrue(points[0][0] < 50000.0);
+		assertTrue(points[0][points[0].length - 1] > 70000.0);
+		assertTrue(points[0][1] >= 50000.0);
+		assertEquals(10.0, max(points[1]), 0.0);
+
+		// A small range should return all of its points
+		points = pyramid.select(100.0, 200.0, width);
+		assertEquals(203, points[0].length);
+		assertEquals(99.5, points[0][0], 0.0);
+		assertEquals(200.5, points[0][202], 0.0);
+
+		// A range past the end should only return the last point
+		points = pyramid.select(1.0e7, 2.0e7, width);
+		assertEquals(1, points[0].length);
+
+		// Clear it
+		pyramid.clear();
+		assertEquals(0, pyramid.size());
+		assertEquals(0, pyramid.select(0.0, 1.0, width)[0].length);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the first and last points of the range are
+	 * kept when they are not the minimum or maximum of their buckets. The
+	 * series is a ramp with a ripple that starts halfway up a crest.
+	 */
+	@Test
+	public void checkEdges() {
+
+		// Local Declarations
+		int n = 100000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		SeriesPyramid pyramid = new SeriesPyramid();
+
+		// Create the ramp
+		for (int i = 0; i < n; i++) {
+			x[i] = i;
+			y[i] = 1.0e-3 * i + Math.sin(2.0 * Math.PI * i / 1000.0 + 1.0);
+		}
+		pyramid.append(x, y);
+
+		// The whole series should start and end with the real data
+		double[][] points = pyramid.select(Double.NEGATIVE_INFINITY,
+				Double.POSITIVE_INFINITY, width);
+		int last = points[0].length - 1;
+		assertTrue(last + 1 <= 2 * width + 100);
+		assertEquals(0.0, points[0][0], 0.0);
+		assertEquals(y[0], points[1][0], 0.0);
+		assertEquals(n - 1, points[0][last], 0.0);
+		assertEquals(y[n - 1], points[1][last], 0.0);
+		for (int i = 1; i <= last; i++) {
+			assertTrue(points[0][i] > points[0][i - 1]);
+			assertEquals(y[(int) points[0][i]], points[1][i], 0.0);
+		}
+
+		// A range should start and end with the points on each side of it
+		points = pyramid.select(1000.5, 65000.5, width);
+		last = points[0].length - 1;
+		assertEquals(1000.0, points[0][0], 0.0);
+		assertEquals(65001.0, points[0][last], 0.0);
+		for (int i = 1; i <= last; i++) {
+			assertTrue(points[0][i] > points[0][i - 1]);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that appending the points in pieces gives the
+	 * same selection as adding them at once.
+	 */
+	@Test
+	public void checkAppend() {
+
+		// Local Declarations
+		double[] x = createX();
+		double[] y = createY();
+		SeriesPyramid pyramid = new SeriesPyramid();
+		SeriesPyramid appendedPyramid = new SeriesPyramid();
+		pyramid.append(x, y);
+
+		// Append it in pieces of different sizes
+		int start = 0, length = 1;
+		while (start < numPoints) {
+			int end = Math.min(numPoints, start + length);
+			appendedPyramid.append(Arrays.copyOfRange(x, start, end),
+					Arrays.copyOfRange(y, start, end));
+			start = end;
+			length = 3 * length + 1;
+		}
+		assertEquals(numPoints, appendedPyramid.size());
+
+		// The selections should be the same
+		double[][] points = pyramid.select(-1.0, 1.0e6, width);
+		double[][] appendedPoints = appendedPyramid.select(-1.0, 1.0e6, width);
+		assertTrue(Arrays.equals(points[0], appendedPoints[0]));
+		assertTrue(Arrays.equals(points[1], appendedPoints[1]));
+		points = pyramid.select(1234.5, 4321.0, width);
+		appendedPoints = appendedPyramid.select(1234.5, 4321.0, width);
+		assertTrue(Arrays.equals(points[0], appendedPoints[0]));
+		assertTrue(Arrays.equals(points[1], appendedPoints[1]));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a series with x values that are not sorted is
+	 * reduced as a whole.
+	 */
+	@Test
+	public void checkUnsorted() {
+
+		// Local Declarations
+		double[] x = createY();
+		double[] y = createX();
+		SeriesPyramid pyramid = new SeriesPyramid();
+		pyramid.append(x, y);
+
+		// The range is ignored, but the extremes are kept
+		double[][] points = pyramid.select(0.0, 0.1, width);
+		assertTrue(points[0].length <= 2 * width + 100);
+		assertEquals(y[0], points[1][0], 0.0);
+		assertEquals(y[numPoints - 1], max(points[1]), 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation returns the largest value in an array.
+	 * 
+	 * @param values
+	 *            The values
+	 * @return The maximum
+	 */
+	private double max(double[] values) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (double value : values) {
+			max = Math.max(max, value);
+		}
+		return max;
+	}
+
+}